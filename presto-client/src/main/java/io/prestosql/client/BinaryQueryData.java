@@ -0,0 +1,247 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.AbstractIterator;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.json.ObjectMapperProvider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.prestosql.client.FixJsonDataUtils.fixValue;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Columnar binary encoding of query result rows, used instead of the JSON
+ * {@code data} field when the client declares {@link ClientCapabilities#BINARY_DATA}.
+ * <p>
+ * The encoded data starts with a flags byte. If {@link #COMPRESSED} is set, it is followed
+ * by the uncompressed size and the LZ4 compressed payload. The payload contains the row count,
+ * the column count and then each column: an encoding byte, a null bitmap with one bit per row,
+ * and the values of the non-null rows. All numbers are little endian. Columns of types without
+ * a dedicated encoding contain the JSON representation of every value.
+ */
+public final class BinaryQueryData
+{
+    public static final byte COMPRESSED = 1;
+
+    public static final byte BOOLEAN_ENCODING = 0;
+    public static final byte BYTE_ENCODING = 1;
+    public static final byte SHORT_ENCODING = 2;
+    public static final byte INT_ENCODING = 3;
+    public static final byte LONG_ENCODING = 4;
+    public static final byte FLOAT_ENCODING = 5;
+    public static final byte DOUBLE_ENCODING = 6;
+    public static final byte STRING_ENCODING = 7;
+    public static final byte BYTES_ENCODING = 8;
+    public static final byte JSON_ENCODING = 9;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapperProvider().get();
+
+    private BinaryQueryData() {}
+
+    /**
+     * Returns the rows of the encoded data. The layout of the columns is read eagerly, but the
+     * values are only decoded while the rows are iterated, so values carried as JSON are parsed
+     * one row at a time instead of all at once.
+     */
+    public static Iterable<List<Object>> decode(List<Column> columns, byte[] data)
+    {
+        requireNonNull(columns, "columns is null");
+        requireNonNull(data, "data is null");
+
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(LITTLE_ENDIAN);
+        byte flags = buffer.get();
+        if ((flags & COMPRESSED) != 0) {
+            int uncompressedSize = buffer.getInt();
+            byte[] uncompressed = new byte[uncompressedSize];
+            int size = new Lz4Decompressor().decompress(data, buffer.position(), buffer.remaining(), uncompressed, 0, uncompressedSize);
+            checkArgument(size == uncompressedSize, "Expected %s uncompressed bytes, but got %s", uncompressedSize, size);
+            buffer = ByteBuffer.wrap(uncompressed).order(LITTLE_ENDIAN);
+        }
+
+        int rowCount = buffer.getInt();
+        int columnCount = buffer.getInt();
+        checkArgument(columnCount == columns.size(), "Expected %s columns, but got %s", columns.size(), columnCount);
+
+        List<ColumnData> columnData = new ArrayList<>(columnCount);
+        for (int column = 0; column < columnCount; column++) {
+            columnData.add(ColumnData.read(buffer, columns.get(column).getTypeSignature(), rowCount));
+        }
+        checkArgument(!buffer.hasRemaining(), "Unexpected data after the last column");
+
+        ByteBuffer values = buffer;
+        return () -> new RowIterator(values, columnData, rowCount);
+    }
+
+    private static Object readValue(ByteBuffer buffer, byte encoding, ClientTypeSignature signature)
+    {
+        switch (encoding) {
+            case BOOLEAN_ENCODING:
+                return buffer.get() != 0;
+            case BYTE_ENCODING:
+                return buffer.get();
+            case SHORT_ENCODING:
+                return buffer.getShort();
+            case INT_ENCODING:
+                return buffer.getInt();
+            case LONG_ENCODING:
+                return buffer.getLong();
+            case FLOAT_ENCODING:
+                return buffer.getFloat();
+            case DOUBLE_ENCODING:
+                return buffer.getDouble();
+            case STRING_ENCODING:
+                return new String(readBytes(buffer), UTF_8);
+            case BYTES_ENCODING:
+                return readBytes(buffer);
+            case JSON_ENCODING:
+                try {
+                    return fixValue(signature, OBJECT_MAPPER.readValue(readBytes(buffer), Object.class));
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            default:
+                throw new IllegalArgumentException("Unknown encoding: " + encoding);
+        }
+    }
+
+    private static void skipValue(ByteBuffer buffer, byte encoding)
+    {
+        switch (encoding) {
+            case BOOLEAN_ENCODING:
+            case BYTE_ENCODING:
+                buffer.position(buffer.position() + Byte.BYTES);
+                return;
+            case SHORT_ENCODING:
+                buffer.position(buffer.position() + Short.BYTES);
+                return;
+            case INT_ENCODING:
+            case FLOAT_ENCODING:
+                buffer.position(buffer.position() + Integer.BYTES);
+                return;
+            case LONG_ENCODING:
+            case DOUBLE_ENCODING:
+                buffer.position(buffer.position() + Long.BYTES);
+                return;
+            case STRING_ENCODING:
+            case BYTES_ENCODING:
+            case JSON_ENCODING:
+                int length = buffer.getInt();
+                buffer.position(buffer.position() + length);
+                return;
+            default:
+                throw new IllegalArgumentException("Unknown encoding: " + encoding);
+        }
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static class ColumnData
+    {
+        private final ClientTypeSignature signature;
+        private final byte encoding;
+        private final byte[] nulls;
+        private final int valuesOffset;
+
+        private ColumnData(ClientTypeSignature signature, byte encoding, byte[] nulls, int valuesOffset)
+        {
+            this.signature = requireNonNull(signature, "signature is null");
+            this.encoding = encoding;
+            this.nulls = requireNonNull(nulls, "nulls is null");
+            this.valuesOffset = valuesOffset;
+        }
+
+        /**
+         * Reads the encoding and the null bitmap of the column, and skips its values.
+         */
+        public static ColumnData read(ByteBuffer buffer, ClientTypeSignature signature, int rowCount)
+        {
+            byte encoding = buffer.get();
+            byte[] nulls = new byte[(rowCount + 7) / 8];
+            buffer.get(nulls);
+            ColumnData column = new ColumnData(signature, encoding, nulls, buffer.position());
+            for (int row = 0; row < rowCount; row++) {
+                if (!column.isNull(row)) {
+                    skipValue(buffer, encoding);
+                }
+            }
+            return column;
+        }
+
+        public boolean isNull(int row)
+        {
+            return (nulls[row >> 3] & (1 << (row & 7))) != 0;
+        }
+    }
+
+    private static class RowIterator
+            extends AbstractIterator<List<Object>>
+    {
+        private final ByteBuffer buffer;
+        private final List<ColumnData> columns;
+        private final int rowCount;
+        // position of the next value of each column
+        private final int[] valuePositions;
+        private int row;
+
+        public RowIterator(ByteBuffer buffer, List<ColumnData> columns, int rowCount)
+        {
+            // the buffer is shared by all the iterators of the rows
+            this.buffer = buffer.duplicate().order(LITTLE_ENDIAN);
+            this.columns = requireNonNull(columns, "columns is null");
+            this.rowCount = rowCount;
+            this.valuePositions = columns.stream()
+                    .mapToInt(column -> column.valuesOffset)
+                    .toArray();
+        }
+
+        @Override
+        protected List<Object> computeNext()
+        {
+            if (row >= rowCount) {
+                return endOfData();
+            }
+
+            Object[] values = new Object[columns.size()];
+            for (int column = 0; column < values.length; column++) {
+                ColumnData columnData = columns.get(column);
+                if (columnData.isNull(row)) {
+                    continue;
+                }
+                buffer.position(valuePositions[column]);
+                values[column] = readValue(buffer, columnData.encoding, columnData.signature);
+                valuePositions[column] = buffer.position();
+            }
+            row++;
+            return unmodifiableList(Arrays.asList(values)); // allow nulls in list
+        }
+    }
+}
@@ -23,5 +23,12 @@ public enum ClientCapabilities
     //   time(p) without time zone
     //   interval X(p1) to Y(p2)
     // When this capability is not set, the server returns datetime types with precision = 3
-    PARAMETRIC_DATETIME;
+    PARAMETRIC_DATETIME,
+    // Whether clients support result rows in the columnar binary encoding (see BinaryQueryData)
+    // Such clients should accept application/x-jackson-smile responses, so the rows are not sent as base64 text
+    // When this capability is not set, the server returns result rows as JSON
+    BINARY_DATA,
+    // Whether clients support result segments which are downloaded directly from the workers (see DataSegment)
+    // The server only returns segments when the client also supports BINARY_DATA
+    SPOOLED_DATA;
 }
@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.client;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import java.net.URI;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A segment of result rows in the {@link BinaryQueryData} encoding, returned when the client
+ * declares {@link ClientCapabilities#SPOOLED_DATA}. The rows are either stored on a worker and
+ * downloaded from {@link #getUri()}, or are small enough to be inlined in {@link #getData()}.
+ */
+@Immutable
+public class DataSegment
+{
+    private final URI uri;
+    private final byte[] data;
+    private final long rowCount;
+
+    @JsonCreator
+    public DataSegment(
+            @JsonProperty("uri") URI uri,
+            @JsonProperty("data") byte[] data,
+            @JsonProperty("rowCount") long rowCount)
+    {
+        checkArgument((uri == null) != (data == null), "exactly one of uri and data must be present");
+        checkArgument(rowCount >= 0, "rowCount is negative");
+        this.uri = uri;
+        this.data = data;
+        this.rowCount = rowCount;
+    }
+
+    public static DataSegment spooledSegment(URI uri, long rowCount)
+    {
+        return new DataSegment(uri, null, rowCount);
+    }
+
+    public static DataSegment inlineSegment(byte[] data, long rowCount)
+    {
+        return new DataSegment(null, data, rowCount);
+    }
+
+    @Nullable
+    @JsonProperty
+    public URI getUri()
+    {
+        return uri;
+    }
+
+    @Nullable
+    @JsonProperty
+    public byte[] getData()
+    {
+        return data;
+    }
+
+    @JsonProperty
+    public long getRowCount()
+    {
+        return rowCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .omitNullValues()
+                .add("uri", uri)
+                .add("dataSize", (data == null) ? null : data.length)
+                .add("rowCount", rowCount)
+                .toString();
+    }
+}
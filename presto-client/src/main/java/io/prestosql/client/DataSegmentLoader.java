@@ -0,0 +1,154 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.client;
+
+import com.google.common.collect.ImmutableList;
+import okhttp3.Authenticator;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.CookieJar;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import static io.prestosql.client.BinaryQueryData.decode;
+import static java.lang.String.format;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Downloads the spooled {@link DataSegment}s of a result in parallel. The segment URIs
+ * contain a token that authorizes the download, so the requests to the workers are sent
+ * without the credentials of the client. A segment is acknowledged once it has been downloaded,
+ * so that the worker removes it; until then, a failed download can be retried.
+ */
+class DataSegmentLoader
+{
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final OkHttpClient httpClient;
+    private final Function<HttpUrl, Request.Builder> requestFactory;
+
+    public DataSegmentLoader(OkHttpClient httpClient, Function<HttpUrl, Request.Builder> requestFactory)
+    {
+        requireNonNull(httpClient, "httpClient is null");
+        // shares the connection pool and TLS configuration, but not the authentication
+        OkHttpClient.Builder builder = httpClient.newBuilder()
+                .authenticator(Authenticator.NONE)
+                .cookieJar(CookieJar.NO_COOKIES);
+        builder.interceptors().clear();
+        builder.networkInterceptors().clear();
+        this.httpClient = builder.build();
+        this.requestFactory = requireNonNull(requestFactory, "requestFactory is null");
+    }
+
+    public List<List<Object>> load(List<Column> columns, List<DataSegment> segments)
+    {
+        List<CompletableFuture<byte[]>> futures = new ArrayList<>(segments.size());
+        for (DataSegment segment : segments) {
+            if (segment.getUri() == null) {
+                futures.add(completedFuture(segment.getData()));
+            }
+            else {
+                CompletableFuture<byte[]> future = new CompletableFuture<>();
+                download(requestFactory.apply(HttpUrl.get(segment.getUri())).build(), future, 1);
+                futures.add(future);
+            }
+        }
+
+        // segments are decoded in order, while the remaining ones are still downloading
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        for (CompletableFuture<byte[]> future : futures) {
+            rows.addAll(decode(columns, getSegmentData(future)));
+        }
+        return rows.build();
+    }
+
+    private void download(Request request, CompletableFuture<byte[]> future, int attempt)
+    {
+        httpClient.newCall(request).enqueue(new Callback()
+        {
+            @Override
+            public void onFailure(Call call, IOException e)
+            {
+                if (attempt < MAX_ATTEMPTS) {
+                    download(request, future, attempt + 1);
+                    return;
+                }
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response)
+            {
+                try (ResponseBody body = response.body()) {
+                    if (response.code() == HTTP_OK) {
+                        future.complete(body.bytes());
+                        acknowledge(request);
+                        return;
+                    }
+                    if (response.code() == HTTP_UNAVAILABLE && attempt < MAX_ATTEMPTS) {
+                        download(request, future, attempt + 1);
+                        return;
+                    }
+                    future.completeExceptionally(new RuntimeException(format("Error fetching result segment at %s returned HTTP %s", request.url(), response.code())));
+                }
+                catch (IOException e) {
+                    onFailure(call, e);
+                }
+            }
+        });
+    }
+
+    private void acknowledge(Request request)
+    {
+        // segments that are not acknowledged are removed when they expire, so failures are ignored
+        httpClient.newCall(request.newBuilder().delete().build()).enqueue(new Callback()
+        {
+            @Override
+            public void onFailure(Call call, IOException e) {}
+
+            @Override
+            public void onResponse(Call call, Response response)
+            {
+                response.close();
+            }
+        });
+    }
+
+    private static byte[] getSegmentData(CompletableFuture<byte[]> future)
+    {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while fetching result segment", e);
+        }
+        catch (ExecutionException e) {
+            throw new RuntimeException("Error fetching result segment", e.getCause());
+        }
+    }
+}
@@ -81,7 +81,7 @@ final class FixJsonDataUtils
     /**
      * Force values coming from Jackson to have the expected object type.
      */
-    private static Object fixValue(ClientTypeSignature signature, Object value)
+    static Object fixValue(ClientTypeSignature signature, Object value)
     {
         if (value == null) {
             return null;
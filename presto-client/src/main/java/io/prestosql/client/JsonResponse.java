@@ -26,9 +26,12 @@ import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.io.UncheckedIOException;
+import java.util.Optional;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.net.HttpHeaders.ACCEPT;
 import static com.google.common.net.HttpHeaders.LOCATION;
+import static io.prestosql.client.SmileCodec.SMILE_MEDIA_TYPE;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
@@ -74,6 +77,27 @@ public final class JsonResponse<T>
         this.exception = exception;
     }
 
+    private JsonResponse(int statusCode, String statusMessage, Headers headers, byte[] responseBody, SmileCodec<T> smileCodec)
+    {
+        this.statusCode = statusCode;
+        this.statusMessage = statusMessage;
+        this.headers = requireNonNull(headers, "headers is null");
+        // the binary body is not meaningful as text
+        this.responseBody = format("<%s bytes of Smile>", responseBody.length);
+
+        T value = null;
+        IllegalArgumentException exception = null;
+        try {
+            value = smileCodec.fromSmile(responseBody);
+        }
+        catch (IllegalArgumentException e) {
+            exception = new IllegalArgumentException(format("Unable to create %s from Smile response", smileCodec.getType()), e);
+        }
+        this.hasValue = (exception == null);
+        this.value = value;
+        this.exception = exception;
+    }
+
     public int getStatusCode()
     {
         return statusCode;
@@ -128,17 +152,36 @@ public final class JsonResponse<T>
 
     public static <T> JsonResponse<T> execute(JsonCodec<T> codec, OkHttpClient client, Request request)
     {
+        return execute(codec, Optional.empty(), client, request);
+    }
+
+    /**
+     * Executes the request, and asks for a Smile response when a Smile codec is given.
+     * Resources which only produce JSON still respond with JSON.
+     */
+    public static <T> JsonResponse<T> execute(JsonCodec<T> codec, Optional<SmileCodec<T>> smileCodec, OkHttpClient client, Request request)
+    {
+        if (smileCodec.isPresent()) {
+            request = request.newBuilder()
+                    .header(ACCEPT, SMILE_MEDIA_TYPE + ", application/json;q=0.9")
+                    .build();
+        }
+
         try (Response response = client.newCall(request).execute()) {
             // TODO: fix in OkHttp: https://github.com/square/okhttp/issues/3111
             if ((response.code() == 307) || (response.code() == 308)) {
                 String location = response.header(LOCATION);
                 if (location != null) {
                     request = request.newBuilder().url(location).build();
-                    return execute(codec, client, request);
+                    return execute(codec, smileCodec, client, request);
                 }
             }
 
             ResponseBody responseBody = requireNonNull(response.body());
+            if (smileCodec.isPresent() && isSmile(responseBody.contentType())) {
+                return new JsonResponse<>(response.code(), response.message(), response.headers(), responseBody.bytes(), smileCodec.get());
+            }
+
             String body = responseBody.string();
             if (isJson(responseBody.contentType())) {
                 return new JsonResponse<>(response.code(), response.message(), response.headers(), body, codec);
@@ -159,4 +202,9 @@ public final class JsonResponse<T>
     {
         return (type != null) && "application".equals(type.type()) && "json".equals(type.subtype());
     }
+
+    private static boolean isSmile(MediaType type)
+    {
+        return (type != null) && SMILE_MEDIA_TYPE.equals(type.type() + "/" + type.subtype());
+    }
 }
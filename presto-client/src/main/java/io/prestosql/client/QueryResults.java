@@ -22,11 +22,14 @@ import javax.annotation.concurrent.Immutable;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.Iterables.unmodifiableIterable;
+import static io.prestosql.client.BinaryQueryData.decode;
 import static io.prestosql.client.FixJsonDataUtils.fixData;
 import static java.util.Objects.requireNonNull;
 
@@ -40,6 +43,8 @@ public class QueryResults
     private final URI nextUri;
     private final List<Column> columns;
     private final Iterable<List<Object>> data;
+    private final byte[] binaryData;
+    private final List<DataSegment> segments;
     private final StatementStats stats;
     private final QueryError error;
     private final List<Warning> warnings;
@@ -54,6 +59,8 @@ public class QueryResults
             @JsonProperty("nextUri") URI nextUri,
             @JsonProperty("columns") List<Column> columns,
             @JsonProperty("data") List<List<Object>> data,
+            @JsonProperty("binaryData") byte[] binaryData,
+            @JsonProperty("segments") List<DataSegment> segments,
             @JsonProperty("stats") StatementStats stats,
             @JsonProperty("error") QueryError error,
             @JsonProperty("warnings") List<Warning> warnings,
@@ -66,7 +73,9 @@ public class QueryResults
                 partialCancelUri,
                 nextUri,
                 columns,
-                fixData(columns, data),
+                (binaryData != null) ? decode(columns, binaryData) : fixData(columns, data),
+                null,
+                segments,
                 stats,
                 error,
                 firstNonNull(warnings, ImmutableList.of()),
@@ -86,6 +95,41 @@ public class QueryResults
             List<Warning> warnings,
             String updateType,
             Long updateCount)
+    {
+        this(id, infoUri, partialCancelUri, nextUri, columns, data, null, stats, error, warnings, updateType, updateCount);
+    }
+
+    public QueryResults(
+            String id,
+            URI infoUri,
+            URI partialCancelUri,
+            URI nextUri,
+            List<Column> columns,
+            Iterable<List<Object>> data,
+            byte[] binaryData,
+            StatementStats stats,
+            QueryError error,
+            List<Warning> warnings,
+            String updateType,
+            Long updateCount)
+    {
+        this(id, infoUri, partialCancelUri, nextUri, columns, data, binaryData, null, stats, error, warnings, updateType, updateCount);
+    }
+
+    public QueryResults(
+            String id,
+            URI infoUri,
+            URI partialCancelUri,
+            URI nextUri,
+            List<Column> columns,
+            Iterable<List<Object>> data,
+            byte[] binaryData,
+            List<DataSegment> segments,
+            StatementStats stats,
+            QueryError error,
+            List<Warning> warnings,
+            String updateType,
+            Long updateCount)
     {
         this.id = requireNonNull(id, "id is null");
         this.infoUri = requireNonNull(infoUri, "infoUri is null");
@@ -93,7 +137,12 @@ public class QueryResults
         this.nextUri = nextUri;
         this.columns = (columns != null) ? ImmutableList.copyOf(columns) : null;
         this.data = (data != null) ? unmodifiableIterable(data) : null;
+        this.binaryData = binaryData;
+        this.segments = (segments != null) ? ImmutableList.copyOf(segments) : null;
         checkArgument(data == null || columns != null, "data present without columns");
+        checkArgument(binaryData == null || columns != null, "binary data present without columns");
+        checkArgument(segments == null || columns != null, "segments present without columns");
+        checkArgument(Stream.of(data, binaryData, segments).filter(Objects::nonNull).count() <= 1, "more than one of data, binary data and segments present");
         this.stats = requireNonNull(stats, "stats is null");
         this.error = error;
         this.warnings = ImmutableList.copyOf(requireNonNull(warnings, "warnings is null"));
@@ -147,6 +196,29 @@ public class QueryResults
         return data;
     }
 
+    /**
+     * Result rows in the {@link BinaryQueryData} encoding. This is only set on the server side,
+     * the client decodes it into {@link #getData()}. Clients which ask for Smile responses
+     * receive it as raw bytes, while JSON responses carry it as base64 text.
+     */
+    @Nullable
+    @JsonProperty
+    public byte[] getBinaryData()
+    {
+        return binaryData;
+    }
+
+    /**
+     * Result rows stored in {@link DataSegment}s. The client downloads and decodes
+     * the segments before the results are exposed through {@link QueryData}.
+     */
+    @Nullable
+    @JsonProperty
+    public List<DataSegment> getSegments()
+    {
+        return segments;
+    }
+
     @JsonProperty
     @Override
     public StatementStats getStats()
@@ -194,7 +266,8 @@ public class QueryResults
                 .add("partialCancelUri", partialCancelUri)
                 .add("nextUri", nextUri)
                 .add("columns", columns)
-                .add("hasData", data != null)
+                .add("hasData", data != null || binaryData != null)
+                .add("segments", segments)
                 .add("stats", stats)
                 .add("error", error)
                 .add("updateType", updateType)
@@ -0,0 +1,69 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.airlift.json.ObjectMapperProvider;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decodes responses in the binary Smile format using the same object mapper as the
+ * default {@link io.airlift.json.JsonCodec}. Binary values, such as {@link QueryResults#getBinaryData()},
+ * are carried as raw bytes instead of base64 text.
+ */
+public final class SmileCodec<T>
+{
+    public static final String SMILE_MEDIA_TYPE = "application/x-jackson-smile";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapperProvider().get();
+    private static final SmileFactory SMILE_FACTORY = new SmileFactory(OBJECT_MAPPER);
+
+    private final Type type;
+    private final ObjectReader reader;
+
+    private SmileCodec(Class<T> type)
+    {
+        this.type = requireNonNull(type, "type is null");
+        this.reader = OBJECT_MAPPER.readerFor(type);
+    }
+
+    public static <T> SmileCodec<T> smileCodec(Class<T> type)
+    {
+        return new SmileCodec<>(type);
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    public T fromSmile(byte[] bytes)
+            throws IllegalArgumentException
+    {
+        try (JsonParser parser = SMILE_FACTORY.createParser(bytes)) {
+            return reader.readValue(parser);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException(format("Invalid Smile bytes for %s", type), e);
+        }
+    }
+}
@@ -75,6 +75,7 @@ import static io.prestosql.client.PrestoHeaders.PRESTO_TIME_ZONE;
 import static io.prestosql.client.PrestoHeaders.PRESTO_TRACE_TOKEN;
 import static io.prestosql.client.PrestoHeaders.PRESTO_TRANSACTION_ID;
 import static io.prestosql.client.PrestoHeaders.PRESTO_USER;
+import static io.prestosql.client.SmileCodec.smileCodec;
 import static java.lang.String.format;
 import static java.net.HttpURLConnection.HTTP_OK;
 import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
@@ -88,6 +89,8 @@ class StatementClientV1
 {
     private static final MediaType MEDIA_TYPE_TEXT = MediaType.parse("text/plain; charset=utf-8");
     private static final JsonCodec<QueryResults> QUERY_RESULTS_CODEC = jsonCodec(QueryResults.class);
+    // result rows are requested in the binary encoding, which Smile carries as raw bytes
+    private static final SmileCodec<QueryResults> QUERY_RESULTS_SMILE_CODEC = smileCodec(QueryResults.class);
 
     private static final Splitter SESSION_HEADER_SPLITTER = Splitter.on('=').limit(2).trimResults();
     private static final String USER_AGENT_VALUE = StatementClientV1.class.getSimpleName() +
@@ -112,6 +115,7 @@ class StatementClientV1
     private final Duration requestTimeoutNanos;
     private final String user;
     private final String clientCapabilities;
+    private final DataSegmentLoader segmentLoader;
 
     private final AtomicReference<State> state = new AtomicReference<>(State.RUNNING);
 
@@ -128,6 +132,9 @@ class StatementClientV1
         this.requestTimeoutNanos = session.getClientRequestTimeout();
         this.user = session.getUser();
         this.clientCapabilities = Joiner.on(",").join(ClientCapabilities.values());
+        this.segmentLoader = new DataSegmentLoader(httpClient, url -> new Request.Builder()
+                .addHeader(USER_AGENT, USER_AGENT_VALUE)
+                .url(url));
 
         Request request = buildQueryRequest(session, query);
 
@@ -396,7 +403,7 @@ class StatementClientV1
 
             JsonResponse<QueryResults> response;
             try {
-                response = JsonResponse.execute(QUERY_RESULTS_CODEC, httpClient, request);
+                response = JsonResponse.execute(QUERY_RESULTS_CODEC, Optional.of(QUERY_RESULTS_SMILE_CODEC), httpClient, request);
             }
             catch (RuntimeException e) {
                 cause = e;
@@ -457,7 +464,36 @@ class StatementClientV1
             clearTransactionId.set(true);
         }
 
-        currentResults.set(results);
+        currentResults.set(loadSegments(results));
+    }
+
+    private QueryResults loadSegments(QueryResults results)
+    {
+        if (results.getSegments() == null) {
+            return results;
+        }
+
+        List<List<Object>> data;
+        try {
+            data = segmentLoader.load(results.getColumns(), results.getSegments());
+        }
+        catch (RuntimeException e) {
+            state.compareAndSet(State.RUNNING, State.CLIENT_ERROR);
+            throw e;
+        }
+
+        return new QueryResults(
+                results.getId(),
+                results.getInfoUri(),
+                results.getPartialCancelUri(),
+                results.getNextUri(),
+                results.getColumns(),
+                data,
+                results.getStats(),
+                results.getError(),
+                results.getWarnings(),
+                results.getUpdateType(),
+                results.getUpdateCount());
     }
 
     private RuntimeException requestFailedException(String task, Request request, JsonResponse<QueryResults> response)
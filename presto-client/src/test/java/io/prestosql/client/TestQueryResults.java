@@ -13,11 +13,37 @@
  */
 package io.prestosql.client;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Bytes;
 import io.airlift.json.JsonCodec;
+import io.airlift.json.ObjectMapperProvider;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+
 import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.prestosql.client.BinaryQueryData.JSON_ENCODING;
+import static io.prestosql.client.ClientStandardTypes.ARRAY;
+import static io.prestosql.client.ClientStandardTypes.BIGINT;
+import static io.prestosql.client.SmileCodec.smileCodec;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
 
 public class TestQueryResults
 {
@@ -62,4 +88,109 @@ public class TestQueryResults
         QueryResults results = QUERY_RESULTS_CODEC.fromJson(goldenValue);
         assertEquals(results.getId(), "20160128_214710_00012_rk68b");
     }
+
+    @Test
+    public void testBinaryData()
+    {
+        String value = "{\n" +
+                "  \"id\" : \"20160128_214710_00012_rk68b\",\n" +
+                "  \"infoUri\" : \"http://localhost:54855/query.html?20160128_214710_00012_rk68b\",\n" +
+                "  \"columns\" : [ {\n" +
+                "    \"name\" : \"_col0\",\n" +
+                "    \"type\" : \"bigint\",\n" +
+                "    \"typeSignature\" : {\n" +
+                "      \"rawType\" : \"bigint\",\n" +
+                "      \"arguments\" : [ ]\n" +
+                "    }\n" +
+                "  } ],\n" +
+                // rows [123] and [null]
+                "  \"binaryData\" : \"AAIAAAABAAAABAJ7AAAAAAAAAA==\",\n" +
+                "  \"stats\" : {\n" +
+                "    \"state\" : \"FINISHED\",\n" +
+                "    \"queued\" : false,\n" +
+                "    \"scheduled\" : false,\n" +
+                "    \"nodes\" : 0,\n" +
+                "    \"totalSplits\" : 0,\n" +
+                "    \"queuedSplits\" : 0,\n" +
+                "    \"runningSplits\" : 0,\n" +
+                "    \"completedSplits\" : 0,\n" +
+                "    \"cpuTimeMillis\" : 0,\n" +
+                "    \"wallTimeMillis\" : 0,\n" +
+                "    \"queuedTimeMillis\" : 0,\n" +
+                "    \"elapsedTimeMillis\" : 0,\n" +
+                "    \"processedRows\" : 0,\n" +
+                "    \"processedBytes\" : 0,\n" +
+                "    \"peakMemoryBytes\" : 0\n" +
+                "  }\n" +
+                "}";
+
+        QueryResults results = QUERY_RESULTS_CODEC.fromJson(value);
+        assertEquals(results.getData(), ImmutableList.of(ImmutableList.of(123L), singletonList(null)));
+        assertNull(results.getBinaryData());
+    }
+
+    @Test
+    public void testBinaryDataDecodedWhileIterating()
+    {
+        List<Column> columns = ImmutableList.of(new Column(
+                "_col0",
+                "array(bigint)",
+                new ClientTypeSignature(ARRAY, ImmutableList.of(ClientTypeSignatureParameter.ofType(new ClientTypeSignature(BIGINT))))));
+
+        // two rows carried as JSON, the second of which is malformed
+        ByteBuffer buffer = ByteBuffer.allocate(64).order(LITTLE_ENDIAN);
+        buffer.put((byte) 0).putInt(2).putInt(1).put(JSON_ENCODING).put((byte) 0);
+        for (String value : ImmutableList.of("[1,2]", "[")) {
+            byte[] bytes = value.getBytes(UTF_8);
+            buffer.putInt(bytes.length).put(bytes);
+        }
+        byte[] data = Arrays.copyOf(buffer.array(), buffer.position());
+
+        Iterable<List<Object>> rows = BinaryQueryData.decode(columns, data);
+        Iterator<List<Object>> iterator = rows.iterator();
+        assertEquals(iterator.next(), ImmutableList.of(ImmutableList.of(1L, 2L)));
+        assertThrows(UncheckedIOException.class, iterator::next);
+
+        // a new iterator decodes the rows from the start
+        assertEquals(rows.iterator().next(), ImmutableList.of(ImmutableList.of(1L, 2L)));
+    }
+
+    @Test
+    public void testBinaryDataInSmile()
+            throws Exception
+    {
+        List<Column> columns = ImmutableList.of(new Column("_col0", BIGINT, new ClientTypeSignature(BIGINT)));
+        // rows [123] and [null]
+        byte[] binaryData = Base64.getDecoder().decode("AAIAAAABAAAABAJ7AAAAAAAAAA==");
+        QueryResults results = new QueryResults(
+                "20160128_214710_00012_rk68b",
+                URI.create("http://localhost:54855/query.html?20160128_214710_00012_rk68b"),
+                null,
+                null,
+                columns,
+                null,
+                binaryData,
+                StatementStats.builder().setState("FINISHED").build(),
+                null,
+                ImmutableList.of(),
+                null,
+                null);
+
+        // encoded the same way as by the server
+        ObjectMapper mapper = new ObjectMapperProvider().get();
+        SmileFactory smileFactory = new SmileFactory(mapper);
+        smileFactory.disable(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JsonGenerator generator = smileFactory.createGenerator(output)) {
+            mapper.writeValue(generator, results);
+        }
+        byte[] smile = output.toByteArray();
+
+        // the rows are carried as raw bytes
+        assertTrue(Bytes.indexOf(smile, binaryData) >= 0);
+
+        QueryResults decoded = smileCodec(QueryResults.class).fromSmile(smile);
+        assertEquals(decoded.getData(), ImmutableList.of(ImmutableList.of(123L), singletonList(null)));
+        assertNull(decoded.getBinaryData());
+    }
 }
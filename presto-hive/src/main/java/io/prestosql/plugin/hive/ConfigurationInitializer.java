@@ -14,8 +14,15 @@
 package io.prestosql.plugin.hive;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
 
 public interface ConfigurationInitializer
 {
     void initializeConfiguration(Configuration config);
+
+    /**
+     * Called for each file system obtained from {@link HdfsEnvironment}, to pass it the
+     * resources of the catalog which cannot be set in the configuration.
+     */
+    default void initializeFileSystem(FileSystem fileSystem) {}
 }
@@ -0,0 +1,294 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.airlift.units.DataSize;
+import io.prestosql.orc.OrcFileTail;
+import io.prestosql.orc.OrcMetadataCache;
+import io.prestosql.orc.metadata.StripeFooter;
+import io.prestosql.orc.metadata.StripeInformation;
+import io.prestosql.parquet.ParquetDataSource;
+import io.prestosql.parquet.reader.MetadataReader;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Worker side cache of parsed ORC file tails, ORC stripe footers and Parquet footers.
+ * Entries are keyed by file path, length and modification time, so a file that is
+ * rewritten in place is not served stale metadata.
+ * <p>
+ * The parsed metadata does not report its retained size, so entries are weighed by an
+ * estimate derived from the serialized size of the metadata.
+ */
+@ThreadSafe
+public class FileMetadataCache
+{
+    // parsed metadata objects are several times larger than their serialized, often compressed, form
+    private static final int SERIALIZED_SIZE_MULTIPLIER = 4;
+    private static final int PARQUET_COLUMN_CHUNK_SIZE_ESTIMATE = 512;
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final boolean enabled;
+    private final Cache<CacheKey, CacheValue> cache;
+
+    public static FileMetadataCache noCache()
+    {
+        return new FileMetadataCache(DataSize.ofBytes(0));
+    }
+
+    @Inject
+    public FileMetadataCache(HiveConfig hiveConfig)
+    {
+        this(hiveConfig.getFileMetadataCacheMaxSize());
+    }
+
+    public FileMetadataCache(DataSize maxSize)
+    {
+        requireNonNull(maxSize, "maxSize is null");
+        this.enabled = maxSize.toBytes() > 0;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Weigher<CacheKey, CacheValue>) (key, value) -> value.getWeight())
+                .recordStats()
+                .build();
+    }
+
+    public OrcMetadataCache getOrcMetadataCache(Path path, long fileSize, long modificationTime)
+    {
+        if (!enabled) {
+            return OrcMetadataCache.NO_CACHE;
+        }
+        return new OrcMetadataCache()
+        {
+            @Override
+            public Optional<OrcFileTail> getFileTail(MetadataLoader<Optional<OrcFileTail>> loader)
+                    throws IOException
+            {
+                CacheKey key = new CacheKey(path, fileSize, modificationTime, EntryType.ORC_FILE_TAIL, 0);
+                return get(key, () -> {
+                    Optional<OrcFileTail> fileTail = loader.load();
+                    return new CacheValue(fileTail, estimateRetainedSize(fileTail.map(OrcFileTail::getTailSize).orElse(0)));
+                });
+            }
+
+            @Override
+            public StripeFooter getStripeFooter(StripeInformation stripe, MetadataLoader<StripeFooter> loader)
+                    throws IOException
+            {
+                CacheKey key = new CacheKey(path, fileSize, modificationTime, EntryType.ORC_STRIPE_FOOTER, stripe.getOffset());
+                return get(key, () -> new CacheValue(loader.load(), estimateRetainedSize(stripe.getFooterLength())));
+            }
+        };
+    }
+
+    public ParquetMetadata getParquetMetadata(Path path, long fileSize, long modificationTime, ParquetDataSource dataSource)
+            throws IOException
+    {
+        if (!enabled) {
+            return MetadataReader.readFooter(dataSource);
+        }
+        CacheKey key = new CacheKey(path, fileSize, modificationTime, EntryType.PARQUET_FOOTER, 0);
+        return get(key, () -> {
+            ParquetMetadata parquetMetadata = MetadataReader.readFooter(dataSource);
+            return new CacheValue(parquetMetadata, estimateRetainedSize(parquetMetadata));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(CacheKey key, Loader loader)
+            throws IOException
+    {
+        try {
+            return (T) cache.get(key, loader::load).getValue();
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause();
+            throwIfInstanceOf(cause, IOException.class);
+            throwIfUnchecked(cause);
+            throw new RuntimeException(cause);
+        }
+    }
+
+    private static long estimateRetainedSize(long serializedSize)
+    {
+        return ENTRY_OVERHEAD + serializedSize * SERIALIZED_SIZE_MULTIPLIER;
+    }
+
+    private static long estimateRetainedSize(ParquetMetadata parquetMetadata)
+    {
+        // the serialized footer size is not exposed by the reader, so estimate from the number of column chunks
+        long columnChunks = 0;
+        for (BlockMetaData block : parquetMetadata.getBlocks()) {
+            columnChunks += block.getColumns().size();
+        }
+        return ENTRY_OVERHEAD + columnChunks * PARQUET_COLUMN_CHUNK_SIZE_ESTIMATE;
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        cache.invalidateAll();
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public Double getHitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    @Managed
+    public Double getMissRate()
+    {
+        return cache.stats().missRate();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    @Managed
+    public long getRequestCount()
+    {
+        return cache.stats().requestCount();
+    }
+
+    private interface Loader
+    {
+        CacheValue load()
+                throws IOException;
+    }
+
+    private enum EntryType
+    {
+        ORC_FILE_TAIL,
+        ORC_STRIPE_FOOTER,
+        PARQUET_FOOTER,
+    }
+
+    private static final class CacheKey
+    {
+        private final String path;
+        private final long fileSize;
+        private final long modificationTime;
+        private final EntryType entryType;
+        private final long offset;
+
+        public CacheKey(Path path, long fileSize, long modificationTime, EntryType entryType, long offset)
+        {
+            this.path = requireNonNull(path, "path is null").toString();
+            this.fileSize = fileSize;
+            this.modificationTime = modificationTime;
+            this.entryType = requireNonNull(entryType, "entryType is null");
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey that = (CacheKey) o;
+            return fileSize == that.fileSize &&
+                    modificationTime == that.modificationTime &&
+                    offset == that.offset &&
+                    path.equals(that.path) &&
+                    entryType == that.entryType;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, fileSize, modificationTime, entryType, offset);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("path", path)
+                    .add("fileSize", fileSize)
+                    .add("modificationTime", modificationTime)
+                    .add("entryType", entryType)
+                    .add("offset", offset)
+                    .toString();
+        }
+    }
+
+    private static final class CacheValue
+    {
+        private final Object value;
+        private final int weight;
+
+        public CacheValue(Object value, long estimatedRetainedSize)
+        {
+            this.value = requireNonNull(value, "value is null");
+            this.weight = toIntExact(min(estimatedRetainedSize, Integer.MAX_VALUE));
+        }
+
+        public Object getValue()
+        {
+            return value;
+        }
+
+        public int getWeight()
+        {
+            return weight;
+        }
+    }
+}
@@ -15,10 +15,13 @@ package io.prestosql.plugin.hive;
 
 import io.prestosql.plugin.hive.HdfsEnvironment.HdfsContext;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
 
 import java.net.URI;
 
 public interface HdfsConfiguration
 {
     Configuration getConfiguration(HdfsContext context, URI uri);
+
+    default void initializeFileSystem(FileSystem fileSystem) {}
 }
@@ -20,6 +20,7 @@ import com.google.common.net.HostAndPort;
 import io.airlift.units.Duration;
 import io.prestosql.hadoop.SocksSocketFactory;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.hdfs.client.HdfsClientConfigKeys;
 import org.apache.hadoop.net.DNSToSwitchMapping;
 
@@ -121,6 +122,11 @@ public class HdfsConfigurationInitializer
         configurationInitializers.forEach(configurationInitializer -> configurationInitializer.initializeConfiguration(config));
     }
 
+    public void initializeFileSystem(FileSystem fileSystem)
+    {
+        configurationInitializers.forEach(configurationInitializer -> configurationInitializer.initializeFileSystem(fileSystem));
+    }
+
     public static class NoOpDNSToSwitchMapping
             implements DNSToSwitchMapping
     {
@@ -17,6 +17,7 @@ import com.google.common.primitives.Shorts;
 import io.prestosql.hadoop.HadoopNative;
 import io.prestosql.plugin.hive.authentication.GenericExceptionAction;
 import io.prestosql.plugin.hive.authentication.HdfsAuthentication;
+import io.prestosql.plugin.hive.cache.LocalBlockCache;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.security.ConnectorIdentity;
 import org.apache.hadoop.conf.Configuration;
@@ -44,12 +45,22 @@ public class HdfsEnvironment
     private final FsPermission newDirectoryPermissions;
     private final boolean newFileInheritOwnership;
     private final boolean verifyChecksum;
+    private final LocalBlockCache localBlockCache;
 
-    @Inject
     public HdfsEnvironment(
             HdfsConfiguration hdfsConfiguration,
             HdfsConfig config,
             HdfsAuthentication hdfsAuthentication)
+    {
+        this(hdfsConfiguration, config, hdfsAuthentication, LocalBlockCache.disabled());
+    }
+
+    @Inject
+    public HdfsEnvironment(
+            HdfsConfiguration hdfsConfiguration,
+            HdfsConfig config,
+            HdfsAuthentication hdfsAuthentication,
+            LocalBlockCache localBlockCache)
     {
         this.hdfsConfiguration = requireNonNull(hdfsConfiguration, "hdfsConfiguration is null");
         requireNonNull(config, "config is null");
@@ -57,6 +68,7 @@ public class HdfsEnvironment
         this.newFileInheritOwnership = config.isNewFileInheritOwnership();
         this.verifyChecksum = config.isVerifyChecksum();
         this.hdfsAuthentication = requireNonNull(hdfsAuthentication, "hdfsAuthentication is null");
+        this.localBlockCache = requireNonNull(localBlockCache, "localBlockCache is null");
     }
 
     public Configuration getConfiguration(HdfsContext context, Path path)
@@ -76,7 +88,8 @@ public class HdfsEnvironment
         return hdfsAuthentication.doAs(user, () -> {
             FileSystem fileSystem = path.getFileSystem(configuration);
             fileSystem.setVerifyChecksum(verifyChecksum);
-            return fileSystem;
+            hdfsConfiguration.initializeFileSystem(fileSystem);
+            return localBlockCache.wrap(fileSystem);
         });
     }
 
@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableSet;
+import io.prestosql.spi.type.Type;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.prestosql.plugin.hive.HiveColumnHandle.AGGREGATE_COLUMN_INDEX;
+import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.SYNTHESIZED;
+import static io.prestosql.plugin.hive.HiveColumnHandle.createBaseColumn;
+import static io.prestosql.plugin.hive.HiveType.HIVE_LONG;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An aggregation which is answered from file statistics when possible. The rows produced for a table
+ * handle with aggregations hold the partial result of each aggregation for the rows of a split.
+ */
+public class HiveAggregation
+{
+    // types for which ORC and Parquet keep exact minimum and maximum values
+    private static final Set<Type> MIN_MAX_TYPES = ImmutableSet.of(TINYINT, SMALLINT, INTEGER, BIGINT, DATE);
+
+    public enum AggregationType
+    {
+        COUNT_ALL,
+        MIN,
+        MAX,
+    }
+
+    private final AggregationType aggregationType;
+    private final Optional<HiveColumnHandle> column;
+
+    @JsonCreator
+    public HiveAggregation(
+            @JsonProperty("aggregationType") AggregationType aggregationType,
+            @JsonProperty("column") Optional<HiveColumnHandle> column)
+    {
+        this.aggregationType = requireNonNull(aggregationType, "aggregationType is null");
+        this.column = requireNonNull(column, "column is null");
+        checkArgument(column.isPresent() == (aggregationType != AggregationType.COUNT_ALL), "column must be present for %s only", AggregationType.COUNT_ALL);
+        column.ifPresent(handle -> checkArgument(isSupportedMinMaxColumn(handle), "unsupported column: %s", handle));
+    }
+
+    public static boolean isSupportedMinMaxColumn(HiveColumnHandle column)
+    {
+        return column.getColumnType() == HiveColumnHandle.ColumnType.REGULAR &&
+                column.isBaseColumn() &&
+                MIN_MAX_TYPES.contains(column.getType());
+    }
+
+    @JsonProperty
+    public AggregationType getAggregationType()
+    {
+        return aggregationType;
+    }
+
+    @JsonProperty
+    public Optional<HiveColumnHandle> getColumn()
+    {
+        return column;
+    }
+
+    public Type getType()
+    {
+        return column.map(HiveColumnHandle::getType).orElse(BIGINT);
+    }
+
+    public HiveColumnHandle getOutputColumn()
+    {
+        String name = "$" + aggregationType.name().toLowerCase(ENGLISH) + column.map(handle -> "_" + handle.getName()).orElse("");
+        return createBaseColumn(name, AGGREGATE_COLUMN_INDEX, column.map(HiveColumnHandle::getHiveType).orElse(HIVE_LONG), getType(), SYNTHESIZED, Optional.empty());
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        HiveAggregation that = (HiveAggregation) o;
+        return aggregationType == that.aggregationType &&
+                Objects.equals(column, that.column);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(aggregationType, column);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("aggregationType", aggregationType)
+                .add("column", column.orElse(null))
+                .omitNullValues()
+                .toString();
+    }
+}
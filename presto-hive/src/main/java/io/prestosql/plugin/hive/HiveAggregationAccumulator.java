@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.type.Type;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Computes the partial results of {@link HiveAggregation}s, either from file statistics or from
+ * the pages of a scan of the input columns.
+ */
+public class HiveAggregationAccumulator
+{
+    private final List<HiveAggregation> aggregations;
+    private final List<HiveColumnHandle> inputColumns;
+
+    private long rowCount;
+    private final long[] min;
+    private final long[] max;
+    private final boolean[] hasValue;
+
+    public HiveAggregationAccumulator(List<HiveAggregation> aggregations)
+    {
+        this.aggregations = ImmutableList.copyOf(requireNonNull(aggregations, "aggregations is null"));
+        this.inputColumns = aggregations.stream()
+                .map(HiveAggregation::getColumn)
+                .flatMap(Optional::stream)
+                .distinct()
+                .collect(toImmutableList());
+        this.min = new long[inputColumns.size()];
+        this.max = new long[inputColumns.size()];
+        this.hasValue = new boolean[inputColumns.size()];
+    }
+
+    /**
+     * Columns read by the aggregations, in the order of the channels of the pages passed to {@link #addPage}.
+     */
+    public List<HiveColumnHandle> getInputColumns()
+    {
+        return inputColumns;
+    }
+
+    public void addRowCount(long rows)
+    {
+        checkArgument(rows >= 0, "rows is negative");
+        rowCount += rows;
+    }
+
+    /**
+     * Adds the range of the non-null values of a column. Returns false when the values cannot be
+     * represented by the type of the column, in which case the statistics must not be used.
+     */
+    public boolean addValues(HiveColumnHandle column, long minValue, long maxValue)
+    {
+        int index = inputColumns.indexOf(column);
+        checkArgument(index >= 0, "not an input column: %s", column);
+        if (minValue > maxValue || !isInRange(column.getType(), minValue) || !isInRange(column.getType(), maxValue)) {
+            return false;
+        }
+        addValue(index, minValue);
+        addValue(index, maxValue);
+        return true;
+    }
+
+    public void addPage(Page page)
+    {
+        checkArgument(page.getChannelCount() == inputColumns.size(), "page does not contain the input columns");
+        rowCount += page.getPositionCount();
+        for (int channel = 0; channel < inputColumns.size(); channel++) {
+            Type type = inputColumns.get(channel).getType();
+            Block block = page.getBlock(channel).getLoadedBlock();
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                if (!block.isNull(position)) {
+                    addValue(channel, type.getLong(block, position));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a single row with the partial result of each aggregation.
+     */
+    public Page buildPage()
+    {
+        Block[] blocks = new Block[aggregations.size()];
+        for (int i = 0; i < aggregations.size(); i++) {
+            HiveAggregation aggregation = aggregations.get(i);
+            BlockBuilder blockBuilder = aggregation.getType().createBlockBuilder(null, 1);
+            if (aggregation.getColumn().isEmpty()) {
+                BIGINT.writeLong(blockBuilder, rowCount);
+            }
+            else {
+                int index = inputColumns.indexOf(aggregation.getColumn().get());
+                if (hasValue[index]) {
+                    long value = aggregation.getAggregationType() == HiveAggregation.AggregationType.MIN ? min[index] : max[index];
+                    aggregation.getType().writeLong(blockBuilder, value);
+                }
+                else {
+                    blockBuilder.appendNull();
+                }
+            }
+            blocks[i] = blockBuilder.build();
+        }
+        return new Page(1, blocks);
+    }
+
+    private void addValue(int index, long value)
+    {
+        if (!hasValue[index]) {
+            min[index] = value;
+            max[index] = value;
+            hasValue[index] = true;
+            return;
+        }
+        min[index] = Math.min(min[index], value);
+        max[index] = Math.max(max[index], value);
+    }
+
+    private static boolean isInRange(Type type, long value)
+    {
+        if (type.equals(TINYINT)) {
+            return value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE;
+        }
+        if (type.equals(SMALLINT)) {
+            return value >= Short.MIN_VALUE && value <= Short.MAX_VALUE;
+        }
+        if (type.equals(INTEGER)) {
+            return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+        }
+        // BIGINT and DATE
+        return true;
+    }
+}
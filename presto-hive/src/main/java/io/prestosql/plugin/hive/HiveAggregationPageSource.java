@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import io.prestosql.spi.Page;
+import io.prestosql.spi.connector.ConnectorPageSource;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Computes the partial results of the aggregations of a split by scanning it, for splits
+ * whose file statistics cannot answer the aggregations.
+ */
+public class HiveAggregationPageSource
+        implements ConnectorPageSource
+{
+    private final ConnectorPageSource delegate;
+    private final HiveAggregationAccumulator accumulator;
+    private boolean finished;
+
+    public HiveAggregationPageSource(ConnectorPageSource delegate, HiveAggregationAccumulator accumulator)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.accumulator = requireNonNull(accumulator, "accumulator is null");
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return delegate.getCompletedBytes();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return delegate.getReadTimeNanos();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return finished;
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        if (finished) {
+            return null;
+        }
+        if (!delegate.isFinished()) {
+            Page page = delegate.getNextPage();
+            if (page != null) {
+                accumulator.addPage(page);
+            }
+            return null;
+        }
+        finished = true;
+        return accumulator.buildPage();
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return delegate.getSystemMemoryUsage();
+    }
+
+    @Override
+    public CompletableFuture<?> isBlocked()
+    {
+        return delegate.isBlocked();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+}
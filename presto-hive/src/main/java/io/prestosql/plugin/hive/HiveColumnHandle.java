@@ -67,6 +67,9 @@ public class HiveColumnHandle
     public static final HiveType PARTITION_HIVE_TYPE = HIVE_STRING;
     public static final Type PARTITION_TYPE_SIGNATURE = VARCHAR;
 
+    // partial results of the aggregations of a table handle, see HiveAggregation
+    public static final int AGGREGATE_COLUMN_INDEX = -16;
+
     private static final String UPDATE_ROW_ID_COLUMN_NAME = "$shard_row_id";
 
     public enum ColumnType
@@ -307,4 +310,9 @@ public class HiveColumnHandle
     {
         return column.getBaseHiveColumnIndex() == PARTITION_COLUMN_INDEX;
     }
+
+    public static boolean isAggregateColumnHandle(HiveColumnHandle column)
+    {
+        return column.getBaseHiveColumnIndex() == AGGREGATE_COLUMN_INDEX;
+    }
 }
@@ -63,6 +63,7 @@ public class HiveConfig
     private int maxSplitIteratorThreads = 1_000;
     private int minPartitionBatchSize = 10;
     private int maxPartitionBatchSize = 100;
+    private int partitionBatchConcurrency = 4;
     private int maxInitialSplits = 200;
     private int splitLoaderConcurrency = 4;
     private Integer maxSplitsPerSecond;
@@ -134,11 +135,19 @@ public class HiveConfig
     private boolean partitionUseColumnNames;
 
     private boolean projectionPushdownEnabled = true;
+    private boolean aggregationPushdownEnabled;
 
     private Duration dynamicFilteringProbeBlockingTimeout = new Duration(0, MINUTES);
 
     private HiveTimestampPrecision timestampPrecision = HiveTimestampPrecision.MILLISECONDS;
 
+    private boolean fileMetadataCacheEnabled = true;
+    private DataSize fileMetadataCacheMaxSize = DataSize.of(64, MEGABYTE);
+
+    private boolean readAheadEnabled;
+    private int readAheadThreads = 32;
+    private DataSize readAheadMaxSize = DataSize.of(32, MEGABYTE);
+
     public int getMaxInitialSplits()
     {
         return maxInitialSplits;
@@ -406,6 +415,20 @@ public class HiveConfig
         return this;
     }
 
+    @Min(1)
+    public int getPartitionBatchConcurrency()
+    {
+        return partitionBatchConcurrency;
+    }
+
+    @Config("hive.metastore.partition-batch-concurrency")
+    @ConfigDescription("Number of partition batches loaded from the metastore in parallel during split generation")
+    public HiveConfig setPartitionBatchConcurrency(int partitionBatchConcurrency)
+    {
+        this.partitionBatchConcurrency = partitionBatchConcurrency;
+        return this;
+    }
+
     public HiveStorageFormat getHiveStorageFormat()
     {
         return hiveStorageFormat;
@@ -955,6 +978,19 @@ public class HiveConfig
         return this;
     }
 
+    public boolean isAggregationPushdownEnabled()
+    {
+        return aggregationPushdownEnabled;
+    }
+
+    @Config("hive.aggregation-pushdown-enabled")
+    @ConfigDescription("Answer COUNT(*), MIN and MAX from ORC and Parquet file statistics")
+    public HiveConfig setAggregationPushdownEnabled(boolean aggregationPushdownEnabled)
+    {
+        this.aggregationPushdownEnabled = aggregationPushdownEnabled;
+        return this;
+    }
+
     @NotNull
     public Duration getDynamicFilteringProbeBlockingTimeout()
     {
@@ -981,4 +1017,72 @@ public class HiveConfig
         this.timestampPrecision = timestampPrecision;
         return this;
     }
+
+    public boolean isFileMetadataCacheEnabled()
+    {
+        return fileMetadataCacheEnabled;
+    }
+
+    @Config("hive.file-metadata-cache.enabled")
+    @ConfigDescription("Cache ORC and Parquet file footers on workers")
+    public HiveConfig setFileMetadataCacheEnabled(boolean fileMetadataCacheEnabled)
+    {
+        this.fileMetadataCacheEnabled = fileMetadataCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getFileMetadataCacheMaxSize()
+    {
+        return fileMetadataCacheMaxSize;
+    }
+
+    @Config("hive.file-metadata-cache.max-size")
+    @ConfigDescription("Maximum estimated size of the ORC and Parquet file footer cache")
+    public HiveConfig setFileMetadataCacheMaxSize(DataSize fileMetadataCacheMaxSize)
+    {
+        this.fileMetadataCacheMaxSize = fileMetadataCacheMaxSize;
+        return this;
+    }
+
+    public boolean isReadAheadEnabled()
+    {
+        return readAheadEnabled;
+    }
+
+    @Config("hive.read-ahead.enabled")
+    @ConfigDescription("Read the next stripe or row group of ORC and Parquet files in the background")
+    public HiveConfig setReadAheadEnabled(boolean readAheadEnabled)
+    {
+        this.readAheadEnabled = readAheadEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getReadAheadThreads()
+    {
+        return readAheadThreads;
+    }
+
+    @Config("hive.read-ahead.threads")
+    @ConfigDescription("Number of threads reading ORC and Parquet files in the background")
+    public HiveConfig setReadAheadThreads(int readAheadThreads)
+    {
+        this.readAheadThreads = readAheadThreads;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getReadAheadMaxSize()
+    {
+        return readAheadMaxSize;
+    }
+
+    @Config("hive.read-ahead.max-size")
+    @ConfigDescription("Maximum size of a stripe or row group read in the background, the rest is read when needed")
+    public HiveConfig setReadAheadMaxSize(DataSize readAheadMaxSize)
+    {
+        this.readAheadMaxSize = readAheadMaxSize;
+        return this;
+    }
 }
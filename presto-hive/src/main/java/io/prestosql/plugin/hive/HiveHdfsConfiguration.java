@@ -16,6 +16,7 @@ package io.prestosql.plugin.hive;
 import com.google.common.collect.ImmutableSet;
 import io.prestosql.plugin.hive.HdfsEnvironment.HdfsContext;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
 
 import javax.inject.Inject;
 
@@ -67,4 +68,10 @@ public class HiveHdfsConfiguration
         }
         return config;
     }
+
+    @Override
+    public void initializeFileSystem(FileSystem fileSystem)
+    {
+        initializer.initializeFileSystem(fileSystem);
+    }
 }
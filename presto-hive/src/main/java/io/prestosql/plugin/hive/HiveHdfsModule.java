@@ -16,6 +16,8 @@ package io.prestosql.plugin.hive;
 import com.google.inject.Binder;
 import com.google.inject.Module;
 import com.google.inject.Scopes;
+import io.prestosql.plugin.hive.cache.LocalBlockCache;
+import io.prestosql.plugin.hive.cache.LocalCacheConfig;
 
 import static com.google.inject.multibindings.Multibinder.newSetBinder;
 import static io.airlift.configuration.ConfigBinder.configBinder;
@@ -38,5 +40,9 @@ public class HiveHdfsModule
 
         binder.bind(NamenodeStats.class).in(Scopes.SINGLETON);
         newExporter(binder).export(NamenodeStats.class).withGeneratedName();
+
+        configBinder(binder).bindConfig(LocalCacheConfig.class);
+        binder.bind(LocalBlockCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(LocalBlockCache.class).withGeneratedName();
     }
 }
@@ -50,6 +50,8 @@ import io.prestosql.spi.ErrorType;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.StandardErrorCode;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.AggregateFunction;
+import io.prestosql.spi.connector.AggregationApplicationResult;
 import io.prestosql.spi.connector.Assignment;
 import io.prestosql.spi.connector.CatalogSchemaName;
 import io.prestosql.spi.connector.ColumnHandle;
@@ -98,6 +100,7 @@ import io.prestosql.spi.type.VarcharType;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.metastore.TableType;
 import org.apache.hadoop.hive.ql.exec.FileSinkOperator;
+import org.apache.hadoop.hive.ql.io.AcidUtils;
 import org.apache.hadoop.hive.serde.serdeConstants;
 import org.apache.hadoop.hive.serde2.OpenCSVSerde;
 import org.apache.hadoop.mapred.JobConf;
@@ -161,6 +164,7 @@ import static io.prestosql.plugin.hive.HivePartitionManager.extractPartitionValu
 import static io.prestosql.plugin.hive.HiveSessionProperties.getCompressionCodec;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getHiveStorageFormat;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getTimestampPrecision;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isAggregationPushdownEnabled;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isBucketExecutionEnabled;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isCollectColumnStatisticsOnWrite;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isCreateEmptyBucketFiles;
@@ -180,6 +184,7 @@ import static io.prestosql.plugin.hive.HiveTableProperties.EXTERNAL_LOCATION_PRO
 import static io.prestosql.plugin.hive.HiveTableProperties.NULL_FORMAT_PROPERTY;
 import static io.prestosql.plugin.hive.HiveTableProperties.ORC_BLOOM_FILTER_COLUMNS;
 import static io.prestosql.plugin.hive.HiveTableProperties.ORC_BLOOM_FILTER_FPP;
+import static io.prestosql.plugin.hive.HiveTableProperties.PARQUET_BLOOM_FILTER_COLUMNS;
 import static io.prestosql.plugin.hive.HiveTableProperties.PARTITIONED_BY_PROPERTY;
 import static io.prestosql.plugin.hive.HiveTableProperties.SKIP_FOOTER_LINE_COUNT;
 import static io.prestosql.plugin.hive.HiveTableProperties.SKIP_HEADER_LINE_COUNT;
@@ -197,6 +202,7 @@ import static io.prestosql.plugin.hive.HiveTableProperties.getHiveStorageFormat;
 import static io.prestosql.plugin.hive.HiveTableProperties.getNullFormat;
 import static io.prestosql.plugin.hive.HiveTableProperties.getOrcBloomFilterColumns;
 import static io.prestosql.plugin.hive.HiveTableProperties.getOrcBloomFilterFpp;
+import static io.prestosql.plugin.hive.HiveTableProperties.getParquetBloomFilterColumns;
 import static io.prestosql.plugin.hive.HiveTableProperties.getPartitionedBy;
 import static io.prestosql.plugin.hive.HiveTableProperties.getSingleCharacterProperty;
 import static io.prestosql.plugin.hive.HiveTableProperties.isTransactional;
@@ -271,6 +277,7 @@ public class HiveMetadata
 
     private static final String ORC_BLOOM_FILTER_COLUMNS_KEY = "orc.bloom.filter.columns";
     private static final String ORC_BLOOM_FILTER_FPP_KEY = "orc.bloom.filter.fpp";
+    public static final String PARQUET_BLOOM_FILTER_COLUMNS_KEY = "parquet.bloom.filter.columns";
 
     public static final String SKIP_HEADER_COUNT_KEY = serdeConstants.HEADER_COUNT;
     public static final String SKIP_FOOTER_COUNT_KEY = serdeConstants.FOOTER_COUNT;
@@ -601,6 +608,12 @@ public class HiveMetadata
             properties.put(ORC_BLOOM_FILTER_FPP, Double.parseDouble(orcBloomFilterFfp));
         }
 
+        // Parquet format specific properties
+        String parquetBloomFilterColumns = table.getParameters().get(PARQUET_BLOOM_FILTER_COLUMNS_KEY);
+        if (parquetBloomFilterColumns != null) {
+            properties.put(PARQUET_BLOOM_FILTER_COLUMNS, Splitter.on(',').trimResults().omitEmptyStrings().splitToList(parquetBloomFilterColumns));
+        }
+
         // Avro specific property
         String avroSchemaUrl = table.getParameters().get(AVRO_SCHEMA_URL_KEY);
         if (avroSchemaUrl != null) {
@@ -727,7 +740,7 @@ public class HiveMetadata
     @Override
     public TableStatistics getTableStatistics(ConnectorSession session, ConnectorTableHandle tableHandle, Constraint constraint)
     {
-        if (!isStatisticsEnabled(session)) {
+        if (!isStatisticsEnabled(session) || ((HiveTableHandle) tableHandle).getAggregations().isPresent()) {
             return TableStatistics.empty();
         }
         Map<String, ColumnHandle> columns = getColumnHandles(session, tableHandle)
@@ -912,6 +925,13 @@ public class HiveMetadata
             tableProperties.put(ORC_BLOOM_FILTER_FPP_KEY, String.valueOf(getOrcBloomFilterFpp(tableMetadata.getProperties())));
         }
 
+        // Parquet format specific properties
+        List<String> parquetBloomFilterColumns = getParquetBloomFilterColumns(tableMetadata.getProperties());
+        if (parquetBloomFilterColumns != null && !parquetBloomFilterColumns.isEmpty()) {
+            checkFormatForProperty(hiveStorageFormat, HiveStorageFormat.PARQUET, PARQUET_BLOOM_FILTER_COLUMNS);
+            tableProperties.put(PARQUET_BLOOM_FILTER_COLUMNS_KEY, Joiner.on(",").join(parquetBloomFilterColumns));
+        }
+
         // Avro specific properties
         String avroSchemaUrl = getAvroSchemaUrl(tableMetadata.getProperties());
         if (avroSchemaUrl != null) {
@@ -2086,6 +2106,95 @@ public class HiveMetadata
         return Optional.of(new ProjectionApplicationResult<>(handle, newProjections, outputAssignments));
     }
 
+    @Override
+    public Optional<AggregationApplicationResult<ConnectorTableHandle>> applyPartialAggregation(
+            ConnectorSession session,
+            ConnectorTableHandle handle,
+            List<AggregateFunction> aggregates,
+            Map<String, ColumnHandle> assignments,
+            List<List<ColumnHandle>> groupingSets)
+    {
+        HiveTableHandle hiveTable = (HiveTableHandle) handle;
+        if (!isAggregationPushdownEnabled(session) ||
+                hiveTable.getAggregations().isPresent() ||
+                hiveTable.getAnalyzePartitionValues().isPresent() ||
+                hiveTable.getBucketFilter().isPresent() ||
+                !groupingSets.equals(ImmutableList.of(ImmutableList.of()))) {
+            return Optional.empty();
+        }
+
+        // file statistics cover all the rows of a file, so only predicates on partition keys,
+        // which are enforced by partition pruning, can be present
+        boolean predicateOnPartitionKeysOnly = hiveTable.getCompactEffectivePredicate().getDomains()
+                .map(domains -> domains.keySet().stream().allMatch(column -> column.getColumnType() == PARTITION_KEY))
+                .orElse(true);
+        if (!predicateOnPartitionKeysOnly) {
+            return Optional.empty();
+        }
+
+        // deleted rows of transactional tables are not reflected in file statistics
+        if (hiveTable.getTableParameters().map(AcidUtils::isTransactionalTable).orElse(true)) {
+            return Optional.empty();
+        }
+        Optional<Table> table = metastore.getTable(new HiveIdentity(session), hiveTable.getSchemaName(), hiveTable.getTableName());
+        if (table.isEmpty()) {
+            return Optional.empty();
+        }
+        HiveStorageFormat storageFormat = extractHiveStorageFormat(table.get());
+        if (storageFormat != HiveStorageFormat.ORC && storageFormat != HiveStorageFormat.PARQUET) {
+            return Optional.empty();
+        }
+
+        ImmutableList.Builder<HiveAggregation> aggregations = ImmutableList.builder();
+        ImmutableList.Builder<ConnectorExpression> projections = ImmutableList.builder();
+        for (AggregateFunction aggregate : aggregates) {
+            Optional<HiveAggregation> aggregation = toHiveAggregation(aggregate, assignments);
+            if (aggregation.isEmpty()) {
+                return Optional.empty();
+            }
+            aggregations.add(aggregation.get());
+            projections.add(new Variable(aggregation.get().getOutputColumn().getName(), aggregate.getOutputType()));
+        }
+        // the same aggregation may be requested more than once
+        List<HiveAggregation> hiveAggregations = aggregations.build().stream()
+                .distinct()
+                .collect(toImmutableList());
+
+        List<Assignment> outputAssignments = hiveAggregations.stream()
+                .map(aggregation -> new Assignment(aggregation.getOutputColumn().getName(), aggregation.getOutputColumn(), aggregation.getType()))
+                .collect(toImmutableList());
+
+        return Optional.of(new AggregationApplicationResult<>(
+                hiveTable.withAggregations(hiveAggregations),
+                projections.build(),
+                outputAssignments,
+                ImmutableMap.of()));
+    }
+
+    private static Optional<HiveAggregation> toHiveAggregation(AggregateFunction aggregate, Map<String, ColumnHandle> assignments)
+    {
+        if (aggregate.isDistinct() || aggregate.getFilter().isPresent() || !aggregate.getSortItems().isEmpty()) {
+            return Optional.empty();
+        }
+
+        String functionName = aggregate.getFunctionName();
+        if (functionName.equals("count") && aggregate.getInputs().isEmpty()) {
+            return Optional.of(new HiveAggregation(HiveAggregation.AggregationType.COUNT_ALL, Optional.empty()));
+        }
+        if ((!functionName.equals("min") && !functionName.equals("max")) ||
+                aggregate.getInputs().size() != 1 ||
+                !(aggregate.getInputs().get(0) instanceof Variable)) {
+            return Optional.empty();
+        }
+
+        HiveColumnHandle column = (HiveColumnHandle) assignments.get(((Variable) aggregate.getInputs().get(0)).getName());
+        if (column == null || !HiveAggregation.isSupportedMinMaxColumn(column) || !column.getType().equals(aggregate.getOutputType())) {
+            return Optional.empty();
+        }
+        HiveAggregation.AggregationType type = functionName.equals("min") ? HiveAggregation.AggregationType.MIN : HiveAggregation.AggregationType.MAX;
+        return Optional.of(new HiveAggregation(type, Optional.of(column)));
+    }
+
     private HiveColumnHandle createProjectedColumnHandle(HiveColumnHandle column, List<Integer> indices)
     {
         HiveType oldHiveType = column.getHiveType();
@@ -2210,7 +2319,8 @@ public class HiveMetadata
                 hiveTable.getBucketFilter(),
                 hiveTable.getAnalyzePartitionValues(),
                 hiveTable.getAnalyzeColumnNames(),
-                Optional.empty());
+                Optional.empty(),
+                hiveTable.getAggregations());
     }
 
     @VisibleForTesting
@@ -53,6 +53,7 @@ import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 import static com.google.common.base.Preconditions.checkState;
@@ -257,6 +258,12 @@ public class HivePageSource
         return delegate.isFinished();
     }
 
+    @Override
+    public CompletableFuture<?> isBlocked()
+    {
+        return delegate.isBlocked();
+    }
+
     @Override
     public Page getNextPage()
     {
@@ -13,6 +13,7 @@
  */
 package io.prestosql.plugin.hive;
 
+import io.prestosql.spi.Page;
 import io.prestosql.spi.connector.ConnectorPageSource;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.predicate.TupleDomain;
@@ -34,11 +35,31 @@ public interface HivePageSourceFactory
             long start,
             long length,
             long estimatedFileSize,
+            long fileModifiedTime,
             Properties schema,
             List<HiveColumnHandle> columns,
             TupleDomain<HiveColumnHandle> effectivePredicate,
             Optional<AcidInfo> acidInfo);
 
+    /**
+     * Computes the partial results of the aggregations for the rows of the split from the statistics
+     * stored in the file, without reading any data. Returns empty when the file is not of the format
+     * of this factory or its statistics cannot answer all the aggregations.
+     */
+    default Optional<Page> aggregateFromStatistics(
+            Configuration configuration,
+            ConnectorSession session,
+            Path path,
+            long start,
+            long length,
+            long estimatedFileSize,
+            long fileModifiedTime,
+            Properties schema,
+            List<HiveAggregation> aggregations)
+    {
+        return Optional.empty();
+    }
+
     /**
      * A wrapper class for
      * - delegate reader page source and
@@ -20,6 +20,7 @@ import io.prestosql.plugin.hive.HivePageSourceFactory.ReaderPageSourceWithProjec
 import io.prestosql.plugin.hive.HiveRecordCursorProvider.ReaderRecordCursorWithProjections;
 import io.prestosql.plugin.hive.HiveSplit.BucketConversion;
 import io.prestosql.plugin.hive.util.HiveBucketing.BucketingVersion;
+import io.prestosql.spi.Page;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorPageSource;
 import io.prestosql.spi.connector.ConnectorPageSourceProvider;
@@ -29,6 +30,7 @@ import io.prestosql.spi.connector.ConnectorTableHandle;
 import io.prestosql.spi.connector.ConnectorTransactionHandle;
 import io.prestosql.spi.connector.DynamicFilter;
 import io.prestosql.spi.connector.EmptyPageSource;
+import io.prestosql.spi.connector.FixedPageSource;
 import io.prestosql.spi.connector.RecordCursor;
 import io.prestosql.spi.connector.RecordPageSource;
 import io.prestosql.spi.predicate.TupleDomain;
@@ -102,6 +104,10 @@ public class HivePageSourceProvider
 
         Configuration configuration = hdfsEnvironment.getConfiguration(new HdfsContext(session, hiveSplit.getDatabase(), hiveSplit.getTable()), path);
 
+        if (hiveTable.getAggregations().isPresent()) {
+            return createAggregationPageSource(session, configuration, path, hiveSplit, hiveTable, hiveColumns);
+        }
+
         TupleDomain<HiveColumnHandle> simplifiedDynamicFilter = dynamicFilter
                 .getCurrentPredicate()
                 .transform(HiveColumnHandle.class::cast).simplify(domainCompactionThreshold);
@@ -132,6 +138,77 @@ public class HivePageSourceProvider
         throw new RuntimeException("Could not find a file reader for split " + hiveSplit);
     }
 
+    private ConnectorPageSource createAggregationPageSource(
+            ConnectorSession session,
+            Configuration configuration,
+            Path path,
+            HiveSplit hiveSplit,
+            HiveTableHandle hiveTable,
+            List<HiveColumnHandle> columns)
+    {
+        Map<HiveColumnHandle, HiveAggregation> aggregationsByOutput = uniqueIndex(hiveTable.getAggregations().get(), HiveAggregation::getOutputColumn);
+        List<HiveAggregation> aggregations = columns.stream()
+                .map(column -> {
+                    HiveAggregation aggregation = aggregationsByOutput.get(column);
+                    checkArgument(aggregation != null, "column is not an aggregation of the table: %s", column);
+                    return aggregation;
+                })
+                .collect(toImmutableList());
+        HiveAggregationAccumulator accumulator = new HiveAggregationAccumulator(aggregations);
+
+        // statistics describe the values stored in the file, which are not the values of the table
+        // when rows are filtered by the reader or the values are coerced
+        TableToPartitionMapping tableToPartitionMapping = hiveSplit.getTableToPartitionMapping();
+        boolean statisticsApplicable = hiveSplit.getAcidInfo().isEmpty() &&
+                hiveSplit.getBucketConversion().isEmpty() &&
+                tableToPartitionMapping.getTableToPartitionColumns().isEmpty() &&
+                accumulator.getInputColumns().stream()
+                        .allMatch(column -> tableToPartitionMapping.getCoercion(column.getBaseHiveColumnIndex()).isEmpty());
+        if (statisticsApplicable) {
+            for (HivePageSourceFactory pageSourceFactory : pageSourceFactories) {
+                Optional<Page> page = pageSourceFactory.aggregateFromStatistics(
+                        configuration,
+                        session,
+                        path,
+                        hiveSplit.getStart(),
+                        hiveSplit.getLength(),
+                        hiveSplit.getEstimatedFileSize(),
+                        hiveSplit.getFileModifiedTime(),
+                        hiveSplit.getSchema(),
+                        aggregations);
+                if (page.isPresent()) {
+                    return new FixedPageSource(ImmutableList.of(page.get()));
+                }
+            }
+        }
+
+        Optional<ConnectorPageSource> pageSource = createHivePageSource(
+                pageSourceFactories,
+                cursorProviders,
+                configuration,
+                session,
+                path,
+                hiveSplit.getBucketNumber(),
+                hiveSplit.getStart(),
+                hiveSplit.getLength(),
+                hiveSplit.getEstimatedFileSize(),
+                hiveSplit.getFileModifiedTime(),
+                hiveSplit.getSchema(),
+                hiveTable.getCompactEffectivePredicate(),
+                accumulator.getInputColumns(),
+                hiveSplit.getPartitionName(),
+                hiveSplit.getPartitionKeys(),
+                typeManager,
+                tableToPartitionMapping,
+                hiveSplit.getBucketConversion(),
+                hiveSplit.isS3SelectPushdownEnabled(),
+                hiveSplit.getAcidInfo());
+        if (pageSource.isPresent()) {
+            return new HiveAggregationPageSource(pageSource.get(), accumulator);
+        }
+        throw new RuntimeException("Could not find a file reader for split " + hiveSplit);
+    }
+
     public static Optional<ConnectorPageSource> createHivePageSource(
             Set<HivePageSourceFactory> pageSourceFactories,
             Set<HiveRecordCursorProvider> cursorProviders,
@@ -182,6 +259,7 @@ public class HivePageSourceProvider
                     start,
                     length,
                     estimatedFileSize,
+                    fileModifiedTime,
                     schema,
                     desiredColumns,
                     effectivePredicate,
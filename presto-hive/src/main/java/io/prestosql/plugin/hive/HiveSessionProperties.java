@@ -56,6 +56,7 @@ public final class HiveSessionProperties
     private static final String ORC_MAX_READ_BLOCK_SIZE = "orc_max_read_block_size";
     private static final String ORC_LAZY_READ_SMALL_RANGES = "orc_lazy_read_small_ranges";
     private static final String ORC_NESTED_LAZY_ENABLED = "orc_nested_lazy_enabled";
+    private static final String ORC_FILTER_PUSHDOWN_ENABLED = "orc_filter_pushdown_enabled";
     private static final String ORC_STRING_STATISTICS_LIMIT = "orc_string_statistics_limit";
     private static final String ORC_OPTIMIZED_WRITER_VALIDATE = "orc_optimized_writer_validate";
     private static final String ORC_OPTIMIZED_WRITER_VALIDATE_PERCENTAGE = "orc_optimized_writer_validate_percentage";
@@ -73,6 +74,8 @@ public final class HiveSessionProperties
     private static final String PARQUET_USE_COLUMN_NAME = "parquet_use_column_names";
     private static final String PARQUET_FAIL_WITH_CORRUPTED_STATISTICS = "parquet_fail_with_corrupted_statistics";
     private static final String PARQUET_MAX_READ_BLOCK_SIZE = "parquet_max_read_block_size";
+    private static final String PARQUET_USE_COLUMN_INDEX = "parquet_use_column_index";
+    private static final String PARQUET_USE_BLOOM_FILTER = "parquet_use_bloom_filter";
     private static final String PARQUET_WRITER_BLOCK_SIZE = "parquet_writer_block_size";
     private static final String PARQUET_WRITER_PAGE_SIZE = "parquet_writer_page_size";
     private static final String MAX_SPLIT_SIZE = "max_split_size";
@@ -90,9 +93,12 @@ public final class HiveSessionProperties
     private static final String IGNORE_ABSENT_PARTITIONS = "ignore_absent_partitions";
     private static final String QUERY_PARTITION_FILTER_REQUIRED = "query_partition_filter_required";
     private static final String PROJECTION_PUSHDOWN_ENABLED = "projection_pushdown_enabled";
+    private static final String AGGREGATION_PUSHDOWN_ENABLED = "aggregation_pushdown_enabled";
     private static final String TIMESTAMP_PRECISION = "timestamp_precision";
     private static final String PARQUET_OPTIMIZED_WRITER_ENABLED = "experimental_parquet_optimized_writer_enabled";
     private static final String DYNAMIC_FILTERING_PROBE_BLOCKING_TIMEOUT = "dynamic_filtering_probe_blocking_timeout";
+    private static final String FILE_METADATA_CACHE_ENABLED = "file_metadata_cache_enabled";
+    private static final String READ_AHEAD_ENABLED = "read_ahead_enabled";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -184,6 +190,11 @@ public final class HiveSessionProperties
                         "Experimental: ORC: Lazily read nested data",
                         orcReaderConfig.isNestedLazy(),
                         false),
+                booleanProperty(
+                        ORC_FILTER_PUSHDOWN_ENABLED,
+                        "ORC: Evaluate simple column predicates in the reader, and only decode the other columns of matching rows",
+                        orcReaderConfig.isFilterPushdownEnabled(),
+                        false),
                 dataSizeProperty(
                         ORC_STRING_STATISTICS_LIMIT,
                         "ORC: Maximum size of string statistics; drop if exceeding",
@@ -284,6 +295,16 @@ public final class HiveSessionProperties
                         "Parquet: Maximum size of a block to read",
                         parquetReaderConfig.getMaxReadBlockSize(),
                         false),
+                booleanProperty(
+                        PARQUET_USE_COLUMN_INDEX,
+                        "Parquet: Use the page index to skip pages that do not match the predicate",
+                        parquetReaderConfig.isUseColumnIndex(),
+                        false),
+                booleanProperty(
+                        PARQUET_USE_BLOOM_FILTER,
+                        "Parquet: Use bloom filters to skip row groups that do not match equality and IN predicates",
+                        parquetReaderConfig.isUseBloomFilter(),
+                        false),
                 dataSizeProperty(
                         PARQUET_WRITER_BLOCK_SIZE,
                         "Parquet: Writer block size",
@@ -369,6 +390,11 @@ public final class HiveSessionProperties
                         "Projection push down enabled for hive",
                         hiveConfig.isProjectionPushdownEnabled(),
                         false),
+                booleanProperty(
+                        AGGREGATION_PUSHDOWN_ENABLED,
+                        "Answer COUNT(*), MIN and MAX from ORC and Parquet file statistics",
+                        hiveConfig.isAggregationPushdownEnabled(),
+                        false),
                 enumProperty(
                         TIMESTAMP_PRECISION,
                         "Precision for timestamp columns in Hive tables",
@@ -384,6 +410,16 @@ public final class HiveSessionProperties
                         DYNAMIC_FILTERING_PROBE_BLOCKING_TIMEOUT,
                         "Duration to wait for completion of dynamic filters during split generation for probe side table",
                         hiveConfig.getDynamicFilteringProbeBlockingTimeout(),
+                        false),
+                booleanProperty(
+                        FILE_METADATA_CACHE_ENABLED,
+                        "Cache ORC and Parquet file footers on workers",
+                        hiveConfig.isFileMetadataCacheEnabled(),
+                        false),
+                booleanProperty(
+                        READ_AHEAD_ENABLED,
+                        "Read the next stripe or row group of ORC and Parquet files in the background",
+                        hiveConfig.isReadAheadEnabled(),
                         false));
     }
 
@@ -447,6 +483,11 @@ public final class HiveSessionProperties
         return session.getProperty(ORC_NESTED_LAZY_ENABLED, Boolean.class);
     }
 
+    public static boolean isOrcFilterPushdownEnabled(ConnectorSession session)
+    {
+        return session.getProperty(ORC_FILTER_PUSHDOWN_ENABLED, Boolean.class);
+    }
+
     public static DataSize getOrcStringStatisticsLimit(ConnectorSession session)
     {
         return session.getProperty(ORC_STRING_STATISTICS_LIMIT, DataSize.class);
@@ -557,6 +598,16 @@ public final class HiveSessionProperties
         return session.getProperty(PARQUET_MAX_READ_BLOCK_SIZE, DataSize.class);
     }
 
+    public static boolean isParquetUseColumnIndex(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_USE_COLUMN_INDEX, Boolean.class);
+    }
+
+    public static boolean isParquetUseBloomFilter(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_USE_BLOOM_FILTER, Boolean.class);
+    }
+
     public static DataSize getParquetWriterBlockSize(ConnectorSession session)
     {
         return session.getProperty(PARQUET_WRITER_BLOCK_SIZE, DataSize.class);
@@ -646,6 +697,11 @@ public final class HiveSessionProperties
         return session.getProperty(PROJECTION_PUSHDOWN_ENABLED, Boolean.class);
     }
 
+    public static boolean isAggregationPushdownEnabled(ConnectorSession session)
+    {
+        return session.getProperty(AGGREGATION_PUSHDOWN_ENABLED, Boolean.class);
+    }
+
     public static HiveTimestampPrecision getTimestampPrecision(ConnectorSession session)
     {
         return session.getProperty(TIMESTAMP_PRECISION, HiveTimestampPrecision.class);
@@ -660,4 +716,14 @@ public final class HiveSessionProperties
     {
         return session.getProperty(DYNAMIC_FILTERING_PROBE_BLOCKING_TIMEOUT, Duration.class);
     }
+
+    public static boolean isFileMetadataCacheEnabled(ConnectorSession session)
+    {
+        return session.getProperty(FILE_METADATA_CACHE_ENABLED, Boolean.class);
+    }
+
+    public static boolean isReadAheadEnabled(ConnectorSession session)
+    {
+        return session.getProperty(READ_AHEAD_ENABLED, Boolean.class);
+    }
 }
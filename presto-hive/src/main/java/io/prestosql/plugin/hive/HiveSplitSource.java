@@ -21,9 +21,11 @@ import io.airlift.log.Logger;
 import io.airlift.stats.CounterStat;
 import io.airlift.units.DataSize;
 import io.prestosql.plugin.hive.InternalHiveSplit.InternalHiveBlock;
+import io.prestosql.plugin.hive.cache.SoftAffinityProvider;
 import io.prestosql.plugin.hive.util.AsyncQueue;
 import io.prestosql.plugin.hive.util.AsyncQueue.BorrowResult;
 import io.prestosql.plugin.hive.util.ThrottledAsyncQueue;
+import io.prestosql.spi.HostAddress;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.connector.ConnectorPartitionHandle;
 import io.prestosql.spi.connector.ConnectorSession;
@@ -88,6 +90,8 @@ class HiveSplitSource
     private final CounterStat highMemorySplitSourceCounter;
     private final AtomicBoolean loggedHighMemoryWarning = new AtomicBoolean();
 
+    private final SoftAffinityProvider softAffinityProvider;
+
     private HiveSplitSource(
             ConnectorSession session,
             String databaseName,
@@ -97,7 +101,8 @@ class HiveSplitSource
             DataSize maxOutstandingSplitsSize,
             HiveSplitLoader splitLoader,
             AtomicReference<State> stateReference,
-            CounterStat highMemorySplitSourceCounter)
+            CounterStat highMemorySplitSourceCounter,
+            SoftAffinityProvider softAffinityProvider)
     {
         requireNonNull(session, "session is null");
         this.queryId = session.getQueryId();
@@ -108,6 +113,7 @@ class HiveSplitSource
         this.splitLoader = requireNonNull(splitLoader, "splitLoader is null");
         this.stateReference = requireNonNull(stateReference, "stateReference is null");
         this.highMemorySplitSourceCounter = requireNonNull(highMemorySplitSourceCounter, "highMemorySplitSourceCounter is null");
+        this.softAffinityProvider = requireNonNull(softAffinityProvider, "softAffinityProvider is null");
 
         this.maxSplitSize = getMaxSplitSize(session);
         this.maxInitialSplitSize = getMaxInitialSplitSize(session);
@@ -124,7 +130,8 @@ class HiveSplitSource
             int maxSplitsPerSecond,
             HiveSplitLoader splitLoader,
             Executor executor,
-            CounterStat highMemorySplitSourceCounter)
+            CounterStat highMemorySplitSourceCounter,
+            SoftAffinityProvider softAffinityProvider)
     {
         AtomicReference<State> stateReference = new AtomicReference<>(State.initial());
         return new HiveSplitSource(
@@ -166,7 +173,8 @@ class HiveSplitSource
                 maxOutstandingSplitsSize,
                 splitLoader,
                 stateReference,
-                highMemorySplitSourceCounter);
+                highMemorySplitSourceCounter,
+                softAffinityProvider);
     }
 
     public static HiveSplitSource bucketed(
@@ -179,7 +187,8 @@ class HiveSplitSource
             int maxSplitsPerSecond,
             HiveSplitLoader splitLoader,
             Executor executor,
-            CounterStat highMemorySplitSourceCounter)
+            CounterStat highMemorySplitSourceCounter,
+            SoftAffinityProvider softAffinityProvider)
     {
         AtomicReference<State> stateReference = new AtomicReference<>(State.initial());
         return new HiveSplitSource(
@@ -241,7 +250,8 @@ class HiveSplitSource
                 maxOutstandingSplitsSize,
                 splitLoader,
                 stateReference,
-                highMemorySplitSourceCounter);
+                highMemorySplitSourceCounter,
+                softAffinityProvider);
     }
 
     /**
@@ -362,6 +372,12 @@ class HiveSplitSource
                     splitBytes = internalSplit.getEnd() - internalSplit.getStart();
                 }
 
+                List<HostAddress> addresses = block.getAddresses();
+                if (!internalSplit.isForceLocalScheduling()) {
+                    // prefer the workers which are likely to have the block in their local cache
+                    addresses = softAffinityProvider.getAddresses(internalSplit.getPath(), block.getStart(), addresses);
+                }
+
                 resultBuilder.add(new HiveSplit(
                         databaseName,
                         tableName,
@@ -373,7 +389,7 @@ class HiveSplitSource
                         internalSplit.getFileModifiedTime(),
                         internalSplit.getSchema(),
                         internalSplit.getPartitionKeys(),
-                        block.getAddresses(),
+                        addresses,
                         internalSplit.getBucketNumber(),
                         internalSplit.isForceLocalScheduling(),
                         internalSplit.getTableToPartitionMapping(),
@@ -48,6 +48,7 @@ public class HiveTableHandle
     private final Optional<List<List<String>>> analyzePartitionValues;
     private final Optional<Set<String>> analyzeColumnNames;
     private final Optional<Set<ColumnHandle>> constraintColumns;
+    private final Optional<List<HiveAggregation>> aggregations;
 
     @JsonCreator
     public HiveTableHandle(
@@ -59,7 +60,8 @@ public class HiveTableHandle
             @JsonProperty("bucketHandle") Optional<HiveBucketHandle> bucketHandle,
             @JsonProperty("bucketFilter") Optional<HiveBucketFilter> bucketFilter,
             @JsonProperty("analyzePartitionValues") Optional<List<List<String>>> analyzePartitionValues,
-            @JsonProperty("analyzeColumnNames") Optional<Set<String>> analyzeColumnNames)
+            @JsonProperty("analyzeColumnNames") Optional<Set<String>> analyzeColumnNames,
+            @JsonProperty("aggregations") Optional<List<HiveAggregation>> aggregations)
     {
         this(
                 schemaName,
@@ -73,7 +75,8 @@ public class HiveTableHandle
                 bucketFilter,
                 analyzePartitionValues,
                 analyzeColumnNames,
-                Optional.empty());
+                Optional.empty(),
+                aggregations);
     }
 
     public HiveTableHandle(
@@ -95,6 +98,7 @@ public class HiveTableHandle
                 Optional.empty(),
                 Optional.empty(),
                 Optional.empty(),
+                Optional.empty(),
                 Optional.empty());
     }
 
@@ -110,7 +114,8 @@ public class HiveTableHandle
             Optional<HiveBucketFilter> bucketFilter,
             Optional<List<List<String>>> analyzePartitionValues,
             Optional<Set<String>> analyzeColumnNames,
-            Optional<Set<ColumnHandle>> constraintColumns)
+            Optional<Set<ColumnHandle>> constraintColumns,
+            Optional<List<HiveAggregation>> aggregations)
     {
         this.schemaName = requireNonNull(schemaName, "schemaName is null");
         this.tableName = requireNonNull(tableName, "tableName is null");
@@ -124,6 +129,7 @@ public class HiveTableHandle
         this.analyzePartitionValues = requireNonNull(analyzePartitionValues, "analyzePartitionValues is null");
         this.analyzeColumnNames = requireNonNull(analyzeColumnNames, "analyzeColumnNames is null").map(ImmutableSet::copyOf);
         this.constraintColumns = requireNonNull(constraintColumns, "constraintColumns is null");
+        this.aggregations = requireNonNull(aggregations, "aggregations is null").map(ImmutableList::copyOf);
     }
 
     public HiveTableHandle withAnalyzePartitionValues(List<List<String>> analyzePartitionValues)
@@ -140,7 +146,8 @@ public class HiveTableHandle
                 bucketFilter,
                 Optional.of(analyzePartitionValues),
                 analyzeColumnNames,
-                constraintColumns);
+                constraintColumns,
+                aggregations);
     }
 
     public HiveTableHandle withAnalyzeColumnNames(Set<String> analyzeColumnNames)
@@ -157,7 +164,26 @@ public class HiveTableHandle
                 bucketFilter,
                 analyzePartitionValues,
                 Optional.of(analyzeColumnNames),
-                constraintColumns);
+                constraintColumns,
+                aggregations);
+    }
+
+    public HiveTableHandle withAggregations(List<HiveAggregation> aggregations)
+    {
+        return new HiveTableHandle(
+                schemaName,
+                tableName,
+                tableParameters,
+                partitionColumns,
+                partitions,
+                compactEffectivePredicate,
+                enforcedConstraint,
+                bucketHandle,
+                bucketFilter,
+                analyzePartitionValues,
+                analyzeColumnNames,
+                constraintColumns,
+                Optional.of(aggregations));
     }
 
     @JsonProperty
@@ -235,6 +261,12 @@ public class HiveTableHandle
         return constraintColumns;
     }
 
+    @JsonProperty
+    public Optional<List<HiveAggregation>> getAggregations()
+    {
+        return aggregations;
+    }
+
     public SchemaTableName getSchemaTableName()
     {
         return new SchemaTableName(schemaName, tableName);
@@ -259,7 +291,8 @@ public class HiveTableHandle
                 Objects.equals(enforcedConstraint, that.enforcedConstraint) &&
                 Objects.equals(bucketHandle, that.bucketHandle) &&
                 Objects.equals(bucketFilter, that.bucketFilter) &&
-                Objects.equals(analyzePartitionValues, that.analyzePartitionValues);
+                Objects.equals(analyzePartitionValues, that.analyzePartitionValues) &&
+                Objects.equals(aggregations, that.aggregations);
     }
 
     @Override
@@ -275,7 +308,8 @@ public class HiveTableHandle
                 enforcedConstraint,
                 bucketHandle,
                 bucketFilter,
-                analyzePartitionValues);
+                analyzePartitionValues,
+                aggregations);
     }
 
     @Override
@@ -285,6 +319,8 @@ public class HiveTableHandle
         builder.append(schemaName).append(":").append(tableName);
         bucketHandle.ifPresent(bucket ->
                 builder.append(" bucket=").append(bucket.getReadBucketCount()));
+        aggregations.ifPresent(values ->
+                builder.append(" aggregations=").append(values));
         return builder.toString();
     }
 }
@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import io.airlift.units.DataSize;
+import io.prestosql.plugin.base.CatalogName;
+import io.prestosql.plugin.hive.util.ReadAheadBuffer;
+import io.prestosql.plugin.hive.util.ReadAheadBuffer.PositionedReader;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+
+/**
+ * Thread pool reading ORC and Parquet files ahead of the page sources, so a page source waiting
+ * for the file system reports that it is blocked instead of blocking a driver thread. This matters
+ * for object stores like S3, where a single read can take tens of milliseconds.
+ */
+public class ReadAheadExecutor
+{
+    private final Optional<ThreadPoolExecutor> executor;
+    private final DataSize maxSize;
+
+    public static ReadAheadExecutor noReadAhead()
+    {
+        return new ReadAheadExecutor();
+    }
+
+    private ReadAheadExecutor()
+    {
+        this.executor = Optional.empty();
+        this.maxSize = DataSize.ofBytes(0);
+    }
+
+    @Inject
+    public ReadAheadExecutor(HiveConfig hiveConfig, CatalogName catalogName)
+    {
+        this(hiveConfig.getReadAheadThreads(), hiveConfig.getReadAheadMaxSize(), "hive-read-ahead-" + catalogName + "-%s");
+    }
+
+    public ReadAheadExecutor(int threads, DataSize maxSize, String threadNameFormat)
+    {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) newFixedThreadPool(threads, daemonThreadsNamed(threadNameFormat));
+        this.executor = Optional.of(executor);
+        this.maxSize = requireNonNull(maxSize, "maxSize is null");
+    }
+
+    /**
+     * Creates a buffer reading ahead with the reader, or returns empty if read ahead is disabled.
+     */
+    public Optional<ReadAheadBuffer> createBuffer(PositionedReader reader, DataSize maxMergeDistance)
+    {
+        return executor.map(pool -> new ReadAheadBuffer(pool, reader, maxMergeDistance, maxSize));
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        executor.ifPresent(ThreadPoolExecutor::shutdownNow);
+    }
+
+    @Managed
+    public int getActiveReads()
+    {
+        return executor.map(ThreadPoolExecutor::getActiveCount).orElse(0);
+    }
+
+    @Managed
+    public int getQueuedReads()
+    {
+        return executor.map(pool -> pool.getQueue().size()).orElse(0);
+    }
+}
@@ -0,0 +1,446 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.cache;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.slice.Slice;
+import io.prestosql.plugin.hive.cache.LocalBlockCache.PageKey;
+import io.prestosql.plugin.hive.util.VectoredReadable;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FilterFileSystem;
+import org.apache.hadoop.fs.Path;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.transform;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
+import static java.util.Collections.nCopies;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.checkFromIndexSize;
+import static java.util.Objects.requireNonNull;
+import static org.apache.hadoop.fs.CommonConfigurationKeysPublic.IO_FILE_BUFFER_SIZE_DEFAULT;
+import static org.apache.hadoop.fs.CommonConfigurationKeysPublic.IO_FILE_BUFFER_SIZE_KEY;
+
+/**
+ * File system which serves reads of opened files from the {@link LocalBlockCache}.
+ * All other operations are passed to the wrapped file system. The wrapped file system
+ * is only opened when a page is not found in the cache.
+ */
+public class CachingFileSystem
+        extends FilterFileSystem
+{
+    private final LocalBlockCache cache;
+
+    public CachingFileSystem(FileSystem fileSystem, LocalBlockCache cache)
+    {
+        super(requireNonNull(fileSystem, "fileSystem is null"));
+        this.cache = requireNonNull(cache, "cache is null");
+    }
+
+    /**
+     * Opens a file whose length and modification time are already known, like the file of a split,
+     * so the caching file system does not need to get the status of the file. Other file systems
+     * open the file directly.
+     */
+    public static FSDataInputStream openFile(FileSystem fileSystem, Path path, long fileLength, long modificationTime)
+            throws IOException
+    {
+        if (fileSystem instanceof CachingFileSystem) {
+            CachingFileSystem cachingFileSystem = (CachingFileSystem) fileSystem;
+            int bufferSize = cachingFileSystem.getConf().getInt(IO_FILE_BUFFER_SIZE_KEY, IO_FILE_BUFFER_SIZE_DEFAULT);
+            return cachingFileSystem.open(cachingFileSystem.makeQualified(path), bufferSize, fileLength, modificationTime);
+        }
+        return fileSystem.open(path);
+    }
+
+    @Override
+    public FSDataInputStream open(Path path, int bufferSize)
+            throws IOException
+    {
+        // the modification time is part of the cache key, so rewritten files are not served from the cache
+        FileStatus status = fs.getFileStatus(path);
+        if (status.isDirectory()) {
+            return fs.open(path, bufferSize);
+        }
+        return open(status.getPath(), bufferSize, status.getLen(), status.getModificationTime());
+    }
+
+    private FSDataInputStream open(Path path, int bufferSize, long fileLength, long modificationTime)
+    {
+        return new FSDataInputStream(new CachingInputStream(cache, fs, path, bufferSize, fileLength, modificationTime));
+    }
+
+    /**
+     * Stream reading the file in pages. Positioned and vectored reads do not use the state of
+     * the stream, so they can run concurrently. Missing pages are read from the wrapped file
+     * system with one read per run of consecutive pages, and are written to the cache in the
+     * background.
+     */
+    private static class CachingInputStream
+            extends FSInputStream
+            implements VectoredReadable
+    {
+        private final LocalBlockCache cache;
+        private final FileSystem fileSystem;
+        private final Path path;
+        private final String pathName;
+        private final int bufferSize;
+        private final long fileLength;
+        private final long modificationTime;
+        private final int pageSize;
+
+        // page of the sequential reads
+        @GuardedBy("this")
+        private final byte[] page;
+        @GuardedBy("this")
+        private long pageIndex = -1;
+        @GuardedBy("this")
+        private int pageLength;
+        @GuardedBy("this")
+        private long position;
+
+        private final Object delegateLock = new Object();
+        @GuardedBy("delegateLock")
+        private FSDataInputStream delegate;
+        private volatile boolean closed;
+
+        public CachingInputStream(LocalBlockCache cache, FileSystem fileSystem, Path path, int bufferSize, long fileLength, long modificationTime)
+        {
+            this.cache = requireNonNull(cache, "cache is null");
+            this.fileSystem = requireNonNull(fileSystem, "fileSystem is null");
+            this.path = requireNonNull(path, "path is null");
+            this.pathName = path.toString();
+            this.bufferSize = bufferSize;
+            this.fileLength = fileLength;
+            this.modificationTime = modificationTime;
+            this.pageSize = cache.getPageSize();
+            this.page = new byte[pageSize];
+        }
+
+        @Override
+        public synchronized void seek(long position)
+                throws IOException
+        {
+            checkNotClosed();
+            if (position < 0) {
+                throw new EOFException("Negative seek position: " + position);
+            }
+            if (position > fileLength) {
+                throw new EOFException("Cannot seek after end of file: " + position);
+            }
+            this.position = position;
+        }
+
+        @Override
+        public synchronized long getPos()
+        {
+            return position;
+        }
+
+        @Override
+        public boolean seekToNewSource(long targetPosition)
+        {
+            return false;
+        }
+
+        @Override
+        public synchronized int available()
+                throws IOException
+        {
+            checkNotClosed();
+            return toIntExact(min(Integer.MAX_VALUE, fileLength - position));
+        }
+
+        @Override
+        public synchronized int read()
+                throws IOException
+        {
+            checkNotClosed();
+            if (position >= fileLength) {
+                return -1;
+            }
+            loadPage(position / pageSize);
+            int value = page[toIntExact(position - pageIndex * pageSize)] & 0xFF;
+            position++;
+            return value;
+        }
+
+        @Override
+        public synchronized int read(byte[] buffer, int offset, int length)
+                throws IOException
+        {
+            checkNotClosed();
+            checkFromIndexSize(offset, length, buffer.length);
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= fileLength) {
+                return -1;
+            }
+            loadPage(position / pageSize);
+            int pageOffset = toIntExact(position - pageIndex * pageSize);
+            int bytesRead = min(length, pageLength - pageOffset);
+            System.arraycopy(page, pageOffset, buffer, offset, bytesRead);
+            position += bytesRead;
+            return bytesRead;
+        }
+
+        @Override
+        public int read(long position, byte[] buffer, int offset, int length)
+                throws IOException
+        {
+            checkNotClosed();
+            checkFromIndexSize(offset, length, buffer.length);
+            if (length == 0) {
+                return 0;
+            }
+            if (position < 0 || position >= fileLength) {
+                return -1;
+            }
+            int bytesRead = toIntExact(min(length, fileLength - position));
+            readRange(position, buffer, offset, bytesRead);
+            return bytesRead;
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer, int offset, int length)
+                throws IOException
+        {
+            checkNotClosed();
+            checkFromIndexSize(offset, length, buffer.length);
+            if (length == 0) {
+                return;
+            }
+            if (position < 0 || position + length > fileLength) {
+                throw new EOFException(format("Cannot read %s bytes at position %s of file of %s bytes: %s", length, position, fileLength, path));
+            }
+            readRange(position, buffer, offset, length);
+        }
+
+        @Override
+        public <T> List<ListenableFuture<Slice>> readVectored(List<T> ranges, ToLongFunction<T> offset, ToIntFunction<T> length)
+                throws IOException
+        {
+            checkNotClosed();
+            List<ListenableFuture<Slice>> slices = new ArrayList<>(nCopies(ranges.size(), null));
+            List<Integer> missing = new ArrayList<>();
+            for (int index = 0; index < ranges.size(); index++) {
+                T range = ranges.get(index);
+                Optional<byte[]> data = readCachedRange(offset.applyAsLong(range), length.applyAsInt(range));
+                if (data.isPresent()) {
+                    slices.set(index, immediateFuture(wrappedBuffer(data.get())));
+                }
+                else {
+                    missing.add(index);
+                }
+            }
+            if (missing.isEmpty()) {
+                return unmodifiableList(slices);
+            }
+
+            Optional<VectoredReadable> vectoredDelegate = VectoredReadable.getVectoredReadable(getDelegate());
+            if (vectoredDelegate.isEmpty()) {
+                for (int index : missing) {
+                    T range = ranges.get(index);
+                    byte[] data = new byte[length.applyAsInt(range)];
+                    readRange(offset.applyAsLong(range), data, 0, data.length);
+                    slices.set(index, immediateFuture(wrappedBuffer(data)));
+                }
+                return unmodifiableList(slices);
+            }
+
+            // read whole pages, so they can be cached
+            List<ListenableFuture<Slice>> pages = vectoredDelegate.get().readVectored(
+                    missing,
+                    index -> pageStart(offset.applyAsLong(ranges.get(index))),
+                    index -> toIntExact(pageEnd(offset.applyAsLong(ranges.get(index)) + length.applyAsInt(ranges.get(index))) - pageStart(offset.applyAsLong(ranges.get(index)))));
+            for (int i = 0; i < missing.size(); i++) {
+                int index = missing.get(i);
+                long rangeOffset = offset.applyAsLong(ranges.get(index));
+                int rangeLength = length.applyAsInt(ranges.get(index));
+                long start = pageStart(rangeOffset);
+                slices.set(index, transform(pages.get(i), data -> {
+                    cachePages(start, data);
+                    return data.slice(toIntExact(rangeOffset - start), rangeLength);
+                }, directExecutor()));
+            }
+            return unmodifiableList(slices);
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            synchronized (delegateLock) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (delegate != null) {
+                    delegate.close();
+                }
+            }
+        }
+
+        @GuardedBy("this")
+        private void loadPage(long index)
+                throws IOException
+        {
+            if (index == pageIndex) {
+                return;
+            }
+            pageIndex = -1;
+
+            int length = cache.readPage(pageKey(index), page);
+            if (length < 0) {
+                long start = index * pageSize;
+                length = toIntExact(min(pageSize, fileLength - start));
+                getDelegate().readFully(start, page, 0, length);
+                // the page buffer is reused, so the cache gets a copy
+                cache.writePageAsync(pageKey(index), Arrays.copyOf(page, length), 0, length);
+            }
+            pageIndex = index;
+            pageLength = length;
+        }
+
+        private void readRange(long position, byte[] buffer, int offset, int length)
+                throws IOException
+        {
+            long firstPage = position / pageSize;
+            long lastPage = (position + length - 1) / pageSize;
+            byte[] cachedPage = new byte[pageSize];
+            long firstMissingPage = -1;
+            for (long index = firstPage; index <= lastPage; index++) {
+                int cachedLength = cache.readPage(pageKey(index), cachedPage);
+                if (cachedLength < 0) {
+                    if (firstMissingPage < 0) {
+                        firstMissingPage = index;
+                    }
+                    continue;
+                }
+                if (firstMissingPage >= 0) {
+                    readPages(firstMissingPage, index, position, buffer, offset, length);
+                    firstMissingPage = -1;
+                }
+                copyOverlap(cachedPage, index * pageSize, cachedLength, position, buffer, offset, length);
+            }
+            if (firstMissingPage >= 0) {
+                readPages(firstMissingPage, lastPage + 1, position, buffer, offset, length);
+            }
+        }
+
+        /**
+         * Reads the pages from {@code firstPage} up to {@code endPage} exclusive with a single
+         * read, and copies the part overlapping the requested range to the buffer.
+         */
+        private void readPages(long firstPage, long endPage, long position, byte[] buffer, int offset, int length)
+                throws IOException
+        {
+            long start = firstPage * pageSize;
+            byte[] data = new byte[toIntExact(min(endPage * pageSize, fileLength) - start)];
+            getDelegate().readFully(start, data, 0, data.length);
+            cachePages(start, wrappedBuffer(data));
+            copyOverlap(data, start, data.length, position, buffer, offset, length);
+        }
+
+        private Optional<byte[]> readCachedRange(long position, int length)
+        {
+            byte[] data = new byte[length];
+            byte[] cachedPage = new byte[pageSize];
+            for (long index = position / pageSize; index * pageSize < position + length; index++) {
+                int cachedLength = cache.readPage(pageKey(index), cachedPage);
+                if (cachedLength < 0) {
+                    return Optional.empty();
+                }
+                copyOverlap(cachedPage, index * pageSize, cachedLength, position, data, 0, length);
+            }
+            return Optional.of(data);
+        }
+
+        // data starts at a page boundary, and ends at a page boundary or at the end of the file
+        private void cachePages(long start, Slice data)
+        {
+            byte[] array = data.hasByteArray() ? data.byteArray() : data.getBytes();
+            int arrayOffset = data.hasByteArray() ? data.byteArrayOffset() : 0;
+            for (int pageOffset = 0; pageOffset < data.length(); pageOffset += pageSize) {
+                long index = (start + pageOffset) / pageSize;
+                cache.writePageAsync(pageKey(index), array, arrayOffset + pageOffset, min(pageSize, data.length() - pageOffset));
+            }
+        }
+
+        private PageKey pageKey(long index)
+        {
+            return new PageKey(pathName, fileLength, modificationTime, index);
+        }
+
+        private long pageStart(long position)
+        {
+            return position / pageSize * pageSize;
+        }
+
+        private long pageEnd(long position)
+        {
+            long pageCount = (position + pageSize - 1) / pageSize;
+            return min(pageCount * pageSize, fileLength);
+        }
+
+        private FSDataInputStream getDelegate()
+                throws IOException
+        {
+            synchronized (delegateLock) {
+                checkNotClosed();
+                if (delegate == null) {
+                    delegate = fileSystem.open(path, bufferSize);
+                }
+                return delegate;
+            }
+        }
+
+        private void checkNotClosed()
+                throws IOException
+        {
+            if (closed) {
+                throw new IOException("Stream is closed: " + path);
+            }
+        }
+
+        // copies the bytes of the source, which starts at the source position of the file, which are within the requested range
+        private static void copyOverlap(byte[] source, long sourcePosition, int sourceLength, long position, byte[] buffer, int offset, int length)
+        {
+            long start = max(sourcePosition, position);
+            long end = min(sourcePosition + sourceLength, position + length);
+            if (start < end) {
+                System.arraycopy(source, toIntExact(start - sourcePosition), buffer, offset + toIntExact(start - position), toIntExact(end - start));
+            }
+        }
+    }
+}
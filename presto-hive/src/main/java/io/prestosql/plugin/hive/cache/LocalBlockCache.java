@@ -0,0 +1,651 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.airlift.log.Logger;
+import io.airlift.slice.XxHash64;
+import io.airlift.stats.CounterStat;
+import io.airlift.units.DataSize;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.apache.hadoop.fs.FileSystem;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.lang.Math.toIntExact;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Worker local cache of file data, stored on a local disk in fixed size pages aligned
+ * to multiples of the page size within the cached file.
+ * <p>
+ * Cached pages are kept in one file of {@code maxSize / pageSize} slots. The index of the
+ * cache is only kept in memory, and the file is removed when the cache is destroyed, so
+ * cached data does not survive a restart of the server. Pages are keyed by file path,
+ * length and modification time, so a file rewritten in place is never served stale data.
+ * <p>
+ * Eviction uses a segmented LRU: new pages enter a probationary segment and are moved to
+ * a protected segment when they are read again, so a single large scan does not evict
+ * pages which are read repeatedly. A checksum of each page is validated when the page is
+ * read back, and pages failing validation are dropped and read from the file system again.
+ */
+@ThreadSafe
+public class LocalBlockCache
+{
+    private static final Logger log = Logger.get(LocalBlockCache.class);
+
+    // share of the slots that can be used by pages which were read more than once
+    private static final double PROTECTED_SEGMENT_RATIO = 0.8;
+    private static final int WRITER_THREADS = 2;
+    // pages read from the file system waiting to be written, pages beyond this are not cached
+    private static final long MAX_PENDING_WRITE_BYTES = DataSize.of(64, MEGABYTE).toBytes();
+
+    private final boolean enabled;
+    private final int pageSize;
+    private final int slotCount;
+    private final int protectedSegmentCapacity;
+    private final boolean checksumValidationEnabled;
+    private final FileChannel channel;
+    private final ExecutorService writeExecutor;
+    private final AtomicLong pendingWriteBytes = new AtomicLong();
+
+    @GuardedBy("this")
+    private final LinkedHashMap<PageKey, Entry> probationSegment = new LinkedHashMap<>();
+    @GuardedBy("this")
+    private final LinkedHashMap<PageKey, Entry> protectedSegment = new LinkedHashMap<>();
+    @GuardedBy("this")
+    private final IntArrayList freeSlots = new IntArrayList();
+    @GuardedBy("this")
+    private long cachedBytes;
+
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat bytesReadFromCache = new CounterStat();
+    private final CounterStat bytesWrittenToCache = new CounterStat();
+    private final CounterStat evictions = new CounterStat();
+    private final CounterStat checksumFailures = new CounterStat();
+    private final CounterStat ioErrors = new CounterStat();
+    private final CounterStat skippedWrites = new CounterStat();
+
+    public static LocalBlockCache disabled()
+    {
+        return new LocalBlockCache(Optional.empty(), DataSize.ofBytes(0), DataSize.ofBytes(1), false);
+    }
+
+    @Inject
+    public LocalBlockCache(LocalCacheConfig config)
+    {
+        this(
+                config.isEnabled() ? config.getLocation().map(Paths::get) : Optional.empty(),
+                config.getMaxSize(),
+                config.getPageSize(),
+                config.isChecksumValidationEnabled(),
+                newFixedThreadPool(WRITER_THREADS, daemonThreadsNamed("hive-local-cache-writer-%s")));
+    }
+
+    public LocalBlockCache(Optional<Path> directory, DataSize maxSize, DataSize pageSize, boolean checksumValidationEnabled)
+    {
+        this(directory, maxSize, pageSize, checksumValidationEnabled, newDirectExecutorService());
+    }
+
+    public LocalBlockCache(Optional<Path> directory, DataSize maxSize, DataSize pageSize, boolean checksumValidationEnabled, ExecutorService writeExecutor)
+    {
+        requireNonNull(directory, "directory is null");
+        requireNonNull(maxSize, "maxSize is null");
+        requireNonNull(pageSize, "pageSize is null");
+        this.pageSize = toIntExact(pageSize.toBytes());
+        checkArgument(this.pageSize > 0, "pageSize must be positive");
+        this.slotCount = toIntExact(maxSize.toBytes() / this.pageSize);
+        this.protectedSegmentCapacity = (int) (slotCount * PROTECTED_SEGMENT_RATIO);
+        this.checksumValidationEnabled = checksumValidationEnabled;
+        this.writeExecutor = requireNonNull(writeExecutor, "writeExecutor is null");
+        this.enabled = directory.isPresent() && slotCount > 0;
+
+        if (!enabled) {
+            this.channel = null;
+            return;
+        }
+
+        Path cacheFile = directory.get().resolve("presto-local-cache-" + UUID.randomUUID() + ".data");
+        try {
+            createDirectories(directory.get());
+            this.channel = FileChannel.open(cacheFile, CREATE_NEW, READ, WRITE, DELETE_ON_CLOSE);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to create local cache file " + cacheFile, e);
+        }
+        // hand out the slots from the beginning of the file first
+        for (int slot = slotCount - 1; slot >= 0; slot--) {
+            freeSlots.add(slot);
+        }
+    }
+
+    @PreDestroy
+    public void destroy()
+            throws IOException
+    {
+        writeExecutor.shutdownNow();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public int getPageSize()
+    {
+        return pageSize;
+    }
+
+    public FileSystem wrap(FileSystem fileSystem)
+    {
+        if (!enabled) {
+            return fileSystem;
+        }
+        return new CachingFileSystem(fileSystem, this);
+    }
+
+    /**
+     * Reads the cached page into the buffer.
+     *
+     * @return length of the page, or -1 if the page is not cached
+     */
+    int readPage(PageKey key, byte[] buffer)
+    {
+        if (!enabled) {
+            return -1;
+        }
+        Entry entry = acquire(key);
+        if (entry == null) {
+            misses.update(1);
+            return -1;
+        }
+        try {
+            readFully(channel, (long) entry.getSlot() * pageSize, buffer, entry.getLength());
+            if (checksumValidationEnabled && checksum(buffer, 0, entry.getLength()) != entry.getChecksum()) {
+                log.warn("Checksum mismatch for cached page %s", key);
+                checksumFailures.update(1);
+                invalidate(key, entry);
+                misses.update(1);
+                return -1;
+            }
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to read cached page %s", key);
+            ioErrors.update(1);
+            invalidate(key, entry);
+            misses.update(1);
+            return -1;
+        }
+        finally {
+            release(entry);
+        }
+        hits.update(1);
+        bytesReadFromCache.update(entry.getLength());
+        return entry.getLength();
+    }
+
+    /**
+     * Stores the page in the cache in the background, so the reader does not wait for the
+     * local disk. The buffer must not be modified afterwards. Pages are dropped when too many
+     * pages are waiting to be written.
+     */
+    void writePageAsync(PageKey key, byte[] buffer, int offset, int length)
+    {
+        if (!enabled) {
+            return;
+        }
+        if (pendingWriteBytes.addAndGet(length) > MAX_PENDING_WRITE_BYTES) {
+            pendingWriteBytes.addAndGet(-length);
+            skippedWrites.update(1);
+            return;
+        }
+        try {
+            writeExecutor.execute(() -> {
+                try {
+                    writePage(key, buffer, offset, length);
+                }
+                finally {
+                    pendingWriteBytes.addAndGet(-length);
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            // the cache is being destroyed
+            pendingWriteBytes.addAndGet(-length);
+        }
+    }
+
+    void writePage(PageKey key, byte[] buffer, int length)
+    {
+        writePage(key, buffer, 0, length);
+    }
+
+    /**
+     * Stores the page in the cache, unless it is already cached or no slot can be freed.
+     */
+    void writePage(PageKey key, byte[] buffer, int offset, int length)
+    {
+        checkArgument(length <= pageSize, "length is greater than the page size");
+        if (!enabled) {
+            return;
+        }
+        int slot = reserveSlot(key);
+        if (slot < 0) {
+            return;
+        }
+        try {
+            writeFully(channel, (long) slot * pageSize, buffer, offset, length);
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to write cached page %s", key);
+            ioErrors.update(1);
+            synchronized (this) {
+                freeSlots.add(slot);
+            }
+            return;
+        }
+        long checksum = checksumValidationEnabled ? checksum(buffer, offset, length) : 0;
+        publish(key, new Entry(slot, length, checksum));
+        bytesWrittenToCache.update(length);
+    }
+
+    private synchronized Entry acquire(PageKey key)
+    {
+        Entry entry = probationSegment.remove(key);
+        if (entry != null) {
+            // second access, promote to the protected segment
+            protectedSegment.put(key, entry);
+            while (protectedSegment.size() > protectedSegmentCapacity) {
+                Iterator<Map.Entry<PageKey, Entry>> iterator = protectedSegment.entrySet().iterator();
+                Map.Entry<PageKey, Entry> eldest = iterator.next();
+                iterator.remove();
+                probationSegment.put(eldest.getKey(), eldest.getValue());
+            }
+        }
+        else {
+            entry = protectedSegment.remove(key);
+            if (entry == null) {
+                return null;
+            }
+            protectedSegment.put(key, entry);
+        }
+        entry.pin();
+        return entry;
+    }
+
+    private synchronized void release(Entry entry)
+    {
+        if (entry.unpin() && entry.isRemoved()) {
+            freeSlots.add(entry.getSlot());
+        }
+    }
+
+    private synchronized void invalidate(PageKey key, Entry entry)
+    {
+        if (probationSegment.remove(key, entry) || protectedSegment.remove(key, entry)) {
+            remove(entry);
+        }
+    }
+
+    private synchronized int reserveSlot(PageKey key)
+    {
+        if (probationSegment.containsKey(key) || protectedSegment.containsKey(key)) {
+            return -1;
+        }
+        while (freeSlots.isEmpty()) {
+            if (!evictEldest(probationSegment) && !evictEldest(protectedSegment)) {
+                // all slots are being written
+                return -1;
+            }
+        }
+        return freeSlots.removeInt(freeSlots.size() - 1);
+    }
+
+    private synchronized void publish(PageKey key, Entry entry)
+    {
+        if (probationSegment.containsKey(key) || protectedSegment.containsKey(key)) {
+            // the page was cached concurrently
+            freeSlots.add(entry.getSlot());
+            return;
+        }
+        probationSegment.put(key, entry);
+        cachedBytes += entry.getLength();
+    }
+
+    @GuardedBy("this")
+    private boolean evictEldest(LinkedHashMap<PageKey, Entry> segment)
+    {
+        Iterator<Entry> iterator = segment.values().iterator();
+        if (!iterator.hasNext()) {
+            return false;
+        }
+        Entry entry = iterator.next();
+        iterator.remove();
+        remove(entry);
+        evictions.update(1);
+        return true;
+    }
+
+    @GuardedBy("this")
+    private void remove(Entry entry)
+    {
+        cachedBytes -= entry.getLength();
+        entry.markRemoved();
+        // pages being read are released to the free slots when the last reader is done
+        if (!entry.isPinned()) {
+            freeSlots.add(entry.getSlot());
+        }
+    }
+
+    private static long checksum(byte[] buffer, int offset, int length)
+    {
+        return XxHash64.hash(wrappedBuffer(buffer, offset, length));
+    }
+
+    private static void readFully(FileChannel channel, long position, byte[] buffer, int length)
+            throws IOException
+    {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, length);
+        while (byteBuffer.hasRemaining()) {
+            int read = channel.read(byteBuffer, position + byteBuffer.position());
+            if (read < 0) {
+                throw new EOFException("Unexpected end of local cache file");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, long position, byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, offset, length);
+        while (byteBuffer.hasRemaining()) {
+            channel.write(byteBuffer, position + byteBuffer.position() - offset);
+        }
+    }
+
+    @Managed
+    public synchronized void flushCache()
+    {
+        while (evictEldest(probationSegment) || evictEldest(protectedSegment)) {
+            // evict everything
+        }
+    }
+
+    @Managed
+    public synchronized long getCachedBytes()
+    {
+        return cachedBytes;
+    }
+
+    @Managed
+    public synchronized long getCachedPageCount()
+    {
+        return probationSegment.size() + protectedSegment.size();
+    }
+
+    @Managed
+    public long getMaxSize()
+    {
+        return (long) slotCount * pageSize;
+    }
+
+    @Managed
+    public double getHitRatio()
+    {
+        long hitCount = hits.getTotalCount();
+        long requestCount = hitCount + misses.getTotalCount();
+        if (requestCount == 0) {
+            return Double.NaN;
+        }
+        return (double) hitCount / requestCount;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Bytes which were served from the local disk instead of the file system.
+     */
+    @Managed
+    @Nested
+    public CounterStat getBytesReadFromCache()
+    {
+        return bytesReadFromCache;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getBytesWrittenToCache()
+    {
+        return bytesWrittenToCache;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getEvictions()
+    {
+        return evictions;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getChecksumFailures()
+    {
+        return checksumFailures;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getIoErrors()
+    {
+        return ioErrors;
+    }
+
+    /**
+     * Pages which were not cached, because too many pages were waiting to be written.
+     */
+    @Managed
+    @Nested
+    public CounterStat getSkippedWrites()
+    {
+        return skippedWrites;
+    }
+
+    @Managed
+    public long getPendingWriteBytes()
+    {
+        return pendingWriteBytes.get();
+    }
+
+    @VisibleForTesting
+    synchronized boolean isCached(PageKey key)
+    {
+        return probationSegment.containsKey(key) || protectedSegment.containsKey(key);
+    }
+
+    @VisibleForTesting
+    void corruptPage(PageKey key)
+            throws IOException
+    {
+        Entry entry;
+        synchronized (this) {
+            entry = probationSegment.containsKey(key) ? probationSegment.get(key) : protectedSegment.get(key);
+        }
+        checkArgument(entry != null, "page is not cached: %s", key);
+        byte[] buffer = new byte[entry.getLength()];
+        readFully(channel, (long) entry.getSlot() * pageSize, buffer, buffer.length);
+        buffer[0]++;
+        writeFully(channel, (long) entry.getSlot() * pageSize, buffer, 0, buffer.length);
+    }
+
+    static final class PageKey
+    {
+        private final String path;
+        private final long fileLength;
+        private final long modificationTime;
+        private final long pageIndex;
+
+        public PageKey(String path, long fileLength, long modificationTime, long pageIndex)
+        {
+            this.path = requireNonNull(path, "path is null");
+            this.fileLength = fileLength;
+            this.modificationTime = modificationTime;
+            this.pageIndex = pageIndex;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PageKey that = (PageKey) o;
+            return fileLength == that.fileLength &&
+                    modificationTime == that.modificationTime &&
+                    pageIndex == that.pageIndex &&
+                    path.equals(that.path);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, fileLength, modificationTime, pageIndex);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("path", path)
+                    .add("fileLength", fileLength)
+                    .add("modificationTime", modificationTime)
+                    .add("pageIndex", pageIndex)
+                    .toString();
+        }
+    }
+
+    private static final class Entry
+    {
+        private final int slot;
+        private final int length;
+        private final long checksum;
+
+        // guarded by the cache
+        private int pins;
+        private boolean removed;
+
+        public Entry(int slot, int length, long checksum)
+        {
+            this.slot = slot;
+            this.length = length;
+            this.checksum = checksum;
+        }
+
+        public int getSlot()
+        {
+            return slot;
+        }
+
+        public int getLength()
+        {
+            return length;
+        }
+
+        public long getChecksum()
+        {
+            return checksum;
+        }
+
+        public void pin()
+        {
+            pins++;
+        }
+
+        /**
+         * @return true if the entry is not pinned anymore
+         */
+        public boolean unpin()
+        {
+            pins--;
+            return pins == 0;
+        }
+
+        public boolean isPinned()
+        {
+            return pins > 0;
+        }
+
+        public void markRemoved()
+        {
+            removed = true;
+        }
+
+        public boolean isRemoved()
+        {
+            return removed;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.cache;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
+import io.airlift.units.MaxDataSize;
+import io.airlift.units.MinDataSize;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.NotNull;
+
+import java.util.Optional;
+
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class LocalCacheConfig
+{
+    private boolean enabled;
+    private Optional<String> location = Optional.empty();
+    private DataSize maxSize = DataSize.of(10, GIGABYTE);
+    private DataSize pageSize = DataSize.of(1, MEGABYTE);
+    private boolean checksumValidationEnabled = true;
+    private boolean softAffinitySchedulingEnabled = true;
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Config("hive.local-cache.enabled")
+    @ConfigDescription("Cache data read from the file system on local disks of the workers")
+    public LocalCacheConfig setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+        return this;
+    }
+
+    @NotNull
+    public Optional<String> getLocation()
+    {
+        return location;
+    }
+
+    @Config("hive.local-cache.location")
+    @ConfigDescription("Local directory used to store the cached data")
+    public LocalCacheConfig setLocation(String location)
+    {
+        this.location = Optional.ofNullable(location);
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxSize()
+    {
+        return maxSize;
+    }
+
+    @Config("hive.local-cache.max-size")
+    @ConfigDescription("Maximum size of the cached data on each worker")
+    public LocalCacheConfig setMaxSize(DataSize maxSize)
+    {
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("4kB")
+    @MaxDataSize("64MB")
+    public DataSize getPageSize()
+    {
+        return pageSize;
+    }
+
+    @Config("hive.local-cache.page-size")
+    @ConfigDescription("Size of the aligned file ranges stored in the cache")
+    public LocalCacheConfig setPageSize(DataSize pageSize)
+    {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    public boolean isChecksumValidationEnabled()
+    {
+        return checksumValidationEnabled;
+    }
+
+    @Config("hive.local-cache.checksum-validation-enabled")
+    @ConfigDescription("Validate the checksum of cached data when it is read from the local disk")
+    public LocalCacheConfig setChecksumValidationEnabled(boolean checksumValidationEnabled)
+    {
+        this.checksumValidationEnabled = checksumValidationEnabled;
+        return this;
+    }
+
+    public boolean isSoftAffinitySchedulingEnabled()
+    {
+        return softAffinitySchedulingEnabled;
+    }
+
+    @Config("hive.local-cache.soft-affinity-scheduling-enabled")
+    @ConfigDescription("Prefer scheduling splits of the same file on the same workers, so they are read from the local cache")
+    public LocalCacheConfig setSoftAffinitySchedulingEnabled(boolean softAffinitySchedulingEnabled)
+    {
+        this.softAffinitySchedulingEnabled = softAffinitySchedulingEnabled;
+        return this;
+    }
+
+    @AssertTrue(message = "hive.local-cache.location must be set when the local cache is enabled")
+    public boolean isLocationSetWhenEnabled()
+    {
+        return !enabled || location.isPresent();
+    }
+}
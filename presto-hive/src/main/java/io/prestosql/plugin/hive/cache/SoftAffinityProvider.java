@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.cache;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.HostAddress;
+import io.prestosql.spi.Node;
+import io.prestosql.spi.NodeManager;
+
+import javax.inject.Inject;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Suppliers.memoizeWithExpiration;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.slice.XxHash64.hash;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Chooses preferred workers for the splits of each part of a file when the {@link LocalBlockCache} is enabled,
+ * so repeated scans of the file run on workers which already cached its data. The workers are
+ * chosen with rendezvous hashing, which only moves the parts of a worker which joins or leaves
+ * the cluster. The splits stay remotely accessible, so the scheduler still uses other workers
+ * when the preferred ones are busy.
+ */
+public class SoftAffinityProvider
+{
+    private static final int PREFERRED_NODE_COUNT = 2;
+    private static final long NODE_REFRESH_SECONDS = 5;
+
+    private final boolean enabled;
+    private final Supplier<List<Node>> workerNodes;
+
+    public static SoftAffinityProvider disabled()
+    {
+        return new SoftAffinityProvider(false, ImmutableList::of);
+    }
+
+    @Inject
+    public SoftAffinityProvider(LocalCacheConfig config, NodeManager nodeManager)
+    {
+        this(
+                config.isEnabled() && config.isSoftAffinitySchedulingEnabled(),
+                memoizeWithExpiration(() -> ImmutableList.copyOf(requireNonNull(nodeManager, "nodeManager is null").getWorkerNodes()), NODE_REFRESH_SECONDS, SECONDS));
+    }
+
+    public SoftAffinityProvider(boolean enabled, Supplier<List<Node>> workerNodes)
+    {
+        this.enabled = enabled;
+        this.workerNodes = requireNonNull(workerNodes, "workerNodes is null");
+    }
+
+    /**
+     * Returns the addresses of the preferred workers for the part of the file starting at the
+     * offset, or {@code defaultAddresses} when soft affinity scheduling is disabled. The parts of
+     * a large file are spread over the cluster, instead of all its splits preferring the same
+     * workers. The offset should not depend on how the file is split, like the start of a block.
+     */
+    public List<HostAddress> getAddresses(String path, long offset, List<HostAddress> defaultAddresses)
+    {
+        if (!enabled) {
+            return defaultAddresses;
+        }
+        List<Node> nodes = workerNodes.get();
+        if (nodes.isEmpty()) {
+            return defaultAddresses;
+        }
+        long partHash = hash(offset, utf8Slice(path));
+        return nodes.stream()
+                .sorted(Comparator.comparingLong((Node node) -> hash(partHash, utf8Slice(node.getNodeIdentifier()))).reversed())
+                .limit(PREFERRED_NODE_COUNT)
+                .map(Node::getHostAndPort)
+                .collect(toImmutableList());
+    }
+}
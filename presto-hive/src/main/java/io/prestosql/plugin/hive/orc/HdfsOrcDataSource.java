@@ -13,18 +13,28 @@
  */
 package io.prestosql.plugin.hive.orc;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.slice.Slice;
 import io.prestosql.orc.AbstractOrcDataSource;
+import io.prestosql.orc.DiskRange;
 import io.prestosql.orc.OrcDataSourceId;
 import io.prestosql.orc.OrcReaderOptions;
 import io.prestosql.plugin.hive.FileFormatDataSourceStats;
+import io.prestosql.plugin.hive.ReadAheadExecutor;
 import io.prestosql.plugin.hive.util.FSDataInputStreamTail;
+import io.prestosql.plugin.hive.util.ReadAheadBuffer;
+import io.prestosql.plugin.hive.util.VectoredReadable;
 import io.prestosql.spi.PrestoException;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.hdfs.BlockMissingException;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
+import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_FILESYSTEM_ERROR;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_MISSING_DATA;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_UNKNOWN_ERROR;
@@ -36,6 +46,8 @@ public class HdfsOrcDataSource
 {
     private final FSDataInputStream inputStream;
     private final FileFormatDataSourceStats stats;
+    private final Optional<ReadAheadBuffer> readAheadBuffer;
+    private final Optional<VectoredReadable> vectoredReadable;
 
     public HdfsOrcDataSource(
             OrcDataSourceId id,
@@ -43,19 +55,54 @@ public class HdfsOrcDataSource
             OrcReaderOptions options,
             FSDataInputStream inputStream,
             FileFormatDataSourceStats stats)
+    {
+        this(id, size, options, inputStream, stats, ReadAheadExecutor.noReadAhead());
+    }
+
+    public HdfsOrcDataSource(
+            OrcDataSourceId id,
+            long size,
+            OrcReaderOptions options,
+            FSDataInputStream inputStream,
+            FileFormatDataSourceStats stats,
+            ReadAheadExecutor readAheadExecutor)
     {
         super(id, size, options);
         this.inputStream = requireNonNull(inputStream, "inputStream is null");
         this.stats = requireNonNull(stats, "stats is null");
+        this.readAheadBuffer = requireNonNull(readAheadExecutor, "readAheadExecutor is null").createBuffer(this::readFromInputStream, options.getMaxMergeDistance());
+        this.vectoredReadable = VectoredReadable.getVectoredReadable(inputStream);
     }
 
     @Override
     public void close()
             throws IOException
     {
+        readAheadBuffer.ifPresent(ReadAheadBuffer::close);
         inputStream.close();
     }
 
+    @Override
+    public long getRetainedSize()
+    {
+        return readAheadBuffer.map(ReadAheadBuffer::getRetainedSize).orElse(0L);
+    }
+
+    @Override
+    public boolean isReadAheadEnabled()
+    {
+        return readAheadBuffer.isPresent();
+    }
+
+    @Override
+    public ListenableFuture<?> readAhead(List<DiskRange> diskRanges)
+    {
+        if (readAheadBuffer.isEmpty()) {
+            return immediateFuture(null);
+        }
+        return readAheadBuffer.get().readAhead(diskRanges, DiskRange::getOffset, DiskRange::getLength);
+    }
+
     @Override
     public Slice readTail(int length)
             throws IOException
@@ -72,9 +119,10 @@ public class HdfsOrcDataSource
     protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
     {
         try {
-            long readStart = System.nanoTime();
-            inputStream.readFully(position, buffer, bufferOffset, bufferLength);
-            stats.readDataBytesPerSecond(bufferLength, System.nanoTime() - readStart);
+            if (readAheadBuffer.isPresent() && readAheadBuffer.get().read(position, buffer, bufferOffset, bufferLength)) {
+                return;
+            }
+            readFromInputStream(position, buffer, bufferOffset, bufferLength);
         }
         catch (PrestoException e) {
             // just in case there is a Presto wrapper or hook
@@ -91,4 +139,45 @@ public class HdfsOrcDataSource
             throw new PrestoException(HIVE_UNKNOWN_ERROR, message, e);
         }
     }
+
+    @Override
+    protected Map<DiskRange, Slice> readInternal(List<DiskRange> diskRanges)
+            throws IOException
+    {
+        // ranges read ahead are served by the buffer
+        if (vectoredReadable.isEmpty() || readAheadBuffer.isPresent() || diskRanges.size() == 1) {
+            return super.readInternal(diskRanges);
+        }
+
+        long readStart = System.nanoTime();
+        List<Slice> slices;
+        try {
+            slices = vectoredReadable.get().readVectoredFully(diskRanges, DiskRange::getOffset, DiskRange::getLength);
+        }
+        catch (PrestoException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            String message = format("Error reading %s ranges from %s", diskRanges.size(), this);
+            throw new PrestoException(e instanceof IOException ? HIVE_FILESYSTEM_ERROR : HIVE_UNKNOWN_ERROR, message, e);
+        }
+
+        ImmutableMap.Builder<DiskRange, Slice> buffers = ImmutableMap.builder();
+        long readBytes = 0;
+        for (int i = 0; i < diskRanges.size(); i++) {
+            buffers.put(diskRanges.get(i), slices.get(i));
+            readBytes += slices.get(i).length();
+        }
+        stats.readDataBytesPerSecond(readBytes, System.nanoTime() - readStart);
+        return buffers.build();
+    }
+
+    // positioned reads do not change the stream position, so they can run concurrently with the background reads
+    private void readFromInputStream(long position, byte[] buffer, int bufferOffset, int bufferLength)
+            throws IOException
+    {
+        long readStart = System.nanoTime();
+        inputStream.readFully(position, buffer, bufferOffset, bufferLength);
+        stats.readDataBytesPerSecond(bufferLength, System.nanoTime() - readStart);
+    }
 }
@@ -35,10 +35,12 @@ import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.MoreFutures.toCompletableFuture;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_BAD_DATA;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_CURSOR_ERROR;
 import static java.lang.String.format;
@@ -97,6 +99,21 @@ public class OrcPageSource
         return closed;
     }
 
+    @Override
+    public CompletableFuture<?> isBlocked()
+    {
+        if (closed) {
+            return NOT_BLOCKED;
+        }
+        try {
+            return toCompletableFuture(recordReader.isBlocked());
+        }
+        catch (IOException | RuntimeException e) {
+            closeWithSuppression(e);
+            throw handleException(orcDataSource.getId(), e);
+        }
+    }
+
     @Override
     public Page getNextPage()
     {
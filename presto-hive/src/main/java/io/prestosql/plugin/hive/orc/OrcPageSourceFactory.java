@@ -15,26 +15,39 @@ package io.prestosql.plugin.hive.orc;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import io.prestosql.memory.context.AggregatedMemoryContext;
+import io.prestosql.orc.ColumnFilter;
 import io.prestosql.orc.OrcColumn;
 import io.prestosql.orc.OrcDataSource;
 import io.prestosql.orc.OrcDataSourceId;
+import io.prestosql.orc.OrcMetadataCache;
 import io.prestosql.orc.OrcReader;
 import io.prestosql.orc.OrcReaderOptions;
 import io.prestosql.orc.OrcRecordReader;
 import io.prestosql.orc.TupleDomainOrcPredicate;
 import io.prestosql.orc.TupleDomainOrcPredicate.TupleDomainOrcPredicateBuilder;
 import io.prestosql.orc.metadata.OrcType.OrcTypeKind;
+import io.prestosql.orc.metadata.StripeInformation;
+import io.prestosql.orc.metadata.statistics.ColumnStatistics;
+import io.prestosql.orc.metadata.statistics.DateStatistics;
+import io.prestosql.orc.metadata.statistics.IntegerStatistics;
+import io.prestosql.orc.metadata.statistics.StripeStatistics;
 import io.prestosql.plugin.hive.AcidInfo;
 import io.prestosql.plugin.hive.FileFormatDataSourceStats;
+import io.prestosql.plugin.hive.FileMetadataCache;
 import io.prestosql.plugin.hive.HdfsEnvironment;
+import io.prestosql.plugin.hive.HiveAggregation;
+import io.prestosql.plugin.hive.HiveAggregationAccumulator;
 import io.prestosql.plugin.hive.HiveColumnHandle;
 import io.prestosql.plugin.hive.HiveColumnProjectionInfo;
 import io.prestosql.plugin.hive.HiveConfig;
 import io.prestosql.plugin.hive.HivePageSourceFactory;
+import io.prestosql.plugin.hive.ReadAheadExecutor;
 import io.prestosql.plugin.hive.ReaderProjections;
 import io.prestosql.plugin.hive.orc.OrcPageSource.ColumnAdaptation;
+import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.connector.ConnectorPageSource;
 import io.prestosql.spi.connector.ConnectorSession;
@@ -59,6 +72,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -67,6 +81,7 @@ import static com.google.common.base.Strings.nullToEmpty;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.Maps.uniqueIndex;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.orc.ColumnFilter.createColumnFilter;
 import static io.prestosql.orc.OrcReader.INITIAL_BATCH_SIZE;
 import static io.prestosql.orc.OrcReader.ProjectedLayout.createProjectedLayout;
 import static io.prestosql.orc.OrcReader.ProjectedLayout.fullyProjectedLayout;
@@ -85,13 +100,18 @@ import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcMaxMergeDista
 import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcMaxReadBlockSize;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcStreamBufferSize;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcTinyStripeThreshold;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isFileMetadataCacheEnabled;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isOrcBloomFiltersEnabled;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isOrcFilterPushdownEnabled;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isOrcNestedLazy;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isReadAheadEnabled;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isUseOrcColumnNames;
 import static io.prestosql.plugin.hive.ReaderProjections.projectBaseColumns;
+import static io.prestosql.plugin.hive.cache.CachingFileSystem.openFile;
 import static io.prestosql.plugin.hive.orc.OrcPageSource.handleException;
 import static io.prestosql.plugin.hive.util.HiveUtil.isDeserializerClass;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
 import static java.lang.String.format;
 import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
@@ -111,15 +131,24 @@ public class OrcPageSourceFactory
     public static final String ACID_COLUMN_ROW_STRUCT = "row";
 
     private static final Pattern DEFAULT_HIVE_COLUMN_NAME_PATTERN = Pattern.compile("_col\\d+");
+    private static final Set<OrcTypeKind> INTEGER_TYPES = ImmutableSet.of(OrcTypeKind.BYTE, OrcTypeKind.SHORT, INT, LONG);
     private final OrcReaderOptions orcReaderOptions;
     private final HdfsEnvironment hdfsEnvironment;
     private final FileFormatDataSourceStats stats;
     private final DateTimeZone legacyTimeZone;
+    private final FileMetadataCache fileMetadataCache;
+    private final ReadAheadExecutor readAheadExecutor;
 
     @Inject
-    public OrcPageSourceFactory(OrcReaderConfig config, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, HiveConfig hiveConfig)
+    public OrcPageSourceFactory(
+            OrcReaderConfig config,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            HiveConfig hiveConfig,
+            FileMetadataCache fileMetadataCache,
+            ReadAheadExecutor readAheadExecutor)
     {
-        this(config.toOrcReaderOptions(), hdfsEnvironment, stats, requireNonNull(hiveConfig, "hiveConfig is null").getOrcLegacyDateTimeZone());
+        this(config.toOrcReaderOptions(), hdfsEnvironment, stats, requireNonNull(hiveConfig, "hiveConfig is null").getOrcLegacyDateTimeZone(), fileMetadataCache, readAheadExecutor);
     }
 
     public OrcPageSourceFactory(
@@ -127,11 +156,24 @@ public class OrcPageSourceFactory
             HdfsEnvironment hdfsEnvironment,
             FileFormatDataSourceStats stats,
             DateTimeZone legacyTimeZone)
+    {
+        this(orcReaderOptions, hdfsEnvironment, stats, legacyTimeZone, FileMetadataCache.noCache(), ReadAheadExecutor.noReadAhead());
+    }
+
+    public OrcPageSourceFactory(
+            OrcReaderOptions orcReaderOptions,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            DateTimeZone legacyTimeZone,
+            FileMetadataCache fileMetadataCache,
+            ReadAheadExecutor readAheadExecutor)
     {
         this.orcReaderOptions = requireNonNull(orcReaderOptions, "orcReaderOptions is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.stats = requireNonNull(stats, "stats is null");
         this.legacyTimeZone = legacyTimeZone;
+        this.fileMetadataCache = requireNonNull(fileMetadataCache, "fileMetadataCache is null");
+        this.readAheadExecutor = requireNonNull(readAheadExecutor, "readAheadExecutor is null");
     }
 
     @Override
@@ -142,6 +184,7 @@ public class OrcPageSourceFactory
             long start,
             long length,
             long estimatedFileSize,
+            long fileModifiedTime,
             Properties schema,
             List<HiveColumnHandle> columns,
             TupleDomain<HiveColumnHandle> effectivePredicate,
@@ -167,6 +210,7 @@ public class OrcPageSourceFactory
                 start,
                 length,
                 estimatedFileSize,
+                fileModifiedTime,
                 projectedReaderColumns
                         .map(ReaderProjections::getReaderColumns)
                         .orElse(columns),
@@ -183,13 +227,162 @@ public class OrcPageSourceFactory
                         .withMaxReadBlockSize(getOrcMaxReadBlockSize(session))
                         .withLazyReadSmallRanges(getOrcLazyReadSmallRanges(session))
                         .withNestedLazy(isOrcNestedLazy(session))
+                        .withFilterPushdownEnabled(isOrcFilterPushdownEnabled(session))
                         .withBloomFiltersEnabled(isOrcBloomFiltersEnabled(session)),
                 acidInfo,
-                stats);
+                stats,
+                isFileMetadataCacheEnabled(session) ? fileMetadataCache.getOrcMetadataCache(path, estimatedFileSize, fileModifiedTime) : OrcMetadataCache.NO_CACHE,
+                isReadAheadEnabled(session) ? readAheadExecutor : ReadAheadExecutor.noReadAhead());
 
         return Optional.of(new ReaderPageSourceWithProjections(orcPageSource, projectedReaderColumns));
     }
 
+    @Override
+    public Optional<Page> aggregateFromStatistics(
+            Configuration configuration,
+            ConnectorSession session,
+            Path path,
+            long start,
+            long length,
+            long estimatedFileSize,
+            long fileModifiedTime,
+            Properties schema,
+            List<HiveAggregation> aggregations)
+    {
+        if (!isDeserializerClass(schema, OrcSerde.class) || isFullAcidTable(Maps.fromProperties(schema))) {
+            return Optional.empty();
+        }
+
+        HiveAggregationAccumulator accumulator = new HiveAggregationAccumulator(aggregations);
+        // per HIVE-13040 and ORC-162, empty files are allowed
+        if (estimatedFileSize == 0) {
+            return Optional.of(accumulator.buildPage());
+        }
+
+        String sessionUser = session.getUser();
+        OrcDataSource orcDataSource;
+        try {
+            FileSystem fileSystem = hdfsEnvironment.getFileSystem(sessionUser, path, configuration);
+            FSDataInputStream inputStream = hdfsEnvironment.doAs(sessionUser, () -> openFile(fileSystem, path, estimatedFileSize, fileModifiedTime));
+            orcDataSource = new HdfsOrcDataSource(
+                    new OrcDataSourceId(path.toString()),
+                    estimatedFileSize,
+                    orcReaderOptions,
+                    inputStream,
+                    stats);
+        }
+        catch (Exception e) {
+            if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
+                    e instanceof FileNotFoundException) {
+                throw new PrestoException(HIVE_CANNOT_OPEN_SPLIT, e);
+            }
+            throw new PrestoException(HIVE_CANNOT_OPEN_SPLIT, splitError(e, path, start, length), e);
+        }
+
+        try (OrcDataSource ignored = orcDataSource) {
+            OrcMetadataCache metadataCache = isFileMetadataCacheEnabled(session) ? fileMetadataCache.getOrcMetadataCache(path, estimatedFileSize, fileModifiedTime) : OrcMetadataCache.NO_CACHE;
+            Optional<OrcReader> optionalOrcReader = OrcReader.createOrcReader(orcDataSource, orcReaderOptions, metadataCache);
+            if (optionalOrcReader.isEmpty()) {
+                return Optional.of(accumulator.buildPage());
+            }
+            OrcReader reader = optionalOrcReader.get();
+            if (aggregateFromStatistics(reader, accumulator, isUseOrcColumnNames(session), start, length)) {
+                return Optional.of(accumulator.buildPage());
+            }
+            return Optional.empty();
+        }
+        catch (Exception e) {
+            if (e instanceof PrestoException) {
+                throw (PrestoException) e;
+            }
+            String message = splitError(e, path, start, length);
+            if (e instanceof BlockMissingException) {
+                throw new PrestoException(HIVE_MISSING_DATA, message, e);
+            }
+            throw new PrestoException(HIVE_CANNOT_OPEN_SPLIT, message, e);
+        }
+    }
+
+    private static boolean aggregateFromStatistics(OrcReader reader, HiveAggregationAccumulator accumulator, boolean useOrcColumnNames, long start, long length)
+    {
+        List<OrcColumn> fileColumns = reader.getRootColumn().getNestedColumns();
+        Map<String, OrcColumn> fileColumnsByName = ImmutableMap.of();
+        if (useOrcColumnNames) {
+            if (!hasColumnNames(fileColumns)) {
+                return false;
+            }
+            fileColumnsByName = uniqueIndex(fileColumns, orcColumn -> orcColumn.getColumnName().toLowerCase(ENGLISH));
+        }
+
+        List<StripeInformation> stripes = reader.getFooter().getStripes();
+        List<Optional<StripeStatistics>> stripeStatistics = reader.getMetadata().getStripeStatsList();
+        if (!accumulator.getInputColumns().isEmpty() && stripeStatistics.size() != stripes.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < stripes.size(); i++) {
+            StripeInformation stripe = stripes.get(i);
+            // same stripe selection as the record reader
+            if (stripe.getOffset() < start || stripe.getOffset() >= start + length) {
+                continue;
+            }
+            accumulator.addRowCount(stripe.getNumberOfRows());
+
+            for (HiveColumnHandle column : accumulator.getInputColumns()) {
+                OrcColumn orcColumn = null;
+                if (useOrcColumnNames) {
+                    orcColumn = fileColumnsByName.get(column.getName().toLowerCase(ENGLISH));
+                }
+                else if (column.getBaseHiveColumnIndex() < fileColumns.size()) {
+                    orcColumn = fileColumns.get(column.getBaseHiveColumnIndex());
+                }
+                if (orcColumn == null) {
+                    // column is missing from the file, so all its values are null
+                    continue;
+                }
+                if (stripeStatistics.get(i).isEmpty()) {
+                    return false;
+                }
+                ColumnStatistics columnStatistics = stripeStatistics.get(i).get().getColumnStatistics().get(orcColumn.getColumnId());
+                if (!addColumnStatistics(accumulator, column, orcColumn.getColumnType(), columnStatistics)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean addColumnStatistics(HiveAggregationAccumulator accumulator, HiveColumnHandle column, OrcTypeKind orcType, ColumnStatistics statistics)
+    {
+        if (statistics == null || !statistics.hasNumberOfValues()) {
+            return false;
+        }
+        if (statistics.getNumberOfValues() == 0) {
+            // all values of the stripe are null
+            return true;
+        }
+        if (column.getType().equals(DATE)) {
+            DateStatistics dateStatistics = statistics.getDateStatistics();
+            if (orcType != OrcTypeKind.DATE || dateStatistics == null || dateStatistics.getMin() == null || dateStatistics.getMax() == null) {
+                return false;
+            }
+            return accumulator.addValues(column, dateStatistics.getMin(), dateStatistics.getMax());
+        }
+        IntegerStatistics integerStatistics = statistics.getIntegerStatistics();
+        if (!INTEGER_TYPES.contains(orcType) || integerStatistics == null || integerStatistics.getMin() == null || integerStatistics.getMax() == null) {
+            return false;
+        }
+        return accumulator.addValues(column, integerStatistics.getMin(), integerStatistics.getMax());
+    }
+
+    private static boolean hasColumnNames(List<OrcColumn> columns)
+    {
+        // same check as verifyFileHasColumnNames
+        return columns.isEmpty() || !columns.stream()
+                .map(OrcColumn::getColumnName)
+                .allMatch(name -> DEFAULT_HIVE_COLUMN_NAME_PATTERN.matcher(name).matches());
+    }
+
     private static ConnectorPageSource createOrcPageSource(
             HdfsEnvironment hdfsEnvironment,
             String sessionUser,
@@ -198,6 +391,7 @@ public class OrcPageSourceFactory
             long start,
             long length,
             long estimatedFileSize,
+            long fileModifiedTime,
             List<HiveColumnHandle> columns,
             List<HiveColumnHandle> projections,
             boolean useOrcColumnNames,
@@ -206,7 +400,9 @@ public class OrcPageSourceFactory
             DateTimeZone legacyFileTimeZone,
             OrcReaderOptions options,
             Optional<AcidInfo> acidInfo,
-            FileFormatDataSourceStats stats)
+            FileFormatDataSourceStats stats,
+            OrcMetadataCache metadataCache,
+            ReadAheadExecutor readAheadExecutor)
     {
         for (HiveColumnHandle column : columns) {
             checkArgument(column.getColumnType() == REGULAR, "column type must be regular: %s", column);
@@ -218,13 +414,14 @@ public class OrcPageSourceFactory
         boolean originalFilesPresent = acidInfo.isPresent() && !acidInfo.get().getOriginalFiles().isEmpty();
         try {
             FileSystem fileSystem = hdfsEnvironment.getFileSystem(sessionUser, path, configuration);
-            FSDataInputStream inputStream = hdfsEnvironment.doAs(sessionUser, () -> fileSystem.open(path));
+            FSDataInputStream inputStream = hdfsEnvironment.doAs(sessionUser, () -> openFile(fileSystem, path, estimatedFileSize, fileModifiedTime));
             orcDataSource = new HdfsOrcDataSource(
                     new OrcDataSourceId(path.toString()),
                     estimatedFileSize,
                     options,
                     inputStream,
-                    stats);
+                    stats,
+                    readAheadExecutor);
         }
         catch (Exception e) {
             if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
@@ -236,7 +433,7 @@ public class OrcPageSourceFactory
 
         AggregatedMemoryContext systemMemoryUsage = newSimpleAggregatedMemoryContext();
         try {
-            Optional<OrcReader> optionalOrcReader = OrcReader.createOrcReader(orcDataSource, options);
+            Optional<OrcReader> optionalOrcReader = OrcReader.createOrcReader(orcDataSource, options, metadataCache);
             if (optionalOrcReader.isEmpty()) {
                 return new EmptyPageSource();
             }
@@ -246,6 +443,7 @@ public class OrcPageSourceFactory
             List<OrcColumn> fileReadColumns = new ArrayList<>(columns.size() + (isFullAcid ? 2 : 0));
             List<Type> fileReadTypes = new ArrayList<>(columns.size() + (isFullAcid ? 2 : 0));
             List<OrcReader.ProjectedLayout> fileReadLayouts = new ArrayList<>(columns.size() + (isFullAcid ? 2 : 0));
+            List<Optional<ColumnFilter>> fileReadFilters = new ArrayList<>(columns.size() + (isFullAcid ? 2 : 0));
             if (isFullAcid && !originalFilesPresent) {
                 verifyAcidSchema(reader, path);
                 Map<String, OrcColumn> acidColumnsByName = uniqueIndex(fileColumns, orcColumn -> orcColumn.getColumnName().toLowerCase(ENGLISH));
@@ -254,10 +452,12 @@ public class OrcPageSourceFactory
                 fileReadColumns.add(acidColumnsByName.get(ACID_COLUMN_ORIGINAL_TRANSACTION.toLowerCase(ENGLISH)));
                 fileReadTypes.add(BIGINT);
                 fileReadLayouts.add(fullyProjectedLayout());
+                fileReadFilters.add(Optional.empty());
 
                 fileReadColumns.add(acidColumnsByName.get(ACID_COLUMN_ROW_ID.toLowerCase(ENGLISH)));
                 fileReadTypes.add(BIGINT);
                 fileReadLayouts.add(fullyProjectedLayout());
+                fileReadFilters.add(Optional.empty());
             }
 
             Map<String, OrcColumn> fileColumnsByName = ImmutableMap.of();
@@ -324,6 +524,14 @@ public class OrcPageSourceFactory
                     fileReadColumns.add(orcColumn);
                     fileReadTypes.add(readType);
                     fileReadLayouts.add(projectedLayout);
+                    // ACID row ids and deleted rows are tracked by file position, so rows of transactional tables are not filtered in the reader
+                    Domain domain = columnDomains.get(Optional.<HiveColumnProjectionInfo>empty());
+                    if (domain != null && acidInfo.isEmpty() && !isFullAcid && domain.getType().equals(readType)) {
+                        fileReadFilters.add(createColumnFilter(readType, domain));
+                    }
+                    else {
+                        fileReadFilters.add(Optional.empty());
+                    }
 
                     // Add predicates on top-level and nested columns
                     for (Map.Entry<Optional<HiveColumnProjectionInfo>, Domain> columnDomain : columnDomains.entrySet()) {
@@ -342,6 +550,7 @@ public class OrcPageSourceFactory
                     fileReadColumns,
                     fileReadTypes,
                     fileReadLayouts,
+                    fileReadFilters,
                     predicateBuilder.build(),
                     start,
                     length,
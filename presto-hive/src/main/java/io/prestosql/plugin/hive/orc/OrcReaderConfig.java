@@ -152,4 +152,17 @@ public class OrcReaderConfig
         options = options.withNestedLazy(nestedLazy);
         return this;
     }
+
+    public boolean isFilterPushdownEnabled()
+    {
+        return options.isFilterPushdownEnabled();
+    }
+
+    @Config("hive.orc.filter-pushdown.enabled")
+    @ConfigDescription("ORC evaluate simple column predicates in the reader, and only decode the other columns of matching rows")
+    public OrcReaderConfig setFilterPushdownEnabled(boolean filterPushdownEnabled)
+    {
+        options = options.withFilterPushdownEnabled(filterPushdownEnabled);
+        return this;
+    }
 }
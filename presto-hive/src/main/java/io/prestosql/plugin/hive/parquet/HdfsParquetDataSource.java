@@ -15,6 +15,8 @@ package io.prestosql.plugin.hive.parquet;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
@@ -24,7 +26,10 @@ import io.prestosql.parquet.ParquetDataSource;
 import io.prestosql.parquet.ParquetDataSourceId;
 import io.prestosql.parquet.ParquetReaderOptions;
 import io.prestosql.plugin.hive.FileFormatDataSourceStats;
+import io.prestosql.plugin.hive.ReadAheadExecutor;
 import io.prestosql.plugin.hive.util.FSDataInputStreamTail;
+import io.prestosql.plugin.hive.util.ReadAheadBuffer;
+import io.prestosql.plugin.hive.util.VectoredReadable;
 import io.prestosql.spi.PrestoException;
 import org.apache.hadoop.fs.FSDataInputStream;
 
@@ -33,9 +38,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_FILESYSTEM_ERROR;
 import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
@@ -52,6 +60,8 @@ public class HdfsParquetDataSource
     private long readBytes;
     private final FileFormatDataSourceStats stats;
     private final ParquetReaderOptions options;
+    private final Optional<ReadAheadBuffer> readAheadBuffer;
+    private final Optional<VectoredReadable> vectoredReadable;
 
     public HdfsParquetDataSource(
             ParquetDataSourceId id,
@@ -59,12 +69,25 @@ public class HdfsParquetDataSource
             FSDataInputStream inputStream,
             FileFormatDataSourceStats stats,
             ParquetReaderOptions options)
+    {
+        this(id, estimatedSize, inputStream, stats, options, ReadAheadExecutor.noReadAhead());
+    }
+
+    public HdfsParquetDataSource(
+            ParquetDataSourceId id,
+            long estimatedSize,
+            FSDataInputStream inputStream,
+            FileFormatDataSourceStats stats,
+            ParquetReaderOptions options,
+            ReadAheadExecutor readAheadExecutor)
     {
         this.id = requireNonNull(id, "id is null");
         this.estimatedSize = estimatedSize;
         this.inputStream = inputStream;
         this.stats = stats;
         this.options = requireNonNull(options, "options is null");
+        this.readAheadBuffer = requireNonNull(readAheadExecutor, "readAheadExecutor is null").createBuffer(this::readFromInputStream, options.getMaxMergeDistance());
+        this.vectoredReadable = VectoredReadable.getVectoredReadable(inputStream);
     }
 
     @Override
@@ -91,10 +114,17 @@ public class HdfsParquetDataSource
         return estimatedSize;
     }
 
+    @Override
+    public long getRetainedSize()
+    {
+        return readAheadBuffer.map(ReadAheadBuffer::getRetainedSize).orElse(0L);
+    }
+
     @Override
     public void close()
             throws IOException
     {
+        readAheadBuffer.ifPresent(ReadAheadBuffer::close);
         inputStream.close();
     }
 
@@ -132,7 +162,9 @@ public class HdfsParquetDataSource
 
         long start = System.nanoTime();
         try {
-            inputStream.readFully(position, buffer, bufferOffset, bufferLength);
+            if (readAheadBuffer.isEmpty() || !readAheadBuffer.get().read(position, buffer, bufferOffset, bufferLength)) {
+                readFromInputStream(position, buffer, bufferOffset, bufferLength);
+            }
         }
         catch (PrestoException e) {
             // just in case there is a Presto wrapper or hook
@@ -141,10 +173,25 @@ public class HdfsParquetDataSource
         catch (Exception e) {
             throw new PrestoException(HIVE_FILESYSTEM_ERROR, format("Error reading from %s at position %s", id, position), e);
         }
-        long currentReadTimeNanos = System.nanoTime() - start;
+        readTimeNanos += System.nanoTime() - start;
+    }
 
-        readTimeNanos += currentReadTimeNanos;
-        stats.readDataBytesPerSecond(bufferLength, currentReadTimeNanos);
+    // positioned reads do not change the stream position, so they can run concurrently with the background reads
+    private void readFromInputStream(long position, byte[] buffer, int bufferOffset, int bufferLength)
+            throws IOException
+    {
+        long readStart = System.nanoTime();
+        inputStream.readFully(position, buffer, bufferOffset, bufferLength);
+        stats.readDataBytesPerSecond(bufferLength, System.nanoTime() - readStart);
+    }
+
+    @Override
+    public ListenableFuture<?> readAhead(List<DiskRange> diskRanges)
+    {
+        if (readAheadBuffer.isEmpty()) {
+            return immediateFuture(null);
+        }
+        return readAheadBuffer.get().readAhead(diskRanges, DiskRange::getOffset, DiskRange::getLength);
     }
 
     @Override
@@ -199,21 +246,7 @@ public class HdfsParquetDataSource
                 if (mergedRange.contains(diskRange)) {
                     mergedRangeLoader.addReference();
 
-                    slices.put(diskRangeEntry.getKey(), new ChunkReader()
-                    {
-                        @Override
-                        public Slice read()
-                        {
-                            int offset = toIntExact(diskRange.getOffset() - mergedRange.getOffset());
-                            return mergedRangeLoader.read().slice(offset, diskRange.getLength());
-                        }
-
-                        @Override
-                        public void free()
-                        {
-                            mergedRangeLoader.free();
-                        }
-                    });
+                    slices.put(diskRangeEntry.getKey(), new MergedChunkReader(diskRange, mergedRangeLoader));
                 }
             }
 
@@ -238,6 +271,49 @@ public class HdfsParquetDataSource
         return slices.build();
     }
 
+    @Override
+    public void loadChunks(Collection<ChunkReader> chunks)
+    {
+        // ranges read ahead are served by the buffer
+        if (vectoredReadable.isEmpty() || readAheadBuffer.isPresent()) {
+            return;
+        }
+
+        Set<ReferenceCountedReader> readers = Sets.newIdentityHashSet();
+        for (ChunkReader chunk : chunks) {
+            ChunkReader loader = chunk instanceof MergedChunkReader ? ((MergedChunkReader) chunk).getMergedRangeLoader() : chunk;
+            if (loader instanceof ReferenceCountedReader && ((ReferenceCountedReader) loader).needsLoad()) {
+                readers.add((ReferenceCountedReader) loader);
+            }
+        }
+        if (readers.size() <= 1) {
+            return;
+        }
+
+        List<ReferenceCountedReader> ranges = ImmutableList.copyOf(readers);
+        long start = System.nanoTime();
+        List<Slice> slices;
+        try {
+            slices = vectoredReadable.get().readVectoredFully(ranges, reader -> reader.range.getOffset(), reader -> reader.range.getLength());
+        }
+        catch (PrestoException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            throw new PrestoException(HIVE_FILESYSTEM_ERROR, format("Error reading %s ranges from %s", ranges.size(), id), e);
+        }
+        long readNanos = System.nanoTime() - start;
+
+        long bytes = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            ranges.get(i).load(slices.get(i));
+            bytes += slices.get(i).length();
+        }
+        readBytes += bytes;
+        readTimeNanos += readNanos;
+        stats.readDataBytesPerSecond(bytes, readNanos);
+    }
+
     private static List<DiskRange> mergeAdjacentDiskRanges(Collection<DiskRange> diskRanges, DataSize maxMergeDistance, DataSize maxReadSize)
     {
         // sort ranges by start offset
@@ -285,6 +361,17 @@ public class HdfsParquetDataSource
             this.range = range;
         }
 
+        public boolean needsLoad()
+        {
+            return referenceCount > 0 && data == null;
+        }
+
+        public void load(Slice data)
+        {
+            checkState(needsLoad(), "Chunk reader is already loaded or closed");
+            this.data = data;
+        }
+
         public void addReference()
         {
             checkState(referenceCount > 0, "Chunk reader is already closed");
@@ -316,4 +403,35 @@ public class HdfsParquetDataSource
             }
         }
     }
+
+    private static class MergedChunkReader
+            implements ChunkReader
+    {
+        private final DiskRange diskRange;
+        private final ReferenceCountedReader mergedRangeLoader;
+
+        public MergedChunkReader(DiskRange diskRange, ReferenceCountedReader mergedRangeLoader)
+        {
+            this.diskRange = diskRange;
+            this.mergedRangeLoader = mergedRangeLoader;
+        }
+
+        public ReferenceCountedReader getMergedRangeLoader()
+        {
+            return mergedRangeLoader;
+        }
+
+        @Override
+        public Slice read()
+        {
+            int offset = toIntExact(diskRange.getOffset() - mergedRangeLoader.range.getOffset());
+            return mergedRangeLoader.read().slice(offset, diskRange.getLength());
+        }
+
+        @Override
+        public void free()
+        {
+            mergedRangeLoader.free();
+        }
+    }
 }
@@ -13,8 +13,11 @@
  */
 package io.prestosql.plugin.hive.parquet;
 
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
 import io.prestosql.parquet.writer.ParquetSchemaConverter;
 import io.prestosql.parquet.writer.ParquetWriterOptions;
+import io.prestosql.parquet.writer.ParquetWriterStats;
 import io.prestosql.plugin.hive.FileWriter;
 import io.prestosql.plugin.hive.HdfsEnvironment;
 import io.prestosql.plugin.hive.HiveFileWriterFactory;
@@ -30,6 +33,8 @@ import org.apache.hadoop.hive.ql.io.parquet.MapredParquetOutputFormat;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.parquet.hadoop.ParquetOutputFormat;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.weakref.jmx.Flatten;
+import org.weakref.jmx.Managed;
 
 import javax.inject.Inject;
 
@@ -37,9 +42,11 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.Callable;
 
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_WRITER_OPEN_ERROR;
+import static io.prestosql.plugin.hive.HiveMetadata.PARQUET_BLOOM_FILTER_COLUMNS_KEY;
 import static io.prestosql.plugin.hive.util.HiveUtil.getColumnNames;
 import static io.prestosql.plugin.hive.util.HiveUtil.getColumnTypes;
 import static java.util.Objects.requireNonNull;
@@ -50,6 +57,7 @@ public class ParquetFileWriterFactory
 {
     private final HdfsEnvironment hdfsEnvironment;
     private final TypeManager typeManager;
+    private final ParquetWriterStats stats = new ParquetWriterStats();
 
     @Inject
     public ParquetFileWriterFactory(
@@ -60,6 +68,13 @@ public class ParquetFileWriterFactory
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
     }
 
+    @Managed
+    @Flatten
+    public ParquetWriterStats getStats()
+    {
+        return stats;
+    }
+
     @Override
     public Optional<FileWriter> createFileWriter(
             Path path,
@@ -80,6 +95,7 @@ public class ParquetFileWriterFactory
         ParquetWriterOptions parquetWriterOptions = ParquetWriterOptions.builder()
                 .setMaxPageSize(HiveSessionProperties.getParquetWriterPageSize(session))
                 .setMaxBlockSize(HiveSessionProperties.getParquetWriterBlockSize(session))
+                .setBloomFilterColumns(getBloomFilterColumns(schema))
                 .build();
 
         CompressionCodecName compressionCodecName = getCompression(conf);
@@ -111,13 +127,19 @@ public class ParquetFileWriterFactory
                     schemaConverter.getPrimitiveTypes(),
                     parquetWriterOptions,
                     fileInputColumnIndexes,
-                    compressionCodecName));
+                    compressionCodecName,
+                    stats));
         }
         catch (IOException e) {
             throw new PrestoException(HIVE_WRITER_OPEN_ERROR, "Error creating Parquet file", e);
         }
     }
 
+    private static Set<String> getBloomFilterColumns(Properties schema)
+    {
+        return ImmutableSet.copyOf(Splitter.on(',').trimResults().omitEmptyStrings().split(schema.getProperty(PARQUET_BLOOM_FILTER_COLUMNS_KEY, "")));
+    }
+
     private static CompressionCodecName getCompression(JobConf configuration)
     {
         String compressionName = configuration.get(ParquetOutputFormat.COMPRESSION);
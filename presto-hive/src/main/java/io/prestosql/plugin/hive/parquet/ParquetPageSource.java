@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import io.prestosql.parquet.Field;
 import io.prestosql.parquet.ParquetCorruptionException;
 import io.prestosql.parquet.reader.ParquetReader;
+import io.prestosql.plugin.hive.FileFormatDataSourceStats;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.block.Block;
@@ -30,8 +31,10 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.MoreFutures.toCompletableFuture;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_BAD_DATA;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_CURSOR_ERROR;
 import static java.util.Objects.requireNonNull;
@@ -42,15 +45,17 @@ public class ParquetPageSource
     private final ParquetReader parquetReader;
     private final List<Type> types;
     private final List<Optional<Field>> fields;
+    private final FileFormatDataSourceStats stats;
 
     private int batchId;
     private boolean closed;
 
-    public ParquetPageSource(ParquetReader parquetReader, List<Type> types, List<Optional<Field>> fields)
+    public ParquetPageSource(ParquetReader parquetReader, List<Type> types, List<Optional<Field>> fields, FileFormatDataSourceStats stats)
     {
         this.parquetReader = requireNonNull(parquetReader, "parquetReader is null");
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
         this.fields = ImmutableList.copyOf(requireNonNull(fields, "fields is null"));
+        this.stats = requireNonNull(stats, "stats is null");
     }
 
     @Override
@@ -77,6 +82,15 @@ public class ParquetPageSource
         return parquetReader.getSystemMemoryContext().getBytes();
     }
 
+    @Override
+    public CompletableFuture<?> isBlocked()
+    {
+        if (closed) {
+            return NOT_BLOCKED;
+        }
+        return toCompletableFuture(parquetReader.isBlocked());
+    }
+
     @Override
     public Page getNextPage()
     {
@@ -134,6 +148,7 @@ public class ParquetPageSource
         closed = true;
 
         try {
+            stats.addParquetSkippedPages(parquetReader.getSkippedPageCount());
             parquetReader.close();
         }
         catch (IOException e) {
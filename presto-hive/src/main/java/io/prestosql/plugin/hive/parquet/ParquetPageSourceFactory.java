@@ -22,16 +22,21 @@ import io.prestosql.parquet.ParquetDataSource;
 import io.prestosql.parquet.ParquetDataSourceId;
 import io.prestosql.parquet.ParquetReaderOptions;
 import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.parquet.RowRanges;
 import io.prestosql.parquet.predicate.Predicate;
-import io.prestosql.parquet.reader.MetadataReader;
 import io.prestosql.parquet.reader.ParquetReader;
 import io.prestosql.plugin.hive.AcidInfo;
 import io.prestosql.plugin.hive.FileFormatDataSourceStats;
+import io.prestosql.plugin.hive.FileMetadataCache;
 import io.prestosql.plugin.hive.HdfsEnvironment;
+import io.prestosql.plugin.hive.HiveAggregation;
+import io.prestosql.plugin.hive.HiveAggregationAccumulator;
 import io.prestosql.plugin.hive.HiveColumnHandle;
 import io.prestosql.plugin.hive.HiveConfig;
 import io.prestosql.plugin.hive.HivePageSourceFactory;
+import io.prestosql.plugin.hive.ReadAheadExecutor;
 import io.prestosql.plugin.hive.ReaderProjections;
+import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.connector.ConnectorPageSource;
 import io.prestosql.spi.connector.ConnectorSession;
@@ -44,12 +49,20 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hdfs.BlockMissingException;
 import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.statistics.IntStatistics;
+import org.apache.parquet.column.statistics.LongStatistics;
+import org.apache.parquet.column.statistics.Statistics;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
 import org.apache.parquet.hadoop.metadata.FileMetaData;
 import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 import org.apache.parquet.io.MessageColumnIO;
 import org.apache.parquet.schema.GroupType;
 import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
 import org.joda.time.DateTimeZone;
 
 import javax.inject.Inject;
@@ -72,6 +85,7 @@ import static io.prestosql.parquet.ParquetTypeUtils.getDescriptors;
 import static io.prestosql.parquet.ParquetTypeUtils.getParquetTypeByName;
 import static io.prestosql.parquet.ParquetTypeUtils.lookupColumnByName;
 import static io.prestosql.parquet.predicate.PredicateUtils.buildPredicate;
+import static io.prestosql.parquet.predicate.PredicateUtils.getMatchingRowRanges;
 import static io.prestosql.parquet.predicate.PredicateUtils.predicateMatches;
 import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.REGULAR;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_BAD_DATA;
@@ -79,14 +93,21 @@ import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_CANNOT_OPEN_SPLIT;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_MISSING_DATA;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getParquetMaxReadBlockSize;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isFailOnCorruptedParquetStatistics;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isFileMetadataCacheEnabled;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isParquetUseBloomFilter;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isParquetUseColumnIndex;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isReadAheadEnabled;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isUseParquetColumnNames;
 import static io.prestosql.plugin.hive.ReaderProjections.projectBaseColumns;
 import static io.prestosql.plugin.hive.ReaderProjections.projectSufficientColumns;
+import static io.prestosql.plugin.hive.cache.CachingFileSystem.openFile;
 import static io.prestosql.plugin.hive.parquet.ParquetColumnIOConverter.constructField;
 import static io.prestosql.plugin.hive.util.HiveUtil.getDeserializerClassName;
+import static io.prestosql.spi.type.DateType.DATE;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector.Category.PRIMITIVE;
+import static org.apache.parquet.schema.Type.Repetition.REPEATED;
 
 public class ParquetPageSourceFactory
         implements HivePageSourceFactory
@@ -95,14 +116,28 @@ public class ParquetPageSourceFactory
             .add("org.apache.hadoop.hive.ql.io.parquet.serde.ParquetHiveSerDe")
             .add("parquet.hive.serde.ParquetHiveSerDe")
             .build();
+    private static final Set<OriginalType> SIGNED_INTEGER_TYPES = ImmutableSet.of(OriginalType.INT_8, OriginalType.INT_16, OriginalType.INT_32, OriginalType.INT_64);
 
     private final HdfsEnvironment hdfsEnvironment;
     private final FileFormatDataSourceStats stats;
     private final ParquetReaderOptions options;
     private final DateTimeZone timeZone;
+    private final FileMetadataCache fileMetadataCache;
+    private final ReadAheadExecutor readAheadExecutor;
 
-    @Inject
     public ParquetPageSourceFactory(HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, ParquetReaderConfig config, HiveConfig hiveConfig)
+    {
+        this(hdfsEnvironment, stats, config, hiveConfig, FileMetadataCache.noCache(), ReadAheadExecutor.noReadAhead());
+    }
+
+    @Inject
+    public ParquetPageSourceFactory(
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            ParquetReaderConfig config,
+            HiveConfig hiveConfig,
+            FileMetadataCache fileMetadataCache,
+            ReadAheadExecutor readAheadExecutor)
     {
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.stats = requireNonNull(stats, "stats is null");
@@ -110,6 +145,8 @@ public class ParquetPageSourceFactory
 
         options = config.toParquetReaderOptions();
         timeZone = requireNonNull(hiveConfig, "hiveConfig is null").getParquetDateTimeZone();
+        this.fileMetadataCache = requireNonNull(fileMetadataCache, "fileMetadataCache is null");
+        this.readAheadExecutor = requireNonNull(readAheadExecutor, "readAheadExecutor is null");
     }
 
     @Override
@@ -120,6 +157,7 @@ public class ParquetPageSourceFactory
             long start,
             long length,
             long estimatedFileSize,
+            long fileModifiedTime,
             Properties schema,
             List<HiveColumnHandle> columns,
             TupleDomain<HiveColumnHandle> effectivePredicate,
@@ -136,6 +174,7 @@ public class ParquetPageSourceFactory
                 start,
                 length,
                 estimatedFileSize,
+                fileModifiedTime,
                 columns,
                 effectivePredicate,
                 isUseParquetColumnNames(session),
@@ -145,7 +184,132 @@ public class ParquetPageSourceFactory
                 timeZone,
                 stats,
                 options.withFailOnCorruptedStatistics(isFailOnCorruptedParquetStatistics(session))
-                        .withMaxReadBlockSize(getParquetMaxReadBlockSize(session))));
+                        .withMaxReadBlockSize(getParquetMaxReadBlockSize(session))
+                        .withUseColumnIndex(isParquetUseColumnIndex(session))
+                        .withUseBloomFilter(isParquetUseBloomFilter(session)),
+                isFileMetadataCacheEnabled(session) ? fileMetadataCache : FileMetadataCache.noCache(),
+                isReadAheadEnabled(session) ? readAheadExecutor : ReadAheadExecutor.noReadAhead()));
+    }
+
+    @Override
+    public Optional<Page> aggregateFromStatistics(
+            Configuration configuration,
+            ConnectorSession session,
+            Path path,
+            long start,
+            long length,
+            long estimatedFileSize,
+            long fileModifiedTime,
+            Properties schema,
+            List<HiveAggregation> aggregations)
+    {
+        if (!PARQUET_SERDE_CLASS_NAMES.contains(getDeserializerClassName(schema))) {
+            return Optional.empty();
+        }
+
+        HiveAggregationAccumulator accumulator = new HiveAggregationAccumulator(aggregations);
+        String user = session.getUser();
+        ParquetDataSource dataSource = null;
+        try {
+            FileSystem fileSystem = hdfsEnvironment.getFileSystem(user, path, configuration);
+            FSDataInputStream inputStream = hdfsEnvironment.doAs(user, () -> openFile(fileSystem, path, estimatedFileSize, fileModifiedTime));
+            dataSource = new HdfsParquetDataSource(new ParquetDataSourceId(path.toString()), estimatedFileSize, inputStream, stats, options);
+
+            FileMetadataCache metadataCache = isFileMetadataCacheEnabled(session) ? fileMetadataCache : FileMetadataCache.noCache();
+            ParquetMetadata parquetMetadata = metadataCache.getParquetMetadata(path, estimatedFileSize, fileModifiedTime, dataSource);
+            MessageType fileSchema = parquetMetadata.getFileMetaData().getSchema();
+            boolean useColumnNames = isUseParquetColumnNames(session);
+
+            for (BlockMetaData block : parquetMetadata.getBlocks()) {
+                // same row group selection as the page source
+                long firstDataPage = block.getColumns().get(0).getFirstDataPageOffset();
+                if (firstDataPage < start || firstDataPage >= start + length) {
+                    continue;
+                }
+                accumulator.addRowCount(block.getRowCount());
+
+                for (HiveColumnHandle column : accumulator.getInputColumns()) {
+                    Optional<org.apache.parquet.schema.Type> parquetType = getParquetType(fileSchema, useColumnNames, column);
+                    if (parquetType.isEmpty()) {
+                        // column is missing from the file, so all its values are null
+                        continue;
+                    }
+                    if (!addColumnStatistics(accumulator, column, parquetType.get(), block)) {
+                        return Optional.empty();
+                    }
+                }
+            }
+            return Optional.of(accumulator.buildPage());
+        }
+        catch (Exception e) {
+            if (e instanceof PrestoException) {
+                throw (PrestoException) e;
+            }
+            if (e instanceof ParquetCorruptionException) {
+                throw new PrestoException(HIVE_BAD_DATA, e);
+            }
+            if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
+                    e instanceof FileNotFoundException) {
+                throw new PrestoException(HIVE_CANNOT_OPEN_SPLIT, e);
+            }
+            String message = format("Error opening Hive split %s (offset=%s, length=%s): %s", path, start, length, e.getMessage());
+            if (e instanceof BlockMissingException) {
+                throw new PrestoException(HIVE_MISSING_DATA, message, e);
+            }
+            throw new PrestoException(HIVE_CANNOT_OPEN_SPLIT, message, e);
+        }
+        finally {
+            try {
+                if (dataSource != null) {
+                    dataSource.close();
+                }
+            }
+            catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static boolean addColumnStatistics(HiveAggregationAccumulator accumulator, HiveColumnHandle column, org.apache.parquet.schema.Type parquetType, BlockMetaData block)
+    {
+        if (!parquetType.isPrimitive() || parquetType.isRepetition(REPEATED) || !isStatisticsCompatible(column.getType(), parquetType.asPrimitiveType())) {
+            return false;
+        }
+        ColumnPath columnPath = ColumnPath.get(parquetType.getName());
+        Optional<ColumnChunkMetaData> columnChunk = block.getColumns().stream()
+                .filter(chunk -> chunk.getPath().equals(columnPath))
+                .findFirst();
+        if (columnChunk.isEmpty()) {
+            return false;
+        }
+
+        Statistics<?> statistics = columnChunk.get().getStatistics();
+        if (statistics == null || statistics.isEmpty()) {
+            return false;
+        }
+        if (!statistics.hasNonNullValue()) {
+            // all values of the row group are null
+            return statistics.isNumNullsSet() && statistics.getNumNulls() == block.getRowCount();
+        }
+        if (!(statistics instanceof IntStatistics || statistics instanceof LongStatistics) ||
+                statistics.genericGetMin() == null ||
+                statistics.genericGetMax() == null) {
+            return false;
+        }
+        long min = ((Number) statistics.genericGetMin()).longValue();
+        long max = ((Number) statistics.genericGetMax()).longValue();
+        return accumulator.addValues(column, min, max);
+    }
+
+    private static boolean isStatisticsCompatible(Type type, PrimitiveType parquetType)
+    {
+        PrimitiveTypeName typeName = parquetType.getPrimitiveTypeName();
+        OriginalType originalType = parquetType.getOriginalType();
+        if (type.equals(DATE)) {
+            return typeName == PrimitiveTypeName.INT32 && originalType == OriginalType.DATE;
+        }
+        // unsigned types are ordered differently, so their statistics do not hold signed bounds
+        return (typeName == PrimitiveTypeName.INT32 || typeName == PrimitiveTypeName.INT64) &&
+                (originalType == null || SIGNED_INTEGER_TYPES.contains(originalType));
     }
 
     /**
@@ -156,6 +320,7 @@ public class ParquetPageSourceFactory
             long start,
             long length,
             long estimatedFileSize,
+            long fileModifiedTime,
             List<HiveColumnHandle> columns,
             TupleDomain<HiveColumnHandle> effectivePredicate,
             boolean useColumnNames,
@@ -164,7 +329,9 @@ public class ParquetPageSourceFactory
             String user,
             DateTimeZone timeZone,
             FileFormatDataSourceStats stats,
-            ParquetReaderOptions options)
+            ParquetReaderOptions options,
+            FileMetadataCache fileMetadataCache,
+            ReadAheadExecutor readAheadExecutor)
     {
         // Ignore predicates on partial columns for now.
         effectivePredicate = effectivePredicate.filter((column, domain) -> column.isBaseColumn());
@@ -176,10 +343,10 @@ public class ParquetPageSourceFactory
         ParquetDataSource dataSource = null;
         try {
             FileSystem fileSystem = hdfsEnvironment.getFileSystem(user, path, configuration);
-            FSDataInputStream inputStream = hdfsEnvironment.doAs(user, () -> fileSystem.open(path));
-            dataSource = new HdfsParquetDataSource(new ParquetDataSourceId(path.toString()), estimatedFileSize, inputStream, stats, options);
+            FSDataInputStream inputStream = hdfsEnvironment.doAs(user, () -> openFile(fileSystem, path, estimatedFileSize, fileModifiedTime));
+            dataSource = new HdfsParquetDataSource(new ParquetDataSourceId(path.toString()), estimatedFileSize, inputStream, stats, options, readAheadExecutor);
 
-            ParquetMetadata parquetMetadata = MetadataReader.readFooter(dataSource);
+            ParquetMetadata parquetMetadata = fileMetadataCache.getParquetMetadata(path, estimatedFileSize, fileModifiedTime, dataSource);
             FileMetaData fileMetaData = parquetMetadata.getFileMetaData();
             fileSchema = fileMetaData.getSchema();
 
@@ -209,15 +376,24 @@ public class ParquetPageSourceFactory
 
             Predicate parquetPredicate = buildPredicate(requestedSchema, parquetTupleDomain, descriptorsByPath, timeZone);
             ImmutableList.Builder<BlockMetaData> blocks = ImmutableList.builder();
+            ImmutableList.Builder<RowRanges> blockRowRanges = ImmutableList.builder();
             for (BlockMetaData block : footerBlocks.build()) {
-                if (predicateMatches(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain, options.isFailOnCorruptedStatistics())) {
-                    blocks.add(block);
+                if (predicateMatches(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain, options.isFailOnCorruptedStatistics(), options.isUseBloomFilter())) {
+                    RowRanges rowRanges = RowRanges.all(block.getRowCount());
+                    if (options.isUseColumnIndex()) {
+                        rowRanges = getMatchingRowRanges(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain, options.isFailOnCorruptedStatistics());
+                    }
+                    if (!rowRanges.isEmpty()) {
+                        blocks.add(block);
+                        blockRowRanges.add(rowRanges);
+                    }
                 }
             }
             parquetReader = new ParquetReader(
                     Optional.ofNullable(fileMetaData.getCreatedBy()),
                     messageColumn,
                     blocks.build(),
+                    blockRowRanges.build(),
                     dataSource,
                     timeZone,
                     newSimpleAggregatedMemoryContext(),
@@ -272,7 +448,7 @@ public class ParquetPageSourceFactory
             }));
         }
 
-        ConnectorPageSource parquetPageSource = new ParquetPageSource(parquetReader, prestoTypes.build(), internalFields.build());
+        ConnectorPageSource parquetPageSource = new ParquetPageSource(parquetReader, prestoTypes.build(), internalFields.build(), stats);
         return new ReaderPageSourceWithProjections(parquetPageSource, readerProjections);
     }
 
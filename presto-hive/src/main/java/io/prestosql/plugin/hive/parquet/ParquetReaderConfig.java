@@ -81,6 +81,32 @@ public class ParquetReaderConfig
         return this;
     }
 
+    public boolean isUseColumnIndex()
+    {
+        return options.isUseColumnIndex();
+    }
+
+    @Config("parquet.use-column-index")
+    @ConfigDescription("Use the Parquet page index (column index and offset index) to skip pages that do not match the predicate")
+    public ParquetReaderConfig setUseColumnIndex(boolean useColumnIndex)
+    {
+        options = options.withUseColumnIndex(useColumnIndex);
+        return this;
+    }
+
+    public boolean isUseBloomFilter()
+    {
+        return options.isUseBloomFilter();
+    }
+
+    @Config("parquet.use-bloom-filter")
+    @ConfigDescription("Use Parquet bloom filters to skip row groups that do not contain the values of equality and IN predicates")
+    public ParquetReaderConfig setUseBloomFilter(boolean useBloomFilter)
+    {
+        options = options.withUseBloomFilter(useBloomFilter);
+        return this;
+    }
+
     public ParquetReaderOptions toParquetReaderOptions()
     {
         return options;
@@ -65,6 +65,8 @@ public class HiveS3Config
     private PrestoS3AclType s3AclType = PrestoS3AclType.PRIVATE;
     private boolean skipGlacierObjects;
     private boolean requesterPaysEnabled;
+    private boolean s3VectoredReadEnabled = true;
+    private int s3VectoredReadMaxConcurrency = 8;
 
     public String getS3AwsAccessKey()
     {
@@ -462,4 +464,31 @@ public class HiveS3Config
         this.requesterPaysEnabled = requesterPaysEnabled;
         return this;
     }
+
+    public boolean isS3VectoredReadEnabled()
+    {
+        return s3VectoredReadEnabled;
+    }
+
+    @Config("hive.s3.vectored-read.enabled")
+    @ConfigDescription("Read the column chunks of ORC and Parquet files with concurrent ranged requests")
+    public HiveS3Config setS3VectoredReadEnabled(boolean s3VectoredReadEnabled)
+    {
+        this.s3VectoredReadEnabled = s3VectoredReadEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getS3VectoredReadMaxConcurrency()
+    {
+        return s3VectoredReadMaxConcurrency;
+    }
+
+    @Config("hive.s3.vectored-read.max-concurrency")
+    @ConfigDescription("Maximum number of concurrent ranged requests of a file")
+    public HiveS3Config setS3VectoredReadMaxConcurrency(int s3VectoredReadMaxConcurrency)
+    {
+        this.s3VectoredReadMaxConcurrency = s3VectoredReadMaxConcurrency;
+        return this;
+    }
 }
@@ -13,15 +13,22 @@
  */
 package io.prestosql.plugin.hive.s3;
 
+import io.airlift.concurrent.BoundedExecutor;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.plugin.hive.ConfigurationInitializer;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 import java.io.File;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_ACCESS_KEY;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_ACL_TYPE;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_CONNECT_TIMEOUT;
@@ -52,6 +59,9 @@ import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_SSL_ENABLED;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STAGING_DIRECTORY;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STORAGE_CLASS;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_USER_AGENT_PREFIX;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_VECTORED_READ_ENABLED;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_VECTORED_READ_MAX_CONCURRENCY;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 
 public class PrestoS3ConfigurationInitializer
         implements ConfigurationInitializer
@@ -86,6 +96,10 @@ public class PrestoS3ConfigurationInitializer
     private final String signerClass;
     private final boolean requesterPaysEnabled;
     private final boolean skipGlacierObjects;
+    private final boolean vectoredReadEnabled;
+    private final int vectoredReadMaxConcurrency;
+    private final Optional<ExecutorService> vectoredReadExecutorService;
+    private final Optional<Executor> vectoredReadExecutor;
 
     @Inject
     public PrestoS3ConfigurationInitializer(HiveS3Config config)
@@ -120,6 +134,24 @@ public class PrestoS3ConfigurationInitializer
         this.aclType = config.getS3AclType();
         this.skipGlacierObjects = config.isSkipGlacierObjects();
         this.requesterPaysEnabled = config.isRequesterPaysEnabled();
+        this.vectoredReadEnabled = config.isS3VectoredReadEnabled();
+        this.vectoredReadMaxConcurrency = config.getS3VectoredReadMaxConcurrency();
+        if (vectoredReadEnabled) {
+            // shared by the file systems of the catalog, and bounded by the connections of the S3 client
+            ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("s3-vectored-read-%s"));
+            this.vectoredReadExecutorService = Optional.of(executor);
+            this.vectoredReadExecutor = Optional.of(new BoundedExecutor(executor, maxConnections));
+        }
+        else {
+            this.vectoredReadExecutorService = Optional.empty();
+            this.vectoredReadExecutor = Optional.empty();
+        }
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        vectoredReadExecutorService.ifPresent(ExecutorService::shutdownNow);
     }
 
     @Override
@@ -180,5 +212,15 @@ public class PrestoS3ConfigurationInitializer
         config.set(S3_ACL_TYPE, aclType.name());
         config.setBoolean(S3_SKIP_GLACIER_OBJECTS, skipGlacierObjects);
         config.setBoolean(S3_REQUESTER_PAYS_ENABLED, requesterPaysEnabled);
+        config.setBoolean(S3_VECTORED_READ_ENABLED, vectoredReadEnabled);
+        config.setInt(S3_VECTORED_READ_MAX_CONCURRENCY, vectoredReadMaxConcurrency);
+    }
+
+    @Override
+    public void initializeFileSystem(FileSystem fileSystem)
+    {
+        if (vectoredReadExecutor.isPresent() && fileSystem instanceof PrestoS3FileSystem) {
+            ((PrestoS3FileSystem) fileSystem).setVectoredReadExecutor(vectoredReadExecutor.get());
+        }
     }
 }
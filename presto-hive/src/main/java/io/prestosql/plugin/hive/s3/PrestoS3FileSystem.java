@@ -65,10 +65,16 @@ import com.google.common.collect.AbstractSequentialIterator;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterators;
 import com.google.common.io.Closer;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import io.airlift.concurrent.BoundedExecutor;
 import io.airlift.log.Logger;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.plugin.hive.util.FSDataInputStreamTail;
+import io.prestosql.plugin.hive.util.VectoredReadable;
 import org.apache.hadoop.conf.Configurable;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.BlockLocation;
@@ -106,7 +112,10 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 import static com.amazonaws.regions.Regions.US_EAST_1;
 import static com.amazonaws.services.s3.Headers.CRYPTO_KEYWRAP_ALGORITHM;
@@ -122,6 +131,8 @@ import static com.google.common.base.Throwables.throwIfInstanceOf;
 import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.Iterables.toArray;
+import static com.google.common.util.concurrent.Futures.transform;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.plugin.hive.aws.AwsCurrentRegionHolder.getCurrentRegionFromEC2Metadata;
 import static io.prestosql.plugin.hive.util.RetryDriver.retry;
@@ -133,6 +144,9 @@ import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.createTempFile;
+import static java.util.Collections.nCopies;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Comparator.comparingLong;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.hadoop.fs.FSExceptionMessages.CANNOT_SEEK_PAST_EOF;
@@ -175,6 +189,8 @@ public class PrestoS3FileSystem
     public static final String S3_SKIP_GLACIER_OBJECTS = "presto.s3.skip-glacier-objects";
     public static final String S3_REQUESTER_PAYS_ENABLED = "presto.s3.requester-pays.enabled";
     public static final String S3_STORAGE_CLASS = "presto.s3.storage-class";
+    public static final String S3_VECTORED_READ_ENABLED = "presto.s3.vectored-read.enabled";
+    public static final String S3_VECTORED_READ_MAX_CONCURRENCY = "presto.s3.vectored-read.max-concurrency";
 
     static final String S3_DIRECTORY_OBJECT_CONTENT_TYPE = "application/x-directory";
 
@@ -184,6 +200,7 @@ public class PrestoS3FileSystem
     private static final String DIRECTORY_SUFFIX = "_$folder$";
     private static final DataSize BLOCK_SIZE = DataSize.of(32, MEGABYTE);
     private static final DataSize MAX_SKIP_SIZE = DataSize.of(1, MEGABYTE);
+    private static final DataSize MAX_VECTORED_READ_SIZE = DataSize.of(8, MEGABYTE);
     private static final String PATH_SEPARATOR = "/";
     private static final Duration BACKOFF_MIN_SLEEP = new Duration(1, SECONDS);
     private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
@@ -211,6 +228,10 @@ public class PrestoS3FileSystem
     private boolean skipGlacierObjects;
     private boolean requesterPaysEnabled;
     private PrestoS3StorageClass s3StorageClass;
+    private boolean vectoredReadEnabled;
+    private int vectoredReadMaxConcurrency;
+    // the pool of the catalog, set when the file system is obtained from the catalog
+    private volatile Executor vectoredReadExecutor;
 
     @Override
     public void initialize(URI uri, Configuration conf)
@@ -255,6 +276,8 @@ public class PrestoS3FileSystem
         this.skipGlacierObjects = conf.getBoolean(S3_SKIP_GLACIER_OBJECTS, defaults.isSkipGlacierObjects());
         this.requesterPaysEnabled = conf.getBoolean(S3_REQUESTER_PAYS_ENABLED, defaults.isRequesterPaysEnabled());
         this.s3StorageClass = conf.getEnum(S3_STORAGE_CLASS, defaults.getS3StorageClass());
+        this.vectoredReadEnabled = conf.getBoolean(S3_VECTORED_READ_ENABLED, defaults.isS3VectoredReadEnabled());
+        this.vectoredReadMaxConcurrency = conf.getInt(S3_VECTORED_READ_MAX_CONCURRENCY, defaults.getS3VectoredReadMaxConcurrency());
 
         ClientConfiguration configuration = new ClientConfiguration()
                 .withMaxErrorRetry(maxErrorRetries)
@@ -282,6 +305,15 @@ public class PrestoS3FileSystem
         }
     }
 
+    /**
+     * Sets the pool shared by the file systems of a catalog. Vectored reads are only used
+     * once the pool is set, so file systems created outside of a catalog read ranges one by one.
+     */
+    void setVectoredReadExecutor(Executor executor)
+    {
+        this.vectoredReadExecutor = requireNonNull(executor, "executor is null");
+    }
+
     @Override
     public URI getUri()
     {
@@ -421,10 +453,14 @@ public class PrestoS3FileSystem
     @Override
     public FSDataInputStream open(Path path, int bufferSize)
     {
-        return new FSDataInputStream(
-                new BufferedFSInputStream(
-                        new PrestoS3InputStream(s3, getBucketName(uri), path, requesterPaysEnabled, maxAttempts, maxBackoffTime, maxRetryTime),
-                        bufferSize));
+        PrestoS3InputStream inputStream = new PrestoS3InputStream(s3, getBucketName(uri), path, requesterPaysEnabled, maxAttempts, maxBackoffTime, maxRetryTime);
+        Executor vectoredReadExecutor = this.vectoredReadExecutor;
+        if (vectoredReadEnabled && vectoredReadExecutor != null) {
+            // each stream gets its own bound, so a single reader cannot use all the connections
+            Executor executor = new BoundedExecutor(vectoredReadExecutor, vectoredReadMaxConcurrency);
+            return new FSDataInputStream(new PrestoS3VectoredInputStream(inputStream, bufferSize, executor));
+        }
+        return new FSDataInputStream(new BufferedFSInputStream(inputStream, bufferSize));
     }
 
     @Override
@@ -1247,6 +1283,83 @@ public class PrestoS3FileSystem
         }
     }
 
+    /**
+     * Reads several ranges of the object with concurrent ranged GET requests. Ranges separated
+     * by less than the maximum skip size are read with a single request, as skipping the gap
+     * is cheaper than the latency of another request.
+     */
+    private static class PrestoS3VectoredInputStream
+            extends BufferedFSInputStream
+            implements VectoredReadable
+    {
+        private final PrestoS3InputStream s3InputStream;
+        private final Executor executor;
+
+        public PrestoS3VectoredInputStream(PrestoS3InputStream s3InputStream, int bufferSize, Executor executor)
+        {
+            super(s3InputStream, bufferSize);
+            this.s3InputStream = s3InputStream;
+            this.executor = requireNonNull(executor, "executor is null");
+        }
+
+        @Override
+        public <T> List<ListenableFuture<Slice>> readVectored(List<T> ranges, ToLongFunction<T> offset, ToIntFunction<T> length)
+                throws IOException
+        {
+            s3InputStream.checkClosed();
+
+            List<Integer> order = new ArrayList<>(ranges.size());
+            for (int i = 0; i < ranges.size(); i++) {
+                order.add(i);
+            }
+            order.sort(comparingLong(index -> offset.applyAsLong(ranges.get(index))));
+
+            List<ListenableFuture<Slice>> slices = new ArrayList<>(nCopies(ranges.size(), null));
+            int requests = 0;
+            int first = 0;
+            while (first < order.size()) {
+                T firstRange = ranges.get(order.get(first));
+                long start = offset.applyAsLong(firstRange);
+                long end = start + length.applyAsInt(firstRange);
+                int last = first + 1;
+                while (last < order.size()) {
+                    T range = ranges.get(order.get(last));
+                    long rangeStart = offset.applyAsLong(range);
+                    long rangeEnd = max(end, rangeStart + length.applyAsInt(range));
+                    if (rangeStart > end + MAX_SKIP_SIZE.toBytes() || rangeEnd - start > MAX_VECTORED_READ_SIZE.toBytes()) {
+                        break;
+                    }
+                    end = rangeEnd;
+                    last++;
+                }
+
+                ListenableFuture<byte[]> data = readAsync(start, toIntExact(end - start));
+                requests++;
+                for (int i = first; i < last; i++) {
+                    int index = order.get(i);
+                    int sliceOffset = toIntExact(offset.applyAsLong(ranges.get(index)) - start);
+                    int sliceLength = length.applyAsInt(ranges.get(index));
+                    slices.set(index, transform(data, buffer -> Slices.wrappedBuffer(buffer, sliceOffset, sliceLength), directExecutor()));
+                }
+                first = last;
+            }
+            STATS.newVectoredRead(ranges.size(), requests);
+            return unmodifiableList(slices);
+        }
+
+        private ListenableFuture<byte[]> readAsync(long position, int length)
+        {
+            // positioned reads do not use the stream, so they can run concurrently
+            ListenableFutureTask<byte[]> task = ListenableFutureTask.create(() -> {
+                byte[] buffer = new byte[length];
+                s3InputStream.readFully(position, buffer, 0, length);
+                return buffer;
+            });
+            executor.execute(task);
+            return task;
+        }
+    }
+
     private static class PrestoS3OutputStream
             extends FilterOutputStream
     {
@@ -44,6 +44,8 @@ public class PrestoS3FileSystemStats
     private final CounterStat getObjectRetries = new CounterStat();
     private final CounterStat getMetadataRetries = new CounterStat();
     private final CounterStat readRetries = new CounterStat();
+    private final CounterStat vectoredReadRanges = new CounterStat();
+    private final CounterStat vectoredReadRequests = new CounterStat();
 
     // see AWSRequestMetrics
     private final CounterStat awsRequestCount = new CounterStat();
@@ -214,6 +216,20 @@ public class PrestoS3FileSystemStats
         return readRetries;
     }
 
+    @Managed
+    @Nested
+    public CounterStat getVectoredReadRanges()
+    {
+        return vectoredReadRanges;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getVectoredReadRequests()
+    {
+        return vectoredReadRequests;
+    }
+
     public void connectionOpened()
     {
         activeConnections.update(1);
@@ -329,4 +345,10 @@ public class PrestoS3FileSystemStats
     {
         readRetries.update(1);
     }
+
+    public void newVectoredRead(int ranges, int requests)
+    {
+        vectoredReadRanges.update(ranges);
+        vectoredReadRequests.update(requests);
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.util;
+
+import com.google.common.collect.AbstractIterator;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Applies a function to the elements of an iterator on an executor, computing up to
+ * {@code maxConcurrency} elements ahead of the consumer. Results are returned in the
+ * order of the source elements.
+ * <p>
+ * An element which no executor thread has started yet is computed by the consumer
+ * thread, so the iterator makes progress even when the executor is busy with tasks
+ * that are themselves waiting for this iterator.
+ */
+@NotThreadSafe
+public class ParallelTransformIterator<F, T>
+        extends AbstractIterator<T>
+{
+    private final Iterator<F> source;
+    private final Function<F, T> function;
+    private final Executor executor;
+    private final int maxConcurrency;
+    private final Deque<FutureTask<T>> pending = new ArrayDeque<>();
+
+    public static <F, T> Iterable<T> parallelTransform(Iterable<F> source, Executor executor, int maxConcurrency, Function<F, T> function)
+    {
+        requireNonNull(source, "source is null");
+        return () -> new ParallelTransformIterator<>(source.iterator(), function, executor, maxConcurrency);
+    }
+
+    public ParallelTransformIterator(Iterator<F> source, Function<F, T> function, Executor executor, int maxConcurrency)
+    {
+        this.source = requireNonNull(source, "source is null");
+        this.function = requireNonNull(function, "function is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        checkArgument(maxConcurrency >= 1, "maxConcurrency must be at least 1");
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    protected T computeNext()
+    {
+        schedule();
+        FutureTask<T> next = pending.poll();
+        if (next == null) {
+            return endOfData();
+        }
+        // keep the following elements loading while this one is consumed
+        schedule();
+
+        // no-op when an executor thread already started the task
+        next.run();
+        try {
+            return next.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelPending();
+            throw new RuntimeException(e);
+        }
+        catch (ExecutionException e) {
+            cancelPending();
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void schedule()
+    {
+        // the element being consumed counts towards the concurrency
+        while (pending.size() < maxConcurrency - 1 && source.hasNext()) {
+            F element = source.next();
+            FutureTask<T> task = new FutureTask<>(() -> function.apply(element));
+            pending.add(task);
+            try {
+                executor.execute(task);
+            }
+            catch (RejectedExecutionException ignored) {
+                // the task is run by the consumer
+            }
+        }
+        if (pending.isEmpty() && source.hasNext()) {
+            // with a concurrency of one, elements are computed by the consumer only
+            F element = source.next();
+            pending.add(new FutureTask<>(() -> function.apply(element)));
+        }
+    }
+
+    private void cancelPending()
+    {
+        pending.forEach(task -> task.cancel(true));
+        pending.clear();
+    }
+}
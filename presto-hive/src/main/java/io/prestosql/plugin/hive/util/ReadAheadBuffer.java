@@ -0,0 +1,261 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.util;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.units.DataSize;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.nonCancellationPropagating;
+import static com.google.common.util.concurrent.Futures.whenAllComplete;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.util.Comparator.comparingLong;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads ranges of a file in the background for a data source that is read by a single driver thread.
+ * Every call to {@link #readAhead} starts a batch of background reads, and the buffer retains the
+ * last two batches: the one being consumed by the data source and the one being read ahead.
+ * Reads which are not fully covered by the buffer, or whose background read failed, are left to
+ * the data source, so a failed background read is retried and reports its error on the driver thread.
+ */
+@NotThreadSafe
+public class ReadAheadBuffer
+{
+    private static final int RETAINED_BATCHES = 2;
+
+    private final Executor executor;
+    private final PositionedReader reader;
+    private final long maxMergeDistanceBytes;
+    private final long maxBatchSizeBytes;
+
+    private final Deque<List<Region>> batches = new ArrayDeque<>();
+    private long retainedSize;
+
+    public ReadAheadBuffer(Executor executor, PositionedReader reader, DataSize maxMergeDistance, DataSize maxBatchSize)
+    {
+        this.executor = requireNonNull(executor, "executor is null");
+        this.reader = requireNonNull(reader, "reader is null");
+        this.maxMergeDistanceBytes = requireNonNull(maxMergeDistance, "maxMergeDistance is null").toBytes();
+        this.maxBatchSizeBytes = requireNonNull(maxBatchSize, "maxBatchSize is null").toBytes();
+    }
+
+    /**
+     * Starts reading the ranges in the background. Ranges close to each other are read together,
+     * and ranges beyond the maximum batch size are not read ahead. The returned future is done when
+     * all reads of the batch are done, whether they succeeded or not.
+     */
+    public <T> ListenableFuture<?> readAhead(Collection<T> ranges, ToLongFunction<T> offset, ToIntFunction<T> length)
+    {
+        List<Region> batch = mergeRanges(ranges, offset, length);
+        for (Region region : batch) {
+            try {
+                executor.execute(region::read);
+            }
+            catch (RejectedExecutionException e) {
+                region.data.setException(e);
+            }
+            retainedSize += region.length;
+        }
+
+        batches.addLast(batch);
+        while (batches.size() > RETAINED_BATCHES) {
+            for (Region region : batches.removeFirst()) {
+                region.data.cancel(false);
+                retainedSize -= region.length;
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return immediateFuture(null);
+        }
+        // cancelling the future returned to the driver must not cancel the reads
+        return nonCancellationPropagating(whenAllComplete(batch.stream()
+                .map(region -> region.data)
+                .collect(toImmutableList()))
+                .call(() -> null, directExecutor()));
+    }
+
+    private <T> List<Region> mergeRanges(Collection<T> ranges, ToLongFunction<T> offset, ToIntFunction<T> length)
+    {
+        List<T> sortedRanges = new ArrayList<>(ranges);
+        sortedRanges.sort(comparingLong(offset));
+
+        ImmutableList.Builder<Region> regions = ImmutableList.builder();
+        long batchSize = 0;
+        long regionStart = -1;
+        long regionEnd = -1;
+        for (T range : sortedRanges) {
+            long rangeStart = offset.applyAsLong(range);
+            long rangeEnd = rangeStart + length.applyAsInt(range);
+            if (regionStart >= 0 && rangeStart <= regionEnd + maxMergeDistanceBytes && rangeEnd - regionStart <= Integer.MAX_VALUE) {
+                long end = max(regionEnd, rangeEnd);
+                batchSize += end - regionEnd;
+                regionEnd = end;
+            }
+            else {
+                if (regionStart >= 0) {
+                    regions.add(new Region(regionStart, toIntExact(regionEnd - regionStart)));
+                }
+                batchSize += rangeEnd - rangeStart;
+                regionStart = rangeStart;
+                regionEnd = rangeEnd;
+            }
+            if (batchSize >= maxBatchSizeBytes) {
+                break;
+            }
+        }
+        if (regionStart >= 0) {
+            regions.add(new Region(regionStart, toIntExact(regionEnd - regionStart)));
+        }
+        return regions.build();
+    }
+
+    /**
+     * Copies the range from the buffer, waiting for the background reads of the range if needed.
+     * Returns false if the range is not fully covered by successful background reads.
+     */
+    public boolean read(long position, byte[] buffer, int bufferOffset, int bufferLength)
+            throws IOException
+    {
+        int copied = 0;
+        while (copied < bufferLength) {
+            long currentPosition = position + copied;
+            Region region = findRegion(currentPosition);
+            if (region == null) {
+                return false;
+            }
+            byte[] data = region.getData();
+            if (data == null) {
+                return false;
+            }
+            int regionOffset = toIntExact(currentPosition - region.offset);
+            int length = min(bufferLength - copied, region.length - regionOffset);
+            System.arraycopy(data, regionOffset, buffer, bufferOffset + copied, length);
+            copied += length;
+        }
+        return true;
+    }
+
+    private Region findRegion(long position)
+    {
+        for (List<Region> batch : batches) {
+            for (Region region : batch) {
+                if (region.offset <= position && position < region.offset + region.length) {
+                    return region;
+                }
+            }
+        }
+        return null;
+    }
+
+    public long getRetainedSize()
+    {
+        return retainedSize;
+    }
+
+    public void close()
+    {
+        for (List<Region> batch : batches) {
+            for (Region region : batch) {
+                region.data.cancel(false);
+            }
+        }
+        batches.clear();
+        retainedSize = 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("batches", batches.size())
+                .add("retainedSize", retainedSize)
+                .toString();
+    }
+
+    public interface PositionedReader
+    {
+        void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
+                throws IOException;
+    }
+
+    private class Region
+    {
+        private final long offset;
+        private final int length;
+        private final SettableFuture<byte[]> data = SettableFuture.create();
+
+        public Region(long offset, int length)
+        {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public void read()
+        {
+            // the region was evicted before the read started
+            if (data.isDone()) {
+                return;
+            }
+            try {
+                byte[] buffer = new byte[length];
+                reader.readFully(offset, buffer, 0, length);
+                data.set(buffer);
+            }
+            catch (Throwable t) {
+                // the future must complete, as the driver may be blocked on it
+                data.setException(t);
+            }
+        }
+
+        public byte[] getData()
+                throws InterruptedIOException
+        {
+            try {
+                return data.get();
+            }
+            catch (ExecutionException | CancellationException e) {
+                return null;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for read ahead of " + offset);
+            }
+        }
+    }
+}
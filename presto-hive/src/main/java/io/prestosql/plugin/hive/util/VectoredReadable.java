@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.util;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.slice.Slice;
+import org.apache.hadoop.fs.FSDataInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+
+/**
+ * Input stream which reads several ranges of a file with concurrent requests. This is implemented
+ * by file systems where the latency of a request is much higher than the time to transfer a range,
+ * like S3, so reading the ranges one at a time would cost a round trip per range.
+ */
+public interface VectoredReadable
+{
+    /**
+     * Starts reading the ranges of the file. Ranges close to each other may be read with a single
+     * request. The returned futures are in the order of the ranges.
+     */
+    <T> List<ListenableFuture<Slice>> readVectored(List<T> ranges, ToLongFunction<T> offset, ToIntFunction<T> length)
+            throws IOException;
+
+    /**
+     * Reads the ranges of the file, waiting for all the requests to complete.
+     */
+    default <T> List<Slice> readVectoredFully(List<T> ranges, ToLongFunction<T> offset, ToIntFunction<T> length)
+            throws IOException
+    {
+        List<ListenableFuture<Slice>> futures = readVectored(ranges, offset, length);
+        ImmutableList.Builder<Slice> slices = ImmutableList.builder();
+        try {
+            for (ListenableFuture<Slice> future : futures) {
+                slices.add(future.get());
+            }
+        }
+        catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading ranges");
+        }
+        catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throwIfInstanceOf(e.getCause(), IOException.class);
+            throwIfUnchecked(e.getCause());
+            throw new IOException(e.getCause());
+        }
+        return slices.build();
+    }
+
+    /**
+     * Returns the stream wrapped by the Hadoop input stream if it supports vectored reads.
+     */
+    static Optional<VectoredReadable> getVectoredReadable(FSDataInputStream inputStream)
+    {
+        InputStream stream = inputStream;
+        while (stream instanceof FSDataInputStream) {
+            stream = ((FSDataInputStream) stream).getWrappedStream();
+        }
+        if (stream instanceof VectoredReadable) {
+            return Optional.of((VectoredReadable) stream);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.prestosql.orc.OrcMetadataCache;
+import io.prestosql.orc.metadata.ColumnMetadata;
+import io.prestosql.orc.metadata.StripeFooter;
+import io.prestosql.orc.metadata.StripeInformation;
+import org.apache.hadoop.fs.Path;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+public class TestFileMetadataCache
+{
+    private static final Path PATH = new Path("file:///test/file.orc");
+    private static final StripeInformation STRIPE = new StripeInformation(100, 3, 1000, 10, 20);
+
+    @Test
+    public void testStripeFooterIsCached()
+            throws IOException
+    {
+        FileMetadataCache cache = new FileMetadataCache(DataSize.of(1, MEGABYTE));
+        AtomicInteger loads = new AtomicInteger();
+
+        StripeFooter first = cache.getOrcMetadataCache(PATH, 1000, 1).getStripeFooter(STRIPE, () -> createStripeFooter(loads));
+        StripeFooter second = cache.getOrcMetadataCache(PATH, 1000, 1).getStripeFooter(STRIPE, () -> createStripeFooter(loads));
+        assertSame(second, first);
+        assertEquals(loads.get(), 1);
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 1);
+
+        // a modified file is not served stale metadata
+        StripeFooter modified = cache.getOrcMetadataCache(PATH, 1000, 2).getStripeFooter(STRIPE, () -> createStripeFooter(loads));
+        assertNotSame(modified, first);
+        assertEquals(loads.get(), 2);
+
+        cache.flushCache();
+        assertEquals(cache.getSize(), 0);
+    }
+
+    @Test
+    public void testDisabledCache()
+            throws IOException
+    {
+        FileMetadataCache cache = FileMetadataCache.noCache();
+        assertSame(cache.getOrcMetadataCache(PATH, 1000, 1), OrcMetadataCache.NO_CACHE);
+
+        AtomicInteger loads = new AtomicInteger();
+        OrcMetadataCache metadataCache = cache.getOrcMetadataCache(PATH, 1000, 1);
+        metadataCache.getStripeFooter(STRIPE, () -> createStripeFooter(loads));
+        metadataCache.getStripeFooter(STRIPE, () -> createStripeFooter(loads));
+        assertEquals(loads.get(), 2);
+    }
+
+    @Test
+    public void testLoadFailureIsNotCached()
+            throws IOException
+    {
+        FileMetadataCache cache = new FileMetadataCache(DataSize.of(1, MEGABYTE));
+        OrcMetadataCache metadataCache = cache.getOrcMetadataCache(PATH, 1000, 1);
+        try {
+            metadataCache.getFileTail(() -> {
+                throw new IOException("test");
+            });
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            assertEquals(e.getMessage(), "test");
+        }
+
+        assertEquals(metadataCache.getFileTail(Optional::empty), Optional.empty());
+        assertEquals(cache.getSize(), 1);
+    }
+
+    private static StripeFooter createStripeFooter(AtomicInteger loads)
+    {
+        loads.incrementAndGet();
+        return new StripeFooter(ImmutableList.of(), new ColumnMetadata<>(ImmutableList.of()), ZoneId.of("UTC"));
+    }
+}
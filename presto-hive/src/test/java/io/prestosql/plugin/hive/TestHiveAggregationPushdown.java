@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.Session;
+import io.prestosql.testing.AbstractTestQueryFramework;
+import io.prestosql.testing.QueryRunner;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static io.prestosql.tpch.TpchTable.ORDERS;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestHiveAggregationPushdown
+        extends AbstractTestQueryFramework
+{
+    @Override
+    protected QueryRunner createQueryRunner()
+            throws Exception
+    {
+        return HiveQueryRunner.builder()
+                .setInitialTables(ImmutableList.of(ORDERS))
+                .setHiveProperties(ImmutableMap.of("hive.aggregation-pushdown-enabled", "true"))
+                .build();
+    }
+
+    @BeforeClass
+    public void setUp()
+    {
+        for (String format : ImmutableList.of("orc", "parquet")) {
+            assertUpdate(
+                    "CREATE TABLE orders_" + format + " WITH (format = '" + format + "') AS " +
+                            "SELECT orderkey, custkey, CAST(shippriority AS integer) shippriority, orderdate, " +
+                            "IF(orderkey % 7 = 0, NULL, custkey) nullable_custkey, orderstatus FROM orders",
+                    "SELECT count(*) FROM orders");
+            assertUpdate(
+                    "CREATE TABLE orders_partitioned_" + format + " WITH (format = '" + format + "', partitioned_by = ARRAY['orderstatus']) AS " +
+                            "SELECT orderkey, custkey, orderdate, orderstatus FROM orders",
+                    "SELECT count(*) FROM orders");
+            assertUpdate("CREATE TABLE empty_" + format + " WITH (format = '" + format + "') AS SELECT orderkey FROM orders WITH NO DATA", 0);
+        }
+    }
+
+    @DataProvider
+    public Object[][] formats()
+    {
+        return new Object[][] {{"orc"}, {"parquet"}};
+    }
+
+    @Test(dataProvider = "formats")
+    public void testGlobalAggregations(String format)
+    {
+        String table = "orders_" + format;
+        assertPushedDown("SELECT count(*) FROM " + table, "SELECT count(*) FROM orders");
+        assertPushedDown(
+                "SELECT min(orderkey), max(orderkey), min(shippriority), max(orderdate), count(*) FROM " + table,
+                "SELECT min(orderkey), max(orderkey), min(shippriority), max(orderdate), count(*) FROM orders");
+        assertPushedDown(
+                "SELECT min(nullable_custkey), max(nullable_custkey) FROM " + table,
+                "SELECT min(custkey), max(custkey) FROM orders WHERE orderkey % 7 <> 0");
+        assertPushedDown("SELECT max(orderkey), max(orderkey) FROM " + table, "SELECT max(orderkey), max(orderkey) FROM orders");
+    }
+
+    @Test(dataProvider = "formats")
+    public void testPartitionFilter(String format)
+    {
+        String table = "orders_partitioned_" + format;
+        assertPushedDown(
+                "SELECT count(*), min(orderkey), max(orderdate) FROM " + table + " WHERE orderstatus = 'F'",
+                "SELECT count(*), min(orderkey), max(orderdate) FROM orders WHERE orderstatus = 'F'");
+        // no partitions match
+        assertQuery(
+                "SELECT count(*), min(orderkey) FROM " + table + " WHERE orderstatus = 'X'",
+                "SELECT 0, CAST(NULL AS BIGINT)");
+    }
+
+    @Test(dataProvider = "formats")
+    public void testEmptyTable(String format)
+    {
+        assertPushedDown("SELECT count(*), min(orderkey), max(orderkey) FROM empty_" + format, "SELECT 0, CAST(NULL AS BIGINT), CAST(NULL AS BIGINT)");
+    }
+
+    @Test(dataProvider = "formats")
+    public void testNotPushedDown(String format)
+    {
+        String table = "orders_" + format;
+        // filter on a regular column
+        assertNotPushedDown("SELECT count(*) FROM " + table + " WHERE custkey > 100", "SELECT count(*) FROM orders WHERE custkey > 100");
+        // grouping
+        assertNotPushedDown("SELECT orderstatus, count(*) FROM " + table + " GROUP BY orderstatus", "SELECT orderstatus, count(*) FROM orders GROUP BY orderstatus");
+        // count of a column needs the number of nulls
+        assertNotPushedDown("SELECT count(nullable_custkey) FROM " + table, "SELECT count(*) FROM orders WHERE orderkey % 7 <> 0");
+        // unsupported type
+        assertNotPushedDown("SELECT min(orderstatus) FROM " + table, "SELECT min(orderstatus) FROM orders");
+        // distinct
+        assertNotPushedDown("SELECT count(DISTINCT custkey) FROM " + table, "SELECT count(DISTINCT custkey) FROM orders");
+    }
+
+    @Test
+    public void testSessionProperty()
+    {
+        Session disabled = Session.builder(getSession())
+                .setCatalogSessionProperty("hive", "aggregation_pushdown_enabled", "false")
+                .build();
+        assertQuery(disabled, "SELECT count(*), max(orderkey) FROM orders_orc", "SELECT count(*), max(orderkey) FROM orders");
+        assertFalse(explain(disabled, "SELECT count(*), max(orderkey) FROM orders_orc").contains("aggregations="));
+    }
+
+    private void assertPushedDown(String query, String expectedQuery)
+    {
+        assertQuery(query, expectedQuery);
+        assertTrue(explain(getSession(), query).contains("aggregations="), "aggregation not pushed down: " + query);
+    }
+
+    private void assertNotPushedDown(String query, String expectedQuery)
+    {
+        assertQuery(query, expectedQuery);
+        assertFalse(explain(getSession(), query).contains("aggregations="), "aggregation pushed down: " + query);
+    }
+
+    private String explain(Session session, String query)
+    {
+        return (String) computeActual(session, "EXPLAIN " + query).getOnlyValue();
+    }
+}
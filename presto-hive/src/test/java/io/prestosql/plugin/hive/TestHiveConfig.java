@@ -45,6 +45,7 @@ public class TestHiveConfig
                 .setPerTransactionMetastoreCacheMaximumSize(1000)
                 .setMinPartitionBatchSize(10)
                 .setMaxPartitionBatchSize(100)
+                .setPartitionBatchConcurrency(4)
                 .setMaxInitialSplits(200)
                 .setMaxInitialSplitSize(DataSize.of(32, Unit.MEGABYTE))
                 .setSplitLoaderConcurrency(4)
@@ -96,8 +97,14 @@ public class TestHiveConfig
                 .setQueryPartitionFilterRequired(false)
                 .setPartitionUseColumnNames(false)
                 .setProjectionPushdownEnabled(true)
+                .setAggregationPushdownEnabled(false)
                 .setDynamicFilteringProbeBlockingTimeout(new Duration(0, TimeUnit.MINUTES))
-                .setTimestampPrecision(HiveTimestampPrecision.MILLISECONDS));
+                .setTimestampPrecision(HiveTimestampPrecision.MILLISECONDS)
+                .setFileMetadataCacheEnabled(true)
+                .setFileMetadataCacheMaxSize(DataSize.of(64, Unit.MEGABYTE))
+                .setReadAheadEnabled(false)
+                .setReadAheadThreads(32)
+                .setReadAheadMaxSize(DataSize.of(32, Unit.MEGABYTE)));
     }
 
     @Test
@@ -113,6 +120,7 @@ public class TestHiveConfig
                 .put("hive.per-transaction-metastore-cache-maximum-size", "500")
                 .put("hive.metastore.partition-batch-size.min", "1")
                 .put("hive.metastore.partition-batch-size.max", "1000")
+                .put("hive.metastore.partition-batch-concurrency", "8")
                 .put("hive.max-initial-splits", "10")
                 .put("hive.max-initial-split-size", "16MB")
                 .put("hive.split-loader-concurrency", "1")
@@ -164,8 +172,14 @@ public class TestHiveConfig
                 .put("hive.query-partition-filter-required", "true")
                 .put("hive.partition-use-column-names", "true")
                 .put("hive.projection-pushdown-enabled", "false")
+                .put("hive.aggregation-pushdown-enabled", "true")
                 .put("hive.dynamic-filtering-probe-blocking-timeout", "10s")
                 .put("hive.timestamp-precision", "NANOSECONDS")
+                .put("hive.file-metadata-cache.enabled", "false")
+                .put("hive.file-metadata-cache.max-size", "16MB")
+                .put("hive.read-ahead.enabled", "true")
+                .put("hive.read-ahead.threads", "8")
+                .put("hive.read-ahead.max-size", "64MB")
                 .build();
 
         HiveConfig expected = new HiveConfig()
@@ -178,6 +192,7 @@ public class TestHiveConfig
                 .setPerTransactionMetastoreCacheMaximumSize(500)
                 .setMinPartitionBatchSize(1)
                 .setMaxPartitionBatchSize(1000)
+                .setPartitionBatchConcurrency(8)
                 .setMaxInitialSplits(10)
                 .setMaxInitialSplitSize(DataSize.of(16, Unit.MEGABYTE))
                 .setSplitLoaderConcurrency(1)
@@ -229,8 +244,14 @@ public class TestHiveConfig
                 .setQueryPartitionFilterRequired(true)
                 .setPartitionUseColumnNames(true)
                 .setProjectionPushdownEnabled(false)
+                .setAggregationPushdownEnabled(true)
                 .setDynamicFilteringProbeBlockingTimeout(new Duration(10, TimeUnit.SECONDS))
-                .setTimestampPrecision(HiveTimestampPrecision.NANOSECONDS);
+                .setTimestampPrecision(HiveTimestampPrecision.NANOSECONDS)
+                .setFileMetadataCacheEnabled(false)
+                .setFileMetadataCacheMaxSize(DataSize.of(16, Unit.MEGABYTE))
+                .setReadAheadEnabled(true)
+                .setReadAheadThreads(8)
+                .setReadAheadMaxSize(DataSize.of(64, Unit.MEGABYTE));
 
         assertFullMapping(properties, expected);
     }
@@ -3644,6 +3644,10 @@ public class TestHiveIntegrationSmokeTest
         assertThatThrownBy(() -> assertUpdate("CREATE TABLE invalid_table (col1 bigint) WITH (format = 'TEXTFILE', orc_bloom_filter_columns = ARRAY['col1'])"))
                 .hasMessageMatching("Cannot specify orc_bloom_filter_columns table property for storage format: TEXTFILE");
 
+        // Parquet
+        assertThatThrownBy(() -> assertUpdate("CREATE TABLE invalid_table (col1 bigint) WITH (format = 'ORC', parquet_bloom_filter_columns = ARRAY['col1'])"))
+                .hasMessageMatching("Cannot specify parquet_bloom_filter_columns table property for storage format: ORC");
+
         // TEXTFILE
         assertThatThrownBy(() -> assertUpdate("CREATE TABLE test_orc_skip_header (col1 bigint) WITH (format = 'ORC', skip_header_line_count = 1)"))
                 .hasMessageMatching("Cannot specify skip_header_line_count table property for storage format: ORC");
@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.stats.CounterStat;
 import io.airlift.units.DataSize;
+import io.prestosql.plugin.hive.cache.SoftAffinityProvider;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.connector.ConnectorSplit;
 import io.prestosql.spi.connector.ConnectorSplitSource;
@@ -57,7 +58,8 @@ public class TestHiveSplitSource
                 Integer.MAX_VALUE,
                 new TestingHiveSplitLoader(),
                 Executors.newFixedThreadPool(5),
-                new CounterStat());
+                new CounterStat(),
+                SoftAffinityProvider.disabled());
 
         // add 10 splits
         for (int i = 0; i < 10; i++) {
@@ -92,7 +94,8 @@ public class TestHiveSplitSource
                 Integer.MAX_VALUE,
                 new TestingHiveSplitLoader(),
                 Executors.newSingleThreadExecutor(),
-                new CounterStat());
+                new CounterStat(),
+                SoftAffinityProvider.disabled());
 
         // One byte larger than the initial split max size
         DataSize fileSize = DataSize.ofBytes(initialSplitSize.toBytes() + 1);
@@ -119,7 +122,8 @@ public class TestHiveSplitSource
                 Integer.MAX_VALUE,
                 new TestingHiveSplitLoader(),
                 Executors.newFixedThreadPool(5),
-                new CounterStat());
+                new CounterStat(),
+                SoftAffinityProvider.disabled());
 
         // add some splits
         for (int i = 0; i < 5; i++) {
@@ -177,7 +181,8 @@ public class TestHiveSplitSource
                 Integer.MAX_VALUE,
                 new TestingHiveSplitLoader(),
                 Executors.newFixedThreadPool(5),
-                new CounterStat());
+                new CounterStat(),
+                SoftAffinityProvider.disabled());
 
         SettableFuture<ConnectorSplit> splits = SettableFuture.create();
 
@@ -231,7 +236,8 @@ public class TestHiveSplitSource
                 Integer.MAX_VALUE,
                 new TestingHiveSplitLoader(),
                 Executors.newFixedThreadPool(5),
-                new CounterStat());
+                new CounterStat(),
+                SoftAffinityProvider.disabled());
         int testSplitSizeInBytes = new TestSplit(0).getEstimatedSizeInBytes();
 
         int maxSplitCount = toIntExact(maxOutstandingSplitsSize.toBytes()) / testSplitSizeInBytes;
@@ -268,7 +274,8 @@ public class TestHiveSplitSource
                 Integer.MAX_VALUE,
                 new TestingHiveSplitLoader(),
                 Executors.newFixedThreadPool(5),
-                new CounterStat());
+                new CounterStat(),
+                SoftAffinityProvider.disabled());
         hiveSplitSource.addToQueue(new TestSplit(0, OptionalInt.of(2)));
         hiveSplitSource.noMoreSplits();
         assertEquals(getSplits(hiveSplitSource, OptionalInt.of(0), 10).size(), 0);
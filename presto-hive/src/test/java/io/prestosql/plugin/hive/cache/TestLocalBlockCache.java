@@ -0,0 +1,304 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.cache;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.airlift.units.DataSize;
+import io.prestosql.plugin.hive.cache.LocalBlockCache.PageKey;
+import io.prestosql.plugin.hive.util.VectoredReadable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static java.nio.file.Files.createTempDirectory;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestLocalBlockCache
+{
+    private static final int PAGE_SIZE = 4096;
+
+    private java.nio.file.Path tempDirectory;
+    private FileSystem localFileSystem;
+
+    @BeforeClass
+    public void setUp()
+            throws IOException
+    {
+        tempDirectory = createTempDirectory("test-local-cache");
+        localFileSystem = new RawLocalFileSystem();
+        localFileSystem.initialize(URI.create("file:///"), new Configuration(false));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        localFileSystem.close();
+        deleteRecursively(tempDirectory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testReadThrough()
+            throws IOException
+    {
+        LocalBlockCache cache = createCache(100);
+        FileSystem fileSystem = cache.wrap(localFileSystem);
+        Path path = new Path(tempDirectory.resolve("read-through").toUri());
+        byte[] data = writeFile(path, PAGE_SIZE * 2 + 100, 1);
+
+        assertEquals(readFile(fileSystem, path), data);
+        assertEquals(cache.getMisses().getTotalCount(), 3);
+        assertEquals(cache.getHits().getTotalCount(), 0);
+        assertEquals(cache.getCachedPageCount(), 3);
+        assertEquals(cache.getCachedBytes(), data.length);
+
+        assertEquals(readFile(fileSystem, path), data);
+        assertEquals(cache.getHits().getTotalCount(), 3);
+        assertEquals(cache.getBytesReadFromCache().getTotalCount(), data.length);
+        assertEquals(cache.getHitRatio(), 0.5);
+
+        // positional read spanning a page boundary
+        try (FSDataInputStream input = fileSystem.open(path)) {
+            byte[] buffer = new byte[200];
+            input.readFully(PAGE_SIZE - 100, buffer);
+            assertEquals(buffer, Arrays.copyOfRange(data, PAGE_SIZE - 100, PAGE_SIZE + 100));
+            assertEquals(input.getPos(), 0);
+
+            input.seek(PAGE_SIZE * 2 + 99);
+            assertEquals(input.read(), data[PAGE_SIZE * 2 + 99] & 0xFF);
+            assertEquals(input.read(), -1);
+        }
+        assertEquals(cache.getMisses().getTotalCount(), 3);
+
+        cache.destroy();
+    }
+
+    @Test
+    public void testPositionedRead()
+            throws IOException
+    {
+        LocalBlockCache cache = createCache(100);
+        FileSystem fileSystem = cache.wrap(localFileSystem);
+        Path path = new Path(tempDirectory.resolve("positioned-read").toUri());
+        byte[] data = writeFile(path, PAGE_SIZE * 4 + 100, 4);
+
+        try (FSDataInputStream input = fileSystem.open(path)) {
+            byte[] buffer = new byte[10];
+            input.readFully(PAGE_SIZE * 2 + 10, buffer);
+            assertEquals(buffer, Arrays.copyOfRange(data, PAGE_SIZE * 2 + 10, PAGE_SIZE * 2 + 20));
+            assertEquals(cache.getCachedPageCount(), 1);
+
+            // the missing pages around the cached page are read from the file system
+            buffer = new byte[data.length - 20];
+            input.readFully(10, buffer);
+            assertEquals(buffer, Arrays.copyOfRange(data, 10, data.length - 10));
+            assertEquals(cache.getHits().getTotalCount(), 1);
+            assertEquals(cache.getMisses().getTotalCount(), 5);
+            assertEquals(cache.getCachedPageCount(), 5);
+        }
+
+        cache.destroy();
+    }
+
+    @Test
+    public void testVectoredRead()
+            throws IOException
+    {
+        LocalBlockCache cache = createCache(100);
+        FileSystem fileSystem = cache.wrap(localFileSystem);
+        Path path = new Path(tempDirectory.resolve("vectored-read").toUri());
+        byte[] data = writeFile(path, PAGE_SIZE * 4, 5);
+
+        try (FSDataInputStream input = fileSystem.open(path)) {
+            input.readFully(0, new byte[PAGE_SIZE]);
+
+            VectoredReadable vectoredReadable = VectoredReadable.getVectoredReadable(input).orElseThrow();
+            List<long[]> ranges = ImmutableList.of(new long[] {10, 100}, new long[] {PAGE_SIZE * 3 - 50, 100}, new long[] {PAGE_SIZE - 10, 20});
+            List<Slice> slices = vectoredReadable.readVectoredFully(ranges, range -> range[0], range -> (int) range[1]);
+            for (int i = 0; i < ranges.size(); i++) {
+                int start = (int) ranges.get(i)[0];
+                assertEquals(slices.get(i).getBytes(), Arrays.copyOfRange(data, start, start + (int) ranges.get(i)[1]));
+            }
+            assertEquals(cache.getCachedPageCount(), 4);
+        }
+
+        cache.destroy();
+    }
+
+    @Test
+    public void testOpenWithKnownStatus()
+            throws IOException
+    {
+        LocalBlockCache cache = createCache(100);
+        FileSystem fileSystem = cache.wrap(localFileSystem);
+        Path path = new Path(tempDirectory.resolve("known-status").toUri());
+        byte[] data = writeFile(path, PAGE_SIZE + 100, 6);
+        long modificationTime = localFileSystem.getFileStatus(path).getModificationTime();
+
+        byte[] buffer = new byte[data.length];
+        try (FSDataInputStream input = CachingFileSystem.openFile(fileSystem, path, data.length, modificationTime)) {
+            input.readFully(0, buffer);
+        }
+        assertEquals(buffer, data);
+
+        // the file is neither opened nor listed when all pages are cached
+        localFileSystem.delete(path, false);
+        buffer = new byte[data.length];
+        try (FSDataInputStream input = CachingFileSystem.openFile(fileSystem, path, data.length, modificationTime)) {
+            input.readFully(0, buffer);
+        }
+        assertEquals(buffer, data);
+        assertEquals(cache.getHits().getTotalCount(), 2);
+
+        cache.destroy();
+    }
+
+    @Test
+    public void testModifiedFile()
+            throws IOException
+    {
+        LocalBlockCache cache = createCache(100);
+        FileSystem fileSystem = cache.wrap(localFileSystem);
+        Path path = new Path(tempDirectory.resolve("modified").toUri());
+
+        byte[] data = writeFile(path, PAGE_SIZE, 1);
+        localFileSystem.setTimes(path, 1000, -1);
+        assertEquals(readFile(fileSystem, path), data);
+
+        byte[] modified = writeFile(path, PAGE_SIZE, 2);
+        localFileSystem.setTimes(path, 2000, -1);
+        assertEquals(readFile(fileSystem, path), modified);
+        assertEquals(cache.getHits().getTotalCount(), 0);
+
+        cache.destroy();
+    }
+
+    @Test
+    public void testChecksumValidation()
+            throws IOException
+    {
+        LocalBlockCache cache = createCache(100);
+        FileSystem fileSystem = cache.wrap(localFileSystem);
+        Path path = new Path(tempDirectory.resolve("checksum").toUri());
+        byte[] data = writeFile(path, PAGE_SIZE, 3);
+        assertEquals(readFile(fileSystem, path), data);
+
+        PageKey key = new PageKey(localFileSystem.getFileStatus(path).getPath().toString(), data.length, localFileSystem.getFileStatus(path).getModificationTime(), 0);
+        assertTrue(cache.isCached(key));
+        cache.corruptPage(key);
+
+        // corrupted page is read from the file system again
+        assertEquals(readFile(fileSystem, path), data);
+        assertEquals(cache.getChecksumFailures().getTotalCount(), 1);
+        assertEquals(cache.getHits().getTotalCount(), 0);
+
+        assertEquals(readFile(fileSystem, path), data);
+        assertEquals(cache.getHits().getTotalCount(), 1);
+
+        cache.destroy();
+    }
+
+    @Test
+    public void testSegmentedEviction()
+            throws IOException
+    {
+        LocalBlockCache cache = createCache(3);
+        byte[] buffer = new byte[PAGE_SIZE];
+
+        PageKey hot = pageKey(0);
+        cache.writePage(hot, buffer, PAGE_SIZE);
+        assertEquals(cache.readPage(hot, buffer), PAGE_SIZE);
+
+        // a scan of pages read once does not evict the page read twice
+        for (int page = 1; page <= 10; page++) {
+            cache.writePage(pageKey(page), buffer, PAGE_SIZE);
+        }
+        assertTrue(cache.isCached(hot));
+        assertTrue(cache.isCached(pageKey(10)));
+        assertFalse(cache.isCached(pageKey(1)));
+        assertEquals(cache.getCachedPageCount(), 3);
+        assertEquals(cache.getEvictions().getTotalCount(), 8);
+
+        cache.flushCache();
+        assertEquals(cache.getCachedPageCount(), 0);
+        assertEquals(cache.getCachedBytes(), 0);
+        assertEquals(cache.readPage(hot, buffer), -1);
+
+        cache.destroy();
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        LocalBlockCache cache = LocalBlockCache.disabled();
+        assertFalse(cache.isEnabled());
+        assertSame(cache.wrap(localFileSystem), localFileSystem);
+
+        byte[] buffer = new byte[1];
+        cache.writePage(pageKey(0), buffer, 1);
+        assertEquals(cache.readPage(pageKey(0), buffer), -1);
+    }
+
+    private LocalBlockCache createCache(int pages)
+    {
+        return new LocalBlockCache(Optional.of(tempDirectory.resolve("cache")), DataSize.of(pages * 4, KILOBYTE), DataSize.ofBytes(PAGE_SIZE), true);
+    }
+
+    private static PageKey pageKey(int page)
+    {
+        return new PageKey("file:///test/file.orc", 100 * PAGE_SIZE, 1, page);
+    }
+
+    private byte[] writeFile(Path path, int length, long seed)
+            throws IOException
+    {
+        byte[] data = new byte[length];
+        new Random(seed).nextBytes(data);
+        try (FSDataOutputStream output = localFileSystem.create(path, true)) {
+            output.write(data);
+        }
+        return data;
+    }
+
+    private static byte[] readFile(FileSystem fileSystem, Path path)
+            throws IOException
+    {
+        try (FSDataInputStream input = fileSystem.open(path)) {
+            byte[] data = new byte[(int) fileSystem.getFileStatus(path).getLen()];
+            input.readFully(data);
+            assertEquals(input.read(), -1);
+            return data;
+        }
+    }
+}
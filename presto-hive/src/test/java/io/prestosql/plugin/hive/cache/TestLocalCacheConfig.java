@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.cache;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import javax.validation.constraints.AssertTrue;
+
+import java.util.Map;
+
+import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static io.airlift.testing.ValidationAssertions.assertFailsValidation;
+import static io.airlift.testing.ValidationAssertions.assertValidates;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class TestLocalCacheConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(LocalCacheConfig.class)
+                .setEnabled(false)
+                .setLocation(null)
+                .setMaxSize(DataSize.of(10, GIGABYTE))
+                .setPageSize(DataSize.of(1, MEGABYTE))
+                .setChecksumValidationEnabled(true)
+                .setSoftAffinitySchedulingEnabled(true));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("hive.local-cache.enabled", "true")
+                .put("hive.local-cache.location", "/some-directory")
+                .put("hive.local-cache.max-size", "100GB")
+                .put("hive.local-cache.page-size", "256kB")
+                .put("hive.local-cache.checksum-validation-enabled", "false")
+                .put("hive.local-cache.soft-affinity-scheduling-enabled", "false")
+                .build();
+
+        LocalCacheConfig expected = new LocalCacheConfig()
+                .setEnabled(true)
+                .setLocation("/some-directory")
+                .setMaxSize(DataSize.of(100, GIGABYTE))
+                .setPageSize(DataSize.of(256, KILOBYTE))
+                .setChecksumValidationEnabled(false)
+                .setSoftAffinitySchedulingEnabled(false);
+
+        assertFullMapping(properties, expected);
+    }
+
+    @Test
+    public void testValidation()
+    {
+        assertValidates(new LocalCacheConfig());
+        assertValidates(new LocalCacheConfig()
+                .setEnabled(true)
+                .setLocation("/some-directory"));
+
+        assertFailsValidation(
+                new LocalCacheConfig().setEnabled(true),
+                "locationSetWhenEnabled",
+                "hive.local-cache.location must be set when the local cache is enabled",
+                AssertTrue.class);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.cache;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.metadata.InternalNode;
+import io.prestosql.spi.HostAddress;
+import io.prestosql.spi.Node;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.client.NodeVersion.UNKNOWN;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestSoftAffinityProvider
+{
+    private static final List<Node> NODES = IntStream.range(0, 10)
+            .mapToObj(TestSoftAffinityProvider::createNode)
+            .collect(toImmutableList());
+
+    @Test
+    public void testPreferredNodes()
+    {
+        SoftAffinityProvider provider = new SoftAffinityProvider(true, () -> NODES);
+
+        List<HostAddress> addresses = provider.getAddresses("s3://bucket/table/file1.orc", 0, ImmutableList.of());
+        assertEquals(addresses.size(), 2);
+        assertNotEquals(addresses.get(0), addresses.get(1));
+        assertEquals(provider.getAddresses("s3://bucket/table/file1.orc", 0, ImmutableList.of()), addresses);
+
+        // files are spread over the workers
+        long distinctFirstAddresses = IntStream.range(0, 100)
+                .mapToObj(file -> provider.getAddresses("s3://bucket/table/file" + file + ".orc", 0, ImmutableList.of()).get(0))
+                .distinct()
+                .count();
+        assertTrue(distinctFirstAddresses > NODES.size() / 2);
+    }
+
+    @Test
+    public void testPartsOfFileSpreadOverNodes()
+    {
+        SoftAffinityProvider provider = new SoftAffinityProvider(true, () -> NODES);
+        String path = "s3://bucket/table/large.orc";
+        long blockSize = 32 * 1024 * 1024;
+
+        assertEquals(provider.getAddresses(path, blockSize, ImmutableList.of()), provider.getAddresses(path, blockSize, ImmutableList.of()));
+        long distinctFirstAddresses = IntStream.range(0, 100)
+                .mapToObj(block -> provider.getAddresses(path, block * blockSize, ImmutableList.of()).get(0))
+                .distinct()
+                .count();
+        assertTrue(distinctFirstAddresses > NODES.size() / 2);
+    }
+
+    @Test
+    public void testStableWhenOtherNodeLeaves()
+    {
+        String path = "s3://bucket/table/file1.orc";
+        List<HostAddress> addresses = new SoftAffinityProvider(true, () -> NODES).getAddresses(path, 0, ImmutableList.of());
+
+        Node leavingNode = NODES.stream()
+                .filter(node -> !addresses.contains(node.getHostAndPort()))
+                .findFirst()
+                .orElseThrow();
+        List<Node> remainingNodes = NODES.stream()
+                .filter(node -> node != leavingNode)
+                .collect(toImmutableList());
+        assertEquals(new SoftAffinityProvider(true, () -> remainingNodes).getAddresses(path, 0, ImmutableList.of()), addresses);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        List<HostAddress> defaultAddresses = ImmutableList.of(HostAddress.fromParts("10.0.0.1", 8020));
+        assertSame(SoftAffinityProvider.disabled().getAddresses("s3://bucket/file.orc", 0, defaultAddresses), defaultAddresses);
+        assertSame(new SoftAffinityProvider(true, ImmutableList::of).getAddresses("s3://bucket/file.orc", 0, defaultAddresses), defaultAddresses);
+    }
+
+    private static Node createNode(int node)
+    {
+        return new InternalNode("node" + node, URI.create("http://10.0.0." + node + ":8080"), UNKNOWN, false);
+    }
+}
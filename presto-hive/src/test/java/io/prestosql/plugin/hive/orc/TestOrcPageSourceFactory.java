@@ -18,10 +18,12 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.prestosql.plugin.hive.AcidInfo;
 import io.prestosql.plugin.hive.FileFormatDataSourceStats;
+import io.prestosql.plugin.hive.FileMetadataCache;
 import io.prestosql.plugin.hive.HiveColumnHandle;
 import io.prestosql.plugin.hive.HiveConfig;
 import io.prestosql.plugin.hive.HivePageSourceFactory;
 import io.prestosql.plugin.hive.HivePageSourceFactory.ReaderPageSourceWithProjections;
+import io.prestosql.plugin.hive.ReadAheadExecutor;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.connector.ConnectorPageSource;
 import io.prestosql.spi.predicate.Domain;
@@ -76,7 +78,9 @@ public class TestOrcPageSourceFactory
             new OrcReaderConfig(),
             HDFS_ENVIRONMENT,
             new FileFormatDataSourceStats(),
-            new HiveConfig());
+            new HiveConfig(),
+            FileMetadataCache.noCache(),
+            ReadAheadExecutor.noReadAhead());
 
     @Test
     public void testFullFileRead()
@@ -193,6 +197,7 @@ public class TestOrcPageSourceFactory
                 0,
                 fileSize,
                 fileSize,
+                0,
                 createSchema(),
                 columnHandles,
                 tupleDomain,
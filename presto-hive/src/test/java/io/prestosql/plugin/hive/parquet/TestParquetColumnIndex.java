@@ -0,0 +1,277 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.parquet;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.orc.OrcReaderConfig;
+import io.prestosql.orc.OrcWriterConfig;
+import io.prestosql.plugin.hive.FileFormatDataSourceStats;
+import io.prestosql.plugin.hive.HiveColumnHandle;
+import io.prestosql.plugin.hive.HiveConfig;
+import io.prestosql.plugin.hive.HivePageSourceFactory.ReaderPageSourceWithProjections;
+import io.prestosql.plugin.hive.HiveSessionProperties;
+import io.prestosql.plugin.hive.HiveStorageFormat;
+import io.prestosql.plugin.hive.HiveType;
+import io.prestosql.plugin.hive.parquet.ParquetTester.TempFile;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.predicate.ValueSet;
+import io.prestosql.spi.type.ArrayType;
+import io.prestosql.spi.type.RowType;
+import io.prestosql.spi.type.Type;
+import io.prestosql.testing.MaterializedRow;
+import io.prestosql.testing.TestingConnectorSession;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.mapred.JobConf;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.function.Predicate;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.REGULAR;
+import static io.prestosql.plugin.hive.HiveColumnHandle.createBaseColumn;
+import static io.prestosql.plugin.hive.HiveTestUtils.HDFS_ENVIRONMENT;
+import static io.prestosql.plugin.hive.HiveType.HIVE_LONG;
+import static io.prestosql.plugin.hive.HiveType.HIVE_STRING;
+import static io.prestosql.plugin.hive.parquet.ParquetTester.createTableProperties;
+import static io.prestosql.plugin.hive.parquet.ParquetTester.writeParquetColumn;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.RowType.field;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.testing.MaterializedResult.materializeSourceDataStream;
+import static org.apache.hadoop.hive.serde.serdeConstants.SERIALIZATION_LIB;
+import static org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory.getStandardListObjectInspector;
+import static org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory.getStandardStructObjectInspector;
+import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaLongObjectInspector;
+import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaStringObjectInspector;
+import static org.apache.parquet.column.ParquetProperties.WriterVersion.PARQUET_1_0;
+import static org.apache.parquet.hadoop.ParquetOutputFormat.COMPRESSION;
+import static org.apache.parquet.hadoop.ParquetOutputFormat.ENABLE_DICTIONARY;
+import static org.apache.parquet.hadoop.ParquetOutputFormat.PAGE_SIZE;
+import static org.apache.parquet.hadoop.ParquetOutputFormat.WRITER_VERSION;
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.SNAPPY;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestParquetColumnIndex
+{
+    private static final int ROW_COUNT = 10_000;
+
+    private static final List<String> COLUMN_NAMES = ImmutableList.of("id", "name", "nested");
+    private static final List<ObjectInspector> OBJECT_INSPECTORS = ImmutableList.of(
+            javaLongObjectInspector,
+            javaStringObjectInspector,
+            getStandardStructObjectInspector(
+                    ImmutableList.of("a", "b"),
+                    ImmutableList.of(javaLongObjectInspector, getStandardListObjectInspector(javaLongObjectInspector))));
+    private static final RowType NESTED_TYPE = RowType.from(ImmutableList.of(field("a", BIGINT), field("b", new ArrayType(BIGINT))));
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR, NESTED_TYPE);
+
+    private static final HiveColumnHandle ID_COLUMN = createBaseColumn("id", 0, HIVE_LONG, BIGINT, REGULAR, Optional.empty());
+    private static final HiveColumnHandle NAME_COLUMN = createBaseColumn("name", 1, HIVE_STRING, VARCHAR, REGULAR, Optional.empty());
+    private static final HiveColumnHandle NESTED_COLUMN = createBaseColumn("nested", 2, HiveType.valueOf("struct<a:bigint,b:array<bigint>>"), NESTED_TYPE, REGULAR, Optional.empty());
+    private static final List<HiveColumnHandle> COLUMNS = ImmutableList.of(ID_COLUMN, NAME_COLUMN, NESTED_COLUMN);
+
+    private TempFile tempFile;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        tempFile = new TempFile("column-index", "parquet");
+
+        // small pages, so that every column chunk has many pages, with boundaries that differ between columns
+        JobConf jobConf = new JobConf();
+        jobConf.setEnum(COMPRESSION, SNAPPY);
+        jobConf.setBoolean(ENABLE_DICTIONARY, true);
+        jobConf.setEnum(WRITER_VERSION, PARQUET_1_0);
+        jobConf.setInt(PAGE_SIZE, 1024);
+
+        List<Long> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<List<?>> nested = new ArrayList<>();
+        for (long id = 0; id < ROW_COUNT; id++) {
+            ids.add(id);
+            // low cardinality, so the column is dictionary encoded
+            names.add(id % 7 == 0 ? null : "name_" + (id % 10));
+            List<Long> elements = new ArrayList<>();
+            for (int i = 0; i < id % 4; i++) {
+                elements.add(id + i);
+            }
+            nested.add(id % 5 == 0 ? null : Arrays.asList(id * 2, id % 11 == 0 ? null : elements));
+        }
+
+        writeParquetColumn(
+                jobConf,
+                tempFile.getFile(),
+                SNAPPY,
+                createTableProperties(COLUMN_NAMES, OBJECT_INSPECTORS),
+                getStandardStructObjectInspector(COLUMN_NAMES, OBJECT_INSPECTORS),
+                new Iterator<?>[] {ids.iterator(), names.iterator(), nested.iterator()},
+                Optional.empty(),
+                false);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        if (tempFile != null) {
+            tempFile.close();
+            tempFile = null;
+        }
+    }
+
+    @Test
+    public void testRange()
+    {
+        assertColumnIndex(
+                TupleDomain.withColumnDomains(ImmutableMap.of(ID_COLUMN, Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 3_000L, true, 3_150L, true)), false))),
+                row -> id(row) >= 3_000 && id(row) <= 3_150,
+                151);
+    }
+
+    @Test
+    public void testMultipleRanges()
+    {
+        assertColumnIndex(
+                TupleDomain.withColumnDomains(ImmutableMap.of(ID_COLUMN, Domain.multipleValues(BIGINT, ImmutableList.of(10L, 5_000L, 9_999L)))),
+                row -> id(row) == 10 || id(row) == 5_000 || id(row) == 9_999,
+                3);
+    }
+
+    @Test
+    public void testMultipleColumns()
+    {
+        assertColumnIndex(
+                TupleDomain.withColumnDomains(ImmutableMap.of(
+                        ID_COLUMN, Domain.create(ValueSet.ofRanges(Range.greaterThanOrEqual(BIGINT, 9_500L)), false),
+                        NAME_COLUMN, Domain.singleValue(VARCHAR, utf8Slice("name_3")))),
+                row -> id(row) >= 9_500 && "name_3".equals(row.getField(1)),
+                43);
+    }
+
+    @Test
+    public void testNullValues()
+    {
+        assertColumnIndex(
+                TupleDomain.withColumnDomains(ImmutableMap.of(
+                        ID_COLUMN, Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 2_000L, true, 2_100L, true)), false),
+                        NAME_COLUMN, Domain.onlyNull(VARCHAR))),
+                row -> id(row) >= 2_000 && id(row) <= 2_100 && row.getField(1) == null,
+                15);
+    }
+
+    private void assertColumnIndex(TupleDomain<HiveColumnHandle> predicate, Predicate<MaterializedRow> filter, int expectedRows)
+    {
+        FileFormatDataSourceStats withoutColumnIndexStats = new FileFormatDataSourceStats();
+        List<MaterializedRow> withoutColumnIndex = readRows(predicate, false, withoutColumnIndexStats);
+        assertEquals(withoutColumnIndexStats.getParquetSkippedPages().getTotalCount(), 0);
+
+        FileFormatDataSourceStats withColumnIndexStats = new FileFormatDataSourceStats();
+        List<MaterializedRow> withColumnIndex = readRows(predicate, true, withColumnIndexStats);
+
+        // the column index only prunes pages, so it may return non-matching rows from the remaining pages
+        assertTrue(withColumnIndex.size() < withoutColumnIndex.size(), "no rows were skipped");
+        assertTrue(withColumnIndexStats.getParquetSkippedPages().getTotalCount() > 0, "no pages were skipped");
+
+        List<MaterializedRow> expected = withoutColumnIndex.stream()
+                .filter(filter)
+                .collect(toImmutableList());
+        assertEquals(expected.size(), expectedRows);
+        assertEquals(withColumnIndex.stream().filter(filter).collect(toImmutableList()), expected);
+
+        // rows are read with all their values, not only the values of the predicate columns
+        for (MaterializedRow row : expected) {
+            long id = id(row);
+            assertEquals(row.getField(1), id % 7 == 0 ? null : "name_" + (id % 10));
+            if (id % 5 == 0) {
+                assertEquals(row.getField(2), null);
+            }
+            else {
+                List<?> nested = (List<?>) row.getField(2);
+                assertEquals(nested.get(0), id * 2);
+                if (id % 11 == 0) {
+                    assertEquals(nested.get(1), null);
+                }
+                else {
+                    assertEquals(((List<?>) nested.get(1)).size(), id % 4);
+                }
+            }
+        }
+    }
+
+    private List<MaterializedRow> readRows(TupleDomain<HiveColumnHandle> predicate, boolean useColumnIndex, FileFormatDataSourceStats stats)
+    {
+        ConnectorSession session = TestingConnectorSession.builder()
+                .setPropertyMetadata(new HiveSessionProperties(
+                        new HiveConfig(),
+                        new OrcReaderConfig(),
+                        new OrcWriterConfig(),
+                        new ParquetReaderConfig().setUseColumnIndex(useColumnIndex),
+                        new ParquetWriterConfig())
+                        .getSessionProperties())
+                .build();
+        ParquetPageSourceFactory pageSourceFactory = new ParquetPageSourceFactory(HDFS_ENVIRONMENT, stats, new ParquetReaderConfig(), new HiveConfig().setParquetTimeZone("UTC"));
+
+        Properties schema = new Properties();
+        schema.setProperty(SERIALIZATION_LIB, HiveStorageFormat.PARQUET.getSerDe());
+
+        File file = tempFile.getFile();
+        ReaderPageSourceWithProjections pageSourceWithProjections = pageSourceFactory.createPageSource(
+                new Configuration(false),
+                session,
+                new Path(file.toURI()),
+                0,
+                file.length(),
+                file.length(),
+                file.lastModified(),
+                schema,
+                COLUMNS,
+                predicate,
+                Optional.empty())
+                .orElseThrow();
+        assertFalse(pageSourceWithProjections.getProjectedReaderColumns().isPresent());
+
+        try (ConnectorPageSource pageSource = pageSourceWithProjections.getConnectorPageSource()) {
+            return materializeSourceDataStream(session, pageSource, TYPES).getMaterializedRows();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long id(MaterializedRow row)
+    {
+        return (long) row.getField(0);
+    }
+}
@@ -34,7 +34,9 @@ public class TestParquetReaderConfig
                 .setFailOnCorruptedStatistics(true)
                 .setMaxReadBlockSize(DataSize.of(16, MEGABYTE))
                 .setMaxMergeDistance(DataSize.of(1, MEGABYTE))
-                .setMaxBufferSize(DataSize.of(8, MEGABYTE)));
+                .setMaxBufferSize(DataSize.of(8, MEGABYTE))
+                .setUseColumnIndex(true)
+                .setUseBloomFilter(true));
     }
 
     @Test
@@ -45,13 +47,17 @@ public class TestParquetReaderConfig
                 .put("parquet.max-read-block-size", "66kB")
                 .put("parquet.max-buffer-size", "1431kB")
                 .put("parquet.max-merge-distance", "342kB")
+                .put("parquet.use-column-index", "false")
+                .put("parquet.use-bloom-filter", "false")
                 .build();
 
         ParquetReaderConfig expected = new ParquetReaderConfig()
                 .setFailOnCorruptedStatistics(false)
                 .setMaxReadBlockSize(DataSize.of(66, KILOBYTE))
                 .setMaxBufferSize(DataSize.of(1431, KILOBYTE))
-                .setMaxMergeDistance(DataSize.of(342, KILOBYTE));
+                .setMaxMergeDistance(DataSize.of(342, KILOBYTE))
+                .setUseColumnIndex(false)
+                .setUseBloomFilter(false);
 
         assertFullMapping(properties, expected);
     }
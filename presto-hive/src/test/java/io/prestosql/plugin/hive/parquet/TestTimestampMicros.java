@@ -113,6 +113,7 @@ public class TestTimestampMicros
                 0,
                 parquetFile.length(),
                 parquetFile.length(),
+                parquetFile.lastModified(),
                 schema,
                 List.of(createBaseColumn(columnName, 0, columnHiveType, columnType, REGULAR, Optional.empty())),
                 TupleDomain.all(),
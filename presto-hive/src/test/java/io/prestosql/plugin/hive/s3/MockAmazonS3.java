@@ -26,9 +26,15 @@ import com.amazonaws.services.s3.model.PutObjectResult;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.amazonaws.services.s3.model.StorageClass;
+import com.google.common.collect.ImmutableList;
 
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
 import static java.net.HttpURLConnection.HTTP_OK;
 
 public class MockAmazonS3
@@ -40,6 +46,8 @@ public class MockAmazonS3
     private CannedAccessControlList acl;
     private boolean hasGlacierObjects;
     private boolean hasHadoopFolderMarkerObjects;
+    private byte[] objectContent;
+    private final List<long[]> getObjectRanges = new ArrayList<>();
 
     public void setGetObjectHttpErrorCode(int getObjectHttpErrorCode)
     {
@@ -66,6 +74,16 @@ public class MockAmazonS3
         this.hasHadoopFolderMarkerObjects = hasHadoopFolderMarkerObjects;
     }
 
+    public void setObjectContent(byte[] objectContent)
+    {
+        this.objectContent = objectContent;
+    }
+
+    public synchronized List<long[]> getGetObjectRanges()
+    {
+        return ImmutableList.copyOf(getObjectRanges);
+    }
+
     public GetObjectMetadataRequest getGetObjectMetadataRequest()
     {
         return getObjectMetadataRequest;
@@ -91,7 +109,18 @@ public class MockAmazonS3
             exception.setStatusCode(getObjectHttpCode);
             throw exception;
         }
-        return null;
+        if (objectContent == null) {
+            return null;
+        }
+        long[] range = getObjectRequest.getRange();
+        synchronized (this) {
+            getObjectRanges.add(range);
+        }
+        int start = toIntExact(range[0]);
+        int end = toIntExact(min(range[1] + 1, objectContent.length));
+        S3Object object = new S3Object();
+        object.setObjectContent(new ByteArrayInputStream(objectContent, start, end - start));
+        return object;
     }
 
     @Override
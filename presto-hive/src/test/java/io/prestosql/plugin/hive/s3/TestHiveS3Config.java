@@ -66,7 +66,9 @@ public class TestHiveS3Config
                 .setS3UserAgentPrefix("")
                 .setS3AclType(PrestoS3AclType.PRIVATE)
                 .setSkipGlacierObjects(false)
-                .setRequesterPaysEnabled(false));
+                .setRequesterPaysEnabled(false)
+                .setS3VectoredReadEnabled(true)
+                .setS3VectoredReadMaxConcurrency(8));
     }
 
     @Test
@@ -106,6 +108,8 @@ public class TestHiveS3Config
                 .put("hive.s3.upload-acl-type", "PUBLIC_READ")
                 .put("hive.s3.skip-glacier-objects", "true")
                 .put("hive.s3.requester-pays.enabled", "true")
+                .put("hive.s3.vectored-read.enabled", "false")
+                .put("hive.s3.vectored-read.max-concurrency", "3")
                 .build();
 
         HiveS3Config expected = new HiveS3Config()
@@ -138,7 +142,9 @@ public class TestHiveS3Config
                 .setS3UserAgentPrefix("user-agent-prefix")
                 .setS3AclType(PrestoS3AclType.PUBLIC_READ)
                 .setSkipGlacierObjects(true)
-                .setRequesterPaysEnabled(true);
+                .setRequesterPaysEnabled(true)
+                .setS3VectoredReadEnabled(false)
+                .setS3VectoredReadMaxConcurrency(3);
 
         assertFullMapping(properties, expected);
     }
@@ -37,7 +37,12 @@ import com.amazonaws.services.s3.model.StorageClass;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenService;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenServiceClient;
 import com.google.common.base.VerifyException;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.prestosql.orc.DiskRange;
 import io.prestosql.plugin.hive.s3.PrestoS3FileSystem.UnrecoverableS3OperationException;
+import io.prestosql.plugin.hive.util.VectoredReadable;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
@@ -65,6 +70,7 @@ import java.util.Map;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.testing.Assertions.assertInstanceOf;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_ACCESS_KEY;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_ACL_TYPE;
@@ -86,6 +92,8 @@ import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_SKIP_GLACIER_OBJ
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STAGING_DIRECTORY;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_USER_AGENT_PREFIX;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_USER_AGENT_SUFFIX;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_VECTORED_READ_ENABLED;
+import static java.lang.Math.toIntExact;
 import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
 import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
@@ -295,6 +303,77 @@ public class TestPrestoS3FileSystem
         }
     }
 
+    @Test
+    public void testVectoredRead()
+            throws Exception
+    {
+        byte[] content = new byte[8 * 1024 * 1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        try (PrestoS3FileSystem fs = new PrestoS3FileSystem()) {
+            MockAmazonS3 s3 = new MockAmazonS3();
+            s3.setObjectContent(content);
+            fs.initialize(new URI("s3n://test-bucket/"), new Configuration(false));
+            fs.setS3Client(s3);
+            fs.setVectoredReadExecutor(directExecutor());
+            try (FSDataInputStream inputStream = fs.open(new Path("s3n://test-bucket/test"))) {
+                VectoredReadable vectoredReadable = VectoredReadable.getVectoredReadable(inputStream).orElseThrow();
+
+                // the two ranges at the start of the object are close enough to be read with a single request
+                List<DiskRange> ranges = ImmutableList.of(new DiskRange(5_000_000, 100), new DiskRange(2000, 500), new DiskRange(0, 1000));
+                List<Slice> slices = vectoredReadable.readVectoredFully(ranges, DiskRange::getOffset, DiskRange::getLength);
+
+                assertEquals(slices.size(), ranges.size());
+                for (int i = 0; i < ranges.size(); i++) {
+                    DiskRange range = ranges.get(i);
+                    assertEquals(slices.get(i), Slices.wrappedBuffer(content, toIntExact(range.getOffset()), range.getLength()));
+                }
+                assertThat(s3.getGetObjectRanges())
+                        .containsExactlyInAnyOrder(new long[] {0, 2499}, new long[] {5_000_000, 5_000_099});
+            }
+        }
+    }
+
+    @Test
+    public void testVectoredReadDisabled()
+            throws Exception
+    {
+        try (PrestoS3FileSystem fs = new PrestoS3FileSystem()) {
+            Configuration configuration = new Configuration(false);
+            configuration.setBoolean(S3_VECTORED_READ_ENABLED, false);
+            fs.initialize(new URI("s3n://test-bucket/"), configuration);
+            fs.setS3Client(new MockAmazonS3());
+            fs.setVectoredReadExecutor(directExecutor());
+            try (FSDataInputStream inputStream = fs.open(new Path("s3n://test-bucket/test"))) {
+                assertTrue(VectoredReadable.getVectoredReadable(inputStream).isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void testVectoredReadExecutorFromCatalog()
+            throws Exception
+    {
+        PrestoS3ConfigurationInitializer initializer = new PrestoS3ConfigurationInitializer(new HiveS3Config());
+        try (PrestoS3FileSystem fs = new PrestoS3FileSystem()) {
+            fs.initialize(new URI("s3n://test-bucket/"), new Configuration(false));
+            fs.setS3Client(new MockAmazonS3());
+            // file systems created outside of a catalog have no pool for vectored reads
+            try (FSDataInputStream inputStream = fs.open(new Path("s3n://test-bucket/test"))) {
+                assertTrue(VectoredReadable.getVectoredReadable(inputStream).isEmpty());
+            }
+
+            initializer.initializeFileSystem(fs);
+            try (FSDataInputStream inputStream = fs.open(new Path("s3n://test-bucket/test"))) {
+                assertTrue(VectoredReadable.getVectoredReadable(inputStream).isPresent());
+            }
+        }
+        finally {
+            initializer.destroy();
+        }
+    }
+
     @SuppressWarnings({"OverlyStrongTypeCast", "ConstantConditions"})
     @Test
     public void testGetMetadataRetryCounter()
@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.util;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.concurrent.Threads;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.plugin.hive.util.ParallelTransformIterator.parallelTransform;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestParallelTransformIterator
+{
+    private static final List<Integer> VALUES = IntStream.range(0, 100).boxed().collect(toImmutableList());
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUpClass()
+    {
+        executor = Executors.newFixedThreadPool(8, Threads.daemonThreadsNamed("test-parallel-transform-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDownClass()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test(timeOut = 10_000)
+    public void testOrderAndConcurrency()
+    {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Iterable<String> results = parallelTransform(VALUES, executor, 4, value -> {
+            int current = running.incrementAndGet();
+            maxRunning.accumulateAndGet(current, Math::max);
+            sleep(1);
+            running.decrementAndGet();
+            return "value" + value;
+        });
+
+        assertEquals(ImmutableList.copyOf(results), VALUES.stream().map(value -> "value" + value).collect(toImmutableList()));
+        assertTrue(maxRunning.get() <= 4, "maxRunning: " + maxRunning.get());
+    }
+
+    @Test(timeOut = 10_000)
+    public void testExecutorNotRunningTasks()
+    {
+        // tasks which are never picked up by the executor are computed by the consumer
+        Iterable<Integer> results = parallelTransform(VALUES, command -> {}, 4, value -> value * 2);
+        assertEquals(ImmutableList.copyOf(results), VALUES.stream().map(value -> value * 2).collect(toImmutableList()));
+    }
+
+    @Test(timeOut = 10_000)
+    public void testSingleConcurrency()
+    {
+        AtomicInteger computed = new AtomicInteger();
+        Iterator<Integer> iterator = parallelTransform(VALUES, command -> fail("executor should not be used"), 1, value -> {
+            computed.incrementAndGet();
+            return value;
+        }).iterator();
+
+        assertEquals(iterator.next(), (Integer) 0);
+        assertEquals(computed.get(), 1);
+        assertTrue(iterator.hasNext());
+        assertEquals(computed.get(), 2);
+    }
+
+    @Test(timeOut = 10_000)
+    public void testFailure()
+    {
+        Iterator<Integer> iterator = parallelTransform(VALUES, executor, 4, value -> {
+            if (value == 2) {
+                throw new IllegalStateException("test failure");
+            }
+            return value;
+        }).iterator();
+
+        assertEquals(iterator.next(), (Integer) 0);
+        assertEquals(iterator.next(), (Integer) 1);
+        assertThatThrownBy(iterator::next)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("test failure");
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        assertFalse(parallelTransform(ImmutableList.<Integer>of(), executor, 4, value -> value).iterator().hasNext());
+    }
+
+    private static void sleep(long millis)
+    {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.util;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.DataSize;
+import io.prestosql.orc.DiskRange;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestReadAheadBuffer
+{
+    private static final byte[] FILE = new byte[100_000];
+
+    static {
+        for (int i = 0; i < FILE.length; i++) {
+            FILE[i] = (byte) i;
+        }
+    }
+
+    @Test
+    public void testRead()
+            throws IOException
+    {
+        CountingReader reader = new CountingReader();
+        ReadAheadBuffer buffer = new ReadAheadBuffer(directExecutor(), reader, DataSize.ofBytes(100), DataSize.of(1, KILOBYTE));
+
+        // the first two ranges are close enough to be read together
+        ListenableFuture<?> future = buffer.readAhead(
+                ImmutableList.of(new DiskRange(1000, 100), new DiskRange(1150, 50), new DiskRange(5000, 100)),
+                DiskRange::getOffset,
+                DiskRange::getLength);
+        assertTrue(future.isDone());
+        assertEquals(reader.getReads(), 2);
+        assertEquals(buffer.getRetainedSize(), 300);
+
+        assertRead(buffer, 1000, 100);
+        assertRead(buffer, 1100, 100);
+        assertRead(buffer, 5010, 50);
+        assertEquals(reader.getReads(), 2);
+
+        // ranges not covered by the buffer are left to the data source
+        assertFalse(buffer.read(900, new byte[200], 0, 200));
+        assertFalse(buffer.read(5050, new byte[100], 0, 100));
+        assertFalse(buffer.read(0, new byte[10], 0, 10));
+    }
+
+    @Test
+    public void testMaxBatchSize()
+            throws IOException
+    {
+        ReadAheadBuffer buffer = new ReadAheadBuffer(directExecutor(), new CountingReader(), DataSize.ofBytes(0), DataSize.of(1, KILOBYTE));
+        buffer.readAhead(
+                ImmutableList.of(new DiskRange(0, 600), new DiskRange(10_000, 600), new DiskRange(20_000, 600)),
+                DiskRange::getOffset,
+                DiskRange::getLength);
+
+        assertEquals(buffer.getRetainedSize(), 1200);
+        assertRead(buffer, 10_000, 600);
+        assertFalse(buffer.read(20_000, new byte[600], 0, 600));
+    }
+
+    @Test
+    public void testEviction()
+            throws IOException
+    {
+        ReadAheadBuffer buffer = new ReadAheadBuffer(directExecutor(), new CountingReader(), DataSize.ofBytes(0), DataSize.of(1, KILOBYTE));
+        readAhead(buffer, 0, 100);
+        readAhead(buffer, 1000, 100);
+        assertRead(buffer, 0, 100);
+
+        // only the last two batches are retained
+        readAhead(buffer, 2000, 100);
+        assertFalse(buffer.read(0, new byte[100], 0, 100));
+        assertRead(buffer, 1000, 100);
+        assertRead(buffer, 2000, 100);
+        assertEquals(buffer.getRetainedSize(), 200);
+
+        buffer.close();
+        assertFalse(buffer.read(2000, new byte[100], 0, 100));
+        assertEquals(buffer.getRetainedSize(), 0);
+    }
+
+    @Test
+    public void testFailedRead()
+            throws IOException
+    {
+        ReadAheadBuffer buffer = new ReadAheadBuffer(
+                directExecutor(),
+                (position, data, offset, length) -> {
+                    throw new IOException("test");
+                },
+                DataSize.ofBytes(0),
+                DataSize.of(1, KILOBYTE));
+
+        // the future completes, and the failed range is read again by the data source
+        ListenableFuture<?> future = readAhead(buffer, 0, 100);
+        assertTrue(future.isDone());
+        assertFalse(buffer.read(0, new byte[100], 0, 100));
+    }
+
+    private static ListenableFuture<?> readAhead(ReadAheadBuffer buffer, long offset, int length)
+    {
+        List<DiskRange> ranges = ImmutableList.of(new DiskRange(offset, length));
+        return buffer.readAhead(ranges, DiskRange::getOffset, DiskRange::getLength);
+    }
+
+    private static void assertRead(ReadAheadBuffer buffer, int position, int length)
+            throws IOException
+    {
+        byte[] data = new byte[length + 10];
+        assertTrue(buffer.read(position, data, 10, length));
+        assertEquals(Arrays.copyOfRange(data, 10, data.length), Arrays.copyOfRange(FILE, position, position + length));
+    }
+
+    private static class CountingReader
+            implements ReadAheadBuffer.PositionedReader
+    {
+        private final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
+        {
+            reads.incrementAndGet();
+            System.arraycopy(FILE, (int) position, buffer, bufferOffset, bufferLength);
+        }
+
+        public int getReads()
+        {
+            return reads.get();
+        }
+    }
+}
@@ -22,6 +22,7 @@ import io.prestosql.orc.OrcWriterOptions;
 import io.prestosql.orc.OrcWriterStats;
 import io.prestosql.orc.OutputStreamOrcDataSink;
 import io.prestosql.parquet.writer.ParquetWriterOptions;
+import io.prestosql.parquet.writer.ParquetWriterStats;
 import io.prestosql.plugin.hive.FileFormatDataSourceStats;
 import io.prestosql.plugin.hive.HdfsEnvironment;
 import io.prestosql.plugin.hive.HdfsEnvironment.HdfsContext;
@@ -79,6 +80,7 @@ public class IcebergFileWriterFactory
     private final NodeVersion nodeVersion;
     private final FileFormatDataSourceStats readStats;
     private final OrcWriterStats orcWriterStats = new OrcWriterStats();
+    private final ParquetWriterStats parquetWriterStats = new ParquetWriterStats();
     private final OrcWriterOptions orcWriterOptions;
 
     @Inject
@@ -103,6 +105,12 @@ public class IcebergFileWriterFactory
         return orcWriterStats;
     }
 
+    @Managed
+    public ParquetWriterStats getParquetWriterStats()
+    {
+        return parquetWriterStats;
+    }
+
     public IcebergFileWriter createFileWriter(
             Path outputPath,
             Schema icebergSchema,
@@ -156,6 +164,7 @@ public class IcebergFileWriterFactory
                     parquetWriterOptions,
                     IntStream.range(0, fileColumnNames.size()).toArray(),
                     getCompressionCodec(session).getParquetCompressionCodec(),
+                    parquetWriterStats,
                     outputPath,
                     hdfsEnvironment,
                     hdfsContext);
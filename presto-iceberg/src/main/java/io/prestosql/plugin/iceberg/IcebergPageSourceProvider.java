@@ -90,6 +90,7 @@ import static io.prestosql.parquet.ParquetTypeUtils.getDescriptors;
 import static io.prestosql.parquet.ParquetTypeUtils.getParquetTypeByName;
 import static io.prestosql.parquet.predicate.PredicateUtils.buildPredicate;
 import static io.prestosql.parquet.predicate.PredicateUtils.predicateMatches;
+import static io.prestosql.plugin.hive.cache.CachingFileSystem.openFile;
 import static io.prestosql.plugin.hive.parquet.ParquetColumnIOConverter.constructField;
 import static io.prestosql.plugin.iceberg.IcebergErrorCode.ICEBERG_BAD_DATA;
 import static io.prestosql.plugin.iceberg.IcebergErrorCode.ICEBERG_CANNOT_OPEN_SPLIT;
@@ -201,6 +202,7 @@ public class IcebergPageSourceProvider
                         start,
                         length,
                         fileSize,
+                        fileStatus.getModificationTime(),
                         dataColumns,
                         predicate,
                         orcReaderOptions
@@ -239,6 +241,7 @@ public class IcebergPageSourceProvider
             long start,
             long length,
             long fileSize,
+            long fileModifiedTime,
             List<IcebergColumnHandle> columns,
             TupleDomain<IcebergColumnHandle> effectivePredicate,
             OrcReaderOptions options,
@@ -247,7 +250,7 @@ public class IcebergPageSourceProvider
         OrcDataSource orcDataSource = null;
         try {
             FileSystem fileSystem = hdfsEnvironment.getFileSystem(user, path, configuration);
-            FSDataInputStream inputStream = hdfsEnvironment.doAs(user, () -> fileSystem.open(path));
+            FSDataInputStream inputStream = hdfsEnvironment.doAs(user, () -> openFile(fileSystem, path, fileSize, fileModifiedTime));
             orcDataSource = new HdfsOrcDataSource(
                     new OrcDataSourceId(path.toString()),
                     fileSize,
@@ -360,7 +363,7 @@ public class IcebergPageSourceProvider
             FileSystem fileSystem = hdfsEnvironment.getFileSystem(user, path, configuration);
             FileStatus fileStatus = hdfsEnvironment.doAs(user, () -> fileSystem.getFileStatus(path));
             long estimatedFileSize = fileStatus.getLen();
-            FSDataInputStream inputStream = hdfsEnvironment.doAs(user, () -> fileSystem.open(path));
+            FSDataInputStream inputStream = hdfsEnvironment.doAs(user, () -> openFile(fileSystem, path, estimatedFileSize, fileStatus.getModificationTime()));
             dataSource = new HdfsParquetDataSource(new ParquetDataSourceId(path.toString()), estimatedFileSize, inputStream, fileFormatDataSourceStats, options);
             ParquetDataSource theDataSource = dataSource; // extra variable required for lambda below
             ParquetMetadata parquetMetadata = hdfsEnvironment.doAs(user, () -> MetadataReader.readFooter(theDataSource));
@@ -391,7 +394,7 @@ public class IcebergPageSourceProvider
             for (BlockMetaData block : parquetMetadata.getBlocks()) {
                 long firstDataPage = block.getColumns().get(0).getFirstDataPageOffset();
                 if ((firstDataPage >= start) && (firstDataPage < (start + length)) &&
-                        predicateMatches(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain, options.isFailOnCorruptedStatistics())) {
+                        predicateMatches(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain, options.isFailOnCorruptedStatistics(), options.isUseBloomFilter())) {
                     blocks.add(block);
                 }
             }
@@ -424,7 +427,7 @@ public class IcebergPageSourceProvider
                 }
             }
 
-            return new ParquetPageSource(parquetReader, prestoTypes.build(), internalFields.build());
+            return new ParquetPageSource(parquetReader, prestoTypes.build(), internalFields.build(), fileFormatDataSourceStats);
         }
         catch (IOException | RuntimeException e) {
             try {
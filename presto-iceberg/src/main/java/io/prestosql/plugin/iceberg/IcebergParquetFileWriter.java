@@ -14,6 +14,7 @@
 package io.prestosql.plugin.iceberg;
 
 import io.prestosql.parquet.writer.ParquetWriterOptions;
+import io.prestosql.parquet.writer.ParquetWriterStats;
 import io.prestosql.plugin.hive.HdfsEnvironment;
 import io.prestosql.plugin.hive.HdfsEnvironment.HdfsContext;
 import io.prestosql.plugin.hive.parquet.ParquetFileWriter;
@@ -49,6 +50,7 @@ public class IcebergParquetFileWriter
             ParquetWriterOptions parquetWriterOptions,
             int[] fileInputColumnIndexes,
             CompressionCodecName compressionCodecName,
+            ParquetWriterStats stats,
             Path outputPath,
             HdfsEnvironment hdfsEnvironment,
             HdfsContext hdfsContext)
@@ -60,7 +62,8 @@ public class IcebergParquetFileWriter
                 primitiveTypes,
                 parquetWriterOptions,
                 fileInputColumnIndexes,
-                compressionCodecName);
+                compressionCodecName,
+                stats);
         this.outputPath = requireNonNull(outputPath, "outputPath is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.hdfsContext = requireNonNull(hdfsContext, "hdfsContext is null");
@@ -15,6 +15,7 @@ package io.prestosql.plugin.iceberg;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Streams;
+import io.prestosql.plugin.hive.cache.SoftAffinityProvider;
 import io.prestosql.spi.connector.ConnectorPartitionHandle;
 import io.prestosql.spi.connector.ConnectorSplit;
 import io.prestosql.spi.connector.ConnectorSplitSource;
@@ -51,10 +52,12 @@ public class IcebergSplitSource
 {
     private final CloseableIterable<CombinedScanTask> combinedScanIterable;
     private final Iterator<FileScanTask> fileScanIterator;
+    private final SoftAffinityProvider softAffinityProvider;
 
-    public IcebergSplitSource(CloseableIterable<CombinedScanTask> combinedScanIterable)
+    public IcebergSplitSource(CloseableIterable<CombinedScanTask> combinedScanIterable, SoftAffinityProvider softAffinityProvider)
     {
         this.combinedScanIterable = requireNonNull(combinedScanIterable, "combinedScanIterable is null");
+        this.softAffinityProvider = requireNonNull(softAffinityProvider, "softAffinityProvider is null");
 
         this.fileScanIterator = Streams.stream(combinedScanIterable)
                 .map(CombinedScanTask::files)
@@ -99,12 +102,13 @@ public class IcebergSplitSource
         //       so when we do not use residual expression, we are just wasting CPU cycles
         //       on reader side evaluating a condition that we know will always be true.
 
+        String path = task.file().path().toString();
         return new IcebergSplit(
-                task.file().path().toString(),
+                path,
                 task.start(),
                 task.length(),
                 task.file().format(),
-                ImmutableList.of(),
+                softAffinityProvider.getAddresses(path, task.start(), ImmutableList.of()),
                 getPartitionKeys(task));
     }
 
@@ -38,8 +38,10 @@ import static io.prestosql.plugin.base.session.PropertyMetadataUtil.dataSizeProp
 import static io.prestosql.plugin.base.session.PropertyMetadataUtil.durationProperty;
 import static io.prestosql.spi.StandardErrorCode.INVALID_SESSION_PROPERTY;
 import static io.prestosql.spi.session.PropertyMetadata.booleanProperty;
+import static io.prestosql.spi.session.PropertyMetadata.doubleProperty;
 import static io.prestosql.spi.session.PropertyMetadata.enumProperty;
 import static io.prestosql.spi.session.PropertyMetadata.integerProperty;
+import static io.prestosql.spi.session.PropertyMetadata.longProperty;
 import static io.prestosql.spi.session.PropertyMetadata.stringProperty;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
 import static java.lang.Math.min;
@@ -50,6 +52,10 @@ public final class SystemSessionProperties
     public static final String OPTIMIZE_HASH_GENERATION = "optimize_hash_generation";
     public static final String JOIN_DISTRIBUTION_TYPE = "join_distribution_type";
     public static final String JOIN_MAX_BROADCAST_TABLE_SIZE = "join_max_broadcast_table_size";
+    public static final String ADAPTIVE_JOIN_DISTRIBUTION_ENABLED = "adaptive_join_distribution_enabled";
+    public static final String ADAPTIVE_JOIN_MAX_BROADCAST_BUILD_SIZE = "adaptive_join_max_broadcast_build_size";
+    public static final String ADAPTIVE_JOIN_MIN_PARTITIONED_BUILD_SIZE = "adaptive_join_min_partitioned_build_size";
+    public static final String ADAPTIVE_JOIN_MAX_BUILD_WAIT = "adaptive_join_max_build_wait";
     public static final String DISTRIBUTED_INDEX_JOIN = "distributed_index_join";
     public static final String HASH_PARTITION_COUNT = "hash_partition_count";
     public static final String GROUPED_EXECUTION = "grouped_execution";
@@ -87,11 +93,13 @@ public final class SystemSessionProperties
     public static final String SPILL_ENABLED = "spill_enabled";
     public static final String SPILL_ORDER_BY = "spill_order_by";
     public static final String SPILL_WINDOW_OPERATOR = "spill_window_operator";
+    public static final String SPILL_SEMI_JOIN = "spill_semi_join";
     public static final String AGGREGATION_OPERATOR_UNSPILL_MEMORY_LIMIT = "aggregation_operator_unspill_memory_limit";
     public static final String OPTIMIZE_DISTINCT_AGGREGATIONS = "optimize_mixed_distinct_aggregations";
     public static final String ITERATIVE_OPTIMIZER_TIMEOUT = "iterative_optimizer_timeout";
     public static final String ENABLE_FORCED_EXCHANGE_BELOW_GROUP_ID = "enable_forced_exchange_below_group_id";
     public static final String EXCHANGE_COMPRESSION = "exchange_compression";
+    public static final String SPOOLED_RESULTS_ENABLED = "spooled_results_enabled";
     public static final String ENABLE_INTERMEDIATE_AGGREGATIONS = "enable_intermediate_aggregations";
     public static final String PUSH_AGGREGATION_THROUGH_OUTER_JOIN = "push_aggregation_through_outer_join";
     public static final String PUSH_PARTIAL_AGGREGATION_THROUGH_JOIN = "push_partial_aggregation_through_join";
@@ -103,6 +111,9 @@ public final class SystemSessionProperties
     public static final String MAX_RECURSION_DEPTH = "max_recursion_depth";
     public static final String USE_MARK_DISTINCT = "use_mark_distinct";
     public static final String PREFER_PARTIAL_AGGREGATION = "prefer_partial_aggregation";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_ENABLED = "adaptive_partial_aggregation_enabled";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS = "adaptive_partial_aggregation_min_rows";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD = "adaptive_partial_aggregation_unique_rows_ratio_threshold";
     public static final String OPTIMIZE_TOP_N_ROW_NUMBER = "optimize_top_n_row_number";
     public static final String MAX_GROUPING_SETS = "max_grouping_sets";
     public static final String STATISTICS_CPU_TIMER_ENABLED = "statistics_cpu_timer_enabled";
@@ -118,6 +129,7 @@ public final class SystemSessionProperties
     public static final String LATE_MATERIALIZATION = "late_materialization";
     public static final String ENABLE_DYNAMIC_FILTERING = "enable_dynamic_filtering";
     public static final String ENABLE_LARGE_DYNAMIC_FILTERS = "enable_large_dynamic_filters";
+    public static final String ENABLE_BLOOM_FILTER_DYNAMIC_FILTERS = "enable_bloom_filter_dynamic_filters";
     public static final String QUERY_MAX_MEMORY_PER_NODE = "query_max_memory_per_node";
     public static final String QUERY_MAX_TOTAL_MEMORY_PER_NODE = "query_max_total_memory_per_node";
     public static final String IGNORE_DOWNSTREAM_PREFERENCES = "ignore_downstream_preferences";
@@ -165,6 +177,26 @@ public final class SystemSessionProperties
                         "Maximum estimated size of a table that can be broadcast when using automatic join type selection",
                         featuresConfig.getJoinMaxBroadcastTableSize(),
                         false),
+                booleanProperty(
+                        ADAPTIVE_JOIN_DISTRIBUTION_ENABLED,
+                        "Switch the distribution of joins at runtime based on the observed size of the build side",
+                        featuresConfig.isAdaptiveJoinDistributionEnabled(),
+                        false),
+                dataSizeProperty(
+                        ADAPTIVE_JOIN_MAX_BROADCAST_BUILD_SIZE,
+                        "Observed build side size above which a broadcast join is switched to a partitioned join",
+                        featuresConfig.getAdaptiveJoinMaxBroadcastBuildSize(),
+                        false),
+                dataSizeProperty(
+                        ADAPTIVE_JOIN_MIN_PARTITIONED_BUILD_SIZE,
+                        "Observed build side size below which a partitioned join is switched to a broadcast join",
+                        featuresConfig.getAdaptiveJoinMinPartitionedBuildSize(),
+                        false),
+                durationProperty(
+                        ADAPTIVE_JOIN_MAX_BUILD_WAIT,
+                        "Maximum time the stages which depend on an undecided adaptive join are held while its build side runs",
+                        featuresConfig.getAdaptiveJoinMaxBuildWait(),
+                        false),
                 booleanProperty(
                         DISTRIBUTED_INDEX_JOIN,
                         "Distribute index joins on join keys instead of executing inline",
@@ -358,6 +390,11 @@ public final class SystemSessionProperties
                         "Spill in WindowOperator if spill_enabled is also set",
                         featuresConfig.isSpillWindowOperator(),
                         false),
+                booleanProperty(
+                        SPILL_SEMI_JOIN,
+                        "Spill in semi join if spill_enabled is also set",
+                        featuresConfig.isSpillSemiJoin(),
+                        false),
                 dataSizeProperty(
                         AGGREGATION_OPERATOR_UNSPILL_MEMORY_LIMIT,
                         "How much memory should be allocated per aggregation operator in unspilling process",
@@ -383,6 +420,11 @@ public final class SystemSessionProperties
                         "Enable compression in exchanges",
                         featuresConfig.isExchangeCompressionEnabled(),
                         false),
+                booleanProperty(
+                        SPOOLED_RESULTS_ENABLED,
+                        "Let clients download query results directly from the workers",
+                        featuresConfig.isSpooledResultsEnabled(),
+                        false),
                 booleanProperty(
                         ENABLE_INTERMEDIATE_AGGREGATIONS,
                         "Enable the use of intermediate aggregations",
@@ -442,6 +484,31 @@ public final class SystemSessionProperties
                         "Prefer splitting aggregations into partial and final stages",
                         featuresConfig.isPreferPartialAggregation(),
                         false),
+                booleanProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_ENABLED,
+                        "Skip partial aggregation when it does not reduce the number of rows",
+                        featuresConfig.isAdaptivePartialAggregationEnabled(),
+                        false),
+                longProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS,
+                        "Minimum number of input rows processed by partial aggregation before it can be skipped",
+                        featuresConfig.getAdaptivePartialAggregationMinRows(),
+                        value -> {
+                            if (value < 0) {
+                                throw new PrestoException(INVALID_SESSION_PROPERTY, format("%s must be non-negative: %s", ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS, value));
+                            }
+                        },
+                        false),
+                doubleProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD,
+                        "Ratio of unique groups to input rows above which partial aggregation is skipped",
+                        featuresConfig.getAdaptivePartialAggregationUniqueRowsRatioThreshold(),
+                        value -> {
+                            if (value < 0.0 || value > 1.0) {
+                                throw new PrestoException(INVALID_SESSION_PROPERTY, format("%s must be between 0.0 and 1.0: %s", ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD, value));
+                            }
+                        },
+                        false),
                 booleanProperty(
                         OPTIMIZE_TOP_N_ROW_NUMBER,
                         "Use top N row number optimization",
@@ -522,6 +589,11 @@ public final class SystemSessionProperties
                         "Enable collection of large dynamic filters",
                         dynamicFilterConfig.isEnableLargeDynamicFilters(),
                         false),
+                booleanProperty(
+                        ENABLE_BLOOM_FILTER_DYNAMIC_FILTERS,
+                        "Enable collection of bloom filters for dynamic filters with too many distinct values, applied by table scans in the same task as the join",
+                        dynamicFilterConfig.isEnableBloomFilterDynamicFilters(),
+                        false),
                 dataSizeProperty(
                         QUERY_MAX_MEMORY_PER_NODE,
                         "Maximum amount of memory a query can use per node",
@@ -589,6 +661,26 @@ public final class SystemSessionProperties
         return session.getSystemProperty(JOIN_MAX_BROADCAST_TABLE_SIZE, DataSize.class);
     }
 
+    public static boolean isAdaptiveJoinDistributionEnabled(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_JOIN_DISTRIBUTION_ENABLED, Boolean.class);
+    }
+
+    public static DataSize getAdaptiveJoinMaxBroadcastBuildSize(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_JOIN_MAX_BROADCAST_BUILD_SIZE, DataSize.class);
+    }
+
+    public static DataSize getAdaptiveJoinMinPartitionedBuildSize(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_JOIN_MIN_PARTITIONED_BUILD_SIZE, DataSize.class);
+    }
+
+    public static Duration getAdaptiveJoinMaxBuildWait(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_JOIN_MAX_BUILD_WAIT, Duration.class);
+    }
+
     public static boolean isDistributedIndexJoinEnabled(Session session)
     {
         return session.getSystemProperty(DISTRIBUTED_INDEX_JOIN, Boolean.class);
@@ -776,6 +868,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(SPILL_WINDOW_OPERATOR, Boolean.class);
     }
 
+    public static boolean isSpillSemiJoin(Session session)
+    {
+        return session.getSystemProperty(SPILL_SEMI_JOIN, Boolean.class);
+    }
+
     public static DataSize getAggregationOperatorUnspillMemoryLimit(Session session)
     {
         DataSize memoryLimitForMerge = session.getSystemProperty(AGGREGATION_OPERATOR_UNSPILL_MEMORY_LIMIT, DataSize.class);
@@ -803,6 +900,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(EXCHANGE_COMPRESSION, Boolean.class);
     }
 
+    public static boolean isSpooledResultsEnabled(Session session)
+    {
+        return session.getSystemProperty(SPOOLED_RESULTS_ENABLED, Boolean.class);
+    }
+
     public static boolean isEnableIntermediateAggregations(Session session)
     {
         return session.getSystemProperty(ENABLE_INTERMEDIATE_AGGREGATIONS, Boolean.class);
@@ -848,6 +950,21 @@ public final class SystemSessionProperties
         return session.getSystemProperty(PREFER_PARTIAL_AGGREGATION, Boolean.class);
     }
 
+    public static boolean isAdaptivePartialAggregationEnabled(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_ENABLED, Boolean.class);
+    }
+
+    public static long getAdaptivePartialAggregationMinRows(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS, Long.class);
+    }
+
+    public static double getAdaptivePartialAggregationUniqueRowsRatioThreshold(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD, Double.class);
+    }
+
     public static boolean isOptimizeTopNRowNumber(Session session)
     {
         return session.getSystemProperty(OPTIMIZE_TOP_N_ROW_NUMBER, Boolean.class);
@@ -969,6 +1086,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(ENABLE_LARGE_DYNAMIC_FILTERS, Boolean.class);
     }
 
+    public static boolean isEnableBloomFilterDynamicFilters(Session session)
+    {
+        return session.getSystemProperty(ENABLE_BLOOM_FILTER_DYNAMIC_FILTERS, Boolean.class);
+    }
+
     public static DataSize getQueryMaxMemoryPerNode(Session session)
     {
         return session.getSystemProperty(QUERY_MAX_MEMORY_PER_NODE, DataSize.class);
@@ -14,14 +14,17 @@
 package io.prestosql.execution;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.DefunctConfig;
 import io.airlift.configuration.LegacyConfig;
 import io.airlift.units.DataSize;
 import io.airlift.units.MaxDataSize;
+import io.airlift.units.MinDataSize;
 
 import javax.validation.constraints.Min;
 
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 @DefunctConfig({
         "dynamic-filtering-max-per-driver-row-count",
@@ -35,6 +38,8 @@ public class DynamicFilterConfig
 {
     private boolean enableDynamicFiltering = true;
     private boolean enableLargeDynamicFilters;
+    private boolean enableBloomFilterDynamicFilters;
+    private DataSize bloomFilterMaxSizePerDriver = DataSize.of(1, MEGABYTE);
     private int serviceThreadCount = 2;
 
     private int smallBroadcastMaxDistinctValuesPerDriver = 200;
@@ -76,6 +81,34 @@ public class DynamicFilterConfig
         return this;
     }
 
+    public boolean isEnableBloomFilterDynamicFilters()
+    {
+        return enableBloomFilterDynamicFilters;
+    }
+
+    @Config("enable-bloom-filter-dynamic-filters")
+    @ConfigDescription("Enable collection of bloom filters for dynamic filters with too many distinct values. Bloom filters are only applied by table scans in the same task as the join")
+    public DynamicFilterConfig setEnableBloomFilterDynamicFilters(boolean enableBloomFilterDynamicFilters)
+    {
+        this.enableBloomFilterDynamicFilters = enableBloomFilterDynamicFilters;
+        return this;
+    }
+
+    @MinDataSize("32B")
+    @MaxDataSize("64MB")
+    public DataSize getBloomFilterMaxSizePerDriver()
+    {
+        return bloomFilterMaxSizePerDriver;
+    }
+
+    @Config("dynamic-filtering.bloom-filter.max-size-per-driver")
+    @ConfigDescription("Maximum size of the bloom filter collected by each build side driver of a join with task-local dynamic filters")
+    public DynamicFilterConfig setBloomFilterMaxSizePerDriver(DataSize bloomFilterMaxSizePerDriver)
+    {
+        this.bloomFilterMaxSizePerDriver = bloomFilterMaxSizePerDriver;
+        return this;
+    }
+
     @Min(1)
     public int getServiceThreadCount()
     {
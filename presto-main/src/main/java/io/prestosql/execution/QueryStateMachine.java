@@ -27,6 +27,7 @@ import io.airlift.units.Duration;
 import io.prestosql.Session;
 import io.prestosql.execution.QueryExecution.QueryOutputInfo;
 import io.prestosql.execution.StateMachine.StateChangeListener;
+import io.prestosql.execution.scheduler.AdaptiveJoinDecision;
 import io.prestosql.execution.warnings.WarningCollector;
 import io.prestosql.memory.VersionedMemoryPoolId;
 import io.prestosql.metadata.Metadata;
@@ -156,6 +157,7 @@ public class QueryStateMachine
     private final AtomicReference<Optional<Output>> output = new AtomicReference<>(Optional.empty());
     private final AtomicReference<List<TableInfo>> referencedTables = new AtomicReference<>(ImmutableList.of());
     private final AtomicReference<List<RoutineInfo>> routines = new AtomicReference<>(ImmutableList.of());
+    private final AtomicReference<List<AdaptiveJoinDecision>> adaptiveJoinDecisions = new AtomicReference<>(ImmutableList.of());
     private final StateMachine<Optional<QueryInfo>> finalQueryInfo;
 
     private final WarningCollector warningCollector;
@@ -622,6 +624,8 @@ public class QueryStateMachine
 
                 getDynamicFiltersStats(),
 
+                adaptiveJoinDecisions.get(),
+
                 operatorStatsSummary.build());
     }
 
@@ -674,6 +678,12 @@ public class QueryStateMachine
         this.routines.set(ImmutableList.copyOf(routines));
     }
 
+    public void setAdaptiveJoinDecisions(List<AdaptiveJoinDecision> adaptiveJoinDecisions)
+    {
+        requireNonNull(adaptiveJoinDecisions, "adaptiveJoinDecisions is null");
+        this.adaptiveJoinDecisions.set(ImmutableList.copyOf(adaptiveJoinDecisions));
+    }
+
     private DynamicFiltersStats getDynamicFiltersStats()
     {
         synchronized (dynamicFiltersStatsSupplierLock) {
@@ -1159,6 +1169,7 @@ public class QueryStateMachine
                 queryStats.getPhysicalWrittenDataSize(),
                 queryStats.getStageGcStatistics(),
                 queryStats.getDynamicFiltersStats(),
+                queryStats.getAdaptiveJoinDecisions(),
                 ImmutableList.of()); // Remove the operator summaries as OperatorInfo (especially ExchangeClientStatus) can hold onto a large amount of memory
     }
 
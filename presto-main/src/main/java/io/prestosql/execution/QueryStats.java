@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.prestosql.execution.scheduler.AdaptiveJoinDecision;
 import io.prestosql.operator.BlockedReason;
 import io.prestosql.operator.OperatorStats;
 import io.prestosql.operator.TableWriterOperator;
@@ -105,6 +106,8 @@ public class QueryStats
 
     private final DynamicFiltersStats dynamicFiltersStats;
 
+    private final List<AdaptiveJoinDecision> adaptiveJoinDecisions;
+
     private final List<OperatorStats> operatorSummaries;
 
     @JsonCreator
@@ -174,6 +177,8 @@ public class QueryStats
 
             @JsonProperty("dynamicFiltersStats") DynamicFiltersStats dynamicFiltersStats,
 
+            @JsonProperty("adaptiveJoinDecisions") List<AdaptiveJoinDecision> adaptiveJoinDecisions,
+
             @JsonProperty("operatorSummaries") List<OperatorStats> operatorSummaries)
     {
         this.createTime = requireNonNull(createTime, "createTime is null");
@@ -253,6 +258,8 @@ public class QueryStats
 
         this.dynamicFiltersStats = requireNonNull(dynamicFiltersStats, "dynamicFiltersStats is null");
 
+        this.adaptiveJoinDecisions = ImmutableList.copyOf(requireNonNull(adaptiveJoinDecisions, "adaptiveJoinDecisions is null"));
+
         this.operatorSummaries = ImmutableList.copyOf(requireNonNull(operatorSummaries, "operatorSummaries is null"));
     }
 
@@ -582,6 +589,12 @@ public class QueryStats
         return dynamicFiltersStats;
     }
 
+    @JsonProperty
+    public List<AdaptiveJoinDecision> getAdaptiveJoinDecisions()
+    {
+        return adaptiveJoinDecisions;
+    }
+
     @JsonProperty
     public List<OperatorStats> getOperatorSummaries()
     {
@@ -13,6 +13,8 @@
  */
 package io.prestosql.execution;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
 import io.airlift.log.Logger;
@@ -31,6 +33,7 @@ import io.prestosql.execution.scheduler.ExecutionPolicy;
 import io.prestosql.execution.scheduler.NodeScheduler;
 import io.prestosql.execution.scheduler.SplitSchedulerStats;
 import io.prestosql.execution.scheduler.SqlQueryScheduler;
+import io.prestosql.execution.scheduler.SqlQueryScheduler.RunningStages;
 import io.prestosql.execution.warnings.WarningCollector;
 import io.prestosql.failuredetector.FailureDetector;
 import io.prestosql.memory.VersionedMemoryPoolId;
@@ -50,6 +53,7 @@ import io.prestosql.sql.analyzer.Analysis;
 import io.prestosql.sql.analyzer.Analyzer;
 import io.prestosql.sql.analyzer.QueryExplainer;
 import io.prestosql.sql.parser.SqlParser;
+import io.prestosql.sql.planner.AdaptiveJoinDistribution.AdaptiveJoin;
 import io.prestosql.sql.planner.DistributedExecutionPlanner;
 import io.prestosql.sql.planner.InputExtractor;
 import io.prestosql.sql.planner.LogicalPlanner;
@@ -63,6 +67,7 @@ import io.prestosql.sql.planner.StageExecutionPlan;
 import io.prestosql.sql.planner.SubPlan;
 import io.prestosql.sql.planner.TypeAnalyzer;
 import io.prestosql.sql.planner.optimizations.PlanOptimizer;
+import io.prestosql.sql.planner.plan.PlanNodeId;
 import io.prestosql.sql.tree.Explain;
 import io.prestosql.sql.tree.Query;
 import io.prestosql.sql.tree.Statement;
@@ -75,6 +80,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicReference;
@@ -84,6 +90,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.throwIfInstanceOf;
 import static io.airlift.units.DataSize.succinctBytes;
+import static io.prestosql.SystemSessionProperties.isAdaptiveJoinDistributionEnabled;
 import static io.prestosql.SystemSessionProperties.isEnableDynamicFiltering;
 import static io.prestosql.execution.buffer.OutputBuffers.BROADCAST_PARTITION_ID;
 import static io.prestosql.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
@@ -91,6 +98,8 @@ import static io.prestosql.execution.scheduler.SqlQueryScheduler.createSqlQueryS
 import static io.prestosql.server.DynamicFilterService.DynamicFiltersStats;
 import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
 import static io.prestosql.sql.ParameterUtils.parameterExtractor;
+import static io.prestosql.sql.planner.AdaptiveJoinDistribution.findAdaptiveJoins;
+import static io.prestosql.sql.planner.AdaptiveJoinDistribution.switchJoinDistributions;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -454,7 +463,7 @@ public class SqlQueryExecution
         SubPlan fragmentedPlan = planFragmenter.createSubPlans(stateMachine.getSession(), plan, false, stateMachine.getWarningCollector());
 
         boolean explainAnalyze = analysis.getStatement() instanceof Explain && ((Explain) analysis.getStatement()).isAnalyze();
-        return new PlanRoot(fragmentedPlan, !explainAnalyze);
+        return new PlanRoot(fragmentedPlan, !explainAnalyze, idAllocator);
     }
 
     private void planDistribution(PlanRoot plan)
@@ -478,6 +487,15 @@ public class SqlQueryExecution
         // record output field
         stateMachine.setColumns(outputStageExecutionPlan.getFieldNames(), outputStageExecutionPlan.getFragment().getTypes());
 
+        List<AdaptiveJoin> adaptiveJoins = ImmutableList.of();
+        if (isAdaptiveJoinDistributionEnabled(stateMachine.getSession())) {
+            adaptiveJoins = findAdaptiveJoins(plan.getRoot());
+        }
+        createScheduler(plan, outputStageExecutionPlan, Optional.empty(), adaptiveJoins);
+    }
+
+    private void createScheduler(PlanRoot plan, StageExecutionPlan outputStageExecutionPlan, Optional<RunningStages> runningStages, List<AdaptiveJoin> adaptiveJoins)
+    {
         PartitioningHandle partitioningHandle = plan.getRoot().getFragment().getPartitioningScheme().getPartitioning().getHandle();
         OutputBuffers rootOutputBuffers = createInitialEmptyOutputBuffers(partitioningHandle)
                 .withBuffer(OUTPUT_BUFFER_ID, BROADCAST_PARTITION_ID)
@@ -500,7 +518,10 @@ public class SqlQueryExecution
                 nodeTaskMap,
                 executionPolicy,
                 schedulerStats,
-                dynamicFilterService);
+                dynamicFilterService,
+                runningStages,
+                adaptiveJoins,
+                (joinIds, releasedStages) -> rescheduleWithSwitchedJoins(plan, outputStageExecutionPlan, joinIds, releasedStages));
 
         queryScheduler.set(scheduler);
 
@@ -512,6 +533,50 @@ public class SqlQueryExecution
         }
     }
 
+    private void rescheduleWithSwitchedJoins(PlanRoot plan, StageExecutionPlan outputStageExecutionPlan, Set<PlanNodeId> joinIds, RunningStages runningStages)
+    {
+        try (SetThreadName ignored = new SetThreadName("Query-%s", stateMachine.getQueryId())) {
+            SubPlan switchedPlan = switchJoinDistributions(
+                    plan.getRoot(),
+                    joinIds,
+                    queryPlan.get(),
+                    plan.getIdAllocator(),
+                    metadata,
+                    typeOperators,
+                    stateMachine.getSession(),
+                    new TypeAnalyzer(sqlParser, metadata));
+            PlanRoot switchedPlanRoot = new PlanRoot(switchedPlan, plan.isSummarizeTaskInfos(), plan.getIdAllocator());
+
+            // the dynamic filters which are lazy or replicated depend on the distribution of the joins
+            dynamicFilterService.updateQueryPlan(stateMachine.getQueryId(), switchedPlan);
+
+            // the split sources are reused, and are closed when the query is done
+            DistributedExecutionPlanner distributedPlanner = new DistributedExecutionPlanner(splitManager, metadata, dynamicFilterService);
+            StageExecutionPlan switchedStageExecutionPlan = distributedPlanner.plan(switchedPlan, stateMachine.getSession(), getSplitSources(outputStageExecutionPlan));
+            if (stateMachine.isDone()) {
+                return;
+            }
+
+            // the distribution of the joins is switched at most once
+            createScheduler(switchedPlanRoot, switchedStageExecutionPlan, Optional.of(runningStages), ImmutableList.of());
+
+            SqlQueryScheduler scheduler = queryScheduler.get();
+            if (!stateMachine.isDone()) {
+                scheduler.start();
+            }
+        }
+    }
+
+    private static Map<PlanNodeId, SplitSource> getSplitSources(StageExecutionPlan plan)
+    {
+        ImmutableMap.Builder<PlanNodeId, SplitSource> splitSources = ImmutableMap.builder();
+        splitSources.putAll(plan.getSplitSources());
+        for (StageExecutionPlan stage : plan.getSubStages()) {
+            splitSources.putAll(getSplitSources(stage));
+        }
+        return splitSources.build();
+    }
+
     private static void closeSplitSources(StageExecutionPlan plan)
     {
         for (SplitSource source : plan.getSplitSources().values()) {
@@ -654,11 +719,13 @@ public class SqlQueryExecution
     {
         private final SubPlan root;
         private final boolean summarizeTaskInfos;
+        private final PlanNodeIdAllocator idAllocator;
 
-        public PlanRoot(SubPlan root, boolean summarizeTaskInfos)
+        public PlanRoot(SubPlan root, boolean summarizeTaskInfos, PlanNodeIdAllocator idAllocator)
         {
             this.root = requireNonNull(root, "root is null");
             this.summarizeTaskInfos = summarizeTaskInfos;
+            this.idAllocator = requireNonNull(idAllocator, "idAllocator is null");
         }
 
         public SubPlan getRoot()
@@ -670,6 +737,11 @@ public class SqlQueryExecution
         {
             return summarizeTaskInfos;
         }
+
+        public PlanNodeIdAllocator getIdAllocator()
+        {
+            return idAllocator;
+        }
     }
 
     public static class SqlQueryExecutionFactory
@@ -66,6 +66,7 @@ import static io.prestosql.failuredetector.FailureDetector.State.GONE;
 import static io.prestosql.operator.ExchangeOperator.REMOTE_CONNECTOR_ID;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spi.StandardErrorCode.REMOTE_HOST_GONE;
+import static io.prestosql.sql.planner.AdaptiveJoinDistribution.isReplicatedBuildReader;
 import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
@@ -80,6 +81,8 @@ public final class SqlStageExecution
     private final DynamicFilterService dynamicFilterService;
 
     private final Map<PlanFragmentId, RemoteSourceNode> exchangeSources;
+    // each source task is read by a single task of the stage, instead of by all of them
+    private final boolean readSourceTasksOnce;
 
     private final Map<InternalNode, Set<RemoteTask>> tasks = new ConcurrentHashMap<>();
 
@@ -102,6 +105,8 @@ public final class SqlStageExecution
     private final Set<PlanNodeId> completeSources = newConcurrentHashSet();
     @GuardedBy("this")
     private final Set<PlanFragmentId> completeSourceFragments = newConcurrentHashSet();
+    @GuardedBy("this")
+    private OptionalInt totalPartitions = OptionalInt.empty();
 
     private final AtomicReference<OutputBuffers> outputBuffers = new AtomicReference<>();
 
@@ -167,6 +172,7 @@ public final class SqlStageExecution
             }
         }
         this.exchangeSources = fragmentToExchangeSource.build();
+        this.readSourceTasksOnce = isReplicatedBuildReader(stateMachine.getFragment());
     }
 
     // this is a separate method to ensure that the `this` reference is not leaked during construction
@@ -324,8 +330,10 @@ public final class SqlStageExecution
         for (RemoteTask task : getAllTasks()) {
             ImmutableMultimap.Builder<PlanNodeId, Split> newSplits = ImmutableMultimap.builder();
             for (RemoteTask sourceTask : sourceTasks) {
-                URI exchangeLocation = sourceTask.getTaskStatus().getSelf();
-                newSplits.put(remoteSource.getId(), createRemoteSplitFor(task.getTaskId(), exchangeLocation));
+                if (readsSourceTask(task.getTaskId(), sourceTask)) {
+                    URI exchangeLocation = sourceTask.getTaskStatus().getSelf();
+                    newSplits.put(remoteSource.getId(), createRemoteSplitFor(task.getTaskId(), exchangeLocation));
+                }
             }
             task.addSplits(newSplits.build());
         }
@@ -433,13 +441,16 @@ public final class SqlStageExecution
     private synchronized RemoteTask scheduleTask(InternalNode node, TaskId taskId, Multimap<PlanNodeId, Split> sourceSplits, OptionalInt totalPartitions)
     {
         checkArgument(!allTasks.contains(taskId), "A task with id %s already exists", taskId);
+        if (totalPartitions.isPresent()) {
+            this.totalPartitions = totalPartitions;
+        }
 
         ImmutableMultimap.Builder<PlanNodeId, Split> initialSplits = ImmutableMultimap.builder();
         initialSplits.putAll(sourceSplits);
 
         sourceTasks.forEach((planNodeId, task) -> {
             TaskStatus status = task.getTaskStatus();
-            if (status.getState() != TaskState.FINISHED) {
+            if (status.getState() != TaskState.FINISHED && readsSourceTask(taskId, task)) {
                 initialSplits.put(planNodeId, createRemoteSplitFor(taskId, status.getSelf()));
             }
         });
@@ -488,10 +499,21 @@ public final class SqlStageExecution
         stateMachine.recordGetSplitTime(start);
     }
 
-    private static Split createRemoteSplitFor(TaskId taskId, URI taskLocation)
+    private synchronized boolean readsSourceTask(TaskId taskId, RemoteTask sourceTask)
+    {
+        if (!readSourceTasksOnce) {
+            return true;
+        }
+        checkState(totalPartitions.isPresent(), "Stage %s reads each source task once, but the number of its tasks is unknown", getStageId());
+        return sourceTask.getTaskId().getId() % totalPartitions.getAsInt() == taskId.getId();
+    }
+
+    private Split createRemoteSplitFor(TaskId taskId, URI taskLocation)
     {
-        // Fetch the results from the buffer assigned to the task based on id
-        URI splitLocation = uriBuilderFrom(taskLocation).appendPath("results").appendPath(String.valueOf(taskId.getId())).build();
+        // Fetch the results from the buffer assigned to the task based on id, or from
+        // the only buffer of the source task when each source task is read once
+        int bufferId = readSourceTasksOnce ? 0 : taskId.getId();
+        URI splitLocation = uriBuilderFrom(taskLocation).appendPath("results").appendPath(String.valueOf(bufferId)).build();
         return new Split(REMOTE_CONNECTOR_ID, new RemoteSplit(splitLocation), Lifespan.taskWide());
     }
 
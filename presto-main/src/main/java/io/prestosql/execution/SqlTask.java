@@ -30,6 +30,7 @@ import io.prestosql.execution.buffer.LazyOutputBuffer;
 import io.prestosql.execution.buffer.OutputBuffer;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
+import io.prestosql.execution.buffer.PageBufferAllocator;
 import io.prestosql.memory.QueryContext;
 import io.prestosql.operator.PipelineContext;
 import io.prestosql.operator.PipelineStatus;
@@ -64,6 +65,7 @@ import static io.prestosql.execution.DynamicFiltersCollector.INITIAL_DYNAMIC_FIL
 import static io.prestosql.execution.TaskState.ABORTED;
 import static io.prestosql.execution.TaskState.FAILED;
 import static io.prestosql.execution.TaskState.RUNNING;
+import static io.prestosql.execution.TaskStatus.NO_ACKNOWLEDGED_SPLIT;
 import static io.prestosql.util.Failures.toFailures;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -100,9 +102,10 @@ public class SqlTask
             Function<SqlTask, ?> onDone,
             DataSize maxBufferSize,
             DataSize maxBroadcastBufferSize,
+            PageBufferAllocator pageBufferAllocator,
             CounterStat failedTasks)
     {
-        SqlTask sqlTask = new SqlTask(taskId, location, nodeId, queryContext, sqlTaskExecutionFactory, taskNotificationExecutor, maxBufferSize, maxBroadcastBufferSize);
+        SqlTask sqlTask = new SqlTask(taskId, location, nodeId, queryContext, sqlTaskExecutionFactory, taskNotificationExecutor, maxBufferSize, maxBroadcastBufferSize, pageBufferAllocator);
         sqlTask.initialize(onDone, failedTasks);
         return sqlTask;
     }
@@ -115,7 +118,8 @@ public class SqlTask
             SqlTaskExecutionFactory sqlTaskExecutionFactory,
             ExecutorService taskNotificationExecutor,
             DataSize maxBufferSize,
-            DataSize maxBroadcastBufferSize)
+            DataSize maxBroadcastBufferSize,
+            PageBufferAllocator pageBufferAllocator)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.taskInstanceId = UUID.randomUUID().toString();
@@ -135,6 +139,7 @@ public class SqlTask
                 // Pass a memory context supplier instead of a memory context to the output buffer,
                 // because we haven't created the task context that holds the the memory context yet.
                 () -> queryContext.getTaskContextByTaskId(taskId).localSystemMemoryContext(),
+                pageBufferAllocator,
                 () -> notifyStatusChanged());
         taskStateMachine = new TaskStateMachine(taskId, taskNotificationExecutor);
     }
@@ -278,6 +283,7 @@ public class SqlTask
         long fullGcCount = 0;
         Duration fullGcTime = new Duration(0, MILLISECONDS);
         long dynamicFiltersVersion = INITIAL_DYNAMIC_FILTERS_VERSION;
+        long maxAcknowledgedSplit = NO_ACKNOWLEDGED_SPLIT;
         if (taskHolder.getFinalTaskInfo() != null) {
             TaskInfo taskInfo = taskHolder.getFinalTaskInfo();
             TaskStats taskStats = taskInfo.getStats();
@@ -307,6 +313,7 @@ public class SqlTask
             fullGcCount = taskContext.getFullGcCount();
             fullGcTime = taskContext.getFullGcTime();
             dynamicFiltersVersion = taskContext.getDynamicFiltersVersion();
+            maxAcknowledgedSplit = taskHolder.getTaskExecution().getMaxAcknowledgedSplit();
         }
 
         return new TaskStatus(taskStateMachine.getTaskId(),
@@ -326,7 +333,8 @@ public class SqlTask
                 revocableMemoryReservation,
                 fullGcCount,
                 fullGcTime,
-                dynamicFiltersVersion);
+                dynamicFiltersVersion,
+                maxAcknowledgedSplit);
     }
 
     private TaskStats getTaskStats(TaskHolder taskHolder)
@@ -73,6 +73,7 @@ import static io.prestosql.SystemSessionProperties.getSplitConcurrencyAdjustment
 import static io.prestosql.execution.SqlTaskExecution.SplitsState.ADDING_SPLITS;
 import static io.prestosql.execution.SqlTaskExecution.SplitsState.FINISHED;
 import static io.prestosql.execution.SqlTaskExecution.SplitsState.NO_MORE_SPLITS;
+import static io.prestosql.execution.TaskStatus.NO_ACKNOWLEDGED_SPLIT;
 import static io.prestosql.operator.PipelineExecutionStrategy.UNGROUPED_EXECUTION;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -130,8 +131,9 @@ public class SqlTaskExecution
     @GuardedBy("this")
     private final ConcurrentMap<PlanNodeId, TaskSource> unpartitionedSources = new ConcurrentHashMap<>();
 
+    // guarded for update only
     @GuardedBy("this")
-    private long maxAcknowledgedSplit = Long.MIN_VALUE;
+    private volatile long maxAcknowledgedSplit = NO_ACKNOWLEDGED_SPLIT;
 
     @GuardedBy("this")
     private final SchedulingLifespanManager schedulingLifespanManager;
@@ -283,6 +285,11 @@ public class SqlTaskExecution
         return taskContext;
     }
 
+    public long getMaxAcknowledgedSplit()
+    {
+        return maxAcknowledgedSplit;
+    }
+
     public void addSources(List<TaskSource> sources)
     {
         requireNonNull(sources, "sources is null");
@@ -170,6 +170,7 @@ public class SqlTaskManager
                         },
                         maxBufferSize,
                         maxBroadcastBufferSize,
+                        localMemoryManager.getPageBufferAllocator(),
                         failedTasks)));
     }
 
@@ -105,6 +105,23 @@ public class TaskInfo
         return new TaskInfo(taskStatus, lastHeartbeat, outputBuffers.summarize(), noMoreSplits, stats.summarize(), needsPlan);
     }
 
+    /**
+     * Drops the pipeline statistics of a running task, which are the bulk of the task info.
+     * The info of a finished task is returned unchanged.
+     */
+    public TaskInfo withoutRunningPipelineStats()
+    {
+        if (taskStatus.getState().isDone()) {
+            return this;
+        }
+        return withStats(stats.summarize());
+    }
+
+    public TaskInfo withStats(TaskStats stats)
+    {
+        return new TaskInfo(taskStatus, lastHeartbeat, outputBuffers, noMoreSplits, stats, needsPlan);
+    }
+
     @Override
     public String toString()
     {
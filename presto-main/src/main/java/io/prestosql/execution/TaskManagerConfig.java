@@ -64,6 +64,8 @@ public class TaskManagerConfig
 
     private Duration statusRefreshMaxWait = new Duration(1, TimeUnit.SECONDS);
     private Duration infoUpdateInterval = new Duration(3, TimeUnit.SECONDS);
+    private boolean incrementalInfoEnabled;
+    private Duration infoFullRefreshInterval = new Duration(30, TimeUnit.SECONDS);
 
     private int writerCount = 1;
     private int taskConcurrency = 16;
@@ -74,6 +76,8 @@ public class TaskManagerConfig
     private int taskYieldThreads = 3;
 
     private BigDecimal levelTimeMultiplier = new BigDecimal(2.0);
+    private boolean concurrentSplitQueueEnabled;
+    private boolean splitAffinityEnabled;
 
     @MinDuration("1ms")
     @MaxDuration("10s")
@@ -106,6 +110,34 @@ public class TaskManagerConfig
         return this;
     }
 
+    public boolean isIncrementalInfoEnabled()
+    {
+        return incrementalInfoEnabled;
+    }
+
+    @Config("task.incremental-info-enabled")
+    @ConfigDescription("Omit pipeline statistics of running tasks from task data updates between full refreshes")
+    public TaskManagerConfig setIncrementalInfoEnabled(boolean incrementalInfoEnabled)
+    {
+        this.incrementalInfoEnabled = incrementalInfoEnabled;
+        return this;
+    }
+
+    @MinDuration("1ms")
+    @NotNull
+    public Duration getInfoFullRefreshInterval()
+    {
+        return infoFullRefreshInterval;
+    }
+
+    @Config("task.info-full-refresh-interval")
+    @ConfigDescription("Interval between updates of task data with pipeline statistics, when incremental updates are enabled")
+    public TaskManagerConfig setInfoFullRefreshInterval(Duration infoFullRefreshInterval)
+    {
+        this.infoFullRefreshInterval = infoFullRefreshInterval;
+        return this;
+    }
+
     public boolean isPerOperatorCpuTimerEnabled()
     {
         return perOperatorCpuTimerEnabled;
@@ -209,6 +241,32 @@ public class TaskManagerConfig
         return this;
     }
 
+    public boolean isConcurrentSplitQueueEnabled()
+    {
+        return concurrentSplitQueueEnabled;
+    }
+
+    @Config("task.concurrent-split-queue-enabled")
+    @ConfigDescription("Queue the splits waiting for a worker thread without a global lock, which reduces contention on machines with many cores")
+    public TaskManagerConfig setConcurrentSplitQueueEnabled(boolean concurrentSplitQueueEnabled)
+    {
+        this.concurrentSplitQueueEnabled = concurrentSplitQueueEnabled;
+        return this;
+    }
+
+    public boolean isSplitAffinityEnabled()
+    {
+        return splitAffinityEnabled;
+    }
+
+    @Config("task.split-affinity-enabled")
+    @ConfigDescription("Run splits on the worker thread which ran them last when their priority allows it, with idle threads taking queued splits from busy threads")
+    public TaskManagerConfig setSplitAffinityEnabled(boolean splitAffinityEnabled)
+    {
+        this.splitAffinityEnabled = splitAffinityEnabled;
+        return this;
+    }
+
     @Min(1)
     public int getMaxWorkerThreads()
     {
@@ -46,6 +46,11 @@ public class TaskStatus
      */
     private static final long MAX_VERSION = Long.MAX_VALUE;
 
+    /**
+     * Value of {@link #getMaxAcknowledgedSplit()} before the task received any split.
+     */
+    public static final long NO_ACKNOWLEDGED_SPLIT = Long.MIN_VALUE;
+
     private final TaskId taskId;
     private final String taskInstanceId;
     private final long version;
@@ -68,6 +73,7 @@ public class TaskStatus
     private final List<ExecutionFailureInfo> failures;
 
     private final long dynamicFiltersVersion;
+    private final long maxAcknowledgedSplit;
 
     @JsonCreator
     public TaskStatus(
@@ -88,7 +94,8 @@ public class TaskStatus
             @JsonProperty("revocableMemoryReservation") DataSize revocableMemoryReservation,
             @JsonProperty("fullGcCount") long fullGcCount,
             @JsonProperty("fullGcTime") Duration fullGcTime,
-            @JsonProperty("dynamicFiltersVersion") long dynamicFiltersVersion)
+            @JsonProperty("dynamicFiltersVersion") long dynamicFiltersVersion,
+            @JsonProperty("maxAcknowledgedSplit") long maxAcknowledgedSplit)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.taskInstanceId = requireNonNull(taskInstanceId, "taskInstanceId is null");
@@ -120,6 +127,7 @@ public class TaskStatus
         this.fullGcTime = requireNonNull(fullGcTime, "fullGcTime is null");
         checkArgument(dynamicFiltersVersion >= INITIAL_DYNAMIC_FILTERS_VERSION, "dynamicFiltersVersion must be >= INITIAL_DYNAMIC_FILTERS_VERSION");
         this.dynamicFiltersVersion = dynamicFiltersVersion;
+        this.maxAcknowledgedSplit = maxAcknowledgedSplit;
     }
 
     @JsonProperty
@@ -230,6 +238,16 @@ public class TaskStatus
         return dynamicFiltersVersion;
     }
 
+    /**
+     * Sequence id of the last split received by the task. Splits with a lower or equal
+     * sequence id do not need to be sent to the task again.
+     */
+    @JsonProperty
+    public long getMaxAcknowledgedSplit()
+    {
+        return maxAcknowledgedSplit;
+    }
+
     @Override
     public String toString()
     {
@@ -259,7 +277,8 @@ public class TaskStatus
                 DataSize.ofBytes(0),
                 0,
                 new Duration(0, MILLISECONDS),
-                INITIAL_DYNAMIC_FILTERS_VERSION);
+                INITIAL_DYNAMIC_FILTERS_VERSION,
+                NO_ACKNOWLEDGED_SPLIT);
     }
 
     public static TaskStatus failWith(TaskStatus taskStatus, TaskState state, List<ExecutionFailureInfo> exceptions)
@@ -282,6 +301,7 @@ public class TaskStatus
                 taskStatus.getRevocableMemoryReservation(),
                 taskStatus.getFullGcCount(),
                 taskStatus.getFullGcTime(),
-                taskStatus.getDynamicFiltersVersion());
+                taskStatus.getDynamicFiltersVersion(),
+                taskStatus.getMaxAcknowledgedSplit());
     }
 }
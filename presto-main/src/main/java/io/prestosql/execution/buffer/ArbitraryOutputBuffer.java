@@ -60,6 +60,7 @@ public class ArbitraryOutputBuffer
         implements OutputBuffer
 {
     private final OutputBufferMemoryManager memoryManager;
+    private final PageBufferAllocator pageBufferAllocator;
 
     @GuardedBy("this")
     private OutputBuffers outputBuffers = createInitialEmptyOutputBuffers(ARBITRARY);
@@ -83,7 +84,8 @@ public class ArbitraryOutputBuffer
             StateMachine<BufferState> state,
             DataSize maxBufferSize,
             Supplier<LocalMemoryContext> systemMemoryContextSupplier,
-            Executor notificationExecutor)
+            Executor notificationExecutor,
+            PageBufferAllocator pageBufferAllocator)
     {
         this.taskInstanceId = requireNonNull(taskInstanceId, "taskInstanceId is null");
         this.state = requireNonNull(state, "state is null");
@@ -93,6 +95,7 @@ public class ArbitraryOutputBuffer
                 maxBufferSize.toBytes(),
                 requireNonNull(systemMemoryContextSupplier, "systemMemoryContextSupplier is null"),
                 requireNonNull(notificationExecutor, "notificationExecutor is null"));
+        this.pageBufferAllocator = requireNonNull(pageBufferAllocator, "pageBufferAllocator is null");
         this.masterBuffer = new MasterBuffer();
     }
 
@@ -174,6 +177,7 @@ public class ArbitraryOutputBuffer
             // verify this is valid state change
             outputBuffers.checkValidTransition(newOutputBuffers);
             outputBuffers = newOutputBuffers;
+            outputBuffers.getMinBufferSize().ifPresent(minBufferSize -> memoryManager.ensureCapacity(minBufferSize.toBytes()));
 
             // add the new buffers
             for (OutputBufferId outputBufferId : outputBuffers.getBuffers().keySet()) {
@@ -218,11 +222,12 @@ public class ArbitraryOutputBuffer
         long bytesAdded = 0;
         long rowCount = 0;
         for (SerializedPage page : pages) {
-            long retainedSize = page.getRetainedSizeInBytes();
+            PooledSerializedPage pooledPage = pageBufferAllocator.allocate(page);
+            long retainedSize = pooledPage.getRetainedSizeInBytes();
             bytesAdded += retainedSize;
             rowCount += page.getPositionCount();
             // create page reference counts with an initial single reference
-            references.add(new SerializedPageReference(page, 1, () -> memoryManager.updateMemoryUsage(-retainedSize)));
+            references.add(new SerializedPageReference(pooledPage, 1, () -> memoryManager.updateMemoryUsage(-retainedSize)));
         }
         List<SerializedPageReference> serializedPageReferences = references.build();
 
@@ -55,6 +55,7 @@ public class BroadcastOutputBuffer
     private final String taskInstanceId;
     private final StateMachine<BufferState> state;
     private final OutputBufferMemoryManager memoryManager;
+    private final PageBufferAllocator pageBufferAllocator;
 
     @GuardedBy("this")
     private OutputBuffers outputBuffers = OutputBuffers.createInitialEmptyOutputBuffers(BROADCAST);
@@ -78,6 +79,7 @@ public class BroadcastOutputBuffer
             DataSize maxBufferSize,
             Supplier<LocalMemoryContext> systemMemoryContextSupplier,
             Executor notificationExecutor,
+            PageBufferAllocator pageBufferAllocator,
             Runnable notifyStatusChanged)
     {
         this.taskInstanceId = requireNonNull(taskInstanceId, "taskInstanceId is null");
@@ -86,6 +88,7 @@ public class BroadcastOutputBuffer
                 requireNonNull(maxBufferSize, "maxBufferSize is null").toBytes(),
                 requireNonNull(systemMemoryContextSupplier, "systemMemoryContextSupplier is null"),
                 requireNonNull(notificationExecutor, "notificationExecutor is null"));
+        this.pageBufferAllocator = requireNonNull(pageBufferAllocator, "pageBufferAllocator is null");
         this.notifyStatusChanged = requireNonNull(notifyStatusChanged, "notifyStatusChanged is null");
     }
 
@@ -159,6 +162,7 @@ public class BroadcastOutputBuffer
             // verify this is valid state change
             outputBuffers.checkValidTransition(newOutputBuffers);
             outputBuffers = newOutputBuffers;
+            outputBuffers.getMinBufferSize().ifPresent(minBufferSize -> memoryManager.ensureCapacity(minBufferSize.toBytes()));
 
             // add the new buffers
             for (Entry<OutputBufferId, Integer> entry : outputBuffers.getBuffers().entrySet()) {
@@ -202,8 +206,13 @@ public class BroadcastOutputBuffer
             return;
         }
 
+        // copy pages to the page buffers shared by all the client buffers
+        List<PooledSerializedPage> pooledPages = pages.stream()
+                .map(pageBufferAllocator::allocate)
+                .collect(toImmutableList());
+
         // reserve memory
-        long bytesAdded = pages.stream().mapToLong(SerializedPage::getRetainedSizeInBytes).sum();
+        long bytesAdded = pooledPages.stream().mapToLong(PooledSerializedPage::getRetainedSizeInBytes).sum();
         memoryManager.updateMemoryUsage(bytesAdded);
 
         // update stats
@@ -213,10 +222,10 @@ public class BroadcastOutputBuffer
         totalBufferedPages.addAndGet(pages.size());
 
         // create page reference counts with an initial single reference
-        List<SerializedPageReference> serializedPageReferences = pages.stream()
-                .map(pageSplit -> new SerializedPageReference(pageSplit, 1, () -> {
+        List<SerializedPageReference> serializedPageReferences = pooledPages.stream()
+                .map(pooledPage -> new SerializedPageReference(pooledPage, 1, () -> {
                     checkState(totalBufferedPages.decrementAndGet() >= 0);
-                    memoryManager.updateMemoryUsage(-pageSplit.getRetainedSizeInBytes());
+                    memoryManager.updateMemoryUsage(-pooledPage.getRetainedSizeInBytes());
                 }))
                 .collect(toImmutableList());
 
@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -35,8 +36,18 @@ public class BufferResult
     private final long nextToken;
     private final boolean bufferComplete;
     private final List<SerializedPage> serializedPages;
+    private final List<PooledSerializedPage> pooledPages;
+    private final AtomicBoolean released = new AtomicBoolean();
 
     public BufferResult(String taskInstanceId, long token, long nextToken, boolean bufferComplete, List<SerializedPage> serializedPages)
+    {
+        this(taskInstanceId, token, nextToken, bufferComplete, serializedPages, ImmutableList.of());
+    }
+
+    /**
+     * @param pooledPages retained buffers of the pages, which are released by {@link #release()}
+     */
+    public BufferResult(String taskInstanceId, long token, long nextToken, boolean bufferComplete, List<SerializedPage> serializedPages, List<PooledSerializedPage> pooledPages)
     {
         checkArgument(!isNullOrEmpty(taskInstanceId), "taskInstanceId is null");
 
@@ -45,6 +56,7 @@ public class BufferResult
         this.nextToken = nextToken;
         this.bufferComplete = bufferComplete;
         this.serializedPages = ImmutableList.copyOf(requireNonNull(serializedPages, "serializedPages is null"));
+        this.pooledPages = ImmutableList.copyOf(requireNonNull(pooledPages, "pooledPages is null"));
     }
 
     public long getToken()
@@ -82,6 +94,17 @@ public class BufferResult
         return taskInstanceId;
     }
 
+    /**
+     * Releases the buffers of the pages once the pages have been sent. Off-heap pages
+     * must not be read after the result is released.
+     */
+    public void release()
+    {
+        if (released.compareAndSet(false, true)) {
+            pooledPages.forEach(PooledSerializedPage::release);
+        }
+    }
+
     @Override
     public boolean equals(Object o)
     {
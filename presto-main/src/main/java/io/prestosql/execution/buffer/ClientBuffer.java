@@ -299,7 +299,10 @@ class ClientBuffer
         }
 
         BufferResult bufferResult = processRead(pendingRead.getSequenceId(), pendingRead.getMaxSize());
-        pendingRead.getResultFuture().set(bufferResult);
+        if (!pendingRead.getResultFuture().set(bufferResult)) {
+            // the read was aborted or cancelled, so the result will never be sent
+            bufferResult.release();
+        }
     }
 
     /**
@@ -351,6 +354,7 @@ class ClientBuffer
         // read the new pages
         long maxBytes = maxSize.toBytes();
         List<SerializedPage> result = new ArrayList<>();
+        List<PooledSerializedPage> pooledPages = new ArrayList<>();
         long bytes = 0;
 
         for (SerializedPageReference page : pages) {
@@ -360,8 +364,11 @@ class ClientBuffer
                 break;
             }
             result.add(page.getSerializedPage());
+            // the page may be acknowledged or the buffer destroyed while the result is sent,
+            // so the result keeps the page buffer from being reused until it is released
+            pooledPages.add(page.retainPooledPage());
         }
-        return new BufferResult(taskInstanceId, sequenceId, sequenceId + result.size(), false, result);
+        return new BufferResult(taskInstanceId, sequenceId, sequenceId + result.size(), false, result, pooledPages);
     }
 
     /**
@@ -52,6 +52,7 @@ public class LazyOutputBuffer
     private final DataSize maxBroadcastBufferSize;
     private final Supplier<LocalMemoryContext> systemMemoryContextSupplier;
     private final Executor executor;
+    private final PageBufferAllocator pageBufferAllocator;
     private final Runnable notifyStatusChanged;
 
     @GuardedBy("this")
@@ -70,6 +71,7 @@ public class LazyOutputBuffer
             DataSize maxBufferSize,
             DataSize maxBroadcastBufferSize,
             Supplier<LocalMemoryContext> systemMemoryContextSupplier,
+            PageBufferAllocator pageBufferAllocator,
             Runnable notifyStatusChanged)
     {
         requireNonNull(taskId, "taskId is null");
@@ -80,6 +82,7 @@ public class LazyOutputBuffer
         this.maxBroadcastBufferSize = requireNonNull(maxBroadcastBufferSize, "maxBroadcastBufferSize is null");
         checkArgument(maxBufferSize.toBytes() > 0, "maxBufferSize must be at least 1");
         this.systemMemoryContextSupplier = requireNonNull(systemMemoryContextSupplier, "systemMemoryContextSupplier is null");
+        this.pageBufferAllocator = requireNonNull(pageBufferAllocator, "pageBufferAllocator is null");
         this.notifyStatusChanged = requireNonNull(notifyStatusChanged, "notifyStatusChanged is null");
     }
 
@@ -164,13 +167,13 @@ public class LazyOutputBuffer
                 }
                 switch (newOutputBuffers.getType()) {
                     case PARTITIONED:
-                        delegate = new PartitionedOutputBuffer(taskInstanceId, state, newOutputBuffers, maxBufferSize, systemMemoryContextSupplier, executor);
+                        delegate = new PartitionedOutputBuffer(taskInstanceId, state, newOutputBuffers, maxBufferSize, systemMemoryContextSupplier, executor, pageBufferAllocator);
                         break;
                     case BROADCAST:
-                        delegate = new BroadcastOutputBuffer(taskInstanceId, state, maxBroadcastBufferSize, systemMemoryContextSupplier, executor, notifyStatusChanged);
+                        delegate = new BroadcastOutputBuffer(taskInstanceId, state, maxBroadcastBufferSize, systemMemoryContextSupplier, executor, pageBufferAllocator, notifyStatusChanged);
                         break;
                     case ARBITRARY:
-                        delegate = new ArbitraryOutputBuffer(taskInstanceId, state, maxBufferSize, systemMemoryContextSupplier, executor);
+                        delegate = new ArbitraryOutputBuffer(taskInstanceId, state, maxBufferSize, systemMemoryContextSupplier, executor, pageBufferAllocator);
                         break;
                 }
 
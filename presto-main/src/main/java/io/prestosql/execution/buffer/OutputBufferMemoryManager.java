@@ -40,7 +40,7 @@ import static java.util.Objects.requireNonNull;
 @ThreadSafe
 class OutputBufferMemoryManager
 {
-    private final long maxBufferedBytes;
+    private volatile long maxBufferedBytes;
     private final AtomicLong bufferedBytes = new AtomicLong();
     private final AtomicLong peakMemoryUsage = new AtomicLong();
 
@@ -108,6 +108,23 @@ class OutputBufferMemoryManager
         return bufferBlockedFuture;
     }
 
+    /**
+     * Raises the max buffered bytes to at least the given size. The max buffered bytes are never lowered.
+     */
+    public synchronized void ensureCapacity(long minBufferedBytes)
+    {
+        if (minBufferedBytes <= maxBufferedBytes) {
+            return;
+        }
+        maxBufferedBytes = minBufferedBytes;
+
+        if (!isBufferFull() && !isBlockedOnMemory() && !bufferBlockedFuture.isDone()) {
+            // Complete future in a new thread to avoid making a callback on the caller thread.
+            SettableFuture<?> future = this.bufferBlockedFuture;
+            notificationExecutor.execute(() -> future.set(null));
+        }
+    }
+
     public synchronized void setNoBlockOnFull()
     {
         blockOnFull.set(false);
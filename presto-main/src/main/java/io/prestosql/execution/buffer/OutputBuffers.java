@@ -17,12 +17,14 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
 import io.prestosql.sql.planner.PartitioningHandle;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Optional;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -41,7 +43,7 @@ public final class OutputBuffers
 
     public static OutputBuffers createInitialEmptyOutputBuffers(BufferType type)
     {
-        return new OutputBuffers(type, 0, false, ImmutableMap.of());
+        return new OutputBuffers(type, 0, false, ImmutableMap.of(), Optional.empty());
     }
 
     public static OutputBuffers createInitialEmptyOutputBuffers(PartitioningHandle partitioningHandle)
@@ -56,7 +58,7 @@ public final class OutputBuffers
         else {
             type = PARTITIONED;
         }
-        return new OutputBuffers(type, 0, false, ImmutableMap.of());
+        return new OutputBuffers(type, 0, false, ImmutableMap.of(), Optional.empty());
     }
 
     public enum BufferType
@@ -70,6 +72,7 @@ public final class OutputBuffers
     private final long version;
     private final boolean noMoreBufferIds;
     private final Map<OutputBufferId, Integer> buffers;
+    private final Optional<DataSize> minBufferSize;
 
     // Visible only for Jackson... Use the "with" methods instead
     @JsonCreator
@@ -77,12 +80,14 @@ public final class OutputBuffers
             @JsonProperty("type") BufferType type,
             @JsonProperty("version") long version,
             @JsonProperty("noMoreBufferIds") boolean noMoreBufferIds,
-            @JsonProperty("buffers") Map<OutputBufferId, Integer> buffers)
+            @JsonProperty("buffers") Map<OutputBufferId, Integer> buffers,
+            @JsonProperty("minBufferSize") Optional<DataSize> minBufferSize)
     {
         this.type = type;
         this.version = version;
         this.buffers = ImmutableMap.copyOf(requireNonNull(buffers, "buffers is null"));
         this.noMoreBufferIds = noMoreBufferIds;
+        this.minBufferSize = requireNonNull(minBufferSize, "minBufferSize is null");
     }
 
     @JsonProperty
@@ -109,13 +114,25 @@ public final class OutputBuffers
         return buffers;
     }
 
+    /**
+     * Size the output buffer of a task holds before it blocks, when it is larger than the
+     * configured max buffer size of the task.
+     */
+    @JsonProperty
+    public Optional<DataSize> getMinBufferSize()
+    {
+        return minBufferSize;
+    }
+
     public void checkValidTransition(OutputBuffers newOutputBuffers)
     {
         requireNonNull(newOutputBuffers, "newOutputBuffers is null");
         checkState(type == newOutputBuffers.getType(), "newOutputBuffers has a different type");
 
         if (noMoreBufferIds) {
-            checkArgument(this.equals(newOutputBuffers), "Expected buffer to not change after no more buffers is set");
+            // only the min buffer size can change after no more buffers is set
+            checkArgument(newOutputBuffers.noMoreBufferIds && buffers.equals(newOutputBuffers.buffers), "Expected buffer to not change after no more buffers is set");
+            checkArgument(version != newOutputBuffers.version || this.equals(newOutputBuffers), "newOutputBuffers is the same version but contains different information");
             return;
         }
 
@@ -138,7 +155,7 @@ public final class OutputBuffers
     @Override
     public int hashCode()
     {
-        return Objects.hash(version, noMoreBufferIds, buffers);
+        return Objects.hash(version, noMoreBufferIds, buffers, minBufferSize);
     }
 
     @Override
@@ -153,7 +170,8 @@ public final class OutputBuffers
         OutputBuffers other = (OutputBuffers) obj;
         return Objects.equals(this.version, other.version) &&
                 Objects.equals(this.noMoreBufferIds, other.noMoreBufferIds) &&
-                Objects.equals(this.buffers, other.buffers);
+                Objects.equals(this.buffers, other.buffers) &&
+                Objects.equals(this.minBufferSize, other.minBufferSize);
     }
 
     @Override
@@ -164,6 +182,7 @@ public final class OutputBuffers
                 .add("version", version)
                 .add("noMoreBufferIds", noMoreBufferIds)
                 .add("bufferIds", buffers)
+                .add("minBufferSize", minBufferSize.orElse(null))
                 .toString();
     }
 
@@ -186,7 +205,8 @@ public final class OutputBuffers
                 ImmutableMap.<OutputBufferId, Integer>builder()
                         .putAll(buffers)
                         .put(bufferId, partition)
-                        .build());
+                        .build(),
+                minBufferSize);
     }
 
     public OutputBuffers withBuffers(Map<OutputBufferId, Integer> buffers)
@@ -218,7 +238,7 @@ public final class OutputBuffers
         // add the existing buffers
         newBuffers.putAll(this.buffers);
 
-        return new OutputBuffers(type, version + 1, false, newBuffers);
+        return new OutputBuffers(type, version + 1, false, newBuffers, minBufferSize);
     }
 
     public OutputBuffers withNoMoreBufferIds()
@@ -227,7 +247,17 @@ public final class OutputBuffers
             return this;
         }
 
-        return new OutputBuffers(type, version + 1, true, buffers);
+        return new OutputBuffers(type, version + 1, true, buffers, minBufferSize);
+    }
+
+    public OutputBuffers withMinBufferSize(DataSize minBufferSize)
+    {
+        requireNonNull(minBufferSize, "minBufferSize is null");
+        if (this.minBufferSize.equals(Optional.of(minBufferSize))) {
+            return this;
+        }
+
+        return new OutputBuffers(type, version + 1, noMoreBufferIds, buffers, Optional.of(minBufferSize));
     }
 
     private void checkHasBuffer(OutputBufferId bufferId, int partition)
@@ -0,0 +1,207 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.buffer;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.prestosql.execution.buffer.PageCodecMarker.MarkerSet.fromByteValue;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Copies serialized pages into pooled direct memory, so that pages waiting in
+ * output buffers do not occupy the Java heap.
+ * <p>
+ * Direct buffers are grouped in power of two size classes and are returned to the pool
+ * when the last reference to the owning {@link PooledSerializedPage} is released. Pooled buffers are
+ * never freed, so the pool grows up to the max size and stays there. When the pool is
+ * exhausted, direct memory cannot be allocated, or the page is too large, the page stays on heap.
+ */
+@ThreadSafe
+public class PageBufferAllocator
+{
+    private static final int MIN_SIZE_CLASS_SHIFT = 12; // 4kB
+    private static final int MAX_SIZE_CLASS_SHIFT = 24; // 16MB
+    private static final int MAX_POOLED_SIZE = 1 << MAX_SIZE_CLASS_SHIFT;
+
+    private final long maxOffHeapBytes;
+    private final List<Queue<ByteBuffer>> freeBuffers;
+
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicLong offHeapPages = new AtomicLong();
+    private final AtomicLong onHeapPages = new AtomicLong();
+    private final AtomicLong allocationFailures = new AtomicLong();
+
+    public static PageBufferAllocator onHeapAllocator()
+    {
+        return new PageBufferAllocator(DataSize.ofBytes(0));
+    }
+
+    public PageBufferAllocator(DataSize maxOffHeapSize)
+    {
+        requireNonNull(maxOffHeapSize, "maxOffHeapSize is null");
+        this.maxOffHeapBytes = maxOffHeapSize.toBytes();
+        ImmutableList.Builder<Queue<ByteBuffer>> freeBuffers = ImmutableList.builder();
+        for (int shift = MIN_SIZE_CLASS_SHIFT; shift <= MAX_SIZE_CLASS_SHIFT; shift++) {
+            freeBuffers.add(new ConcurrentLinkedQueue<>());
+        }
+        this.freeBuffers = freeBuffers.build();
+    }
+
+    public boolean isOffHeapEnabled()
+    {
+        return maxOffHeapBytes > 0;
+    }
+
+    public PooledSerializedPage allocate(SerializedPage page)
+    {
+        requireNonNull(page, "page is null");
+        int length = page.getSizeInBytes();
+        if (!isOffHeapEnabled() || length == 0 || length > MAX_POOLED_SIZE) {
+            onHeapPages.incrementAndGet();
+            return PooledSerializedPage.onHeap(page);
+        }
+
+        ByteBuffer buffer = pollOrAllocate(sizeClass(length));
+        if (buffer == null) {
+            onHeapPages.incrementAndGet();
+            return PooledSerializedPage.onHeap(page);
+        }
+        usedBytes.addAndGet(buffer.capacity());
+        offHeapPages.incrementAndGet();
+
+        Slice slice = Slices.wrappedBuffer(buffer).slice(0, length);
+        slice.setBytes(0, page.getSlice());
+        SerializedPage offHeapPage = new SerializedPage(
+                slice,
+                fromByteValue(page.getPageCodecMarkers()),
+                page.getPositionCount(),
+                page.getUncompressedSizeInBytes());
+
+        return PooledSerializedPage.offHeap(offHeapPage, () -> free(buffer));
+    }
+
+    @Nullable
+    private ByteBuffer pollOrAllocate(int sizeClass)
+    {
+        ByteBuffer buffer = freeBuffers.get(sizeClass).poll();
+        if (buffer != null) {
+            return buffer;
+        }
+
+        int capacity = sizeClassCapacity(sizeClass);
+        if (reserve(capacity)) {
+            try {
+                return ByteBuffer.allocateDirect(capacity);
+            }
+            catch (OutOfMemoryError e) {
+                // direct memory is exhausted, e.g. -XX:MaxDirectMemorySize is below the configured max size
+                allocatedBytes.addAndGet(-capacity);
+                allocationFailures.incrementAndGet();
+            }
+        }
+
+        // Direct memory can only be freed by the garbage collector, so free buffers are never given up
+        // to make room for other size classes. Instead, a free buffer of a larger size class is used.
+        for (int largerSizeClass = sizeClass + 1; largerSizeClass < freeBuffers.size(); largerSizeClass++) {
+            buffer = freeBuffers.get(largerSizeClass).poll();
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+        return null;
+    }
+
+    private void free(ByteBuffer buffer)
+    {
+        usedBytes.addAndGet(-buffer.capacity());
+        // the buffer is returned to the size class of its capacity, which may be larger than the page
+        freeBuffers.get(sizeClass(buffer.capacity())).add(buffer);
+    }
+
+    private boolean reserve(int capacity)
+    {
+        while (true) {
+            long allocated = allocatedBytes.get();
+            if (allocated + capacity > maxOffHeapBytes) {
+                return false;
+            }
+            if (allocatedBytes.compareAndSet(allocated, allocated + capacity)) {
+                return true;
+            }
+        }
+    }
+
+    private static int sizeClassCapacity(int sizeClass)
+    {
+        return 1 << (sizeClass + MIN_SIZE_CLASS_SHIFT);
+    }
+
+    private static int sizeClass(int length)
+    {
+        checkArgument(length > 0 && length <= MAX_POOLED_SIZE, "invalid length: %s", length);
+        int shift = Integer.SIZE - Integer.numberOfLeadingZeros(length - 1);
+        return Math.max(shift, MIN_SIZE_CLASS_SHIFT) - MIN_SIZE_CLASS_SHIFT;
+    }
+
+    @Managed
+    public long getMaxOffHeapBytes()
+    {
+        return maxOffHeapBytes;
+    }
+
+    @Managed
+    public long getAllocatedBytes()
+    {
+        return allocatedBytes.get();
+    }
+
+    @Managed
+    public long getUsedBytes()
+    {
+        return usedBytes.get();
+    }
+
+    @Managed
+    public long getOffHeapPages()
+    {
+        return offHeapPages.get();
+    }
+
+    @Managed
+    public long getOnHeapPages()
+    {
+        return onHeapPages.get();
+    }
+
+    @Managed
+    public long getAllocationFailures()
+    {
+        return allocationFailures.get();
+    }
+}
@@ -22,6 +22,8 @@ import io.prestosql.execution.StateMachine.StateChangeListener;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
 import io.prestosql.memory.context.LocalMemoryContext;
 
+import javax.annotation.concurrent.GuardedBy;
+
 import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
@@ -42,8 +44,10 @@ public class PartitionedOutputBuffer
         implements OutputBuffer
 {
     private final StateMachine<BufferState> state;
-    private final OutputBuffers outputBuffers;
+    @GuardedBy("this")
+    private OutputBuffers outputBuffers;
     private final OutputBufferMemoryManager memoryManager;
+    private final PageBufferAllocator pageBufferAllocator;
 
     private final List<ClientBuffer> partitions;
 
@@ -56,7 +60,8 @@ public class PartitionedOutputBuffer
             OutputBuffers outputBuffers,
             DataSize maxBufferSize,
             Supplier<LocalMemoryContext> systemMemoryContextSupplier,
-            Executor notificationExecutor)
+            Executor notificationExecutor,
+            PageBufferAllocator pageBufferAllocator)
     {
         this.state = requireNonNull(state, "state is null");
 
@@ -69,6 +74,8 @@ public class PartitionedOutputBuffer
                 requireNonNull(maxBufferSize, "maxBufferSize is null").toBytes(),
                 requireNonNull(systemMemoryContextSupplier, "systemMemoryContextSupplier is null"),
                 requireNonNull(notificationExecutor, "notificationExecutor is null"));
+        outputBuffers.getMinBufferSize().ifPresent(minBufferSize -> memoryManager.ensureCapacity(minBufferSize.toBytes()));
+        this.pageBufferAllocator = requireNonNull(pageBufferAllocator, "pageBufferAllocator is null");
 
         ImmutableList.Builder<ClientBuffer> partitions = ImmutableList.builder();
         for (OutputBufferId bufferId : outputBuffers.getBuffers().keySet()) {
@@ -137,7 +144,7 @@ public class PartitionedOutputBuffer
     }
 
     @Override
-    public void setOutputBuffers(OutputBuffers newOutputBuffers)
+    public synchronized void setOutputBuffers(OutputBuffers newOutputBuffers)
     {
         requireNonNull(newOutputBuffers, "newOutputBuffers is null");
 
@@ -149,6 +156,8 @@ public class PartitionedOutputBuffer
 
         // no more buffers can be added but verify this is valid state change
         outputBuffers.checkValidTransition(newOutputBuffers);
+        outputBuffers = newOutputBuffers;
+        outputBuffers.getMinBufferSize().ifPresent(minBufferSize -> memoryManager.ensureCapacity(minBufferSize.toBytes()));
     }
 
     @Override
@@ -179,11 +188,12 @@ public class PartitionedOutputBuffer
         long bytesAdded = 0;
         long rowCount = 0;
         for (SerializedPage page : pages) {
-            long retainedSize = page.getRetainedSizeInBytes();
+            PooledSerializedPage pooledPage = pageBufferAllocator.allocate(page);
+            long retainedSize = pooledPage.getRetainedSizeInBytes();
             bytesAdded += retainedSize;
             rowCount += page.getPositionCount();
             // create page reference counts with an initial single reference
-            references.add(new SerializedPageReference(page, 1, () -> memoryManager.updateMemoryUsage(-retainedSize)));
+            references.add(new SerializedPageReference(pooledPage, 1, () -> memoryManager.updateMemoryUsage(-retainedSize)));
         }
         List<SerializedPageReference> serializedPageReferences = references.build();
 
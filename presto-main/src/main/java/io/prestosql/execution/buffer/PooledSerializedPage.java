@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.buffer;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link SerializedPage} held by a {@link PageBufferAllocator}. Off-heap buffers are reference
+ * counted, starting with a single reference. Every reference must be released exactly once, and the
+ * page contents must not be accessed once the last reference is released, as the buffer is reused.
+ */
+@ThreadSafe
+public final class PooledSerializedPage
+{
+    private static final Runnable NO_OP = () -> {};
+
+    private final SerializedPage serializedPage;
+    private final boolean offHeap;
+    private final Runnable onRelease;
+    private final AtomicInteger referenceCount = new AtomicInteger(1);
+
+    private PooledSerializedPage(SerializedPage serializedPage, boolean offHeap, Runnable onRelease)
+    {
+        this.serializedPage = requireNonNull(serializedPage, "serializedPage is null");
+        this.offHeap = offHeap;
+        this.onRelease = requireNonNull(onRelease, "onRelease is null");
+    }
+
+    public static PooledSerializedPage onHeap(SerializedPage serializedPage)
+    {
+        return new PooledSerializedPage(serializedPage, false, NO_OP);
+    }
+
+    static PooledSerializedPage offHeap(SerializedPage serializedPage, Runnable onRelease)
+    {
+        return new PooledSerializedPage(serializedPage, true, onRelease);
+    }
+
+    public SerializedPage getSerializedPage()
+    {
+        return serializedPage;
+    }
+
+    public boolean isOffHeap()
+    {
+        return offHeap;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return serializedPage.getRetainedSizeInBytes();
+    }
+
+    /**
+     * Adds a reference to the buffer, so that it is not reused while the page is read.
+     */
+    public void retain()
+    {
+        if (!offHeap) {
+            return;
+        }
+        int oldReferences = referenceCount.getAndIncrement();
+        checkState(oldReferences > 0, "Page buffer has already been released");
+    }
+
+    public void release()
+    {
+        if (!offHeap) {
+            return;
+        }
+        int remainingReferences = referenceCount.decrementAndGet();
+        checkState(remainingReferences >= 0, "Page buffer reference count is negative");
+        if (remainingReferences == 0) {
+            onRelease.run();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("serializedPage", serializedPage)
+                .add("offHeap", offHeap)
+                .add("referenceCount", referenceCount)
+                .toString();
+    }
+}
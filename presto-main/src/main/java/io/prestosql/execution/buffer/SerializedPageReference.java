@@ -25,13 +25,20 @@ import static java.util.Objects.requireNonNull;
 @ThreadSafe
 class SerializedPageReference
 {
+    private final PooledSerializedPage pooledPage;
     private final SerializedPage serializedPage;
     private final AtomicInteger referenceCount;
     private final Runnable onDereference;
 
     public SerializedPageReference(SerializedPage serializedPage, int referenceCount, Runnable onDereference)
     {
-        this.serializedPage = requireNonNull(serializedPage, "page is null");
+        this(PooledSerializedPage.onHeap(serializedPage), referenceCount, onDereference);
+    }
+
+    public SerializedPageReference(PooledSerializedPage pooledPage, int referenceCount, Runnable onDereference)
+    {
+        this.pooledPage = requireNonNull(pooledPage, "pooledPage is null");
+        this.serializedPage = pooledPage.getSerializedPage();
         checkArgument(referenceCount > 0, "referenceCount must be at least 1");
         this.referenceCount = new AtomicInteger(referenceCount);
         this.onDereference = requireNonNull(onDereference, "onDereference is null");
@@ -48,6 +55,17 @@ class SerializedPageReference
         return serializedPage;
     }
 
+    /**
+     * Returns the buffer holding the page with an additional reference, which the caller must release
+     * once the page is no longer read. The buffer stays valid after this page reference is dereferenced.
+     */
+    public PooledSerializedPage retainPooledPage()
+    {
+        checkState(referenceCount.get() > 0, "Page has already been dereferenced");
+        pooledPage.retain();
+        return pooledPage;
+    }
+
     public int getPositionCount()
     {
         return serializedPage.getPositionCount();
@@ -65,6 +83,7 @@ class SerializedPageReference
 
         if (remainingReferences == 0) {
             onDereference.run();
+            pooledPage.release();
         }
     }
 
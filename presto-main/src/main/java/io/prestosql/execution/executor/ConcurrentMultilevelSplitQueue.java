@@ -0,0 +1,179 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Iterables.getFirst;
+
+/**
+ * A {@link AbstractMultilevelSplitQueue} which keeps the waiting splits of each level in a
+ * concurrent sorted set, so that worker threads offer and take splits without a global lock.
+ * The level selection and level time accounting are the same as in {@link MultilevelSplitQueue}.
+ * <p>
+ * The lock is only used to park worker threads while the queue is empty.
+ */
+@ThreadSafe
+public class ConcurrentMultilevelSplitQueue
+        extends AbstractMultilevelSplitQueue
+{
+    // The priority of a split does not change while it is queued, so the ordering of the sets is stable
+    private final List<ConcurrentSkipListSet<PrioritizedSplitRunner>> levelWaitingSplits;
+    private final AtomicInteger waitingSplitCount = new AtomicInteger();
+
+    private final AtomicInteger idleThreads = new AtomicInteger();
+    private final ReentrantLock idleLock = new ReentrantLock();
+    private final Condition notEmpty = idleLock.newCondition();
+
+    public ConcurrentMultilevelSplitQueue(double levelTimeMultiplier)
+    {
+        super(levelTimeMultiplier);
+
+        ImmutableList.Builder<ConcurrentSkipListSet<PrioritizedSplitRunner>> levelWaitingSplits = ImmutableList.builder();
+        for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
+            levelWaitingSplits.add(new ConcurrentSkipListSet<>());
+        }
+        this.levelWaitingSplits = levelWaitingSplits.build();
+    }
+
+    @Override
+    public void offer(PrioritizedSplitRunner split)
+    {
+        checkArgument(split != null, "split is null");
+
+        split.setReady();
+        int level = split.getPriority().getLevel();
+        ConcurrentSkipListSet<PrioritizedSplitRunner> waitingSplits = levelWaitingSplits.get(level);
+        if (waitingSplits.isEmpty()) {
+            resetEmptyLevelTime(level);
+        }
+
+        if (waitingSplits.add(split)) {
+            waitingSplitCount.incrementAndGet();
+        }
+
+        // the count is updated before idleThreads is read, and take() registers as idle before
+        // it reads the count, so either an idle thread sees this split or it is signalled here
+        if (idleThreads.get() > 0) {
+            idleLock.lock();
+            try {
+                notEmpty.signal();
+            }
+            finally {
+                idleLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public PrioritizedSplitRunner take()
+            throws InterruptedException
+    {
+        while (true) {
+            PrioritizedSplitRunner result = pollSplit();
+            if (result == null) {
+                awaitSplits();
+                continue;
+            }
+
+            if (result.updateLevelPriority()) {
+                offer(result);
+                continue;
+            }
+
+            splitSelected(result);
+            return result;
+        }
+    }
+
+    @Override
+    public boolean trySelect(PrioritizedSplitRunner split)
+    {
+        checkArgument(split != null, "split is null");
+        return trySelect(split, level -> !levelWaitingSplits.get(level).isEmpty(), level -> getFirst(levelWaitingSplits.get(level), null));
+    }
+
+    private PrioritizedSplitRunner pollSplit()
+    {
+        while (true) {
+            int selectedLevel = selectLevel(level -> !levelWaitingSplits.get(level).isEmpty());
+            if (selectedLevel == -1) {
+                return null;
+            }
+
+            PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).pollFirst();
+            if (result != null) {
+                waitingSplitCount.decrementAndGet();
+                return result;
+            }
+            // another thread took the last split of the selected level
+        }
+    }
+
+    private void awaitSplits()
+            throws InterruptedException
+    {
+        idleLock.lockInterruptibly();
+        try {
+            idleThreads.incrementAndGet();
+            try {
+                while (waitingSplitCount.get() <= 0) {
+                    notEmpty.await();
+                }
+            }
+            finally {
+                idleThreads.decrementAndGet();
+            }
+        }
+        finally {
+            idleLock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(PrioritizedSplitRunner split)
+    {
+        checkArgument(split != null, "split is null");
+        for (ConcurrentSkipListSet<PrioritizedSplitRunner> level : levelWaitingSplits) {
+            if (level.remove(split)) {
+                waitingSplitCount.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<PrioritizedSplitRunner> splits)
+    {
+        for (PrioritizedSplitRunner split : splits) {
+            remove(split);
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        // the count is updated after the sets, so it can be briefly negative while a split is taken
+        return Math.max(waitingSplitCount.get(), 0);
+    }
+}
@@ -36,6 +36,7 @@ public class PrioritizedSplitRunner
         implements Comparable<PrioritizedSplitRunner>
 {
     private static final AtomicLong NEXT_WORKER_ID = new AtomicLong();
+    private static final long NO_RUNNER = -1;
 
     private static final Logger log = Logger.get(PrioritizedSplitRunner.class);
 
@@ -66,6 +67,9 @@ public class PrioritizedSplitRunner
     private final AtomicLong cpuTimeNanos = new AtomicLong();
     private final AtomicLong processCalls = new AtomicLong();
 
+    private final AtomicLong lastRunnerId = new AtomicLong(NO_RUNNER);
+    private final AtomicLong migrations = new AtomicLong();
+
     private final CounterStat globalCpuTimeMicros;
     private final CounterStat globalScheduledTimeMicros;
 
@@ -149,6 +153,36 @@ public class PrioritizedSplitRunner
         return waitNanos.get();
     }
 
+    public long getProcessCalls()
+    {
+        return processCalls.get();
+    }
+
+    public long getMigrations()
+    {
+        return migrations.get();
+    }
+
+    public long getLastRunnerId()
+    {
+        return lastRunnerId.get();
+    }
+
+    /**
+     * Records the runner thread which runs the next quanta of this split.
+     *
+     * @return true if the previous quanta ran on a different runner thread
+     */
+    public boolean setRunner(long runnerId)
+    {
+        long previousRunnerId = lastRunnerId.getAndSet(runnerId);
+        if (previousRunnerId != NO_RUNNER && previousRunnerId != runnerId) {
+            migrations.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
     public ListenableFuture<?> process()
     {
         try {
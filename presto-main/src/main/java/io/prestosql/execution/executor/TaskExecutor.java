@@ -21,6 +21,7 @@ import io.airlift.concurrent.SetThreadName;
 import io.airlift.concurrent.ThreadPoolExecutorMBean;
 import io.airlift.log.Logger;
 import io.airlift.stats.CounterStat;
+import io.airlift.stats.DistributionStat;
 import io.airlift.stats.TimeDistribution;
 import io.airlift.stats.TimeStat;
 import io.airlift.units.Duration;
@@ -39,6 +40,8 @@ import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -48,6 +51,7 @@ import java.util.OptionalInt;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -55,6 +59,7 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.DoubleSupplier;
@@ -65,7 +70,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.concurrent.Threads.threadsNamed;
-import static io.prestosql.execution.executor.MultilevelSplitQueue.computeLevel;
+import static io.prestosql.execution.executor.AbstractMultilevelSplitQueue.computeLevel;
 import static io.prestosql.util.MoreMath.min;
 import static io.prestosql.version.EmbedVersion.testingVersionEmbedder;
 import static java.lang.String.format;
@@ -85,6 +90,9 @@ public class TaskExecutor
 
     private static final AtomicLong NEXT_RUNNER_ID = new AtomicLong();
 
+    // splits which unblock are queued on the runner thread which ran them last up to this limit
+    private static final int LOCAL_SPLIT_QUEUE_SIZE = 4;
+
     private final ExecutorService executor;
     private final ThreadPoolExecutorMBean executorMBean;
 
@@ -93,6 +101,7 @@ public class TaskExecutor
     private final int guaranteedNumberOfDriversPerTask;
     private final int maximumNumberOfDriversPerTask;
     private final EmbedVersion embedVersion;
+    private final boolean splitAffinityEnabled;
 
     private final Ticker ticker;
 
@@ -117,7 +126,7 @@ public class TaskExecutor
     /**
      * Splits waiting for a runner thread.
      */
-    private final MultilevelSplitQueue waitingSplits;
+    private final AbstractMultilevelSplitQueue waitingSplits;
 
     /**
      * Splits running on a thread.
@@ -129,6 +138,16 @@ public class TaskExecutor
      */
     private final Map<PrioritizedSplitRunner, Future<?>> blockedSplits = new ConcurrentHashMap<>();
 
+    /**
+     * Runner threads by id, for queueing splits on the runner thread which ran them last.
+     */
+    private final Map<Long, TaskRunner> taskRunners = new ConcurrentHashMap<>();
+
+    /**
+     * Runner threads looking for a split in the split queue or in the local queues of other runner threads.
+     */
+    private final AtomicInteger idleRunners = new AtomicInteger();
+
     private final AtomicLongArray completedTasksPerLevel = new AtomicLongArray(5);
     private final AtomicLongArray completedSplitsPerLevel = new AtomicLongArray(5);
 
@@ -154,10 +173,16 @@ public class TaskExecutor
     private final TimeStat blockedQuantaWallTime = new TimeStat(MICROSECONDS);
     private final TimeStat unblockedQuantaWallTime = new TimeStat(MICROSECONDS);
 
+    private final CounterStat splitMigrations = new CounterStat();
+    private final CounterStat localSplitRuns = new CounterStat();
+    private final CounterStat stolenSplits = new CounterStat();
+    private final DistributionStat quantaPerSplit = new DistributionStat();
+    private final DistributionStat migrationsPerSplit = new DistributionStat();
+
     private volatile boolean closed;
 
     @Inject
-    public TaskExecutor(TaskManagerConfig config, EmbedVersion embedVersion, MultilevelSplitQueue splitQueue)
+    public TaskExecutor(TaskManagerConfig config, EmbedVersion embedVersion, AbstractMultilevelSplitQueue splitQueue)
     {
         this(requireNonNull(config, "config is null").getMaxWorkerThreads(),
                 config.getMinDrivers(),
@@ -165,19 +190,20 @@ public class TaskExecutor
                 config.getMaxDriversPerTask(),
                 embedVersion,
                 splitQueue,
-                Ticker.systemTicker());
+                Ticker.systemTicker(),
+                config.isSplitAffinityEnabled());
     }
 
     @VisibleForTesting
     public TaskExecutor(int runnerThreads, int minDrivers, int guaranteedNumberOfDriversPerTask, int maximumNumberOfDriversPerTask, Ticker ticker)
     {
-        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, testingVersionEmbedder(), new MultilevelSplitQueue(2), ticker);
+        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, testingVersionEmbedder(), new MultilevelSplitQueue(2), ticker, false);
     }
 
     @VisibleForTesting
-    public TaskExecutor(int runnerThreads, int minDrivers, int guaranteedNumberOfDriversPerTask, int maximumNumberOfDriversPerTask, MultilevelSplitQueue splitQueue, Ticker ticker)
+    public TaskExecutor(int runnerThreads, int minDrivers, int guaranteedNumberOfDriversPerTask, int maximumNumberOfDriversPerTask, AbstractMultilevelSplitQueue splitQueue, Ticker ticker)
     {
-        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, testingVersionEmbedder(), splitQueue, ticker);
+        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, testingVersionEmbedder(), splitQueue, ticker, false);
     }
 
     @VisibleForTesting
@@ -187,8 +213,9 @@ public class TaskExecutor
             int guaranteedNumberOfDriversPerTask,
             int maximumNumberOfDriversPerTask,
             EmbedVersion embedVersion,
-            MultilevelSplitQueue splitQueue,
-            Ticker ticker)
+            AbstractMultilevelSplitQueue splitQueue,
+            Ticker ticker,
+            boolean splitAffinityEnabled)
     {
         checkArgument(runnerThreads > 0, "runnerThreads must be at least 1");
         checkArgument(guaranteedNumberOfDriversPerTask > 0, "guaranteedNumberOfDriversPerTask must be at least 1");
@@ -207,6 +234,7 @@ public class TaskExecutor
         this.guaranteedNumberOfDriversPerTask = guaranteedNumberOfDriversPerTask;
         this.maximumNumberOfDriversPerTask = maximumNumberOfDriversPerTask;
         this.waitingSplits = requireNonNull(splitQueue, "splitQueue is null");
+        this.splitAffinityEnabled = splitAffinityEnabled;
         this.tasks = new LinkedList<>();
     }
 
@@ -291,6 +319,7 @@ public class TaskExecutor
             intermediateSplits.removeAll(splits);
             blockedSplits.keySet().removeAll(splits);
             waitingSplits.removeAll(splits);
+            taskRunners.values().forEach(runner -> runner.removeLocalSplits(splits));
         }
 
         // call destroy outside of synchronized block as it is expensive and doesn't need a lock on the task executor
@@ -351,6 +380,8 @@ public class TaskExecutor
     private void splitFinished(PrioritizedSplitRunner split)
     {
         completedSplitsPerLevel.incrementAndGet(split.getPriority().getLevel());
+        quantaPerSplit.add(split.getProcessCalls());
+        migrationsPerSplit.add(split.getMigrations());
         synchronized (this) {
             allSplits.remove(split);
 
@@ -453,26 +484,58 @@ public class TaskExecutor
         return null;
     }
 
+    /**
+     * Queues a split which is ready to run again. With split affinity, the split is queued on the
+     * runner thread which ran it last, unless that queue is full or some runner thread is idle.
+     * Idle runner threads take a local split of a busy thread when the split queue would select it
+     * ahead of the splits waiting in the queue, so local splits do not wait behind splits of lower
+     * priority for long.
+     */
+    private void splitReady(PrioritizedSplitRunner split)
+    {
+        if (splitAffinityEnabled) {
+            TaskRunner runner = taskRunners.get(split.getLastRunnerId());
+            if (runner != null && runner.offerLocalSplit(split)) {
+                return;
+            }
+        }
+        waitingSplits.offer(split);
+    }
+
     private class TaskRunner
             implements Runnable
     {
         private final long runnerId = NEXT_RUNNER_ID.getAndIncrement();
 
+        /**
+         * Splits which last ran on this thread and are ready to run again. The multilevel queue
+         * still decides whether they run before the splits waiting in the queue.
+         */
+        private final Deque<PrioritizedSplitRunner> localSplits = new ConcurrentLinkedDeque<>();
+        private volatile boolean stopped;
+
         @Override
         public void run()
         {
+            if (splitAffinityEnabled) {
+                taskRunners.put(runnerId, this);
+            }
             try (SetThreadName runnerName = new SetThreadName("SplitRunner-%s", runnerId)) {
                 while (!closed && !Thread.currentThread().isInterrupted()) {
                     // select next worker
                     PrioritizedSplitRunner split;
                     try {
-                        split = waitingSplits.take();
+                        split = nextSplit();
                     }
                     catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
                         return;
                     }
 
+                    if (split.setRunner(runnerId)) {
+                        splitMigrations.update(1);
+                    }
+
                     String threadId = split.getTaskHandle().getTaskId() + "-" + split.getSplitId();
                     try (SetThreadName splitName = new SetThreadName(threadId)) {
                         RunningSplitInfo splitInfo = new RunningSplitInfo(ticker.read(), threadId, Thread.currentThread());
@@ -494,7 +557,14 @@ public class TaskExecutor
                         }
                         else {
                             if (blocked.isDone()) {
-                                waitingSplits.offer(split);
+                                if (splitAffinityEnabled) {
+                                    // this thread checks the split against the queue before selecting another one
+                                    split.setReady();
+                                    localSplits.addFirst(split);
+                                }
+                                else {
+                                    waitingSplits.offer(split);
+                                }
                             }
                             else {
                                 blockedSplits.put(split, blocked);
@@ -502,7 +572,7 @@ public class TaskExecutor
                                     blockedSplits.remove(split);
                                     // reset the level priority to prevent previously-blocked splits from starving existing splits
                                     split.resetLevelPriority();
-                                    waitingSplits.offer(split);
+                                    splitReady(split);
                                 }, executor);
                             }
                         }
@@ -523,12 +593,126 @@ public class TaskExecutor
                 }
             }
             finally {
+                stopped = true;
+                taskRunners.remove(runnerId);
+                // other runner threads run the splits left on this thread
+                PrioritizedSplitRunner split;
+                while ((split = localSplits.pollFirst()) != null) {
+                    waitingSplits.offer(split);
+                }
+
                 // unless we have been closed, we need to replace this thread
                 if (!closed) {
                     addRunnerThread();
                 }
             }
         }
+
+        private PrioritizedSplitRunner nextSplit()
+                throws InterruptedException
+        {
+            if (!splitAffinityEnabled) {
+                return waitingSplits.take();
+            }
+
+            PrioritizedSplitRunner split = localSplits.pollFirst();
+            if (split != null) {
+                if (waitingSplits.trySelect(split)) {
+                    localSplitRuns.update(1);
+                    return split;
+                }
+                // a split in the queue runs first, so give other threads the chance to run this one
+                waitingSplits.offer(split);
+            }
+
+            // Register as idle before looking at the local queues of other threads. A thread which
+            // queues a split locally checks for idle threads afterwards, so either the split is
+            // found here or it is moved to the split queue, where take() sees it.
+            idleRunners.incrementAndGet();
+            try {
+                if (waitingSplits.size() == 0) {
+                    stealSplit();
+                }
+                else {
+                    // the queue is not empty, but a split queued on a busy thread may still have to run first
+                    split = stealSelectedSplit();
+                    if (split != null) {
+                        return split;
+                    }
+                }
+                return waitingSplits.take();
+            }
+            finally {
+                idleRunners.decrementAndGet();
+            }
+        }
+
+        private void stealSplit()
+        {
+            for (TaskRunner runner : taskRunners.values()) {
+                if (runner == this) {
+                    continue;
+                }
+                // take the split which was queued last, as the owner is least likely to get to it soon
+                PrioritizedSplitRunner split = runner.localSplits.pollLast();
+                if (split != null) {
+                    stolenSplits.update(1);
+                    // the split competes with any other split queued in the meantime
+                    waitingSplits.offer(split);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Takes a split queued on another thread if the split queue selects it ahead of the waiting
+         * splits. Only the split queued last on each thread is checked, so a split further up a local
+         * queue can still wait behind splits of lower priority until its owner finishes its current
+         * quantum. The local queues are short, which bounds this inversion to a few quanta.
+         */
+        private PrioritizedSplitRunner stealSelectedSplit()
+        {
+            for (TaskRunner runner : taskRunners.values()) {
+                if (runner == this) {
+                    continue;
+                }
+                PrioritizedSplitRunner split = runner.localSplits.pollLast();
+                if (split == null) {
+                    continue;
+                }
+                if (waitingSplits.trySelect(split)) {
+                    stolenSplits.update(1);
+                    return split;
+                }
+                runner.returnLocalSplit(split);
+            }
+            return null;
+        }
+
+        private void returnLocalSplit(PrioritizedSplitRunner split)
+        {
+            localSplits.addLast(split);
+            // this thread may have exited and moved its local splits to the queue already
+            if (stopped && localSplits.removeLastOccurrence(split)) {
+                waitingSplits.offer(split);
+            }
+        }
+
+        private boolean offerLocalSplit(PrioritizedSplitRunner split)
+        {
+            if (stopped || idleRunners.get() > 0 || localSplits.size() >= LOCAL_SPLIT_QUEUE_SIZE) {
+                return false;
+            }
+            split.setReady();
+            localSplits.addLast(split);
+            // a thread which became idle, or this thread exiting, may have missed the split
+            return (!stopped && idleRunners.get() == 0) || !localSplits.removeLastOccurrence(split);
+        }
+
+        private void removeLocalSplits(Collection<PrioritizedSplitRunner> splits)
+        {
+            localSplits.removeAll(splits);
+        }
     }
 
     //
@@ -673,6 +857,47 @@ public class TaskExecutor
         return getRunningTasksForLevel(4);
     }
 
+    @Managed
+    public boolean isSplitAffinityEnabled()
+    {
+        return splitAffinityEnabled;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getSplitMigrations()
+    {
+        return splitMigrations;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getLocalSplitRuns()
+    {
+        return localSplitRuns;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getStolenSplits()
+    {
+        return stolenSplits;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getQuantaPerSplit()
+    {
+        return quantaPerSplit;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getMigrationsPerSplit()
+    {
+        return migrationsPerSplit;
+    }
+
     @Managed
     @Nested
     public TimeStat getSplitQueuedTime()
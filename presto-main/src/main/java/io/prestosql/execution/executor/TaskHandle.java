@@ -56,12 +56,12 @@ public class TaskHandle
     private final AtomicInteger nextSplitId = new AtomicInteger();
 
     protected final AtomicReference<Priority> priority = new AtomicReference<>(new Priority(0, 0));
-    private final MultilevelSplitQueue splitQueue;
+    private final AbstractMultilevelSplitQueue splitQueue;
     private final OptionalInt maxDriversPerTask;
 
     public TaskHandle(
             TaskId taskId,
-            MultilevelSplitQueue splitQueue,
+            AbstractMultilevelSplitQueue splitQueue,
             DoubleSupplier utilizationSupplier,
             int initialSplitConcurrency,
             Duration splitConcurrencyAdjustFrequency,
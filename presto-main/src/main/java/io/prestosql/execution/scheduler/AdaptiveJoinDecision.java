@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.scheduler;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.airlift.units.DataSize;
+import io.prestosql.sql.planner.plan.JoinNode.DistributionType;
+import io.prestosql.sql.planner.plan.PlanNodeId;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The distribution selected for a join from the observed size of its build side.
+ */
+public class AdaptiveJoinDecision
+{
+    private final PlanNodeId joinId;
+    private final DistributionType plannedDistribution;
+    private final DistributionType selectedDistribution;
+    private final DataSize buildDataSize;
+
+    @JsonCreator
+    public AdaptiveJoinDecision(
+            @JsonProperty("joinId") PlanNodeId joinId,
+            @JsonProperty("plannedDistribution") DistributionType plannedDistribution,
+            @JsonProperty("selectedDistribution") DistributionType selectedDistribution,
+            @JsonProperty("buildDataSize") DataSize buildDataSize)
+    {
+        this.joinId = requireNonNull(joinId, "joinId is null");
+        this.plannedDistribution = requireNonNull(plannedDistribution, "plannedDistribution is null");
+        this.selectedDistribution = requireNonNull(selectedDistribution, "selectedDistribution is null");
+        this.buildDataSize = requireNonNull(buildDataSize, "buildDataSize is null");
+    }
+
+    @JsonProperty
+    public PlanNodeId getJoinId()
+    {
+        return joinId;
+    }
+
+    @JsonProperty
+    public DistributionType getPlannedDistribution()
+    {
+        return plannedDistribution;
+    }
+
+    @JsonProperty
+    public DistributionType getSelectedDistribution()
+    {
+        return selectedDistribution;
+    }
+
+    /**
+     * Output data size of the build side when the distribution was selected. The build side
+     * may not have been complete at that point.
+     */
+    @JsonProperty
+    public DataSize getBuildDataSize()
+    {
+        return buildDataSize;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        AdaptiveJoinDecision that = (AdaptiveJoinDecision) o;
+        return Objects.equals(joinId, that.joinId) &&
+                plannedDistribution == that.plannedDistribution &&
+                selectedDistribution == that.selectedDistribution &&
+                Objects.equals(buildDataSize, that.buildDataSize);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(joinId, plannedDistribution, selectedDistribution, buildDataSize);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("joinId", joinId)
+                .add("plannedDistribution", plannedDistribution)
+                .add("selectedDistribution", selectedDistribution)
+                .add("buildDataSize", buildDataSize)
+                .toString();
+    }
+}
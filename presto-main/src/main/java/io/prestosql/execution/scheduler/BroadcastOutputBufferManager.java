@@ -13,6 +13,7 @@
  */
 package io.prestosql.execution.scheduler;
 
+import io.airlift.units.DataSize;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
 
@@ -22,6 +23,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import java.util.List;
 import java.util.function.Consumer;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static io.prestosql.execution.buffer.OutputBuffers.BROADCAST_PARTITION_ID;
 import static io.prestosql.execution.buffer.OutputBuffers.BufferType.BROADCAST;
 import static io.prestosql.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
@@ -34,11 +36,21 @@ class BroadcastOutputBufferManager
     private final Consumer<OutputBuffers> outputBufferTarget;
 
     @GuardedBy("this")
-    private OutputBuffers outputBuffers = createInitialEmptyOutputBuffers(BROADCAST);
+    private OutputBuffers outputBuffers;
 
     public BroadcastOutputBufferManager(Consumer<OutputBuffers> outputBufferTarget)
+    {
+        this(outputBufferTarget, createInitialEmptyOutputBuffers(BROADCAST));
+    }
+
+    /**
+     * @param initialOutputBuffers the current output buffers of a stage which is already running
+     */
+    public BroadcastOutputBufferManager(Consumer<OutputBuffers> outputBufferTarget, OutputBuffers initialOutputBuffers)
     {
         this.outputBufferTarget = requireNonNull(outputBufferTarget, "outputBufferTarget is null");
+        this.outputBuffers = requireNonNull(initialOutputBuffers, "initialOutputBuffers is null");
+        checkArgument(initialOutputBuffers.getType() == BROADCAST, "Expected broadcast output buffers");
         outputBufferTarget.accept(outputBuffers);
     }
 
@@ -72,4 +84,22 @@ class BroadcastOutputBufferManager
         }
         outputBufferTarget.accept(newOutputBuffers);
     }
+
+    @SuppressWarnings("ObjectEquality")
+    @Override
+    public void setMinBufferSize(DataSize minBufferSize)
+    {
+        OutputBuffers newOutputBuffers;
+        synchronized (this) {
+            OutputBuffers originalOutputBuffers = outputBuffers;
+            outputBuffers = outputBuffers.withMinBufferSize(minBufferSize);
+
+            // don't update if nothing changed
+            if (outputBuffers == originalOutputBuffers) {
+                return;
+            }
+            newOutputBuffers = this.outputBuffers;
+        }
+        outputBufferTarget.accept(newOutputBuffers);
+    }
 }
@@ -13,6 +13,7 @@
  */
 package io.prestosql.execution.scheduler;
 
+import io.airlift.units.DataSize;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
 
 import java.util.List;
@@ -20,4 +21,9 @@ import java.util.List;
 interface OutputBufferManager
 {
     void addOutputBuffers(List<OutputBufferId> newBuffers, boolean noMoreBuffers);
+
+    /**
+     * Lets the output buffers of the tasks hold at least the given size, e.g. while their consumers are not scheduled.
+     */
+    void setMinBufferSize(DataSize minBufferSize);
 }
@@ -14,10 +14,12 @@
 package io.prestosql.execution.scheduler;
 
 import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
 import io.prestosql.sql.planner.PartitioningHandle;
 
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 import java.util.List;
@@ -32,7 +34,11 @@ import static java.util.Objects.requireNonNull;
 public class PartitionedOutputBufferManager
         implements OutputBufferManager
 {
-    private final Map<OutputBufferId, Integer> outputBuffers;
+    private final Map<OutputBufferId, Integer> outputBufferIds;
+    private final Consumer<OutputBuffers> outputBufferTarget;
+
+    @GuardedBy("this")
+    private OutputBuffers outputBuffers;
 
     public PartitionedOutputBufferManager(PartitioningHandle partitioningHandle, int partitionCount, Consumer<OutputBuffers> outputBufferTarget)
     {
@@ -48,7 +54,9 @@ public class PartitionedOutputBufferManager
                 .withNoMoreBufferIds();
         outputBufferTarget.accept(outputBuffers);
 
-        this.outputBuffers = outputBuffers.getBuffers();
+        this.outputBufferIds = outputBuffers.getBuffers();
+        this.outputBufferTarget = outputBufferTarget;
+        this.outputBuffers = outputBuffers;
     }
 
     @Override
@@ -57,7 +65,7 @@ public class PartitionedOutputBufferManager
         // All buffers are created in the constructor, so just validate that this isn't
         // a request to add a new buffer
         for (OutputBufferId newBuffer : newBuffers) {
-            Integer existingBufferId = outputBuffers.get(newBuffer);
+            Integer existingBufferId = outputBufferIds.get(newBuffer);
             if (existingBufferId == null) {
                 throw new IllegalStateException("Unexpected new output buffer " + newBuffer);
             }
@@ -66,4 +74,22 @@ public class PartitionedOutputBufferManager
             }
         }
     }
+
+    @SuppressWarnings("ObjectEquality")
+    @Override
+    public void setMinBufferSize(DataSize minBufferSize)
+    {
+        OutputBuffers newOutputBuffers;
+        synchronized (this) {
+            OutputBuffers originalOutputBuffers = outputBuffers;
+            outputBuffers = outputBuffers.withMinBufferSize(minBufferSize);
+
+            // don't update if nothing changed
+            if (outputBuffers == originalOutputBuffers) {
+                return;
+            }
+            newOutputBuffers = this.outputBuffers;
+        }
+        outputBufferTarget.accept(newOutputBuffers);
+    }
 }
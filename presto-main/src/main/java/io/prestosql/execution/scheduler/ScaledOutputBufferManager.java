@@ -13,6 +13,7 @@
  */
 package io.prestosql.execution.scheduler;
 
+import io.airlift.units.DataSize;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
 
@@ -69,4 +70,22 @@ public class ScaledOutputBufferManager
         }
         outputBufferTarget.accept(newOutputBuffers);
     }
+
+    @SuppressWarnings("ObjectEquality")
+    @Override
+    public void setMinBufferSize(DataSize minBufferSize)
+    {
+        OutputBuffers newOutputBuffers;
+        synchronized (this) {
+            OutputBuffers originalOutputBuffers = outputBuffers;
+            outputBuffers = outputBuffers.withMinBufferSize(minBufferSize);
+
+            // don't update if nothing changed
+            if (outputBuffers == originalOutputBuffers) {
+                return;
+            }
+            newOutputBuffers = this.outputBuffers;
+        }
+        outputBufferTarget.accept(newOutputBuffers);
+    }
 }
@@ -22,6 +22,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.concurrent.SetThreadName;
 import io.airlift.stats.TimeStat;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.Session;
 import io.prestosql.connector.CatalogName;
@@ -35,6 +36,9 @@ import io.prestosql.execution.SqlStageExecution;
 import io.prestosql.execution.StageId;
 import io.prestosql.execution.StageInfo;
 import io.prestosql.execution.StageState;
+import io.prestosql.execution.TaskId;
+import io.prestosql.execution.TaskInfo;
+import io.prestosql.execution.TaskState;
 import io.prestosql.execution.TaskStatus;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
@@ -44,10 +48,13 @@ import io.prestosql.server.DynamicFilterService;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.connector.ConnectorPartitionHandle;
 import io.prestosql.split.SplitSource;
+import io.prestosql.sql.planner.AdaptiveJoinDistribution.AdaptiveJoin;
 import io.prestosql.sql.planner.NodePartitionMap;
 import io.prestosql.sql.planner.NodePartitioningManager;
 import io.prestosql.sql.planner.PartitioningHandle;
+import io.prestosql.sql.planner.PlanFragment;
 import io.prestosql.sql.planner.StageExecutionPlan;
+import io.prestosql.sql.planner.plan.JoinNode.DistributionType;
 import io.prestosql.sql.planner.plan.PlanFragmentId;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 
@@ -57,6 +64,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -66,6 +74,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -81,6 +91,10 @@ import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.concurrent.MoreFutures.tryGetFutureValue;
 import static io.airlift.concurrent.MoreFutures.whenAnyComplete;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
+import static io.airlift.units.DataSize.succinctBytes;
+import static io.prestosql.SystemSessionProperties.getAdaptiveJoinMaxBroadcastBuildSize;
+import static io.prestosql.SystemSessionProperties.getAdaptiveJoinMaxBuildWait;
+import static io.prestosql.SystemSessionProperties.getAdaptiveJoinMinPartitionedBuildSize;
 import static io.prestosql.SystemSessionProperties.getConcurrentLifespansPerNode;
 import static io.prestosql.SystemSessionProperties.getWriterMinSize;
 import static io.prestosql.connector.CatalogName.isInternalSystemConnector;
@@ -93,18 +107,24 @@ import static io.prestosql.execution.StageState.FINISHED;
 import static io.prestosql.execution.StageState.FLUSHING;
 import static io.prestosql.execution.StageState.RUNNING;
 import static io.prestosql.execution.StageState.SCHEDULED;
+import static io.prestosql.execution.buffer.OutputBuffers.BufferType.BROADCAST;
+import static io.prestosql.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
 import static io.prestosql.execution.scheduler.SourcePartitionedScheduler.newSourcePartitionedSchedulerAsStageScheduler;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spi.StandardErrorCode.NO_NODES_AVAILABLE;
 import static io.prestosql.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
+import static io.prestosql.sql.planner.AdaptiveJoinDistribution.isReplicatedBuildReader;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_BROADCAST_DISTRIBUTION;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.SCALED_WRITER_DISTRIBUTION;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.SOURCE_DISTRIBUTION;
 import static io.prestosql.sql.planner.plan.ExchangeNode.Type.REPLICATE;
+import static io.prestosql.sql.planner.plan.JoinNode.DistributionType.PARTITIONED;
+import static io.prestosql.sql.planner.plan.JoinNode.DistributionType.REPLICATED;
 import static io.prestosql.util.Failures.checkCondition;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toSet;
@@ -121,7 +141,18 @@ public class SqlQueryScheduler
     private final SplitSchedulerStats schedulerStats;
     private final boolean summarizeTaskInfo;
     private final DynamicFilterService dynamicFilterService;
+    private final List<AdaptiveJoin> adaptiveJoins;
+    private final BiConsumer<Set<PlanNodeId>, RunningStages> joinDistributionSwitcher;
+    private final DataSize adaptiveJoinMaxBroadcastBuildSize;
+    private final DataSize adaptiveJoinMinPartitionedBuildSize;
+    private final Duration adaptiveJoinMaxBuildWait;
+    private final Map<PartitioningHandle, NodePartitionMap> partitioningCache;
+    private final AtomicInteger nextStageId;
+    private final Set<StageId> initialCompletedStages;
+    // stages which keep running in the scheduler of the switched plan
+    private final Set<StageId> handedOverStages = newConcurrentHashSet();
     private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean replanned = new AtomicBoolean();
 
     public static SqlQueryScheduler createSqlQueryScheduler(
             QueryStateMachine queryStateMachine,
@@ -139,7 +170,10 @@ public class SqlQueryScheduler
             NodeTaskMap nodeTaskMap,
             ExecutionPolicy executionPolicy,
             SplitSchedulerStats schedulerStats,
-            DynamicFilterService dynamicFilterService)
+            DynamicFilterService dynamicFilterService,
+            Optional<RunningStages> runningStages,
+            List<AdaptiveJoin> adaptiveJoins,
+            BiConsumer<Set<PlanNodeId>, RunningStages> joinDistributionSwitcher)
     {
         SqlQueryScheduler sqlQueryScheduler = new SqlQueryScheduler(
                 queryStateMachine,
@@ -157,7 +191,10 @@ public class SqlQueryScheduler
                 nodeTaskMap,
                 executionPolicy,
                 schedulerStats,
-                dynamicFilterService);
+                dynamicFilterService,
+                runningStages,
+                adaptiveJoins,
+                joinDistributionSwitcher);
         sqlQueryScheduler.initialize();
         return sqlQueryScheduler;
     }
@@ -178,26 +215,39 @@ public class SqlQueryScheduler
             NodeTaskMap nodeTaskMap,
             ExecutionPolicy executionPolicy,
             SplitSchedulerStats schedulerStats,
-            DynamicFilterService dynamicFilterService)
+            DynamicFilterService dynamicFilterService,
+            Optional<RunningStages> runningStages,
+            List<AdaptiveJoin> adaptiveJoins,
+            BiConsumer<Set<PlanNodeId>, RunningStages> joinDistributionSwitcher)
     {
         this.queryStateMachine = requireNonNull(queryStateMachine, "queryStateMachine is null");
         this.executionPolicy = requireNonNull(executionPolicy, "schedulerPolicyFactory is null");
         this.schedulerStats = requireNonNull(schedulerStats, "schedulerStats is null");
         this.summarizeTaskInfo = summarizeTaskInfo;
         this.dynamicFilterService = requireNonNull(dynamicFilterService, "dynamicFilterService is null");
+        this.adaptiveJoins = ImmutableList.copyOf(requireNonNull(adaptiveJoins, "adaptiveJoins is null"));
+        this.joinDistributionSwitcher = requireNonNull(joinDistributionSwitcher, "joinDistributionSwitcher is null");
+        this.adaptiveJoinMaxBroadcastBuildSize = getAdaptiveJoinMaxBroadcastBuildSize(session);
+        this.adaptiveJoinMinPartitionedBuildSize = getAdaptiveJoinMinPartitionedBuildSize(session);
+        this.adaptiveJoinMaxBuildWait = getAdaptiveJoinMaxBuildWait(session);
+        requireNonNull(runningStages, "runningStages is null");
 
         // todo come up with a better way to build this, or eliminate this map
         ImmutableMap.Builder<StageId, StageScheduler> stageSchedulers = ImmutableMap.builder();
         ImmutableMap.Builder<StageId, StageLinkage> stageLinkages = ImmutableMap.builder();
 
         // Only fetch a distribution once per query to assure all stages see the same machine assignments
-        Map<PartitioningHandle, NodePartitionMap> partitioningCache = new HashMap<>();
+        this.partitioningCache = runningStages.map(RunningStages::getPartitioningCache).orElseGet(HashMap::new);
+        // the stage ids of the stages created for a switched plan continue after the ids of the running stages
+        this.nextStageId = new AtomicInteger(runningStages.map(RunningStages::getNextStageId).orElse(0));
+        this.initialCompletedStages = runningStages.map(RunningStages::getCompletedStages).orElse(ImmutableSet.of());
 
         OutputBufferId rootBufferId = Iterables.getOnlyElement(rootOutputBuffers.getBuffers().keySet());
         List<SqlStageExecution> stages = createStages(
                 (fragmentId, tasks, noMoreExchangeLocations) -> updateQueryOutputLocations(queryStateMachine, rootBufferId, tasks, noMoreExchangeLocations),
-                new AtomicInteger(),
+                nextStageId,
                 plan.withBucketToPartition(Optional.of(new int[1])),
+                runningStages,
                 nodeScheduler,
                 remoteTaskFactory,
                 session,
@@ -240,7 +290,7 @@ public class SqlQueryScheduler
 
         for (SqlStageExecution stage : stages.values()) {
             stage.addStateChangeListener(state -> {
-                if (queryStateMachine.isDone()) {
+                if (queryStateMachine.isDone() || replanned.get()) {
                     return;
                 }
                 if (state == FAILED) {
@@ -261,12 +311,16 @@ public class SqlQueryScheduler
 
         // when query is done or any time a stage completes, attempt to transition query to "final query info ready"
         queryStateMachine.addStateChangeListener(newState -> {
-            if (newState.isDone()) {
+            if (newState.isDone() && !replanned.get()) {
                 queryStateMachine.updateQueryInfo(Optional.ofNullable(getStageInfo()));
             }
         });
         for (SqlStageExecution stage : stages.values()) {
-            stage.addFinalStageInfoListener(status -> queryStateMachine.updateQueryInfo(Optional.ofNullable(getStageInfo())));
+            stage.addFinalStageInfoListener(status -> {
+                if (!replanned.get()) {
+                    queryStateMachine.updateQueryInfo(Optional.ofNullable(getStageInfo()));
+                }
+            });
         }
     }
 
@@ -283,6 +337,7 @@ public class SqlQueryScheduler
             ExchangeLocationsConsumer parent,
             AtomicInteger nextStageId,
             StageExecutionPlan plan,
+            Optional<RunningStages> runningStages,
             NodeScheduler nodeScheduler,
             RemoteTaskFactory remoteTaskFactory,
             Session session,
@@ -296,6 +351,11 @@ public class SqlQueryScheduler
             ImmutableMap.Builder<StageId, StageScheduler> stageSchedulers,
             ImmutableMap.Builder<StageId, StageLinkage> stageLinkages)
     {
+        Optional<SqlStageExecution> runningStage = runningStages.flatMap(running -> running.getRootStage(plan.getFragment().getId()));
+        if (runningStage.isPresent()) {
+            return adoptStages(parent, runningStage.get(), runningStages.get(), stageSchedulers, stageLinkages);
+        }
+
         ImmutableList.Builder<SqlStageExecution> stages = ImmutableList.builder();
 
         StageId stageId = new StageId(queryStateMachine.getQueryId(), nextStageId.getAndIncrement());
@@ -321,6 +381,7 @@ public class SqlQueryScheduler
                         stage::addExchangeLocations,
                         nextStageId,
                         subStagePlan.withBucketToPartition(bucketToPartition),
+                        runningStages,
                         nodeScheduler,
                         remoteTaskFactory,
                         session,
@@ -457,15 +518,42 @@ public class SqlQueryScheduler
 
         stage.addStateChangeListener(newState -> {
             if (newState == FLUSHING || newState.isDone()) {
-                childStages.forEach(SqlStageExecution::cancel);
+                // the stages handed over to the scheduler of a switched plan have a new parent
+                childStages.stream()
+                        .filter(childStage -> handedOverStages.contains(stageId) || !handedOverStages.contains(childStage.getStageId()))
+                        .forEach(SqlStageExecution::cancel);
             }
         });
 
-        stageLinkages.put(stageId, new StageLinkage(plan.getFragment().getId(), parent, childStages));
+        stageLinkages.put(stageId, new StageLinkage(plan.getFragment(), parent, childStages));
 
         return stages.build();
     }
 
+    /**
+     * Adds the running stages of a fragment of a switched plan, which was not changed, to this scheduler.
+     * The root stage of the fragment gets the new parent, and the existing tasks of the root stage are
+     * added as exchange locations of the parent.
+     */
+    private static List<SqlStageExecution> adoptStages(
+            ExchangeLocationsConsumer parent,
+            SqlStageExecution rootStage,
+            RunningStages runningStages,
+            ImmutableMap.Builder<StageId, StageScheduler> stageSchedulers,
+            ImmutableMap.Builder<StageId, StageLinkage> stageLinkages)
+    {
+        List<SqlStageExecution> stages = runningStages.getStageTree(rootStage.getStageId());
+        for (SqlStageExecution stage : stages) {
+            StageId stageId = stage.getStageId();
+            stageSchedulers.put(stageId, runningStages.getStageScheduler(stageId));
+            StageLinkage stageLinkage = runningStages.getStageLinkage(stageId);
+            stageLinkages.put(stageId, stageId.equals(rootStage.getStageId()) ? stageLinkage.withParent(parent) : stageLinkage);
+        }
+
+        parent.addExchangeLocations(rootStage.getFragment().getId(), ImmutableSet.copyOf(rootStage.getAllTasks()), !rootStage.getState().canScheduleMoreTasks());
+        return stages;
+    }
+
     public BasicStageStats getBasicStageStats()
     {
         List<BasicStageStats> stageStats = stages.values().stream()
@@ -538,55 +626,32 @@ public class SqlQueryScheduler
     private void schedule()
     {
         try (SetThreadName ignored = new SetThreadName("Query-%s", queryStateMachine.getQueryId())) {
-            Set<StageId> completedStages = new HashSet<>();
+            Set<StageId> completedStages = new HashSet<>(initialCompletedStages);
+            if (!adaptiveJoins.isEmpty()) {
+                Map<StageId, ExecutionSchedule> releasedStageTrees = new LinkedHashMap<>();
+                Set<PlanNodeId> switchedJoins = scheduleReleasedStages(completedStages, releasedStageTrees);
+                if (!switchedJoins.isEmpty()) {
+                    // the released stages keep running in the scheduler of the plan with the switched distributions,
+                    // and the stages which have not been scheduled yet are replaced
+                    RunningStages runningStages = handOverReleasedStages(completedStages, releasedStageTrees.keySet());
+                    replanned.set(true);
+                    stages.values().stream()
+                            .filter(stage -> !handedOverStages.contains(stage.getStageId()))
+                            .forEach(SqlStageExecution::abort);
+                    joinDistributionSwitcher.accept(switchedJoins, runningStages);
+                    return;
+                }
+            }
+
             ExecutionSchedule executionSchedule = executionPolicy.createExecutionSchedule(stages.values());
             while (!executionSchedule.isFinished()) {
                 List<ListenableFuture<?>> blockedStages = new ArrayList<>();
                 for (SqlStageExecution stage : executionSchedule.getStagesToSchedule()) {
-                    stage.beginScheduling();
-
-                    // perform some scheduling work
-                    ScheduleResult result = stageSchedulers.get(stage.getStageId())
-                            .schedule();
-
-                    // modify parent and children based on the results of the scheduling
-                    if (result.isFinished()) {
-                        stage.schedulingComplete();
-                    }
-                    else if (!result.getBlocked().isDone()) {
-                        blockedStages.add(result.getBlocked());
-                    }
-                    stageLinkages.get(stage.getStageId())
-                            .processScheduleResults(stage.getState(), result.getNewTasks());
-                    schedulerStats.getSplitsScheduledPerIteration().add(result.getSplitsScheduled());
-                    if (result.getBlockedReason().isPresent()) {
-                        switch (result.getBlockedReason().get()) {
-                            case WRITER_SCALING:
-                                // no-op
-                                break;
-                            case WAITING_FOR_SOURCE:
-                                schedulerStats.getWaitingForSource().update(1);
-                                break;
-                            case SPLIT_QUEUES_FULL:
-                                schedulerStats.getSplitQueuesFull().update(1);
-                                break;
-                            case MIXED_SPLIT_QUEUES_FULL_AND_WAITING_FOR_SOURCE:
-                            case NO_ACTIVE_DRIVER_GROUP:
-                                break;
-                            default:
-                                throw new UnsupportedOperationException("Unknown blocked reason: " + result.getBlockedReason().get());
-                        }
-                    }
+                    scheduleStage(stage, blockedStages);
                 }
 
                 // make sure to update stage linkage at least once per loop to catch async state changes (e.g., partial cancel)
-                for (SqlStageExecution stage : stages.values()) {
-                    if (!completedStages.contains(stage.getStageId()) && stage.getState().isDone()) {
-                        stageLinkages.get(stage.getStageId())
-                                .processScheduleResults(stage.getState(), ImmutableSet.of());
-                        completedStages.add(stage.getStageId());
-                    }
-                }
+                updateCompletedStages(completedStages);
 
                 // wait for a state change and then schedule again
                 if (!blockedStages.isEmpty()) {
@@ -612,7 +677,8 @@ public class SqlQueryScheduler
         }
         finally {
             RuntimeException closeError = new RuntimeException();
-            for (StageScheduler scheduler : stageSchedulers.values()) {
+            // the split sources of a switched plan are reused by its scheduler, and closed when the query is done
+            for (StageScheduler scheduler : replanned.get() ? ImmutableList.<StageScheduler>of() : stageSchedulers.values()) {
                 try {
                     scheduler.close();
                 }
@@ -630,6 +696,320 @@ public class SqlQueryScheduler
         }
     }
 
+    private void scheduleStage(SqlStageExecution stage, List<ListenableFuture<?>> blockedStages)
+    {
+        stage.beginScheduling();
+
+        // perform some scheduling work
+        ScheduleResult result = stageSchedulers.get(stage.getStageId())
+                .schedule();
+
+        // modify parent and children based on the results of the scheduling
+        if (result.isFinished()) {
+            stage.schedulingComplete();
+        }
+        else if (!result.getBlocked().isDone()) {
+            blockedStages.add(result.getBlocked());
+        }
+        stageLinkages.get(stage.getStageId())
+                .processScheduleResults(stage.getState(), result.getNewTasks());
+        schedulerStats.getSplitsScheduledPerIteration().add(result.getSplitsScheduled());
+        if (result.getBlockedReason().isPresent()) {
+            switch (result.getBlockedReason().get()) {
+                case WRITER_SCALING:
+                    // no-op
+                    break;
+                case WAITING_FOR_SOURCE:
+                    schedulerStats.getWaitingForSource().update(1);
+                    break;
+                case SPLIT_QUEUES_FULL:
+                    schedulerStats.getSplitQueuesFull().update(1);
+                    break;
+                case MIXED_SPLIT_QUEUES_FULL_AND_WAITING_FOR_SOURCE:
+                case NO_ACTIVE_DRIVER_GROUP:
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Unknown blocked reason: " + result.getBlockedReason().get());
+            }
+        }
+    }
+
+    /**
+     * Schedules only the released stages, which do not depend on the adaptive joins whose distribution is
+     * not decided yet, until the distribution of every join is decided, a join needs to switch its distribution,
+     * or the undecided joins have been held for the maximum build wait. The build sides are released from the
+     * start, and the stages which depend on a join are released as soon as its distribution is decided to stay.
+     * The consumers of the build sides of the undecided joins are not scheduled, so the build output stays in the
+     * output buffers of the build stages.
+     *
+     * @param releasedStageTrees receives the execution schedules of the released stage trees, by their root stages
+     * @return the ids of the joins whose distribution needs to be switched
+     */
+    private Set<PlanNodeId> scheduleReleasedStages(Set<StageId> completedStages, Map<StageId, ExecutionSchedule> releasedStageTrees)
+    {
+        Map<PlanFragmentId, SqlStageExecution> stagesByFragmentId = getStagesByFragmentId();
+        List<SqlStageExecution> buildStages = getBuildStageIds().stream()
+                .map(stages::get)
+                .collect(toImmutableList());
+        Map<PlanNodeId, AdaptiveJoinDecision> decisions = new LinkedHashMap<>();
+        releaseStages(releasedStageTrees, getHeldFragmentIds(decisions.keySet()));
+
+        // the decisions depend on the state and the output of the build tasks, so wait for their state changes
+        AtomicReference<SettableFuture<?>> buildStateChanged = new AtomicReference<>(SettableFuture.create());
+        Set<TaskId> listenedTasks = new HashSet<>();
+        for (SqlStageExecution buildStage : buildStages) {
+            buildStage.addStateChangeListener(state -> buildStateChanged.get().set(null));
+        }
+
+        long deadline = System.nanoTime() + adaptiveJoinMaxBuildWait.roundTo(NANOSECONDS);
+        while (!queryStateMachine.isDone()) {
+            SettableFuture<?> stateChanged = SettableFuture.create();
+            buildStateChanged.set(stateChanged);
+
+            List<ListenableFuture<?>> blockedStages = new ArrayList<>();
+            for (ExecutionSchedule executionSchedule : releasedStageTrees.values()) {
+                for (SqlStageExecution stage : executionSchedule.getStagesToSchedule()) {
+                    scheduleStage(stage, blockedStages);
+                }
+            }
+            updateCompletedStages(completedStages);
+
+            for (SqlStageExecution buildStage : buildStages) {
+                for (RemoteTask task : buildStage.getAllTasks()) {
+                    if (listenedTasks.add(task.getTaskId())) {
+                        task.addStateChangeListener(taskStatus -> buildStateChanged.get().set(null));
+                    }
+                }
+            }
+
+            for (AdaptiveJoin join : adaptiveJoins) {
+                if (!decisions.containsKey(join.getJoinId())) {
+                    SqlStageExecution buildStage = stagesByFragmentId.get(join.getBuildFragmentId());
+                    Optional<DataSize> minBufferSize = getMinBuildBufferSize(join, buildStage);
+                    minBufferSize.ifPresent(size -> stageLinkages.get(stagesByFragmentId.get(join.getFragmentId()).getStageId())
+                            .setChildMinBufferSize(buildStage.getStageId(), size));
+                    decideJoinDistribution(join, buildStage, minBufferSize)
+                            .ifPresent(decision -> decisions.put(join.getJoinId(), decision));
+                }
+            }
+            if (decisions.size() == adaptiveJoins.size() || decisions.values().stream().anyMatch(decision -> decision.getSelectedDistribution() != decision.getPlannedDistribution())) {
+                break;
+            }
+
+            long remainingWait = deadline - System.nanoTime();
+            if (remainingWait <= 0) {
+                // the undecided joins keep their planned distributions
+                break;
+            }
+
+            // the stages which depend only on the decided joins are scheduled right away
+            if (!releaseStages(releasedStageTrees, getHeldFragmentIds(decisions.keySet()))) {
+                // wait for a state change of the build stages or their tasks and then decide again
+                try (TimeStat.BlockTimer timer = schedulerStats.getSleepTime().time()) {
+                    tryGetFutureValue(whenAnyComplete(ImmutableList.<ListenableFuture<?>>builder()
+                            .addAll(blockedStages)
+                            .add(stateChanged)
+                            .build()), Ints.saturatedCast(Math.max(NANOSECONDS.toMillis(remainingWait), 1)), MILLISECONDS);
+                }
+            }
+            for (ListenableFuture<?> blockedStage : blockedStages) {
+                blockedStage.cancel(true);
+            }
+        }
+
+        queryStateMachine.setAdaptiveJoinDecisions(ImmutableList.copyOf(decisions.values()));
+        return decisions.values().stream()
+                .filter(decision -> decision.getSelectedDistribution() != decision.getPlannedDistribution())
+                .map(AdaptiveJoinDecision::getJoinId)
+                .collect(toImmutableSet());
+    }
+
+    private Set<PlanFragmentId> getHeldFragmentIds(Set<PlanNodeId> decidedJoinIds)
+    {
+        return adaptiveJoins.stream()
+                .filter(join -> !decidedJoinIds.contains(join.getJoinId()))
+                .flatMap(join -> join.getReplacedFragmentIds().stream())
+                .collect(toImmutableSet());
+    }
+
+    /**
+     * Creates the execution schedules of the stage trees which do not contain a fragment that is replaced when
+     * an undecided join is switched. The released stage trees only grow, so the schedule of a stage tree which
+     * becomes part of a larger released stage tree is replaced by the schedule of the larger tree.
+     *
+     * @return whether new stages were released
+     */
+    private boolean releaseStages(Map<StageId, ExecutionSchedule> releasedStageTrees, Set<PlanFragmentId> heldFragmentIds)
+    {
+        Set<StageId> releasedRootStageIds = new LinkedHashSet<>();
+        if (findReleasedRootStages(rootStageId, heldFragmentIds, releasedRootStageIds)) {
+            releasedRootStageIds.add(rootStageId);
+        }
+        if (releasedRootStageIds.equals(releasedStageTrees.keySet())) {
+            return false;
+        }
+
+        releasedStageTrees.keySet().retainAll(releasedRootStageIds);
+        for (StageId releasedRootStageId : releasedRootStageIds) {
+            releasedStageTrees.computeIfAbsent(releasedRootStageId, stageId -> executionPolicy.createExecutionSchedule(getStageTree(stageId).stream()
+                    .map(stages::get)
+                    .collect(toImmutableList())));
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the whole stage tree of the given stage is released
+     */
+    private boolean findReleasedRootStages(StageId stageId, Set<PlanFragmentId> heldFragmentIds, Set<StageId> releasedRootStageIds)
+    {
+        boolean released = !heldFragmentIds.contains(stages.get(stageId).getFragment().getId());
+        List<StageId> releasedChildStageIds = new ArrayList<>();
+        for (StageId childStageId : stageLinkages.get(stageId).getChildStageIds()) {
+            if (findReleasedRootStages(childStageId, heldFragmentIds, releasedRootStageIds)) {
+                releasedChildStageIds.add(childStageId);
+            }
+            else {
+                released = false;
+            }
+        }
+        if (!released) {
+            releasedRootStageIds.addAll(releasedChildStageIds);
+        }
+        return released;
+    }
+
+    /**
+     * Hands the released stages over to the scheduler of a plan with switched join distributions,
+     * which keeps the fragments of the released stages.
+     */
+    private RunningStages handOverReleasedStages(Set<StageId> completedStages, Set<StageId> releasedRootStageIds)
+    {
+        ImmutableMap.Builder<PlanFragmentId, SqlStageExecution> rootStages = ImmutableMap.builder();
+        for (StageId releasedRootStageId : releasedRootStageIds) {
+            SqlStageExecution releasedRootStage = stages.get(releasedRootStageId);
+            rootStages.put(releasedRootStage.getFragment().getId(), releasedRootStage);
+            handedOverStages.addAll(getStageTree(releasedRootStageId));
+        }
+
+        return new RunningStages(
+                rootStages.build(),
+                filterHandedOver(stages),
+                filterHandedOver(stageSchedulers),
+                filterHandedOver(stageLinkages),
+                completedStages.stream()
+                        .filter(handedOverStages::contains)
+                        .collect(toImmutableSet()),
+                partitioningCache,
+                nextStageId.get());
+    }
+
+    private <T> Map<StageId, T> filterHandedOver(Map<StageId, T> values)
+    {
+        return values.entrySet().stream()
+                .filter(entry -> handedOverStages.contains(entry.getKey()))
+                .collect(toImmutableMap(Entry::getKey, Entry::getValue));
+    }
+
+    private Map<PlanFragmentId, SqlStageExecution> getStagesByFragmentId()
+    {
+        return stages.values().stream()
+                .collect(toImmutableMap(stage -> stage.getFragment().getId(), identity()));
+    }
+
+    private Set<StageId> getBuildStageIds()
+    {
+        Map<PlanFragmentId, SqlStageExecution> stagesByFragmentId = getStagesByFragmentId();
+        return adaptiveJoins.stream()
+                .map(join -> stagesByFragmentId.get(join.getBuildFragmentId()).getStageId())
+                .collect(toImmutableSet());
+    }
+
+    /**
+     * The output of a held build stage is not consumed, so the output buffer of each build task must hold its share
+     * of the size the decision depends on, which can be larger than the configured max buffer size of the tasks.
+     */
+    private Optional<DataSize> getMinBuildBufferSize(AdaptiveJoin join, SqlStageExecution buildStage)
+    {
+        int taskCount = buildStage.getAllTasks().size();
+        if (taskCount == 0) {
+            return Optional.empty();
+        }
+        long threshold = getBuildSizeThreshold(join).toBytes();
+        return Optional.of(succinctBytes((threshold + taskCount - 1) / taskCount));
+    }
+
+    private DataSize getBuildSizeThreshold(AdaptiveJoin join)
+    {
+        return join.getDistributionType() == REPLICATED ? adaptiveJoinMaxBroadcastBuildSize : adaptiveJoinMinPartitionedBuildSize;
+    }
+
+    private Optional<AdaptiveJoinDecision> decideJoinDistribution(AdaptiveJoin join, SqlStageExecution buildStage, Optional<DataSize> minBufferSize)
+    {
+        StageState stageState = buildStage.getState();
+        List<TaskInfo> taskInfos = buildStage.getAllTasks().stream()
+                .map(RemoteTask::getTaskInfo)
+                .collect(toImmutableList());
+        DataSize buildDataSize = succinctBytes(taskInfos.stream()
+                .mapToLong(taskInfo -> taskInfo.getStats().getOutputDataSize().toBytes())
+                .sum());
+        boolean outputComplete = (stageState == FLUSHING || stageState == FINISHED) && taskInfos.stream()
+                .map(taskInfo -> taskInfo.getTaskStatus().getState())
+                .allMatch(taskState -> taskState == TaskState.FLUSHING || taskState == TaskState.FINISHED);
+
+        DistributionType selectedDistribution;
+        if (join.getDistributionType() == REPLICATED) {
+            if (buildDataSize.toBytes() > adaptiveJoinMaxBroadcastBuildSize.toBytes()) {
+                selectedDistribution = PARTITIONED;
+            }
+            else if (outputComplete) {
+                selectedDistribution = REPLICATED;
+            }
+            else {
+                return Optional.empty();
+            }
+        }
+        else {
+            // The build output is not consumed before the join is scheduled, so it can only grow until the output buffers are full.
+            // A task is only counted as blocked once it buffers its share of the threshold, as a task can block on the configured
+            // max buffer size before it receives the larger min buffer size.
+            boolean outputBlocked = minBufferSize.isPresent() && (stageState == SCHEDULED || stageState == RUNNING) && !taskInfos.isEmpty() && taskInfos.stream()
+                    .allMatch(taskInfo -> taskInfo.getTaskStatus().isOutputBufferOverutilized() &&
+                            taskInfo.getOutputBuffers().getTotalBufferedBytes() >= minBufferSize.get().toBytes());
+            if (outputBlocked || buildDataSize.toBytes() >= adaptiveJoinMinPartitionedBuildSize.toBytes()) {
+                selectedDistribution = PARTITIONED;
+            }
+            else if (outputComplete) {
+                selectedDistribution = REPLICATED;
+            }
+            else {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new AdaptiveJoinDecision(join.getJoinId(), join.getDistributionType(), selectedDistribution, buildDataSize));
+    }
+
+    private Set<StageId> getStageTree(StageId stageId)
+    {
+        ImmutableSet.Builder<StageId> stageTree = ImmutableSet.builder();
+        stageTree.add(stageId);
+        for (StageId childStageId : stageLinkages.get(stageId).getChildStageIds()) {
+            stageTree.addAll(getStageTree(childStageId));
+        }
+        return stageTree.build();
+    }
+
+    private void updateCompletedStages(Set<StageId> completedStages)
+    {
+        for (SqlStageExecution stage : stages.values()) {
+            if (!completedStages.contains(stage.getStageId()) && stage.getState().isDone()) {
+                stageLinkages.get(stage.getStageId())
+                        .processScheduleResults(stage.getState(), ImmutableSet.of());
+                completedStages.add(stage.getStageId());
+            }
+        }
+    }
+
     public void cancelStage(StageId stageId)
     {
         try (SetThreadName ignored = new SetThreadName("Query-%s", queryStateMachine.getQueryId())) {
@@ -674,18 +1054,27 @@ public class SqlQueryScheduler
     {
         private final PlanFragmentId currentStageFragmentId;
         private final ExchangeLocationsConsumer parent;
-        private final Set<OutputBufferManager> childOutputBufferManagers;
+        private final Map<StageId, OutputBufferManager> childOutputBufferManagers;
         private final Set<StageId> childStageIds;
 
-        public StageLinkage(PlanFragmentId fragmentId, ExchangeLocationsConsumer parent, Set<SqlStageExecution> children)
+        public StageLinkage(PlanFragment fragment, ExchangeLocationsConsumer parent, Set<SqlStageExecution> children)
         {
-            this.currentStageFragmentId = fragmentId;
+            this.currentStageFragmentId = fragment.getId();
             this.parent = parent;
+            boolean readChildrenOnce = isReplicatedBuildReader(fragment);
             this.childOutputBufferManagers = children.stream()
-                    .map(childStage -> {
+                    .collect(toImmutableMap(SqlStageExecution::getStageId, childStage -> {
                         PartitioningHandle partitioningHandle = childStage.getFragment().getPartitioningScheme().getPartitioning().getHandle();
                         if (partitioningHandle.equals(FIXED_BROADCAST_DISTRIBUTION)) {
-                            return new BroadcastOutputBufferManager(childStage::setOutputBuffers);
+                            // an adopted child stage keeps its output buffers, so the new ones must continue from their version
+                            OutputBuffers outputBuffers = Optional.ofNullable(childStage.getOutputBuffers())
+                                    .orElseGet(() -> createInitialEmptyOutputBuffers(BROADCAST));
+                            BroadcastOutputBufferManager outputBufferManager = new BroadcastOutputBufferManager(childStage::setOutputBuffers, outputBuffers);
+                            if (readChildrenOnce) {
+                                // each task of the child stage is read from its only buffer, by a single task of this stage
+                                outputBufferManager.addOutputBuffers(ImmutableList.of(new OutputBufferId(0)), true);
+                            }
+                            return outputBufferManager;
                         }
                         else if (partitioningHandle.equals(SCALED_WRITER_DISTRIBUTION)) {
                             return new ScaledOutputBufferManager(childStage::setOutputBuffers);
@@ -694,19 +1083,38 @@ public class SqlQueryScheduler
                             int partitionCount = Ints.max(childStage.getFragment().getPartitioningScheme().getBucketToPartition().get()) + 1;
                             return new PartitionedOutputBufferManager(partitioningHandle, partitionCount, childStage::setOutputBuffers);
                         }
-                    })
-                    .collect(toImmutableSet());
+                    }));
 
             this.childStageIds = children.stream()
                     .map(SqlStageExecution::getStageId)
                     .collect(toImmutableSet());
         }
 
+        private StageLinkage(PlanFragmentId fragmentId, ExchangeLocationsConsumer parent, Map<StageId, OutputBufferManager> childOutputBufferManagers, Set<StageId> childStageIds)
+        {
+            this.currentStageFragmentId = fragmentId;
+            this.parent = parent;
+            this.childOutputBufferManagers = childOutputBufferManagers;
+            this.childStageIds = childStageIds;
+        }
+
+        public StageLinkage withParent(ExchangeLocationsConsumer parent)
+        {
+            return new StageLinkage(currentStageFragmentId, parent, childOutputBufferManagers, childStageIds);
+        }
+
         public Set<StageId> getChildStageIds()
         {
             return childStageIds;
         }
 
+        public void setChildMinBufferSize(StageId childStageId, DataSize minBufferSize)
+        {
+            OutputBufferManager child = childOutputBufferManagers.get(childStageId);
+            checkArgument(child != null, "%s is not a child stage", childStageId);
+            child.setMinBufferSize(minBufferSize);
+        }
+
         public void processScheduleResults(StageState newState, Set<RemoteTask> newTasks)
         {
             boolean noMoreTasks = !newState.canScheduleMoreTasks();
@@ -718,10 +1126,84 @@ public class SqlQueryScheduler
                 List<OutputBufferId> newOutputBuffers = newTasks.stream()
                         .map(task -> new OutputBufferId(task.getTaskId().getId()))
                         .collect(toImmutableList());
-                for (OutputBufferManager child : childOutputBufferManagers) {
+                for (OutputBufferManager child : childOutputBufferManagers.values()) {
                     child.addOutputBuffers(newOutputBuffers, noMoreTasks);
                 }
             }
         }
     }
+
+    /**
+     * The stages which were released while the adaptive joins were held, including the build sides of
+     * the joins, which keep running when the query is scheduled again with switched join distributions.
+     */
+    public static class RunningStages
+    {
+        private final Map<PlanFragmentId, SqlStageExecution> rootStages;
+        private final Map<StageId, SqlStageExecution> stages;
+        private final Map<StageId, StageScheduler> stageSchedulers;
+        private final Map<StageId, StageLinkage> stageLinkages;
+        private final Set<StageId> completedStages;
+        private final Map<PartitioningHandle, NodePartitionMap> partitioningCache;
+        private final int nextStageId;
+
+        private RunningStages(
+                Map<PlanFragmentId, SqlStageExecution> rootStages,
+                Map<StageId, SqlStageExecution> stages,
+                Map<StageId, StageScheduler> stageSchedulers,
+                Map<StageId, StageLinkage> stageLinkages,
+                Set<StageId> completedStages,
+                Map<PartitioningHandle, NodePartitionMap> partitioningCache,
+                int nextStageId)
+        {
+            this.rootStages = ImmutableMap.copyOf(requireNonNull(rootStages, "rootStages is null"));
+            this.stages = ImmutableMap.copyOf(requireNonNull(stages, "stages is null"));
+            this.stageSchedulers = ImmutableMap.copyOf(requireNonNull(stageSchedulers, "stageSchedulers is null"));
+            this.stageLinkages = ImmutableMap.copyOf(requireNonNull(stageLinkages, "stageLinkages is null"));
+            this.completedStages = ImmutableSet.copyOf(requireNonNull(completedStages, "completedStages is null"));
+            // the new stages must see the same machine assignments as the running stages
+            this.partitioningCache = requireNonNull(partitioningCache, "partitioningCache is null");
+            this.nextStageId = nextStageId;
+        }
+
+        private Optional<SqlStageExecution> getRootStage(PlanFragmentId fragmentId)
+        {
+            return Optional.ofNullable(rootStages.get(fragmentId));
+        }
+
+        private List<SqlStageExecution> getStageTree(StageId stageId)
+        {
+            ImmutableList.Builder<SqlStageExecution> stageTree = ImmutableList.builder();
+            stageTree.add(stages.get(stageId));
+            for (StageId childStageId : stageLinkages.get(stageId).getChildStageIds()) {
+                stageTree.addAll(getStageTree(childStageId));
+            }
+            return stageTree.build();
+        }
+
+        private StageScheduler getStageScheduler(StageId stageId)
+        {
+            return stageSchedulers.get(stageId);
+        }
+
+        private StageLinkage getStageLinkage(StageId stageId)
+        {
+            return stageLinkages.get(stageId);
+        }
+
+        private Set<StageId> getCompletedStages()
+        {
+            return completedStages;
+        }
+
+        private Map<PartitioningHandle, NodePartitionMap> getPartitioningCache()
+        {
+            return partitioningCache;
+        }
+
+        private int getNextStageId()
+        {
+            return nextStageId;
+        }
+    }
 }
@@ -17,6 +17,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.units.DataSize;
+import io.prestosql.execution.buffer.PageBufferAllocator;
 import io.prestosql.spi.memory.MemoryPoolId;
 import io.prestosql.spi.memory.MemoryPoolInfo;
 
@@ -43,6 +44,7 @@ public final class LocalMemoryManager
 
     private DataSize maxMemory;
     private Map<MemoryPoolId, MemoryPool> pools;
+    private final PageBufferAllocator pageBufferAllocator;
 
     @Inject
     public LocalMemoryManager(NodeMemoryConfig config)
@@ -55,6 +57,12 @@ public final class LocalMemoryManager
     {
         requireNonNull(config, "config is null");
         configureMemoryPools(config, availableMemory);
+        if (config.isOffHeapPageBufferEnabled()) {
+            pageBufferAllocator = new PageBufferAllocator(config.getOffHeapPageBufferMaxSize());
+        }
+        else {
+            pageBufferAllocator = PageBufferAllocator.onHeapAllocator();
+        }
     }
 
     private void configureMemoryPools(NodeMemoryConfig config, long availableMemory)
@@ -115,4 +123,9 @@ public final class LocalMemoryManager
     {
         return Optional.ofNullable(pools.get(RESERVED_POOL));
     }
+
+    public PageBufferAllocator getPageBufferAllocator()
+    {
+        return pageBufferAllocator;
+    }
 }
@@ -13,6 +13,7 @@
  */
 package io.prestosql.memory;
 
+import io.prestosql.execution.buffer.PageBufferAllocator;
 import org.weakref.jmx.JmxException;
 import org.weakref.jmx.MBeanExporter;
 import org.weakref.jmx.ObjectNames;
@@ -31,6 +32,8 @@ public final class LocalMemoryManagerExporter
     private final MBeanExporter exporter;
     @GuardedBy("this")
     private final List<MemoryPool> pools = new ArrayList<>();
+    @GuardedBy("this")
+    private boolean pageBufferAllocatorExported;
 
     @Inject
     public LocalMemoryManagerExporter(LocalMemoryManager memoryManager, MBeanExporter exporter)
@@ -39,6 +42,18 @@ public final class LocalMemoryManagerExporter
         for (MemoryPool pool : memoryManager.getPools()) {
             addPool(pool);
         }
+        addPageBufferAllocator(memoryManager.getPageBufferAllocator());
+    }
+
+    private synchronized void addPageBufferAllocator(PageBufferAllocator allocator)
+    {
+        try {
+            exporter.exportWithGeneratedName(allocator, PageBufferAllocator.class, "off-heap");
+            pageBufferAllocatorExported = true;
+        }
+        catch (JmxException e) {
+            // ignored
+        }
     }
 
     private synchronized void addPool(MemoryPool pool)
@@ -65,5 +80,14 @@ public final class LocalMemoryManagerExporter
             }
         }
         pools.clear();
+        if (pageBufferAllocatorExported) {
+            try {
+                exporter.unexport(ObjectNames.builder(PageBufferAllocator.class, "off-heap").build());
+            }
+            catch (JmxException e) {
+                // ignored
+            }
+            pageBufferAllocatorExported = false;
+        }
     }
 }
@@ -21,6 +21,8 @@ import io.airlift.units.DataSize;
 
 import javax.validation.constraints.NotNull;
 
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+
 // This is separate from MemoryManagerConfig because it's difficult to test the default value of maxQueryMemoryPerNode
 @DefunctConfig("deprecated.legacy-system-pool-enabled")
 public class NodeMemoryConfig
@@ -37,6 +39,9 @@ public class NodeMemoryConfig
     private DataSize maxQueryTotalMemoryPerNode = DataSize.ofBytes(Math.round(AVAILABLE_HEAP_MEMORY * 0.3));
     private DataSize heapHeadroom = DataSize.ofBytes(Math.round(AVAILABLE_HEAP_MEMORY * 0.3));
 
+    private boolean offHeapPageBufferEnabled;
+    private DataSize offHeapPageBufferMaxSize = DataSize.of(1, GIGABYTE);
+
     @NotNull
     public DataSize getMaxQueryMemoryPerNode()
     {
@@ -97,4 +102,31 @@ public class NodeMemoryConfig
         this.heapHeadroom = heapHeadroom;
         return this;
     }
+
+    public boolean isOffHeapPageBufferEnabled()
+    {
+        return offHeapPageBufferEnabled;
+    }
+
+    @Config("memory.off-heap-page-buffer.enabled")
+    @ConfigDescription("Keep serialized pages in output buffers in direct memory")
+    public NodeMemoryConfig setOffHeapPageBufferEnabled(boolean offHeapPageBufferEnabled)
+    {
+        this.offHeapPageBufferEnabled = offHeapPageBufferEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getOffHeapPageBufferMaxSize()
+    {
+        return offHeapPageBufferMaxSize;
+    }
+
+    @Config("memory.off-heap-page-buffer.max-size")
+    @ConfigDescription("Maximum amount of direct memory used for page buffers; must be lower than -XX:MaxDirectMemorySize")
+    public NodeMemoryConfig setOffHeapPageBufferMaxSize(DataSize offHeapPageBufferMaxSize)
+    {
+        this.offHeapPageBufferMaxSize = offHeapPageBufferMaxSize;
+        return this;
+    }
 }
@@ -19,6 +19,7 @@ import io.prestosql.spi.function.InvocationConvention;
 import io.prestosql.spi.function.OperatorType;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeSignature;
+import io.prestosql.sql.gen.GeneratedClassCache;
 import io.prestosql.sql.tree.QualifiedName;
 
 import java.util.Collection;
@@ -43,17 +44,28 @@ public class FunctionDependencies
     private final Map<FunctionKey, ResolvedFunction> functions;
     private final Map<OperatorKey, ResolvedFunction> operators;
     private final Map<CastKey, ResolvedFunction> casts;
+    private final GeneratedClassCache generatedClassCache;
 
     public FunctionDependencies(
             Metadata metadata,
             Map<TypeSignature, Type> typeDependencies,
             Collection<ResolvedFunction> functionDependencies)
+    {
+        this(metadata, typeDependencies, functionDependencies, GeneratedClassCache.noCache());
+    }
+
+    public FunctionDependencies(
+            Metadata metadata,
+            Map<TypeSignature, Type> typeDependencies,
+            Collection<ResolvedFunction> functionDependencies,
+            GeneratedClassCache generatedClassCache)
     {
         requireNonNull(metadata, "metadata is null");
         requireNonNull(typeDependencies, "typeDependencies is null");
         requireNonNull(functionDependencies, "functionDependencies is null");
 
         this.metadata = metadata;
+        this.generatedClassCache = requireNonNull(generatedClassCache, "generatedClassCache is null");
         this.types = ImmutableMap.copyOf(typeDependencies);
         this.functions = functionDependencies.stream()
                 .filter(function -> !isOperatorName(function.getSignature().getName()))
@@ -66,6 +78,11 @@ public class FunctionDependencies
                 .collect(toImmutableMap(CastKey::new, identity()));
     }
 
+    public GeneratedClassCache getGeneratedClassCache()
+    {
+        return generatedClassCache;
+    }
+
     public Type getType(TypeSignature typeSignature)
     {
         // CHAR type does not properly roundtrip, so load directly from metadata and then verify type was declared correctly
@@ -386,6 +386,13 @@ public interface Metadata
             Map<String, ColumnHandle> assignments,
             List<List<ColumnHandle>> groupingSets);
 
+    Optional<AggregationApplicationResult<TableHandle>> applyPartialAggregation(
+            Session session,
+            TableHandle table,
+            List<AggregateFunction> aggregations,
+            Map<String, ColumnHandle> assignments,
+            List<List<ColumnHandle>> groupingSets);
+
     Optional<TopNApplicationResult<TableHandle>> applyTopN(
             Session session,
             TableHandle handle,
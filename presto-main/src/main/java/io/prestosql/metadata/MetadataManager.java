@@ -102,6 +102,7 @@ import io.prestosql.spi.type.TypeOperators;
 import io.prestosql.spi.type.TypeSignature;
 import io.prestosql.sql.analyzer.FeaturesConfig;
 import io.prestosql.sql.analyzer.TypeSignatureProvider;
+import io.prestosql.sql.gen.GeneratedClassCache;
 import io.prestosql.sql.planner.ConnectorExpressions;
 import io.prestosql.sql.planner.PartitioningHandle;
 import io.prestosql.sql.tree.QualifiedName;
@@ -180,6 +181,7 @@ public final class MetadataManager
 {
     private final FunctionRegistry functions;
     private final TypeOperators typeOperators;
+    private final GeneratedClassCache generatedClassCache;
     private final FunctionResolver functionResolver;
     private final ProcedureRegistry procedures;
     private final SessionPropertyManager sessionPropertyManager;
@@ -195,7 +197,6 @@ public final class MetadataManager
 
     private final ResolvedFunctionDecoder functionDecoder;
 
-    @Inject
     public MetadataManager(
             FeaturesConfig featuresConfig,
             SessionPropertyManager sessionPropertyManager,
@@ -206,6 +207,32 @@ public final class MetadataManager
             TransactionManager transactionManager,
             TypeOperators typeOperators,
             BlockTypeOperators blockTypeOperators)
+    {
+        this(
+                featuresConfig,
+                sessionPropertyManager,
+                schemaPropertyManager,
+                tablePropertyManager,
+                columnPropertyManager,
+                analyzePropertyManager,
+                transactionManager,
+                typeOperators,
+                blockTypeOperators,
+                GeneratedClassCache.noCache());
+    }
+
+    @Inject
+    public MetadataManager(
+            FeaturesConfig featuresConfig,
+            SessionPropertyManager sessionPropertyManager,
+            SchemaPropertyManager schemaPropertyManager,
+            TablePropertyManager tablePropertyManager,
+            ColumnPropertyManager columnPropertyManager,
+            AnalyzePropertyManager analyzePropertyManager,
+            TransactionManager transactionManager,
+            TypeOperators typeOperators,
+            BlockTypeOperators blockTypeOperators,
+            GeneratedClassCache generatedClassCache)
     {
         typeRegistry = new TypeRegistry(featuresConfig);
         functions = new FunctionRegistry(this::getBlockEncodingSerde, featuresConfig, typeOperators, blockTypeOperators);
@@ -219,6 +246,7 @@ public final class MetadataManager
         this.analyzePropertyManager = requireNonNull(analyzePropertyManager, "analyzePropertyManager is null");
         this.transactionManager = requireNonNull(transactionManager, "transactionManager is null");
         this.typeOperators = requireNonNull(typeOperators, "typeOperators is null");
+        this.generatedClassCache = requireNonNull(generatedClassCache, "generatedClassCache is null");
 
         // add the built-in BlockEncodings
         addBlockEncoding(new VariableWidthBlockEncoding());
@@ -1238,6 +1266,37 @@ public final class MetadataManager
                 });
     }
 
+    @Override
+    public Optional<AggregationApplicationResult<TableHandle>> applyPartialAggregation(
+            Session session,
+            TableHandle table,
+            List<AggregateFunction> aggregations,
+            Map<String, ColumnHandle> assignments,
+            List<List<ColumnHandle>> groupingSets)
+    {
+        // Global aggregation is represented by [[]]
+        checkArgument(!groupingSets.isEmpty(), "No grouping sets provided");
+
+        CatalogName catalogName = table.getCatalogName();
+        ConnectorMetadata metadata = getMetadata(session, catalogName);
+
+        if (metadata.usesLegacyTableLayouts()) {
+            return Optional.empty();
+        }
+
+        ConnectorSession connectorSession = session.toConnectorSession(catalogName);
+        return metadata.applyPartialAggregation(connectorSession, table.getConnectorHandle(), aggregations, assignments, groupingSets)
+                .map(result -> {
+                    verifyProjection(table, result.getProjections(), result.getAssignments(), aggregations.size());
+
+                    return new AggregationApplicationResult<>(
+                            new TableHandle(catalogName, result.getHandle(), table.getTransaction(), Optional.empty()),
+                            result.getProjections(),
+                            result.getAssignments(),
+                            result.getGroupingColumnMapping());
+                });
+    }
+
     @Override
     public Optional<TopNApplicationResult<TableHandle>> applyTopN(
             Session session,
@@ -1861,7 +1920,7 @@ public final class MetadataManager
     @Override
     public InternalAggregationFunction getAggregateFunctionImplementation(ResolvedFunction resolvedFunction)
     {
-        FunctionDependencies functionDependencies = new FunctionDependencies(this, resolvedFunction.getTypeDependencies(), resolvedFunction.getFunctionDependencies());
+        FunctionDependencies functionDependencies = new FunctionDependencies(this, resolvedFunction.getTypeDependencies(), resolvedFunction.getFunctionDependencies(), generatedClassCache);
         return functions.getAggregateFunctionImplementation(toFunctionBinding(resolvedFunction), functionDependencies);
     }
 
@@ -0,0 +1,189 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.airlift.units.DataSize;
+import org.openjdk.jol.info.ClassLayout;
+
+import javax.annotation.Nullable;
+
+import java.util.Arrays;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Integer.numberOfLeadingZeros;
+
+/**
+ * Split block bloom filter over 64-bit hashes. Each hash selects a single 256-bit block
+ * (eight 32-bit words) and sets one bit in every word of the block, so an insert or a
+ * lookup touches exactly one cache line. Filters of the same size can be merged with
+ * {@link #union(BlockedBloomFilter)}, which makes them suitable for combining the
+ * per-driver filters collected on the build side of a join.
+ * <p>
+ * A filter created with {@link #ofHashes(long[])} keeps the exact set of hashes instead of
+ * blocks, so its size follows the number of distinct entries. It is used for inputs which are
+ * small enough to be represented exactly, and its hashes are only added to blocks when it is
+ * merged with a filter that has them.
+ * <p>
+ * The filter is not thread safe. It is built by a single operator and is only read
+ * after it has been published.
+ */
+public final class BlockedBloomFilter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(BlockedBloomFilter.class).instanceSize();
+
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BYTES_PER_BLOCK = WORDS_PER_BLOCK * Integer.BYTES;
+    // the number of bits set per entry is fixed by the block layout, so about 10 bits per
+    // distinct entry keep the false positive probability around 1%
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int[] SALT = {
+            0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+            0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31};
+
+    // null if the filter holds exact hashes
+    @Nullable
+    private final int[] words;
+    private final int blockMask;
+    // sorted distinct hashes, null if the filter holds blocks
+    @Nullable
+    private final long[] hashes;
+
+    public static BlockedBloomFilter create(DataSize maxSize)
+    {
+        long maxBlocks = maxSize.toBytes() / BYTES_PER_BLOCK;
+        checkArgument(maxBlocks > 0, "maxSize must be at least %s bytes", BYTES_PER_BLOCK);
+        checkArgument(maxBlocks <= (1 << 24), "maxSize is too large: %s", maxSize);
+        // round down to a power of two so that the block index can be computed with a mask
+        int blockCount = 1 << (31 - numberOfLeadingZeros((int) maxBlocks));
+        return new BlockedBloomFilter(new int[blockCount * WORDS_PER_BLOCK]);
+    }
+
+    /**
+     * Creates a filter which holds exactly the given hashes. No entries can be added to it.
+     */
+    public static BlockedBloomFilter ofHashes(long[] hashes)
+    {
+        long[] sortedHashes = Arrays.stream(hashes).sorted().distinct().toArray();
+        return new BlockedBloomFilter(sortedHashes);
+    }
+
+    private BlockedBloomFilter(int[] words)
+    {
+        checkArgument(words.length % WORDS_PER_BLOCK == 0, "words length must be a multiple of %s", WORDS_PER_BLOCK);
+        int blockCount = words.length / WORDS_PER_BLOCK;
+        checkArgument(Integer.bitCount(blockCount) == 1, "block count must be a power of two");
+        this.words = words;
+        this.blockMask = blockCount - 1;
+        this.hashes = null;
+    }
+
+    private BlockedBloomFilter(long[] hashes)
+    {
+        this.words = null;
+        this.blockMask = 0;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Maximum number of entries that can be added before the false positive probability
+     * rises noticeably above 1%.
+     */
+    public long getMaxEntries()
+    {
+        checkState(words != null, "Filter holds exact hashes");
+        return (long) words.length * Integer.SIZE / BITS_PER_ENTRY;
+    }
+
+    public void put(long hash)
+    {
+        checkState(words != null, "Cannot add entries to a filter which holds exact hashes");
+        int offset = blockOffset(hash);
+        int key = (int) hash;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            words[offset + i] |= 1 << ((key * SALT[i]) >>> 27);
+        }
+    }
+
+    public boolean mightContain(long hash)
+    {
+        if (words == null) {
+            return Arrays.binarySearch(hashes, hash) >= 0;
+        }
+        int offset = blockOffset(hash);
+        int key = (int) hash;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            int mask = 1 << ((key * SALT[i]) >>> 27);
+            if ((words[offset + i] & mask) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a new filter which contains the entries of both filters. The result holds exact
+     * hashes only if both filters do.
+     */
+    public BlockedBloomFilter union(BlockedBloomFilter other)
+    {
+        if (words == null) {
+            if (other.words == null) {
+                long[] result = Arrays.copyOf(hashes, hashes.length + other.hashes.length);
+                System.arraycopy(other.hashes, 0, result, hashes.length, other.hashes.length);
+                return ofHashes(result);
+            }
+            return other.union(this);
+        }
+        if (other.words == null) {
+            BlockedBloomFilter result = new BlockedBloomFilter(words.clone());
+            for (long hash : other.hashes) {
+                result.put(hash);
+            }
+            return result;
+        }
+        checkArgument(words.length == other.words.length, "Cannot merge bloom filters of different sizes: %s and %s", words.length, other.words.length);
+        int[] result = new int[words.length];
+        for (int i = 0; i < words.length; i++) {
+            result[i] = words[i] | other.words[i];
+        }
+        return new BlockedBloomFilter(result);
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(words) + sizeOf(hashes);
+    }
+
+    private int blockOffset(long hash)
+    {
+        // use the upper half of the hash for the block and the lower half for the bits within the block
+        return ((int) (hash >>> 32) & blockMask) * WORDS_PER_BLOCK;
+    }
+
+    @Override
+    public String toString()
+    {
+        if (words == null) {
+            return toStringHelper(this)
+                    .add("hashes", hashes.length)
+                    .toString();
+        }
+        return toStringHelper(this)
+                .add("sizeInBytes", words.length * Integer.BYTES)
+                .toString();
+    }
+}
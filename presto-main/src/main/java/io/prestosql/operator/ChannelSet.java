@@ -17,6 +17,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.type.Type;
 import io.prestosql.sql.gen.JoinCompiler;
 import io.prestosql.type.BlockTypeOperators;
@@ -87,6 +88,18 @@ public class ChannelSet
         private final LocalMemoryContext localMemoryContext;
 
         public ChannelSetBuilder(Type type, Optional<Integer> hashChannel, int expectedPositions, OperatorContext operatorContext, JoinCompiler joinCompiler, BlockTypeOperators blockTypeOperators)
+        {
+            this(type, hashChannel, expectedPositions, operatorContext, operatorContext.localUserMemoryContext(), joinCompiler, blockTypeOperators);
+        }
+
+        public ChannelSetBuilder(
+                Type type,
+                Optional<Integer> hashChannel,
+                int expectedPositions,
+                OperatorContext operatorContext,
+                LocalMemoryContext localMemoryContext,
+                JoinCompiler joinCompiler,
+                BlockTypeOperators blockTypeOperators)
         {
             List<Type> types = ImmutableList.of(type);
             this.hash = createGroupByHash(
@@ -100,7 +113,7 @@ public class ChannelSet
                     this::updateMemoryReservation);
             this.nullBlockPage = new Page(type.createBlockBuilder(null, 1, UNKNOWN.getFixedSize()).appendNull().build());
             this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
-            this.localMemoryContext = operatorContext.localUserMemoryContext();
+            this.localMemoryContext = requireNonNull(localMemoryContext, "localMemoryContext is null");
         }
 
         public ChannelSet build()
@@ -118,6 +131,15 @@ public class ChannelSet
             return hash.getGroupCount();
         }
 
+        /**
+         * Appends the value of the given set entry (and its raw hash, if the set was created with a hash channel)
+         * to the page builder, in the same layout as the pages passed to {@link #addPage(Page)}.
+         */
+        public void appendValuesTo(int position, PageBuilder pageBuilder)
+        {
+            hash.appendValuesTo(position, pageBuilder, 0);
+        }
+
         public Work<?> addPage(Page page)
         {
             // Just add the page to the pending work, which will be processed later.
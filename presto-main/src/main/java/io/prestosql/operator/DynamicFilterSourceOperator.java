@@ -16,6 +16,7 @@ package io.prestosql.operator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.units.DataSize;
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.operator.aggregation.TypedSet;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
@@ -28,14 +29,19 @@ import io.prestosql.sql.planner.plan.DynamicFilterId;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 import io.prestosql.type.BlockTypeOperators;
 import io.prestosql.type.BlockTypeOperators.BlockPositionComparison;
+import io.prestosql.type.BlockTypeOperators.BlockPositionXxHash64;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 
 import javax.annotation.Nullable;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.prestosql.operator.aggregation.TypedSet.createEqualityTypedSet;
 import static io.prestosql.spi.predicate.Range.range;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
@@ -50,6 +56,8 @@ import static java.util.stream.Collectors.toSet;
  * The collected pages' value are used for creating a run-time filtering constraint (for probe-side table scan in an inner join).
  * We record all values for the run-time filter only for small build-side pages (which should be the case when using "broadcast" join).
  * For large inputs on build side, we can optionally record the min and max values per channel for orderable types (except Double and Real).
+ * When enabled, a {@link BlockedBloomFilter} per channel is also collected for large inputs, as long as the number of rows fits the filter.
+ * Small inputs only publish the hashes of their distinct values, so that they can be merged with bloom filters of other drivers.
  */
 public class DynamicFilterSourceOperator
         implements Operator
@@ -80,6 +88,8 @@ public class DynamicFilterSourceOperator
         private final int maxDisinctValues;
         private final DataSize maxFilterSize;
         private final int minMaxCollectionLimit;
+        private final Consumer<Map<DynamicFilterId, BlockedBloomFilter>> bloomFilterConsumer;
+        private final Optional<DataSize> bloomFilterMaxSize;
         private final BlockTypeOperators blockTypeOperators;
 
         private boolean closed;
@@ -93,6 +103,31 @@ public class DynamicFilterSourceOperator
                 DataSize maxFilterSize,
                 int minMaxCollectionLimit,
                 BlockTypeOperators blockTypeOperators)
+        {
+            this(
+                    operatorId,
+                    planNodeId,
+                    dynamicPredicateConsumer,
+                    channels,
+                    maxDisinctValues,
+                    maxFilterSize,
+                    minMaxCollectionLimit,
+                    bloomFilters -> {},
+                    Optional.empty(),
+                    blockTypeOperators);
+        }
+
+        public DynamicFilterSourceOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                Consumer<TupleDomain<DynamicFilterId>> dynamicPredicateConsumer,
+                List<Channel> channels,
+                int maxDisinctValues,
+                DataSize maxFilterSize,
+                int minMaxCollectionLimit,
+                Consumer<Map<DynamicFilterId, BlockedBloomFilter>> bloomFilterConsumer,
+                Optional<DataSize> bloomFilterMaxSize,
+                BlockTypeOperators blockTypeOperators)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -105,6 +140,8 @@ public class DynamicFilterSourceOperator
             this.maxDisinctValues = maxDisinctValues;
             this.maxFilterSize = maxFilterSize;
             this.minMaxCollectionLimit = minMaxCollectionLimit;
+            this.bloomFilterConsumer = requireNonNull(bloomFilterConsumer, "bloomFilterConsumer is null");
+            this.bloomFilterMaxSize = requireNonNull(bloomFilterMaxSize, "bloomFilterMaxSize is null");
             this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
         }
 
@@ -120,6 +157,8 @@ public class DynamicFilterSourceOperator
                     maxDisinctValues,
                     maxFilterSize,
                     minMaxCollectionLimit,
+                    bloomFilterConsumer,
+                    bloomFilterMaxSize,
                     blockTypeOperators);
         }
 
@@ -160,6 +199,15 @@ public class DynamicFilterSourceOperator
     @Nullable
     private Block[] maxValues;
 
+    private final Consumer<Map<DynamicFilterId, BlockedBloomFilter>> bloomFilterConsumer;
+    private final Optional<DataSize> bloomFilterMaxSize;
+    private final List<BlockPositionXxHash64> xxHash64Operators;
+    // Created when the predicate becomes too large. May be dropped if there are too many rows to fit in the filter.
+    @Nullable
+    private BlockedBloomFilter[] bloomFilters;
+    private long bloomFilterRowsLeft;
+    private final LocalMemoryContext bloomFilterMemoryContext;
+
     private DynamicFilterSourceOperator(
             OperatorContext context,
             Consumer<TupleDomain<DynamicFilterId>> dynamicPredicateConsumer,
@@ -168,6 +216,8 @@ public class DynamicFilterSourceOperator
             int maxDistinctValues,
             DataSize maxFilterSize,
             int minMaxCollectionLimit,
+            Consumer<Map<DynamicFilterId, BlockedBloomFilter>> bloomFilterConsumer,
+            Optional<DataSize> bloomFilterMaxSize,
             BlockTypeOperators blockTypeOperators)
     {
         this.context = requireNonNull(context, "context is null");
@@ -206,6 +256,13 @@ public class DynamicFilterSourceOperator
             this.maxValues = new Block[channels.size()];
         }
         this.minMaxComparisons = minMaxComparisonsBuilder.build();
+
+        this.bloomFilterConsumer = requireNonNull(bloomFilterConsumer, "bloomFilterConsumer is null");
+        this.bloomFilterMaxSize = requireNonNull(bloomFilterMaxSize, "bloomFilterMaxSize is null");
+        this.xxHash64Operators = bloomFilterMaxSize.isEmpty() ? ImmutableList.of() : channels.stream()
+                .map(channel -> blockTypeOperators.getXxHash64Operator(channel.type))
+                .collect(toImmutableList());
+        this.bloomFilterMemoryContext = context.localUserMemoryContext();
     }
 
     @Override
@@ -226,6 +283,9 @@ public class DynamicFilterSourceOperator
         verify(!finished, "DynamicFilterSourceOperator: addInput() may not be called after finish()");
         current = page;
         if (valueSets == null) {
+            if (bloomFilters != null) {
+                updateBloomFilters(page);
+            }
             if (minValues == null) {
                 // there are too many rows to collect min/max range
                 return;
@@ -267,6 +327,9 @@ public class DynamicFilterSourceOperator
     private void handleTooLargePredicate()
     {
         // The resulting predicate is too large
+        if (bloomFilterMaxSize.isPresent()) {
+            createBloomFilters();
+        }
         if (minMaxChannels.isEmpty()) {
             // allow all probe-side values to be read.
             dynamicPredicateConsumer.accept(TupleDomain.all());
@@ -299,6 +362,97 @@ public class DynamicFilterSourceOperator
         maxValues = null;
     }
 
+    private void createBloomFilters()
+    {
+        checkState(blockBuilders != null);
+        bloomFilters = new BlockedBloomFilter[channels.size()];
+        bloomFilterRowsLeft = Long.MAX_VALUE;
+        long retainedSizeInBytes = 0;
+        for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+            bloomFilters[channelIndex] = BlockedBloomFilter.create(bloomFilterMaxSize.get());
+            bloomFilterRowsLeft = Math.min(bloomFilterRowsLeft, bloomFilters[channelIndex].getMaxEntries());
+            retainedSizeInBytes += bloomFilters[channelIndex].getRetainedSizeInBytes();
+        }
+        bloomFilterMemoryContext.setBytes(retainedSizeInBytes);
+        // seed the filters with the distinct values collected so far
+        int maxDistinctValues = 0;
+        for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+            Block block = blockBuilders[channelIndex].build();
+            addToBloomFilter(block, channelIndex);
+            maxDistinctValues = Math.max(maxDistinctValues, block.getPositionCount());
+        }
+        bloomFilterRowsLeft -= maxDistinctValues;
+    }
+
+    private void updateBloomFilters(Page page)
+    {
+        // The number of distinct values is unknown once the value sets are dropped, so the number of rows is used as an upper bound
+        bloomFilterRowsLeft -= page.getPositionCount();
+        if (bloomFilterRowsLeft < 0) {
+            // the filters would have too many false positives to be useful
+            bloomFilters = null;
+            bloomFilterMemoryContext.setBytes(0);
+            return;
+        }
+        for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+            addToBloomFilter(page.getBlock(channels.get(channelIndex).index), channelIndex);
+        }
+    }
+
+    private void addToBloomFilter(Block block, int channelIndex)
+    {
+        BlockedBloomFilter bloomFilter = bloomFilters[channelIndex];
+        BlockPositionXxHash64 xxHash64 = xxHash64Operators.get(channelIndex);
+        for (int position = 0; position < block.getPositionCount(); ++position) {
+            // Inner and right join doesn't match rows with null key column values.
+            if (!block.isNull(position)) {
+                bloomFilter.put(xxHash64.xxHash64(block, position));
+            }
+        }
+    }
+
+    private void publishBloomFilters()
+    {
+        if (bloomFilterMaxSize.isEmpty()) {
+            return;
+        }
+        ImmutableMap.Builder<DynamicFilterId, BlockedBloomFilter> bloomFiltersBuilder = ImmutableMap.builder();
+        if (valueSets != null) {
+            // The predicate is exact, so only the hashes of its distinct values are published.
+            // They are needed only if the filter is merged with large filters from other partitions.
+            for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+                bloomFiltersBuilder.put(channels.get(channelIndex).filterId, BlockedBloomFilter.ofHashes(getHashes(blockBuilders[channelIndex].build(), channelIndex)));
+            }
+            bloomFilterConsumer.accept(bloomFiltersBuilder.build());
+            return;
+        }
+        if (bloomFilters == null) {
+            // Notify that there is no bloom filter for this partition
+            bloomFilterConsumer.accept(ImmutableMap.of());
+            return;
+        }
+        for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+            bloomFiltersBuilder.put(channels.get(channelIndex).filterId, bloomFilters[channelIndex]);
+        }
+        bloomFilters = null;
+        // the consumer accounts for the published filters, so they are released only after it has taken them over
+        bloomFilterConsumer.accept(bloomFiltersBuilder.build());
+        bloomFilterMemoryContext.setBytes(0);
+    }
+
+    private long[] getHashes(Block block, int channelIndex)
+    {
+        BlockPositionXxHash64 xxHash64 = xxHash64Operators.get(channelIndex);
+        LongArrayList hashes = new LongArrayList(block.getPositionCount());
+        for (int position = 0; position < block.getPositionCount(); ++position) {
+            // Inner and right join doesn't match rows with null key column values.
+            if (!block.isNull(position)) {
+                hashes.add(xxHash64.xxHash64(block, position));
+            }
+        }
+        return hashes.toLongArray();
+    }
+
     private void updateMinMaxValues(Block block, int channelIndex, BlockPositionComparison comparison)
     {
         checkState(minValues != null && maxValues != null);
@@ -361,6 +515,8 @@ public class DynamicFilterSourceOperator
             return;
         }
         finished = true;
+        // Bloom filters are published first, so that they are available once the dynamic filter domains are complete
+        publishBloomFilters();
         ImmutableMap.Builder<DynamicFilterId, Domain> domainsBuilder = new ImmutableMap.Builder<>();
         if (valueSets == null) {
             if (minValues == null) {
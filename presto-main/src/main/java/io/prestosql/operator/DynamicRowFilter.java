@@ -0,0 +1,181 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ListMultimap;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.planner.plan.DynamicFilterId;
+import io.prestosql.type.BlockTypeOperators;
+import io.prestosql.type.BlockTypeOperators.BlockPositionXxHash64;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Dynamic filter applied by table scan operators to the rows produced by a page source.
+ * Unlike {@link io.prestosql.spi.connector.DynamicFilter}, it can use filters which cannot be
+ * represented by a {@link io.prestosql.spi.predicate.TupleDomain} (i.e. bloom filters),
+ * and therefore are not pushed down into connectors.
+ */
+public class DynamicRowFilter
+{
+    public static final DynamicRowFilter NONE = new DynamicRowFilter(ImmutableListMultimap.of(), ImmutableMap.of(), (filterId, type) -> Optional.empty(), new BlockTypeOperators());
+
+    // Probe-side columns filtered by each dynamic filter.
+    private final ListMultimap<DynamicFilterId, ColumnHandle> filterColumns;
+    private final Map<ColumnHandle, Type> columnTypes;
+    private final BloomFilterProvider bloomFilterProvider;
+    private final BlockTypeOperators blockTypeOperators;
+
+    public DynamicRowFilter(
+            ListMultimap<DynamicFilterId, ColumnHandle> filterColumns,
+            Map<ColumnHandle, Type> columnTypes,
+            BloomFilterProvider bloomFilterProvider,
+            BlockTypeOperators blockTypeOperators)
+    {
+        this.filterColumns = ImmutableListMultimap.copyOf(requireNonNull(filterColumns, "filterColumns is null"));
+        this.columnTypes = ImmutableMap.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
+        this.bloomFilterProvider = requireNonNull(bloomFilterProvider, "bloomFilterProvider is null");
+        this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
+    }
+
+    public boolean isEmpty()
+    {
+        return filterColumns.isEmpty();
+    }
+
+    /**
+     * Creates a filter for pages with the given column layout. The returned filter is not thread safe.
+     */
+    public PageRowFilter createPageRowFilter(List<ColumnHandle> columns)
+    {
+        ImmutableList.Builder<ChannelFilter> channelFilters = ImmutableList.builder();
+        filterColumns.forEach((filterId, column) -> {
+            int channel = columns.indexOf(column);
+            if (channel >= 0) {
+                Type type = columnTypes.get(column);
+                channelFilters.add(new ChannelFilter(filterId, channel, type, blockTypeOperators.getXxHash64Operator(type)));
+            }
+        });
+        return new PageRowFilter(channelFilters.build(), bloomFilterProvider);
+    }
+
+    public interface BloomFilterProvider
+    {
+        /**
+         * Returns the bloom filter collected for the dynamic filter, if it is available and was built over values of the given type.
+         * Must not block.
+         */
+        Optional<BlockedBloomFilter> getBloomFilter(DynamicFilterId filterId, Type type);
+    }
+
+    public static class PageRowFilter
+    {
+        private final List<ChannelFilter> channelFilters;
+        private final BloomFilterProvider bloomFilterProvider;
+        private final BlockedBloomFilter[] bloomFilters;
+        private int bloomFiltersLeft;
+
+        private PageRowFilter(List<ChannelFilter> channelFilters, BloomFilterProvider bloomFilterProvider)
+        {
+            this.channelFilters = requireNonNull(channelFilters, "channelFilters is null");
+            this.bloomFilterProvider = requireNonNull(bloomFilterProvider, "bloomFilterProvider is null");
+            this.bloomFilters = new BlockedBloomFilter[channelFilters.size()];
+            this.bloomFiltersLeft = channelFilters.size();
+        }
+
+        /**
+         * Returns the rows of the page which might match the currently available filters.
+         */
+        public Page filter(Page page)
+        {
+            if (bloomFiltersLeft > 0) {
+                updateBloomFilters();
+            }
+            if (bloomFiltersLeft == bloomFilters.length) {
+                return page;
+            }
+
+            int positionCount = page.getPositionCount();
+            // the positions are retained by the filtered page, so they cannot be reused
+            int[] positions = new int[positionCount];
+            for (int position = 0; position < positionCount; position++) {
+                positions[position] = position;
+            }
+            for (int i = 0; i < bloomFilters.length && positionCount > 0; i++) {
+                BlockedBloomFilter bloomFilter = bloomFilters[i];
+                if (bloomFilter == null) {
+                    continue;
+                }
+                ChannelFilter channelFilter = channelFilters.get(i);
+                Block block = page.getBlock(channelFilter.channel);
+                BlockPositionXxHash64 xxHash64 = channelFilter.xxHash64;
+                int selectedCount = 0;
+                for (int index = 0; index < positionCount; index++) {
+                    int position = positions[index];
+                    // Inner and right join doesn't match rows with null key column values.
+                    if (!block.isNull(position) && bloomFilter.mightContain(xxHash64.xxHash64(block, position))) {
+                        positions[selectedCount] = position;
+                        selectedCount++;
+                    }
+                }
+                positionCount = selectedCount;
+            }
+
+            if (positionCount == page.getPositionCount()) {
+                return page;
+            }
+            return page.getPositions(positions, 0, positionCount);
+        }
+
+        private void updateBloomFilters()
+        {
+            for (int i = 0; i < bloomFilters.length; i++) {
+                if (bloomFilters[i] == null) {
+                    ChannelFilter channelFilter = channelFilters.get(i);
+                    Optional<BlockedBloomFilter> bloomFilter = bloomFilterProvider.getBloomFilter(channelFilter.filterId, channelFilter.type);
+                    if (bloomFilter.isPresent()) {
+                        bloomFilters[i] = bloomFilter.get();
+                        bloomFiltersLeft--;
+                    }
+                }
+            }
+        }
+    }
+
+    private static class ChannelFilter
+    {
+        private final DynamicFilterId filterId;
+        private final int channel;
+        private final Type type;
+        private final BlockPositionXxHash64 xxHash64;
+
+        private ChannelFilter(DynamicFilterId filterId, int channel, Type type, BlockPositionXxHash64 xxHash64)
+        {
+            this.filterId = requireNonNull(filterId, "filterId is null");
+            this.channel = channel;
+            this.type = requireNonNull(type, "type is null");
+            this.xxHash64 = requireNonNull(xxHash64, "xxHash64 is null");
+        }
+    }
+}
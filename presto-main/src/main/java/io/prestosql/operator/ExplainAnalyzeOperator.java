@@ -18,6 +18,7 @@ import io.prestosql.execution.QueryInfo;
 import io.prestosql.execution.QueryPerformanceFetcher;
 import io.prestosql.execution.StageId;
 import io.prestosql.execution.StageInfo;
+import io.prestosql.execution.scheduler.AdaptiveJoinDecision;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.BlockBuilder;
@@ -29,6 +30,7 @@ import java.util.concurrent.TimeUnit;
 import static com.google.common.base.Preconditions.checkState;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.sql.planner.planprinter.PlanPrinter.textDistributedPlan;
+import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
 public class ExplainAnalyzeOperator
@@ -145,7 +147,8 @@ public class ExplainAnalyzeOperator
             return null;
         }
 
-        String plan = textDistributedPlan(queryInfo.getOutputStage().get().getSubStages().get(0), metadata, operatorContext.getSession(), verbose);
+        String plan = textDistributedPlan(queryInfo.getOutputStage().get().getSubStages().get(0), metadata, operatorContext.getSession(), verbose) +
+                formatAdaptiveJoinDecisions(queryInfo.getQueryStats().getAdaptiveJoinDecisions());
         BlockBuilder builder = VARCHAR.createBlockBuilder(null, 1);
         VARCHAR.writeString(builder, plan);
 
@@ -153,6 +156,23 @@ public class ExplainAnalyzeOperator
         return new Page(builder.build());
     }
 
+    private static String formatAdaptiveJoinDecisions(List<AdaptiveJoinDecision> decisions)
+    {
+        if (decisions.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder builder = new StringBuilder("\nAdaptive join distribution:\n");
+        for (AdaptiveJoinDecision decision : decisions) {
+            builder.append(format("    Join[%s]: ", decision.getJoinId()));
+            if (decision.getSelectedDistribution() != decision.getPlannedDistribution()) {
+                builder.append(format("%s -> ", decision.getPlannedDistribution()));
+            }
+            builder.append(format("%s, build side output %s\n", decision.getSelectedDistribution(), decision.getBuildDataSize()));
+        }
+        return builder.toString();
+    }
+
     private boolean hasFinalStageInfo(StageInfo stageInfo)
     {
         boolean isFinalStageInfo = isFinalStageInfo(stageInfo);
@@ -0,0 +1,724 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import io.prestosql.array.ByteBigArray;
+import io.prestosql.array.LongBigArray;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.LongArrayBlock;
+import io.prestosql.spi.block.RunLengthEncodedBlock;
+import io.prestosql.spi.type.AbstractLongType;
+import io.prestosql.spi.type.FixedWidthType;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.planner.optimizations.HashGenerationOptimizer;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.prestosql.operator.scalar.CombineHashFunction.getHash;
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INSUFFICIENT_RESOURCES;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static io.prestosql.type.TypeUtils.NULL_HASH_CODE;
+import static io.prestosql.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static it.unimi.dsi.fastutil.HashCommon.arraySize;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * GroupByHash for keys made of several integral fixed-width columns (BIGINT, INTEGER,
+ * SMALLINT, TINYINT and DATE). Key values are copied out of the blocks into a flat
+ * {@code long} array indexed by {@code groupId * channelCount + channel}, so probing never
+ * goes through a compiled {@link PagesHashStrategy}. Input pages are processed in batches:
+ * key values and raw hashes for a batch of positions are extracted column by column first,
+ * and the batch is then probed against the table.
+ * <p>
+ * The raw hash is computed exactly like {@link InterpretedHashGenerator} does, so the
+ * output hash channel is interchangeable with the one produced by {@link MultiChannelGroupByHash}.
+ */
+// This implementation assumes arrays used in the hash are always a power of 2
+public class FixedWidthMultiChannelGroupByHash
+        implements GroupByHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(FixedWidthMultiChannelGroupByHash.class).instanceSize();
+    private static final float FILL_RATIO = 0.75f;
+
+    @VisibleForTesting
+    static final int MAX_CHANNELS = Byte.SIZE;
+    @VisibleForTesting
+    static final int BATCH_SIZE = 1024;
+
+    private static final Set<Type> SUPPORTED_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, DATE);
+
+    private final List<Type> hashTypes;
+    private final List<Type> types;
+    private final int[] channels;
+    private final int[] fixedSizes;
+    private final int channelCount;
+    private final boolean outputRawHash;
+
+    private int hashCapacity;
+    private int maxFill;
+    private int mask;
+    // the hash table from hash position to groupId
+    private int[] groupIdsByHash;
+
+    // reverse index from the groupId back to the (flattened) key values
+    private final LongBigArray valuesByGroupId;
+    // bit i is set when channel i of the group is null
+    private final ByteBigArray nullsByGroupId;
+    private final LongBigArray rawHashByGroupId;
+
+    private int nextGroupId;
+    private long hashCollisions;
+    private double expectedHashCollisions;
+
+    // scratch buffers for the current batch
+    private final long[][] batchValues;
+    private final byte[] batchNulls;
+    private final long[] batchRawHashes;
+
+    // reserve enough memory before rehash
+    private final UpdateMemory updateMemory;
+    private long preallocatedMemoryInBytes;
+    private long currentPageSizeInBytes;
+
+    public static boolean isSupported(List<? extends Type> hashTypes)
+    {
+        return hashTypes.size() > 1 &&
+                hashTypes.size() <= MAX_CHANNELS &&
+                SUPPORTED_TYPES.containsAll(hashTypes);
+    }
+
+    public FixedWidthMultiChannelGroupByHash(
+            List<? extends Type> hashTypes,
+            int[] hashChannels,
+            Optional<Integer> inputHashChannel,
+            int expectedSize,
+            UpdateMemory updateMemory)
+    {
+        this.hashTypes = ImmutableList.copyOf(requireNonNull(hashTypes, "hashTypes is null"));
+        requireNonNull(hashChannels, "hashChannels is null");
+        requireNonNull(inputHashChannel, "inputHashChannel is null");
+        checkArgument(hashTypes.size() == hashChannels.length, "hashTypes and hashChannels have different sizes");
+        checkArgument(isSupported(hashTypes), "Unsupported hash types: %s", hashTypes);
+        checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
+
+        this.channels = hashChannels.clone();
+        this.channelCount = hashChannels.length;
+        this.outputRawHash = inputHashChannel.isPresent();
+        this.types = outputRawHash ? ImmutableList.copyOf(Iterables.concat(hashTypes, ImmutableList.of(BIGINT))) : this.hashTypes;
+        this.fixedSizes = this.hashTypes.stream()
+                .mapToInt(type -> ((FixedWidthType) type).getFixedSize())
+                .toArray();
+
+        hashCapacity = arraySize(expectedSize, FILL_RATIO);
+        maxFill = calculateMaxFill(hashCapacity);
+        mask = hashCapacity - 1;
+        groupIdsByHash = new int[hashCapacity];
+        Arrays.fill(groupIdsByHash, -1);
+
+        valuesByGroupId = new LongBigArray();
+        valuesByGroupId.ensureCapacity((long) maxFill * channelCount);
+        nullsByGroupId = new ByteBigArray();
+        nullsByGroupId.ensureCapacity(maxFill);
+        rawHashByGroupId = new LongBigArray();
+        rawHashByGroupId.ensureCapacity(maxFill);
+
+        batchValues = new long[channelCount][BATCH_SIZE];
+        batchNulls = new byte[BATCH_SIZE];
+        batchRawHashes = new long[BATCH_SIZE];
+
+        // This interface is used for actively reserving memory (push model) for rehash.
+        // The caller can also query memory usage on this object (pull model)
+        this.updateMemory = requireNonNull(updateMemory, "updateMemory is null");
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return INSTANCE_SIZE +
+                sizeOf(groupIdsByHash) +
+                valuesByGroupId.sizeOf() +
+                nullsByGroupId.sizeOf() +
+                rawHashByGroupId.sizeOf() +
+                (sizeOf(batchValues[0]) * channelCount) +
+                sizeOf(batchNulls) +
+                sizeOf(batchRawHashes) +
+                preallocatedMemoryInBytes;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions + estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public int getGroupCount()
+    {
+        return nextGroupId;
+    }
+
+    @Override
+    public void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        checkArgument(groupId >= 0, "groupId is negative");
+        long valuesOffset = (long) groupId * channelCount;
+        byte nulls = nullsByGroupId.get(groupId);
+        for (int channel = 0; channel < channelCount; channel++) {
+            BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + channel);
+            if ((nulls & (1 << channel)) != 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                hashTypes.get(channel).writeLong(blockBuilder, valuesByGroupId.get(valuesOffset + channel));
+            }
+        }
+
+        if (outputRawHash) {
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(outputChannelOffset + channelCount), rawHashByGroupId.get(groupId));
+        }
+    }
+
+    @Override
+    public Work<?> addPage(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        if (isRunLengthEncoded(page)) {
+            return new AddRunLengthEncodedPageWork(page);
+        }
+        return new AddPageWork(page);
+    }
+
+    @Override
+    public Work<GroupByIdBlock> getGroupIds(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        if (isRunLengthEncoded(page)) {
+            return new GetRunLengthEncodedGroupIdsWork(page);
+        }
+        return new GetGroupIdsWork(page);
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels)
+    {
+        return contains(position, page, hashChannels, hashRow(position, page, hashChannels));
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels, long rawHash)
+    {
+        int hashPosition = getHashPosition(rawHash, mask);
+
+        // look for a slot containing this key
+        while (true) {
+            int groupId = groupIdsByHash[hashPosition];
+            if (groupId == -1) {
+                return false;
+            }
+            if (rawHashByGroupId.get(groupId) == rawHash && rowEqualsGroup(groupId, position, page, hashChannels)) {
+                return true;
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+        }
+    }
+
+    @Override
+    public long getRawHash(int groupId)
+    {
+        return rawHashByGroupId.get(groupId);
+    }
+
+    @VisibleForTesting
+    @Override
+    public int getCapacity()
+    {
+        return hashCapacity;
+    }
+
+    private long hashRow(int position, Page page, int[] hashChannels)
+    {
+        long rawHash = HashGenerationOptimizer.INITIAL_HASH_VALUE;
+        for (int channel = 0; channel < channelCount; channel++) {
+            Block block = page.getBlock(hashChannels[channel]);
+            if (block.isNull(position)) {
+                rawHash = getHash(rawHash, NULL_HASH_CODE);
+            }
+            else {
+                rawHash = getHash(rawHash, AbstractLongType.hash(readValue(block, position, fixedSizes[channel])));
+            }
+        }
+        return rawHash;
+    }
+
+    private boolean rowEqualsGroup(int groupId, int position, Page page, int[] hashChannels)
+    {
+        long valuesOffset = (long) groupId * channelCount;
+        byte nulls = nullsByGroupId.get(groupId);
+        for (int channel = 0; channel < channelCount; channel++) {
+            Block block = page.getBlock(hashChannels[channel]);
+            boolean groupNull = (nulls & (1 << channel)) != 0;
+            if (block.isNull(position)) {
+                if (!groupNull) {
+                    return false;
+                }
+            }
+            else if (groupNull || readValue(block, position, fixedSizes[channel]) != valuesByGroupId.get(valuesOffset + channel)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Extracts key values, null masks and raw hashes of positions {@code [start, start + length)}
+     * into the batch buffers, one column at a time.
+     */
+    private void loadBatch(Page page, int start, int length)
+    {
+        Arrays.fill(batchNulls, 0, length, (byte) 0);
+        Arrays.fill(batchRawHashes, 0, length, HashGenerationOptimizer.INITIAL_HASH_VALUE);
+        for (int channel = 0; channel < channelCount; channel++) {
+            Block block = page.getBlock(channels[channel]);
+            long[] values = batchValues[channel];
+            int fixedSize = fixedSizes[channel];
+            if (block.mayHaveNull()) {
+                byte nullBit = (byte) (1 << channel);
+                for (int i = 0; i < length; i++) {
+                    int position = start + i;
+                    if (block.isNull(position)) {
+                        values[i] = 0;
+                        batchNulls[i] |= nullBit;
+                        batchRawHashes[i] = getHash(batchRawHashes[i], NULL_HASH_CODE);
+                    }
+                    else {
+                        values[i] = readValue(block, position, fixedSize);
+                        batchRawHashes[i] = getHash(batchRawHashes[i], AbstractLongType.hash(values[i]));
+                    }
+                }
+            }
+            else {
+                readValues(block, start, length, fixedSize, values);
+                for (int i = 0; i < length; i++) {
+                    batchRawHashes[i] = getHash(batchRawHashes[i], AbstractLongType.hash(values[i]));
+                }
+            }
+        }
+    }
+
+    private static void readValues(Block block, int start, int length, int fixedSize, long[] values)
+    {
+        switch (fixedSize) {
+            case Long.BYTES:
+                for (int i = 0; i < length; i++) {
+                    values[i] = block.getLong(start + i, 0);
+                }
+                break;
+            case Integer.BYTES:
+                for (int i = 0; i < length; i++) {
+                    values[i] = block.getInt(start + i, 0);
+                }
+                break;
+            case Short.BYTES:
+                for (int i = 0; i < length; i++) {
+                    values[i] = block.getShort(start + i, 0);
+                }
+                break;
+            case Byte.BYTES:
+                for (int i = 0; i < length; i++) {
+                    values[i] = block.getByte(start + i, 0);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported fixed size: " + fixedSize);
+        }
+    }
+
+    private static long readValue(Block block, int position, int fixedSize)
+    {
+        switch (fixedSize) {
+            case Long.BYTES:
+                return block.getLong(position, 0);
+            case Integer.BYTES:
+                return block.getInt(position, 0);
+            case Short.BYTES:
+                return block.getShort(position, 0);
+            case Byte.BYTES:
+                return block.getByte(position, 0);
+            default:
+                throw new IllegalArgumentException("Unsupported fixed size: " + fixedSize);
+        }
+    }
+
+    /**
+     * Returns the group id of the batch entry at {@code index}, adding a new group if needed.
+     */
+    private int putIfAbsent(int index)
+    {
+        long rawHash = batchRawHashes[index];
+        byte nulls = batchNulls[index];
+        int hashPosition = getHashPosition(rawHash, mask);
+
+        // look for an empty slot or a slot containing this key
+        while (true) {
+            int groupId = groupIdsByHash[hashPosition];
+            if (groupId == -1) {
+                break;
+            }
+            if (rawHashByGroupId.get(groupId) == rawHash && nullsByGroupId.get(groupId) == nulls && batchEntryEqualsGroup(index, groupId)) {
+                return groupId;
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+            hashCollisions++;
+        }
+
+        return addNewGroup(hashPosition, index);
+    }
+
+    private boolean batchEntryEqualsGroup(int index, int groupId)
+    {
+        long valuesOffset = (long) groupId * channelCount;
+        for (int channel = 0; channel < channelCount; channel++) {
+            if (batchValues[channel][index] != valuesByGroupId.get(valuesOffset + channel)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int addNewGroup(int hashPosition, int index)
+    {
+        // record group id in hash
+        int groupId = nextGroupId++;
+
+        long valuesOffset = (long) groupId * channelCount;
+        for (int channel = 0; channel < channelCount; channel++) {
+            valuesByGroupId.set(valuesOffset + channel, batchValues[channel][index]);
+        }
+        nullsByGroupId.set(groupId, batchNulls[index]);
+        rawHashByGroupId.set(groupId, batchRawHashes[index]);
+        groupIdsByHash[hashPosition] = groupId;
+
+        // increase capacity, if necessary
+        if (needRehash()) {
+            tryRehash();
+        }
+        return groupId;
+    }
+
+    private boolean needRehash()
+    {
+        return nextGroupId >= maxFill;
+    }
+
+    private boolean tryRehash()
+    {
+        long newCapacityLong = hashCapacity * 2L;
+        if (newCapacityLong > Integer.MAX_VALUE) {
+            throw new PrestoException(GENERIC_INSUFFICIENT_RESOURCES, "Size of hash table cannot exceed 1 billion entries");
+        }
+        int newCapacity = toIntExact(newCapacityLong);
+        int newMaxFill = calculateMaxFill(newCapacity);
+
+        // An estimate of how much extra memory is needed before we can go ahead and expand the hash table.
+        // This includes the new capacity for groupIdsByHash, the per group arrays as well as the size of the current page
+        preallocatedMemoryInBytes = (newCapacity - hashCapacity) * (long) Integer.BYTES +
+                (newMaxFill - maxFill) * (long) (Long.BYTES * (channelCount + 1) + Byte.BYTES) +
+                currentPageSizeInBytes;
+        if (!updateMemory.update()) {
+            // reserved memory but has exceeded the limit
+            return false;
+        }
+        preallocatedMemoryInBytes = 0;
+
+        expectedHashCollisions += estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+
+        int newMask = newCapacity - 1;
+        int[] newGroupIdsByHash = new int[newCapacity];
+        Arrays.fill(newGroupIdsByHash, -1);
+
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            // find an empty slot for the group
+            int hashPosition = getHashPosition(rawHashByGroupId.get(groupId), newMask);
+            while (newGroupIdsByHash[hashPosition] != -1) {
+                hashPosition = (hashPosition + 1) & newMask;
+                hashCollisions++;
+            }
+            newGroupIdsByHash[hashPosition] = groupId;
+        }
+
+        mask = newMask;
+        hashCapacity = newCapacity;
+        maxFill = newMaxFill;
+        groupIdsByHash = newGroupIdsByHash;
+
+        valuesByGroupId.ensureCapacity((long) maxFill * channelCount);
+        nullsByGroupId.ensureCapacity(maxFill);
+        rawHashByGroupId.ensureCapacity(maxFill);
+        return true;
+    }
+
+    private boolean isRunLengthEncoded(Page page)
+    {
+        for (int channel : channels) {
+            if (!(page.getBlock(channel) instanceof RunLengthEncodedBlock)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int getHashPosition(long rawHash, int mask)
+    {
+        return (int) (murmurHash3(rawHash) & mask);
+    }
+
+    private static int calculateMaxFill(int hashSize)
+    {
+        checkArgument(hashSize > 0, "hashSize must be greater than 0");
+        int maxFill = (int) Math.ceil(hashSize * FILL_RATIO);
+        if (maxFill == hashSize) {
+            maxFill--;
+        }
+        checkArgument(hashSize > maxFill, "hashSize must be larger than maxFill");
+        return maxFill;
+    }
+
+    private class AddPageWork
+            implements Work<Void>
+    {
+        private final Page page;
+
+        private int lastPosition;
+
+        public AddPageWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = page.getPositionCount();
+            checkState(lastPosition <= positionCount, "position count out of bound");
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                int batchStart = lastPosition;
+                int batchLength = min(BATCH_SIZE, positionCount - batchStart);
+                loadBatch(page, batchStart, batchLength);
+                for (int index = 0; index < batchLength && !needRehash(); index++) {
+                    putIfAbsent(index);
+                    lastPosition++;
+                }
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class AddRunLengthEncodedPageWork
+            implements Work<Void>
+    {
+        private final Page page;
+
+        private boolean finished;
+
+        public AddRunLengthEncodedPageWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            checkState(!finished);
+            if (page.getPositionCount() == 0) {
+                finished = true;
+                return true;
+            }
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // Only needs to process the first row since it is Run Length Encoded
+            loadBatch(page, 0, 1);
+            putIfAbsent(0);
+            finished = true;
+
+            return true;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class GetGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final Page page;
+        // we know the exact size required for the block
+        private final long[] groupIds;
+
+        private boolean finished;
+        private int lastPosition;
+
+        public GetGroupIdsWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+            this.groupIds = new long[page.getPositionCount()];
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = page.getPositionCount();
+            checkState(lastPosition <= positionCount, "position count out of bound");
+            checkState(!finished);
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                int batchStart = lastPosition;
+                int batchLength = min(BATCH_SIZE, positionCount - batchStart);
+                loadBatch(page, batchStart, batchLength);
+                for (int index = 0; index < batchLength && !needRehash(); index++) {
+                    // output the group id for this row
+                    groupIds[lastPosition] = putIfAbsent(index);
+                    lastPosition++;
+                }
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(lastPosition == page.getPositionCount(), "process has not yet finished");
+            checkState(!finished, "result has produced");
+            finished = true;
+            return new GroupByIdBlock(nextGroupId, new LongArrayBlock(groupIds.length, Optional.empty(), groupIds));
+        }
+    }
+
+    private class GetRunLengthEncodedGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final Page page;
+
+        int groupId = -1;
+        private boolean processFinished;
+        private boolean resultProduced;
+
+        public GetRunLengthEncodedGroupIdsWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            checkState(!processFinished);
+            if (page.getPositionCount() == 0) {
+                processFinished = true;
+                return true;
+            }
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // Only needs to process the first row since it is Run Length Encoded
+            loadBatch(page, 0, 1);
+            groupId = putIfAbsent(0);
+            processFinished = true;
+            return true;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(processFinished);
+            checkState(!resultProduced);
+            resultProduced = true;
+
+            return new GroupByIdBlock(
+                    nextGroupId,
+                    new RunLengthEncodedBlock(
+                            BIGINT.createFixedSizeBlockBuilder(1).writeLong(groupId).build(),
+                            page.getPositionCount()));
+        }
+    }
+}
@@ -22,6 +22,7 @@ import io.prestosql.operator.aggregation.Accumulator;
 import io.prestosql.operator.aggregation.AccumulatorFactory;
 import io.prestosql.operator.aggregation.builder.HashAggregationBuilder;
 import io.prestosql.operator.aggregation.builder.InMemoryHashAggregationBuilder;
+import io.prestosql.operator.aggregation.builder.SkipAggregationBuilder;
 import io.prestosql.operator.aggregation.builder.SpillableHashAggregationBuilder;
 import io.prestosql.operator.scalar.CombineHashFunction;
 import io.prestosql.spi.Page;
@@ -38,6 +39,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
@@ -74,6 +76,7 @@ public class HashAggregationOperator
         private final JoinCompiler joinCompiler;
         private final BlockTypeOperators blockTypeOperators;
         private final boolean useSystemMemory;
+        private final Optional<PartialAggregationController> partialAggregationController;
 
         private boolean closed;
 
@@ -136,6 +139,48 @@ public class HashAggregationOperator
                 JoinCompiler joinCompiler,
                 BlockTypeOperators blockTypeOperators,
                 boolean useSystemMemory)
+        {
+            this(operatorId,
+                    planNodeId,
+                    groupByTypes,
+                    groupByChannels,
+                    globalAggregationGroupIds,
+                    step,
+                    produceDefaultOutput,
+                    accumulatorFactories,
+                    hashChannel,
+                    groupIdChannel,
+                    expectedGroups,
+                    maxPartialMemory,
+                    spillEnabled,
+                    unspillMemoryLimit,
+                    spillerFactory,
+                    joinCompiler,
+                    blockTypeOperators,
+                    useSystemMemory,
+                    Optional.empty());
+        }
+
+        public HashAggregationOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> groupByTypes,
+                List<Integer> groupByChannels,
+                List<Integer> globalAggregationGroupIds,
+                Step step,
+                boolean produceDefaultOutput,
+                List<AccumulatorFactory> accumulatorFactories,
+                Optional<Integer> hashChannel,
+                Optional<Integer> groupIdChannel,
+                int expectedGroups,
+                Optional<DataSize> maxPartialMemory,
+                boolean spillEnabled,
+                DataSize unspillMemoryLimit,
+                SpillerFactory spillerFactory,
+                JoinCompiler joinCompiler,
+                BlockTypeOperators blockTypeOperators,
+                boolean useSystemMemory,
+                Optional<PartialAggregationController> partialAggregationController)
         {
             this(operatorId,
                     planNodeId,
@@ -155,7 +200,8 @@ public class HashAggregationOperator
                     spillerFactory,
                     joinCompiler,
                     blockTypeOperators,
-                    useSystemMemory);
+                    useSystemMemory,
+                    partialAggregationController);
         }
 
         @VisibleForTesting
@@ -179,6 +225,50 @@ public class HashAggregationOperator
                 JoinCompiler joinCompiler,
                 BlockTypeOperators blockTypeOperators,
                 boolean useSystemMemory)
+        {
+            this(operatorId,
+                    planNodeId,
+                    groupByTypes,
+                    groupByChannels,
+                    globalAggregationGroupIds,
+                    step,
+                    produceDefaultOutput,
+                    accumulatorFactories,
+                    hashChannel,
+                    groupIdChannel,
+                    expectedGroups,
+                    maxPartialMemory,
+                    spillEnabled,
+                    memoryLimitForMerge,
+                    memoryLimitForMergeWithMemory,
+                    spillerFactory,
+                    joinCompiler,
+                    blockTypeOperators,
+                    useSystemMemory,
+                    Optional.empty());
+        }
+
+        private HashAggregationOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> groupByTypes,
+                List<Integer> groupByChannels,
+                List<Integer> globalAggregationGroupIds,
+                Step step,
+                boolean produceDefaultOutput,
+                List<AccumulatorFactory> accumulatorFactories,
+                Optional<Integer> hashChannel,
+                Optional<Integer> groupIdChannel,
+                int expectedGroups,
+                Optional<DataSize> maxPartialMemory,
+                boolean spillEnabled,
+                DataSize memoryLimitForMerge,
+                DataSize memoryLimitForMergeWithMemory,
+                SpillerFactory spillerFactory,
+                JoinCompiler joinCompiler,
+                BlockTypeOperators blockTypeOperators,
+                boolean useSystemMemory,
+                Optional<PartialAggregationController> partialAggregationController)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -199,6 +289,8 @@ public class HashAggregationOperator
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
             this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
             this.useSystemMemory = useSystemMemory;
+            this.partialAggregationController = requireNonNull(partialAggregationController, "partialAggregationController is null");
+            checkArgument(partialAggregationController.isEmpty() || step == Step.PARTIAL, "partialAggregationController should be present only for partial aggregation");
         }
 
         @Override
@@ -225,7 +317,8 @@ public class HashAggregationOperator
                     spillerFactory,
                     joinCompiler,
                     blockTypeOperators,
-                    useSystemMemory);
+                    useSystemMemory,
+                    partialAggregationController);
             return hashAggregationOperator;
         }
 
@@ -257,7 +350,8 @@ public class HashAggregationOperator
                     spillerFactory,
                     joinCompiler,
                     blockTypeOperators,
-                    useSystemMemory);
+                    useSystemMemory,
+                    partialAggregationController.map(PartialAggregationController::duplicate));
         }
     }
 
@@ -279,6 +373,7 @@ public class HashAggregationOperator
     private final JoinCompiler joinCompiler;
     private final BlockTypeOperators blockTypeOperators;
     private final boolean useSystemMemory;
+    private final Optional<PartialAggregationController> partialAggregationController;
 
     private final List<Type> types;
     private final HashCollisionsCounter hashCollisionsCounter;
@@ -290,6 +385,9 @@ public class HashAggregationOperator
     private boolean finishing;
     private boolean finished;
 
+    // number of input rows consumed by the current aggregation builder
+    private long aggregationInputRowsProcessed;
+
     // for yield when memory is not available
     private Work<?> unfinishedWork;
 
@@ -311,7 +409,8 @@ public class HashAggregationOperator
             SpillerFactory spillerFactory,
             JoinCompiler joinCompiler,
             BlockTypeOperators blockTypeOperators,
-            boolean useSystemMemory)
+            boolean useSystemMemory,
+            Optional<PartialAggregationController> partialAggregationController)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         requireNonNull(step, "step is null");
@@ -338,6 +437,7 @@ public class HashAggregationOperator
         this.hashCollisionsCounter = new HashCollisionsCounter(operatorContext);
         operatorContext.setInfoSupplier(hashCollisionsCounter);
         this.useSystemMemory = useSystemMemory;
+        this.partialAggregationController = requireNonNull(partialAggregationController, "partialAggregationController is null");
 
         this.memoryContext = operatorContext.localUserMemoryContext();
         if (useSystemMemory) {
@@ -387,7 +487,10 @@ public class HashAggregationOperator
 
         if (aggregationBuilder == null) {
             // TODO: We ignore spillEnabled here if any aggregate has ORDER BY clause or DISTINCT because they are not yet implemented for spilling.
-            if (step.isOutputPartial() || !spillEnabled || hasOrderBy() || hasDistinct()) {
+            if (skipPartialAggregation()) {
+                aggregationBuilder = new SkipAggregationBuilder(groupByChannels, hashChannel, accumulatorFactories, memoryContext);
+            }
+            else if (step.isOutputPartial() || !spillEnabled || hasOrderBy() || hasDistinct()) {
                 aggregationBuilder = new InMemoryHashAggregationBuilder(
                         accumulatorFactories,
                         step,
@@ -432,6 +535,7 @@ public class HashAggregationOperator
         }
 
         // process the current page; save the unfinished work if we are waiting for memory
+        aggregationInputRowsProcessed += page.getPositionCount();
         unfinishedWork = aggregationBuilder.processPage(page);
         if (unfinishedWork.process()) {
             unfinishedWork = null;
@@ -439,6 +543,15 @@ public class HashAggregationOperator
         aggregationBuilder.updateMemory();
     }
 
+    private boolean skipPartialAggregation()
+    {
+        // partial aggregations with ORDER BY or DISTINCT need the whole group to produce a correct intermediate state
+        return partialAggregationController.isPresent()
+                && partialAggregationController.get().isPartialAggregationDisabled()
+                && !hasOrderBy()
+                && !hasDistinct();
+    }
+
     private boolean hasOrderBy()
     {
         return accumulatorFactories.stream().anyMatch(AccumulatorFactory::hasOrderBy);
@@ -449,6 +562,16 @@ public class HashAggregationOperator
         return accumulatorFactories.stream().anyMatch(AccumulatorFactory::hasDistinct);
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (outputPages != null && outputPages.isBlocked()) {
+            // the output is blocked until the next spilled page is read
+            return outputPages.getBlockedFuture();
+        }
+        return NOT_BLOCKED;
+    }
+
     @Override
     public ListenableFuture<?> startMemoryRevoke()
     {
@@ -502,6 +625,13 @@ public class HashAggregationOperator
                 return null;
             }
 
+            if (aggregationBuilder instanceof SkipAggregationBuilder) {
+                operatorContext.recordPartialAggregationSkippedPositions(aggregationInputRowsProcessed);
+            }
+            else if (partialAggregationController.isPresent() && aggregationBuilder instanceof InMemoryHashAggregationBuilder) {
+                partialAggregationController.get().onFlush(aggregationInputRowsProcessed, ((InMemoryHashAggregationBuilder) aggregationBuilder).getGroupCount());
+            }
+            aggregationInputRowsProcessed = 0;
             outputPages = aggregationBuilder.buildResult();
         }
 
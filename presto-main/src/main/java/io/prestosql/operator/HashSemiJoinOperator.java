@@ -14,34 +14,42 @@
 package io.prestosql.operator;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
 import com.google.common.util.concurrent.ListenableFuture;
-import io.prestosql.memory.context.AggregatedMemoryContext;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.memory.context.MemoryTrackingContext;
 import io.prestosql.operator.BasicWorkProcessorOperatorAdapter.BasicAdapterWorkProcessorOperatorFactory;
 import io.prestosql.operator.SetBuilderOperator.SetSupplier;
+import io.prestosql.operator.SetBuilderOperator.SpilledSet;
 import io.prestosql.operator.WorkProcessor.TransformationState;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spiller.PartitioningSpiller;
+import io.prestosql.spiller.PartitioningSpillerFactory;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 
 import javax.annotation.Nullable;
 
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.prestosql.operator.BasicWorkProcessorOperatorAdapter.createAdapterOperatorFactory;
 import static io.prestosql.operator.WorkProcessor.TransformationState.blocked;
 import static io.prestosql.operator.WorkProcessor.TransformationState.finished;
+import static io.prestosql.operator.WorkProcessor.TransformationState.needsMoreData;
 import static io.prestosql.operator.WorkProcessor.TransformationState.ofResult;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spiller.PartitioningSpillerFactory.unsupportedPartitioningSpillerFactory;
 import static java.util.Objects.requireNonNull;
 
 public class HashSemiJoinOperator
@@ -55,7 +63,19 @@ public class HashSemiJoinOperator
             int probeJoinChannel,
             Optional<Integer> probeJoinHashChannel)
     {
-        return createAdapterOperatorFactory(new Factory(operatorId, planNodeId, setSupplier, probeTypes, probeJoinChannel, probeJoinHashChannel));
+        return createOperatorFactory(operatorId, planNodeId, setSupplier, probeTypes, probeJoinChannel, probeJoinHashChannel, unsupportedPartitioningSpillerFactory());
+    }
+
+    public static OperatorFactory createOperatorFactory(
+            int operatorId,
+            PlanNodeId planNodeId,
+            SetSupplier setSupplier,
+            List<? extends Type> probeTypes,
+            int probeJoinChannel,
+            Optional<Integer> probeJoinHashChannel,
+            PartitioningSpillerFactory partitioningSpillerFactory)
+    {
+        return createAdapterOperatorFactory(new Factory(operatorId, planNodeId, setSupplier, probeTypes, probeJoinChannel, probeJoinHashChannel, partitioningSpillerFactory));
     }
 
     private static class Factory
@@ -67,9 +87,17 @@ public class HashSemiJoinOperator
         private final List<Type> probeTypes;
         private final int probeJoinChannel;
         private final Optional<Integer> probeJoinHashChannel;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
         private boolean closed;
 
-        private Factory(int operatorId, PlanNodeId planNodeId, SetSupplier setSupplier, List<? extends Type> probeTypes, int probeJoinChannel, Optional<Integer> probeJoinHashChannel)
+        private Factory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                SetSupplier setSupplier,
+                List<? extends Type> probeTypes,
+                int probeJoinChannel,
+                Optional<Integer> probeJoinHashChannel,
+                PartitioningSpillerFactory partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -78,13 +106,14 @@ public class HashSemiJoinOperator
             checkArgument(probeJoinChannel >= 0, "probeJoinChannel is negative");
             this.probeJoinChannel = probeJoinChannel;
             this.probeJoinHashChannel = probeJoinHashChannel;
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
         }
 
         @Override
         public WorkProcessorOperator create(ProcessorContext processorContext, WorkProcessor<Page> sourcePages)
         {
             checkState(!closed, "Factory is already closed");
-            return new HashSemiJoinOperator(sourcePages, setSupplier, probeJoinChannel, probeJoinHashChannel, processorContext.getMemoryTrackingContext());
+            return new HashSemiJoinOperator(sourcePages, setSupplier, probeTypes, probeJoinChannel, probeJoinHashChannel, partitioningSpillerFactory, processorContext);
         }
 
         @Override
@@ -109,30 +138,37 @@ public class HashSemiJoinOperator
         public void close()
         {
             closed = true;
+            setSupplier.noMoreProbes();
         }
 
         @Override
         public Factory duplicate()
         {
-            return new Factory(operatorId, planNodeId, setSupplier, probeTypes, probeJoinChannel, probeJoinHashChannel);
+            return new Factory(operatorId, planNodeId, setSupplier, probeTypes, probeJoinChannel, probeJoinHashChannel, partitioningSpillerFactory);
         }
     }
 
+    private final SemiJoinPages semiJoinPages;
     private final WorkProcessor<Page> pages;
 
     private HashSemiJoinOperator(
             WorkProcessor<Page> sourcePages,
-            SetSupplier channelSetFuture,
+            SetSupplier setSupplier,
+            List<Type> probeTypes,
             int probeJoinChannel,
             Optional<Integer> probeHashChannel,
-            MemoryTrackingContext memoryTrackingContext)
+            PartitioningSpillerFactory partitioningSpillerFactory,
+            ProcessorContext processorContext)
     {
-        pages = sourcePages
-                .transform(new SemiJoinPages(
-                        channelSetFuture,
-                        probeJoinChannel,
-                        probeHashChannel,
-                        requireNonNull(memoryTrackingContext, "memoryTrackingContext is null").aggregateUserMemoryContext()));
+        requireNonNull(setSupplier, "setSupplier is null").addProbe();
+        semiJoinPages = new SemiJoinPages(
+                setSupplier,
+                probeTypes,
+                probeJoinChannel,
+                probeHashChannel,
+                partitioningSpillerFactory,
+                requireNonNull(processorContext, "processorContext is null"));
+        pages = sourcePages.transform(semiJoinPages);
     }
 
     @Override
@@ -141,45 +177,151 @@ public class HashSemiJoinOperator
         return pages;
     }
 
+    @Override
+    public void close()
+    {
+        semiJoinPages.close();
+    }
+
     private static class SemiJoinPages
             implements WorkProcessor.Transformation<Page, Page>
     {
+        private final SetSupplier setSupplier;
+        private final List<Type> probeTypes;
         private final int probeJoinChannel;
-        private final ListenableFuture<ChannelSet> channelSetFuture;
         private final Optional<Integer> probeHashChannel;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
+        private final SpillContext spillContext;
+        private final MemoryTrackingContext memoryTrackingContext;
         private final LocalMemoryContext localMemoryContext;
 
         @Nullable
         private ChannelSet channelSet;
 
-        public SemiJoinPages(SetSupplier channelSetFuture, int probeJoinChannel, Optional<Integer> probeHashChannel, AggregatedMemoryContext aggregatedMemoryContext)
+        // Set when the set builder spilled the set. All probe rows are then spilled with the same partitioning
+        // as the set and joined partition by partition once the input is finished.
+        @Nullable
+        private SpilledSet spilledSet;
+        private Optional<PartitioningSpiller> spiller = Optional.empty();
+        private ListenableFuture<?> spillInProgress = immediateFuture(null);
+        private int currentPartition;
+        @Nullable
+        private ChannelSet partitionChannelSet;
+        @Nullable
+        private Iterator<Page> spilledPages;
+        private boolean closed;
+
+        public SemiJoinPages(
+                SetSupplier setSupplier,
+                List<Type> probeTypes,
+                int probeJoinChannel,
+                Optional<Integer> probeHashChannel,
+                PartitioningSpillerFactory partitioningSpillerFactory,
+                ProcessorContext processorContext)
         {
             checkArgument(probeJoinChannel >= 0, "probeJoinChannel is negative");
 
-            this.channelSetFuture = requireNonNull(channelSetFuture, "hashProvider is null").getChannelSet();
+            this.setSupplier = requireNonNull(setSupplier, "hashProvider is null");
+            this.probeTypes = ImmutableList.copyOf(requireNonNull(probeTypes, "probeTypes is null"));
             this.probeJoinChannel = probeJoinChannel;
             this.probeHashChannel = requireNonNull(probeHashChannel, "hashChannel is null");
-            this.localMemoryContext = requireNonNull(aggregatedMemoryContext, "aggregatedMemoryContext is null").newLocalMemoryContext(SemiJoinPages.class.getSimpleName());
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+            this.spillContext = processorContext.getSpillContext();
+            this.memoryTrackingContext = processorContext.getMemoryTrackingContext();
+            this.localMemoryContext = memoryTrackingContext.aggregateUserMemoryContext().newLocalMemoryContext(SemiJoinPages.class.getSimpleName());
         }
 
         @Override
         public TransformationState<Page> process(Page inputPage)
         {
-            if (inputPage == null) {
+            if (inputPage == null && spilledSet == null) {
                 return finished();
             }
 
-            if (channelSet == null) {
-                if (!channelSetFuture.isDone()) {
+            if (channelSet == null && spilledSet == null) {
+                ListenableFuture<?> setBuilt = setSupplier.getSetBuilt();
+                if (!setBuilt.isDone()) {
                     // This will materialize page but it shouldn't matter for the first page
                     localMemoryContext.setBytes(inputPage.getSizeInBytes());
-                    return blocked(channelSetFuture);
+                    return blocked(setBuilt);
                 }
-                checkSuccess(channelSetFuture, "ChannelSet building failed");
-                channelSet = getFutureValue(channelSetFuture);
                 localMemoryContext.setBytes(0);
+
+                Optional<SpilledSet> spilled = setSupplier.getSpilledSet();
+                if (spilled.isPresent()) {
+                    spilledSet = spilled.get();
+                }
+                else {
+                    ListenableFuture<ChannelSet> channelSetFuture = setSupplier.getChannelSet();
+                    checkSuccess(channelSetFuture, "ChannelSet building failed");
+                    channelSet = getFutureValue(channelSetFuture);
+                }
+            }
+
+            if (spilledSet == null) {
+                return ofResult(semiJoin(inputPage, channelSet, channelSet.containsNull(), channelSet.isEmpty()));
+            }
+
+            if (inputPage != null) {
+                if (!spillInProgress.isDone()) {
+                    return blocked(spillInProgress);
+                }
+                spillPage(inputPage);
+                return needsMoreData();
             }
 
+            return processSpilledPartitions();
+        }
+
+        private void spillPage(Page page)
+        {
+            checkSuccess(spillInProgress, "spilling failed");
+
+            if (spiller.isEmpty()) {
+                spiller = Optional.of(partitioningSpillerFactory.create(
+                        probeTypes,
+                        setSupplier.createSpillPartitionFunction(probeJoinChannel, spilledSet.getPartitionCount()),
+                        spillContext.newLocalSpillContext(),
+                        memoryTrackingContext.newAggregateSystemMemoryContext()));
+            }
+            spillInProgress = spiller.get().partitionAndSpill(page, partition -> true).getSpillingFuture();
+        }
+
+        private TransformationState<Page> processSpilledPartitions()
+        {
+            while (currentPartition < spilledSet.getPartitionCount()) {
+                if (spilledPages == null) {
+                    if (!spillInProgress.isDone()) {
+                        return blocked(spillInProgress);
+                    }
+                    checkSuccess(spillInProgress, "spilling failed");
+
+                    ListenableFuture<ChannelSet> partitionFuture = setSupplier.getPartition(currentPartition);
+                    if (!partitionFuture.isDone()) {
+                        return blocked(partitionFuture);
+                    }
+                    checkSuccess(partitionFuture, "ChannelSet building failed");
+                    partitionChannelSet = getFutureValue(partitionFuture);
+                    spilledPages = spiller.get().getSpilledPages(currentPartition);
+                }
+
+                if (spilledPages.hasNext()) {
+                    return ofResult(semiJoin(spilledPages.next(), partitionChannelSet, spilledSet.containsNull(), spilledSet.isEmpty()), false);
+                }
+
+                partitionChannelSet = null;
+                spilledPages = null;
+                setSupplier.releasePartition(currentPartition);
+                currentPartition++;
+            }
+
+            spiller.get().verifyAllPartitionsRead();
+            close();
+            return finished();
+        }
+
+        private Page semiJoin(Page inputPage, ChannelSet channelSet, boolean setContainsNull, boolean setEmpty)
+        {
             // create the block builder for the new boolean column
             // we know the exact size required for the block
             BlockBuilder blockBuilder = BOOLEAN.createFixedSizeBlockBuilder(inputPage.getPositionCount());
@@ -190,7 +332,7 @@ public class HashSemiJoinOperator
             // update hashing strategy to use probe cursor
             for (int position = 0; position < inputPage.getPositionCount(); position++) {
                 if (probeJoinPage.getBlock(0).isNull(position)) {
-                    if (channelSet.isEmpty()) {
+                    if (setEmpty) {
                         BOOLEAN.writeBoolean(blockBuilder, false);
                     }
                     else {
@@ -206,7 +348,7 @@ public class HashSemiJoinOperator
                     else {
                         contains = channelSet.contains(position, probeJoinPage);
                     }
-                    if (!contains && channelSet.containsNull()) {
+                    if (!contains && setContainsNull) {
                         blockBuilder.appendNull();
                     }
                     else {
@@ -215,7 +357,26 @@ public class HashSemiJoinOperator
                 }
             }
             // add the new boolean column to the page
-            return ofResult(inputPage.appendColumn(blockBuilder.build()));
+            return inputPage.appendColumn(blockBuilder.build());
+        }
+
+        public void close()
+        {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            partitionChannelSet = null;
+            spilledPages = null;
+
+            try (Closer closer = Closer.create()) {
+                // release the partitions not processed yet, so that the set builder does not wait for this probe
+                closer.register(() -> setSupplier.probeClosed(currentPartition));
+                spiller.ifPresent(closer::register);
+            }
+            catch (IOException e) {
+                throw new RuntimeException(e);
+            }
         }
     }
 }
@@ -82,6 +82,9 @@ public class OperatorContext
     private final CounterStat outputPositions = new CounterStat();
 
     private final AtomicLong dynamicFilterSplitsProcessed = new AtomicLong();
+    private final AtomicLong dynamicFilterRowsFiltered = new AtomicLong();
+
+    private final AtomicLong partialAggregationSkippedPositions = new AtomicLong();
 
     private final AtomicLong physicalWrittenDataSize = new AtomicLong();
 
@@ -218,6 +221,16 @@ public class OperatorContext
         dynamicFilterSplitsProcessed.getAndAdd(dynamicFilterSplits);
     }
 
+    public void recordDynamicFilterRowsFiltered(long rows)
+    {
+        dynamicFilterRowsFiltered.getAndAdd(rows);
+    }
+
+    public void recordPartialAggregationSkippedPositions(long positions)
+    {
+        partialAggregationSkippedPositions.getAndAdd(positions);
+    }
+
     public void recordPhysicalWrittenData(long sizeInBytes)
     {
         physicalWrittenDataSize.getAndAdd(sizeInBytes);
@@ -519,6 +532,9 @@ public class OperatorContext
                 outputPositions.getTotalCount(),
 
                 dynamicFilterSplitsProcessed.get(),
+                dynamicFilterRowsFiltered.get(),
+
+                partialAggregationSkippedPositions.get(),
 
                 succinctBytes(physicalWrittenDataSize.get()),
 
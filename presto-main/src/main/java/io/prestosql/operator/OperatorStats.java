@@ -62,6 +62,9 @@ public class OperatorStats
     private final long outputPositions;
 
     private final long dynamicFilterSplitsProcessed;
+    private final long dynamicFilterRowsFiltered;
+
+    private final long partialAggregationSkippedPositions;
 
     private final DataSize physicalWrittenDataSize;
 
@@ -114,6 +117,9 @@ public class OperatorStats
             @JsonProperty("outputPositions") long outputPositions,
 
             @JsonProperty("dynamicFilterSplitsProcessed") long dynamicFilterSplitsProcessed,
+            @JsonProperty("dynamicFilterRowsFiltered") long dynamicFilterRowsFiltered,
+
+            @JsonProperty("partialAggregationSkippedPositions") long partialAggregationSkippedPositions,
 
             @JsonProperty("physicalWrittenDataSize") DataSize physicalWrittenDataSize,
 
@@ -168,6 +174,10 @@ public class OperatorStats
         this.outputPositions = outputPositions;
 
         this.dynamicFilterSplitsProcessed = dynamicFilterSplitsProcessed;
+        this.dynamicFilterRowsFiltered = dynamicFilterRowsFiltered;
+
+        checkArgument(partialAggregationSkippedPositions >= 0, "partialAggregationSkippedPositions is negative");
+        this.partialAggregationSkippedPositions = partialAggregationSkippedPositions;
 
         this.physicalWrittenDataSize = requireNonNull(physicalWrittenDataSize, "writtenDataSize is null");
 
@@ -331,6 +341,18 @@ public class OperatorStats
         return dynamicFilterSplitsProcessed;
     }
 
+    @JsonProperty
+    public long getDynamicFilterRowsFiltered()
+    {
+        return dynamicFilterRowsFiltered;
+    }
+
+    @JsonProperty
+    public long getPartialAggregationSkippedPositions()
+    {
+        return partialAggregationSkippedPositions;
+    }
+
     @JsonProperty
     public DataSize getPhysicalWrittenDataSize()
     {
@@ -450,6 +472,9 @@ public class OperatorStats
         long outputPositions = this.outputPositions;
 
         long dynamicFilterSplitsProcessed = this.dynamicFilterSplitsProcessed;
+        long dynamicFilterRowsFiltered = this.dynamicFilterRowsFiltered;
+
+        long partialAggregationSkippedPositions = this.partialAggregationSkippedPositions;
 
         long physicalWrittenDataSize = this.physicalWrittenDataSize.toBytes();
 
@@ -496,6 +521,9 @@ public class OperatorStats
             outputPositions += operator.getOutputPositions();
 
             dynamicFilterSplitsProcessed += operator.getDynamicFilterSplitsProcessed();
+            dynamicFilterRowsFiltered += operator.getDynamicFilterRowsFiltered();
+
+            partialAggregationSkippedPositions += operator.getPartialAggregationSkippedPositions();
 
             physicalWrittenDataSize += operator.getPhysicalWrittenDataSize().toBytes();
 
@@ -554,6 +582,9 @@ public class OperatorStats
                 outputPositions,
 
                 dynamicFilterSplitsProcessed,
+                dynamicFilterRowsFiltered,
+
+                partialAggregationSkippedPositions,
 
                 succinctBytes(physicalWrittenDataSize),
 
@@ -620,6 +651,8 @@ public class OperatorStats
                 outputDataSize,
                 outputPositions,
                 dynamicFilterSplitsProcessed,
+                dynamicFilterRowsFiltered,
+                partialAggregationSkippedPositions,
                 physicalWrittenDataSize,
                 blockedWall,
                 finishCalls,
@@ -34,8 +34,6 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.base.Verify.verifyNotNull;
-import static com.google.common.collect.ImmutableList.toImmutableList;
-import static com.google.common.collect.Iterators.transform;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static io.airlift.concurrent.MoreFutures.getFutureValue;
@@ -159,7 +157,7 @@ public class OrderByOperator
     private ListenableFuture<?> spillInProgress = immediateFuture(null);
     private Runnable finishMemoryRevoke = () -> {};
 
-    private Iterator<Optional<Page>> sortedPages;
+    private WorkProcessor<Page> sortedPages;
 
     private State state = State.NEEDS_INPUT;
 
@@ -229,10 +227,10 @@ public class OrderByOperator
 
             List<WorkProcessor<Page>> spilledPages = getSpilledPages();
             if (spilledPages.isEmpty()) {
-                sortedPages = transform(sortedPagesIndex, Optional::of);
+                sortedPages = WorkProcessor.fromIterator(sortedPagesIndex);
             }
             else {
-                sortedPages = mergeSpilledAndMemoryPages(spilledPages, sortedPagesIndex).yieldingIterator();
+                sortedPages = mergeSpilledAndMemoryPages(spilledPages, sortedPagesIndex);
             }
         }
     }
@@ -272,16 +270,16 @@ public class OrderByOperator
         }
 
         verifyNotNull(sortedPages, "sortedPages is null");
-        if (!sortedPages.hasNext()) {
-            state = State.FINISHED;
+        if (!sortedPages.process()) {
+            // yielded, or blocked until the next spilled page is read
             return null;
         }
-
-        Optional<Page> next = sortedPages.next();
-        if (next.isEmpty()) {
+        if (sortedPages.isFinished()) {
+            state = State.FINISHED;
             return null;
         }
-        Page nextPage = next.get();
+
+        Page nextPage = sortedPages.getResult();
         Block[] blocks = new Block[outputChannels.length];
         for (int i = 0; i < outputChannels.length; i++) {
             blocks[i] = nextPage.getBlock(outputChannels[i]);
@@ -289,6 +287,15 @@ public class OrderByOperator
         return new Page(nextPage.getPositionCount(), blocks);
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (sortedPages != null && sortedPages.isBlocked()) {
+            return sortedPages.getBlockedFuture();
+        }
+        return NOT_BLOCKED;
+    }
+
     @Override
     public ListenableFuture<?> startMemoryRevoke()
     {
@@ -338,9 +345,7 @@ public class OrderByOperator
             return ImmutableList.of();
         }
 
-        return spiller.get().getSpills().stream()
-                .map(WorkProcessor::fromIterator)
-                .collect(toImmutableList());
+        return spiller.get().readAheadSpills();
     }
 
     private WorkProcessor<Page> mergeSpilledAndMemoryPages(List<WorkProcessor<Page>> spilledPages, Iterator<Page> sortedPagesIndex)
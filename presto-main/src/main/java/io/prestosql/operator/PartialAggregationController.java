@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Decides whether partial aggregation is worth doing for all the operators
+ * created by a single {@link HashAggregationOperator.HashAggregationOperatorFactory}.
+ * Every time a partial aggregation flushes its hash table it reports how many rows
+ * it consumed and how many unique groups it produced. Once enough rows have been
+ * observed and the ratio of unique groups to input rows exceeds the threshold,
+ * partial aggregation is disabled and operators pass rows through, converted
+ * to intermediate aggregation state.
+ */
+@ThreadSafe
+public class PartialAggregationController
+{
+    private final long minRows;
+    private final double uniqueRowsRatioThreshold;
+
+    private volatile boolean partialAggregationDisabled;
+
+    @GuardedBy("this")
+    private long totalRowsProcessed;
+    @GuardedBy("this")
+    private long totalUniqueRowsProduced;
+
+    public PartialAggregationController(long minRows, double uniqueRowsRatioThreshold)
+    {
+        checkArgument(minRows >= 0, "minRows must be non-negative");
+        checkArgument(uniqueRowsRatioThreshold >= 0 && uniqueRowsRatioThreshold <= 1, "uniqueRowsRatioThreshold must be between 0 and 1");
+        this.minRows = minRows;
+        this.uniqueRowsRatioThreshold = uniqueRowsRatioThreshold;
+    }
+
+    public boolean isPartialAggregationDisabled()
+    {
+        return partialAggregationDisabled;
+    }
+
+    public synchronized void onFlush(long rowsProcessed, long uniqueRowsProduced)
+    {
+        checkArgument(rowsProcessed >= 0, "rowsProcessed is negative");
+        checkArgument(uniqueRowsProduced >= 0, "uniqueRowsProduced is negative");
+        if (partialAggregationDisabled) {
+            return;
+        }
+
+        totalRowsProcessed += rowsProcessed;
+        totalUniqueRowsProduced += uniqueRowsProduced;
+        if (totalRowsProcessed >= minRows && totalUniqueRowsProduced > totalRowsProcessed * uniqueRowsRatioThreshold) {
+            partialAggregationDisabled = true;
+        }
+    }
+
+    public PartialAggregationController duplicate()
+    {
+        return new PartialAggregationController(minRows, uniqueRowsRatioThreshold);
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return toStringHelper(this)
+                .add("minRows", minRows)
+                .add("uniqueRowsRatioThreshold", uniqueRowsRatioThreshold)
+                .add("partialAggregationDisabled", partialAggregationDisabled)
+                .add("totalRowsProcessed", totalRowsProcessed)
+                .add("totalUniqueRowsProduced", totalUniqueRowsProduced)
+                .toString();
+    }
+}
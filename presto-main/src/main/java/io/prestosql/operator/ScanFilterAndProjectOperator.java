@@ -22,6 +22,7 @@ import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.memory.context.MemoryTrackingContext;
 import io.prestosql.metadata.Split;
 import io.prestosql.metadata.TableHandle;
+import io.prestosql.operator.DynamicRowFilter.PageRowFilter;
 import io.prestosql.operator.WorkProcessor.ProcessState;
 import io.prestosql.operator.WorkProcessor.TransformationState;
 import io.prestosql.operator.WorkProcessorSourceOperatorAdapter.AdapterWorkProcessorSourceOperatorFactory;
@@ -76,6 +77,7 @@ public class ScanFilterAndProjectOperator
     private long physicalBytes;
     private long readTimeNanos;
     private long dynamicFilterSplitsProcessed;
+    private long dynamicFilterRowsFiltered;
 
     private ScanFilterAndProjectOperator(
             Session session,
@@ -88,6 +90,7 @@ public class ScanFilterAndProjectOperator
             TableHandle table,
             Iterable<ColumnHandle> columns,
             DynamicFilter dynamicFilter,
+            DynamicRowFilter dynamicRowFilter,
             Iterable<Type> types,
             DataSize minOutputPageSize,
             int minOutputPageRowCount,
@@ -103,6 +106,7 @@ public class ScanFilterAndProjectOperator
                         table,
                         columns,
                         dynamicFilter,
+                        dynamicRowFilter,
                         types,
                         requireNonNull(memoryTrackingContext, "memoryTrackingContext is null").aggregateSystemMemoryContext(),
                         minOutputPageSize,
@@ -157,6 +161,12 @@ public class ScanFilterAndProjectOperator
         return dynamicFilterSplitsProcessed;
     }
 
+    @Override
+    public long getDynamicFilterRowsFiltered()
+    {
+        return dynamicFilterRowsFiltered;
+    }
+
     @Override
     public WorkProcessor<Page> getOutputPages()
     {
@@ -190,6 +200,7 @@ public class ScanFilterAndProjectOperator
         final TableHandle table;
         final List<ColumnHandle> columns;
         final DynamicFilter dynamicFilter;
+        final PageRowFilter dynamicRowFilter;
         final List<Type> types;
         final LocalMemoryContext memoryContext;
         final AggregatedMemoryContext localAggregatedMemoryContext;
@@ -208,6 +219,7 @@ public class ScanFilterAndProjectOperator
                 TableHandle table,
                 Iterable<ColumnHandle> columns,
                 DynamicFilter dynamicFilter,
+                DynamicRowFilter dynamicRowFilter,
                 Iterable<Type> types,
                 AggregatedMemoryContext aggregatedMemoryContext,
                 DataSize minOutputPageSize,
@@ -222,6 +234,7 @@ public class ScanFilterAndProjectOperator
             this.table = requireNonNull(table, "table is null");
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
             this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilterSupplier is null");
+            this.dynamicRowFilter = requireNonNull(dynamicRowFilter, "dynamicRowFilter is null").createPageRowFilter(this.columns);
             this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
             this.memoryContext = aggregatedMemoryContext.newLocalMemoryContext(ScanFilterAndProjectOperator.class.getSimpleName());
             this.localAggregatedMemoryContext = newSimpleAggregatedMemoryContext();
@@ -275,7 +288,7 @@ public class ScanFilterAndProjectOperator
         WorkProcessor<Page> processPageSource()
         {
             return WorkProcessor
-                    .create(new ConnectorPageSourceToPages(pageSourceMemoryContext))
+                    .create(new ConnectorPageSourceToPages(pageSourceMemoryContext, dynamicRowFilter))
                     .yielding(yieldSignal::isSet)
                     .flatMap(page -> pageProcessor.createWorkProcessor(
                             session.toConnectorSession(),
@@ -355,10 +368,12 @@ public class ScanFilterAndProjectOperator
             implements WorkProcessor.Process<Page>
     {
         final LocalMemoryContext pageSourceMemoryContext;
+        final PageRowFilter dynamicRowFilter;
 
-        ConnectorPageSourceToPages(LocalMemoryContext pageSourceMemoryContext)
+        ConnectorPageSourceToPages(LocalMemoryContext pageSourceMemoryContext, PageRowFilter dynamicRowFilter)
         {
             this.pageSourceMemoryContext = pageSourceMemoryContext;
+            this.dynamicRowFilter = dynamicRowFilter;
         }
 
         @Override
@@ -392,6 +407,14 @@ public class ScanFilterAndProjectOperator
             physicalBytes = pageSource.getCompletedBytes();
             readTimeNanos = pageSource.getReadTimeNanos();
 
+            // drop rows which cannot match the join build side before they are processed
+            int positionCount = page.getPositionCount();
+            page = dynamicRowFilter.filter(page);
+            dynamicFilterRowsFiltered += positionCount - page.getPositionCount();
+            if (page.getPositionCount() == 0) {
+                return ProcessState.yield();
+            }
+
             return ProcessState.ofResult(page);
         }
     }
@@ -408,6 +431,7 @@ public class ScanFilterAndProjectOperator
         private final TableHandle table;
         private final List<ColumnHandle> columns;
         private final DynamicFilter dynamicFilter;
+        private final DynamicRowFilter dynamicRowFilter;
         private final List<Type> types;
         private final DataSize minOutputPageSize;
         private final int minOutputPageRowCount;
@@ -423,6 +447,7 @@ public class ScanFilterAndProjectOperator
                 TableHandle table,
                 Iterable<ColumnHandle> columns,
                 DynamicFilter dynamicFilter,
+                DynamicRowFilter dynamicRowFilter,
                 List<Type> types,
                 DataSize minOutputPageSize,
                 int minOutputPageRowCount)
@@ -436,6 +461,7 @@ public class ScanFilterAndProjectOperator
             this.table = requireNonNull(table, "table is null");
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
             this.dynamicFilter = dynamicFilter;
+            this.dynamicRowFilter = requireNonNull(dynamicRowFilter, "dynamicRowFilter is null");
             this.types = requireNonNull(types, "types is null");
             this.minOutputPageSize = requireNonNull(minOutputPageSize, "minOutputPageSize is null");
             this.minOutputPageRowCount = minOutputPageRowCount;
@@ -511,6 +537,7 @@ public class ScanFilterAndProjectOperator
                     table,
                     columns,
                     dynamicFilter,
+                    dynamicRowFilter,
                     types,
                     minOutputPageSize,
                     minOutputPageRowCount,
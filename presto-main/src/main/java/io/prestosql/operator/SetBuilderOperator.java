@@ -14,22 +14,45 @@
 package io.prestosql.operator;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.operator.ChannelSet.ChannelSetBuilder;
+import io.prestosql.operator.exchange.LocalPartitionGenerator;
 import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spiller.PartitioningSpiller;
+import io.prestosql.spiller.PartitioningSpillerFactory;
 import io.prestosql.sql.gen.JoinCompiler;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 import io.prestosql.type.BlockTypeOperators;
 
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Iterators.concat;
+import static com.google.common.collect.Iterators.singletonIterator;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.MoreFutures.checkSuccess;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spiller.PartitioningSpillerFactory.unsupportedPartitioningSpillerFactory;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
@@ -39,11 +62,34 @@ public class SetBuilderOperator
     public static class SetSupplier
     {
         private final Type type;
+        private final BlockTypeOperators blockTypeOperators;
         private final SettableFuture<ChannelSet> channelSetFuture = SettableFuture.create();
+        private final SettableFuture<?> setBuiltFuture = SettableFuture.create();
+
+        @GuardedBy("this")
+        private int probeCount;
+        @GuardedBy("this")
+        private boolean noMoreProbes;
+        @GuardedBy("this")
+        private int probesClosedBeforeSpill;
+        @GuardedBy("this")
+        @Nullable
+        private SpilledSet spilledSet;
+
+        // per spill partition coordination between the set builder and the probes, see SpilledSet
+        @GuardedBy("this")
+        private final List<SettableFuture<ChannelSet>> partitionSets = new ArrayList<>();
+        @GuardedBy("this")
+        private final List<SettableFuture<?>> partitionRequested = new ArrayList<>();
+        @GuardedBy("this")
+        private final List<SettableFuture<?>> partitionReleased = new ArrayList<>();
+        @GuardedBy("this")
+        private int[] partitionReleaseCounts = new int[0];
 
-        public SetSupplier(Type type)
+        public SetSupplier(Type type, BlockTypeOperators blockTypeOperators)
         {
             this.type = requireNonNull(type, "type is null");
+            this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
         }
 
         public Type getType()
@@ -56,10 +102,184 @@ public class SetBuilderOperator
             return channelSetFuture;
         }
 
+        /**
+         * Completed when either the in-memory {@link #getChannelSet()} is available or the set has been spilled
+         * (see {@link #getSpilledSet()}).
+         */
+        public ListenableFuture<?> getSetBuilt()
+        {
+            return setBuiltFuture;
+        }
+
+        public synchronized Optional<SpilledSet> getSpilledSet()
+        {
+            return Optional.ofNullable(spilledSet);
+        }
+
+        /**
+         * Partition function used to spill both the set values and the probe rows. Set and probe rows
+         * with equal values must end up in the same partition, so both sides need to use the same hashing.
+         */
+        public PartitionFunction createSpillPartitionFunction(int valueChannel, int partitionCount)
+        {
+            return new LocalPartitionGenerator(new InterpretedHashGenerator(ImmutableList.of(type), new int[] {valueChannel}, blockTypeOperators), partitionCount);
+        }
+
         void setChannelSet(ChannelSet channelSet)
         {
             boolean wasSet = channelSetFuture.set(requireNonNull(channelSet, "channelSet is null"));
             checkState(wasSet, "ChannelSet already set");
+            setBuiltFuture.set(null);
+        }
+
+        synchronized void addProbe()
+        {
+            checkState(!noMoreProbes, "Probe added after noMoreProbes");
+            probeCount++;
+        }
+
+        synchronized void noMoreProbes()
+        {
+            if (noMoreProbes) {
+                return;
+            }
+            noMoreProbes = true;
+            checkAllPartitionsReleased();
+        }
+
+        void setSpilled(int partitionCount, boolean containsNull, boolean empty)
+        {
+            synchronized (this) {
+                checkState(spilledSet == null, "Set already spilled");
+                checkState(!channelSetFuture.isDone(), "ChannelSet already set");
+                spilledSet = new SpilledSet(partitionCount, containsNull, empty);
+                partitionReleaseCounts = new int[partitionCount];
+                for (int partition = 0; partition < partitionCount; partition++) {
+                    partitionSets.add(SettableFuture.create());
+                    partitionRequested.add(SettableFuture.create());
+                    partitionReleased.add(SettableFuture.create());
+                }
+                checkAllPartitionsReleased();
+            }
+            // complete outside of the lock, as listeners may call back into this supplier
+            setBuiltFuture.set(null);
+        }
+
+        synchronized ListenableFuture<?> getPartitionRequested(int partition)
+        {
+            return partitionRequested.get(partition);
+        }
+
+        synchronized boolean isPartitionReleased(int partition)
+        {
+            return partitionReleased.get(partition).isDone();
+        }
+
+        /**
+         * @return future completed once all probes are done with the given partition
+         */
+        ListenableFuture<?> setPartition(int partition, ChannelSet channelSet)
+        {
+            SettableFuture<ChannelSet> partitionSet;
+            ListenableFuture<?> released;
+            synchronized (this) {
+                partitionSet = partitionSets.get(partition);
+                released = partitionReleased.get(partition);
+            }
+            if (partitionSet != null) {
+                partitionSet.set(requireNonNull(channelSet, "channelSet is null"));
+            }
+            return released;
+        }
+
+        public synchronized ListenableFuture<ChannelSet> getPartition(int partition)
+        {
+            checkState(spilledSet != null, "Set is not spilled");
+            SettableFuture<ChannelSet> partitionSet = partitionSets.get(partition);
+            checkState(partitionSet != null, "Partition %s already released", partition);
+            partitionRequested.get(partition).set(null);
+            return partitionSet;
+        }
+
+        public synchronized void releasePartition(int partition)
+        {
+            checkState(spilledSet != null, "Set is not spilled");
+            partitionReleaseCounts[partition]++;
+            checkPartitionReleased(partition);
+        }
+
+        /**
+         * Called when a probe is closed. Partitions the probe has not released yet are released on its behalf.
+         */
+        public synchronized void probeClosed(int firstUnreleasedPartition)
+        {
+            if (spilledSet == null) {
+                probesClosedBeforeSpill++;
+                return;
+            }
+            for (int partition = firstUnreleasedPartition; partition < spilledSet.getPartitionCount(); partition++) {
+                releasePartition(partition);
+            }
+        }
+
+        @GuardedBy("this")
+        private void checkAllPartitionsReleased()
+        {
+            if (spilledSet == null) {
+                return;
+            }
+            for (int partition = 0; partition < spilledSet.getPartitionCount(); partition++) {
+                checkPartitionReleased(partition);
+            }
+        }
+
+        @GuardedBy("this")
+        private void checkPartitionReleased(int partition)
+        {
+            if (!noMoreProbes || partitionReleaseCounts[partition] + probesClosedBeforeSpill < probeCount) {
+                return;
+            }
+            // drop the reference so that the partition set can be garbage collected
+            partitionSets.set(partition, null);
+            // wake up the set builder even if no probe ever requested this partition
+            partitionRequested.get(partition).set(null);
+            partitionReleased.get(partition).set(null);
+        }
+    }
+
+    /**
+     * Describes a set that did not fit in memory and was spilled. The set values and the probe rows are spilled
+     * with the same partitioning. Probes process the partitions in order, and the set builder loads a partition
+     * into memory once it is requested and keeps it until all probes released it. Whether the set contains
+     * null and whether it is empty are tracked for the whole set, as both affect the result for every probe row.
+     */
+    public static class SpilledSet
+    {
+        private final int partitionCount;
+        private final boolean containsNull;
+        private final boolean empty;
+
+        public SpilledSet(int partitionCount, boolean containsNull, boolean empty)
+        {
+            checkArgument(partitionCount > 0, "partitionCount must be positive");
+            this.partitionCount = partitionCount;
+            this.containsNull = containsNull;
+            this.empty = empty;
+        }
+
+        public int getPartitionCount()
+        {
+            return partitionCount;
+        }
+
+        public boolean containsNull()
+        {
+            return containsNull;
+        }
+
+        public boolean isEmpty()
+        {
+            return empty;
         }
     }
 
@@ -75,6 +295,8 @@ public class SetBuilderOperator
         private boolean closed;
         private final JoinCompiler joinCompiler;
         private final BlockTypeOperators blockTypeOperators;
+        private final boolean spillEnabled;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
 
         public SetBuilderOperatorFactory(
                 int operatorId,
@@ -85,16 +307,33 @@ public class SetBuilderOperator
                 int expectedPositions,
                 JoinCompiler joinCompiler,
                 BlockTypeOperators blockTypeOperators)
+        {
+            this(operatorId, planNodeId, type, setChannel, hashChannel, expectedPositions, joinCompiler, blockTypeOperators, false, unsupportedPartitioningSpillerFactory());
+        }
+
+        public SetBuilderOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                Type type,
+                int setChannel,
+                Optional<Integer> hashChannel,
+                int expectedPositions,
+                JoinCompiler joinCompiler,
+                BlockTypeOperators blockTypeOperators,
+                boolean spillEnabled,
+                PartitioningSpillerFactory partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
             checkArgument(setChannel >= 0, "setChannel is negative");
-            this.setProvider = new SetSupplier(requireNonNull(type, "type is null"));
+            this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
+            this.setProvider = new SetSupplier(requireNonNull(type, "type is null"), blockTypeOperators);
             this.setChannel = setChannel;
             this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
             this.expectedPositions = expectedPositions;
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
-            this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
+            this.spillEnabled = spillEnabled;
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
         }
 
         public SetSupplier getSetProvider()
@@ -107,7 +346,7 @@ public class SetBuilderOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, SetBuilderOperator.class.getSimpleName());
-            return new SetBuilderOperator(operatorContext, setProvider, setChannel, hashChannel, expectedPositions, joinCompiler, blockTypeOperators);
+            return new SetBuilderOperator(operatorContext, setProvider, setChannel, hashChannel, expectedPositions, joinCompiler, blockTypeOperators, spillEnabled, partitioningSpillerFactory);
         }
 
         @Override
@@ -119,20 +358,69 @@ public class SetBuilderOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new SetBuilderOperatorFactory(operatorId, planNodeId, setProvider.getType(), setChannel, hashChannel, expectedPositions, joinCompiler, blockTypeOperators);
+            return new SetBuilderOperatorFactory(operatorId, planNodeId, setProvider.getType(), setChannel, hashChannel, expectedPositions, joinCompiler, blockTypeOperators, spillEnabled, partitioningSpillerFactory);
         }
     }
 
+    private enum State
+    {
+        /**
+         * Operator accepts input and builds the set in memory
+         */
+        CONSUMING_INPUT,
+
+        /**
+         * Set has been spilled and remaining input is spilled as it arrives
+         */
+        SPILLING_INPUT,
+
+        /**
+         * Spilled set partitions are loaded one at a time, each kept in memory until all probes are done with it
+         */
+        UNSPILLING_PARTITIONS,
+
+        /**
+         * Terminal state
+         */
+        FINISHED
+    }
+
+    @VisibleForTesting
+    static final int SPILL_PARTITION_COUNT = 16;
+
     private final OperatorContext operatorContext;
+    private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
     private final SetSupplier setSupplier;
     private final int[] sourceChannels;
+    private final Optional<Integer> channelSetHashChannel;
+    private final List<Type> spillTypes;
+    private final int expectedPositions;
+    private final JoinCompiler joinCompiler;
+    private final BlockTypeOperators blockTypeOperators;
+    private final boolean spillEnabled;
+    private final PartitioningSpillerFactory partitioningSpillerFactory;
 
-    private final ChannelSetBuilder channelSetBuilder;
+    private State state = State.CONSUMING_INPUT;
 
-    private boolean finished;
+    @Nullable
+    private ChannelSetBuilder channelSetBuilder;
 
     @Nullable
     private Work<?> unfinishedWork;  // The pending work for current page.
+    @Nullable
+    private Page unfinishedPage;  // The page of the pending work, spilled again if memory is revoked before the work is done.
+
+    private Optional<Runnable> finishMemoryRevoke = Optional.empty();
+    private Optional<PartitioningSpiller> spiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = immediateFuture(null);
+    private boolean spilledSetContainsNull;
+    private long spilledPositionCount;
+
+    private int unspillingPartition;
+    @Nullable
+    private Iterator<Page> unspilledPages;
+    private Optional<ListenableFuture<?>> partitionReleased = Optional.empty();
 
     public SetBuilderOperator(
             OperatorContext operatorContext,
@@ -142,25 +430,54 @@ public class SetBuilderOperator
             int expectedPositions,
             JoinCompiler joinCompiler,
             BlockTypeOperators blockTypeOperators)
+    {
+        this(operatorContext, setSupplier, setChannel, hashChannel, expectedPositions, joinCompiler, blockTypeOperators, false, unsupportedPartitioningSpillerFactory());
+    }
+
+    public SetBuilderOperator(
+            OperatorContext operatorContext,
+            SetSupplier setSupplier,
+            int setChannel,
+            Optional<Integer> hashChannel,
+            int expectedPositions,
+            JoinCompiler joinCompiler,
+            BlockTypeOperators blockTypeOperators,
+            boolean spillEnabled,
+            PartitioningSpillerFactory partitioningSpillerFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
         this.setSupplier = requireNonNull(setSupplier, "setProvider is null");
 
         if (requireNonNull(hashChannel, "hashChannel is null").isPresent()) {
             this.sourceChannels = new int[] {setChannel, hashChannel.get()};
+            this.spillTypes = ImmutableList.of(setSupplier.getType(), BIGINT);
         }
         else {
             this.sourceChannels = new int[] {setChannel};
+            this.spillTypes = ImmutableList.of(setSupplier.getType());
         }
         // Set builder is has a single channel which goes in channel 0, if hash is present, add a hachBlock to channel 1
-        Optional<Integer> channelSetHashChannel = hashChannel.isPresent() ? Optional.of(1) : Optional.empty();
-        this.channelSetBuilder = new ChannelSetBuilder(
+        this.channelSetHashChannel = hashChannel.isPresent() ? Optional.of(1) : Optional.empty();
+        this.expectedPositions = expectedPositions;
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
+        this.spillEnabled = spillEnabled;
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+        this.channelSetBuilder = createChannelSetBuilder(expectedPositions, spillEnabled ? localRevocableMemoryContext : localUserMemoryContext);
+    }
+
+    private ChannelSetBuilder createChannelSetBuilder(int expectedPositions, LocalMemoryContext memoryContext)
+    {
+        return new ChannelSetBuilder(
                 setSupplier.getType(),
                 channelSetHashChannel,
                 expectedPositions,
-                requireNonNull(operatorContext, "operatorContext is null"),
-                requireNonNull(joinCompiler, "joinCompiler is null"),
-                requireNonNull(blockTypeOperators, "blockTypeOperators is null"));
+                operatorContext,
+                memoryContext,
+                joinCompiler,
+                blockTypeOperators);
     }
 
     @Override
@@ -169,32 +486,152 @@ public class SetBuilderOperator
         return operatorContext;
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        switch (state) {
+            case SPILLING_INPUT:
+                return spillInProgress;
+            case UNSPILLING_PARTITIONS:
+                if (partitionReleased.isPresent()) {
+                    return partitionReleased.get();
+                }
+                if (unspilledPages == null) {
+                    return setSupplier.getPartitionRequested(unspillingPartition);
+                }
+                return NOT_BLOCKED;
+            default:
+                return NOT_BLOCKED;
+        }
+    }
+
     @Override
     public void finish()
     {
-        if (finished) {
+        if (finishMemoryRevoke.isPresent()) {
+            return;
+        }
+
+        switch (state) {
+            case CONSUMING_INPUT:
+                finishInput();
+                return;
+            case SPILLING_INPUT:
+                finishSpilledInput();
+                return;
+            case UNSPILLING_PARTITIONS:
+                unspillPartitions();
+                return;
+            case FINISHED:
+                return;
+        }
+        throw new IllegalStateException("Unhandled state: " + state);
+    }
+
+    private void finishInput()
+    {
+        if (unfinishedWork != null && !processUnfinishedWork()) {
             return;
         }
 
         ChannelSet channelSet = channelSetBuilder.build();
+        if (spillEnabled) {
+            // the set is handed over to the probes and cannot be revoked anymore
+            localUserMemoryContext.setBytes(channelSet.getEstimatedSizeInBytes());
+            localRevocableMemoryContext.setBytes(0);
+        }
         setSupplier.setChannelSet(channelSet);
         operatorContext.recordOutput(channelSet.getEstimatedSizeInBytes(), channelSet.size());
-        finished = true;
+        state = State.FINISHED;
+    }
+
+    private void finishSpilledInput()
+    {
+        if (!spillInProgress.isDone()) {
+            return;
+        }
+        checkSuccess(spillInProgress, "spilling failed");
+        setSupplier.setSpilled(SPILL_PARTITION_COUNT, spilledSetContainsNull, spilledPositionCount == 0);
+        state = State.UNSPILLING_PARTITIONS;
+    }
+
+    private void unspillPartitions()
+    {
+        while (unspillingPartition < SPILL_PARTITION_COUNT) {
+            if (partitionReleased.isPresent()) {
+                if (!partitionReleased.get().isDone()) {
+                    return;
+                }
+                partitionReleased = Optional.empty();
+                localUserMemoryContext.setBytes(0);
+                unspillingPartition++;
+                continue;
+            }
+
+            if (unspilledPages == null) {
+                if (setSupplier.isPartitionReleased(unspillingPartition)) {
+                    // no probe needs this partition
+                    unspillingPartition++;
+                    continue;
+                }
+                if (!setSupplier.getPartitionRequested(unspillingPartition).isDone()) {
+                    return;
+                }
+                unspilledPages = spiller.get().getSpilledPages(unspillingPartition);
+                channelSetBuilder = createChannelSetBuilder(expectedPositions, localUserMemoryContext);
+            }
+
+            if (!buildUnspilledPartition()) {
+                return;
+            }
+
+            ChannelSet channelSet = channelSetBuilder.build();
+            operatorContext.recordOutput(channelSet.getEstimatedSizeInBytes(), channelSet.size());
+            partitionReleased = Optional.of(setSupplier.setPartition(unspillingPartition, channelSet));
+            channelSetBuilder = null;
+            unspilledPages = null;
+        }
+
+        close();
+    }
+
+    private boolean buildUnspilledPartition()
+    {
+        while (true) {
+            if (unfinishedWork != null && !processUnfinishedWork()) {
+                return false;
+            }
+            if (!unspilledPages.hasNext()) {
+                return true;
+            }
+            unfinishedWork = channelSetBuilder.addPage(unspilledPages.next());
+        }
     }
 
     @Override
     public boolean isFinished()
     {
-        return finished;
+        return state == State.FINISHED;
     }
 
     @Override
     public boolean needsInput()
     {
-        // Since SetBuilderOperator doesn't produce any output, the getOutput()
-        // method may never be called. We need to handle any unfinished work
-        // before addInput() can be called again.
-        return !finished && (unfinishedWork == null || processUnfinishedWork());
+        if (finishMemoryRevoke.isPresent()) {
+            return false;
+        }
+
+        switch (state) {
+            case CONSUMING_INPUT:
+                // Since SetBuilderOperator doesn't produce any output, the getOutput()
+                // method may never be called. We need to handle any unfinished work
+                // before addInput() can be called again.
+                return unfinishedWork == null || processUnfinishedWork();
+            case SPILLING_INPUT:
+                return spillInProgress.isDone();
+            default:
+                return false;
+        }
     }
 
     @Override
@@ -203,7 +640,15 @@ public class SetBuilderOperator
         requireNonNull(page, "page is null");
         checkState(!isFinished(), "Operator is already finished");
 
-        unfinishedWork = channelSetBuilder.addPage(page.getColumns(sourceChannels));
+        Page input = page.getColumns(sourceChannels);
+        if (state == State.SPILLING_INPUT) {
+            spillPage(input);
+            return;
+        }
+        checkState(state == State.CONSUMING_INPUT, "Operator is in unexpected state %s", state);
+
+        unfinishedPage = input;
+        unfinishedWork = channelSetBuilder.addPage(input);
         processUnfinishedWork();
     }
 
@@ -213,6 +658,105 @@ public class SetBuilderOperator
         return null;
     }
 
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        checkState(spillEnabled, "Spill not enabled, no revokable memory should be reserved");
+
+        if (state != State.CONSUMING_INPUT || operatorContext.getReservedRevocableBytes() == 0) {
+            // Probably stale revoking request
+            finishMemoryRevoke = Optional.of(() -> {});
+            return immediateFuture(null);
+        }
+
+        checkState(spiller.isEmpty(), "Spiller already created");
+        spiller = Optional.of(partitioningSpillerFactory.create(
+                spillTypes,
+                setSupplier.createSpillPartitionFunction(0, SPILL_PARTITION_COUNT),
+                operatorContext.getSpillContext().newLocalSpillContext(),
+                operatorContext.newAggregateSystemMemoryContext()));
+
+        // The page of the pending work may have been added to the set only partially, so it is spilled as a whole.
+        // Values already in the set are spilled twice, which is fine since they are deduplicated when unspilled.
+        Iterator<Page> pages = channelSetPages(channelSetBuilder);
+        if (unfinishedPage != null) {
+            pages = concat(pages, singletonIterator(unfinishedPage));
+        }
+
+        finishMemoryRevoke = Optional.of(() -> {
+            channelSetBuilder = null;
+            unfinishedWork = null;
+            unfinishedPage = null;
+            localRevocableMemoryContext.setBytes(0);
+            state = State.SPILLING_INPUT;
+        });
+        return spillPages(pages);
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        checkState(finishMemoryRevoke.isPresent(), "Cannot finish unknown revoking");
+        finishMemoryRevoke.get().run();
+        finishMemoryRevoke = Optional.empty();
+    }
+
+    private ListenableFuture<?> spillPages(Iterator<Page> pages)
+    {
+        while (pages.hasNext()) {
+            spillPage(pages.next());
+            if (!spillInProgress.isDone()) {
+                return Futures.transformAsync(spillInProgress, ignored -> spillPages(pages), directExecutor());
+            }
+        }
+        return spillInProgress;
+    }
+
+    private void spillPage(Page page)
+    {
+        checkSuccess(spillInProgress, "spilling failed");
+
+        Block values = page.getBlock(0);
+        if (!spilledSetContainsNull && values.mayHaveNull()) {
+            for (int position = 0; position < values.getPositionCount(); position++) {
+                if (values.isNull(position)) {
+                    spilledSetContainsNull = true;
+                    break;
+                }
+            }
+        }
+        spilledPositionCount += page.getPositionCount();
+        spillInProgress = spiller.get().partitionAndSpill(page, partition -> true).getSpillingFuture();
+    }
+
+    private Iterator<Page> channelSetPages(ChannelSetBuilder channelSetBuilder)
+    {
+        int size = channelSetBuilder.size();
+        if (size == 0) {
+            return emptyIterator();
+        }
+        return new AbstractIterator<>()
+        {
+            private final PageBuilder pageBuilder = new PageBuilder(spillTypes);
+            private int position;
+
+            @Override
+            protected Page computeNext()
+            {
+                if (position == size) {
+                    return endOfData();
+                }
+                pageBuilder.reset();
+                while (!pageBuilder.isFull() && position < size) {
+                    pageBuilder.declarePosition();
+                    channelSetBuilder.appendValuesTo(position, pageBuilder);
+                    position++;
+                }
+                return pageBuilder.build();
+            }
+        };
+    }
+
     private boolean processUnfinishedWork()
     {
         // Processes the unfinishedWork for this page by adding the data to the hash table. If this page
@@ -221,12 +765,33 @@ public class SetBuilderOperator
         boolean done = unfinishedWork.process();
         if (done) {
             unfinishedWork = null;
+            unfinishedPage = null;
         }
         // We need to update the memory reservation again since the page builder memory may also be increasing.
         channelSetBuilder.updateMemoryReservation();
         return done;
     }
 
+    @Override
+    public void close()
+    {
+        // close() can be called in any state, due for example to query failure, and must clean resource up unconditionally
+        state = State.FINISHED;
+        finishMemoryRevoke = finishMemoryRevoke.map(ifPresent -> () -> {});
+        unfinishedWork = null;
+        unfinishedPage = null;
+        unspilledPages = null;
+        partitionReleased = Optional.empty();
+
+        try (Closer closer = Closer.create()) {
+            spiller.ifPresent(closer::register);
+            closer.register(() -> localRevocableMemoryContext.setBytes(0));
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @VisibleForTesting
     public int getCapacity()
     {
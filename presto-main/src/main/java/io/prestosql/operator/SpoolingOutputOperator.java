@@ -0,0 +1,317 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.client.DataSegment;
+import io.prestosql.execution.buffer.OutputBuffer;
+import io.prestosql.execution.buffer.PagesSerde;
+import io.prestosql.execution.buffer.PagesSerdeFactory;
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.server.protocol.ResultSpool;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.planner.plan.PlanNodeId;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static io.prestosql.client.DataSegment.inlineSegment;
+import static io.prestosql.client.DataSegment.spooledSegment;
+import static io.prestosql.server.protocol.QueryResultRows.toBinaryData;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarbinaryType.VARBINARY;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Output operator of the query output stage when results are spooled. It encodes the output
+ * pages into segments which are stored in the {@link ResultSpool}, and sends only the segment
+ * descriptors to the coordinator. The last segment of the task is sent to the coordinator
+ * inline when it is small, so that small results do not need an additional request.
+ */
+public class SpoolingOutputOperator
+        implements Operator
+{
+    public static final List<Type> SEGMENT_DESCRIPTOR_TYPES = ImmutableList.of(VARCHAR, BIGINT, VARBINARY);
+
+    private static final int URI_CHANNEL = 0;
+    private static final int ROW_COUNT_CHANNEL = 1;
+    private static final int DATA_CHANNEL = 2;
+
+    public static class SpoolingOutputFactory
+            implements OutputFactory
+    {
+        private final OutputBuffer outputBuffer;
+        private final ResultSpool resultSpool;
+        private final List<String> columnNames;
+
+        public SpoolingOutputFactory(OutputBuffer outputBuffer, ResultSpool resultSpool, List<String> columnNames)
+        {
+            this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
+            this.resultSpool = requireNonNull(resultSpool, "resultSpool is null");
+            this.columnNames = ImmutableList.copyOf(requireNonNull(columnNames, "columnNames is null"));
+        }
+
+        @Override
+        public OperatorFactory createOutputOperator(int operatorId, PlanNodeId planNodeId, List<Type> types, Function<Page, Page> pagePreprocessor, PagesSerdeFactory serdeFactory)
+        {
+            return new SpoolingOutputOperatorFactory(operatorId, planNodeId, outputBuffer, resultSpool, columnNames, types, pagePreprocessor, serdeFactory);
+        }
+    }
+
+    public static class SpoolingOutputOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final PlanNodeId planNodeId;
+        private final OutputBuffer outputBuffer;
+        private final ResultSpool resultSpool;
+        private final List<String> columnNames;
+        private final List<Type> types;
+        private final Function<Page, Page> pagePreprocessor;
+        private final PagesSerdeFactory serdeFactory;
+
+        public SpoolingOutputOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                OutputBuffer outputBuffer,
+                ResultSpool resultSpool,
+                List<String> columnNames,
+                List<Type> types,
+                Function<Page, Page> pagePreprocessor,
+                PagesSerdeFactory serdeFactory)
+        {
+            this.operatorId = operatorId;
+            this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+            this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
+            this.resultSpool = requireNonNull(resultSpool, "resultSpool is null");
+            this.columnNames = ImmutableList.copyOf(requireNonNull(columnNames, "columnNames is null"));
+            this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+            this.pagePreprocessor = requireNonNull(pagePreprocessor, "pagePreprocessor is null");
+            this.serdeFactory = requireNonNull(serdeFactory, "serdeFactory is null");
+            checkArgument(columnNames.size() == types.size(), "columnNames and types size mismatch");
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, SpoolingOutputOperator.class.getSimpleName());
+            return new SpoolingOutputOperator(operatorContext, outputBuffer, resultSpool, columnNames, types, pagePreprocessor, serdeFactory);
+        }
+
+        @Override
+        public void noMoreOperators()
+        {
+        }
+
+        @Override
+        public OperatorFactory duplicate()
+        {
+            return new SpoolingOutputOperatorFactory(operatorId, planNodeId, outputBuffer, resultSpool, columnNames, types, pagePreprocessor, serdeFactory);
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final OutputBuffer outputBuffer;
+    private final ResultSpool resultSpool;
+    private final List<String> columnNames;
+    private final List<Type> types;
+    private final Function<Page, Page> pagePreprocessor;
+    private final PagesSerde serde;
+    private final LocalMemoryContext memoryContext;
+
+    private final List<Page> bufferedPages = new ArrayList<>();
+    private long bufferedBytes;
+
+    private ListenableFuture<URI> spoolFuture;
+    private long spooledRowCount;
+
+    private boolean finishing;
+
+    public SpoolingOutputOperator(
+            OperatorContext operatorContext,
+            OutputBuffer outputBuffer,
+            ResultSpool resultSpool,
+            List<String> columnNames,
+            List<Type> types,
+            Function<Page, Page> pagePreprocessor,
+            PagesSerdeFactory serdeFactory)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
+        this.resultSpool = requireNonNull(resultSpool, "resultSpool is null");
+        this.columnNames = requireNonNull(columnNames, "columnNames is null");
+        this.types = requireNonNull(types, "types is null");
+        this.pagePreprocessor = requireNonNull(pagePreprocessor, "pagePreprocessor is null");
+        this.serde = requireNonNull(serdeFactory, "serdeFactory is null").createPagesSerde();
+        this.memoryContext = operatorContext.newLocalSystemMemoryContext(SpoolingOutputOperator.class.getSimpleName());
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public void finish()
+    {
+        // the driver calls finish until the operator is finished, which completes the last segments
+        finishing = true;
+        updateState();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return finishing && bufferedPages.isEmpty() && spoolFuture == null && isBlocked().isDone();
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (spoolFuture != null && !spoolFuture.isDone()) {
+            return spoolFuture;
+        }
+        ListenableFuture<?> blocked = outputBuffer.isFull();
+        return blocked.isDone() ? NOT_BLOCKED : blocked;
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !finishing && isBlocked().isDone();
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        requireNonNull(page, "page is null");
+        if (page.getPositionCount() == 0) {
+            return;
+        }
+        updateState();
+
+        page = pagePreprocessor.apply(page);
+        bufferedPages.add(page);
+        bufferedBytes += page.getRetainedSizeInBytes();
+        memoryContext.setBytes(bufferedBytes);
+        operatorContext.recordOutput(page.getSizeInBytes(), page.getPositionCount());
+
+        if (bufferedBytes >= resultSpool.getSegmentSize().toBytes()) {
+            flush(false);
+        }
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        return null;
+    }
+
+    @Override
+    public void close()
+    {
+        memoryContext.close();
+        if (spoolFuture != null) {
+            spoolFuture.cancel(true);
+        }
+    }
+
+    /**
+     * Sends the descriptor of the stored segment, and encodes the remaining pages when finishing.
+     * This is only called from {@link #addInput} and {@link #finish}, as encoding is too expensive
+     * for the state methods.
+     */
+    private void updateState()
+    {
+        if (spoolFuture != null && spoolFuture.isDone()) {
+            URI uri = getFutureValue(spoolFuture);
+            spoolFuture = null;
+            enqueueSegment(spooledSegment(uri, spooledRowCount));
+            memoryContext.setBytes(bufferedBytes);
+        }
+        if (finishing && spoolFuture == null && !bufferedPages.isEmpty()) {
+            flush(true);
+        }
+    }
+
+    private void flush(boolean lastSegment)
+    {
+        long rowCount = 0;
+        for (Page page : bufferedPages) {
+            rowCount += page.getPositionCount();
+        }
+        byte[] data = toBinaryData(operatorContext.getSession(), columnNames, types, bufferedPages);
+        bufferedPages.clear();
+        bufferedBytes = 0;
+
+        if (lastSegment && data.length <= resultSpool.getMaxInlineSize().toBytes()) {
+            enqueueSegment(inlineSegment(data, rowCount));
+            memoryContext.setBytes(0);
+            return;
+        }
+
+        memoryContext.setBytes(data.length);
+        spooledRowCount = rowCount;
+        spoolFuture = resultSpool.spool(operatorContext.getDriverContext().getTaskId().getQueryId(), data);
+    }
+
+    private void enqueueSegment(DataSegment segment)
+    {
+        BlockBuilder uriBuilder = VARCHAR.createBlockBuilder(null, 1);
+        BlockBuilder rowCountBuilder = BIGINT.createBlockBuilder(null, 1);
+        BlockBuilder dataBuilder = VARBINARY.createBlockBuilder(null, 1);
+        if (segment.getUri() == null) {
+            uriBuilder.appendNull();
+            VARBINARY.writeSlice(dataBuilder, wrappedBuffer(segment.getData()));
+        }
+        else {
+            VARCHAR.writeSlice(uriBuilder, utf8Slice(segment.getUri().toString()));
+            dataBuilder.appendNull();
+        }
+        BIGINT.writeLong(rowCountBuilder, segment.getRowCount());
+
+        Page page = new Page(uriBuilder.build(), rowCountBuilder.build(), dataBuilder.build());
+        outputBuffer.enqueue(ImmutableList.of(serde.serialize(page)));
+    }
+
+    /**
+     * Reads the segment descriptors sent by this operator.
+     */
+    public static List<DataSegment> getDataSegments(Page page)
+    {
+        checkArgument(page.getChannelCount() == SEGMENT_DESCRIPTOR_TYPES.size(), "page is not a segment descriptor page");
+        ImmutableList.Builder<DataSegment> segments = ImmutableList.builder();
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            long rowCount = BIGINT.getLong(page.getBlock(ROW_COUNT_CHANNEL), position);
+            if (page.getBlock(URI_CHANNEL).isNull(position)) {
+                segments.add(inlineSegment(VARBINARY.getSlice(page.getBlock(DATA_CHANNEL), position).getBytes(), rowCount));
+            }
+            else {
+                segments.add(spooledSegment(URI.create(VARCHAR.getSlice(page.getBlock(URI_CHANNEL), position).toStringUtf8()), rowCount));
+            }
+        }
+        return segments.build();
+    }
+}
@@ -21,6 +21,7 @@ import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.memory.context.MemoryTrackingContext;
 import io.prestosql.metadata.Split;
 import io.prestosql.metadata.TableHandle;
+import io.prestosql.operator.DynamicRowFilter.PageRowFilter;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorPageSource;
@@ -56,6 +57,7 @@ public class TableScanOperator
         private final TableHandle table;
         private final List<ColumnHandle> columns;
         private final DynamicFilter dynamicFilter;
+        private final DynamicRowFilter dynamicRowFilter;
         private boolean closed;
 
         public TableScanOperatorFactory(
@@ -64,7 +66,8 @@ public class TableScanOperator
                 PageSourceProvider pageSourceProvider,
                 TableHandle table,
                 Iterable<ColumnHandle> columns,
-                DynamicFilter dynamicFilter)
+                DynamicFilter dynamicFilter,
+                DynamicRowFilter dynamicRowFilter)
         {
             this.operatorId = operatorId;
             this.sourceId = requireNonNull(sourceId, "sourceId is null");
@@ -72,6 +75,7 @@ public class TableScanOperator
             this.table = requireNonNull(table, "table is null");
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
             this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
+            this.dynamicRowFilter = requireNonNull(dynamicRowFilter, "dynamicRowFilter is null");
         }
 
         @Override
@@ -109,7 +113,8 @@ public class TableScanOperator
                     pageSourceProvider,
                     table,
                     columns,
-                    dynamicFilter);
+                    dynamicFilter,
+                    dynamicRowFilter);
         }
 
         @Override
@@ -126,7 +131,8 @@ public class TableScanOperator
                     pageSourceProvider,
                     table,
                     columns,
-                    dynamicFilter);
+                    dynamicFilter,
+                    dynamicRowFilter);
         }
 
         @Override
@@ -142,6 +148,7 @@ public class TableScanOperator
     private final TableHandle table;
     private final List<ColumnHandle> columns;
     private final DynamicFilter dynamicFilter;
+    private final PageRowFilter dynamicRowFilter;
     private final LocalMemoryContext systemMemoryContext;
     private final SettableFuture<?> blocked = SettableFuture.create();
 
@@ -161,7 +168,8 @@ public class TableScanOperator
             PageSourceProvider pageSourceProvider,
             TableHandle table,
             Iterable<ColumnHandle> columns,
-            DynamicFilter dynamicFilter)
+            DynamicFilter dynamicFilter,
+            DynamicRowFilter dynamicRowFilter)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -169,6 +177,7 @@ public class TableScanOperator
         this.table = requireNonNull(table, "table is null");
         this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
         this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
+        this.dynamicRowFilter = requireNonNull(dynamicRowFilter, "dynamicRowFilter is null").createPageRowFilter(this.columns);
         this.systemMemoryContext = operatorContext.newLocalSystemMemoryContext(TableScanOperator.class.getSimpleName());
     }
 
@@ -310,6 +319,11 @@ public class TableScanOperator
             operatorContext.recordProcessedInput(page.getSizeInBytes(), page.getPositionCount());
             completedBytes = endCompletedBytes;
             readTimeNanos = endReadTimeNanos;
+
+            // drop rows which cannot match the join build side
+            int positionCount = page.getPositionCount();
+            page = dynamicRowFilter.filter(page);
+            operatorContext.recordDynamicFilterRowsFiltered(positionCount - page.getPositionCount());
         }
 
         // updating system memory usage should happen after page is loaded.
@@ -22,6 +22,7 @@ import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.memory.context.MemoryTrackingContext;
 import io.prestosql.metadata.Split;
 import io.prestosql.metadata.TableHandle;
+import io.prestosql.operator.DynamicRowFilter.PageRowFilter;
 import io.prestosql.operator.WorkProcessor.ProcessState;
 import io.prestosql.operator.WorkProcessor.TransformationState;
 import io.prestosql.spi.Page;
@@ -60,7 +61,8 @@ public class TableScanWorkProcessorOperator
             PageSourceProvider pageSourceProvider,
             TableHandle table,
             Iterable<ColumnHandle> columns,
-            DynamicFilter dynamicFilter)
+            DynamicFilter dynamicFilter,
+            DynamicRowFilter dynamicRowFilter)
     {
         this.splitToPages = new SplitToPages(
                 session,
@@ -68,6 +70,7 @@ public class TableScanWorkProcessorOperator
                 table,
                 columns,
                 dynamicFilter,
+                dynamicRowFilter,
                 memoryTrackingContext.aggregateSystemMemoryContext());
         this.pages = splits.flatTransform(splitToPages);
     }
@@ -114,6 +117,12 @@ public class TableScanWorkProcessorOperator
         return splitToPages.getDynamicFilterSplitsProcessed();
     }
 
+    @Override
+    public long getDynamicFilterRowsFiltered()
+    {
+        return splitToPages.getDynamicFilterRowsFiltered();
+    }
+
     @Override
     public Duration getReadTime()
     {
@@ -134,11 +143,13 @@ public class TableScanWorkProcessorOperator
         final TableHandle table;
         final List<ColumnHandle> columns;
         final DynamicFilter dynamicFilter;
+        final PageRowFilter dynamicRowFilter;
         final AggregatedMemoryContext aggregatedMemoryContext;
 
         long processedBytes;
         long processedPositions;
         long dynamicFilterSplitsProcessed;
+        long dynamicFilterRowsFiltered;
 
         @Nullable
         ConnectorPageSource source;
@@ -149,6 +160,7 @@ public class TableScanWorkProcessorOperator
                 TableHandle table,
                 Iterable<ColumnHandle> columns,
                 DynamicFilter dynamicFilter,
+                DynamicRowFilter dynamicRowFilter,
                 AggregatedMemoryContext aggregatedMemoryContext)
         {
             this.session = requireNonNull(session, "session is null");
@@ -156,6 +168,7 @@ public class TableScanWorkProcessorOperator
             this.table = requireNonNull(table, "table is null");
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
             this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
+            this.dynamicRowFilter = requireNonNull(dynamicRowFilter, "dynamicRowFilter is null").createPageRowFilter(this.columns);
             this.aggregatedMemoryContext = requireNonNull(aggregatedMemoryContext, "aggregatedMemoryContext is null");
         }
 
@@ -182,7 +195,10 @@ public class TableScanWorkProcessorOperator
                             .map(page -> {
                                 processedPositions += page.getPositionCount();
                                 recordMaterializedBytes(page, sizeInBytes -> processedBytes += sizeInBytes);
-                                return page;
+                                // drop rows which cannot match the join build side
+                                Page filteredPage = dynamicRowFilter.filter(page);
+                                dynamicFilterRowsFiltered += page.getPositionCount() - filteredPage.getPositionCount();
+                                return filteredPage;
                             }));
         }
 
@@ -225,6 +241,11 @@ public class TableScanWorkProcessorOperator
             return dynamicFilterSplitsProcessed;
         }
 
+        long getDynamicFilterRowsFiltered()
+        {
+            return dynamicFilterRowsFiltered;
+        }
+
         Duration getReadTime()
         {
             if (source == null) {
@@ -27,6 +27,7 @@ import io.prestosql.execution.DynamicFiltersCollector;
 import io.prestosql.execution.DynamicFiltersCollector.VersionedDynamicFilterDomains;
 import io.prestosql.execution.Lifespan;
 import io.prestosql.execution.TaskId;
+import io.prestosql.execution.StateMachine.StateChangeListener;
 import io.prestosql.execution.TaskState;
 import io.prestosql.execution.TaskStateMachine;
 import io.prestosql.execution.buffer.LazyOutputBuffer;
@@ -239,6 +240,11 @@ public class TaskContext
         }
     }
 
+    public void addStateChangeListener(StateChangeListener<TaskState> stateChangeListener)
+    {
+        taskStateMachine.addStateChangeListener(stateChangeListener);
+    }
+
     public void failed(Throwable cause)
     {
         taskStateMachine.failed(cause);
@@ -520,6 +520,49 @@ public class TaskStats
                 ImmutableList.of());
     }
 
+    public TaskStats withPipelines(List<PipelineStats> pipelines)
+    {
+        return new TaskStats(
+                createTime,
+                firstStartTime,
+                lastStartTime,
+                lastEndTime,
+                endTime,
+                elapsedTime,
+                queuedTime,
+                totalDrivers,
+                queuedDrivers,
+                queuedPartitionedDrivers,
+                runningDrivers,
+                runningPartitionedDrivers,
+                blockedDrivers,
+                completedDrivers,
+                cumulativeUserMemory,
+                userMemoryReservation,
+                revocableMemoryReservation,
+                systemMemoryReservation,
+                totalScheduledTime,
+                totalCpuTime,
+                totalBlockedTime,
+                fullyBlocked,
+                blockedReasons,
+                physicalInputDataSize,
+                physicalInputPositions,
+                physicalInputReadTime,
+                internalNetworkInputDataSize,
+                internalNetworkInputPositions,
+                rawInputDataSize,
+                rawInputPositions,
+                processedInputDataSize,
+                processedInputPositions,
+                outputDataSize,
+                outputPositions,
+                physicalWrittenDataSize,
+                fullGcCount,
+                fullGcTime,
+                pipelines);
+    }
+
     public TaskStats summarizeFinal()
     {
         return new TaskStats(
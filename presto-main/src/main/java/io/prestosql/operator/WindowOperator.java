@@ -701,9 +701,7 @@ public class WindowOperator
             }
 
             List<WorkProcessor<Page>> sortedStreams = ImmutableList.<WorkProcessor<Page>>builder()
-                    .addAll(spiller.get().getSpills().stream()
-                            .map(WorkProcessor::fromIterator)
-                            .collect(toImmutableList()))
+                    .addAll(spiller.get().readAheadSpills())
                     .add(WorkProcessor.fromIterator(inMemoryPagesIndexWithHashStrategies.pagesIndex.getSortedPages()))
                     .build();
 
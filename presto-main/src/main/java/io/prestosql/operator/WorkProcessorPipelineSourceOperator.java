@@ -202,11 +202,13 @@ public class WorkProcessorPipelineSourceOperator
             long deltaReadTimeNanos = deltaAndSet(context.readTimeNanos, sourceOperator.getReadTime().roundTo(NANOSECONDS));
 
             long deltaDynamicFilterSplitsProcessed = deltaAndSet(context.dynamicFilterSplitsProcessed, sourceOperator.getDynamicFilterSplitsProcessed());
+            long deltaDynamicFilterRowsFiltered = deltaAndSet(context.dynamicFilterRowsFiltered, sourceOperator.getDynamicFilterRowsFiltered());
 
             operatorContext.recordPhysicalInputWithTiming(deltaPhysicalInputDataSize, deltaPhysicalInputPositions, deltaReadTimeNanos);
             operatorContext.recordNetworkInput(deltaInternalNetworkInputDataSize, deltaInternalNetworkInputPositions);
             operatorContext.recordProcessedInput(deltaInputDataSize, deltaInputPositions);
             operatorContext.recordDynamicFilterSplitProcessed(deltaDynamicFilterSplitsProcessed);
+            operatorContext.recordDynamicFilterRowsFiltered(deltaDynamicFilterRowsFiltered);
         }
 
         if (state.getType() == FINISHED) {
@@ -307,6 +309,9 @@ public class WorkProcessorPipelineSourceOperator
                         context.outputPositions.get(),
 
                         context.dynamicFilterSplitsProcessed.get(),
+                        context.dynamicFilterRowsFiltered.get(),
+
+                        0,
 
                         DataSize.ofBytes(0),
 
@@ -646,6 +651,7 @@ public class WorkProcessorPipelineSourceOperator
         final AtomicLong outputPositions = new AtomicLong();
 
         final AtomicLong dynamicFilterSplitsProcessed = new AtomicLong();
+        final AtomicLong dynamicFilterRowsFiltered = new AtomicLong();
 
         final AtomicLong peakUserMemoryReservation = new AtomicLong();
         final AtomicLong peakSystemMemoryReservation = new AtomicLong();
@@ -67,4 +67,9 @@ public interface WorkProcessorSourceOperator
     {
         return 0;
     }
+
+    default long getDynamicFilterRowsFiltered()
+    {
+        return 0;
+    }
 }
@@ -52,6 +52,7 @@ public class WorkProcessorSourceOperatorAdapter
     private long previousInputPositions;
     private long previousReadTimeNanos;
     private long previousDynamicFilterSplitsProcessed;
+    private long previousDynamicFilterRowsFiltered;
 
     public interface AdapterWorkProcessorSourceOperatorFactory
             extends WorkProcessorSourceOperatorFactory
@@ -190,6 +191,7 @@ public class WorkProcessorSourceOperatorAdapter
         long currentInputPositions = sourceOperator.getInputPositions();
 
         long currentDynamicFilterSplitsProcessed = sourceOperator.getDynamicFilterSplitsProcessed();
+        long currentDynamicFilterRowsFiltered = sourceOperator.getDynamicFilterRowsFiltered();
 
         if (currentPhysicalInputBytes != previousPhysicalInputBytes
                 || currentPhysicalInputPositions != previousPhysicalInputPositions
@@ -228,6 +230,11 @@ public class WorkProcessorSourceOperatorAdapter
             operatorContext.recordDynamicFilterSplitProcessed(currentDynamicFilterSplitsProcessed - previousDynamicFilterSplitsProcessed);
             previousDynamicFilterSplitsProcessed = currentDynamicFilterSplitsProcessed;
         }
+
+        if (currentDynamicFilterRowsFiltered != previousDynamicFilterRowsFiltered) {
+            operatorContext.recordDynamicFilterRowsFiltered(currentDynamicFilterRowsFiltered - previousDynamicFilterRowsFiltered);
+            previousDynamicFilterRowsFiltered = currentDynamicFilterRowsFiltered;
+        }
     }
 
     private static class SplitBuffer
@@ -38,6 +38,7 @@ import io.prestosql.spi.function.AccumulatorStateSerializer;
 import io.prestosql.spi.function.InvocationConvention;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeSignature;
+import io.prestosql.sql.gen.GeneratedClassCache;
 
 import java.lang.invoke.MethodHandle;
 import java.util.List;
@@ -144,10 +145,10 @@ public abstract class AbstractMinMaxAggregationFunction
         }
         MethodHandle compareMethodHandle = functionDependencies.getOperatorInvoker(COMPARISON, ImmutableList.of(type, type), Optional.of(invocationConvention)).getMethodHandle();
         compareMethodHandle = filterReturnValue(compareMethodHandle, comparisonResultAdapter);
-        return generateAggregation(type, compareMethodHandle);
+        return generateAggregation(type, compareMethodHandle, functionDependencies.getGeneratedClassCache());
     }
 
-    protected InternalAggregationFunction generateAggregation(Type type, MethodHandle compareMethodHandle)
+    protected InternalAggregationFunction generateAggregation(Type type, MethodHandle compareMethodHandle, GeneratedClassCache generatedClassCache)
     {
         DynamicClassLoader classLoader = new DynamicClassLoader(AbstractMinMaxAggregationFunction.class.getClassLoader());
 
@@ -206,7 +207,7 @@ public abstract class AbstractMinMaxAggregationFunction
                         stateFactory)),
                 type);
 
-        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader);
+        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader, generatedClassCache);
         return new InternalAggregationFunction(name, inputTypes, ImmutableList.of(intermediateType), type, factory);
     }
 
@@ -39,17 +39,23 @@ import io.prestosql.spi.function.AccumulatorStateSerializer;
 import io.prestosql.spi.function.WindowIndex;
 import io.prestosql.spi.type.RowType;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeId;
 import io.prestosql.sql.gen.Binding;
+import io.prestosql.sql.gen.BindingSource;
 import io.prestosql.sql.gen.CallSiteBinder;
 import io.prestosql.sql.gen.CompilerOperations;
+import io.prestosql.sql.gen.GeneratedClassCache;
 
 import java.lang.invoke.MethodHandle;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
@@ -72,26 +78,37 @@ import static io.prestosql.operator.aggregation.AggregationMetadata.countInputCh
 import static io.prestosql.sql.gen.Bootstrap.BOOTSTRAP_METHOD;
 import static io.prestosql.sql.gen.BytecodeUtils.invoke;
 import static io.prestosql.sql.gen.SqlTypeBytecodeExpression.constantType;
-import static io.prestosql.util.CompilerUtils.defineClass;
 import static io.prestosql.util.CompilerUtils.makeClassName;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
 public final class AccumulatorCompiler
 {
+    private static final String INPUT_FUNCTION = "aggregation:input";
+    private static final String REMOVE_INPUT_FUNCTION = "aggregation:removeInput";
+    private static final String COMBINE_FUNCTION = "aggregation:combine";
+    private static final String OUTPUT_FUNCTION = "aggregation:output";
+
     private AccumulatorCompiler() {}
 
     public static GenericAccumulatorFactoryBinder generateAccumulatorFactoryBinder(AggregationMetadata metadata, DynamicClassLoader classLoader)
+    {
+        return generateAccumulatorFactoryBinder(metadata, classLoader, GeneratedClassCache.noCache());
+    }
+
+    public static GenericAccumulatorFactoryBinder generateAccumulatorFactoryBinder(AggregationMetadata metadata, DynamicClassLoader classLoader, GeneratedClassCache generatedClassCache)
     {
         Class<? extends Accumulator> accumulatorClass = generateAccumulatorClass(
                 Accumulator.class,
                 metadata,
-                classLoader);
+                classLoader,
+                generatedClassCache);
 
         Class<? extends GroupedAccumulator> groupedAccumulatorClass = generateAccumulatorClass(
                 GroupedAccumulator.class,
                 metadata,
-                classLoader);
+                classLoader,
+                generatedClassCache);
 
         return new GenericAccumulatorFactoryBinder(
                 metadata.getAccumulatorStateDescriptors(),
@@ -103,7 +120,89 @@ public final class AccumulatorCompiler
     private static <T> Class<? extends T> generateAccumulatorClass(
             Class<T> accumulatorInterface,
             AggregationMetadata metadata,
-            DynamicClassLoader classLoader)
+            DynamicClassLoader classLoader,
+            GeneratedClassCache generatedClassCache)
+    {
+        return generatedClassCache.defineCachedClass(
+                Optional.of(fingerprint(metadata)),
+                accumulatorInterface,
+                classLoader,
+                BindingSource.resolver(typeLoader(metadata), source -> resolveAggregationFunction(source, metadata)),
+                callSiteBinder -> defineAccumulatorClass(accumulatorInterface, metadata, callSiteBinder));
+    }
+
+    private static String fingerprint(AggregationMetadata metadata)
+    {
+        // the generated class references the state classes by name, so these must be stable across processes
+        StringBuilder fingerprint = new StringBuilder(metadata.getName())
+                .append("|input:").append(metadata.getInputFunction().type().toMethodDescriptorString())
+                .append("|removeInput:").append(metadata.getRemoveInputFunction().map(function -> function.type().toMethodDescriptorString()).orElse(""))
+                .append("|combine:").append(metadata.getCombineFunction().type().toMethodDescriptorString())
+                .append("|output:").append(metadata.getOutputFunction().type().toMethodDescriptorString())
+                .append("|outputType:").append(metadata.getOutputType().getTypeId().getId());
+        for (ParameterMetadata parameter : metadata.getValueInputMetadata()) {
+            fingerprint.append("|parameter:").append(parameter.getParameterType());
+            if (parameter.getSqlType() != null) {
+                fingerprint.append(':').append(parameter.getSqlType().getTypeId().getId());
+            }
+        }
+        for (Class<?> lambdaInterface : metadata.getLambdaInterfaces()) {
+            fingerprint.append("|lambda:").append(lambdaInterface.getName());
+        }
+        for (AccumulatorStateDescriptor stateDescriptor : metadata.getAccumulatorStateDescriptors()) {
+            fingerprint.append("|state:").append(stateDescriptor.getStateInterface().getName())
+                    .append(':').append(stateDescriptor.getFactory().getSingleStateClass().getName())
+                    .append(':').append(stateDescriptor.getFactory().getGroupedStateClass().getName())
+                    .append(':').append(stateDescriptor.getSerializer().getSerializedType().getTypeId().getId());
+        }
+        return fingerprint.toString();
+    }
+
+    private static Function<TypeId, Type> typeLoader(AggregationMetadata metadata)
+    {
+        List<Type> serializedTypes = metadata.getAccumulatorStateDescriptors().stream()
+                .map(stateDescriptor -> stateDescriptor.getSerializer().getSerializedType())
+                .collect(toImmutableList());
+
+        Map<TypeId, Type> typesById = new HashMap<>();
+        typesById.put(metadata.getOutputType().getTypeId(), metadata.getOutputType());
+        serializedTypes.forEach(type -> typesById.putIfAbsent(type.getTypeId(), type));
+        if (serializedTypes.size() > 1) {
+            Type intermediateType = RowType.anonymous(serializedTypes);
+            typesById.putIfAbsent(intermediateType.getTypeId(), intermediateType);
+        }
+        metadata.getValueInputMetadata().stream()
+                .map(ParameterMetadata::getSqlType)
+                .filter(Objects::nonNull)
+                .forEach(type -> typesById.putIfAbsent(type.getTypeId(), type));
+        return typeId -> {
+            Type type = typesById.get(typeId);
+            checkArgument(type != null, "Unknown type: %s", typeId);
+            return type;
+        };
+    }
+
+    private static MethodHandle resolveAggregationFunction(String source, AggregationMetadata metadata)
+    {
+        switch (source) {
+            case INPUT_FUNCTION:
+                return metadata.getInputFunction();
+            case REMOVE_INPUT_FUNCTION:
+                return metadata.getRemoveInputFunction()
+                        .orElseThrow(() -> new IllegalArgumentException("Aggregation has no remove input function: " + metadata.getName()));
+            case COMBINE_FUNCTION:
+                return metadata.getCombineFunction();
+            case OUTPUT_FUNCTION:
+                return metadata.getOutputFunction();
+            default:
+                throw new IllegalArgumentException("Unknown binding source: " + source);
+        }
+    }
+
+    private static <T> ClassDefinition defineAccumulatorClass(
+            Class<T> accumulatorInterface,
+            AggregationMetadata metadata,
+            CallSiteBinder callSiteBinder)
     {
         boolean grouped = accumulatorInterface == GroupedAccumulator.class;
 
@@ -113,7 +212,10 @@ public final class AccumulatorCompiler
                 type(Object.class),
                 type(accumulatorInterface));
 
-        CallSiteBinder callSiteBinder = new CallSiteBinder();
+        callSiteBinder.setSource(metadata.getInputFunction(), INPUT_FUNCTION);
+        metadata.getRemoveInputFunction().ifPresent(removeInputFunction -> callSiteBinder.setSource(removeInputFunction, REMOVE_INPUT_FUNCTION));
+        callSiteBinder.setSource(metadata.getCombineFunction(), COMBINE_FUNCTION);
+        callSiteBinder.setSource(metadata.getOutputFunction(), OUTPUT_FUNCTION);
 
         List<AccumulatorStateDescriptor> stateDescriptors = metadata.getAccumulatorStateDescriptors();
         List<StateFieldAndDescriptor> stateFieldAndDescriptors = new ArrayList<>();
@@ -214,7 +316,7 @@ public final class AccumulatorCompiler
         if (grouped) {
             generatePrepareFinal(definition);
         }
-        return defineClass(definition, accumulatorInterface, callSiteBinder.getBindings(), classLoader);
+        return definition;
     }
 
     private static void generateGetIntermediateType(ClassDefinition definition, CallSiteBinder callSiteBinder, List<Type> type)
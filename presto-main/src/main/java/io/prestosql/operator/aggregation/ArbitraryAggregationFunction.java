@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import io.airlift.bytecode.DynamicClassLoader;
 import io.prestosql.metadata.FunctionArgumentDefinition;
 import io.prestosql.metadata.FunctionBinding;
+import io.prestosql.metadata.FunctionDependencies;
 import io.prestosql.metadata.FunctionMetadata;
 import io.prestosql.metadata.Signature;
 import io.prestosql.metadata.SqlAggregationFunction;
@@ -33,6 +34,7 @@ import io.prestosql.spi.function.AccumulatorState;
 import io.prestosql.spi.function.AccumulatorStateSerializer;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeSignature;
+import io.prestosql.sql.gen.GeneratedClassCache;
 
 import java.lang.invoke.MethodHandle;
 import java.util.List;
@@ -108,13 +110,13 @@ public class ArbitraryAggregationFunction
     }
 
     @Override
-    public InternalAggregationFunction specialize(FunctionBinding functionBinding)
+    public InternalAggregationFunction specialize(FunctionBinding functionBinding, FunctionDependencies functionDependencies)
     {
         Type valueType = functionBinding.getTypeVariable("T");
-        return generateAggregation(valueType);
+        return generateAggregation(valueType, functionDependencies.getGeneratedClassCache());
     }
 
-    private static InternalAggregationFunction generateAggregation(Type type)
+    private static InternalAggregationFunction generateAggregation(Type type, GeneratedClassCache generatedClassCache)
     {
         DynamicClassLoader classLoader = new DynamicClassLoader(ArbitraryAggregationFunction.class.getClassLoader());
 
@@ -172,7 +174,7 @@ public class ArbitraryAggregationFunction
                         StateCompiler.generateStateFactory(stateInterface, classLoader))),
                 type);
 
-        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader);
+        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader, generatedClassCache);
         return new InternalAggregationFunction(NAME, inputTypes, ImmutableList.of(intermediateType), type, factory);
     }
 
@@ -18,6 +18,7 @@ import com.google.common.collect.ImmutableList;
 import io.airlift.bytecode.DynamicClassLoader;
 import io.prestosql.metadata.FunctionArgumentDefinition;
 import io.prestosql.metadata.FunctionBinding;
+import io.prestosql.metadata.FunctionDependencies;
 import io.prestosql.metadata.FunctionMetadata;
 import io.prestosql.metadata.Signature;
 import io.prestosql.metadata.SqlAggregationFunction;
@@ -29,6 +30,7 @@ import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.function.AccumulatorStateSerializer;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeSignature;
+import io.prestosql.sql.gen.GeneratedClassCache;
 import io.prestosql.type.BlockTypeOperators;
 import io.prestosql.type.BlockTypeOperators.BlockPositionXxHash64;
 
@@ -89,14 +91,14 @@ public class ChecksumAggregationFunction
     }
 
     @Override
-    public InternalAggregationFunction specialize(FunctionBinding functionBinding)
+    public InternalAggregationFunction specialize(FunctionBinding functionBinding, FunctionDependencies functionDependencies)
     {
         Type valueType = functionBinding.getTypeVariable("T");
         BlockPositionXxHash64 xxHash64Operator = blockTypeOperators.getXxHash64Operator(valueType);
-        return generateAggregation(valueType, xxHash64Operator);
+        return generateAggregation(valueType, xxHash64Operator, functionDependencies.getGeneratedClassCache());
     }
 
-    private static InternalAggregationFunction generateAggregation(Type type, BlockPositionXxHash64 xxHash64Operator)
+    private static InternalAggregationFunction generateAggregation(Type type, BlockPositionXxHash64 xxHash64Operator, GeneratedClassCache generatedClassCache)
     {
         DynamicClassLoader classLoader = new DynamicClassLoader(ChecksumAggregationFunction.class.getClassLoader());
 
@@ -114,7 +116,7 @@ public class ChecksumAggregationFunction
                         StateCompiler.generateStateFactory(NullableLongState.class, classLoader))),
                 VARBINARY);
 
-        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader);
+        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader, generatedClassCache);
         return new InternalAggregationFunction(NAME, ImmutableList.of(type), ImmutableList.of(stateSerializer.getSerializedType()), VARBINARY, factory);
     }
 
@@ -19,6 +19,7 @@ import io.airlift.bytecode.DynamicClassLoader;
 import io.airlift.slice.Slice;
 import io.prestosql.metadata.FunctionArgumentDefinition;
 import io.prestosql.metadata.FunctionBinding;
+import io.prestosql.metadata.FunctionDependencies;
 import io.prestosql.metadata.FunctionMetadata;
 import io.prestosql.metadata.Signature;
 import io.prestosql.metadata.SqlAggregationFunction;
@@ -35,6 +36,7 @@ import io.prestosql.spi.type.Decimals;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeSignature;
 import io.prestosql.spi.type.UnscaledDecimal128Arithmetic;
+import io.prestosql.sql.gen.GeneratedClassCache;
 
 import java.lang.invoke.MethodHandle;
 import java.math.BigDecimal;
@@ -99,13 +101,13 @@ public class DecimalAverageAggregation
     }
 
     @Override
-    public InternalAggregationFunction specialize(FunctionBinding functionBinding)
+    public InternalAggregationFunction specialize(FunctionBinding functionBinding, FunctionDependencies functionDependencies)
     {
         Type type = getOnlyElement(functionBinding.getBoundSignature().getArgumentTypes());
-        return generateAggregation(type);
+        return generateAggregation(type, functionDependencies.getGeneratedClassCache());
     }
 
-    private static InternalAggregationFunction generateAggregation(Type type)
+    private static InternalAggregationFunction generateAggregation(Type type, GeneratedClassCache generatedClassCache)
     {
         checkArgument(type instanceof DecimalType, "type must be Decimal");
         DynamicClassLoader classLoader = new DynamicClassLoader(DecimalAverageAggregation.class.getClassLoader());
@@ -140,7 +142,7 @@ public class DecimalAverageAggregation
                 type);
 
         Type intermediateType = stateSerializer.getSerializedType();
-        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader);
+        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader, generatedClassCache);
         return new InternalAggregationFunction(NAME, inputTypes, ImmutableList.of(intermediateType), type, factory);
     }
 
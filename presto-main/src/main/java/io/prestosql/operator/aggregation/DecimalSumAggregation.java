@@ -18,6 +18,7 @@ import io.airlift.bytecode.DynamicClassLoader;
 import io.airlift.slice.Slice;
 import io.prestosql.metadata.FunctionArgumentDefinition;
 import io.prestosql.metadata.FunctionBinding;
+import io.prestosql.metadata.FunctionDependencies;
 import io.prestosql.metadata.FunctionMetadata;
 import io.prestosql.metadata.Signature;
 import io.prestosql.metadata.SqlAggregationFunction;
@@ -34,6 +35,7 @@ import io.prestosql.spi.type.DecimalType;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeSignature;
 import io.prestosql.spi.type.UnscaledDecimal128Arithmetic;
+import io.prestosql.sql.gen.GeneratedClassCache;
 
 import java.lang.invoke.MethodHandle;
 import java.util.List;
@@ -92,14 +94,14 @@ public class DecimalSumAggregation
     }
 
     @Override
-    public InternalAggregationFunction specialize(FunctionBinding functionBinding)
+    public InternalAggregationFunction specialize(FunctionBinding functionBinding, FunctionDependencies functionDependencies)
     {
         Type inputType = getOnlyElement(functionBinding.getBoundSignature().getArgumentTypes());
         Type outputType = functionBinding.getBoundSignature().getReturnType();
-        return generateAggregation(inputType, outputType);
+        return generateAggregation(inputType, outputType, functionDependencies.getGeneratedClassCache());
     }
 
-    private static InternalAggregationFunction generateAggregation(Type inputType, Type outputType)
+    private static InternalAggregationFunction generateAggregation(Type inputType, Type outputType, GeneratedClassCache generatedClassCache)
     {
         checkArgument(inputType instanceof DecimalType, "type must be Decimal");
         DynamicClassLoader classLoader = new DynamicClassLoader(DecimalSumAggregation.class.getClassLoader());
@@ -129,7 +131,7 @@ public class DecimalSumAggregation
                 outputType);
 
         Type intermediateType = stateSerializer.getSerializedType();
-        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader);
+        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader, generatedClassCache);
         return new InternalAggregationFunction(NAME, inputTypes, ImmutableList.of(intermediateType), outputType, factory);
     }
 
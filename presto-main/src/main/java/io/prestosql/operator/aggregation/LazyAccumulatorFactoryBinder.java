@@ -20,6 +20,7 @@ import io.prestosql.Session;
 import io.prestosql.operator.PagesIndex;
 import io.prestosql.spi.connector.SortOrder;
 import io.prestosql.spi.type.Type;
+import io.prestosql.sql.gen.GeneratedClassCache;
 import io.prestosql.sql.gen.JoinCompiler;
 import io.prestosql.type.BlockTypeOperators;
 
@@ -32,9 +33,9 @@ public class LazyAccumulatorFactoryBinder
 {
     private final Supplier<AccumulatorFactoryBinder> binder;
 
-    public LazyAccumulatorFactoryBinder(AggregationMetadata metadata, DynamicClassLoader classLoader)
+    public LazyAccumulatorFactoryBinder(AggregationMetadata metadata, DynamicClassLoader classLoader, GeneratedClassCache generatedClassCache)
     {
-        binder = Suppliers.memoize(() -> AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader));
+        binder = Suppliers.memoize(() -> AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader, generatedClassCache));
     }
 
     @VisibleForTesting
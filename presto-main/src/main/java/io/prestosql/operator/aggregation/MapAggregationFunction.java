@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import io.airlift.bytecode.DynamicClassLoader;
 import io.prestosql.metadata.FunctionArgumentDefinition;
 import io.prestosql.metadata.FunctionBinding;
+import io.prestosql.metadata.FunctionDependencies;
 import io.prestosql.metadata.FunctionMetadata;
 import io.prestosql.metadata.Signature;
 import io.prestosql.metadata.SqlAggregationFunction;
@@ -29,6 +30,7 @@ import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.MapType;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeSignature;
+import io.prestosql.sql.gen.GeneratedClassCache;
 import io.prestosql.type.BlockTypeOperators;
 import io.prestosql.type.BlockTypeOperators.BlockPositionEqual;
 import io.prestosql.type.BlockTypeOperators.BlockPositionHashCode;
@@ -104,7 +106,7 @@ public class MapAggregationFunction
     }
 
     @Override
-    public InternalAggregationFunction specialize(FunctionBinding functionBinding)
+    public InternalAggregationFunction specialize(FunctionBinding functionBinding, FunctionDependencies functionDependencies)
     {
         Type keyType = functionBinding.getTypeVariable("K");
         BlockPositionEqual keyEqual = blockTypeOperators.getEqualOperator(keyType);
@@ -112,10 +114,10 @@ public class MapAggregationFunction
 
         Type valueType = functionBinding.getTypeVariable("V");
         MapType outputType = (MapType) functionBinding.getBoundSignature().getReturnType();
-        return generateAggregation(keyType, keyEqual, keyHashCode, valueType, outputType);
+        return generateAggregation(keyType, keyEqual, keyHashCode, valueType, outputType, functionDependencies.getGeneratedClassCache());
     }
 
-    private static InternalAggregationFunction generateAggregation(Type keyType, BlockPositionEqual keyEqual, BlockPositionHashCode keyHashCode, Type valueType, MapType outputType)
+    private static InternalAggregationFunction generateAggregation(Type keyType, BlockPositionEqual keyEqual, BlockPositionHashCode keyHashCode, Type valueType, MapType outputType, GeneratedClassCache generatedClassCache)
     {
         DynamicClassLoader classLoader = new DynamicClassLoader(MapAggregationFunction.class.getClassLoader());
         List<Type> inputTypes = ImmutableList.of(keyType, valueType);
@@ -135,7 +137,7 @@ public class MapAggregationFunction
                         new KeyValuePairsStateFactory(keyType, valueType))),
                 outputType);
 
-        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader);
+        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader, generatedClassCache);
         return new InternalAggregationFunction(NAME, inputTypes, ImmutableList.of(intermediateType), outputType, factory);
     }
 
@@ -18,6 +18,7 @@ import io.airlift.bytecode.DynamicClassLoader;
 import io.airlift.stats.QuantileDigest;
 import io.prestosql.metadata.FunctionArgumentDefinition;
 import io.prestosql.metadata.FunctionBinding;
+import io.prestosql.metadata.FunctionDependencies;
 import io.prestosql.metadata.FunctionMetadata;
 import io.prestosql.metadata.Signature;
 import io.prestosql.metadata.SqlAggregationFunction;
@@ -32,6 +33,7 @@ import io.prestosql.spi.function.InputFunction;
 import io.prestosql.spi.type.QuantileDigestType;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeSignature;
+import io.prestosql.sql.gen.GeneratedClassCache;
 
 import java.lang.invoke.MethodHandle;
 import java.util.List;
@@ -90,14 +92,14 @@ public final class MergeQuantileDigestFunction
     }
 
     @Override
-    public InternalAggregationFunction specialize(FunctionBinding functionBinding)
+    public InternalAggregationFunction specialize(FunctionBinding functionBinding, FunctionDependencies functionDependencies)
     {
         Type valueType = functionBinding.getTypeVariable("T");
         QuantileDigestType outputType = (QuantileDigestType) functionBinding.getBoundSignature().getReturnType();
-        return generateAggregation(valueType, outputType);
+        return generateAggregation(valueType, outputType, functionDependencies.getGeneratedClassCache());
     }
 
-    private static InternalAggregationFunction generateAggregation(Type valueType, QuantileDigestType type)
+    private static InternalAggregationFunction generateAggregation(Type valueType, QuantileDigestType type, GeneratedClassCache generatedClassCache)
     {
         DynamicClassLoader classLoader = new DynamicClassLoader(MapAggregationFunction.class.getClassLoader());
         QuantileDigestStateSerializer stateSerializer = new QuantileDigestStateSerializer(valueType);
@@ -116,7 +118,7 @@ public final class MergeQuantileDigestFunction
                         new QuantileDigestStateFactory())),
                 type);
 
-        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader);
+        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader, generatedClassCache);
         return new InternalAggregationFunction(NAME, ImmutableList.of(type), ImmutableList.of(intermediateType), type, factory);
     }
 
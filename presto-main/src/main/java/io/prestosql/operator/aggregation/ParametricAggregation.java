@@ -172,7 +172,7 @@ public class ParametricAggregation
                 inputTypes,
                 ImmutableList.of(stateSerializer.getSerializedType()),
                 outputType,
-                new LazyAccumulatorFactoryBinder(aggregationMetadata, classLoader));
+                new LazyAccumulatorFactoryBinder(aggregationMetadata, classLoader, functionDependencies.getGeneratedClassCache()));
     }
 
     @VisibleForTesting
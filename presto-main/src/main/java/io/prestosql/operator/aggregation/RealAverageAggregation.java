@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import io.airlift.bytecode.DynamicClassLoader;
 import io.prestosql.metadata.FunctionArgumentDefinition;
 import io.prestosql.metadata.FunctionBinding;
+import io.prestosql.metadata.FunctionDependencies;
 import io.prestosql.metadata.FunctionMetadata;
 import io.prestosql.metadata.Signature;
 import io.prestosql.metadata.SqlAggregationFunction;
@@ -87,7 +88,7 @@ public class RealAverageAggregation
     }
 
     @Override
-    public InternalAggregationFunction specialize(FunctionBinding functionBinding)
+    public InternalAggregationFunction specialize(FunctionBinding functionBinding, FunctionDependencies functionDependencies)
     {
         DynamicClassLoader classLoader = new DynamicClassLoader(AverageAggregations.class.getClassLoader());
         Class<? extends AccumulatorState> longStateInterface = LongState.class;
@@ -113,7 +114,7 @@ public class RealAverageAggregation
                                 StateCompiler.generateStateFactory(doubleStateInterface, classLoader))),
                 REAL);
 
-        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(aggregationMetadata, classLoader);
+        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(aggregationMetadata, classLoader, functionDependencies.getGeneratedClassCache());
         return new InternalAggregationFunction(
                 NAME,
                 ImmutableList.of(REAL),
@@ -38,7 +38,6 @@ import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
-import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.prestosql.operator.Operator.NOT_BLOCKED;
@@ -276,9 +275,7 @@ public class SpillableHashAggregationBuilder
                 groupByTypes,
                 hashAggregationBuilder.buildIntermediateTypes(),
                 ImmutableList.<WorkProcessor<Page>>builder()
-                        .addAll(spiller.get().getSpills().stream()
-                                .map(WorkProcessor::fromIterator)
-                                .collect(toImmutableList()))
+                        .addAll(spiller.get().readAheadSpills())
                         .add(hashAggregationBuilder.buildHashSortedResult())
                         .build(),
                 operatorContext.getDriverContext().getYieldSignal());
@@ -295,9 +292,7 @@ public class SpillableHashAggregationBuilder
         WorkProcessor<Page> mergedSpilledPages = mergeHashSort.get().merge(
                 groupByTypes,
                 hashAggregationBuilder.buildIntermediateTypes(),
-                spiller.get().getSpills().stream()
-                        .map(WorkProcessor::fromIterator)
-                        .collect(toImmutableList()),
+                spiller.get().readAheadSpills(),
                 operatorContext.getDriverContext().getYieldSignal());
 
         return mergeSortedPages(mergedSpilledPages, memoryLimitForMerge);
@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import io.airlift.bytecode.DynamicClassLoader;
 import io.prestosql.metadata.FunctionArgumentDefinition;
 import io.prestosql.metadata.FunctionBinding;
+import io.prestosql.metadata.FunctionDependencies;
 import io.prestosql.metadata.FunctionMetadata;
 import io.prestosql.metadata.Signature;
 import io.prestosql.metadata.SqlAggregationFunction;
@@ -29,6 +30,7 @@ import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeSignature;
+import io.prestosql.sql.gen.GeneratedClassCache;
 import io.prestosql.type.BlockTypeOperators;
 import io.prestosql.type.BlockTypeOperators.BlockPositionEqual;
 import io.prestosql.type.BlockTypeOperators.BlockPositionHashCode;
@@ -93,13 +95,13 @@ public class Histogram
     }
 
     @Override
-    public InternalAggregationFunction specialize(FunctionBinding functionBinding)
+    public InternalAggregationFunction specialize(FunctionBinding functionBinding, FunctionDependencies functionDependencies)
     {
         Type keyType = functionBinding.getTypeVariable("K");
         BlockPositionEqual keyEqual = blockTypeOperators.getEqualOperator(keyType);
         BlockPositionHashCode keyHashCode = blockTypeOperators.getHashCodeOperator(keyType);
         Type outputType = functionBinding.getBoundSignature().getReturnType();
-        return generateAggregation(NAME, keyType, keyEqual, keyHashCode, outputType, groupMode);
+        return generateAggregation(NAME, keyType, keyEqual, keyHashCode, outputType, groupMode, functionDependencies.getGeneratedClassCache());
     }
 
     private static InternalAggregationFunction generateAggregation(
@@ -108,7 +110,8 @@ public class Histogram
             BlockPositionEqual keyEqual,
             BlockPositionHashCode keyHashCode,
             Type outputType,
-            HistogramGroupImplementation groupMode)
+            HistogramGroupImplementation groupMode,
+            GeneratedClassCache generatedClassCache)
     {
         DynamicClassLoader classLoader = new DynamicClassLoader(Histogram.class.getClassLoader());
         List<Type> inputTypes = ImmutableList.of(keyType);
@@ -130,7 +133,7 @@ public class Histogram
                         new HistogramStateFactory(keyType, keyEqual, keyHashCode, EXPECTED_SIZE_FOR_HASHING, groupMode))),
                 outputType);
 
-        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader);
+        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(metadata, classLoader, generatedClassCache);
         return new InternalAggregationFunction(functionName, inputTypes, ImmutableList.of(intermediateType), outputType, factory);
     }
 
@@ -210,7 +210,7 @@ public abstract class AbstractMinMaxBy
                         stateSerializer,
                         stateFactory)),
                 valueType);
-        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(aggregationMetadata, classLoader);
+        GenericAccumulatorFactoryBinder factory = AccumulatorCompiler.generateAccumulatorFactoryBinder(aggregationMetadata, classLoader, functionDependencies.getGeneratedClassCache());
         return new InternalAggregationFunction(name, inputTypes, ImmutableList.of(intermediateType), valueType, factory);
     }
 
@@ -17,12 +17,14 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Ordering;
+import com.google.common.hash.Hashing;
 import io.airlift.bytecode.BytecodeBlock;
 import io.airlift.bytecode.ClassDefinition;
 import io.airlift.bytecode.DynamicClassLoader;
 import io.airlift.bytecode.FieldDefinition;
 import io.airlift.bytecode.MethodDefinition;
 import io.airlift.bytecode.Parameter;
+import io.airlift.bytecode.ParameterizedType;
 import io.airlift.bytecode.Scope;
 import io.airlift.bytecode.Variable;
 import io.airlift.bytecode.control.IfStatement;
@@ -59,6 +61,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 
 import static com.google.common.base.CaseFormat.LOWER_CAMEL;
 import static com.google.common.base.CaseFormat.UPPER_CAMEL;
@@ -72,6 +75,7 @@ import static io.airlift.bytecode.Access.STATIC;
 import static io.airlift.bytecode.Access.a;
 import static io.airlift.bytecode.Parameter.arg;
 import static io.airlift.bytecode.ParameterizedType.type;
+import static io.airlift.bytecode.ParameterizedType.typeFromJavaClassName;
 import static io.airlift.bytecode.expression.BytecodeExpressions.add;
 import static io.airlift.bytecode.expression.BytecodeExpressions.constantBoolean;
 import static io.airlift.bytecode.expression.BytecodeExpressions.constantClass;
@@ -92,6 +96,7 @@ import static io.prestosql.sql.gen.SqlTypeBytecodeExpression.constantType;
 import static io.prestosql.type.UnknownType.UNKNOWN;
 import static io.prestosql.util.CompilerUtils.defineClass;
 import static io.prestosql.util.CompilerUtils.makeClassName;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 
 public final class StateCompiler
@@ -425,9 +430,15 @@ public final class StateCompiler
 
     private static <T> Class<? extends T> generateSingleStateClass(Class<T> clazz, Map<String, Type> fieldTypes, DynamicClassLoader classLoader)
     {
+        ParameterizedType className = stateClassName("Single", clazz, fieldTypes);
+        Optional<Class<? extends T>> definedClass = findStateClass(className, clazz, classLoader);
+        if (definedClass.isPresent()) {
+            return definedClass.get();
+        }
+
         ClassDefinition definition = new ClassDefinition(
                 a(PUBLIC, FINAL),
-                makeClassName("Single" + clazz.getSimpleName()),
+                className,
                 type(Object.class),
                 type(clazz));
 
@@ -458,6 +469,32 @@ public final class StateCompiler
         return defineClass(definition, clazz, classLoader);
     }
 
+    /**
+     * State class names are derived from the state definition instead of being unique, so that cached
+     * accumulator classes, which reference the state classes by name, can be reused by other processes.
+     */
+    private static ParameterizedType stateClassName(String prefix, Class<?> clazz, Map<String, Type> fieldTypes)
+    {
+        StringBuilder definition = new StringBuilder(clazz.getName());
+        new TreeMap<>(fieldTypes).forEach((name, type) -> definition.append('|').append(name).append(':').append(type.getTypeId().getId()));
+        String hash = Hashing.sha256().hashString(definition, UTF_8).toString().substring(0, 16);
+        return typeFromJavaClassName("io.prestosql.$gen." + prefix + clazz.getSimpleName() + "_" + hash);
+    }
+
+    private static <T> Optional<Class<? extends T>> findStateClass(ParameterizedType className, Class<T> clazz, DynamicClassLoader classLoader)
+    {
+        try {
+            Class<?> stateClass = Class.forName(className.getJavaClassName(), false, classLoader);
+            if (clazz.isAssignableFrom(stateClass)) {
+                return Optional.of(stateClass.asSubclass(clazz));
+            }
+            return Optional.empty();
+        }
+        catch (ClassNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
     private static FieldDefinition generateInstanceSize(ClassDefinition definition)
     {
         // Store instance size in static field
@@ -475,9 +512,15 @@ public final class StateCompiler
 
     private static <T> Class<? extends T> generateGroupedStateClass(Class<T> clazz, Map<String, Type> fieldTypes, DynamicClassLoader classLoader)
     {
+        ParameterizedType className = stateClassName("Grouped", clazz, fieldTypes);
+        Optional<Class<? extends T>> definedClass = findStateClass(className, clazz, classLoader);
+        if (definedClass.isPresent()) {
+            return definedClass.get();
+        }
+
         ClassDefinition definition = new ClassDefinition(
                 a(PUBLIC, FINAL),
-                makeClassName("Grouped" + clazz.getSimpleName()),
+                className,
                 type(AbstractGroupedAccumulatorState.class),
                 type(clazz),
                 type(GroupedAccumulator.class));
@@ -74,6 +74,8 @@ import io.prestosql.memory.TotalReservationOnBlockedNodesLowMemoryKiller;
 import io.prestosql.metadata.CatalogManager;
 import io.prestosql.operator.ForScheduler;
 import io.prestosql.server.protocol.ExecutingStatementResource;
+import io.prestosql.server.protocol.ResultSpoolCleaner;
+import io.prestosql.server.protocol.ResultSpoolProxyResource;
 import io.prestosql.server.remotetask.RemoteTaskStats;
 import io.prestosql.server.ui.WebUiModule;
 import io.prestosql.server.ui.WorkerResource;
@@ -136,6 +138,14 @@ public class CoordinatorModule
         jaxrsBinder(binder).bind(ExecutingStatementResource.class);
         binder.bind(StatementHttpExecutionMBean.class).in(Scopes.SINGLETON);
         newExporter(binder).export(StatementHttpExecutionMBean.class).withGeneratedName();
+        binder.bind(ResultSpoolCleaner.class).in(Scopes.SINGLETON);
+        jaxrsBinder(binder).bind(ResultSpoolProxyResource.class);
+        httpClientBinder(binder).bindHttpClient("result-spool", ForResultSpool.class)
+                .withTracing()
+                .withConfigDefaults(config -> {
+                    config.setIdleTimeout(new Duration(30, SECONDS));
+                    config.setRequestTimeout(new Duration(10, SECONDS));
+                });
 
         // allow large prepared statements in headers
         configBinder(binder).bindConfigDefaults(HttpServerConfig.class, config -> {
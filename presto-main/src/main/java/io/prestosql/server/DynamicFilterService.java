@@ -151,8 +151,8 @@ public class DynamicFilterService
             Set<DynamicFilterId> lazyDynamicFilters,
             Set<DynamicFilterId> replicatedDynamicFilters)
     {
-        Map<DynamicFilterId, SettableFuture<?>> lazyDynamicFilterFutures = lazyDynamicFilters.stream()
-                .collect(toImmutableMap(filter -> filter, filter -> SettableFuture.create()));
+        Map<DynamicFilterId, SettableFuture<?>> lazyDynamicFilterFutures = new ConcurrentHashMap<>();
+        lazyDynamicFilters.forEach(filter -> lazyDynamicFilterFutures.put(filter, SettableFuture.create()));
         dynamicFilterContexts.putIfAbsent(queryId, new DynamicFilterContext(
                 session,
                 dynamicFilters,
@@ -160,6 +160,28 @@ public class DynamicFilterService
                 replicatedDynamicFilters));
     }
 
+    /**
+     * Updates the lazy and replicated dynamic filters of a query whose fragmented plan has been replaced
+     * while it runs, e.g. when the distribution of a join is switched. The dynamic filters of the query
+     * and the filters collected so far do not change.
+     */
+    public void updateQueryPlan(QueryId queryId, SubPlan fragmentedPlan)
+    {
+        DynamicFilterContext context = dynamicFilterContexts.get(queryId);
+        if (context == null) {
+            // query has been removed or dynamic filtering is not enabled
+            return;
+        }
+
+        Set<DynamicFilterId> lazyDynamicFilters = fragmentedPlan.getAllFragments().stream()
+                .flatMap(plan -> getLazyDynamicFilters(plan).stream())
+                .collect(toImmutableSet());
+        Set<DynamicFilterId> replicatedDynamicFilters = fragmentedPlan.getAllFragments().stream()
+                .flatMap(plan -> getReplicatedDynamicFilters(plan.getRoot()).stream())
+                .collect(toImmutableSet());
+        context.updateDynamicFilters(lazyDynamicFilters, replicatedDynamicFilters);
+    }
+
     public DynamicFiltersStats getDynamicFilteringStats(QueryId queryId, Session session)
     {
         DynamicFilterContext context = dynamicFilterContexts.get(queryId);
@@ -646,7 +668,7 @@ public class DynamicFilterService
         private final Map<DynamicFilterId, Long> dynamicFilterCollectionTime = new ConcurrentHashMap<>();
         private final Set<DynamicFilterId> dynamicFilters;
         private final Map<DynamicFilterId, SettableFuture<?>> lazyDynamicFilters;
-        private final Set<DynamicFilterId> replicatedDynamicFilters;
+        private volatile Set<DynamicFilterId> replicatedDynamicFilters;
         private final Map<StageId, Set<DynamicFilterId>> stageDynamicFilters = new ConcurrentHashMap<>();
         private final Map<StageId, Integer> stageNumberOfTasks = new ConcurrentHashMap<>();
         // when map value for given filter id is empty it means that dynamic filter has already been collected
@@ -726,6 +748,18 @@ public class DynamicFilterService
             });
         }
 
+        private void updateDynamicFilters(Set<DynamicFilterId> lazyDynamicFilters, Set<DynamicFilterId> replicatedDynamicFilters)
+        {
+            // futures of lazy dynamic filters are never removed, since running stages can wait for them
+            lazyDynamicFilters.forEach(filter -> {
+                SettableFuture<?> future = this.lazyDynamicFilters.computeIfAbsent(filter, ignored -> SettableFuture.create());
+                if (dynamicFilterSummaries.containsKey(filter)) {
+                    future.set(null);
+                }
+            });
+            this.replicatedDynamicFilters = ImmutableSet.copyOf(replicatedDynamicFilters);
+        }
+
         private void stageCannotScheduleMoreTasks(StageId stageId, int numberOfTasks)
         {
             stageNumberOfTasks.put(stageId, numberOfTasks);
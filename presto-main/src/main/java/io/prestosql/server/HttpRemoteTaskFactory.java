@@ -35,6 +35,7 @@ import io.prestosql.metadata.InternalNode;
 import io.prestosql.metadata.Split;
 import io.prestosql.operator.ForScheduler;
 import io.prestosql.server.remotetask.HttpRemoteTask;
+import io.prestosql.server.remotetask.RemoteTaskCodec;
 import io.prestosql.server.remotetask.RemoteTaskStats;
 import io.prestosql.sql.planner.PlanFragment;
 import io.prestosql.sql.planner.plan.PlanNodeId;
@@ -60,13 +61,15 @@ public class HttpRemoteTaskFactory
 {
     private final HttpClient httpClient;
     private final LocationFactory locationFactory;
-    private final JsonCodec<TaskStatus> taskStatusCodec;
-    private final JsonCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec;
-    private final JsonCodec<TaskInfo> taskInfoCodec;
-    private final JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec;
+    private final RemoteTaskCodec<TaskStatus> taskStatusCodec;
+    private final RemoteTaskCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec;
+    private final RemoteTaskCodec<TaskInfo> taskInfoCodec;
+    private final RemoteTaskCodec<TaskUpdateRequest> taskUpdateRequestCodec;
     private final Duration maxErrorDuration;
     private final Duration taskStatusRefreshMaxWait;
     private final Duration taskInfoUpdateInterval;
+    private final boolean incrementalTaskInfo;
+    private final Duration taskInfoFullRefreshInterval;
     private final ExecutorService coreExecutor;
     private final Executor executor;
     private final ThreadPoolExecutorMBean executorMBean;
@@ -79,24 +82,29 @@ public class HttpRemoteTaskFactory
     public HttpRemoteTaskFactory(
             QueryManagerConfig config,
             TaskManagerConfig taskConfig,
+            InternalCommunicationConfig communicationConfig,
             @ForScheduler HttpClient httpClient,
             LocationFactory locationFactory,
             JsonCodec<TaskStatus> taskStatusCodec,
             JsonCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec,
             JsonCodec<TaskInfo> taskInfoCodec,
             JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec,
+            SmileCodecFactory smileCodecFactory,
             RemoteTaskStats stats,
             DynamicFilterService dynamicFilterService)
     {
         this.httpClient = httpClient;
         this.locationFactory = locationFactory;
-        this.taskStatusCodec = taskStatusCodec;
-        this.dynamicFilterDomainsCodec = dynamicFilterDomainsCodec;
-        this.taskInfoCodec = taskInfoCodec;
-        this.taskUpdateRequestCodec = taskUpdateRequestCodec;
+        boolean binaryEncoding = communicationConfig.isBinaryEncodingEnabled();
+        this.taskStatusCodec = createCodec(taskStatusCodec, TaskStatus.class, binaryEncoding, smileCodecFactory);
+        this.dynamicFilterDomainsCodec = createCodec(dynamicFilterDomainsCodec, VersionedDynamicFilterDomains.class, binaryEncoding, smileCodecFactory);
+        this.taskInfoCodec = createCodec(taskInfoCodec, TaskInfo.class, binaryEncoding, smileCodecFactory);
+        this.taskUpdateRequestCodec = createCodec(taskUpdateRequestCodec, TaskUpdateRequest.class, binaryEncoding, smileCodecFactory);
         this.maxErrorDuration = config.getRemoteTaskMaxErrorDuration();
         this.taskStatusRefreshMaxWait = taskConfig.getStatusRefreshMaxWait();
         this.taskInfoUpdateInterval = taskConfig.getInfoUpdateInterval();
+        this.incrementalTaskInfo = taskConfig.isIncrementalInfoEnabled();
+        this.taskInfoFullRefreshInterval = taskConfig.getInfoFullRefreshInterval();
         this.coreExecutor = newCachedThreadPool(daemonThreadsNamed("remote-task-callback-%s"));
         this.executor = new BoundedExecutor(coreExecutor, config.getRemoteTaskMaxCallbackThreads());
         this.executorMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) coreExecutor);
@@ -107,6 +115,14 @@ public class HttpRemoteTaskFactory
         this.errorScheduledExecutor = newSingleThreadScheduledExecutor(daemonThreadsNamed("remote-task-error-delay-%s"));
     }
 
+    private static <T> RemoteTaskCodec<T> createCodec(JsonCodec<T> jsonCodec, Class<T> type, boolean binaryEncoding, SmileCodecFactory smileCodecFactory)
+    {
+        if (!binaryEncoding) {
+            return RemoteTaskCodec.jsonCodec(jsonCodec);
+        }
+        return RemoteTaskCodec.smileCodec(jsonCodec, smileCodecFactory.smileCodec(type));
+    }
+
     @Managed
     @Nested
     public ThreadPoolExecutorMBean getExecutor()
@@ -150,6 +166,8 @@ public class HttpRemoteTaskFactory
                 taskStatusRefreshMaxWait,
                 taskInfoUpdateInterval,
                 summarizeTaskInfo,
+                incrementalTaskInfo,
+                taskInfoFullRefreshInterval,
                 taskStatusCodec,
                 dynamicFilterDomainsCodec,
                 taskInfoCodec,
@@ -53,6 +53,8 @@ import io.prestosql.execution.TaskManagementExecutor;
 import io.prestosql.execution.TaskManager;
 import io.prestosql.execution.TaskManagerConfig;
 import io.prestosql.execution.TaskStatus;
+import io.prestosql.execution.executor.AbstractMultilevelSplitQueue;
+import io.prestosql.execution.executor.ConcurrentMultilevelSplitQueue;
 import io.prestosql.execution.executor.MultilevelSplitQueue;
 import io.prestosql.execution.executor.TaskExecutor;
 import io.prestosql.execution.scheduler.NodeScheduler;
@@ -93,6 +95,9 @@ import io.prestosql.server.ExpressionSerialization.ExpressionDeserializer;
 import io.prestosql.server.ExpressionSerialization.ExpressionSerializer;
 import io.prestosql.server.SliceSerialization.SliceDeserializer;
 import io.prestosql.server.SliceSerialization.SliceSerializer;
+import io.prestosql.server.protocol.ResultSpool;
+import io.prestosql.server.protocol.ResultSpoolConfig;
+import io.prestosql.server.protocol.ResultSpoolResource;
 import io.prestosql.server.remotetask.HttpLocationFactory;
 import io.prestosql.spi.PageIndexerFactory;
 import io.prestosql.spi.PageSorter;
@@ -119,6 +124,7 @@ import io.prestosql.split.SplitManager;
 import io.prestosql.sql.SqlEnvironmentConfig;
 import io.prestosql.sql.analyzer.FeaturesConfig;
 import io.prestosql.sql.gen.ExpressionCompiler;
+import io.prestosql.sql.gen.GeneratedClassCache;
 import io.prestosql.sql.gen.JoinCompiler;
 import io.prestosql.sql.gen.JoinFilterFunctionCompiler;
 import io.prestosql.sql.gen.OrderingCompiler;
@@ -284,10 +290,11 @@ public class ServerMainModule
         newExporter(binder).export(TaskManager.class).withGeneratedName();
         binder.bind(TaskExecutor.class).in(Scopes.SINGLETON);
         newExporter(binder).export(TaskExecutor.class).withGeneratedName();
-        binder.bind(MultilevelSplitQueue.class).in(Scopes.SINGLETON);
-        newExporter(binder).export(MultilevelSplitQueue.class).withGeneratedName();
+        newExporter(binder).export(AbstractMultilevelSplitQueue.class).as(generator -> generator.generatedNameOf(MultilevelSplitQueue.class));
         binder.bind(LocalExecutionPlanner.class).in(Scopes.SINGLETON);
         configBinder(binder).bindConfig(CompilerConfig.class);
+        binder.bind(GeneratedClassCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(GeneratedClassCache.class).withGeneratedName();
         binder.bind(ExpressionCompiler.class).in(Scopes.SINGLETON);
         newExporter(binder).export(ExpressionCompiler.class).withGeneratedName();
         binder.bind(PageFunctionCompiler.class).in(Scopes.SINGLETON);
@@ -313,6 +320,14 @@ public class ServerMainModule
         jsonCodecBinder(binder).bindJsonCodec(OperatorStats.class);
         jsonCodecBinder(binder).bindJsonCodec(ExecutionFailureInfo.class);
         jaxrsBinder(binder).bind(PagesResponseWriter.class);
+        binder.bind(SmileCodecFactory.class).in(Scopes.SINGLETON);
+        jaxrsBinder(binder).bind(SmileMapper.class);
+
+        // result spooling
+        configBinder(binder).bindConfig(ResultSpoolConfig.class);
+        binder.bind(ResultSpool.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(ResultSpool.class).withGeneratedName();
+        jaxrsBinder(binder).bind(ResultSpoolResource.class);
 
         // exchange client
         binder.bind(ExchangeClientSupplier.class).to(ExchangeClientFactory.class).in(Scopes.SINGLETON);
@@ -467,6 +482,17 @@ public class ServerMainModule
         return new TypeOperators(typeOperatorsCache);
     }
 
+    @Provides
+    @Singleton
+    public static AbstractMultilevelSplitQueue createMultilevelSplitQueue(TaskManagerConfig config)
+    {
+        double levelTimeMultiplier = config.getLevelTimeMultiplier().doubleValue();
+        if (config.isConcurrentSplitQueueEnabled()) {
+            return new ConcurrentMultilevelSplitQueue(levelTimeMultiplier);
+        }
+        return new MultilevelSplitQueue(levelTimeMultiplier);
+    }
+
     @Provides
     @Singleton
     @ForExchange
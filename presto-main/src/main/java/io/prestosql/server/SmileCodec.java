@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Encodes values in the binary Smile format using the serializers of the JSON object mapper,
+ * so every type which can be sent as JSON can be sent as Smile. Binary values, such as
+ * serialized blocks, are stored as raw bytes instead of base64 text.
+ */
+public class SmileCodec<T>
+{
+    private final SmileFactory smileFactory;
+    private final Type type;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    SmileCodec(ObjectMapper mapper, SmileFactory smileFactory, Type type)
+    {
+        requireNonNull(mapper, "mapper is null");
+        this.smileFactory = requireNonNull(smileFactory, "smileFactory is null");
+        this.type = requireNonNull(type, "type is null");
+        JavaType javaType = mapper.getTypeFactory().constructType(type);
+        this.reader = mapper.readerFor(javaType);
+        this.writer = mapper.writerFor(javaType);
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    public byte[] toBytes(T instance)
+            throws IllegalArgumentException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writeTo(instance, output);
+        return output.toByteArray();
+    }
+
+    public void writeTo(T instance, OutputStream output)
+            throws IllegalArgumentException
+    {
+        try (JsonGenerator generator = smileFactory.createGenerator(output)) {
+            writer.writeValue(generator, instance);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException(format("%s could not be converted to Smile", instance.getClass().getName()), e);
+        }
+    }
+
+    public T fromBytes(byte[] bytes)
+            throws IllegalArgumentException
+    {
+        try (JsonParser parser = smileFactory.createParser(bytes)) {
+            return reader.readValue(parser);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException(format("Invalid Smile bytes for %s", type), e);
+        }
+    }
+
+    public T readFrom(InputStream input)
+            throws IllegalArgumentException
+    {
+        try (JsonParser parser = smileFactory.createParser(input)) {
+            return reader.readValue(parser);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException(format("Invalid Smile input for %s", type), e);
+        }
+    }
+}
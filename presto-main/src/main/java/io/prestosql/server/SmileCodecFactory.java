@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import javax.inject.Inject;
+
+import java.lang.reflect.Type;
+
+import static java.util.Objects.requireNonNull;
+
+public class SmileCodecFactory
+{
+    private final ObjectMapper mapper;
+    private final SmileFactory smileFactory;
+
+    @Inject
+    public SmileCodecFactory(ObjectMapper mapper)
+    {
+        this.mapper = requireNonNull(mapper, "mapper is null");
+        // the codec lets custom deserializers read nested values from the parser
+        SmileFactory smileFactory = new SmileFactory(mapper);
+        // streams are owned by the callers, for example the HTTP server
+        smileFactory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        smileFactory.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        // write binary values, such as result rows and blocks, as raw bytes instead of the default 7-bit encoding
+        smileFactory.disable(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT);
+        this.smileFactory = smileFactory;
+    }
+
+    public <T> SmileCodec<T> smileCodec(Class<T> type)
+    {
+        return new SmileCodec<>(mapper, smileFactory, type);
+    }
+
+    public SmileCodec<Object> smileCodec(Type type)
+    {
+        return new SmileCodec<>(mapper, smileFactory, type);
+    }
+}
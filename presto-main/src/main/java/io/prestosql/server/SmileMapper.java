@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server;
+
+import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.prestosql.PrestoMediaTypes.APPLICATION_JACKSON_SMILE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads and writes resource entities in the Smile format, for requests sent
+ * with, or accepting, {@code application/x-jackson-smile}.
+ */
+@Provider
+@Consumes(APPLICATION_JACKSON_SMILE)
+@Produces(APPLICATION_JACKSON_SMILE)
+public class SmileMapper
+        implements MessageBodyReader<Object>, MessageBodyWriter<Object>
+{
+    private static final MediaType SMILE_MEDIA_TYPE = MediaType.valueOf(APPLICATION_JACKSON_SMILE);
+
+    private final SmileCodecFactory codecFactory;
+    private final Map<Type, SmileCodec<Object>> codecs = new ConcurrentHashMap<>();
+
+    @Inject
+    public SmileMapper(SmileCodecFactory codecFactory)
+    {
+        this.codecFactory = requireNonNull(codecFactory, "codecFactory is null");
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType)
+    {
+        return SMILE_MEDIA_TYPE.isCompatible(mediaType);
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, String> httpHeaders, InputStream entityStream)
+    {
+        try {
+            return getCodec(genericType).readFrom(entityStream);
+        }
+        catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType)
+    {
+        return SMILE_MEDIA_TYPE.isCompatible(mediaType);
+    }
+
+    @Override
+    public long getSize(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType)
+    {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+    {
+        getCodec(genericType).writeTo(value, entityStream);
+    }
+
+    private SmileCodec<Object> getCodec(Type type)
+    {
+        return codecs.computeIfAbsent(type, codecFactory::smileCodec);
+    }
+}
@@ -63,8 +63,10 @@ import java.util.concurrent.ThreadLocalRandom;
 
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.MoreFutures.addSuccessCallback;
 import static io.airlift.concurrent.MoreFutures.addTimeout;
 import static io.airlift.jaxrs.AsyncResponseHandler.bindAsyncResponse;
+import static io.prestosql.PrestoMediaTypes.APPLICATION_JACKSON_SMILE;
 import static io.prestosql.PrestoMediaTypes.PRESTO_PAGES;
 import static io.prestosql.client.PrestoHeaders.PRESTO_BUFFER_COMPLETE;
 import static io.prestosql.client.PrestoHeaders.PRESTO_CURRENT_VERSION;
@@ -122,8 +124,8 @@ public class TaskResource
     @ResourceSecurity(INTERNAL_ONLY)
     @POST
     @Path("{taskId}")
-    @Consumes(MediaType.APPLICATION_JSON)
-    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
+    @Produces({MediaType.APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
     public Response createOrUpdateTask(@PathParam("taskId") TaskId taskId, TaskUpdateRequest taskUpdateRequest, @Context UriInfo uriInfo)
     {
         requireNonNull(taskUpdateRequest, "taskUpdateRequest is null");
@@ -146,7 +148,7 @@ public class TaskResource
     @ResourceSecurity(INTERNAL_ONLY)
     @GET
     @Path("{taskId}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
     public void getTaskInfo(
             @PathParam("taskId") TaskId taskId,
             @HeaderParam(PRESTO_CURRENT_VERSION) Long currentVersion,
@@ -157,11 +159,7 @@ public class TaskResource
         requireNonNull(taskId, "taskId is null");
 
         if (currentVersion == null || maxWait == null) {
-            TaskInfo taskInfo = taskManager.getTaskInfo(taskId);
-            if (shouldSummarize(uriInfo)) {
-                taskInfo = taskInfo.summarize();
-            }
-            asyncResponse.resume(taskInfo);
+            asyncResponse.resume(summarizeTaskInfo(taskManager.getTaskInfo(taskId), uriInfo));
             return;
         }
 
@@ -172,8 +170,8 @@ public class TaskResource
                 waitTime,
                 timeoutExecutor);
 
-        if (shouldSummarize(uriInfo)) {
-            futureTaskInfo = Futures.transform(futureTaskInfo, TaskInfo::summarize, directExecutor());
+        if (shouldSummarize(uriInfo) || isIncremental(uriInfo)) {
+            futureTaskInfo = Futures.transform(futureTaskInfo, taskInfo -> summarizeTaskInfo(taskInfo, uriInfo), directExecutor());
         }
 
         // For hard timeout, add an additional time to max wait for thread scheduling contention and GC
@@ -185,7 +183,7 @@ public class TaskResource
     @ResourceSecurity(INTERNAL_ONLY)
     @GET
     @Path("{taskId}/status")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
     public void getTaskStatus(
             @PathParam("taskId") TaskId taskId,
             @HeaderParam(PRESTO_CURRENT_VERSION) Long currentVersion,
@@ -220,7 +218,7 @@ public class TaskResource
     @ResourceSecurity(INTERNAL_ONLY)
     @GET
     @Path("{taskId}/dynamicfilters")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
     public VersionedDynamicFilterDomains acknowledgeAndGetNewDynamicFilterDomains(
             @PathParam("taskId") TaskId taskId,
             @HeaderParam(PRESTO_CURRENT_VERSION) Long currentDynamicFiltersVersion,
@@ -234,7 +232,7 @@ public class TaskResource
     @ResourceSecurity(INTERNAL_ONLY)
     @DELETE
     @Path("{taskId}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
     public TaskInfo deleteTask(
             @PathParam("taskId") TaskId taskId,
             @QueryParam("abort") @DefaultValue("true") boolean abort,
@@ -271,10 +269,10 @@ public class TaskResource
         requireNonNull(bufferId, "bufferId is null");
 
         long start = System.nanoTime();
-        ListenableFuture<BufferResult> bufferResultFuture = taskManager.getTaskResults(taskId, bufferId, token, maxSize);
+        ListenableFuture<BufferResult> taskResultsFuture = taskManager.getTaskResults(taskId, bufferId, token, maxSize);
         Duration waitTime = randomizeWaitTime(DEFAULT_MAX_WAIT_TIME);
-        bufferResultFuture = addTimeout(
-                bufferResultFuture,
+        ListenableFuture<BufferResult> bufferResultFuture = addTimeout(
+                taskResultsFuture,
                 () -> BufferResult.emptyResults(taskManager.getTaskInstanceId(taskId), token, false),
                 waitTime,
                 timeoutExecutor);
@@ -313,7 +311,11 @@ public class TaskResource
                                 .build());
 
         responseFuture.addListener(() -> readFromOutputBufferTime.add(Duration.nanosSince(start)), directExecutor());
-        asyncResponse.register((CompletionCallback) throwable -> resultsRequestTime.add(Duration.nanosSince(start)));
+        asyncResponse.register((CompletionCallback) throwable -> {
+            resultsRequestTime.add(Duration.nanosSince(start));
+            // the pages have been written, or will never be, so their buffers can be reused
+            addSuccessCallback(taskResultsFuture, BufferResult::release);
+        });
     }
 
     @ResourceSecurity(INTERNAL_ONLY)
@@ -361,6 +363,23 @@ public class TaskResource
         return uriInfo.getQueryParameters().containsKey("summarize");
     }
 
+    private static boolean isIncremental(UriInfo uriInfo)
+    {
+        // the coordinator keeps the pipeline statistics of the last full task info
+        return uriInfo.getQueryParameters().containsKey("incremental");
+    }
+
+    private static TaskInfo summarizeTaskInfo(TaskInfo taskInfo, UriInfo uriInfo)
+    {
+        if (shouldSummarize(uriInfo)) {
+            return taskInfo.summarize();
+        }
+        if (isIncremental(uriInfo)) {
+            return taskInfo.withoutRunningPipelineStats();
+        }
+        return taskInfo;
+    }
+
     private static Duration randomizeWaitTime(Duration waitTime)
     {
         // Randomize in [T/2, T], so wait is not near zero and the client-supplied max wait time is respected
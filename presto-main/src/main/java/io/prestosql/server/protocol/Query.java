@@ -23,10 +23,12 @@ import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.Session;
+import io.prestosql.client.BinaryQueryData;
 import io.prestosql.client.ClientCapabilities;
 import io.prestosql.client.ClientTypeSignature;
 import io.prestosql.client.ClientTypeSignatureParameter;
 import io.prestosql.client.Column;
+import io.prestosql.client.DataSegment;
 import io.prestosql.client.FailureInfo;
 import io.prestosql.client.NamedClientTypeSignature;
 import io.prestosql.client.QueryError;
@@ -93,15 +95,20 @@ import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.concurrent.MoreFutures.addTimeout;
 import static io.prestosql.SystemSessionProperties.isExchangeCompressionEnabled;
+import static io.prestosql.client.DataSegment.spooledSegment;
 import static io.prestosql.execution.QueryState.FAILED;
+import static io.prestosql.operator.SpoolingOutputOperator.getDataSegments;
 import static io.prestosql.server.protocol.QueryResultRows.queryResultRowsBuilder;
+import static io.prestosql.server.protocol.ResultSpool.isResultSpoolingEnabled;
 import static io.prestosql.server.protocol.Slug.Context.EXECUTING_QUERY;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spi.StandardErrorCode.SERIALIZATION_ERROR;
+import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.StandardTypes.ROW;
 import static io.prestosql.spi.type.StandardTypes.TIME;
 import static io.prestosql.spi.type.StandardTypes.TIMESTAMP;
@@ -130,6 +137,8 @@ class Query
 
     private final PagesSerde serde;
     private final boolean supportsParametricDateTime;
+    private final boolean supportsBinaryData;
+    private final boolean resultSpoolingEnabled;
 
     @GuardedBy("this")
     private OptionalLong nextToken = OptionalLong.of(0);
@@ -189,8 +198,10 @@ class Query
             ExchangeClient exchangeClient,
             Executor dataProcessorExecutor,
             ScheduledExecutorService timeoutExecutor,
-            BlockEncodingSerde blockEncodingSerde)
+            BlockEncodingSerde blockEncodingSerde,
+            ResultSpoolCleaner resultSpoolCleaner)
     {
+        requireNonNull(resultSpoolCleaner, "resultSpoolCleaner is null");
         Query result = new Query(session, slug, queryManager, exchangeClient, dataProcessorExecutor, timeoutExecutor, blockEncodingSerde);
 
         result.queryManager.addOutputInfoListener(result.getQueryId(), result::setQueryOutputInfo);
@@ -199,6 +210,11 @@ class Query
             if (state.isDone()) {
                 QueryInfo queryInfo = queryManager.getFullQueryInfo(result.getQueryId());
                 result.closeExchangeClientIfNecessary(queryInfo);
+                // the client does not download the results of a failed query, and the results of
+                // a finished query are removed as the client acknowledges them
+                if (state == FAILED && result.resultSpoolingEnabled) {
+                    resultSpoolCleaner.removeQuerySegments(queryInfo);
+                }
             }
         });
 
@@ -231,6 +247,8 @@ class Query
         this.resultsProcessorExecutor = resultsProcessorExecutor;
         this.timeoutExecutor = timeoutExecutor;
         this.supportsParametricDateTime = session.getClientCapabilities().contains(ClientCapabilities.PARAMETRIC_DATETIME.toString());
+        this.supportsBinaryData = session.getClientCapabilities().contains(ClientCapabilities.BINARY_DATA.toString());
+        this.resultSpoolingEnabled = isResultSpoolingEnabled(session);
         serde = new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session)).createPagesSerde();
     }
 
@@ -411,11 +429,15 @@ class Query
         queryManager.recordHeartbeat(queryId);
 
         // fetch result data from exchange
-        QueryResultRows resultRows = removePagesFromExchange(queryInfo, targetResultSize.toBytes());
+        ImmutableList.Builder<DataSegment> segmentsBuilder = ImmutableList.builder();
+        QueryResultRows resultRows = removePagesFromExchange(queryInfo, targetResultSize.toBytes(), segmentsBuilder);
+        List<DataSegment> segments = segmentsBuilder.build().stream()
+                .map(segment -> resolveSegmentUri(segment, uriInfo))
+                .collect(toImmutableList());
 
         if ((queryInfo.getUpdateType() != null) && (updateCount == null)) {
             // grab the update count for non-queries
-            Optional<Long> updatedRowsCount = resultRows.getUpdateCount();
+            Optional<Long> updatedRowsCount = segments.isEmpty() ? resultRows.getUpdateCount() : getUpdateCount(segments);
             updateCount = updatedRowsCount.orElse(null);
         }
 
@@ -462,6 +484,12 @@ class Query
         startedTransactionId = queryInfo.getStartedTransactionId();
         clearTransactionId = queryInfo.isClearTransactionId();
 
+        // encode the rows before the query error is computed, as values which cannot be serialized fail the query
+        byte[] binaryData = null;
+        if (supportsBinaryData && !resultRows.isEmpty()) {
+            binaryData = resultRows.toBinaryData();
+        }
+
         // first time through, self is null
         QueryResults queryResults = new QueryResults(
                 queryId.toString(),
@@ -469,7 +497,9 @@ class Query
                 partialCancelUri,
                 nextResultsUri,
                 resultRows.getColumns().orElse(null),
-                resultRows.isEmpty() ? null : resultRows, // client excepts null that indicates "no data"
+                (resultRows.isEmpty() || binaryData != null) ? null : resultRows, // client excepts null that indicates "no data"
+                binaryData,
+                segments.isEmpty() ? null : segments,
                 toStatementStats(queryInfo),
                 toQueryError(queryInfo, typeSerializationException),
                 mappedCopy(queryInfo.getWarnings(), Query::toClientWarning),
@@ -483,7 +513,7 @@ class Query
         return queryResults;
     }
 
-    private synchronized QueryResultRows removePagesFromExchange(QueryInfo queryInfo, long targetResultBytes)
+    private synchronized QueryResultRows removePagesFromExchange(QueryInfo queryInfo, long targetResultBytes, ImmutableList.Builder<DataSegment> segments)
     {
         // For queries with no output, return a fake boolean result for clients that require it.
         if ((queryInfo.getState() == QueryState.FINISHED) && queryInfo.getOutputStage().isEmpty()) {
@@ -513,7 +543,13 @@ class Query
 
                 Page page = serde.deserialize(serializedPage);
                 bytes += page.getLogicalSizeInBytes();
-                resultBuilder.addPage(page);
+                if (resultSpoolingEnabled) {
+                    // the output stage sends segment descriptors instead of the rows
+                    segments.addAll(getDataSegments(page));
+                }
+                else {
+                    resultBuilder.addPage(page);
+                }
             }
         }
         catch (Throwable cause) {
@@ -523,6 +559,16 @@ class Query
         return resultBuilder.build();
     }
 
+    private synchronized Optional<Long> getUpdateCount(List<DataSegment> segments)
+    {
+        // the single row with the update count is always small enough to be inlined
+        if (segments.size() != 1 || segments.get(0).getData() == null || types.size() != 1 || !types.get(0).equals(BIGINT)) {
+            return Optional.empty();
+        }
+        List<Object> row = getOnlyElement(BinaryQueryData.decode(columns, segments.get(0).getData()));
+        return Optional.ofNullable((Number) row.get(0)).map(Number::longValue);
+    }
+
     private synchronized void closeExchangeClientIfNecessary(QueryInfo queryInfo)
     {
         // Close the exchange client if the query has failed, or if the query
@@ -592,6 +638,22 @@ class Query
                 .build();
     }
 
+    /**
+     * Segments of workers without an external URI have a relative URI, and are downloaded through the coordinator.
+     */
+    private static DataSegment resolveSegmentUri(DataSegment segment, UriInfo uriInfo)
+    {
+        URI uri = segment.getUri();
+        if (uri == null || uri.isAbsolute()) {
+            return segment;
+        }
+        URI proxyUri = uriInfo.getBaseUriBuilder()
+                .replacePath(uri.getPath())
+                .replaceQuery("")
+                .build();
+        return spooledSegment(proxyUri, segment.getRowCount());
+    }
+
     private URI createPartialCancelUri(int stage, UriInfo uriInfo, long nextToken)
     {
         return uriInfo.getBaseUriBuilder()
@@ -13,10 +13,18 @@
  */
 package io.prestosql.server.protocol;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.json.ObjectMapperProvider;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
 import io.prestosql.Session;
+import io.prestosql.client.BinaryQueryData;
 import io.prestosql.client.ClientCapabilities;
 import io.prestosql.client.Column;
 import io.prestosql.spi.Page;
@@ -25,6 +33,7 @@ import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.type.ArrayType;
+import io.prestosql.spi.type.CharType;
 import io.prestosql.spi.type.MapType;
 import io.prestosql.spi.type.RowType;
 import io.prestosql.spi.type.SqlTime;
@@ -34,6 +43,7 @@ import io.prestosql.spi.type.TimeType;
 import io.prestosql.spi.type.TimestampType;
 import io.prestosql.spi.type.TimestampWithTimeZoneType;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.VarcharType;
 
 import javax.annotation.Nullable;
 
@@ -49,12 +59,35 @@ import java.util.function.Consumer;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.base.Verify.verifyNotNull;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static io.prestosql.client.BinaryQueryData.BOOLEAN_ENCODING;
+import static io.prestosql.client.BinaryQueryData.BYTES_ENCODING;
+import static io.prestosql.client.BinaryQueryData.BYTE_ENCODING;
+import static io.prestosql.client.BinaryQueryData.COMPRESSED;
+import static io.prestosql.client.BinaryQueryData.DOUBLE_ENCODING;
+import static io.prestosql.client.BinaryQueryData.FLOAT_ENCODING;
+import static io.prestosql.client.BinaryQueryData.INT_ENCODING;
+import static io.prestosql.client.BinaryQueryData.JSON_ENCODING;
+import static io.prestosql.client.BinaryQueryData.LONG_ENCODING;
+import static io.prestosql.client.BinaryQueryData.SHORT_ENCODING;
+import static io.prestosql.client.BinaryQueryData.STRING_ENCODING;
 import static io.prestosql.spi.StandardErrorCode.SERIALIZATION_ERROR;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.Chars.padSpaces;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.RealType.REAL;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static io.prestosql.spi.type.VarbinaryType.VARBINARY;
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.util.Collections.unmodifiableList;
 import static java.util.Collections.unmodifiableMap;
@@ -65,6 +98,11 @@ public class QueryResultRows
         extends AbstractIterator<List<Object>>
         implements Iterable<List<Object>>
 {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapperProvider().get();
+    // same as PagesSerde
+    private static final double MINIMUM_COMPRESSION_RATIO = 0.8;
+    private static final int MINIMUM_COMPRESSION_SIZE = 1024;
+
     private final ConnectorSession session;
     private final Optional<List<ColumnAndType>> columns;
     private final Deque<Page> pages;
@@ -249,6 +287,222 @@ public class QueryResultRows
         return value;
     }
 
+    /**
+     * Encodes the rows with {@link BinaryQueryData}, consuming them like the iterator does.
+     * Rows with values which cannot be serialized are skipped and reported to the exception consumer.
+     */
+    public byte[] toBinaryData()
+    {
+        checkState(rowPosition == -1, "rows were already consumed");
+
+        // types are present if data is present
+        List<ColumnAndType> columns = this.columns.orElseThrow();
+        byte[] encodings = new byte[columns.size()];
+        for (int channel = 0; channel < columns.size(); channel++) {
+            encodings[channel] = getBinaryEncoding(columns.get(channel).getType());
+        }
+
+        // Values of types without a dedicated encoding are serialized first, so that rows
+        // with values which cannot be serialized are skipped before the columns are written.
+        List<EncodedPage> encodedPages = new ArrayList<>();
+        int rowCount = 0;
+        while (currentPage != null) {
+            EncodedPage encodedPage = encodeJsonValues(currentPage, columns, encodings);
+            encodedPages.add(encodedPage);
+            rowCount += encodedPage.getPositionCount();
+            currentPage = pages.pollFirst();
+        }
+
+        DynamicSliceOutput output = new DynamicSliceOutput(toIntExact(Math.min(Integer.MAX_VALUE, totalRows * columns.size() * 8L + 64)));
+        output.writeInt(rowCount);
+        output.writeInt(columns.size());
+        for (int channel = 0; channel < columns.size(); channel++) {
+            Type type = columns.get(channel).getType();
+            byte encoding = encodings[channel];
+            output.writeByte(encoding);
+
+            byte[] nulls = new byte[(rowCount + 7) / 8];
+            int row = 0;
+            for (EncodedPage encodedPage : encodedPages) {
+                Block block = encodedPage.getPage().getBlock(channel);
+                for (int index = 0; index < encodedPage.getPositionCount(); index++) {
+                    if (block.isNull(encodedPage.getPosition(index))) {
+                        nulls[row >> 3] |= 1 << (row & 7);
+                    }
+                    row++;
+                }
+            }
+            output.writeBytes(nulls);
+
+            for (EncodedPage encodedPage : encodedPages) {
+                Block block = encodedPage.getPage().getBlock(channel);
+                for (int index = 0; index < encodedPage.getPositionCount(); index++) {
+                    int position = encodedPage.getPosition(index);
+                    if (!block.isNull(position)) {
+                        writeBinaryValue(output, encoding, type, block, position, encodedPage.getJsonValue(channel, index));
+                    }
+                }
+            }
+        }
+        return compressBinaryData(output.slice());
+    }
+
+    /**
+     * Encodes pages of the query output with {@link BinaryQueryData} outside of a {@link Query},
+     * for example in the output stage on the workers. Values which cannot be serialized fail the encoding.
+     */
+    public static byte[] toBinaryData(Session session, List<String> columnNames, List<Type> types, List<Page> pages)
+    {
+        checkArgument(columnNames.size() == types.size(), "columnNames and types size mismatch");
+        ImmutableList.Builder<Column> columns = ImmutableList.builder();
+        for (int i = 0; i < columnNames.size(); i++) {
+            // the client type signature is not part of the encoding
+            columns.add(new Column(columnNames.get(i), types.get(i).getDisplayName(), null));
+        }
+        return queryResultRowsBuilder(session)
+                .withColumnsAndTypes(columns.build(), types)
+                .withExceptionConsumer(exception -> {
+                    throwIfUnchecked(exception);
+                    throw new RuntimeException(exception);
+                })
+                .addPages(pages)
+                .build()
+                .toBinaryData();
+    }
+
+    private EncodedPage encodeJsonValues(Page page, List<ColumnAndType> columns, byte[] encodings)
+    {
+        int[] positions = new int[page.getPositionCount()];
+        byte[][][] jsonValues = new byte[columns.size()][][];
+        for (int channel = 0; channel < columns.size(); channel++) {
+            if (encodings[channel] == JSON_ENCODING) {
+                jsonValues[channel] = new byte[page.getPositionCount()][];
+            }
+        }
+
+        int positionCount = 0;
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            rowPosition++;
+            boolean serializable = true;
+            for (int channel = 0; channel < columns.size() && serializable; channel++) {
+                if (encodings[channel] != JSON_ENCODING) {
+                    continue;
+                }
+                ColumnAndType column = columns.get(channel);
+                try {
+                    Object value = column.getType().getObjectValue(session, page.getBlock(channel), position);
+                    if (!supportsParametricDateTime) {
+                        value = getLegacyValue(value, column.getType());
+                    }
+                    jsonValues[channel][positionCount] = (value == null) ? null : OBJECT_MAPPER.writeValueAsBytes(value);
+                }
+                catch (Throwable throwable) {
+                    propagateException(rowPosition, column, throwable);
+                    // skip row as it contains non-serializable value
+                    serializable = false;
+                }
+            }
+            if (serializable) {
+                positions[positionCount] = position;
+                positionCount++;
+            }
+        }
+        return new EncodedPage(page, positions, positionCount, jsonValues);
+    }
+
+    private static byte getBinaryEncoding(Type type)
+    {
+        if (type.equals(BOOLEAN)) {
+            return BOOLEAN_ENCODING;
+        }
+        if (type.equals(TINYINT)) {
+            return BYTE_ENCODING;
+        }
+        if (type.equals(SMALLINT)) {
+            return SHORT_ENCODING;
+        }
+        if (type.equals(INTEGER)) {
+            return INT_ENCODING;
+        }
+        if (type.equals(BIGINT)) {
+            return LONG_ENCODING;
+        }
+        if (type.equals(REAL)) {
+            return FLOAT_ENCODING;
+        }
+        if (type.equals(DOUBLE)) {
+            return DOUBLE_ENCODING;
+        }
+        if (type instanceof VarcharType || type instanceof CharType) {
+            return STRING_ENCODING;
+        }
+        if (type.equals(VARBINARY)) {
+            return BYTES_ENCODING;
+        }
+        return JSON_ENCODING;
+    }
+
+    private static void writeBinaryValue(SliceOutput output, byte encoding, Type type, Block block, int position, byte[] jsonValue)
+    {
+        switch (encoding) {
+            case BOOLEAN_ENCODING:
+                output.writeBoolean(type.getBoolean(block, position));
+                return;
+            case BYTE_ENCODING:
+                output.writeByte((int) type.getLong(block, position));
+                return;
+            case SHORT_ENCODING:
+                output.writeShort((int) type.getLong(block, position));
+                return;
+            case INT_ENCODING:
+            case FLOAT_ENCODING:
+                // real values are stored as float bits
+                output.writeInt((int) type.getLong(block, position));
+                return;
+            case LONG_ENCODING:
+                output.writeLong(type.getLong(block, position));
+                return;
+            case DOUBLE_ENCODING:
+                output.writeDouble(type.getDouble(block, position));
+                return;
+            case STRING_ENCODING:
+            case BYTES_ENCODING:
+                Slice slice = type.getSlice(block, position);
+                if (type instanceof CharType) {
+                    slice = padSpaces(slice, (CharType) type);
+                }
+                output.writeInt(slice.length());
+                output.writeBytes(slice);
+                return;
+            case JSON_ENCODING:
+                output.writeInt(jsonValue.length);
+                output.writeBytes(jsonValue);
+                return;
+            default:
+                throw new IllegalArgumentException("Unknown encoding: " + encoding);
+        }
+    }
+
+    private static byte[] compressBinaryData(Slice data)
+    {
+        if (data.length() >= MINIMUM_COMPRESSION_SIZE) {
+            Lz4Compressor compressor = new Lz4Compressor();
+            byte[] compressed = new byte[compressor.maxCompressedLength(data.length())];
+            int compressedSize = compressor.compress(data.byteArray(), data.byteArrayOffset(), data.length(), compressed, 0, compressed.length);
+            if (compressedSize <= data.length() * MINIMUM_COMPRESSION_RATIO) {
+                Slice result = Slices.allocate(SIZE_OF_BYTE + SIZE_OF_INT + compressedSize);
+                result.setByte(0, COMPRESSED);
+                result.setInt(SIZE_OF_BYTE, data.length());
+                result.setBytes(SIZE_OF_BYTE + SIZE_OF_INT, compressed, 0, compressedSize);
+                return result.byteArray();
+            }
+        }
+        Slice result = Slices.allocate(SIZE_OF_BYTE + data.length());
+        result.setByte(0, 0);
+        result.setBytes(SIZE_OF_BYTE, data);
+        return result.byteArray();
+    }
+
     private void propagateException(int row, ColumnAndType column, Throwable cause)
     {
         // columns and rows are 0-indexed
@@ -369,6 +623,42 @@ public class QueryResultRows
         }
     }
 
+    private static class EncodedPage
+    {
+        private final Page page;
+        private final int[] positions;
+        private final int positionCount;
+        private final byte[][][] jsonValues;
+
+        private EncodedPage(Page page, int[] positions, int positionCount, byte[][][] jsonValues)
+        {
+            this.page = page;
+            this.positions = positions;
+            this.positionCount = positionCount;
+            this.jsonValues = jsonValues;
+        }
+
+        public Page getPage()
+        {
+            return page;
+        }
+
+        public int getPositionCount()
+        {
+            return positionCount;
+        }
+
+        public int getPosition(int index)
+        {
+            return positions[index];
+        }
+
+        public byte[] getJsonValue(int channel, int index)
+        {
+            return jsonValues[channel] == null ? null : jsonValues[channel][index];
+        }
+    }
+
     private static class ColumnAndType
     {
         private final int position;
@@ -0,0 +1,351 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.protocol;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import io.airlift.log.Logger;
+import io.airlift.stats.CounterStat;
+import io.airlift.units.DataSize;
+import io.prestosql.Session;
+import io.prestosql.metadata.InternalNodeManager;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.QueryId;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.google.common.hash.Hashing.hmacSha256;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
+import static io.prestosql.SystemSessionProperties.isSpooledResultsEnabled;
+import static io.prestosql.client.ClientCapabilities.BINARY_DATA;
+import static io.prestosql.client.ClientCapabilities.SPOOLED_DATA;
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.delete;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.Files.write;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Stores the encoded result segments of the query output stage on the local disk,
+ * from where clients download them through {@link ResultSpoolResource}.
+ * <p>
+ * Clients do not send their credentials to the workers. Instead, the segment URI contains a
+ * token, which is a signature of the segment id with a key known only to this node.
+ * <p>
+ * Clients download the segments directly from the configured external URI of the node. The
+ * internal URI may not be reachable from outside the cluster, so without an external URI the
+ * segment URI is relative, and the coordinator resolves it to {@link ResultSpoolProxyResource}.
+ * <p>
+ * A segment is removed when the client acknowledges it, when the coordinator discards the
+ * segments of a failed query, or when the segment expires.
+ */
+public class ResultSpool
+{
+    private static final Logger log = Logger.get(ResultSpool.class);
+
+    private static final String SEGMENT_FILE_SUFFIX = ".segment";
+    private static final String SEGMENT_FILE_GLOB = "*.segment";
+
+    private final InternalNodeManager nodeManager;
+    private final Path path;
+    private final DataSize segmentSize;
+    private final DataSize maxInlineSize;
+    private final long segmentTtlNanos;
+    private final ListeningExecutorService executor;
+    private final ScheduledExecutorService expirationExecutor;
+    private final HashFunction tokenFunction;
+    private final Optional<URI> externalUri;
+
+    private final Map<String, Segment> segments = new ConcurrentHashMap<>();
+
+    private final CounterStat spooledSegments = new CounterStat();
+    private final CounterStat spooledBytes = new CounterStat();
+    private final CounterStat downloadedSegments = new CounterStat();
+    private final CounterStat discardedSegments = new CounterStat();
+    private final CounterStat expiredSegments = new CounterStat();
+
+    @Inject
+    public ResultSpool(ResultSpoolConfig config, InternalNodeManager nodeManager)
+    {
+        requireNonNull(config, "config is null");
+        this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
+        // segments of each node are kept apart, so that nodes can share the configured directory
+        this.path = config.getPath().toPath().resolve(nodeManager.getCurrentNode().getNodeIdentifier());
+        this.segmentSize = config.getSegmentSize();
+        this.maxInlineSize = config.getMaxInlineSize();
+        this.segmentTtlNanos = config.getSegmentTtl().roundTo(NANOSECONDS);
+        this.executor = listeningDecorator(newFixedThreadPool(config.getThreads(), daemonThreadsNamed("result-spool-%s")));
+        this.expirationExecutor = newSingleThreadScheduledExecutor(daemonThreadsNamed("result-spool-expiration"));
+
+        byte[] tokenKey = new byte[32];
+        new SecureRandom().nextBytes(tokenKey);
+        this.tokenFunction = hmacSha256(tokenKey);
+        this.externalUri = Optional.ofNullable(config.getExternalUri());
+    }
+
+    /**
+     * Results are spooled when the session enables it and the client can download and decode the segments.
+     */
+    public static boolean isResultSpoolingEnabled(Session session)
+    {
+        Set<String> clientCapabilities = session.getClientCapabilities();
+        return isSpooledResultsEnabled(session) &&
+                clientCapabilities.contains(SPOOLED_DATA.toString()) &&
+                clientCapabilities.contains(BINARY_DATA.toString());
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        cleanupOldSegments();
+        expirationExecutor.scheduleWithFixedDelay(this::removeExpiredSegments, 1, 1, MINUTES);
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        executor.shutdownNow();
+        expirationExecutor.shutdownNow();
+        cleanupOldSegments();
+    }
+
+    public DataSize getSegmentSize()
+    {
+        return segmentSize;
+    }
+
+    public DataSize getMaxInlineSize()
+    {
+        return maxInlineSize;
+    }
+
+    /**
+     * Stores the encoded segment, and returns the URI from which it can be downloaded.
+     */
+    public ListenableFuture<URI> spool(QueryId queryId, byte[] data)
+    {
+        requireNonNull(queryId, "queryId is null");
+        return executor.submit(() -> {
+            String segmentId = UUID.randomUUID().toString().replace("-", "");
+            try {
+                createDirectories(path);
+                write(segmentFile(segmentId), data);
+            }
+            catch (IOException e) {
+                throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to store result segment in " + path, e);
+            }
+            segments.put(segmentId, new Segment(queryId, System.nanoTime()));
+            spooledSegments.update(1);
+            spooledBytes.update(data.length);
+            return segmentUri(segmentId);
+        });
+    }
+
+    private URI segmentUri(String segmentId)
+    {
+        if (externalUri.isPresent()) {
+            return uriBuilderFrom(externalUri.get())
+                    .appendPath("/v1/spool")
+                    .appendPath(segmentId)
+                    .appendPath(token(segmentId))
+                    .build();
+        }
+        // node identifiers only contain characters which are valid in a path
+        return URI.create(format("/v1/spool/proxy/%s/%s/%s", nodeManager.getCurrentNode().getNodeIdentifier(), segmentId, token(segmentId)));
+    }
+
+    /**
+     * Returns the file of the segment, unless the segment does not exist, was removed, or the token is not valid.
+     */
+    public Optional<Path> getSegment(String segmentId, String token)
+    {
+        if (!isValidToken(segmentId, token) || !segments.containsKey(segmentId)) {
+            return Optional.empty();
+        }
+        return Optional.of(segmentFile(segmentId));
+    }
+
+    /**
+     * Removes the segment once the client acknowledges that it has been downloaded. Returns false
+     * if the segment does not exist, was already removed, or the token is not valid.
+     */
+    public boolean removeSegment(String segmentId, String token)
+    {
+        if (!isValidToken(segmentId, token)) {
+            return false;
+        }
+        if (segments.remove(segmentId) == null) {
+            return false;
+        }
+        downloadedSegments.update(1);
+        deleteSegmentFile(segmentId);
+        return true;
+    }
+
+    /**
+     * Removes the remaining segments of the query, which are not downloaded when the query fails.
+     */
+    public void removeQuerySegments(QueryId queryId)
+    {
+        requireNonNull(queryId, "queryId is null");
+        segments.forEach((segmentId, segment) -> {
+            if (segment.getQueryId().equals(queryId) && segments.remove(segmentId, segment)) {
+                discardedSegments.update(1);
+                deleteSegmentFile(segmentId);
+            }
+        });
+    }
+
+    private void removeExpiredSegments()
+    {
+        long now = System.nanoTime();
+        segments.forEach((segmentId, segment) -> {
+            if (now - segment.getCreateTime() > segmentTtlNanos && segments.remove(segmentId, segment)) {
+                expiredSegments.update(1);
+                deleteSegmentFile(segmentId);
+            }
+        });
+    }
+
+    private void deleteSegmentFile(String segmentId)
+    {
+        try {
+            deleteIfExists(segmentFile(segmentId));
+        }
+        catch (IOException e) {
+            log.warn(e, "Could not delete result segment: %s", segmentId);
+        }
+    }
+
+    private void cleanupOldSegments()
+    {
+        segments.clear();
+        if (!path.toFile().isDirectory()) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = newDirectoryStream(path, SEGMENT_FILE_GLOB)) {
+            for (Path segmentFile : stream) {
+                try {
+                    delete(segmentFile);
+                }
+                catch (IOException e) {
+                    log.warn(e, "Could not delete old result segment: %s", segmentFile);
+                }
+            }
+        }
+        catch (IOException e) {
+            log.warn(e, "Error cleaning result segments");
+        }
+    }
+
+    private boolean isValidToken(String segmentId, String token)
+    {
+        return MessageDigest.isEqual(token(segmentId).getBytes(UTF_8), token.getBytes(UTF_8));
+    }
+
+    private String token(String segmentId)
+    {
+        return tokenFunction.hashString(segmentId, UTF_8).toString();
+    }
+
+    private Path segmentFile(String segmentId)
+    {
+        return path.resolve(segmentId + SEGMENT_FILE_SUFFIX);
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getSpooledSegments()
+    {
+        return spooledSegments;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getSpooledBytes()
+    {
+        return spooledBytes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getDownloadedSegments()
+    {
+        return downloadedSegments;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getDiscardedSegments()
+    {
+        return discardedSegments;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getExpiredSegments()
+    {
+        return expiredSegments;
+    }
+
+    private static class Segment
+    {
+        private final QueryId queryId;
+        private final long createTime;
+
+        public Segment(QueryId queryId, long createTime)
+        {
+            this.queryId = requireNonNull(queryId, "queryId is null");
+            this.createTime = createTime;
+        }
+
+        public QueryId getQueryId()
+        {
+            return queryId;
+        }
+
+        public long getCreateTime()
+        {
+            return createTime;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.protocol;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import io.airlift.http.client.HttpClient;
+import io.airlift.http.client.StatusResponseHandler.StatusResponse;
+import io.airlift.log.Logger;
+import io.prestosql.execution.QueryInfo;
+import io.prestosql.execution.StageInfo;
+import io.prestosql.execution.TaskInfo;
+import io.prestosql.server.ForResultSpool;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+
+import java.net.URI;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
+import static io.airlift.http.client.Request.Builder.prepareDelete;
+import static io.airlift.http.client.StatusResponseHandler.createStatusResponseHandler;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Removes the result segments of a query from the {@link ResultSpool} of the nodes that ran
+ * the output stage, once the client will no longer download them.
+ */
+public class ResultSpoolCleaner
+{
+    private static final Logger log = Logger.get(ResultSpoolCleaner.class);
+
+    private final HttpClient httpClient;
+
+    @Inject
+    public ResultSpoolCleaner(@ForResultSpool HttpClient httpClient)
+    {
+        this.httpClient = requireNonNull(httpClient, "httpClient is null");
+    }
+
+    public void removeQuerySegments(QueryInfo queryInfo)
+    {
+        // the segments are spooled by the tasks of the output stage
+        Set<URI> uris = queryInfo.getOutputStage()
+                .map(StageInfo::getTasks)
+                .orElseGet(ImmutableList::of)
+                .stream()
+                .map(TaskInfo::getTaskStatus)
+                .map(taskStatus -> uriBuilderFrom(taskStatus.getSelf())
+                        .replacePath("/v1/spool/query")
+                        .appendPath(queryInfo.getQueryId().toString())
+                        .build())
+                .collect(toImmutableSet());
+
+        for (URI uri : uris) {
+            Futures.addCallback(httpClient.executeAsync(prepareDelete().setUri(uri).build(), createStatusResponseHandler()), new FutureCallback<>()
+            {
+                @Override
+                public void onSuccess(@Nullable StatusResponse result) {}
+
+                @Override
+                public void onFailure(Throwable t)
+                {
+                    // the segments are still removed when they expire
+                    log.warn(t, "Could not remove result segments of query %s at %s", queryInfo.getQueryId(), uri);
+                }
+            }, directExecutor());
+        }
+    }
+}
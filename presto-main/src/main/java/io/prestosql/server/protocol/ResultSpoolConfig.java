@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.protocol;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.airlift.units.MaxDataSize;
+import io.airlift.units.MinDataSize;
+import io.airlift.units.MinDuration;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import java.io.File;
+import java.net.URI;
+
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+public class ResultSpoolConfig
+{
+    private File path = new File(System.getProperty("java.io.tmpdir"), "presto-result-spool");
+    private DataSize segmentSize = DataSize.of(8, MEGABYTE);
+    private DataSize maxInlineSize = DataSize.of(128, KILOBYTE);
+    private Duration segmentTtl = new Duration(10, MINUTES);
+    private int threads = 4;
+    private URI externalUri;
+
+    @NotNull
+    public File getPath()
+    {
+        return path;
+    }
+
+    @Config("result-spool.path")
+    @ConfigDescription("Directory where the result segments of the query output stage are stored")
+    public ResultSpoolConfig setPath(File path)
+    {
+        this.path = path;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("1kB")
+    @MaxDataSize("1GB")
+    public DataSize getSegmentSize()
+    {
+        return segmentSize;
+    }
+
+    @Config("result-spool.segment-size")
+    @ConfigDescription("Size of the result pages stored in a single segment")
+    public ResultSpoolConfig setSegmentSize(DataSize segmentSize)
+    {
+        this.segmentSize = segmentSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxInlineSize()
+    {
+        return maxInlineSize;
+    }
+
+    @Config("result-spool.max-inline-size")
+    @ConfigDescription("Maximum encoded size of the last segment of a task that is returned through the coordinator instead of being stored")
+    public ResultSpoolConfig setMaxInlineSize(DataSize maxInlineSize)
+    {
+        this.maxInlineSize = maxInlineSize;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1s")
+    public Duration getSegmentTtl()
+    {
+        return segmentTtl;
+    }
+
+    @Config("result-spool.segment-ttl")
+    @ConfigDescription("Time after which segments which were not acknowledged by the client are removed")
+    public ResultSpoolConfig setSegmentTtl(Duration segmentTtl)
+    {
+        this.segmentTtl = segmentTtl;
+        return this;
+    }
+
+    @Min(1)
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    @Config("result-spool.threads")
+    public ResultSpoolConfig setThreads(int threads)
+    {
+        this.threads = threads;
+        return this;
+    }
+
+    public URI getExternalUri()
+    {
+        return externalUri;
+    }
+
+    @Config("result-spool.external-uri")
+    @ConfigDescription("Base URI of this node that clients can reach to download result segments. Segments are downloaded through the coordinator when not set")
+    public ResultSpoolConfig setExternalUri(URI externalUri)
+    {
+        this.externalUri = externalUri;
+        return this;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.protocol;
+
+import io.airlift.http.client.HttpClient;
+import io.airlift.http.client.HttpStatus.Family;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.ResponseHandler;
+import io.airlift.http.client.StatusResponseHandler.StatusResponse;
+import io.prestosql.metadata.InternalNode;
+import io.prestosql.metadata.InternalNodeManager;
+import io.prestosql.metadata.NodeState;
+import io.prestosql.server.ForResultSpool;
+import io.prestosql.server.security.ResourceSecurity;
+
+import javax.inject.Inject;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static com.google.common.io.ByteStreams.toByteArray;
+import static io.airlift.http.client.HttpStatus.NOT_FOUND;
+import static io.airlift.http.client.HttpStatus.familyForStatusCode;
+import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
+import static io.airlift.http.client.Request.Builder.prepareDelete;
+import static io.airlift.http.client.Request.Builder.prepareGet;
+import static io.airlift.http.client.StatusResponseHandler.createStatusResponseHandler;
+import static io.prestosql.server.security.ResourceSecurity.AccessType.PUBLIC;
+import static java.util.Objects.requireNonNull;
+import static javax.ws.rs.core.Response.Status.BAD_GATEWAY;
+
+/**
+ * Serves the result segments of workers which have no external URI configured, and so may not
+ * be reachable by clients. The requests are forwarded to {@link ResultSpoolResource} on the
+ * internal URI of the worker, which checks the token of the segment.
+ */
+@Path("/v1/spool/proxy")
+public class ResultSpoolProxyResource
+{
+    private final InternalNodeManager nodeManager;
+    private final HttpClient httpClient;
+
+    @Inject
+    public ResultSpoolProxyResource(InternalNodeManager nodeManager, @ForResultSpool HttpClient httpClient)
+    {
+        this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
+        this.httpClient = requireNonNull(httpClient, "httpClient is null");
+    }
+
+    @ResourceSecurity(PUBLIC)
+    @GET
+    @Path("{nodeId}/{segmentId}/{token}")
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    public byte[] getSegment(
+            @PathParam("nodeId") String nodeId,
+            @PathParam("segmentId") String segmentId,
+            @PathParam("token") String token)
+    {
+        Request request = prepareGet()
+                .setUri(workerSegmentUri(nodeId, segmentId, token))
+                .build();
+        return httpClient.execute(request, new SegmentResponseHandler());
+    }
+
+    @ResourceSecurity(PUBLIC)
+    @DELETE
+    @Path("{nodeId}/{segmentId}/{token}")
+    public void acknowledgeSegment(
+            @PathParam("nodeId") String nodeId,
+            @PathParam("segmentId") String segmentId,
+            @PathParam("token") String token)
+    {
+        Request request = prepareDelete()
+                .setUri(workerSegmentUri(nodeId, segmentId, token))
+                .build();
+        StatusResponse response = httpClient.execute(request, createStatusResponseHandler());
+        checkWorkerStatus(response.getStatusCode());
+    }
+
+    private URI workerSegmentUri(String nodeId, String segmentId, String token)
+    {
+        InternalNode node = nodeManager.getNodes(NodeState.ACTIVE).stream()
+                .filter(activeNode -> activeNode.getNodeIdentifier().equals(nodeId))
+                .findFirst()
+                // the segments of a node which is gone cannot be downloaded anymore
+                .orElseThrow(() -> new WebApplicationException(NOT_FOUND.code()));
+
+        return uriBuilderFrom(node.getInternalUri())
+                .appendPath("/v1/spool")
+                .appendPath(segmentId)
+                .appendPath(token)
+                .build();
+    }
+
+    private static void checkWorkerStatus(int statusCode)
+    {
+        if (statusCode == NOT_FOUND.code()) {
+            throw new WebApplicationException(NOT_FOUND.code());
+        }
+        if (familyForStatusCode(statusCode) != Family.SUCCESSFUL) {
+            throw new WebApplicationException(BAD_GATEWAY);
+        }
+    }
+
+    private static class SegmentResponseHandler
+            implements ResponseHandler<byte[], RuntimeException>
+    {
+        @Override
+        public byte[] handleException(Request request, Exception exception)
+        {
+            throw new WebApplicationException(exception, BAD_GATEWAY);
+        }
+
+        @Override
+        public byte[] handle(Request request, io.airlift.http.client.Response response)
+        {
+            checkWorkerStatus(response.getStatusCode());
+            try {
+                return toByteArray(response.getInputStream());
+            }
+            catch (IOException e) {
+                throw new WebApplicationException(e, BAD_GATEWAY);
+            }
+        }
+    }
+}
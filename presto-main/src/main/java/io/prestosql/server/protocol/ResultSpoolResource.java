@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.protocol;
+
+import io.prestosql.server.security.ResourceSecurity;
+import io.prestosql.spi.QueryId;
+
+import javax.inject.Inject;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+
+import static io.prestosql.server.security.ResourceSecurity.AccessType.INTERNAL_ONLY;
+import static io.prestosql.server.security.ResourceSecurity.AccessType.PUBLIC;
+import static java.util.Objects.requireNonNull;
+import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+
+/**
+ * Serves the result segments stored in {@link ResultSpool} to clients. Clients are not authenticated
+ * by the workers; a segment can only be read with the token contained in its URI, which is handed
+ * out in the results of the query. A segment can be read again until the client acknowledges it,
+ * so that a failed download can be retried.
+ */
+@Path("/v1/spool")
+public class ResultSpoolResource
+{
+    private final ResultSpool resultSpool;
+
+    @Inject
+    public ResultSpoolResource(ResultSpool resultSpool)
+    {
+        this.resultSpool = requireNonNull(resultSpool, "resultSpool is null");
+    }
+
+    @ResourceSecurity(PUBLIC)
+    @GET
+    @Path("{segmentId}/{token}")
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    public InputStream getSegment(@PathParam("segmentId") String segmentId, @PathParam("token") String token)
+            throws IOException
+    {
+        java.nio.file.Path segmentFile = resultSpool.getSegment(segmentId, token)
+                .orElseThrow(() -> new WebApplicationException(NOT_FOUND));
+        try {
+            return Files.newInputStream(segmentFile);
+        }
+        catch (NoSuchFileException e) {
+            // removed concurrently
+            throw new WebApplicationException(NOT_FOUND);
+        }
+    }
+
+    @ResourceSecurity(PUBLIC)
+    @DELETE
+    @Path("{segmentId}/{token}")
+    public void acknowledgeSegment(@PathParam("segmentId") String segmentId, @PathParam("token") String token)
+    {
+        if (!resultSpool.removeSegment(segmentId, token)) {
+            throw new WebApplicationException(NOT_FOUND);
+        }
+    }
+
+    @ResourceSecurity(INTERNAL_ONLY)
+    @DELETE
+    @Path("query/{queryId}")
+    public void removeQuerySegments(@PathParam("queryId") QueryId queryId)
+    {
+        resultSpool.removeQuerySegments(queryId);
+    }
+}
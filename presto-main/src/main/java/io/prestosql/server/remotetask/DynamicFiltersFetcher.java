@@ -15,10 +15,8 @@ package io.prestosql.server.remotetask;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
-import io.airlift.http.client.FullJsonResponseHandler.JsonResponse;
 import io.airlift.http.client.HttpClient;
 import io.airlift.http.client.Request;
-import io.airlift.json.JsonCodec;
 import io.airlift.units.Duration;
 import io.prestosql.execution.DynamicFiltersCollector.VersionedDynamicFilterDomains;
 import io.prestosql.execution.TaskId;
@@ -32,10 +30,9 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
+import static com.google.common.net.HttpHeaders.ACCEPT;
 import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
-import static com.google.common.net.MediaType.JSON_UTF_8;
 import static com.google.common.util.concurrent.Futures.addCallback;
-import static io.airlift.http.client.FullJsonResponseHandler.createFullJsonResponseHandler;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
 import static io.airlift.http.client.Request.Builder.prepareGet;
 import static io.airlift.units.Duration.nanosSince;
@@ -50,7 +47,7 @@ class DynamicFiltersFetcher
     private final TaskId taskId;
     private final URI taskUri;
     private final Consumer<Throwable> onFail;
-    private final JsonCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec;
+    private final RemoteTaskCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec;
     private final Duration refreshMaxWait;
     private final Executor executor;
     private final HttpClient httpClient;
@@ -66,14 +63,14 @@ class DynamicFiltersFetcher
     @GuardedBy("this")
     private boolean running;
     @GuardedBy("this")
-    private ListenableFuture<JsonResponse<VersionedDynamicFilterDomains>> future;
+    private ListenableFuture<RemoteTaskResponse<VersionedDynamicFilterDomains>> future;
 
     public DynamicFiltersFetcher(
             Consumer<Throwable> onFail,
             TaskId taskId,
             URI taskUri,
             Duration refreshMaxWait,
-            JsonCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec,
+            RemoteTaskCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec,
             Executor executor,
             HttpClient httpClient,
             Duration maxErrorDuration,
@@ -151,13 +148,14 @@ class DynamicFiltersFetcher
 
         Request request = prepareGet()
                 .setUri(uriBuilderFrom(taskUri).appendPath("dynamicfilters").build())
-                .setHeader(CONTENT_TYPE, JSON_UTF_8.toString())
+                .setHeader(CONTENT_TYPE, dynamicFilterDomainsCodec.getContentType())
+                .setHeader(ACCEPT, dynamicFilterDomainsCodec.getAccept())
                 .setHeader(PRESTO_CURRENT_VERSION, Long.toString(localDynamicFiltersVersion))
                 .setHeader(PRESTO_MAX_WAIT, refreshMaxWait.toString())
                 .build();
 
         errorTracker.startRequest();
-        future = httpClient.executeAsync(request, createFullJsonResponseHandler(dynamicFilterDomainsCodec));
+        future = httpClient.executeAsync(request, dynamicFilterDomainsCodec.createResponseHandler());
         currentRequestStartNanos.set(System.nanoTime());
         addCallback(future, new SimpleHttpResponseHandler<>(this, request.getUri(), stats), executor);
     }
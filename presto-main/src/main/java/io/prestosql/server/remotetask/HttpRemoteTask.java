@@ -19,16 +19,13 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
 import com.google.common.net.HttpHeaders;
-import com.google.common.net.MediaType;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
-import io.airlift.http.client.FullJsonResponseHandler.JsonResponse;
 import io.airlift.http.client.HttpClient;
 import io.airlift.http.client.HttpUriBuilder;
 import io.airlift.http.client.Request;
-import io.airlift.json.JsonCodec;
 import io.airlift.log.Logger;
 import io.airlift.units.Duration;
 import io.prestosql.Session;
@@ -61,6 +58,7 @@ import javax.annotation.concurrent.GuardedBy;
 import java.net.URI;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -83,7 +81,6 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
-import static io.airlift.http.client.FullJsonResponseHandler.createFullJsonResponseHandler;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
 import static io.airlift.http.client.Request.Builder.prepareDelete;
 import static io.airlift.http.client.Request.Builder.preparePost;
@@ -91,6 +88,7 @@ import static io.airlift.http.client.StaticBodyGenerator.createStaticBodyGenerat
 import static io.prestosql.execution.TaskInfo.createInitialTask;
 import static io.prestosql.execution.TaskState.ABORTED;
 import static io.prestosql.execution.TaskState.FAILED;
+import static io.prestosql.execution.TaskStatus.NO_ACKNOWLEDGED_SPLIT;
 import static io.prestosql.execution.TaskStatus.failWith;
 import static io.prestosql.server.remotetask.RequestErrorTracker.logError;
 import static io.prestosql.util.Failures.toFailure;
@@ -126,6 +124,8 @@ public final class HttpRemoteTask
     @GuardedBy("this")
     private final SetMultimap<PlanNodeId, ScheduledSplit> pendingSplits = HashMultimap.create();
     @GuardedBy("this")
+    private long maxAcknowledgedSplit = NO_ACKNOWLEDGED_SPLIT;
+    @GuardedBy("this")
     private volatile int pendingSourceSplitCount;
     @GuardedBy("this")
     private final SetMultimap<PlanNodeId, Lifespan> pendingNoMoreSplitsForLifespan = HashMultimap.create();
@@ -147,8 +147,8 @@ public final class HttpRemoteTask
     private final Executor executor;
     private final ScheduledExecutorService errorScheduledExecutor;
 
-    private final JsonCodec<TaskInfo> taskInfoCodec;
-    private final JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec;
+    private final RemoteTaskCodec<TaskInfo> taskInfoCodec;
+    private final RemoteTaskCodec<TaskUpdateRequest> taskUpdateRequestCodec;
 
     private final RequestErrorTracker updateErrorTracker;
 
@@ -176,10 +176,12 @@ public final class HttpRemoteTask
             Duration taskStatusRefreshMaxWait,
             Duration taskInfoUpdateInterval,
             boolean summarizeTaskInfo,
-            JsonCodec<TaskStatus> taskStatusCodec,
-            JsonCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec,
-            JsonCodec<TaskInfo> taskInfoCodec,
-            JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec,
+            boolean incrementalTaskInfo,
+            Duration taskInfoFullRefreshInterval,
+            RemoteTaskCodec<TaskStatus> taskStatusCodec,
+            RemoteTaskCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec,
+            RemoteTaskCodec<TaskInfo> taskInfoCodec,
+            RemoteTaskCodec<TaskUpdateRequest> taskUpdateRequestCodec,
             PartitionedSplitCountTracker partitionedSplitCountTracker,
             RemoteTaskStats stats,
             DynamicFilterService dynamicFilterService)
@@ -265,6 +267,8 @@ public final class HttpRemoteTask
                     taskInfoCodec,
                     maxErrorDuration,
                     summarizeTaskInfo,
+                    incrementalTaskInfo,
+                    taskInfoFullRefreshInterval,
                     executor,
                     updateScheduledExecutor,
                     errorScheduledExecutor,
@@ -276,6 +280,7 @@ public final class HttpRemoteTask
                     cleanUpTask();
                 }
                 else {
+                    removeAcknowledgedSplits(newStatus.getMaxAcknowledgedSplit());
                     partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
                     updateSplitQueueSpace();
                 }
@@ -489,6 +494,31 @@ public final class HttpRemoteTask
         partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
     }
 
+    /**
+     * Removes the pending splits which the task reports as received, so that an update
+     * retried after a lost response does not send them again.
+     */
+    private synchronized void removeAcknowledgedSplits(long newMaxAcknowledgedSplit)
+    {
+        if (newMaxAcknowledgedSplit <= maxAcknowledgedSplit) {
+            return;
+        }
+        maxAcknowledgedSplit = newMaxAcknowledgedSplit;
+
+        // sequence ids are assigned in order, so every split up to the acknowledged
+        // one was included in the update request which the task received
+        Iterator<Entry<PlanNodeId, ScheduledSplit>> iterator = pendingSplits.entries().iterator();
+        while (iterator.hasNext()) {
+            Entry<PlanNodeId, ScheduledSplit> entry = iterator.next();
+            if (entry.getValue().getSequenceId() <= newMaxAcknowledgedSplit) {
+                iterator.remove();
+                if (planFragment.isPartitionedSources(entry.getKey())) {
+                    pendingSourceSplitCount--;
+                }
+            }
+        }
+    }
+
     private void updateTaskInfo(TaskInfo taskInfo)
     {
         taskStatusFetcher.updateTaskStatus(taskInfo.getTaskStatus());
@@ -531,21 +561,22 @@ public final class HttpRemoteTask
                 sources,
                 outputBuffers.get(),
                 totalPartitions);
-        byte[] taskUpdateRequestJson = taskUpdateRequestCodec.toJsonBytes(updateRequest);
+        byte[] taskUpdateRequestBytes = taskUpdateRequestCodec.toBytes(updateRequest);
         if (fragment.isPresent()) {
-            stats.updateWithPlanBytes(taskUpdateRequestJson.length);
+            stats.updateWithPlanBytes(taskUpdateRequestBytes.length);
         }
 
         HttpUriBuilder uriBuilder = getHttpUriBuilder(taskStatus);
         Request request = preparePost()
                 .setUri(uriBuilder.build())
-                .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.JSON_UTF_8.toString())
-                .setBodyGenerator(createStaticBodyGenerator(taskUpdateRequestJson))
+                .setHeader(HttpHeaders.CONTENT_TYPE, taskUpdateRequestCodec.getContentType())
+                .setHeader(HttpHeaders.ACCEPT, taskInfoCodec.getAccept())
+                .setBodyGenerator(createStaticBodyGenerator(taskUpdateRequestBytes))
                 .build();
 
         updateErrorTracker.startRequest();
 
-        ListenableFuture<JsonResponse<TaskInfo>> future = httpClient.executeAsync(request, createFullJsonResponseHandler(taskInfoCodec));
+        ListenableFuture<RemoteTaskResponse<TaskInfo>> future = httpClient.executeAsync(request, taskInfoCodec.createResponseHandler());
         currentRequest = future;
         currentRequestStartNanos = System.nanoTime();
 
@@ -593,6 +624,7 @@ public final class HttpRemoteTask
             HttpUriBuilder uriBuilder = getHttpUriBuilder(taskStatus).addParameter("abort", "false");
             Request request = prepareDelete()
                     .setUri(uriBuilder.build())
+                    .setHeader(HttpHeaders.ACCEPT, taskInfoCodec.getAccept())
                     .build();
             scheduleAsyncCleanupRequest(createCleanupBackoff(), request, "cancel");
         }
@@ -624,6 +656,7 @@ public final class HttpRemoteTask
         HttpUriBuilder uriBuilder = getHttpUriBuilder(getTaskStatus());
         Request request = prepareDelete()
                 .setUri(uriBuilder.build())
+                .setHeader(HttpHeaders.ACCEPT, taskInfoCodec.getAccept())
                 .build();
 
         scheduleAsyncCleanupRequest(createCleanupBackoff(), request, "cleanup");
@@ -650,6 +683,7 @@ public final class HttpRemoteTask
             HttpUriBuilder uriBuilder = getHttpUriBuilder(getTaskStatus());
             Request request = prepareDelete()
                     .setUri(uriBuilder.build())
+                    .setHeader(HttpHeaders.ACCEPT, taskInfoCodec.getAccept())
                     .build();
             scheduleAsyncCleanupRequest(createCleanupBackoff(), request, "abort");
         }
@@ -667,10 +701,10 @@ public final class HttpRemoteTask
 
     private void doScheduleAsyncCleanupRequest(Backoff cleanupBackoff, Request request, String action)
     {
-        Futures.addCallback(httpClient.executeAsync(request, createFullJsonResponseHandler(taskInfoCodec)), new FutureCallback<>()
+        Futures.addCallback(httpClient.executeAsync(request, taskInfoCodec.createResponseHandler()), new FutureCallback<>()
         {
             @Override
-            public void onSuccess(JsonResponse<TaskInfo> result)
+            public void onSuccess(RemoteTaskResponse<TaskInfo> result)
             {
                 try {
                     updateTaskInfo(result.getValue());
@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.remotetask;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.net.MediaType;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.Response;
+import io.airlift.http.client.ResponseHandler;
+import io.airlift.json.JsonCodec;
+import io.prestosql.server.SmileCodec;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static com.google.common.net.MediaType.JSON_UTF_8;
+import static io.airlift.http.client.ResponseHandlerUtils.propagate;
+import static io.prestosql.PrestoMediaTypes.APPLICATION_JACKSON_SMILE;
+import static io.prestosql.PrestoMediaTypes.APPLICATION_JACKSON_SMILE_TYPE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Encodes the bodies sent to workers and decodes their responses. When a Smile codec is present,
+ * requests are sent as Smile and Smile responses are preferred, but JSON responses are still
+ * accepted so that workers without binary encoding keep working.
+ */
+public class RemoteTaskCodec<T>
+{
+    private static final MediaType JSON_TYPE = JSON_UTF_8.withoutParameters();
+    private static final String SMILE_ACCEPT = APPLICATION_JACKSON_SMILE + ", " + JSON_TYPE + ";q=0.5";
+
+    private final JsonCodec<T> jsonCodec;
+    private final Optional<SmileCodec<T>> smileCodec;
+
+    public static <T> RemoteTaskCodec<T> jsonCodec(JsonCodec<T> jsonCodec)
+    {
+        return new RemoteTaskCodec<>(jsonCodec, Optional.empty());
+    }
+
+    public static <T> RemoteTaskCodec<T> smileCodec(JsonCodec<T> jsonCodec, SmileCodec<T> smileCodec)
+    {
+        return new RemoteTaskCodec<>(jsonCodec, Optional.of(smileCodec));
+    }
+
+    private RemoteTaskCodec(JsonCodec<T> jsonCodec, Optional<SmileCodec<T>> smileCodec)
+    {
+        this.jsonCodec = requireNonNull(jsonCodec, "jsonCodec is null");
+        this.smileCodec = requireNonNull(smileCodec, "smileCodec is null");
+    }
+
+    public String getContentType()
+    {
+        return smileCodec.isPresent() ? APPLICATION_JACKSON_SMILE : JSON_UTF_8.toString();
+    }
+
+    public String getAccept()
+    {
+        return smileCodec.isPresent() ? SMILE_ACCEPT : JSON_TYPE.toString();
+    }
+
+    public byte[] toBytes(T instance)
+    {
+        return smileCodec
+                .map(codec -> codec.toBytes(instance))
+                .orElseGet(() -> jsonCodec.toJsonBytes(instance));
+    }
+
+    public ResponseHandler<RemoteTaskResponse<T>, RuntimeException> createResponseHandler()
+    {
+        return new RemoteTaskResponseHandler();
+    }
+
+    private class RemoteTaskResponseHandler
+            implements ResponseHandler<RemoteTaskResponse<T>, RuntimeException>
+    {
+        @Override
+        public RemoteTaskResponse<T> handleException(Request request, Exception exception)
+        {
+            throw propagate(request, exception);
+        }
+
+        @Override
+        public RemoteTaskResponse<T> handle(Request request, Response response)
+        {
+            byte[] bytes;
+            try {
+                bytes = ByteStreams.toByteArray(response.getInputStream());
+            }
+            catch (IOException e) {
+                throw new RuntimeException("Error reading response from server", e);
+            }
+
+            String contentType = response.getHeader(CONTENT_TYPE);
+            if (contentType == null) {
+                return RemoteTaskResponse.withoutValue(response.getStatusCode(), bytes);
+            }
+            MediaType mediaType = MediaType.parse(contentType);
+            try {
+                if (mediaType.is(APPLICATION_JACKSON_SMILE_TYPE) && smileCodec.isPresent()) {
+                    return RemoteTaskResponse.withValue(response.getStatusCode(), bytes, smileCodec.get().fromBytes(bytes));
+                }
+                if (mediaType.is(JSON_TYPE)) {
+                    return RemoteTaskResponse.withValue(response.getStatusCode(), bytes, jsonCodec.fromJson(bytes));
+                }
+            }
+            catch (IllegalArgumentException e) {
+                return RemoteTaskResponse.withException(response.getStatusCode(), bytes, e);
+            }
+            return RemoteTaskResponse.withoutValue(response.getStatusCode(), bytes);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.remotetask;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A fully read response from a worker, decoded from either JSON or Smile.
+ */
+public class RemoteTaskResponse<T>
+{
+    private final int statusCode;
+    private final byte[] responseBytes;
+    @Nullable
+    private final T value;
+    @Nullable
+    private final IllegalArgumentException exception;
+
+    public static <T> RemoteTaskResponse<T> withValue(int statusCode, byte[] responseBytes, T value)
+    {
+        return new RemoteTaskResponse<>(statusCode, responseBytes, requireNonNull(value, "value is null"), null);
+    }
+
+    public static <T> RemoteTaskResponse<T> withException(int statusCode, byte[] responseBytes, IllegalArgumentException exception)
+    {
+        return new RemoteTaskResponse<>(statusCode, responseBytes, null, requireNonNull(exception, "exception is null"));
+    }
+
+    public static <T> RemoteTaskResponse<T> withoutValue(int statusCode, byte[] responseBytes)
+    {
+        return new RemoteTaskResponse<>(statusCode, responseBytes, null, null);
+    }
+
+    private RemoteTaskResponse(int statusCode, byte[] responseBytes, @Nullable T value, @Nullable IllegalArgumentException exception)
+    {
+        this.statusCode = statusCode;
+        this.responseBytes = requireNonNull(responseBytes, "responseBytes is null");
+        this.value = value;
+        this.exception = exception;
+    }
+
+    public int getStatusCode()
+    {
+        return statusCode;
+    }
+
+    public boolean hasValue()
+    {
+        return value != null;
+    }
+
+    public T getValue()
+    {
+        if (value == null) {
+            throw new IllegalStateException("Response does not contain a value", exception);
+        }
+        return value;
+    }
+
+    @Nullable
+    public IllegalArgumentException getException()
+    {
+        return exception;
+    }
+
+    public int getResponseSize()
+    {
+        return responseBytes.length;
+    }
+
+    public String getResponseBody()
+    {
+        return new String(responseBytes, UTF_8);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("statusCode", statusCode)
+                .add("responseSize", responseBytes.length)
+                .add("hasValue", value != null)
+                .add("exception", exception)
+                .omitNullValues()
+                .toString();
+    }
+}
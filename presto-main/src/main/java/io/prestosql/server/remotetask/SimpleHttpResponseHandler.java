@@ -14,7 +14,6 @@
 package io.prestosql.server.remotetask;
 
 import com.google.common.util.concurrent.FutureCallback;
-import io.airlift.http.client.FullJsonResponseHandler;
 import io.airlift.http.client.HttpStatus;
 import io.prestosql.spi.PrestoException;
 
@@ -25,7 +24,7 @@ import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
 public class SimpleHttpResponseHandler<T>
-        implements FutureCallback<FullJsonResponseHandler.JsonResponse<T>>
+        implements FutureCallback<RemoteTaskResponse<T>>
 {
     private final SimpleHttpResponseCallback<T> callback;
 
@@ -40,7 +39,7 @@ public class SimpleHttpResponseHandler<T>
     }
 
     @Override
-    public void onSuccess(FullJsonResponseHandler.JsonResponse<T> response)
+    public void onSuccess(RemoteTaskResponse<T> response)
     {
         stats.updateSuccess();
         stats.responseSize(response.getResponseSize());
@@ -16,11 +16,9 @@ package io.prestosql.server.remotetask;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
-import io.airlift.http.client.FullJsonResponseHandler;
 import io.airlift.http.client.HttpClient;
 import io.airlift.http.client.HttpUriBuilder;
 import io.airlift.http.client.Request;
-import io.airlift.json.JsonCodec;
 import io.airlift.units.Duration;
 import io.prestosql.execution.StateMachine;
 import io.prestosql.execution.StateMachine.StateChangeListener;
@@ -39,14 +37,14 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
+import static com.google.common.net.HttpHeaders.ACCEPT;
 import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
-import static com.google.common.net.MediaType.JSON_UTF_8;
-import static io.airlift.http.client.FullJsonResponseHandler.createFullJsonResponseHandler;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
 import static io.airlift.http.client.Request.Builder.prepareGet;
 import static io.airlift.units.Duration.nanosSince;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class TaskInfoFetcher
         implements SimpleHttpResponseCallback<TaskInfo>
@@ -55,7 +53,7 @@ public class TaskInfoFetcher
     private final Consumer<Throwable> onFail;
     private final StateMachine<TaskInfo> taskInfo;
     private final StateMachine<Optional<TaskInfo>> finalTaskInfo;
-    private final JsonCodec<TaskInfo> taskInfoCodec;
+    private final RemoteTaskCodec<TaskInfo> taskInfoCodec;
 
     private final long updateIntervalMillis;
     private final AtomicLong lastUpdateNanos = new AtomicLong();
@@ -66,10 +64,18 @@ public class TaskInfoFetcher
     private final RequestErrorTracker errorTracker;
 
     private final boolean summarizeTaskInfo;
+    private final boolean incrementalInfoEnabled;
+    private final long fullRefreshIntervalNanos;
 
     @GuardedBy("this")
     private final AtomicLong currentRequestStartNanos = new AtomicLong();
 
+    @GuardedBy("this")
+    private boolean currentRequestIncremental;
+
+    @GuardedBy("this")
+    private long nextFullRefreshNanos;
+
     private final RemoteTaskStats stats;
 
     @GuardedBy("this")
@@ -79,16 +85,18 @@ public class TaskInfoFetcher
     private ScheduledFuture<?> scheduledFuture;
 
     @GuardedBy("this")
-    private ListenableFuture<FullJsonResponseHandler.JsonResponse<TaskInfo>> future;
+    private ListenableFuture<RemoteTaskResponse<TaskInfo>> future;
 
     public TaskInfoFetcher(
             Consumer<Throwable> onFail,
             TaskInfo initialTask,
             HttpClient httpClient,
             Duration updateInterval,
-            JsonCodec<TaskInfo> taskInfoCodec,
+            RemoteTaskCodec<TaskInfo> taskInfoCodec,
             Duration maxErrorDuration,
             boolean summarizeTaskInfo,
+            boolean incrementalInfoEnabled,
+            Duration fullRefreshInterval,
             Executor executor,
             ScheduledExecutorService updateScheduledExecutor,
             ScheduledExecutorService errorScheduledExecutor,
@@ -108,6 +116,9 @@ public class TaskInfoFetcher
         this.errorTracker = new RequestErrorTracker(taskId, initialTask.getTaskStatus().getSelf(), maxErrorDuration, errorScheduledExecutor, "getting info for task");
 
         this.summarizeTaskInfo = summarizeTaskInfo;
+        this.incrementalInfoEnabled = incrementalInfoEnabled;
+        this.fullRefreshIntervalNanos = requireNonNull(fullRefreshInterval, "fullRefreshInterval is null").roundTo(NANOSECONDS);
+        this.nextFullRefreshNanos = System.nanoTime();
 
         this.executor = requireNonNull(executor, "executor is null");
         this.httpClient = requireNonNull(httpClient, "httpClient is null");
@@ -201,14 +212,23 @@ public class TaskInfoFetcher
         }
 
         HttpUriBuilder httpUriBuilder = uriBuilderFrom(taskStatus.getSelf());
-        URI uri = summarizeTaskInfo ? httpUriBuilder.addParameter("summarize").build() : httpUriBuilder.build();
+        // summarized task info never contains pipeline statistics, so there is nothing to leave out
+        currentRequestIncremental = !summarizeTaskInfo && incrementalInfoEnabled && System.nanoTime() - nextFullRefreshNanos < 0;
+        if (summarizeTaskInfo) {
+            httpUriBuilder.addParameter("summarize");
+        }
+        else if (currentRequestIncremental) {
+            httpUriBuilder.addParameter("incremental");
+        }
+        URI uri = httpUriBuilder.build();
         Request request = prepareGet()
                 .setUri(uri)
-                .setHeader(CONTENT_TYPE, JSON_UTF_8.toString())
+                .setHeader(CONTENT_TYPE, taskInfoCodec.getContentType())
+                .setHeader(ACCEPT, taskInfoCodec.getAccept())
                 .build();
 
         errorTracker.startRequest();
-        future = httpClient.executeAsync(request, createFullJsonResponseHandler(taskInfoCodec));
+        future = httpClient.executeAsync(request, taskInfoCodec.createResponseHandler());
         currentRequestStartNanos.set(System.nanoTime());
         Futures.addCallback(future, new SimpleHttpResponseHandler<>(this, request.getUri(), stats), executor);
     }
@@ -239,12 +259,17 @@ public class TaskInfoFetcher
             lastUpdateNanos.set(System.nanoTime());
 
             long startNanos;
+            boolean incremental;
             synchronized (this) {
                 startNanos = this.currentRequestStartNanos.get();
+                incremental = currentRequestIncremental;
+                if (!incremental) {
+                    nextFullRefreshNanos = System.nanoTime() + fullRefreshIntervalNanos;
+                }
             }
             updateStats(startNanos);
             errorTracker.requestSucceeded();
-            updateTaskInfo(newValue);
+            updateTaskInfo(incremental ? addPipelineStats(newValue) : newValue);
         }
     }
 
@@ -278,6 +303,15 @@ public class TaskInfoFetcher
         }
     }
 
+    private synchronized TaskInfo addPipelineStats(TaskInfo newValue)
+    {
+        // a finished task, or a worker that does not support incremental updates, returns full task info
+        if (isDone(newValue) || !newValue.getStats().getPipelines().isEmpty()) {
+            return newValue;
+        }
+        return newValue.withStats(newValue.getStats().withPipelines(getTaskInfo().getStats().getPipelines()));
+    }
+
     private void updateStats(long currentRequestStartNanos)
     {
         stats.infoRoundTripMillis(nanosSince(currentRequestStartNanos).toMillis());
@@ -56,6 +56,13 @@ final class FileHolder
         return Files.newInputStream(filePath, options);
     }
 
+    public synchronized long size()
+            throws IOException
+    {
+        checkState(!deleted, "File already deleted");
+        return Files.size(filePath);
+    }
+
     @Override
     public synchronized void close()
     {
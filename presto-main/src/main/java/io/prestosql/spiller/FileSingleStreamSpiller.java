@@ -20,17 +20,20 @@ import com.google.common.io.Closer;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.slice.InputStreamSliceInput;
 import io.airlift.slice.OutputStreamSliceOutput;
 import io.airlift.slice.SliceOutput;
 import io.prestosql.execution.buffer.PagesSerde;
-import io.prestosql.execution.buffer.PagesSerdeUtil;
 import io.prestosql.execution.buffer.SerializedPage;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.operator.SpillContext;
+import io.prestosql.operator.WorkProcessor;
+import io.prestosql.operator.WorkProcessor.ProcessState;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
 
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import java.io.Closeable;
@@ -39,16 +42,20 @@ import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkState;
+import static io.prestosql.execution.buffer.PagesSerdeUtil.readSerializedPages;
 import static io.prestosql.execution.buffer.PagesSerdeUtil.writeSerializedPage;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
 import static java.nio.file.StandardOpenOption.APPEND;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 @NotThreadSafe
@@ -57,6 +64,8 @@ public class FileSingleStreamSpiller
 {
     @VisibleForTesting
     static final int BUFFER_SIZE = 4 * 1024;
+    @VisibleForTesting
+    static final int READ_AHEAD_PAGES = 2;
 
     private final FileHolder targetFile;
     private final Closer closer = Closer.create();
@@ -134,15 +143,25 @@ public class FileSingleStreamSpiller
         return readPages();
     }
 
+    @Override
+    public WorkProcessor<Page> readAheadSpilledPages()
+    {
+        checkNoSpillInProgress();
+        return WorkProcessor.create(new ReadAheadProcess(openSerializedPages()));
+    }
+
     @Override
     public ListenableFuture<List<Page>> getAllSpilledPages()
     {
-        return executor.submit(() -> ImmutableList.copyOf(getSpilledPages()));
+        checkNoSpillInProgress();
+        Iterator<Page> pages = readPages();
+        return executor.submit(() -> ImmutableList.copyOf(pages));
     }
 
     private void writePages(Iterator<Page> pageIterator)
     {
         checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
+        long start = System.nanoTime();
         try (SliceOutput output = new OutputStreamSliceOutput(targetFile.newOutputStream(APPEND), BUFFER_SIZE)) {
             while (pageIterator.hasNext()) {
                 Page page = pageIterator.next();
@@ -158,17 +177,37 @@ public class FileSingleStreamSpiller
             fileSystemErrorHandler.run();
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to spill pages", e);
         }
+        finally {
+            spillerStats.addToTotalSpillWriteTime(System.nanoTime() - start);
+        }
     }
 
     private Iterator<Page> readPages()
+    {
+        Iterator<SerializedPage> serializedPages = openSerializedPages();
+        return new AbstractIterator<>()
+        {
+            @Override
+            protected Page computeNext()
+            {
+                Optional<Page> page = readNextPage(serializedPages);
+                return page.isPresent() ? page.get() : endOfData();
+            }
+        };
+    }
+
+    private Iterator<SerializedPage> openSerializedPages()
     {
         checkState(writable, "Repeated reads are disallowed to prevent potential resource leaks");
         writable = false;
 
         try {
+            if (targetFile.size() == 0) {
+                // nothing was spilled, so there is no need to open the file
+                return emptyIterator();
+            }
             InputStream input = closer.register(targetFile.newInputStream());
-            Iterator<Page> pages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
-            return closeWhenExhausted(pages, input);
+            return closeWhenExhausted(readSerializedPages(new InputStreamSliceInput(input, BUFFER_SIZE)), input);
         }
         catch (IOException e) {
             fileSystemErrorHandler.run();
@@ -176,6 +215,145 @@ public class FileSingleStreamSpiller
         }
     }
 
+    private Optional<Page> readNextPage(Iterator<SerializedPage> serializedPages)
+    {
+        long start = System.nanoTime();
+        try {
+            if (!serializedPages.hasNext()) {
+                return Optional.empty();
+            }
+            SerializedPage serializedPage = serializedPages.next();
+            spillerStats.addToTotalUnspilledBytes(serializedPage.getSizeInBytes());
+            return Optional.of(serde.deserialize(serializedPage));
+        }
+        catch (UncheckedIOException e) {
+            fileSystemErrorHandler.run();
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to read spilled pages", e);
+        }
+        finally {
+            spillerStats.addToTotalUnspillReadTime(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Reads serialized pages on the spiller executor, at most {@link #READ_AHEAD_PAGES} ahead of the
+     * consumer. The pages are deserialized by the consumer. While no page has been read, the process
+     * is blocked on a future which completes once the next page, the end of the file or a failure is read.
+     */
+    private class ReadAheadProcess
+            implements WorkProcessor.Process<Page>
+    {
+        private final Iterator<SerializedPage> serializedPages;
+
+        @GuardedBy("this")
+        private final Deque<SerializedPage> readPages = new ArrayDeque<>();
+        @GuardedBy("this")
+        private long readPagesBytes;
+        @GuardedBy("this")
+        private boolean reading;
+        @GuardedBy("this")
+        private boolean endOfData;
+        @GuardedBy("this")
+        private Throwable failure;
+        @GuardedBy("this")
+        private SettableFuture<?> pageRead;
+
+        private ReadAheadProcess(Iterator<SerializedPage> serializedPages)
+        {
+            this.serializedPages = requireNonNull(serializedPages, "serializedPages is null");
+        }
+
+        @Override
+        public ProcessState<Page> process()
+        {
+            SerializedPage serializedPage;
+            ListenableFuture<?> blocked = null;
+            long bufferedBytes;
+            synchronized (this) {
+                if (failure != null) {
+                    fileSystemErrorHandler.run();
+                    throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to read spilled pages", failure);
+                }
+                serializedPage = readPages.poll();
+                if (serializedPage != null) {
+                    readPagesBytes -= serializedPage.getRetainedSizeInBytes();
+                }
+                else if (endOfData) {
+                    return ProcessState.finished();
+                }
+                if (!reading && !endOfData) {
+                    reading = true;
+                    executor.execute(this::readAhead);
+                }
+                if (serializedPage == null) {
+                    pageRead = SettableFuture.create();
+                    blocked = pageRead;
+                }
+                bufferedBytes = readPagesBytes;
+            }
+            // the pages read ahead are held in memory
+            memoryContext.setBytes(BUFFER_SIZE + bufferedBytes);
+
+            if (serializedPage == null) {
+                return ProcessState.blocked(blocked);
+            }
+            spillerStats.addToTotalUnspilledBytes(serializedPage.getSizeInBytes());
+            // the pages are deserialized outside of readAhead(), so the time is added separately, as it is part of the read time of readNextPage()
+            long start = System.nanoTime();
+            try {
+                return ProcessState.ofResult(serde.deserialize(serializedPage));
+            }
+            finally {
+                spillerStats.addToTotalUnspillReadTime(System.nanoTime() - start);
+            }
+        }
+
+        private void readAhead()
+        {
+            while (true) {
+                SerializedPage serializedPage = null;
+                Throwable readFailure = null;
+                long start = System.nanoTime();
+                try {
+                    if (serializedPages.hasNext()) {
+                        serializedPage = serializedPages.next();
+                    }
+                }
+                catch (RuntimeException e) {
+                    readFailure = e;
+                }
+                finally {
+                    spillerStats.addToTotalUnspillReadTime(System.nanoTime() - start);
+                }
+
+                SettableFuture<?> completed;
+                boolean continueReading;
+                synchronized (this) {
+                    if (readFailure != null) {
+                        failure = readFailure;
+                    }
+                    else if (serializedPage == null) {
+                        endOfData = true;
+                    }
+                    else {
+                        readPages.add(serializedPage);
+                        readPagesBytes += serializedPage.getRetainedSizeInBytes();
+                    }
+                    continueReading = failure == null && !endOfData && readPages.size() < READ_AHEAD_PAGES;
+                    reading = continueReading;
+                    completed = pageRead;
+                    pageRead = null;
+                }
+                if (completed != null) {
+                    completed.set(null);
+                }
+                if (!continueReading) {
+                    return;
+                }
+            }
+        }
+    }
+
     @Override
     public void close()
     {
@@ -18,6 +18,7 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.memory.context.AggregatedMemoryContext;
 import io.prestosql.operator.SpillContext;
+import io.prestosql.operator.WorkProcessor;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.type.Type;
 
@@ -76,6 +77,15 @@ public class GenericSpiller
                 .collect(toList());
     }
 
+    @Override
+    public List<WorkProcessor<Page>> readAheadSpills()
+    {
+        checkNoSpillInProgress();
+        return singleStreamSpillers.stream()
+                .map(SingleStreamSpiller::readAheadSpilledPages)
+                .collect(toList());
+    }
+
     @Override
     public void close()
     {
@@ -14,6 +14,7 @@
 package io.prestosql.spiller;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.operator.WorkProcessor;
 import io.prestosql.spi.Page;
 
 import java.io.Closeable;
@@ -47,6 +48,15 @@ public interface SingleStreamSpiller
      */
     Iterator<Page> getSpilledPages();
 
+    /**
+     * Returns previously spilled Pages like {@link #getSpilledPages()}, but reads them ahead of the
+     * consumer. Instead of waiting for a page to be read, the returned {@link WorkProcessor} is blocked.
+     */
+    default WorkProcessor<Page> readAheadSpilledPages()
+    {
+        return WorkProcessor.fromIterator(getSpilledPages());
+    }
+
     /**
      * Returns estimate size of pages that would be returned by {@link #getAllSpilledPages()}.
      */
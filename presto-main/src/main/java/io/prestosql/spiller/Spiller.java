@@ -14,12 +14,15 @@
 package io.prestosql.spiller;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.operator.WorkProcessor;
 import io.prestosql.spi.Page;
 
 import java.io.Closeable;
 import java.util.Iterator;
 import java.util.List;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
 public interface Spiller
         extends Closeable
 {
@@ -33,6 +36,17 @@ public interface Spiller
      */
     List<Iterator<Page>> getSpills();
 
+    /**
+     * Returns list of previously spilled Pages streams, which are read ahead of the consumer.
+     * A stream is blocked while its next page is being read.
+     */
+    default List<WorkProcessor<Page>> readAheadSpills()
+    {
+        return getSpills().stream()
+                .map(WorkProcessor::fromIterator)
+                .collect(toImmutableList());
+    }
+
     /**
      * Close releases/removes all underlying resources used during spilling
      * like for example all created temporary files.
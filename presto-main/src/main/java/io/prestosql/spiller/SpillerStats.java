@@ -17,9 +17,14 @@ import org.weakref.jmx.Managed;
 
 import java.util.concurrent.atomic.AtomicLong;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 public class SpillerStats
 {
     protected final AtomicLong totalSpilledBytes = new AtomicLong();
+    protected final AtomicLong totalSpillWriteTimeNanos = new AtomicLong();
+    protected final AtomicLong totalUnspilledBytes = new AtomicLong();
+    protected final AtomicLong totalUnspillReadTimeNanos = new AtomicLong();
 
     @Managed
     public long getTotalSpilledBytes()
@@ -31,4 +36,65 @@ public class SpillerStats
     {
         totalSpilledBytes.addAndGet(delta);
     }
+
+    @Managed
+    public long getTotalSpillWriteTimeNanos()
+    {
+        return totalSpillWriteTimeNanos.get();
+    }
+
+    public void addToTotalSpillWriteTime(long nanos)
+    {
+        totalSpillWriteTimeNanos.addAndGet(nanos);
+    }
+
+    @Managed
+    public long getTotalUnspilledBytes()
+    {
+        return totalUnspilledBytes.get();
+    }
+
+    public void addToTotalUnspilledBytes(long delta)
+    {
+        totalUnspilledBytes.addAndGet(delta);
+    }
+
+    @Managed
+    public long getTotalUnspillReadTimeNanos()
+    {
+        return totalUnspillReadTimeNanos.get();
+    }
+
+    public void addToTotalUnspillReadTime(long nanos)
+    {
+        totalUnspillReadTimeNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Bytes per second written to spill files, including serialization time
+     */
+    @Managed
+    public double getSpillWriteThroughput()
+    {
+        return throughput(totalSpilledBytes.get(), totalSpillWriteTimeNanos.get());
+    }
+
+    /**
+     * Bytes per second read from spill files, including deserialization time. When pages are
+     * read ahead, the time of the background reads and the time of deserialization on the
+     * consuming thread are both included.
+     */
+    @Managed
+    public double getUnspillReadThroughput()
+    {
+        return throughput(totalUnspilledBytes.get(), totalUnspillReadTimeNanos.get());
+    }
+
+    private static double throughput(long bytes, long nanos)
+    {
+        if (nanos == 0) {
+            return 0;
+        }
+        return bytes * (double) SECONDS.toNanos(1) / nanos;
+    }
 }
@@ -71,6 +71,10 @@ public class FeaturesConfig
     private boolean distributedIndexJoinsEnabled;
     private DataSize joinMaxBroadcastTableSize = DataSize.of(100, MEGABYTE);
     private JoinDistributionType joinDistributionType = JoinDistributionType.AUTOMATIC;
+    private boolean adaptiveJoinDistributionEnabled;
+    private DataSize adaptiveJoinMaxBroadcastBuildSize = DataSize.of(100, MEGABYTE);
+    private DataSize adaptiveJoinMinPartitionedBuildSize = DataSize.of(10, MEGABYTE);
+    private Duration adaptiveJoinMaxBuildWait = new Duration(1, MINUTES);
     private boolean colocatedJoinsEnabled;
     private boolean groupedExecutionEnabled;
     private boolean dynamicScheduleForGroupedExecution;
@@ -88,6 +92,7 @@ public class FeaturesConfig
     private boolean pushTableWriteThroughUnion = true;
     private DataIntegrityVerification exchangeDataIntegrityVerification = DataIntegrityVerification.ABORT;
     private boolean exchangeCompressionEnabled;
+    private boolean spooledResultsEnabled;
     private boolean optimizeMixedDistinctAggregations;
     private boolean unwrapCasts = true;
     private boolean forceSingleNodeOutput = true;
@@ -107,6 +112,7 @@ public class FeaturesConfig
     private boolean spillEnabled;
     private boolean spillOrderBy = true;
     private boolean spillWindowOperator = true;
+    private boolean spillSemiJoin = true;
     private DataSize aggregationOperatorUnspillMemoryLimit = DataSize.of(4, DataSize.Unit.MEGABYTE);
     private List<Path> spillerSpillPaths = ImmutableList.of();
     private int spillerThreads = 4;
@@ -123,6 +129,9 @@ public class FeaturesConfig
     private boolean parseDecimalLiteralsAsDouble;
     private boolean useMarkDistinct = true;
     private boolean preferPartialAggregation = true;
+    private boolean adaptivePartialAggregationEnabled = true;
+    private long adaptivePartialAggregationMinRows = 100_000;
+    private double adaptivePartialAggregationUniqueRowsRatioThreshold = 0.8;
     private boolean optimizeTopNRowNumber = true;
     private boolean lateMaterializationEnabled;
     private boolean skipRedundantSort = true;
@@ -254,6 +263,61 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isAdaptiveJoinDistributionEnabled()
+    {
+        return adaptiveJoinDistributionEnabled;
+    }
+
+    @Config("adaptive-join-distribution.enabled")
+    @ConfigDescription("Switch the distribution of joins at runtime based on the observed size of the build side")
+    public FeaturesConfig setAdaptiveJoinDistributionEnabled(boolean adaptiveJoinDistributionEnabled)
+    {
+        this.adaptiveJoinDistributionEnabled = adaptiveJoinDistributionEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getAdaptiveJoinMaxBroadcastBuildSize()
+    {
+        return adaptiveJoinMaxBroadcastBuildSize;
+    }
+
+    @Config("adaptive-join-distribution.max-broadcast-build-size")
+    @ConfigDescription("Observed build side size above which a broadcast join is switched to a partitioned join. The output buffers of the build tasks hold up to this size while the join is held")
+    public FeaturesConfig setAdaptiveJoinMaxBroadcastBuildSize(DataSize adaptiveJoinMaxBroadcastBuildSize)
+    {
+        this.adaptiveJoinMaxBroadcastBuildSize = adaptiveJoinMaxBroadcastBuildSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getAdaptiveJoinMinPartitionedBuildSize()
+    {
+        return adaptiveJoinMinPartitionedBuildSize;
+    }
+
+    @Config("adaptive-join-distribution.min-partitioned-build-size")
+    @ConfigDescription("Observed build side size below which a partitioned join is switched to a broadcast join")
+    public FeaturesConfig setAdaptiveJoinMinPartitionedBuildSize(DataSize adaptiveJoinMinPartitionedBuildSize)
+    {
+        this.adaptiveJoinMinPartitionedBuildSize = adaptiveJoinMinPartitionedBuildSize;
+        return this;
+    }
+
+    @NotNull
+    public Duration getAdaptiveJoinMaxBuildWait()
+    {
+        return adaptiveJoinMaxBuildWait;
+    }
+
+    @Config("adaptive-join-distribution.max-build-wait")
+    @ConfigDescription("Maximum time the stages which depend on an undecided adaptive join are held while its build side runs, after which the planned distribution is kept. This adds up to this much latency to queries whose build sides are slow to reach the thresholds")
+    public FeaturesConfig setAdaptiveJoinMaxBuildWait(Duration adaptiveJoinMaxBuildWait)
+    {
+        this.adaptiveJoinMaxBuildWait = adaptiveJoinMaxBuildWait;
+        return this;
+    }
+
     public boolean isGroupedExecutionEnabled()
     {
         return groupedExecutionEnabled;
@@ -434,6 +498,48 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isAdaptivePartialAggregationEnabled()
+    {
+        return adaptivePartialAggregationEnabled;
+    }
+
+    @Config("adaptive-partial-aggregation.enabled")
+    @ConfigDescription("Skip partial aggregation when it does not reduce the number of rows")
+    public FeaturesConfig setAdaptivePartialAggregationEnabled(boolean adaptivePartialAggregationEnabled)
+    {
+        this.adaptivePartialAggregationEnabled = adaptivePartialAggregationEnabled;
+        return this;
+    }
+
+    @Min(0)
+    public long getAdaptivePartialAggregationMinRows()
+    {
+        return adaptivePartialAggregationMinRows;
+    }
+
+    @Config("adaptive-partial-aggregation.min-rows")
+    @ConfigDescription("Minimum number of input rows processed by partial aggregation before it can be skipped")
+    public FeaturesConfig setAdaptivePartialAggregationMinRows(long adaptivePartialAggregationMinRows)
+    {
+        this.adaptivePartialAggregationMinRows = adaptivePartialAggregationMinRows;
+        return this;
+    }
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getAdaptivePartialAggregationUniqueRowsRatioThreshold()
+    {
+        return adaptivePartialAggregationUniqueRowsRatioThreshold;
+    }
+
+    @Config("adaptive-partial-aggregation.unique-rows-ratio-threshold")
+    @ConfigDescription("Ratio of unique groups to input rows above which partial aggregation is skipped")
+    public FeaturesConfig setAdaptivePartialAggregationUniqueRowsRatioThreshold(double adaptivePartialAggregationUniqueRowsRatioThreshold)
+    {
+        this.adaptivePartialAggregationUniqueRowsRatioThreshold = adaptivePartialAggregationUniqueRowsRatioThreshold;
+        return this;
+    }
+
     public boolean isOptimizeTopNRowNumber()
     {
         return optimizeTopNRowNumber;
@@ -559,6 +665,18 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isSpillSemiJoin()
+    {
+        return spillSemiJoin;
+    }
+
+    @Config("spill-semi-join")
+    public FeaturesConfig setSpillSemiJoin(boolean spillSemiJoin)
+    {
+        this.spillSemiJoin = spillSemiJoin;
+        return this;
+    }
+
     public Duration getIterativeOptimizerTimeout()
     {
         return iterativeOptimizerTimeout;
@@ -757,6 +875,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isSpooledResultsEnabled()
+    {
+        return spooledResultsEnabled;
+    }
+
+    @Config("spooled-results-enabled")
+    @ConfigDescription("Let clients download query results directly from the workers")
+    public FeaturesConfig setSpooledResultsEnabled(boolean spooledResultsEnabled)
+    {
+        this.spooledResultsEnabled = spooledResultsEnabled;
+        return this;
+    }
+
     public DataIntegrityVerification getExchangeDataIntegrityVerification()
     {
         return exchangeDataIntegrityVerification;
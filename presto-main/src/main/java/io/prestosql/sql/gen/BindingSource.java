@@ -0,0 +1,221 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.gen;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.prestosql.metadata.FunctionInvoker;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.metadata.ResolvedFunction;
+import io.prestosql.spi.function.InvocationConvention;
+import io.prestosql.spi.function.InvocationConvention.InvocationArgumentConvention;
+import io.prestosql.spi.function.InvocationConvention.InvocationReturnConvention;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeId;
+import io.prestosql.sql.tree.QualifiedName;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.io.BaseEncoding.base16;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Textual description of a call site binding. {@link GeneratedClassCache} stores the descriptions
+ * next to the bytecode, so that the bindings of a cached class can be recreated without generating
+ * the class again. Sources with a prefix not handled here are resolved by the compiler that
+ * created them.
+ */
+public final class BindingSource
+{
+    private static final String CONSTANT = "constant:";
+    private static final String FUNCTION = "function:";
+    private static final String INSTANCE_FACTORY = "instanceFactory:";
+
+    private static final Map<String, Class<?>> CONSTANT_CLASSES = Stream.of(
+            boolean.class,
+            long.class,
+            double.class,
+            int.class,
+            Boolean.class,
+            Long.class,
+            Double.class,
+            Integer.class,
+            String.class,
+            Slice.class,
+            Type.class,
+            Object.class)
+            .collect(toImmutableMap(Class::getName, identity()));
+
+    private BindingSource() {}
+
+    public static Optional<String> constant(Object value, Class<?> type)
+    {
+        if (CONSTANT_CLASSES.get(type.getName()) != type) {
+            return Optional.empty();
+        }
+
+        String encoded;
+        if (value == null) {
+            encoded = "null";
+        }
+        else if (value instanceof Boolean) {
+            encoded = "boolean:" + value;
+        }
+        else if (value instanceof Long) {
+            encoded = "long:" + value;
+        }
+        else if (value instanceof Double) {
+            encoded = "double:" + Double.doubleToRawLongBits((Double) value);
+        }
+        else if (value instanceof Integer) {
+            encoded = "int:" + value;
+        }
+        else if (value instanceof String) {
+            encoded = "string:" + base16().encode(((String) value).getBytes(UTF_8));
+        }
+        else if (value instanceof Slice) {
+            encoded = "slice:" + base16().encode(((Slice) value).getBytes());
+        }
+        else if (value instanceof Type) {
+            encoded = "type:" + ((Type) value).getTypeId().getId();
+        }
+        else {
+            return Optional.empty();
+        }
+        return Optional.of(CONSTANT + type.getName() + ":" + encoded);
+    }
+
+    public static String function(ResolvedFunction resolvedFunction, InvocationConvention invocationConvention)
+    {
+        return FUNCTION + encode(invocationConvention) + ":" + resolvedFunction.toQualifiedName().getSuffix();
+    }
+
+    public static String instanceFactory(ResolvedFunction resolvedFunction, InvocationConvention invocationConvention)
+    {
+        return INSTANCE_FACTORY + encode(invocationConvention) + ":" + resolvedFunction.toQualifiedName().getSuffix();
+    }
+
+    /**
+     * Resolver for constants and functions, which delegates other sources to the compiler.
+     */
+    public static Function<String, MethodHandle> resolver(Metadata metadata, Function<String, MethodHandle> compilerBindings)
+    {
+        return source -> {
+            if (source.startsWith(FUNCTION)) {
+                return resolveFunction(metadata, source.substring(FUNCTION.length())).getMethodHandle();
+            }
+            if (source.startsWith(INSTANCE_FACTORY)) {
+                return resolveFunction(metadata, source.substring(INSTANCE_FACTORY.length())).getInstanceFactory()
+                        .orElseThrow(() -> new IllegalArgumentException("Function has no instance factory: " + source));
+            }
+            return resolver(metadata::getType, compilerBindings).apply(source);
+        };
+    }
+
+    /**
+     * Resolver for constants, which delegates other sources to the compiler.
+     */
+    public static Function<String, MethodHandle> resolver(Function<TypeId, Type> typeLoader, Function<String, MethodHandle> compilerBindings)
+    {
+        return source -> {
+            if (source.startsWith(CONSTANT)) {
+                return resolveConstant(typeLoader, source.substring(CONSTANT.length()));
+            }
+            return compilerBindings.apply(source);
+        };
+    }
+
+    public static Function<String, MethodHandle> noCompilerBindings()
+    {
+        return source -> {
+            throw new IllegalArgumentException("Unknown binding source: " + source);
+        };
+    }
+
+    private static MethodHandle resolveConstant(Function<TypeId, Type> typeLoader, String source)
+    {
+        List<String> parts = Splitter.on(':').limit(3).splitToList(source);
+        Class<?> type = CONSTANT_CLASSES.get(parts.get(0));
+        checkArgument(type != null && parts.size() >= 2, "Invalid constant binding source: %s", source);
+        if (parts.get(1).equals("null")) {
+            return MethodHandles.constant(type, null);
+        }
+        checkArgument(parts.size() == 3, "Invalid constant binding source: %s", source);
+
+        String value = parts.get(2);
+        switch (parts.get(1)) {
+            case "boolean":
+                return MethodHandles.constant(type, Boolean.valueOf(value));
+            case "long":
+                return MethodHandles.constant(type, Long.valueOf(value));
+            case "double":
+                return MethodHandles.constant(type, Double.longBitsToDouble(Long.parseLong(value)));
+            case "int":
+                return MethodHandles.constant(type, Integer.valueOf(value));
+            case "string":
+                return MethodHandles.constant(type, new String(base16().decode(value), UTF_8));
+            case "slice":
+                return MethodHandles.constant(type, Slices.wrappedBuffer(base16().decode(value)));
+            case "type":
+                return MethodHandles.constant(type, typeLoader.apply(TypeId.of(value)));
+            default:
+                throw new IllegalArgumentException("Invalid constant binding source: " + source);
+        }
+    }
+
+    private static FunctionInvoker resolveFunction(Metadata metadata, String source)
+    {
+        List<String> parts = Splitter.on(':').limit(2).splitToList(source);
+        checkArgument(parts.size() == 2, "Invalid function binding source: %s", source);
+        ResolvedFunction resolvedFunction = metadata.decodeFunction(QualifiedName.of(parts.get(1)));
+        return metadata.getScalarFunctionInvoker(resolvedFunction, Optional.of(decodeConvention(parts.get(0))));
+    }
+
+    private static String encode(InvocationConvention convention)
+    {
+        return convention.getArgumentConventions().stream()
+                .map(InvocationArgumentConvention::name)
+                .collect(joining(",")) +
+                "/" + convention.getReturnConvention() +
+                "/" + convention.supportsSession() +
+                "/" + convention.supportsInstanceFactor();
+    }
+
+    private static InvocationConvention decodeConvention(String encoded)
+    {
+        List<String> parts = Splitter.on('/').splitToList(encoded);
+        checkArgument(parts.size() == 4, "Invalid invocation convention: %s", encoded);
+        List<InvocationArgumentConvention> argumentConventions = parts.get(0).isEmpty() ? ImmutableList.of() : Splitter.on(',').splitToList(parts.get(0)).stream()
+                .map(InvocationArgumentConvention::valueOf)
+                .collect(toImmutableList());
+        return new InvocationConvention(
+                argumentConventions,
+                InvocationReturnConvention.valueOf(parts.get(1)),
+                Boolean.parseBoolean(parts.get(2)),
+                Boolean.parseBoolean(parts.get(3)));
+    }
+}
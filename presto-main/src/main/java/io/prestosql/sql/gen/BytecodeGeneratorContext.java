@@ -80,6 +80,9 @@ public class BytecodeGeneratorContext
     public FunctionInvoker getScalarFunctionInvoker(ResolvedFunction resolvedFunction,
             Optional<InvocationConvention> invocationConvention)
     {
+        if (invocationConvention.isPresent()) {
+            return BytecodeUtils.getScalarFunctionInvoker(metadata, resolvedFunction, invocationConvention.get(), callSiteBinder);
+        }
         return metadata.getScalarFunctionInvoker(resolvedFunction, invocationConvention);
     }
 
@@ -39,7 +39,6 @@ import io.prestosql.sql.gen.InputReferenceCompiler.InputReferenceNode;
 import io.prestosql.type.FunctionType;
 
 import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.util.ArrayList;
 import java.util.List;
@@ -158,8 +157,7 @@ public final class BytecodeUtils
 
     public static BytecodeExpression loadConstant(CallSiteBinder callSiteBinder, Object constant, Class<?> type)
     {
-        Binding binding = callSiteBinder.bind(MethodHandles.constant(type, constant));
-        return loadConstant(binding);
+        return loadConstant(callSiteBinder.bind(constant, type));
     }
 
     public static BytecodeExpression loadConstant(Binding binding)
@@ -171,6 +169,18 @@ public final class BytecodeUtils
                 binding.getType().returnType());
     }
 
+    /**
+     * Gets the function invoker, and records the sources of its method handles for {@link GeneratedClassCache}.
+     */
+    public static FunctionInvoker getScalarFunctionInvoker(Metadata metadata, ResolvedFunction resolvedFunction, InvocationConvention invocationConvention, CallSiteBinder binder)
+    {
+        FunctionInvoker functionInvoker = metadata.getScalarFunctionInvoker(resolvedFunction, Optional.of(invocationConvention));
+        binder.setSource(functionInvoker.getMethodHandle(), BindingSource.function(resolvedFunction, invocationConvention));
+        functionInvoker.getInstanceFactory()
+                .ifPresent(instanceFactory -> binder.setSource(instanceFactory, BindingSource.instanceFactory(resolvedFunction, invocationConvention)));
+        return functionInvoker;
+    }
+
     public static BytecodeNode generateInvocation(
             Scope scope,
             ResolvedFunction resolvedFunction,
@@ -181,7 +191,7 @@ public final class BytecodeUtils
         return generateInvocation(
                 scope,
                 metadata.getFunctionMetadata(resolvedFunction),
-                invocationConvention -> metadata.getScalarFunctionInvoker(resolvedFunction, Optional.of(invocationConvention)),
+                invocationConvention -> getScalarFunctionInvoker(metadata, resolvedFunction, invocationConvention, binder),
                 arguments,
                 binder);
     }
@@ -225,7 +235,7 @@ public final class BytecodeUtils
         return generateFullInvocation(
                 scope,
                 metadata.getFunctionMetadata(resolvedFunction),
-                invocationConvention -> metadata.getScalarFunctionInvoker(resolvedFunction, Optional.of(invocationConvention)),
+                invocationConvention -> getScalarFunctionInvoker(metadata, resolvedFunction, invocationConvention, binder),
                 instanceFactory,
                 argumentCompilers,
                 binder);
@@ -18,7 +18,9 @@ import com.google.common.collect.ImmutableMap;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 
@@ -27,19 +29,40 @@ public final class CallSiteBinder
     private int nextId;
 
     private final Map<Long, MethodHandle> bindings = new HashMap<>();
+    private final Map<Long, String> bindingSources = new HashMap<>();
+    private final Map<MethodHandle, String> methodHandleSources = new IdentityHashMap<>();
 
     public Binding bind(MethodHandle method)
+    {
+        return bind(method, Optional.ofNullable(methodHandleSources.get(method)));
+    }
+
+    public Binding bind(MethodHandle method, String source)
+    {
+        return bind(method, Optional.of(source));
+    }
+
+    public Binding bind(Object constant, Class<?> type)
+    {
+        return bind(MethodHandles.constant(type, constant), BindingSource.constant(constant, type));
+    }
+
+    private Binding bind(MethodHandle method, Optional<String> source)
     {
         long bindingId = nextId++;
         Binding binding = new Binding(bindingId, method.type());
 
         bindings.put(bindingId, method);
+        source.ifPresent(value -> bindingSources.put(bindingId, value));
         return binding;
     }
 
-    public Binding bind(Object constant, Class<?> type)
+    /**
+     * Records the {@link BindingSource} of a method handle that is bound later, possibly by other code.
+     */
+    public void setSource(MethodHandle method, String source)
     {
-        return bind(MethodHandles.constant(type, constant));
+        methodHandleSources.putIfAbsent(method, source);
     }
 
     public Map<Long, MethodHandle> getBindings()
@@ -47,6 +70,17 @@ public final class CallSiteBinder
         return ImmutableMap.copyOf(bindings);
     }
 
+    /**
+     * Returns the sources of all bindings, or empty if the source of some binding is not known.
+     */
+    public Optional<Map<Long, String>> getBindingSources()
+    {
+        if (bindingSources.size() != bindings.size()) {
+            return Optional.empty();
+        }
+        return Optional.of(ImmutableMap.copyOf(bindingSources));
+    }
+
     @Override
     public String toString()
     {
@@ -0,0 +1,307 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.gen;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+import io.airlift.bytecode.ClassDefinition;
+import io.airlift.bytecode.CompilationException;
+import io.airlift.bytecode.DynamicClassLoader;
+import io.airlift.bytecode.SmartClassWriter;
+import io.airlift.log.Logger;
+import io.airlift.stats.CounterStat;
+import io.prestosql.client.NodeVersion;
+import io.prestosql.sql.planner.CompilerConfig;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.inject.Inject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.bytecode.ClassInfoLoader.createClassInfoLoader;
+import static io.prestosql.util.CompilerUtils.defineClass;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * On-disk cache of generated class files, shared by the bytecode compilers.
+ * <p>
+ * Entries are keyed by a fingerprint of the compiler input and the server version, and are looked up
+ * before the class is generated. Generated classes reference their call site bindings by id, so an
+ * entry stores the {@link BindingSource} and the type of each binding next to the bytecode, and the
+ * compiler supplies a resolver that recreates the bindings on a hit. Classes with a binding that has
+ * no known source are not cached. Entries are written atomically so that a directory can be shared
+ * by several processes.
+ */
+public class GeneratedClassCache
+{
+    private static final Logger log = Logger.get(GeneratedClassCache.class);
+
+    // change when the generated code changes in a way that is not reflected in the server version
+    private static final int FORMAT_VERSION = 2;
+    private static final String ENTRY_FILE_SUFFIX = ".entry";
+
+    private final Optional<Path> directory;
+    private final String version;
+
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat readFailures = new CounterStat();
+    private final CounterStat writeFailures = new CounterStat();
+
+    public static GeneratedClassCache noCache()
+    {
+        return new GeneratedClassCache(Optional.empty(), "");
+    }
+
+    @Inject
+    public GeneratedClassCache(CompilerConfig config, NodeVersion nodeVersion)
+    {
+        this(Optional.ofNullable(config.getBytecodeCacheDir()).map(File::toPath), nodeVersion.toString());
+    }
+
+    public GeneratedClassCache(Optional<Path> directory, String version)
+    {
+        this.directory = requireNonNull(directory, "directory is null");
+        this.version = requireNonNull(version, "version is null");
+        directory.ifPresent(path -> {
+            try {
+                Files.createDirectories(path);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("Cannot create bytecode cache directory: " + path, e);
+            }
+        });
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getReadFailures()
+    {
+        return readFailures;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getWriteFailures()
+    {
+        return writeFailures;
+    }
+
+    /**
+     * Defines the class, reusing the bytecode stored for the fingerprint if there is any.
+     * The class generator is only called on a miss. An empty fingerprint means that the
+     * compiler input cannot be identified reliably, and the class is always generated.
+     */
+    public <T> Class<? extends T> defineCachedClass(
+            Optional<String> fingerprint,
+            Class<T> superType,
+            ClassLoader parentClassLoader,
+            Function<String, MethodHandle> bindingResolver,
+            Function<CallSiteBinder, ClassDefinition> classGenerator)
+    {
+        if (directory.isEmpty() || fingerprint.isEmpty()) {
+            CallSiteBinder callSiteBinder = new CallSiteBinder();
+            ClassDefinition classDefinition = classGenerator.apply(callSiteBinder);
+            return defineClass(classDefinition, superType, callSiteBinder.getBindings(), parentClassLoader);
+        }
+
+        Path file = directory.get().resolve(entryName(fingerprint.get(), superType));
+        Optional<byte[]> entry = readEntry(file);
+        if (entry.isPresent()) {
+            try {
+                Class<? extends T> clazz = defineFromEntry(entry.get(), superType, parentClassLoader, bindingResolver);
+                hits.update(1);
+                return clazz;
+            }
+            catch (IOException | RuntimeException | LinkageError e) {
+                readFailures.update(1);
+                log.warn(e, "Ignoring invalid bytecode cache entry: %s", file);
+            }
+        }
+
+        misses.update(1);
+        CallSiteBinder callSiteBinder = new CallSiteBinder();
+        ClassDefinition classDefinition = classGenerator.apply(callSiteBinder);
+        Map<Long, MethodHandle> callSiteBindings = callSiteBinder.getBindings();
+        DynamicClassLoader classLoader = new DynamicClassLoader(parentClassLoader, callSiteBindings);
+        byte[] bytecode = generateBytecode(classDefinition, classLoader);
+        Class<?> clazz = classLoader.defineClass(classDefinition.getType().getJavaClassName(), bytecode);
+        callSiteBinder.getBindingSources()
+                .ifPresent(bindingSources -> writeEntry(file, encodeEntry(bytecode, callSiteBindings, bindingSources)));
+        return clazz.asSubclass(superType);
+    }
+
+    private String entryName(String fingerprint, Class<?> superType)
+    {
+        return Hashing.sha256().newHasher()
+                .putInt(FORMAT_VERSION)
+                .putString(version, UTF_8)
+                .putString(superType.getName(), UTF_8)
+                .putString(fingerprint, UTF_8)
+                .hash() + ENTRY_FILE_SUFFIX;
+    }
+
+    private static <T> Class<? extends T> defineFromEntry(byte[] entry, Class<T> superType, ClassLoader parentClassLoader, Function<String, MethodHandle> bindingResolver)
+            throws IOException
+    {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(entry));
+        int bindingCount = input.readInt();
+        ImmutableMap.Builder<Long, MethodHandle> callSiteBindings = ImmutableMap.builder();
+        for (int i = 0; i < bindingCount; i++) {
+            long bindingId = input.readLong();
+            String methodType = readString(input);
+            String source = readString(input);
+            MethodHandle methodHandle = bindingResolver.apply(source);
+            checkState(methodHandle.type().toMethodDescriptorString().equals(methodType), "Binding %s resolved to %s instead of %s", source, methodHandle.type(), methodType);
+            callSiteBindings.put(bindingId, methodHandle);
+        }
+        byte[] bytecode = readBytes(input);
+
+        String className = new ClassReader(bytecode).getClassName().replace('/', '.');
+        Class<?> clazz = new DynamicClassLoader(parentClassLoader, callSiteBindings.build()).defineClass(className, bytecode);
+        return clazz.asSubclass(superType);
+    }
+
+    private static byte[] encodeEntry(byte[] bytecode, Map<Long, MethodHandle> callSiteBindings, Map<Long, String> bindingSources)
+    {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(bytecode.length + 1024);
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeInt(bindingSources.size());
+            for (Map.Entry<Long, String> entry : new TreeMap<>(bindingSources).entrySet()) {
+                output.writeLong(entry.getKey());
+                writeString(output, callSiteBindings.get(entry.getKey()).type().toMethodDescriptorString());
+                writeString(output, entry.getValue());
+            }
+            output.writeInt(bytecode.length);
+            output.write(bytecode);
+            output.flush();
+            return bytes.toByteArray();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // unlike writeUTF, these support strings longer than 64KB, such as serialized functions
+    private static void writeString(DataOutputStream output, String value)
+            throws IOException
+    {
+        byte[] bytes = value.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input)
+            throws IOException
+    {
+        return new String(readBytes(input), UTF_8);
+    }
+
+    private static byte[] readBytes(DataInputStream input)
+            throws IOException
+    {
+        int length = input.readInt();
+        // guard against allocating a large array for a truncated or corrupted entry
+        checkState(length >= 0 && length <= input.available(), "Invalid length: %s", length);
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    private Optional<byte[]> readEntry(Path file)
+    {
+        try {
+            return Optional.of(Files.readAllBytes(file));
+        }
+        catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        catch (IOException e) {
+            readFailures.update(1);
+            log.warn(e, "Failed to read bytecode cache entry: %s", file);
+            return Optional.empty();
+        }
+    }
+
+    private void writeEntry(Path file, byte[] entry)
+    {
+        Path temporaryFile = null;
+        try {
+            temporaryFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(temporaryFile, entry);
+            Files.move(temporaryFile, file, ATOMIC_MOVE, REPLACE_EXISTING);
+        }
+        catch (IOException | RuntimeException e) {
+            writeFailures.update(1);
+            log.warn(e, "Failed to write bytecode cache entry: %s", file);
+            if (temporaryFile != null) {
+                try {
+                    Files.deleteIfExists(temporaryFile);
+                }
+                catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static byte[] generateBytecode(ClassDefinition classDefinition, ClassLoader classLoader)
+    {
+        // same as ClassGenerator, which does not expose the generated bytecode
+        ClassWriter writer = new SmartClassWriter(createClassInfoLoader(ImmutableList.of(classDefinition), classLoader));
+        classDefinition.visit(writer);
+        try {
+            return writer.toByteArray();
+        }
+        catch (RuntimeException e) {
+            throw new CompilationException("Error compiling class: " + classDefinition.getName(), e);
+        }
+    }
+}
@@ -13,6 +13,7 @@
  */
 package io.prestosql.sql.gen;
 
+import com.google.common.base.Splitter;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -45,6 +46,7 @@ import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.BigintType;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeId;
 import io.prestosql.spi.type.TypeOperators;
 import io.prestosql.sql.gen.JoinFilterFunctionCompiler.JoinFilterFunctionFactory;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
@@ -57,12 +59,16 @@ import javax.inject.Inject;
 import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.function.Function;
 import java.util.stream.IntStream;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.bytecode.Access.FINAL;
 import static io.airlift.bytecode.Access.PRIVATE;
@@ -86,13 +92,19 @@ import static io.prestosql.spi.function.InvocationConvention.InvocationReturnCon
 import static io.prestosql.spi.function.InvocationConvention.simpleConvention;
 import static io.prestosql.sql.gen.Bootstrap.BOOTSTRAP_METHOD;
 import static io.prestosql.sql.gen.SqlTypeBytecodeExpression.constantType;
-import static io.prestosql.util.CompilerUtils.defineClass;
 import static io.prestosql.util.CompilerUtils.makeClassName;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
 
 public class JoinCompiler
 {
+    private static final String HASH_CODE_OPERATOR = "hashCodeOperator";
+    private static final String DISTINCT_FROM_OPERATOR = "distinctFromOperator";
+    private static final String COMPARISON_OPERATOR = "comparisonOperator";
+    private static final String EQUAL_OPERATOR = "equalOperator";
+
     private final TypeOperators typeOperators;
+    private final GeneratedClassCache generatedClassCache;
 
     private final LoadingCache<CacheKey, LookupSourceSupplierFactory> lookupSourceFactories = CacheBuilder.newBuilder()
             .recordStats()
@@ -106,10 +118,16 @@ public class JoinCompiler
             .build(CacheLoader.from(key ->
                     internalCompileHashStrategy(key.getTypes(), key.getOutputChannels(), key.getJoinChannels(), key.getSortChannel())));
 
-    @Inject
     public JoinCompiler(TypeOperators typeOperators)
+    {
+        this(typeOperators, GeneratedClassCache.noCache());
+    }
+
+    @Inject
+    public JoinCompiler(TypeOperators typeOperators, GeneratedClassCache generatedClassCache)
     {
         this.typeOperators = requireNonNull(typeOperators, "typeOperators is null");
+        this.generatedClassCache = requireNonNull(generatedClassCache, "generatedClassCache is null");
     }
 
     @Managed
@@ -191,8 +209,20 @@ public class JoinCompiler
 
     private Class<? extends PagesHashStrategy> internalCompileHashStrategy(List<Type> types, List<Integer> outputChannels, List<Integer> joinChannels, Optional<Integer> sortChannel)
     {
-        CallSiteBinder callSiteBinder = new CallSiteBinder();
+        String fingerprint = types.stream()
+                .map(type -> type.getTypeSignature().toString())
+                .collect(joining(",", "types:", ":outputChannels:" + outputChannels + ":joinChannels:" + joinChannels + ":sortChannel:" + sortChannel));
+        Function<TypeId, Type> typeLoader = typeLoader(types);
+        return generatedClassCache.defineCachedClass(
+                Optional.of(fingerprint),
+                PagesHashStrategy.class,
+                getClass().getClassLoader(),
+                BindingSource.resolver(typeLoader, source -> resolveOperator(source, typeLoader)),
+                callSiteBinder -> defineHashStrategyClass(callSiteBinder, types, outputChannels, joinChannels, sortChannel));
+    }
 
+    private ClassDefinition defineHashStrategyClass(CallSiteBinder callSiteBinder, List<Type> types, List<Integer> outputChannels, List<Integer> joinChannels, Optional<Integer> sortChannel)
+    {
         ClassDefinition classDefinition = new ClassDefinition(
                 a(PUBLIC, FINAL),
                 makeClassName("PagesHashStrategy"),
@@ -230,8 +260,63 @@ public class JoinCompiler
         generateIsPositionNull(classDefinition, joinChannelFields);
         generateCompareSortChannelPositionsMethod(classDefinition, callSiteBinder, types, channelFields, sortChannel);
         generateIsSortChannelPositionNull(classDefinition, channelFields, sortChannel);
+        return classDefinition;
+    }
+
+    private static Function<TypeId, Type> typeLoader(List<Type> types)
+    {
+        Map<TypeId, Type> typesById = new HashMap<>();
+        typesById.put(BigintType.BIGINT.getTypeId(), BigintType.BIGINT);
+        types.forEach(type -> typesById.putIfAbsent(type.getTypeId(), type));
+        return typeId -> {
+            Type type = typesById.get(typeId);
+            checkArgument(type != null, "Unknown type: %s", typeId);
+            return type;
+        };
+    }
 
-        return defineClass(classDefinition, PagesHashStrategy.class, callSiteBinder.getBindings(), getClass().getClassLoader());
+    private MethodHandle resolveOperator(String source, Function<TypeId, Type> typeLoader)
+    {
+        List<String> parts = Splitter.on(':').limit(2).splitToList(source);
+        checkArgument(parts.size() == 2, "Unknown binding source: %s", source);
+        Type type = typeLoader.apply(TypeId.of(parts.get(1)));
+        switch (parts.get(0)) {
+            case HASH_CODE_OPERATOR:
+                return hashCodeOperator(type);
+            case DISTINCT_FROM_OPERATOR:
+                return distinctFromOperator(type);
+            case COMPARISON_OPERATOR:
+                return comparisonOperator(type);
+            case EQUAL_OPERATOR:
+                return equalOperator(type);
+            default:
+                throw new IllegalArgumentException("Unknown binding source: " + source);
+        }
+    }
+
+    private static String operatorSource(String operator, Type type)
+    {
+        return operator + ":" + type.getTypeId().getId();
+    }
+
+    private MethodHandle hashCodeOperator(Type type)
+    {
+        return typeOperators.getHashCodeOperator(type, simpleConvention(FAIL_ON_NULL, BLOCK_POSITION));
+    }
+
+    private MethodHandle distinctFromOperator(Type type)
+    {
+        return typeOperators.getDistinctFromOperator(type, simpleConvention(FAIL_ON_NULL, BLOCK_POSITION, BLOCK_POSITION));
+    }
+
+    private MethodHandle comparisonOperator(Type type)
+    {
+        return typeOperators.getComparisonOperator(type, simpleConvention(FAIL_ON_NULL, BLOCK_POSITION, BLOCK_POSITION));
+    }
+
+    private MethodHandle equalOperator(Type type)
+    {
+        return typeOperators.getEqualOperator(type, simpleConvention(NULLABLE_RETURN, BLOCK_POSITION, BLOCK_POSITION));
     }
 
     private static void generateConstructor(
@@ -488,11 +573,11 @@ public class JoinCompiler
 
     private BytecodeNode typeHashCode(CallSiteBinder callSiteBinder, Type type, BytecodeExpression blockRef, BytecodeExpression blockPosition)
     {
-        MethodHandle hashCodeOperator = typeOperators.getHashCodeOperator(type, simpleConvention(FAIL_ON_NULL, BLOCK_POSITION));
+        MethodHandle hashCodeOperator = hashCodeOperator(type);
         return new IfStatement()
                 .condition(blockRef.invoke("isNull", boolean.class, blockPosition))
                 .ifTrue(constantLong(0L))
-                .ifFalse(invokeDynamic(BOOTSTRAP_METHOD, ImmutableList.of(callSiteBinder.bind(hashCodeOperator).getBindingId()), "hash", hashCodeOperator.type(), blockRef, blockPosition));
+                .ifFalse(invokeDynamic(BOOTSTRAP_METHOD, ImmutableList.of(callSiteBinder.bind(hashCodeOperator, operatorSource(HASH_CODE_OPERATOR, type)).getBindingId()), "hash", hashCodeOperator.type(), blockRef, blockPosition));
     }
 
     private void generateRowEqualsRowMethod(
@@ -662,10 +747,10 @@ public class JoinCompiler
             BytecodeExpression rightBlock,
             BytecodeExpression rightBlockPosition)
     {
-        MethodHandle distinctFromOperator = typeOperators.getDistinctFromOperator(type, simpleConvention(FAIL_ON_NULL, BLOCK_POSITION, BLOCK_POSITION));
+        MethodHandle distinctFromOperator = distinctFromOperator(type);
         return invokeDynamic(
                 BOOTSTRAP_METHOD,
-                ImmutableList.of(callSiteBinder.bind(distinctFromOperator).getBindingId()),
+                ImmutableList.of(callSiteBinder.bind(distinctFromOperator, operatorSource(DISTINCT_FROM_OPERATOR, type)).getBindingId()),
                 "distinctFrom",
                 distinctFromOperator.type(),
                 leftBlock, leftBlockPosition, rightBlock, rightBlockPosition);
@@ -770,10 +855,10 @@ public class JoinCompiler
                 .invoke("get", Object.class, rightBlockIndex)
                 .cast(Block.class);
 
-        MethodHandle comparisonOperator = typeOperators.getComparisonOperator(types.get(index), simpleConvention(FAIL_ON_NULL, BLOCK_POSITION, BLOCK_POSITION));
+        MethodHandle comparisonOperator = comparisonOperator(types.get(index));
         BytecodeNode comparison = invokeDynamic(
                 BOOTSTRAP_METHOD,
-                ImmutableList.of(callSiteBinder.bind(comparisonOperator).getBindingId()),
+                ImmutableList.of(callSiteBinder.bind(comparisonOperator, operatorSource(COMPARISON_OPERATOR, types.get(index))).getBindingId()),
                 "comparison",
                 long.class,
                 leftBlock, leftBlockPosition, rightBlock, rightBlockPosition)
@@ -854,10 +939,10 @@ public class JoinCompiler
             BytecodeExpression rightBlock,
             BytecodeExpression rightBlockPosition)
     {
-        MethodHandle equalOperator = typeOperators.getEqualOperator(type, simpleConvention(NULLABLE_RETURN, BLOCK_POSITION, BLOCK_POSITION));
+        MethodHandle equalOperator = equalOperator(type);
         BytecodeExpression equalInvocation = invokeDynamic(
                 BOOTSTRAP_METHOD,
-                ImmutableList.of(callSiteBinder.bind(equalOperator).getBindingId()),
+                ImmutableList.of(callSiteBinder.bind(equalOperator, operatorSource(EQUAL_OPERATOR, type)).getBindingId()),
                 "equal",
                 equalOperator.type(),
                 leftBlock, leftBlockPosition, rightBlock, rightBlockPosition);
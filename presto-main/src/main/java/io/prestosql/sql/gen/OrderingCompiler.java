@@ -14,6 +14,7 @@
 package io.prestosql.sql.gen;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -39,6 +40,7 @@ import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.connector.SortOrder;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeId;
 import io.prestosql.spi.type.TypeOperators;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
@@ -48,9 +50,14 @@ import org.weakref.jmx.Nested;
 import javax.inject.Inject;
 
 import java.lang.invoke.MethodHandle;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static io.airlift.bytecode.Access.FINAL;
 import static io.airlift.bytecode.Access.PUBLIC;
 import static io.airlift.bytecode.Access.a;
@@ -63,13 +70,14 @@ import static io.prestosql.spi.function.InvocationConvention.InvocationArgumentC
 import static io.prestosql.spi.function.InvocationConvention.InvocationReturnConvention.FAIL_ON_NULL;
 import static io.prestosql.spi.function.InvocationConvention.simpleConvention;
 import static io.prestosql.sql.gen.Bootstrap.BOOTSTRAP_METHOD;
-import static io.prestosql.util.CompilerUtils.defineClass;
 import static io.prestosql.util.CompilerUtils.makeClassName;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
 
 public class OrderingCompiler
 {
     private static final Logger log = Logger.get(OrderingCompiler.class);
+    private static final String ORDERING_OPERATOR = "orderingOperator";
 
     private final LoadingCache<PagesIndexComparatorCacheKey, PagesIndexOrdering> pagesIndexOrderings = CacheBuilder.newBuilder()
             .recordStats()
@@ -82,11 +90,18 @@ public class OrderingCompiler
             .build(CacheLoader.from(key -> internalCompilePageWithPositionComparator(key.getSortTypes(), key.getSortChannels(), key.getSortOrders())));
 
     private final TypeOperators typeOperators;
+    private final GeneratedClassCache generatedClassCache;
 
-    @Inject
     public OrderingCompiler(TypeOperators typeOperators)
+    {
+        this(typeOperators, GeneratedClassCache.noCache());
+    }
+
+    @Inject
+    public OrderingCompiler(TypeOperators typeOperators, GeneratedClassCache generatedClassCache)
     {
         this.typeOperators = requireNonNull(typeOperators, "typeOperators is null");
+        this.generatedClassCache = requireNonNull(generatedClassCache, "generatedClassCache is null");
     }
 
     @Managed
@@ -137,18 +152,23 @@ public class OrderingCompiler
             List<Integer> sortChannels,
             List<SortOrder> sortOrders)
     {
-        CallSiteBinder callSiteBinder = new CallSiteBinder();
-
-        ClassDefinition classDefinition = new ClassDefinition(
-                a(PUBLIC, FINAL),
-                makeClassName("PagesIndexComparator"),
-                type(Object.class),
-                type(PagesIndexComparator.class));
-
-        classDefinition.declareDefaultConstructor(a(PUBLIC));
-        generatePageIndexCompareTo(classDefinition, callSiteBinder, sortTypes, sortChannels, sortOrders);
-
-        return defineClass(classDefinition, PagesIndexComparator.class, callSiteBinder.getBindings(), getClass().getClassLoader());
+        Function<TypeId, Type> typeLoader = typeLoader(sortTypes);
+        return generatedClassCache.defineCachedClass(
+                Optional.of(fingerprint(sortTypes, sortChannels, sortOrders)),
+                PagesIndexComparator.class,
+                getClass().getClassLoader(),
+                BindingSource.resolver(typeLoader, source -> resolveOrderingOperator(source, typeLoader)),
+                callSiteBinder -> {
+                    ClassDefinition classDefinition = new ClassDefinition(
+                            a(PUBLIC, FINAL),
+                            makeClassName("PagesIndexComparator"),
+                            type(Object.class),
+                            type(PagesIndexComparator.class));
+
+                    classDefinition.declareDefaultConstructor(a(PUBLIC));
+                    generatePageIndexCompareTo(classDefinition, callSiteBinder, sortTypes, sortChannels, sortOrders);
+                    return classDefinition;
+                });
     }
 
     private void generatePageIndexCompareTo(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, List<Type> sortTypes, List<Integer> sortChannels, List<SortOrder> sortOrders)
@@ -222,7 +242,7 @@ public class OrderingCompiler
 
             block.append(invokeDynamic(
                     BOOTSTRAP_METHOD,
-                    ImmutableList.of(callSiteBinder.bind(compareBlockValue).getBindingId()),
+                    ImmutableList.of(callSiteBinder.bind(compareBlockValue, orderingOperatorSource(sortOrder, sortType)).getBindingId()),
                     "compareBlockValue",
                     compareBlockValue.type(),
                     leftBlock,
@@ -252,6 +272,36 @@ public class OrderingCompiler
         return typeOperators.getOrderingOperator(sortType, sortOrder, simpleConvention(FAIL_ON_NULL, BLOCK_POSITION, BLOCK_POSITION));
     }
 
+    private static String orderingOperatorSource(SortOrder sortOrder, Type sortType)
+    {
+        return ORDERING_OPERATOR + ":" + sortOrder + ":" + sortType.getTypeId().getId();
+    }
+
+    private MethodHandle resolveOrderingOperator(String source, Function<TypeId, Type> typeLoader)
+    {
+        List<String> parts = Splitter.on(':').limit(3).splitToList(source);
+        checkArgument(parts.size() == 3 && parts.get(0).equals(ORDERING_OPERATOR), "Unknown binding source: %s", source);
+        return getBlockPositionOrderingOperator(SortOrder.valueOf(parts.get(1)), typeLoader.apply(TypeId.of(parts.get(2))));
+    }
+
+    private static String fingerprint(List<Type> types, List<Integer> sortChannels, List<SortOrder> sortOrders)
+    {
+        return types.stream()
+                .map(type -> type.getTypeSignature().toString())
+                .collect(joining(",", "types:", ":sortChannels:" + sortChannels + ":sortOrders:" + sortOrders));
+    }
+
+    private static Function<TypeId, Type> typeLoader(List<Type> types)
+    {
+        Map<TypeId, Type> typesById = new HashMap<>();
+        types.forEach(type -> typesById.putIfAbsent(type.getTypeId(), type));
+        return typeId -> {
+            Type type = typesById.get(typeId);
+            checkArgument(type != null, "Unknown type: %s", typeId);
+            return type;
+        };
+    }
+
     public PageWithPositionComparator compilePageWithPositionComparator(List<Type> sortTypes, List<Integer> sortChannels, List<SortOrder> sortOrders)
     {
         requireNonNull(sortTypes, "sortTypes is null");
@@ -277,19 +327,24 @@ public class OrderingCompiler
 
     private Class<? extends PageWithPositionComparator> generatePageWithPositionComparatorClass(List<Type> sortTypes, List<Integer> sortChannels, List<SortOrder> sortOrders)
     {
-        CallSiteBinder callSiteBinder = new CallSiteBinder();
-
-        ClassDefinition classDefinition = new ClassDefinition(
-                a(PUBLIC, FINAL),
-                makeClassName("PageWithPositionComparator"),
-                type(Object.class),
-                type(PageWithPositionComparator.class));
-
-        classDefinition.declareDefaultConstructor(a(PUBLIC));
-
-        generateMergeSortCompareTo(classDefinition, callSiteBinder, sortTypes, sortChannels, sortOrders);
-
-        return defineClass(classDefinition, PageWithPositionComparator.class, callSiteBinder.getBindings(), getClass().getClassLoader());
+        Function<TypeId, Type> typeLoader = typeLoader(sortTypes);
+        return generatedClassCache.defineCachedClass(
+                Optional.of(fingerprint(sortTypes, sortChannels, sortOrders)),
+                PageWithPositionComparator.class,
+                getClass().getClassLoader(),
+                BindingSource.resolver(typeLoader, source -> resolveOrderingOperator(source, typeLoader)),
+                callSiteBinder -> {
+                    ClassDefinition classDefinition = new ClassDefinition(
+                            a(PUBLIC, FINAL),
+                            makeClassName("PageWithPositionComparator"),
+                            type(Object.class),
+                            type(PageWithPositionComparator.class));
+
+                    classDefinition.declareDefaultConstructor(a(PUBLIC));
+
+                    generateMergeSortCompareTo(classDefinition, callSiteBinder, sortTypes, sortChannels, sortOrders);
+                    return classDefinition;
+                });
     }
 
     private void generateMergeSortCompareTo(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, List<Type> types, List<Integer> sortChannels, List<SortOrder> sortOrders)
@@ -317,7 +372,7 @@ public class OrderingCompiler
 
             block.append(invokeDynamic(
                     BOOTSTRAP_METHOD,
-                    ImmutableList.of(callSiteBinder.bind(compareBlockValue).getBindingId()),
+                    ImmutableList.of(callSiteBinder.bind(compareBlockValue, orderingOperatorSource(sortOrder, sortType)).getBindingId()),
                     "compareBlockValue",
                     compareBlockValue.type(),
                     leftBlock,
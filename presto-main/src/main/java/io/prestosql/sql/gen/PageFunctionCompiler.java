@@ -63,6 +63,8 @@ import org.weakref.jmx.Nested;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -72,6 +74,7 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
 import static io.airlift.bytecode.Access.FINAL;
 import static io.airlift.bytecode.Access.PRIVATE;
 import static io.airlift.bytecode.Access.PUBLIC;
@@ -93,15 +96,17 @@ import static io.prestosql.spi.StandardErrorCode.COMPILER_ERROR;
 import static io.prestosql.sql.gen.BytecodeUtils.generateWrite;
 import static io.prestosql.sql.gen.BytecodeUtils.invoke;
 import static io.prestosql.sql.gen.LambdaExpressionExtractor.extractLambdaExpressions;
-import static io.prestosql.util.CompilerUtils.defineClass;
 import static io.prestosql.util.CompilerUtils.makeClassName;
 import static io.prestosql.util.Reflection.constructorMethodHandle;
 import static java.util.Objects.requireNonNull;
 
 public class PageFunctionCompiler
 {
+    private static final String INPUT_CHANNELS_BINDING = "inputChannels";
+
     private final Metadata metadata;
     private final DeterminismEvaluator determinismEvaluator;
+    private final GeneratedClassCache generatedClassCache;
 
     private final LoadingCache<RowExpression, Supplier<PageProjection>> projectionCache;
     private final LoadingCache<RowExpression, Supplier<PageFilter>> filterCache;
@@ -110,15 +115,21 @@ public class PageFunctionCompiler
     private final CacheStatsMBean filterCacheStats;
 
     @Inject
-    public PageFunctionCompiler(Metadata metadata, CompilerConfig config)
+    public PageFunctionCompiler(Metadata metadata, CompilerConfig config, GeneratedClassCache generatedClassCache)
     {
-        this(metadata, requireNonNull(config, "config is null").getExpressionCacheSize());
+        this(metadata, requireNonNull(config, "config is null").getExpressionCacheSize(), generatedClassCache);
     }
 
     public PageFunctionCompiler(Metadata metadata, int expressionCacheSize)
+    {
+        this(metadata, expressionCacheSize, GeneratedClassCache.noCache());
+    }
+
+    public PageFunctionCompiler(Metadata metadata, int expressionCacheSize, GeneratedClassCache generatedClassCache)
     {
         this.metadata = requireNonNull(metadata, "metadata is null");
         this.determinismEvaluator = new DeterminismEvaluator(metadata);
+        this.generatedClassCache = requireNonNull(generatedClassCache, "generatedClassCache is null");
 
         if (expressionCacheSize > 0) {
             projectionCache = CacheBuilder.newBuilder()
@@ -187,14 +198,15 @@ public class PageFunctionCompiler
 
         PageFieldsToInputParametersRewriter.Result result = rewritePageFieldsToInputParameters(projection);
 
-        CallSiteBinder callSiteBinder = new CallSiteBinder();
-
         // generate Work
-        ClassDefinition pageProjectionWorkDefinition = definePageProjectWorkClass(result.getRewrittenExpression(), callSiteBinder, classNameSuffix);
-
         Class<?> pageProjectionWorkClass;
         try {
-            pageProjectionWorkClass = defineClass(pageProjectionWorkDefinition, Work.class, callSiteBinder.getBindings(), getClass().getClassLoader());
+            pageProjectionWorkClass = generatedClassCache.defineCachedClass(
+                    fingerprint("projection", result),
+                    Work.class,
+                    getClass().getClassLoader(),
+                    BindingSource.resolver(metadata, BindingSource.noCompilerBindings()),
+                    callSiteBinder -> definePageProjectWorkClass(result.getRewrittenExpression(), callSiteBinder, classNameSuffix));
         }
         catch (Exception e) {
             if (Throwables.getRootCause(e) instanceof MethodTooLargeException) {
@@ -211,6 +223,12 @@ public class PageFunctionCompiler
                 constructorMethodHandle(pageProjectionWorkClass, BlockBuilder.class, ConnectorSession.class, Page.class, SelectedPositions.class));
     }
 
+    private static Optional<String> fingerprint(String kind, PageFieldsToInputParametersRewriter.Result result)
+    {
+        return RowExpressionFingerprint.fingerprint(result.getRewrittenExpression())
+                .map(expression -> kind + ":" + result.getInputChannels().getInputChannels() + ":" + expression);
+    }
+
     private static ParameterizedType generateProjectionWorkClassName(Optional<String> classNameSuffix)
     {
         return makeClassName("PageProjectionWork", classNameSuffix);
@@ -378,12 +396,14 @@ public class PageFunctionCompiler
 
         PageFieldsToInputParametersRewriter.Result result = rewritePageFieldsToInputParameters(filter);
 
-        CallSiteBinder callSiteBinder = new CallSiteBinder();
-        ClassDefinition classDefinition = defineFilterClass(result.getRewrittenExpression(), result.getInputChannels(), callSiteBinder, classNameSuffix);
-
         Class<? extends PageFilter> functionClass;
         try {
-            functionClass = defineClass(classDefinition, PageFilter.class, callSiteBinder.getBindings(), getClass().getClassLoader());
+            functionClass = generatedClassCache.defineCachedClass(
+                    fingerprint("filter", result),
+                    PageFilter.class,
+                    getClass().getClassLoader(),
+                    BindingSource.resolver(metadata, source -> inputChannelsBinding(source, result.getInputChannels())),
+                    callSiteBinder -> defineFilterClass(result.getRewrittenExpression(), result.getInputChannels(), callSiteBinder, classNameSuffix));
         }
         catch (Exception e) {
             if (Throwables.getRootCause(e) instanceof MethodTooLargeException) {
@@ -403,6 +423,12 @@ public class PageFunctionCompiler
         };
     }
 
+    private static MethodHandle inputChannelsBinding(String source, InputChannels inputChannels)
+    {
+        checkArgument(source.equals(INPUT_CHANNELS_BINDING), "Unknown binding source: %s", source);
+        return MethodHandles.constant(InputChannels.class, inputChannels);
+    }
+
     private static ParameterizedType generateFilterClassName(Optional<String> classNameSuffix)
     {
         return makeClassName(PageFilter.class.getSimpleName(), classNameSuffix);
@@ -433,7 +459,7 @@ public class PageFunctionCompiler
         // getInputChannels
         classDefinition.declareMethod(a(PUBLIC), "getInputChannels", type(InputChannels.class))
                 .getBody()
-                .append(invoke(callSiteBinder.bind(inputChannels, InputChannels.class), "getInputChannels"))
+                .append(invoke(callSiteBinder.bind(MethodHandles.constant(InputChannels.class, inputChannels), INPUT_CHANNELS_BINDING), "getInputChannels"))
                 .retObject();
 
         // toString
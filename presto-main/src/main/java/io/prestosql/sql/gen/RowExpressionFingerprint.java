@@ -0,0 +1,149 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.gen;
+
+import io.airlift.slice.Slice;
+import io.prestosql.metadata.ResolvedFunction;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.relational.CallExpression;
+import io.prestosql.sql.relational.ConstantExpression;
+import io.prestosql.sql.relational.InputReferenceExpression;
+import io.prestosql.sql.relational.LambdaDefinitionExpression;
+import io.prestosql.sql.relational.RowExpression;
+import io.prestosql.sql.relational.RowExpressionVisitor;
+import io.prestosql.sql.relational.SpecialForm;
+import io.prestosql.sql.relational.VariableReferenceExpression;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.io.BaseEncoding.base16;
+
+/**
+ * Canonical textual form of a {@link RowExpression}, used to identify generated classes in
+ * {@link GeneratedClassCache}. Unlike {@link RowExpression#toString()}, it includes all types
+ * and resolved functions. Expressions with constants which have no canonical form are not supported.
+ */
+final class RowExpressionFingerprint
+{
+    private RowExpressionFingerprint() {}
+
+    public static Optional<String> fingerprint(RowExpression expression)
+    {
+        StringBuilder builder = new StringBuilder();
+        if (!expression.accept(new Visitor(), builder)) {
+            return Optional.empty();
+        }
+        return Optional.of(builder.toString());
+    }
+
+    private static class Visitor
+            implements RowExpressionVisitor<Boolean, StringBuilder>
+    {
+        @Override
+        public Boolean visitCall(CallExpression call, StringBuilder builder)
+        {
+            builder.append("call(");
+            appendFunction(call.getResolvedFunction(), builder);
+            return appendArguments(call.getArguments(), builder);
+        }
+
+        @Override
+        public Boolean visitSpecialForm(SpecialForm specialForm, StringBuilder builder)
+        {
+            builder.append(specialForm.getForm()).append('(');
+            appendType(specialForm.getType(), builder);
+            for (ResolvedFunction function : specialForm.getFunctionDependencies()) {
+                appendFunction(function, builder);
+            }
+            return appendArguments(specialForm.getArguments(), builder);
+        }
+
+        @Override
+        public Boolean visitInputReference(InputReferenceExpression reference, StringBuilder builder)
+        {
+            builder.append('#').append(reference.getField());
+            appendType(reference.getType(), builder);
+            return true;
+        }
+
+        @Override
+        public Boolean visitConstant(ConstantExpression literal, StringBuilder builder)
+        {
+            Object value = literal.getValue();
+            builder.append("constant(");
+            appendType(literal.getType(), builder);
+            if (value == null) {
+                builder.append("null");
+            }
+            else if (value instanceof Long || value instanceof Double || value instanceof Boolean) {
+                builder.append(value);
+            }
+            else if (value instanceof Slice) {
+                builder.append(base16().encode(((Slice) value).getBytes()));
+            }
+            else {
+                return false;
+            }
+            builder.append(')');
+            return true;
+        }
+
+        @Override
+        public Boolean visitLambda(LambdaDefinitionExpression lambda, StringBuilder builder)
+        {
+            builder.append("lambda(");
+            for (int i = 0; i < lambda.getArguments().size(); i++) {
+                builder.append(lambda.getArguments().get(i));
+                appendType(lambda.getArgumentTypes().get(i), builder);
+            }
+            builder.append("->");
+            if (!lambda.getBody().accept(this, builder)) {
+                return false;
+            }
+            builder.append(')');
+            return true;
+        }
+
+        @Override
+        public Boolean visitVariableReference(VariableReferenceExpression reference, StringBuilder builder)
+        {
+            builder.append('$').append(reference.getName());
+            appendType(reference.getType(), builder);
+            return true;
+        }
+
+        private Boolean appendArguments(List<RowExpression> arguments, StringBuilder builder)
+        {
+            for (RowExpression argument : arguments) {
+                builder.append(',');
+                if (!argument.accept(this, builder)) {
+                    return false;
+                }
+            }
+            builder.append(')');
+            return true;
+        }
+
+        private static void appendFunction(ResolvedFunction function, StringBuilder builder)
+        {
+            builder.append('[').append(function.getFunctionId()).append(':').append(function.getSignature()).append(']');
+        }
+
+        private static void appendType(Type type, StringBuilder builder)
+        {
+            builder.append('<').append(type.getTypeSignature()).append('>');
+        }
+    }
+}
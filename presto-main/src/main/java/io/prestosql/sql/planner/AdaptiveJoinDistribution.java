@@ -0,0 +1,519 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.planner;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import io.prestosql.Session;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeOperators;
+import io.prestosql.sql.planner.plan.ExchangeNode;
+import io.prestosql.sql.planner.plan.FilterNode;
+import io.prestosql.sql.planner.plan.JoinNode;
+import io.prestosql.sql.planner.plan.JoinNode.DistributionType;
+import io.prestosql.sql.planner.plan.JoinNode.EquiJoinClause;
+import io.prestosql.sql.planner.plan.PlanFragmentId;
+import io.prestosql.sql.planner.plan.PlanNode;
+import io.prestosql.sql.planner.plan.PlanNodeId;
+import io.prestosql.sql.planner.plan.ProjectNode;
+import io.prestosql.sql.planner.plan.RemoteSourceNode;
+import io.prestosql.sql.planner.plan.TableScanNode;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Predicates.in;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.collect.MoreCollectors.onlyElement;
+import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_ARBITRARY_DISTRIBUTION;
+import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_BROADCAST_DISTRIBUTION;
+import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
+import static io.prestosql.sql.planner.SystemPartitioningHandle.SOURCE_DISTRIBUTION;
+import static io.prestosql.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static io.prestosql.sql.planner.optimizations.StreamPropertyDerivations.StreamProperties.StreamDistribution.FIXED;
+import static io.prestosql.sql.planner.optimizations.StreamPropertyDerivations.derivePropertiesRecursively;
+import static io.prestosql.sql.planner.plan.ExchangeNode.Scope.LOCAL;
+import static io.prestosql.sql.planner.plan.ExchangeNode.Type.REPARTITION;
+import static io.prestosql.sql.planner.plan.ExchangeNode.Type.REPLICATE;
+import static io.prestosql.sql.planner.plan.JoinNode.DistributionType.PARTITIONED;
+import static io.prestosql.sql.planner.plan.JoinNode.DistributionType.REPLICATED;
+import static io.prestosql.sql.planner.plan.JoinNode.Type.INNER;
+import static io.prestosql.sql.planner.plan.JoinNode.Type.LEFT;
+import static io.prestosql.sql.planner.plan.StageExecutionDescriptor.ungroupedExecution;
+import static io.prestosql.sql.planner.planprinter.PlanPrinter.jsonFragmentPlan;
+import static java.util.Objects.requireNonNull;
+import static java.util.function.Function.identity;
+
+/**
+ * Finds the joins of a fragmented plan whose distribution can be switched between
+ * {@link DistributionType#REPLICATED} and {@link DistributionType#PARTITIONED} after the
+ * build side has run, and rewrites the fragmented plan with the switched distributions.
+ * <p>
+ * Only the simple plan shapes produced by {@code AddExchanges} are supported: a replicated
+ * join in a source distributed fragment, and a partitioned join whose probe side is a source
+ * distributed fragment that can be merged into the join fragment.
+ * <p>
+ * The fragments of the build sides are not changed, so that their stages can keep running.
+ * A switched join reads the existing build output through a new fragment, which repartitions
+ * it for the switched distribution.
+ */
+public final class AdaptiveJoinDistribution
+{
+    private AdaptiveJoinDistribution() {}
+
+    public static List<AdaptiveJoin> findAdaptiveJoins(SubPlan plan)
+    {
+        Map<PlanFragmentId, SubPlan> subPlans = getSubPlans(plan);
+        Map<PlanFragmentId, PlanFragment> fragments = subPlans.values().stream()
+                .map(SubPlan::getFragment)
+                .collect(toImmutableMap(PlanFragment::getId, identity()));
+
+        ImmutableList.Builder<AdaptiveJoin> adaptiveJoins = ImmutableList.builder();
+        for (PlanFragment fragment : fragments.values()) {
+            if (fragment.getStageExecutionDescriptor().isStageGroupedExecution()) {
+                continue;
+            }
+            List<JoinNode> joins = searchFrom(fragment.getRoot())
+                    .where(JoinNode.class::isInstance)
+                    .findAll();
+            for (JoinNode join : joins) {
+                findBuildSource(join).ifPresent(buildSource -> {
+                    PlanFragmentId buildFragmentId = getOnlyElement(buildSource.getSourceFragmentIds());
+                    if (fragments.get(buildFragmentId).getStageExecutionDescriptor().isStageGroupedExecution()) {
+                        return;
+                    }
+                    if (isSwitchableReplicatedJoin(join, buildSource, fragment)) {
+                        adaptiveJoins.add(new AdaptiveJoin(join.getId(), REPLICATED, fragment.getId(), buildFragmentId, ImmutableSet.of(fragment.getId())));
+                    }
+                    else if (isSwitchablePartitionedJoin(join, buildSource, fragment, fragments)) {
+                        // the probe fragment is merged into the join fragment when the join is switched
+                        PlanFragmentId probeFragmentId = getOnlyElement(((RemoteSourceNode) join.getLeft()).getSourceFragmentIds());
+                        adaptiveJoins.add(new AdaptiveJoin(join.getId(), PARTITIONED, fragment.getId(), buildFragmentId, ImmutableSet.of(fragment.getId(), probeFragmentId)));
+                    }
+                });
+            }
+        }
+
+        // the build sides keep running when a join is switched, so the joins inside them cannot be switched
+        List<AdaptiveJoin> candidates = adaptiveJoins.build();
+        Set<PlanFragmentId> buildFragmentIds = candidates.stream()
+                .flatMap(join -> subPlans.get(join.getBuildFragmentId()).getAllFragments().stream())
+                .map(PlanFragment::getId)
+                .collect(toImmutableSet());
+        return candidates.stream()
+                .filter(join -> !buildFragmentIds.contains(join.getFragmentId()))
+                .collect(toImmutableList());
+    }
+
+    /**
+     * Returns whether the fragment reads the broadcast build output of a join which was switched to
+     * {@link DistributionType#PARTITIONED}. Each task of the build stage is read by a single task of
+     * the fragment, so that the build output is repartitioned once, and in parallel.
+     */
+    public static boolean isReplicatedBuildReader(PlanFragment fragment)
+    {
+        return fragment.getPartitioning().equals(FIXED_ARBITRARY_DISTRIBUTION) &&
+                fragment.getRoot() instanceof RemoteSourceNode &&
+                ((RemoteSourceNode) fragment.getRoot()).getExchangeType() == REPLICATE;
+    }
+
+    private static Map<PlanFragmentId, SubPlan> getSubPlans(SubPlan plan)
+    {
+        ImmutableList.Builder<SubPlan> subPlans = ImmutableList.builder();
+        collectSubPlans(plan, subPlans);
+        return subPlans.build().stream()
+                .collect(toImmutableMap(subPlan -> subPlan.getFragment().getId(), identity()));
+    }
+
+    private static void collectSubPlans(SubPlan plan, ImmutableList.Builder<SubPlan> subPlans)
+    {
+        subPlans.add(plan);
+        for (SubPlan child : plan.getChildren()) {
+            collectSubPlans(child, subPlans);
+        }
+    }
+
+    private static Optional<RemoteSourceNode> findBuildSource(JoinNode join)
+    {
+        if ((join.getType() != INNER && join.getType() != LEFT) || join.getCriteria().isEmpty() || join.getDistributionType().isEmpty()) {
+            return Optional.empty();
+        }
+
+        PlanNode node = join.getRight();
+        while (node instanceof ExchangeNode && ((ExchangeNode) node).getScope() == LOCAL && node.getSources().size() == 1) {
+            node = getOnlyElement(node.getSources());
+        }
+        if (!(node instanceof RemoteSourceNode)) {
+            return Optional.empty();
+        }
+
+        RemoteSourceNode buildSource = (RemoteSourceNode) node;
+        Set<Symbol> buildSymbols = ImmutableSet.copyOf(buildSource.getOutputSymbols());
+        boolean providesJoinSymbols = join.getCriteria().stream().map(EquiJoinClause::getRight).allMatch(buildSymbols::contains) &&
+                join.getRightHashSymbol().map(buildSymbols::contains).orElse(true);
+        if (buildSource.getSourceFragmentIds().size() != 1 || buildSource.getOrderingScheme().isPresent() || !providesJoinSymbols) {
+            return Optional.empty();
+        }
+        return Optional.of(buildSource);
+    }
+
+    private static boolean isSwitchableReplicatedJoin(JoinNode join, RemoteSourceNode buildSource, PlanFragment fragment)
+    {
+        if (join.getDistributionType().get() != REPLICATED || buildSource.getExchangeType() != REPLICATE || !fragment.getPartitioning().equals(SOURCE_DISTRIBUTION)) {
+            return false;
+        }
+
+        // the probe side is split into a new source fragment, so it must read all the tables of the fragment
+        Set<PlanNodeId> probeTableScans = searchFrom(join.getLeft())
+                .where(TableScanNode.class::isInstance)
+                .findAll().stream()
+                .map(PlanNode::getId)
+                .collect(toImmutableSet());
+        return probeTableScans.equals(ImmutableSet.copyOf(fragment.getPartitionedSources()));
+    }
+
+    private static boolean isSwitchablePartitionedJoin(JoinNode join, RemoteSourceNode buildSource, PlanFragment fragment, Map<PlanFragmentId, PlanFragment> fragments)
+    {
+        if (join.getDistributionType().get() != PARTITIONED ||
+                buildSource.getExchangeType() != REPARTITION ||
+                !fragment.getPartitioning().equals(FIXED_HASH_DISTRIBUTION) ||
+                !fragment.getPartitionedSources().isEmpty() ||
+                fragment.getRemoteSourceNodes().size() != 2) {
+            return false;
+        }
+
+        if (!(join.getLeft() instanceof RemoteSourceNode)) {
+            return false;
+        }
+        RemoteSourceNode probeSource = (RemoteSourceNode) join.getLeft();
+        if (probeSource.getExchangeType() != REPARTITION || probeSource.getSourceFragmentIds().size() != 1 || probeSource.getOrderingScheme().isPresent()) {
+            return false;
+        }
+        PlanFragment probeFragment = fragments.get(getOnlyElement(probeSource.getSourceFragmentIds()));
+        if (!probeFragment.getPartitioning().equals(SOURCE_DISTRIBUTION) ||
+                probeFragment.getStageExecutionDescriptor().isStageGroupedExecution() ||
+                !probeSource.getOutputSymbols().equals(probeFragment.getPartitioningScheme().getOutputLayout())) {
+            return false;
+        }
+
+        // the join fragment is merged into the probe fragment, so it must not contain other work that needs the hash distribution
+        PlanNode node = fragment.getRoot();
+        while (node != join) {
+            if (!(node instanceof ProjectNode) && !(node instanceof FilterNode)) {
+                return false;
+            }
+            node = getOnlyElement(node.getSources());
+        }
+        return true;
+    }
+
+    /**
+     * Switches the distribution of the given joins of a fragmented plan. The fragments of the build
+     * sides keep their ids and output partitioning, and the fragments which read them are replaced.
+     * A join which is no longer switchable after an enclosing join was switched keeps its distribution.
+     *
+     * @param optimizedPlan the plan which was fragmented, used for the symbol types, the stats, and the stream properties of the probe sides
+     */
+    public static SubPlan switchJoinDistributions(
+            SubPlan plan,
+            Set<PlanNodeId> joinIds,
+            Plan optimizedPlan,
+            PlanNodeIdAllocator idAllocator,
+            Metadata metadata,
+            TypeOperators typeOperators,
+            Session session,
+            TypeAnalyzer typeAnalyzer)
+    {
+        // the enclosing joins are switched first, so that the probe sides of the joins they enclose become source distributed fragments
+        List<PlanNodeId> orderedJoinIds = plan.getAllFragments().stream()
+                .flatMap(fragment -> searchFrom(fragment.getRoot())
+                        .where(node -> node instanceof JoinNode && joinIds.contains(node.getId()))
+                        .findAll().stream())
+                .map(PlanNode::getId)
+                .collect(toImmutableList());
+
+        int maxFragmentId = plan.getAllFragments().stream()
+                .mapToInt(fragment -> Integer.parseInt(fragment.getId().toString()))
+                .max()
+                .getAsInt();
+        Switcher switcher = new Switcher(optimizedPlan, idAllocator, maxFragmentId + 1, metadata, typeOperators, session, typeAnalyzer);
+
+        SubPlan switched = plan;
+        for (PlanNodeId joinId : orderedJoinIds) {
+            switched = switcher.switchJoin(switched, joinId);
+        }
+        switched.sanityCheck();
+        return switched;
+    }
+
+    private static class Switcher
+    {
+        private final Plan optimizedPlan;
+        private final PlanNodeIdAllocator idAllocator;
+        private final Metadata metadata;
+        private final TypeOperators typeOperators;
+        private final Session session;
+        private final TypeAnalyzer typeAnalyzer;
+        private int nextFragmentId;
+
+        public Switcher(Plan optimizedPlan, PlanNodeIdAllocator idAllocator, int nextFragmentId, Metadata metadata, TypeOperators typeOperators, Session session, TypeAnalyzer typeAnalyzer)
+        {
+            this.optimizedPlan = requireNonNull(optimizedPlan, "optimizedPlan is null");
+            this.idAllocator = requireNonNull(idAllocator, "idAllocator is null");
+            this.nextFragmentId = nextFragmentId;
+            this.metadata = requireNonNull(metadata, "metadata is null");
+            this.typeOperators = requireNonNull(typeOperators, "typeOperators is null");
+            this.session = requireNonNull(session, "session is null");
+            this.typeAnalyzer = requireNonNull(typeAnalyzer, "typeAnalyzer is null");
+        }
+
+        public SubPlan switchJoin(SubPlan plan, PlanNodeId joinId)
+        {
+            Map<PlanFragmentId, SubPlan> subPlans = getSubPlans(plan);
+            Map<PlanFragmentId, PlanFragment> fragments = subPlans.values().stream()
+                    .map(SubPlan::getFragment)
+                    .collect(toImmutableMap(PlanFragment::getId, identity()));
+            for (SubPlan joinPlan : subPlans.values()) {
+                Optional<JoinNode> join = searchFrom(joinPlan.getFragment().getRoot())
+                        .where(node -> node.getId().equals(joinId))
+                        .findFirst();
+                if (join.isEmpty()) {
+                    continue;
+                }
+                Optional<RemoteSourceNode> buildSource = findBuildSource(join.get());
+                if (buildSource.isEmpty()) {
+                    return plan;
+                }
+                if (isSwitchableReplicatedJoin(join.get(), buildSource.get(), joinPlan.getFragment())) {
+                    return replaceSubPlan(plan, switchToPartitioned(joinPlan, join.get(), buildSource.get()));
+                }
+                if (isSwitchablePartitionedJoin(join.get(), buildSource.get(), joinPlan.getFragment(), fragments)) {
+                    return replaceSubPlan(plan, switchToReplicated(joinPlan, join.get(), buildSource.get()));
+                }
+                return plan;
+            }
+            return plan;
+        }
+
+        private SubPlan switchToPartitioned(SubPlan joinPlan, JoinNode join, RemoteSourceNode buildSource)
+        {
+            PlanFragment fragment = joinPlan.getFragment();
+            PlanFragmentId buildFragmentId = getOnlyElement(buildSource.getSourceFragmentIds());
+            PlanNode probe = join.getLeft();
+            Set<PlanFragmentId> probeSourceFragmentIds = searchFrom(probe)
+                    .where(RemoteSourceNode.class::isInstance)
+                    .findAll().stream()
+                    .flatMap(node -> ((RemoteSourceNode) node).getSourceFragmentIds().stream())
+                    .collect(toImmutableSet());
+
+            // the probe side moves to a new source distributed fragment, which partitions it on the join keys
+            List<Symbol> probeSymbols = join.getCriteria().stream()
+                    .map(EquiJoinClause::getLeft)
+                    .collect(toImmutableList());
+            SubPlan probePlan = createSubPlan(
+                    probe,
+                    fragment.getPartitioning(),
+                    fragment.getPartitionedSources(),
+                    new PartitioningScheme(Partitioning.create(FIXED_HASH_DISTRIBUTION, probeSymbols), probe.getOutputSymbols(), join.getLeftHashSymbol()),
+                    joinPlan.getChildren().stream()
+                            .filter(child -> probeSourceFragmentIds.contains(child.getFragment().getId()))
+                            .collect(toImmutableList()));
+
+            // the build output is broadcast, so every build task is read by a single task, which partitions its output on the join keys
+            List<Symbol> buildSymbols = join.getCriteria().stream()
+                    .map(EquiJoinClause::getRight)
+                    .collect(toImmutableList());
+            SubPlan buildPlan = createSubPlan(
+                    new RemoteSourceNode(idAllocator.getNextId(), buildFragmentId, buildSource.getOutputSymbols(), Optional.empty(), REPLICATE),
+                    FIXED_ARBITRARY_DISTRIBUTION,
+                    ImmutableList.of(),
+                    new PartitioningScheme(Partitioning.create(FIXED_HASH_DISTRIBUTION, buildSymbols), buildSource.getOutputSymbols(), join.getRightHashSymbol()),
+                    joinPlan.getChildren().stream()
+                            .filter(child -> child.getFragment().getId().equals(buildFragmentId))
+                            .collect(toImmutableList()));
+
+            PlanNode build = searchFrom(join.getRight())
+                    .where(node -> node.getId().equals(buildSource.getId()))
+                    .replaceAll(new RemoteSourceNode(buildSource.getId(), buildPlan.getFragment().getId(), buildSource.getOutputSymbols(), Optional.empty(), REPARTITION));
+            JoinNode switched = ((JoinNode) join.replaceChildren(ImmutableList.of(
+                    new RemoteSourceNode(idAllocator.getNextId(), probePlan.getFragment().getId(), probe.getOutputSymbols(), Optional.empty(), REPARTITION),
+                    build)))
+                    .withDistributionType(PARTITIONED);
+            if (switched.isSpillable().isPresent()) {
+                // a remote source provides fixed streams, so spill is enabled the same way as AddLocalExchanges does
+                switched = switched.withSpillable(true);
+            }
+
+            ImmutableList.Builder<SubPlan> children = ImmutableList.builder();
+            joinPlan.getChildren().stream()
+                    .filter(child -> !probeSourceFragmentIds.contains(child.getFragment().getId()) && !child.getFragment().getId().equals(buildFragmentId))
+                    .forEach(children::add);
+            children.add(probePlan);
+            children.add(buildPlan);
+            return createSubPlan(
+                    fragment.getId(),
+                    replaceJoin(fragment.getRoot(), switched),
+                    FIXED_HASH_DISTRIBUTION,
+                    ImmutableList.of(),
+                    fragment.getPartitioningScheme(),
+                    children.build());
+        }
+
+        private SubPlan switchToReplicated(SubPlan joinPlan, JoinNode join, RemoteSourceNode buildSource)
+        {
+            PlanFragment fragment = joinPlan.getFragment();
+            PlanFragmentId buildFragmentId = getOnlyElement(buildSource.getSourceFragmentIds());
+            PlanFragmentId probeFragmentId = getOnlyElement(((RemoteSourceNode) join.getLeft()).getSourceFragmentIds());
+            SubPlan probePlan = joinPlan.getChildren().stream()
+                    .filter(child -> child.getFragment().getId().equals(probeFragmentId))
+                    .collect(onlyElement());
+            PlanFragment probeFragment = probePlan.getFragment();
+
+            // every partition of the build output is read by the task with the same partition, which broadcasts it
+            SubPlan buildPlan = createSubPlan(
+                    new RemoteSourceNode(idAllocator.getNextId(), buildFragmentId, buildSource.getOutputSymbols(), Optional.empty(), REPARTITION),
+                    fragment.getPartitioning(),
+                    ImmutableList.of(),
+                    new PartitioningScheme(Partitioning.create(FIXED_BROADCAST_DISTRIBUTION, ImmutableList.of()), buildSource.getOutputSymbols()),
+                    joinPlan.getChildren().stream()
+                            .filter(child -> child.getFragment().getId().equals(buildFragmentId))
+                            .collect(toImmutableList()));
+
+            // the join moves into the probe fragment
+            PlanNode probe = probeFragment.getRoot();
+            PlanNode build = searchFrom(join.getRight())
+                    .where(node -> node.getId().equals(buildSource.getId()))
+                    .replaceAll(new RemoteSourceNode(buildSource.getId(), buildPlan.getFragment().getId(), buildSource.getOutputSymbols(), Optional.empty(), REPLICATE));
+            JoinNode switched = ((JoinNode) join.replaceChildren(ImmutableList.of(probe, build)))
+                    .withDistributionType(REPLICATED);
+            if (switched.isSpillable().isPresent()) {
+                // decide spill for the new probe side the same way as AddLocalExchanges, from the plan before fragmentation
+                Optional<PlanNode> optimizedProbe = searchFrom(optimizedPlan.getRoot())
+                        .where(node -> node.getId().equals(probe.getId()))
+                        .findFirst();
+                if (optimizedProbe.isPresent()) {
+                    TypeProvider types = optimizedPlan.getTypes();
+                    switched = switched.withSpillable(derivePropertiesRecursively(optimizedProbe.get(), metadata, typeOperators, session, types, typeAnalyzer).getDistribution() == FIXED);
+                }
+            }
+
+            ImmutableList.Builder<SubPlan> children = ImmutableList.builder();
+            children.addAll(probePlan.getChildren());
+            joinPlan.getChildren().stream()
+                    .filter(child -> !child.getFragment().getId().equals(probeFragmentId) && !child.getFragment().getId().equals(buildFragmentId))
+                    .forEach(children::add);
+            children.add(buildPlan);
+            return createSubPlan(
+                    fragment.getId(),
+                    replaceJoin(fragment.getRoot(), switched),
+                    probeFragment.getPartitioning(),
+                    probeFragment.getPartitionedSources(),
+                    fragment.getPartitioningScheme(),
+                    children.build());
+        }
+
+        private static PlanNode replaceJoin(PlanNode root, JoinNode join)
+        {
+            return searchFrom(root)
+                    .where(node -> node.getId().equals(join.getId()))
+                    .replaceAll(join);
+        }
+
+        private SubPlan createSubPlan(PlanNode root, PartitioningHandle partitioning, List<PlanNodeId> partitionedSources, PartitioningScheme partitioningScheme, List<SubPlan> children)
+        {
+            PlanFragmentId fragmentId = new PlanFragmentId(String.valueOf(nextFragmentId++));
+            return createSubPlan(fragmentId, root, partitioning, partitionedSources, partitioningScheme, children);
+        }
+
+        private SubPlan createSubPlan(PlanFragmentId fragmentId, PlanNode root, PartitioningHandle partitioning, List<PlanNodeId> partitionedSources, PartitioningScheme partitioningScheme, List<SubPlan> children)
+        {
+            Map<Symbol, Type> symbols = Maps.filterKeys(optimizedPlan.getTypes().allTypes(), in(SymbolsExtractor.extractOutputSymbols(root)));
+            PlanFragment fragment = new PlanFragment(
+                    fragmentId,
+                    root,
+                    symbols,
+                    partitioning,
+                    partitionedSources,
+                    partitioningScheme,
+                    ungroupedExecution(),
+                    optimizedPlan.getStatsAndCosts().getForSubplan(root),
+                    Optional.of(jsonFragmentPlan(root, symbols, metadata, session)));
+            return new SubPlan(fragment, children);
+        }
+
+        private static SubPlan replaceSubPlan(SubPlan plan, SubPlan replacement)
+        {
+            if (plan.getFragment().getId().equals(replacement.getFragment().getId())) {
+                return replacement;
+            }
+            return new SubPlan(plan.getFragment(), plan.getChildren().stream()
+                    .map(child -> replaceSubPlan(child, replacement))
+                    .collect(toImmutableList()));
+        }
+    }
+
+    public static class AdaptiveJoin
+    {
+        private final PlanNodeId joinId;
+        private final DistributionType distributionType;
+        private final PlanFragmentId fragmentId;
+        private final PlanFragmentId buildFragmentId;
+        private final Set<PlanFragmentId> replacedFragmentIds;
+
+        public AdaptiveJoin(PlanNodeId joinId, DistributionType distributionType, PlanFragmentId fragmentId, PlanFragmentId buildFragmentId, Set<PlanFragmentId> replacedFragmentIds)
+        {
+            this.joinId = requireNonNull(joinId, "joinId is null");
+            this.distributionType = requireNonNull(distributionType, "distributionType is null");
+            this.fragmentId = requireNonNull(fragmentId, "fragmentId is null");
+            this.buildFragmentId = requireNonNull(buildFragmentId, "buildFragmentId is null");
+            this.replacedFragmentIds = ImmutableSet.copyOf(requireNonNull(replacedFragmentIds, "replacedFragmentIds is null"));
+        }
+
+        public PlanNodeId getJoinId()
+        {
+            return joinId;
+        }
+
+        public DistributionType getDistributionType()
+        {
+            return distributionType;
+        }
+
+        public PlanFragmentId getFragmentId()
+        {
+            return fragmentId;
+        }
+
+        public PlanFragmentId getBuildFragmentId()
+        {
+            return buildFragmentId;
+        }
+
+        /**
+         * The fragments which are replaced when the distribution of the join is switched, so their stages
+         * cannot start before the distribution is decided.
+         */
+        public Set<PlanFragmentId> getReplacedFragmentIds()
+        {
+            return replacedFragmentIds;
+        }
+    }
+}
@@ -19,10 +19,13 @@ import io.prestosql.spi.function.Description;
 
 import javax.validation.constraints.Min;
 
+import java.io.File;
+
 @DefunctConfig("compiler.interpreter-enabled")
 public class CompilerConfig
 {
     private int expressionCacheSize = 10_000;
+    private File bytecodeCacheDir;
 
     @Min(0)
     public int getExpressionCacheSize()
@@ -37,4 +40,17 @@ public class CompilerConfig
         this.expressionCacheSize = expressionCacheSize;
         return this;
     }
+
+    public File getBytecodeCacheDir()
+    {
+        return bytecodeCacheDir;
+    }
+
+    @Config("compiler.bytecode-cache-dir")
+    @Description("Directory used to persist generated classes across restarts")
+    public CompilerConfig setBytecodeCacheDir(File bytecodeCacheDir)
+    {
+        this.bytecodeCacheDir = bytecodeCacheDir;
+        return this;
+    }
 }
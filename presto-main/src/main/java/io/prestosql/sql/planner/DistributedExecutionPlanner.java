@@ -95,10 +95,20 @@ public class DistributedExecutionPlanner
     }
 
     public StageExecutionPlan plan(SubPlan root, Session session)
+    {
+        return plan(root, session, ImmutableMap.of());
+    }
+
+    /**
+     * Plans the fragments of a plan whose table scans may already have split sources, e.g. a plan whose
+     * join distributions were switched while the query runs. The split sources which are already planned
+     * are reused, and the caller remains responsible for closing them.
+     */
+    public StageExecutionPlan plan(SubPlan root, Session session, Map<PlanNodeId, SplitSource> plannedSplitSources)
     {
         ImmutableList.Builder<SplitSource> allSplitSources = ImmutableList.builder();
         try {
-            return doPlan(root, session, allSplitSources);
+            return doPlan(root, session, plannedSplitSources, allSplitSources);
         }
         catch (Throwable t) {
             allSplitSources.build().forEach(DistributedExecutionPlanner::closeSplitSource);
@@ -116,19 +126,19 @@ public class DistributedExecutionPlanner
         }
     }
 
-    private StageExecutionPlan doPlan(SubPlan root, Session session, ImmutableList.Builder<SplitSource> allSplitSources)
+    private StageExecutionPlan doPlan(SubPlan root, Session session, Map<PlanNodeId, SplitSource> plannedSplitSources, ImmutableList.Builder<SplitSource> allSplitSources)
     {
         PlanFragment currentFragment = root.getFragment();
 
         // get splits for this fragment, this is lazy so split assignments aren't actually calculated here
         Map<PlanNodeId, SplitSource> splitSources = currentFragment.getRoot().accept(
-                new Visitor(session, currentFragment.getStageExecutionDescriptor(), TypeProvider.copyOf(currentFragment.getSymbols()), allSplitSources),
+                new Visitor(session, currentFragment.getStageExecutionDescriptor(), TypeProvider.copyOf(currentFragment.getSymbols()), plannedSplitSources, allSplitSources),
                 null);
 
         // create child stages
         ImmutableList.Builder<StageExecutionPlan> dependencies = ImmutableList.builder();
         for (SubPlan childPlan : root.getChildren()) {
-            dependencies.add(doPlan(childPlan, session, allSplitSources));
+            dependencies.add(doPlan(childPlan, session, plannedSplitSources, allSplitSources));
         }
 
         // extract TableInfo
@@ -159,17 +169,20 @@ public class DistributedExecutionPlanner
         private final Session session;
         private final StageExecutionDescriptor stageExecutionDescriptor;
         private final TypeProvider typeProvider;
+        private final Map<PlanNodeId, SplitSource> plannedSplitSources;
         private final ImmutableList.Builder<SplitSource> splitSources;
 
         private Visitor(
                 Session session,
                 StageExecutionDescriptor stageExecutionDescriptor,
                 TypeProvider typeProvider,
+                Map<PlanNodeId, SplitSource> plannedSplitSources,
                 ImmutableList.Builder<SplitSource> allSplitSources)
         {
             this.session = session;
             this.stageExecutionDescriptor = stageExecutionDescriptor;
             this.typeProvider = typeProvider;
+            this.plannedSplitSources = plannedSplitSources;
             this.splitSources = allSplitSources;
         }
 
@@ -187,6 +200,11 @@ public class DistributedExecutionPlanner
 
         private Map<PlanNodeId, SplitSource> visitScanAndFilter(TableScanNode node, Optional<FilterNode> filter)
         {
+            SplitSource plannedSplitSource = plannedSplitSources.get(node.getId());
+            if (plannedSplitSource != null) {
+                return ImmutableMap.of(node.getId(), plannedSplitSource);
+            }
+
             List<DynamicFilters.Descriptor> dynamicFilters = filter
                     .map(FilterNode::getPredicate)
                     .map(DynamicFilters::extractDynamicFilters)
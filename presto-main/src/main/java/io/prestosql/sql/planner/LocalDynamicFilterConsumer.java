@@ -13,10 +13,13 @@
  */
 package io.prestosql.sql.planner;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.operator.BlockedBloomFilter;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.type.Type;
@@ -24,10 +27,14 @@ import io.prestosql.sql.planner.plan.DynamicFilterId;
 import io.prestosql.sql.planner.plan.JoinNode;
 import io.prestosql.sql.planner.plan.PlanNode;
 
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 
@@ -36,6 +43,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Function.identity;
 
@@ -55,7 +63,27 @@ public class LocalDynamicFilterConsumer
     // The resulting predicates from each build-side partition.
     private final List<TupleDomain<DynamicFilterId>> partitions;
 
+    private final SettableFuture<Map<DynamicFilterId, BlockedBloomFilter>> bloomFiltersFuture;
+
+    // The union of bloom filters collected from build-side partitions, empty if any partition has no bloom filters.
+    private Optional<Map<DynamicFilterId, BlockedBloomFilter>> bloomFilters = Optional.of(ImmutableMap.of());
+    private int bloomFilterPartitions;
+    @GuardedBy("this")
+    private boolean bloomFiltersResultReady;
+    // Accounts for the collected bloom filters until the consumer is closed, since the result is retained by probe-side table scans.
+    private final LocalMemoryContext bloomFilterMemoryContext;
+    @GuardedBy("this")
+    private boolean closed;
+    @Nullable
+    private TupleDomain<DynamicFilterId> result;
+
+    @VisibleForTesting
     public LocalDynamicFilterConsumer(Map<DynamicFilterId, Integer> buildChannels, Map<DynamicFilterId, Type> filterBuildTypes, int partitionCount)
+    {
+        this(buildChannels, filterBuildTypes, partitionCount, newSimpleAggregatedMemoryContext().newLocalMemoryContext(LocalDynamicFilterConsumer.class.getSimpleName()));
+    }
+
+    public LocalDynamicFilterConsumer(Map<DynamicFilterId, Integer> buildChannels, Map<DynamicFilterId, Type> filterBuildTypes, int partitionCount, LocalMemoryContext bloomFilterMemoryContext)
     {
         this.buildChannels = requireNonNull(buildChannels, "buildChannels is null");
         this.filterBuildTypes = requireNonNull(filterBuildTypes, "filterBuildTypes is null");
@@ -65,6 +93,8 @@ public class LocalDynamicFilterConsumer
 
         this.partitionCount = partitionCount;
         this.partitions = new ArrayList<>(partitionCount);
+        this.bloomFiltersFuture = SettableFuture.create();
+        this.bloomFilterMemoryContext = requireNonNull(bloomFilterMemoryContext, "bloomFilterMemoryContext is null");
     }
 
     public ListenableFuture<Map<DynamicFilterId, Domain>> getDynamicFilterDomains()
@@ -72,9 +102,70 @@ public class LocalDynamicFilterConsumer
         return Futures.transform(resultFuture, this::convertTupleDomain, directExecutor());
     }
 
+    /**
+     * Completes with the bloom filters for dynamic filters which are not already exactly represented by their domain.
+     * The map is empty if bloom filters were not collected by all build-side partitions.
+     */
+    public ListenableFuture<Map<DynamicFilterId, BlockedBloomFilter>> getBloomFilters()
+    {
+        return bloomFiltersFuture;
+    }
+
+    private void addBloomFilterPartition(Map<DynamicFilterId, BlockedBloomFilter> partitionBloomFilters)
+    {
+        Map<DynamicFilterId, BlockedBloomFilter> bloomFiltersResult;
+        synchronized (this) {
+            // Called concurrently by each DynamicFilterSourceOperator instance before its predicate is added.
+            verify(bloomFilterPartitions < partitionCount);
+            bloomFilterPartitions++;
+            if (partitionBloomFilters.isEmpty()) {
+                bloomFilters = Optional.empty();
+            }
+            bloomFilters = bloomFilters.map(current -> {
+                if (current.isEmpty()) {
+                    return partitionBloomFilters;
+                }
+                return current.entrySet().stream()
+                        .collect(toImmutableMap(Map.Entry::getKey, entry -> entry.getValue().union(partitionBloomFilters.get(entry.getKey()))));
+            });
+            bloomFiltersResult = getBloomFiltersResult();
+            updateBloomFilterMemory(bloomFiltersResult);
+        }
+
+        if (bloomFiltersResult != null) {
+            bloomFiltersFuture.set(bloomFiltersResult);
+        }
+    }
+
+    @Nullable
+    private Map<DynamicFilterId, BlockedBloomFilter> getBloomFiltersResult()
+    {
+        if (result == null || bloomFiltersResultReady) {
+            return null;
+        }
+        if (bloomFilters.isEmpty() || result.isNone()) {
+            // Bloom filters are not available for some partition, or the predicate already filters out all rows
+            return ImmutableMap.of();
+        }
+        if (bloomFilterPartitions < partitionCount) {
+            if (partitions.size() < partitionCount) {
+                // The predicate was completed early, wait for the remaining partitions
+                return null;
+            }
+            // Bloom filters were not collected
+            return ImmutableMap.of();
+        }
+        Map<DynamicFilterId, Domain> domains = result.getDomains().get();
+        // Skip bloom filters for dynamic filters which are already exactly represented by a set of discrete values
+        return bloomFilters.get().entrySet().stream()
+                .filter(entry -> !domains.containsKey(entry.getKey()) || !domains.get(entry.getKey()).getValues().isDiscreteSet())
+                .collect(toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
     private void addPartition(TupleDomain<DynamicFilterId> tupleDomain)
     {
         TupleDomain<DynamicFilterId> result = null;
+        Map<DynamicFilterId, BlockedBloomFilter> bloomFiltersResult = null;
         synchronized (this) {
             // Called concurrently by each DynamicFilterSourceOperator instance (when collection is over).
             verify(partitions.size() < partitionCount);
@@ -84,14 +175,57 @@ public class LocalDynamicFilterConsumer
             if (partitions.size() == partitionCount || tupleDomain.isAll()) {
                 // No more partitions are left to be processed.
                 result = TupleDomain.columnWiseUnion(partitions);
+                this.result = result;
+                bloomFiltersResult = getBloomFiltersResult();
+                updateBloomFilterMemory(bloomFiltersResult);
             }
         }
 
+        if (bloomFiltersResult != null) {
+            bloomFiltersFuture.set(bloomFiltersResult);
+        }
         if (result != null) {
             resultFuture.set(result);
         }
     }
 
+    @GuardedBy("this")
+    private void updateBloomFilterMemory(@Nullable Map<DynamicFilterId, BlockedBloomFilter> bloomFiltersResult)
+    {
+        if (bloomFiltersResult != null) {
+            // No more partitions are merged once the result is known, and the filters which are not part of it are released
+            bloomFiltersResultReady = true;
+            bloomFilters = Optional.empty();
+            setBloomFilterMemory(bloomFiltersResult);
+        }
+        else if (!bloomFiltersResultReady) {
+            setBloomFilterMemory(bloomFilters.orElse(ImmutableMap.of()));
+        }
+    }
+
+    @GuardedBy("this")
+    private void setBloomFilterMemory(Map<DynamicFilterId, BlockedBloomFilter> retainedBloomFilters)
+    {
+        if (closed) {
+            return;
+        }
+        bloomFilterMemoryContext.setBytes(retainedBloomFilters.values().stream()
+                .mapToLong(BlockedBloomFilter::getRetainedSizeInBytes)
+                .sum());
+    }
+
+    /**
+     * Releases the memory of the collected bloom filters. Called once the bloom filters are no longer used.
+     */
+    public synchronized void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        bloomFilterMemoryContext.close();
+    }
+
     private Map<DynamicFilterId, Domain> convertTupleDomain(TupleDomain<DynamicFilterId> result)
     {
         if (result.isNone()) {
@@ -110,7 +244,8 @@ public class LocalDynamicFilterConsumer
             JoinNode planNode,
             List<Type> buildSourceTypes,
             int partitionCount,
-            Set<DynamicFilterId> collectedFilters)
+            Set<DynamicFilterId> collectedFilters,
+            LocalMemoryContext bloomFilterMemoryContext)
     {
         checkArgument(!planNode.getDynamicFilters().isEmpty(), "Join node dynamicFilters is empty.");
         checkArgument(!collectedFilters.isEmpty(), "Collected dynamic filters set is empty");
@@ -134,7 +269,7 @@ public class LocalDynamicFilterConsumer
                 .collect(toImmutableMap(
                         Map.Entry::getKey,
                         entry -> buildSourceTypes.get(entry.getValue())));
-        return new LocalDynamicFilterConsumer(buildChannels, filterBuildTypes, partitionCount);
+        return new LocalDynamicFilterConsumer(buildChannels, filterBuildTypes, partitionCount, bloomFilterMemoryContext);
     }
 
     public Map<DynamicFilterId, Integer> getBuildChannels()
@@ -147,6 +282,16 @@ public class LocalDynamicFilterConsumer
         return this::addPartition;
     }
 
+    public Consumer<Map<DynamicFilterId, BlockedBloomFilter>> getBloomFilterConsumer()
+    {
+        return this::addBloomFilterPartition;
+    }
+
+    public Map<DynamicFilterId, Type> getFilterBuildTypes()
+    {
+        return filterBuildTypes;
+    }
+
     @Override
     public String toString()
     {
@@ -13,12 +13,16 @@
  */
 package io.prestosql.sql.planner;
 
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.prestosql.Session;
 import io.prestosql.metadata.Metadata;
+import io.prestosql.operator.BlockedBloomFilter;
+import io.prestosql.operator.DynamicRowFilter;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.DynamicFilter;
 import io.prestosql.spi.predicate.Domain;
@@ -26,6 +30,7 @@ import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeOperators;
 import io.prestosql.sql.planner.plan.DynamicFilterId;
+import io.prestosql.type.BlockTypeOperators;
 
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
@@ -33,8 +38,10 @@ import javax.annotation.concurrent.ThreadSafe;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
@@ -53,14 +60,18 @@ class LocalDynamicFiltersCollector
 {
     private final Metadata metadata;
     private final TypeOperators typeOperators;
+    private final BlockTypeOperators blockTypeOperators;
     private final Session session;
     // Each future blocks until its dynamic filter is collected.
     private final Map<DynamicFilterId, SettableFuture<Domain>> futures = new HashMap<>();
+    // Bloom filters (and the type of values they were built over) are added as they are collected, and are never blocked on.
+    private final Map<DynamicFilterId, BloomFilterEntry> bloomFilters = new ConcurrentHashMap<>();
 
     public LocalDynamicFiltersCollector(Metadata metadata, TypeOperators typeOperators, Session session)
     {
         this.metadata = requireNonNull(metadata, "metadata is null");
         this.typeOperators = requireNonNull(typeOperators, "typeOperators is null");
+        this.blockTypeOperators = new BlockTypeOperators(typeOperators);
         this.session = requireNonNull(session, "session is null");
     }
 
@@ -87,6 +98,44 @@ class LocalDynamicFiltersCollector
                 });
     }
 
+    // Used during execution (after build-side bloom filter collection is over).
+    public void collectBloomFilters(Map<DynamicFilterId, BlockedBloomFilter> dynamicFilterBloomFilters, Map<DynamicFilterId, Type> filterBuildTypes)
+    {
+        dynamicFilterBloomFilters.forEach((filterId, bloomFilter) -> {
+            // Skip dynamic filters that are not applied locally.
+            if (futures.containsKey(filterId)) {
+                Type type = requireNonNull(filterBuildTypes.get(filterId), () -> format("Missing type for dynamic filter %s", filterId));
+                verify(bloomFilters.put(filterId, new BloomFilterEntry(bloomFilter, type)) == null, "Bloom filter %s already collected", filterId);
+            }
+        });
+    }
+
+    // Called during TableScan planning (no need to be synchronized as local planning is single threaded)
+    public DynamicRowFilter createDynamicRowFilter(List<Descriptor> descriptors, Map<Symbol, ColumnHandle> columnsMap, TypeProvider typeProvider)
+    {
+        Multimap<DynamicFilterId, Symbol> symbolsMap = extractSourceSymbols(descriptors);
+        ImmutableListMultimap.Builder<DynamicFilterId, ColumnHandle> filterColumns = ImmutableListMultimap.builder();
+        Map<ColumnHandle, Type> columnTypes = new HashMap<>();
+        symbolsMap.forEach((filterId, probeSymbol) -> {
+            if (futures.containsKey(filterId)) {
+                ColumnHandle column = requireNonNull(columnsMap.get(probeSymbol), () -> format("Missing probe column for %s", probeSymbol));
+                filterColumns.put(filterId, column);
+                columnTypes.put(column, typeProvider.get(probeSymbol));
+            }
+        });
+        return new DynamicRowFilter(filterColumns.build(), ImmutableMap.copyOf(columnTypes), this::getBloomFilter, blockTypeOperators);
+    }
+
+    private Optional<BlockedBloomFilter> getBloomFilter(DynamicFilterId filterId, Type probeType)
+    {
+        BloomFilterEntry entry = bloomFilters.get(filterId);
+        // Values of other types may have different hashes, so the bloom filter is only applied to probe columns of the same type.
+        if (entry == null || !entry.getType().equals(probeType)) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.getBloomFilter());
+    }
+
     // Called during TableScan planning (no need to be synchronized as local planning is single threaded)
     public DynamicFilter createDynamicFilter(List<Descriptor> descriptors, Map<Symbol, ColumnHandle> columnsMap, TypeProvider typeProvider)
     {
@@ -123,6 +172,28 @@ class LocalDynamicFiltersCollector
         return new TableSpecificDynamicFilter(predicateFutures);
     }
 
+    private static class BloomFilterEntry
+    {
+        private final BlockedBloomFilter bloomFilter;
+        private final Type type;
+
+        private BloomFilterEntry(BlockedBloomFilter bloomFilter, Type type)
+        {
+            this.bloomFilter = requireNonNull(bloomFilter, "bloomFilter is null");
+            this.type = requireNonNull(type, "type is null");
+        }
+
+        public BlockedBloomFilter getBloomFilter()
+        {
+            return bloomFilter;
+        }
+
+        public Type getType()
+        {
+            return type;
+        }
+    }
+
     // Table-specific dynamic filter (collects all domains for a specific table scan)
     private static class TableSpecificDynamicFilter
             implements DynamicFilter
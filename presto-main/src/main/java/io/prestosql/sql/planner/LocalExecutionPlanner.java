@@ -39,16 +39,19 @@ import io.prestosql.execution.TaskManagerConfig;
 import io.prestosql.execution.buffer.OutputBuffer;
 import io.prestosql.execution.buffer.PagesSerdeFactory;
 import io.prestosql.index.IndexManager;
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.metadata.ResolvedFunction;
 import io.prestosql.metadata.TableHandle;
 import io.prestosql.operator.AggregationOperator.AggregationOperatorFactory;
 import io.prestosql.operator.AssignUniqueIdOperator;
+import io.prestosql.operator.BlockedBloomFilter;
 import io.prestosql.operator.DeleteOperator.DeleteOperatorFactory;
 import io.prestosql.operator.DevNullOperator.DevNullOperatorFactory;
 import io.prestosql.operator.DriverFactory;
 import io.prestosql.operator.DynamicFilterSourceOperator;
 import io.prestosql.operator.DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory;
+import io.prestosql.operator.DynamicRowFilter;
 import io.prestosql.operator.EnforceSingleRowOperator;
 import io.prestosql.operator.ExchangeClientSupplier;
 import io.prestosql.operator.ExchangeOperator.ExchangeOperatorFactory;
@@ -75,6 +78,7 @@ import io.prestosql.operator.OrderByOperator.OrderByOperatorFactory;
 import io.prestosql.operator.OutputFactory;
 import io.prestosql.operator.PagesIndex;
 import io.prestosql.operator.PagesSpatialIndexFactory;
+import io.prestosql.operator.PartialAggregationController;
 import io.prestosql.operator.PartitionFunction;
 import io.prestosql.operator.PartitionedLookupSourceFactory;
 import io.prestosql.operator.PartitionedOutputOperator.PartitionedOutputFactory;
@@ -87,6 +91,7 @@ import io.prestosql.operator.SourceOperatorFactory;
 import io.prestosql.operator.SpatialIndexBuilderOperator.SpatialIndexBuilderOperatorFactory;
 import io.prestosql.operator.SpatialIndexBuilderOperator.SpatialPredicate;
 import io.prestosql.operator.SpatialJoinOperator.SpatialJoinOperatorFactory;
+import io.prestosql.operator.SpoolingOutputOperator.SpoolingOutputFactory;
 import io.prestosql.operator.StageExecutionDescriptor;
 import io.prestosql.operator.StatisticsWriterOperator.StatisticsWriterOperatorFactory;
 import io.prestosql.operator.StreamingAggregationOperator;
@@ -118,6 +123,7 @@ import io.prestosql.operator.project.CursorProcessor;
 import io.prestosql.operator.project.PageProcessor;
 import io.prestosql.operator.window.FrameInfo;
 import io.prestosql.operator.window.WindowFunctionSupplier;
+import io.prestosql.server.protocol.ResultSpool;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.PrestoException;
@@ -232,16 +238,21 @@ import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Range.closedOpen;
 import static io.airlift.concurrent.MoreFutures.addSuccessCallback;
+import static io.prestosql.SystemSessionProperties.getAdaptivePartialAggregationMinRows;
+import static io.prestosql.SystemSessionProperties.getAdaptivePartialAggregationUniqueRowsRatioThreshold;
 import static io.prestosql.SystemSessionProperties.getAggregationOperatorUnspillMemoryLimit;
 import static io.prestosql.SystemSessionProperties.getFilterAndProjectMinOutputPageRowCount;
 import static io.prestosql.SystemSessionProperties.getFilterAndProjectMinOutputPageSize;
 import static io.prestosql.SystemSessionProperties.getTaskConcurrency;
 import static io.prestosql.SystemSessionProperties.getTaskWriterCount;
+import static io.prestosql.SystemSessionProperties.isAdaptivePartialAggregationEnabled;
+import static io.prestosql.SystemSessionProperties.isEnableBloomFilterDynamicFilters;
 import static io.prestosql.SystemSessionProperties.isEnableLargeDynamicFilters;
 import static io.prestosql.SystemSessionProperties.isExchangeCompressionEnabled;
 import static io.prestosql.SystemSessionProperties.isLateMaterializationEnabled;
 import static io.prestosql.SystemSessionProperties.isSpillEnabled;
 import static io.prestosql.SystemSessionProperties.isSpillOrderBy;
+import static io.prestosql.SystemSessionProperties.isSpillSemiJoin;
 import static io.prestosql.SystemSessionProperties.isSpillWindowOperator;
 import static io.prestosql.operator.DistinctLimitOperator.DistinctLimitOperatorFactory;
 import static io.prestosql.operator.JoinUtils.isBuildSideReplicated;
@@ -257,6 +268,7 @@ import static io.prestosql.operator.TableWriterOperator.STATS_START_CHANNEL;
 import static io.prestosql.operator.TableWriterOperator.TableWriterOperatorFactory;
 import static io.prestosql.operator.WindowFunctionDefinition.window;
 import static io.prestosql.operator.unnest.UnnestOperator.UnnestOperatorFactory;
+import static io.prestosql.server.protocol.ResultSpool.isResultSpoolingEnabled;
 import static io.prestosql.spi.StandardErrorCode.COMPILER_ERROR;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.TypeUtils.writeNativeValue;
@@ -326,6 +338,7 @@ public class LocalExecutionPlanner
     private final DynamicFilterConfig dynamicFilterConfig;
     private final TypeOperators typeOperators;
     private final BlockTypeOperators blockTypeOperators;
+    private final ResultSpool resultSpool;
 
     @Inject
     public LocalExecutionPlanner(
@@ -351,7 +364,8 @@ public class LocalExecutionPlanner
             OrderingCompiler orderingCompiler,
             DynamicFilterConfig dynamicFilterConfig,
             TypeOperators typeOperators,
-            BlockTypeOperators blockTypeOperators)
+            BlockTypeOperators blockTypeOperators,
+            ResultSpool resultSpool)
     {
         this.explainAnalyzeContext = requireNonNull(explainAnalyzeContext, "explainAnalyzeContext is null");
         this.pageSourceProvider = requireNonNull(pageSourceProvider, "pageSourceProvider is null");
@@ -379,6 +393,7 @@ public class LocalExecutionPlanner
         this.dynamicFilterConfig = requireNonNull(dynamicFilterConfig, "dynamicFilterConfig is null");
         this.typeOperators = requireNonNull(typeOperators, "typeOperators is null");
         this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
+        this.resultSpool = requireNonNull(resultSpool, "resultSpool is null");
     }
 
     public LocalExecutionPlan plan(
@@ -397,6 +412,11 @@ public class LocalExecutionPlanner
                 partitioningScheme.getPartitioning().getHandle().equals(SCALED_WRITER_DISTRIBUTION) ||
                 partitioningScheme.getPartitioning().getHandle().equals(SINGLE_DISTRIBUTION) ||
                 partitioningScheme.getPartitioning().getHandle().equals(COORDINATOR_DISTRIBUTION)) {
+            if (plan instanceof OutputNode && isResultSpoolingEnabled(taskContext.getSession())) {
+                // query output stage
+                OutputFactory outputFactory = new SpoolingOutputFactory(outputBuffer, resultSpool, ((OutputNode) plan).getColumnNames());
+                return plan(taskContext, stageExecutionDescriptor, plan, outputLayout, types, partitionedSourceOrder, outputFactory);
+            }
             return plan(taskContext, stageExecutionDescriptor, plan, outputLayout, types, partitionedSourceOrder, new TaskOutputFactory(outputBuffer));
         }
 
@@ -640,6 +660,26 @@ public class LocalExecutionPlanner
             dynamicFiltersCollector.collectDynamicFilterDomains(dynamicTupleDomain);
         }
 
+        private LocalMemoryContext newBloomFilterMemoryContext()
+        {
+            return taskContext.getTaskMemoryContext().newUserMemoryContext(LocalDynamicFilterConsumer.class.getSimpleName());
+        }
+
+        private void closeOnTaskDone(LocalDynamicFilterConsumer filterConsumer)
+        {
+            // the collected bloom filters are retained by probe-side table scans until the task is done
+            taskContext.addStateChangeListener(state -> {
+                if (state.isDone()) {
+                    filterConsumer.close();
+                }
+            });
+        }
+
+        private void addLocalBloomFilters(Map<DynamicFilterId, BlockedBloomFilter> bloomFilters, Map<DynamicFilterId, Type> filterBuildTypes)
+        {
+            dynamicFiltersCollector.collectBloomFilters(bloomFilters, filterBuildTypes);
+        }
+
         private void addCoordinatorDynamicFilters(Map<DynamicFilterId, Domain> dynamicTupleDomain)
         {
             taskContext.updateDomains(dynamicTupleDomain);
@@ -1304,6 +1344,10 @@ public class LocalExecutionPlanner
                     .filter(expression -> sourceNode instanceof TableScanNode)
                     .map(expression -> getDynamicFilter((TableScanNode) sourceNode, expression, context))
                     .orElse(DynamicFilter.EMPTY);
+            DynamicRowFilter dynamicRowFilter = filterExpression
+                    .filter(expression -> sourceNode instanceof TableScanNode)
+                    .map(expression -> getDynamicRowFilter((TableScanNode) sourceNode, expression, context))
+                    .orElse(DynamicRowFilter.NONE);
 
             List<Expression> projections = new ArrayList<>();
             for (Symbol symbol : outputSymbols) {
@@ -1335,6 +1379,7 @@ public class LocalExecutionPlanner
                             table,
                             columns,
                             dynamicFilter,
+                            dynamicRowFilter,
                             getTypes(projections, expressionTypes),
                             getFilterAndProjectMinOutputPageSize(session),
                             getFilterAndProjectMinOutputPageRowCount(session));
@@ -1382,7 +1427,15 @@ public class LocalExecutionPlanner
             }
 
             DynamicFilter dynamicFilter = getDynamicFilter(node, filterExpression, context);
-            OperatorFactory operatorFactory = new TableScanOperatorFactory(context.getNextOperatorId(), node.getId(), pageSourceProvider, node.getTable(), columns, dynamicFilter);
+            DynamicRowFilter dynamicRowFilter = getDynamicRowFilter(node, filterExpression, context);
+            OperatorFactory operatorFactory = new TableScanOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    pageSourceProvider,
+                    node.getTable(),
+                    columns,
+                    dynamicFilter,
+                    dynamicRowFilter);
             return new PhysicalOperation(operatorFactory, makeLayout(node), context, stageExecutionDescriptor.isScanGroupedExecution(node.getId()) ? GROUPED_EXECUTION : UNGROUPED_EXECUTION);
         }
 
@@ -1411,6 +1464,21 @@ public class LocalExecutionPlanner
             return context.getDynamicFiltersCollector().createDynamicFilter(dynamicFilters, tableScanNode.getAssignments(), context.getTypes());
         }
 
+        private DynamicRowFilter getDynamicRowFilter(
+                TableScanNode tableScanNode,
+                Expression filterExpression,
+                LocalExecutionPlanContext context)
+        {
+            if (!isEnableBloomFilterDynamicFilters(session)) {
+                return DynamicRowFilter.NONE;
+            }
+            List<DynamicFilters.Descriptor> dynamicFilters = extractDynamicFilters(filterExpression).getDynamicConjuncts();
+            if (dynamicFilters.isEmpty()) {
+                return DynamicRowFilter.NONE;
+            }
+            return context.getDynamicFiltersCollector().createDynamicRowFilter(dynamicFilters, tableScanNode.getAssignments(), context.getTypes());
+        }
+
         @Override
         public PhysicalOperation visitValues(ValuesNode node, LocalExecutionPlanContext context)
         {
@@ -2139,7 +2207,7 @@ public class LocalExecutionPlanner
             factoriesBuilder.addAll(buildSource.getOperatorFactories());
 
             createDynamicFilter(buildSource, node, context, partitionCount, localDynamicFilters).ifPresent(
-                    filter -> factoriesBuilder.add(createDynamicFilterSourceOperatorFactory(filter, node, buildSource, buildContext)));
+                    filter -> factoriesBuilder.add(createDynamicFilterSourceOperatorFactory(filter, node, buildSource, buildContext, !localDynamicFilters.isEmpty())));
 
             HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(
                     buildContext.getNextOperatorId(),
@@ -2172,7 +2240,8 @@ public class LocalExecutionPlanner
                 LocalDynamicFilterConsumer dynamicFilter,
                 JoinNode node,
                 PhysicalOperation buildSource,
-                LocalExecutionPlanContext context)
+                LocalExecutionPlanContext context,
+                boolean hasLocalDynamicFilters)
         {
             List<DynamicFilterSourceOperator.Channel> filterBuildChannels = dynamicFilter.getBuildChannels().entrySet().stream()
                     .map(entry -> {
@@ -2191,6 +2260,8 @@ public class LocalExecutionPlanner
                     getDynamicFilteringMaxDistinctValuesPerDriver(context.getSession(), isReplicatedJoin),
                     getDynamicFilteringMaxSizePerDriver(context.getSession(), isReplicatedJoin),
                     getDynamicFilteringRangeRowLimitPerDriver(context.getSession(), isReplicatedJoin),
+                    dynamicFilter.getBloomFilterConsumer(),
+                    getDynamicFilteringBloomFilterMaxSizePerDriver(context.getSession(), hasLocalDynamicFilters),
                     blockTypeOperators);
         }
 
@@ -2213,10 +2284,19 @@ public class LocalExecutionPlanner
                     buildSource.getPipelineExecutionStrategy() != GROUPED_EXECUTION,
                     "Dynamic filtering cannot be used with grouped execution");
             log.debug("[Join] Dynamic filters: %s", node.getDynamicFilters());
-            LocalDynamicFilterConsumer filterConsumer = LocalDynamicFilterConsumer.create(node, buildSource.getTypes(), partitionCount, collectedDynamicFilters);
+            LocalDynamicFilterConsumer filterConsumer = LocalDynamicFilterConsumer.create(
+                    node,
+                    buildSource.getTypes(),
+                    partitionCount,
+                    collectedDynamicFilters,
+                    context.newBloomFilterMemoryContext());
+            context.closeOnTaskDone(filterConsumer);
             ListenableFuture<Map<DynamicFilterId, Domain>> domainsFuture = filterConsumer.getDynamicFilterDomains();
             if (!localDynamicFilters.isEmpty()) {
                 addSuccessCallback(domainsFuture, context::addLocalDynamicFilters);
+                addSuccessCallback(
+                        filterConsumer.getBloomFilters(),
+                        bloomFilters -> context.addLocalBloomFilters(bloomFilters, filterConsumer.getFilterBuildTypes()));
             }
             if (!coordinatorDynamicFilters.isEmpty()) {
                 addSuccessCallback(
@@ -2319,10 +2399,15 @@ public class LocalExecutionPlanner
                 LocalDynamicFilterConsumer filterConsumer = new LocalDynamicFilterConsumer(
                         ImmutableMap.of(filterId, buildChannel),
                         ImmutableMap.of(filterId, buildSource.getTypes().get(buildChannel)),
-                        partitionCount);
+                        partitionCount,
+                        context.newBloomFilterMemoryContext());
+                context.closeOnTaskDone(filterConsumer);
                 ListenableFuture<Map<DynamicFilterId, Domain>> domainsFuture = filterConsumer.getDynamicFilterDomains();
                 if (isLocalDynamicFilter) {
                     addSuccessCallback(domainsFuture, context::addLocalDynamicFilters);
+                    addSuccessCallback(
+                            filterConsumer.getBloomFilters(),
+                            bloomFilters -> context.addLocalBloomFilters(bloomFilters, filterConsumer.getFilterBuildTypes()));
                 }
                 if (isCoordinatorDynamicFilter) {
                     addSuccessCallback(domainsFuture, context::addCoordinatorDynamicFilters);
@@ -2336,12 +2421,20 @@ public class LocalExecutionPlanner
                         getDynamicFilteringMaxDistinctValuesPerDriver(context.getSession(), isReplicatedJoin),
                         getDynamicFilteringMaxSizePerDriver(context.getSession(), isReplicatedJoin),
                         getDynamicFilteringRangeRowLimitPerDriver(context.getSession(), isReplicatedJoin),
+                        filterConsumer.getBloomFilterConsumer(),
+                        getDynamicFilteringBloomFilterMaxSizePerDriver(context.getSession(), isLocalDynamicFilter),
                         blockTypeOperators));
             }
 
             Optional<Integer> buildHashChannel = node.getFilteringSourceHashSymbol().map(channelGetter(buildSource));
             Optional<Integer> probeHashChannel = node.getSourceHashSymbol().map(channelGetter(probeSource));
 
+            // Probes wait for each other while processing spilled partitions, so all of them need to run at the same time
+            boolean spillEnabled = isSpillEnabled(context.getSession())
+                    && isSpillSemiJoin(context.getSession())
+                    && context.getDriverInstanceCount().isPresent()
+                    && buildSource.getPipelineExecutionStrategy() == UNGROUPED_EXECUTION
+                    && probeSource.getPipelineExecutionStrategy() == UNGROUPED_EXECUTION;
             SetBuilderOperatorFactory setBuilderOperatorFactory = new SetBuilderOperatorFactory(
                     buildContext.getNextOperatorId(),
                     node.getId(),
@@ -2350,7 +2443,9 @@ public class LocalExecutionPlanner
                     buildHashChannel,
                     10_000,
                     joinCompiler,
-                    blockTypeOperators);
+                    blockTypeOperators,
+                    spillEnabled,
+                    partitioningSpillerFactory);
             buildOperatorFactories.add(setBuilderOperatorFactory);
             SetSupplier setProvider = setBuilderOperatorFactory.getSetProvider();
             context.addDriverFactory(
@@ -2366,7 +2461,14 @@ public class LocalExecutionPlanner
                     .put(node.getSemiJoinOutput(), probeSource.getLayout().size())
                     .build();
 
-            OperatorFactory operator = HashSemiJoinOperator.createOperatorFactory(context.getNextOperatorId(), node.getId(), setProvider, probeSource.getTypes(), probeChannel, probeHashChannel);
+            OperatorFactory operator = HashSemiJoinOperator.createOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    setProvider,
+                    probeSource.getTypes(),
+                    probeChannel,
+                    probeHashChannel,
+                    partitioningSpillerFactory);
             return new PhysicalOperation(operator, outputMappings, context, probeSource);
         }
 
@@ -2991,6 +3093,13 @@ public class LocalExecutionPlanner
             }
             else {
                 Optional<Integer> hashChannel = hashSymbol.map(channelGetter(source));
+                Optional<PartialAggregationController> partialAggregationController = Optional.empty();
+                // only partial aggregations that are allowed to flush early can be skipped
+                if (step == PARTIAL && maxPartialAggregationMemorySize.isPresent() && isAdaptivePartialAggregationEnabled(context.getSession())) {
+                    partialAggregationController = Optional.of(new PartialAggregationController(
+                            getAdaptivePartialAggregationMinRows(context.getSession()),
+                            getAdaptivePartialAggregationUniqueRowsRatioThreshold(context.getSession())));
+                }
                 return new HashAggregationOperatorFactory(
                         context.getNextOperatorId(),
                         planNodeId,
@@ -3009,7 +3118,8 @@ public class LocalExecutionPlanner
                         spillerFactory,
                         joinCompiler,
                         blockTypeOperators,
-                        useSystemMemory);
+                        useSystemMemory,
+                        partialAggregationController);
             }
         }
     }
@@ -3056,6 +3166,15 @@ public class LocalExecutionPlanner
         return dynamicFilterConfig.getSmallPartitionedRangeRowLimitPerDriver();
     }
 
+    private Optional<DataSize> getDynamicFilteringBloomFilterMaxSizePerDriver(Session session, boolean hasLocalDynamicFilters)
+    {
+        // Bloom filters are only applied by table scans within the same task
+        if (!hasLocalDynamicFilters || !isEnableBloomFilterDynamicFilters(session)) {
+            return Optional.empty();
+        }
+        return Optional.of(dynamicFilterConfig.getBloomFilterMaxSizePerDriver());
+    }
+
     private static List<Type> getTypes(List<Expression> expressions, Map<NodeRef<Expression>, Type> expressionTypes)
     {
         return expressions.stream()
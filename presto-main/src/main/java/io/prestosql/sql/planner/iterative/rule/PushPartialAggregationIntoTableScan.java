@@ -0,0 +1,251 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.planner.iterative.rule;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.prestosql.Session;
+import io.prestosql.matching.Capture;
+import io.prestosql.matching.Captures;
+import io.prestosql.matching.Pattern;
+import io.prestosql.metadata.BoundSignature;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.metadata.TableHandle;
+import io.prestosql.spi.connector.AggregateFunction;
+import io.prestosql.spi.connector.AggregationApplicationResult;
+import io.prestosql.spi.connector.Assignment;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.expression.ConnectorExpression;
+import io.prestosql.spi.expression.Variable;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.planner.ConnectorExpressionTranslator;
+import io.prestosql.sql.planner.LiteralEncoder;
+import io.prestosql.sql.planner.Symbol;
+import io.prestosql.sql.planner.iterative.Rule;
+import io.prestosql.sql.planner.plan.AggregationNode;
+import io.prestosql.sql.planner.plan.AggregationNode.Aggregation;
+import io.prestosql.sql.planner.plan.Assignments;
+import io.prestosql.sql.planner.plan.ProjectNode;
+import io.prestosql.sql.planner.plan.TableScanNode;
+import io.prestosql.sql.tree.CoalesceExpression;
+import io.prestosql.sql.tree.GenericLiteral;
+import io.prestosql.sql.tree.QualifiedName;
+import io.prestosql.sql.tree.SymbolReference;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.prestosql.SystemSessionProperties.isAllowPushdownIntoConnectors;
+import static io.prestosql.matching.Capture.newCapture;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.sql.analyzer.TypeSignatureProvider.fromTypes;
+import static io.prestosql.sql.planner.plan.AggregationNode.Step.SINGLE;
+import static io.prestosql.sql.planner.plan.AggregationNode.globalAggregation;
+import static io.prestosql.sql.planner.plan.Patterns.Aggregation.step;
+import static io.prestosql.sql.planner.plan.Patterns.aggregation;
+import static io.prestosql.sql.planner.plan.Patterns.source;
+import static io.prestosql.sql.planner.plan.Patterns.tableScan;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Pushes the partial step of a global aggregation into the table scan, e.g.
+ * <pre>
+ * - Aggregation: count(*), min(a), max(a)
+ *    - TableScan
+ * </pre>
+ * becomes
+ * <pre>
+ * - Project: count := coalesce(count_sum, 0)
+ *    - Aggregation: count_sum := sum(partial_count), min(partial_min), max(partial_max)
+ *       - Project: partial_count, partial_min, partial_max
+ *          - TableScan (partial results, e.g. one row per file)
+ * </pre>
+ */
+public class PushPartialAggregationIntoTableScan
+        implements Rule<AggregationNode>
+{
+    private static final Capture<TableScanNode> TABLE_SCAN = newCapture();
+
+    private static final String COUNT = "count";
+    private static final Set<String> SUPPORTED_FUNCTIONS = ImmutableSet.of(COUNT, "min", "max");
+
+    private static final Pattern<AggregationNode> PATTERN =
+            aggregation()
+                    .with(step().equalTo(SINGLE))
+                    .matching(PushPartialAggregationIntoTableScan::isGlobalAggregation)
+                    .matching(PushPartialAggregationIntoTableScan::allAggregationsSupported)
+                    .with(source().matching(tableScan().capturedAs(TABLE_SCAN)));
+
+    private final Metadata metadata;
+
+    public PushPartialAggregationIntoTableScan(Metadata metadata)
+    {
+        this.metadata = requireNonNull(metadata, "metadata is null");
+    }
+
+    @Override
+    public Pattern<AggregationNode> getPattern()
+    {
+        return PATTERN;
+    }
+
+    @Override
+    public boolean isEnabled(Session session)
+    {
+        return isAllowPushdownIntoConnectors(session);
+    }
+
+    private static boolean isGlobalAggregation(AggregationNode node)
+    {
+        return node.getGroupingKeys().isEmpty() && node.getGroupingSetCount() == 1;
+    }
+
+    private static boolean allAggregationsSupported(AggregationNode node)
+    {
+        // the partial results are combined with the functions in SUPPORTED_FUNCTIONS, which
+        // cannot apply DISTINCT, FILTER, ORDER BY or masks of the original aggregation
+        return !node.getAggregations().isEmpty() &&
+                node.getAggregations().values().stream().allMatch(aggregation ->
+                        SUPPORTED_FUNCTIONS.contains(aggregation.getResolvedFunction().getSignature().getName()) &&
+                                !aggregation.isDistinct() &&
+                                aggregation.getFilter().isEmpty() &&
+                                aggregation.getOrderingScheme().isEmpty() &&
+                                aggregation.getMask().isEmpty() &&
+                                aggregation.getArguments().stream().allMatch(SymbolReference.class::isInstance));
+    }
+
+    @Override
+    public Result apply(AggregationNode node, Captures captures, Context context)
+    {
+        TableScanNode tableScan = captures.get(TABLE_SCAN);
+        Map<String, ColumnHandle> assignments = tableScan.getAssignments()
+                .entrySet().stream()
+                .collect(toImmutableMap(entry -> entry.getKey().getName(), Entry::getValue));
+
+        List<Entry<Symbol, Aggregation>> aggregations = ImmutableList.copyOf(node.getAggregations().entrySet());
+
+        List<AggregateFunction> aggregateFunctions = aggregations.stream()
+                .map(Entry::getValue)
+                .map(PushPartialAggregationIntoTableScan::toAggregateFunction)
+                .collect(toImmutableList());
+
+        Optional<AggregationApplicationResult<TableHandle>> pushdownResult = metadata.applyPartialAggregation(
+                context.getSession(),
+                tableScan.getTable(),
+                aggregateFunctions,
+                assignments,
+                ImmutableList.of(ImmutableList.of()));
+
+        if (pushdownResult.isEmpty()) {
+            return Result.empty();
+        }
+
+        AggregationApplicationResult<TableHandle> result = pushdownResult.get();
+
+        ImmutableList.Builder<Symbol> newScanOutputs = ImmutableList.builder();
+        ImmutableMap.Builder<Symbol, ColumnHandle> newScanAssignments = ImmutableMap.builder();
+        Map<String, Symbol> variableMappings = new HashMap<>();
+        for (Assignment assignment : result.getAssignments()) {
+            Symbol symbol = context.getSymbolAllocator().newSymbol(assignment.getVariable(), assignment.getType());
+            newScanOutputs.add(symbol);
+            newScanAssignments.put(symbol, assignment.getColumn());
+            variableMappings.put(assignment.getVariable(), symbol);
+        }
+
+        List<ConnectorExpression> projections = result.getProjections();
+        verify(projections.size() == aggregations.size());
+
+        Assignments.Builder partialResults = Assignments.builder();
+        ImmutableMap.Builder<Symbol, Aggregation> finalAggregations = ImmutableMap.builder();
+        Assignments.Builder outputs = Assignments.builder();
+        for (int i = 0; i < aggregations.size(); i++) {
+            Symbol output = aggregations.get(i).getKey();
+            BoundSignature signature = aggregations.get(i).getValue().getResolvedFunction().getSignature();
+            Type type = signature.getReturnType();
+
+            Symbol partialResult = context.getSymbolAllocator().newSymbol("partial_" + signature.getName(), type);
+            partialResults.put(partialResult, ConnectorExpressionTranslator.translate(projections.get(i), variableMappings, new LiteralEncoder(metadata)));
+
+            if (signature.getName().equals(COUNT)) {
+                // partial counts are summed, and the sum of no rows is null rather than zero
+                Symbol sum = context.getSymbolAllocator().newSymbol("count_sum", BIGINT);
+                finalAggregations.put(sum, combiningAggregation("sum", BIGINT, partialResult));
+                outputs.put(output, new CoalesceExpression(sum.toSymbolReference(), new GenericLiteral("BIGINT", "0")));
+            }
+            else {
+                finalAggregations.put(output, combiningAggregation(signature.getName(), type, partialResult));
+                outputs.putIdentity(output);
+            }
+        }
+
+        return Result.ofPlanNode(
+                new ProjectNode(
+                        context.getIdAllocator().getNextId(),
+                        new AggregationNode(
+                                node.getId(),
+                                new ProjectNode(
+                                        context.getIdAllocator().getNextId(),
+                                        TableScanNode.newInstance(
+                                                context.getIdAllocator().getNextId(),
+                                                result.getHandle(),
+                                                newScanOutputs.build(),
+                                                newScanAssignments.build()),
+                                        partialResults.build()),
+                                finalAggregations.build(),
+                                globalAggregation(),
+                                ImmutableList.of(),
+                                SINGLE,
+                                Optional.empty(),
+                                Optional.empty()),
+                        outputs.build()));
+    }
+
+    private Aggregation combiningAggregation(String name, Type type, Symbol partialResult)
+    {
+        return new Aggregation(
+                metadata.resolveFunction(QualifiedName.of(name), fromTypes(type)),
+                ImmutableList.of(partialResult.toSymbolReference()),
+                false,
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty());
+    }
+
+    private static AggregateFunction toAggregateFunction(Aggregation aggregation)
+    {
+        BoundSignature signature = aggregation.getResolvedFunction().getSignature();
+
+        ImmutableList.Builder<ConnectorExpression> arguments = ImmutableList.builder();
+        for (int i = 0; i < aggregation.getArguments().size(); i++) {
+            SymbolReference argument = (SymbolReference) aggregation.getArguments().get(i);
+            arguments.add(new Variable(argument.getName(), signature.getArgumentTypes().get(i)));
+        }
+
+        return new AggregateFunction(
+                signature.getName(),
+                signature.getReturnType(),
+                arguments.build(),
+                ImmutableList.of(),
+                false,
+                Optional.empty());
+    }
+}
@@ -474,7 +474,14 @@ public final class PropertyDerivations
         @Override
         public ActualProperties visitSemiJoin(SemiJoinNode node, List<ActualProperties> inputProperties)
         {
-            return inputProperties.get(0);
+            ActualProperties probeProperties = inputProperties.get(0);
+            if (semiJoinSpillPossible(session)) {
+                // probe rows are output partition by partition once the filtering set has been spilled
+                return ActualProperties.builderFrom(probeProperties)
+                        .unordered(true)
+                        .build();
+            }
+            return probeProperties;
         }
 
         @Override
@@ -826,6 +833,11 @@ public final class PropertyDerivations
         }
     }
 
+    static boolean semiJoinSpillPossible(Session session)
+    {
+        return SystemSessionProperties.isSpillEnabled(session) && SystemSessionProperties.isSpillSemiJoin(session);
+    }
+
     static boolean spillPossible(Session session, JoinNode.Type joinType)
     {
         if (!SystemSessionProperties.isSpillEnabled(session)) {
@@ -588,7 +588,8 @@ public final class StreamPropertyDerivations
         @Override
         public StreamProperties visitSemiJoin(SemiJoinNode node, List<StreamProperties> inputProperties)
         {
-            return inputProperties.get(0);
+            return inputProperties.get(0)
+                    .unordered(PropertyDerivations.semiJoinSpillPossible(session));
         }
 
         @Override
@@ -41,6 +41,7 @@ public class PlanNodeStats
     private final DataSize planNodeInputDataSize;
     private final long planNodeOutputPositions;
     private final DataSize planNodeOutputDataSize;
+    private final long planNodePartialAggregationSkippedPositions;
 
     protected final Map<String, OperatorInputStats> operatorInputStats;
 
@@ -52,6 +53,7 @@ public class PlanNodeStats
             DataSize planNodeInputDataSize,
             long planNodeOutputPositions,
             DataSize planNodeOutputDataSize,
+            long planNodePartialAggregationSkippedPositions,
             Map<String, OperatorInputStats> operatorInputStats)
     {
         this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -62,6 +64,7 @@ public class PlanNodeStats
         this.planNodeInputDataSize = planNodeInputDataSize;
         this.planNodeOutputPositions = planNodeOutputPositions;
         this.planNodeOutputDataSize = planNodeOutputDataSize;
+        this.planNodePartialAggregationSkippedPositions = planNodePartialAggregationSkippedPositions;
 
         this.operatorInputStats = requireNonNull(operatorInputStats, "operatorInputStats is null");
     }
@@ -114,6 +117,11 @@ public class PlanNodeStats
         return planNodeOutputDataSize;
     }
 
+    public long getPlanNodePartialAggregationSkippedPositions()
+    {
+        return planNodePartialAggregationSkippedPositions;
+    }
+
     public Map<String, Double> getOperatorInputPositionsAverages()
     {
         return operatorInputStats.entrySet().stream()
@@ -142,6 +150,7 @@ public class PlanNodeStats
         DataSize planNodeInputDataSize = succinctBytes(this.planNodeInputDataSize.toBytes() + other.planNodeInputDataSize.toBytes());
         long planNodeOutputPositions = this.planNodeOutputPositions + other.planNodeOutputPositions;
         DataSize planNodeOutputDataSize = succinctBytes(this.planNodeOutputDataSize.toBytes() + other.planNodeOutputDataSize.toBytes());
+        long planNodePartialAggregationSkippedPositions = this.planNodePartialAggregationSkippedPositions + other.planNodePartialAggregationSkippedPositions;
 
         Map<String, OperatorInputStats> operatorInputStats = mergeMaps(this.operatorInputStats, other.operatorInputStats, OperatorInputStats::merge);
 
@@ -151,6 +160,7 @@ public class PlanNodeStats
                 new Duration(planNodeCpuTime.toMillis() + other.getPlanNodeCpuTime().toMillis(), MILLISECONDS),
                 planNodeInputPositions, planNodeInputDataSize,
                 planNodeOutputPositions, planNodeOutputDataSize,
+                planNodePartialAggregationSkippedPositions,
                 operatorInputStats);
     }
 }
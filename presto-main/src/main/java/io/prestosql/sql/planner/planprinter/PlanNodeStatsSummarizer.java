@@ -77,6 +77,7 @@ public final class PlanNodeStatsSummarizer
         Map<PlanNodeId, Long> planNodeOutputBytes = new HashMap<>();
         Map<PlanNodeId, Long> planNodeScheduledMillis = new HashMap<>();
         Map<PlanNodeId, Long> planNodeCpuMillis = new HashMap<>();
+        Map<PlanNodeId, Long> planNodePartialAggregationSkippedPositions = new HashMap<>();
 
         Map<PlanNodeId, Map<String, OperatorInputStats>> operatorInputStats = new HashMap<>();
         Map<PlanNodeId, Map<String, OperatorHashCollisionsStats>> operatorHashCollisionsStats = new HashMap<>();
@@ -103,6 +104,8 @@ public final class PlanNodeStatsSummarizer
                 long cpuMillis = operatorStats.getAddInputCpu().toMillis() + operatorStats.getGetOutputCpu().toMillis() + operatorStats.getFinishCpu().toMillis();
                 planNodeCpuMillis.merge(planNodeId, cpuMillis, Long::sum);
 
+                planNodePartialAggregationSkippedPositions.merge(planNodeId, operatorStats.getPartialAggregationSkippedPositions(), Long::sum);
+
                 // A pipeline like hash build before join might link to another "internal" pipelines which provide actual input for this plan node
                 if (operatorStats.getPlanNodeId().equals(inputPlanNode) && !pipelineStats.isInputPipeline()) {
                     continue;
@@ -185,6 +188,7 @@ public final class PlanNodeStatsSummarizer
                         succinctBytes(planNodeInputBytes.get(planNodeId)),
                         outputPositions,
                         succinctBytes(planNodeOutputBytes.getOrDefault(planNodeId, 0L)),
+                        planNodePartialAggregationSkippedPositions.getOrDefault(planNodeId, 0L),
                         operatorInputStats.get(planNodeId),
                         operatorHashCollisionsStats.get(planNodeId));
             }
@@ -197,6 +201,7 @@ public final class PlanNodeStatsSummarizer
                         succinctBytes(planNodeInputBytes.get(planNodeId)),
                         outputPositions,
                         succinctBytes(planNodeOutputBytes.getOrDefault(planNodeId, 0L)),
+                        planNodePartialAggregationSkippedPositions.getOrDefault(planNodeId, 0L),
                         operatorInputStats.get(planNodeId),
                         windowNodeStats.get(planNodeId));
             }
@@ -209,6 +214,7 @@ public final class PlanNodeStatsSummarizer
                         succinctBytes(planNodeInputBytes.get(planNodeId)),
                         outputPositions,
                         succinctBytes(planNodeOutputBytes.getOrDefault(planNodeId, 0L)),
+                        planNodePartialAggregationSkippedPositions.getOrDefault(planNodeId, 0L),
                         operatorInputStats.get(planNodeId));
             }
 
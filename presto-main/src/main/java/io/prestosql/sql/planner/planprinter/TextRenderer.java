@@ -133,6 +133,14 @@ public class TextRenderer
 
         printDistributions(output, nodeStats);
 
+        long partialAggregationSkippedPositions = nodeStats.getPlanNodePartialAggregationSkippedPositions();
+        if (partialAggregationSkippedPositions > 0) {
+            double skippedFraction = 100.0d * partialAggregationSkippedPositions / nodeStats.getPlanNodeInputPositions();
+            output.append(format(Locale.US, "Partial aggregation skipped: %s (%s%% of input)\n",
+                    formatPositions(partialAggregationSkippedPositions),
+                    formatDouble(skippedFraction)));
+        }
+
         if (nodeStats instanceof WindowPlanNodeStats) {
             printWindowOperatorStats(output, ((WindowPlanNodeStats) nodeStats).getWindowOperatorStats());
         }
@@ -34,10 +34,11 @@ public class WindowPlanNodeStats
             DataSize planNodeInputDataSize,
             long planNodeOutputPositions,
             DataSize planNodeOutputDataSize,
+            long planNodePartialAggregationSkippedPositions,
             Map<String, OperatorInputStats> operatorInputStats,
             WindowOperatorStats windowOperatorStats)
     {
-        super(planNodeId, planNodeScheduledTime, planNodeCpuTime, planNodeInputPositions, planNodeInputDataSize, planNodeOutputPositions, planNodeOutputDataSize, operatorInputStats);
+        super(planNodeId, planNodeScheduledTime, planNodeCpuTime, planNodeInputPositions, planNodeInputDataSize, planNodeOutputPositions, planNodeOutputDataSize, planNodePartialAggregationSkippedPositions, operatorInputStats);
         this.windowOperatorStats = windowOperatorStats;
     }
 
@@ -60,6 +61,7 @@ public class WindowPlanNodeStats
                 merged.getPlanNodeInputDataSize(),
                 merged.getPlanNodeOutputPositions(),
                 merged.getPlanNodeOutputDataSize(),
+                merged.getPlanNodePartialAggregationSkippedPositions(),
                 merged.operatorInputStats,
                 windowOperatorStats);
     }
@@ -33,6 +33,8 @@ import io.prestosql.metadata.Split;
 import io.prestosql.operator.LookupJoinOperators;
 import io.prestosql.operator.PagesIndex;
 import io.prestosql.operator.index.IndexJoinLookupStats;
+import io.prestosql.server.protocol.ResultSpool;
+import io.prestosql.server.protocol.ResultSpoolConfig;
 import io.prestosql.spi.type.TypeOperators;
 import io.prestosql.spiller.GenericSpillerFactory;
 import io.prestosql.split.PageSinkManager;
@@ -149,7 +151,8 @@ public final class TaskTestUtils
                 new OrderingCompiler(typeOperators),
                 new DynamicFilterConfig(),
                 typeOperators,
-                blockTypeOperators);
+                blockTypeOperators,
+                new ResultSpool(new ResultSpoolConfig(), new InMemoryNodeManager()));
     }
 
     public static TaskInfo updateTask(SqlTask sqlTask, List<TaskSource> taskSources, OutputBuffers outputBuffers)
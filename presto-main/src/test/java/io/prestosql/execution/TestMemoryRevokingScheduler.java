@@ -23,6 +23,7 @@ import io.airlift.stats.CounterStat;
 import io.airlift.stats.TestingGcMonitor;
 import io.airlift.units.DataSize;
 import io.prestosql.Session;
+import io.prestosql.execution.buffer.PageBufferAllocator;
 import io.prestosql.execution.executor.TaskExecutor;
 import io.prestosql.memory.MemoryPool;
 import io.prestosql.memory.QueryContext;
@@ -306,6 +307,7 @@ public class TestMemoryRevokingScheduler
                 Functions.identity(),
                 DataSize.of(32, MEGABYTE),
                 DataSize.of(200, MEGABYTE),
+                PageBufferAllocator.onHeapAllocator(),
                 new CounterStat());
     }
 }
@@ -18,6 +18,7 @@ import com.google.common.collect.ImmutableSet;
 import io.airlift.json.JsonCodec;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.prestosql.execution.scheduler.AdaptiveJoinDecision;
 import io.prestosql.operator.FilterAndProjectOperator;
 import io.prestosql.operator.OperatorStats;
 import io.prestosql.operator.TableWriterOperator;
@@ -31,6 +32,8 @@ import java.util.Optional;
 
 import static io.airlift.units.DataSize.succinctBytes;
 import static io.prestosql.server.DynamicFilterService.DynamicFiltersStats;
+import static io.prestosql.sql.planner.plan.JoinNode.DistributionType.PARTITIONED;
+import static io.prestosql.sql.planner.plan.JoinNode.DistributionType.REPLICATED;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.joda.time.DateTimeZone.UTC;
 import static org.testng.Assert.assertEquals;
@@ -62,6 +65,8 @@ public class TestQueryStats
                     succinctBytes(116L),
                     117L,
                     1833,
+                    1834,
+                    1835,
                     succinctBytes(118L),
                     new Duration(119, NANOSECONDS),
                     120L,
@@ -101,6 +106,8 @@ public class TestQueryStats
                     succinctBytes(216L),
                     217L,
                     2833,
+                    2834,
+                    2835,
                     succinctBytes(218L),
                     new Duration(219, NANOSECONDS),
                     220L,
@@ -140,6 +147,8 @@ public class TestQueryStats
                     succinctBytes(316L),
                     317L,
                     3833,
+                    3834,
+                    3835,
                     succinctBytes(318L),
                     new Duration(319, NANOSECONDS),
                     320L,
@@ -229,6 +238,8 @@ public class TestQueryStats
 
             DynamicFiltersStats.EMPTY,
 
+            ImmutableList.of(new AdaptiveJoinDecision(new PlanNodeId("5"), REPLICATED, PARTITIONED, DataSize.ofBytes(31))),
+
             operatorSummaries);
 
     @Test
@@ -316,5 +327,7 @@ public class TestQueryStats
         assertEquals(58, actual.getLogicalWrittenDataSize().toBytes());
 
         assertEquals(DynamicFiltersStats.EMPTY, actual.getDynamicFiltersStats());
+
+        assertEquals(actual.getAdaptiveJoinDecisions(), ImmutableList.of(new AdaptiveJoinDecision(new PlanNodeId("5"), REPLICATED, PARTITIONED, DataSize.ofBytes(31))));
     }
 }
@@ -26,6 +26,7 @@ import io.prestosql.execution.buffer.BufferResult;
 import io.prestosql.execution.buffer.BufferState;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
+import io.prestosql.execution.buffer.PageBufferAllocator;
 import io.prestosql.execution.executor.TaskExecutor;
 import io.prestosql.memory.MemoryPool;
 import io.prestosql.memory.QueryContext;
@@ -52,6 +53,7 @@ import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
 import static io.prestosql.execution.DynamicFiltersCollector.INITIAL_DYNAMIC_FILTERS_VERSION;
 import static io.prestosql.execution.SqlTask.createSqlTask;
+import static io.prestosql.execution.TaskStatus.NO_ACKNOWLEDGED_SPLIT;
 import static io.prestosql.execution.TaskStatus.STARTING_VERSION;
 import static io.prestosql.execution.TaskTestUtils.EMPTY_SOURCES;
 import static io.prestosql.execution.TaskTestUtils.PLAN_FRAGMENT;
@@ -343,6 +345,33 @@ public class TestSqlTask
         future.get();
     }
 
+    @Test(timeOut = 30_000)
+    public void testMaxAcknowledgedSplit()
+    {
+        SqlTask sqlTask = createInitialTask();
+        assertEquals(sqlTask.getTaskStatus().getMaxAcknowledgedSplit(), NO_ACKNOWLEDGED_SPLIT);
+
+        OutputBuffers outputBuffers = createInitialEmptyOutputBuffers(PARTITIONED)
+                .withBuffer(OUT, 0)
+                .withNoMoreBufferIds();
+        sqlTask.updateTask(TEST_SESSION,
+                Optional.of(PLAN_FRAGMENT),
+                ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, ImmutableSet.of(SPLIT), false)),
+                outputBuffers,
+                OptionalInt.empty());
+        assertEquals(sqlTask.getTaskStatus().getMaxAcknowledgedSplit(), SPLIT.getSequenceId());
+
+        ScheduledSplit nextSplit = new ScheduledSplit(SPLIT.getSequenceId() + 5, TABLE_SCAN_NODE_ID, SPLIT.getSplit());
+        sqlTask.updateTask(TEST_SESSION,
+                Optional.empty(),
+                ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, ImmutableSet.of(nextSplit), false)),
+                outputBuffers,
+                OptionalInt.empty());
+        assertEquals(sqlTask.getTaskStatus().getMaxAcknowledgedSplit(), nextSplit.getSequenceId());
+
+        sqlTask.cancel();
+    }
+
     private SqlTask createInitialTask()
     {
         TaskId taskId = new TaskId("query", 0, nextTaskId.incrementAndGet());
@@ -370,6 +399,7 @@ public class TestSqlTask
                 Functions.identity(),
                 DataSize.of(32, MEGABYTE),
                 DataSize.of(200, MEGABYTE),
+                PageBufferAllocator.onHeapAllocator(),
                 new CounterStat());
     }
 }
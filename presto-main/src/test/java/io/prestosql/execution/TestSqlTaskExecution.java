@@ -29,6 +29,7 @@ import io.prestosql.execution.buffer.BufferResult;
 import io.prestosql.execution.buffer.BufferState;
 import io.prestosql.execution.buffer.OutputBuffer;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
+import io.prestosql.execution.buffer.PageBufferAllocator;
 import io.prestosql.execution.buffer.PagesSerdeFactory;
 import io.prestosql.execution.buffer.PartitionedOutputBuffer;
 import io.prestosql.execution.buffer.SerializedPage;
@@ -618,7 +619,8 @@ public class TestSqlTaskExecution
                         .withNoMoreBufferIds(),
                 DataSize.of(1, MEGABYTE),
                 () -> new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
-                taskNotificationExecutor);
+                taskNotificationExecutor,
+                PageBufferAllocator.onHeapAllocator());
     }
 
     private <T> void waitUntilEquals(Supplier<T> actualSupplier, T expected, Duration timeout)
@@ -37,6 +37,8 @@ public class TestTaskManagerConfig
                 .setSplitConcurrencyAdjustmentInterval(new Duration(100, TimeUnit.MILLISECONDS))
                 .setStatusRefreshMaxWait(new Duration(1, TimeUnit.SECONDS))
                 .setInfoUpdateInterval(new Duration(3, TimeUnit.SECONDS))
+                .setIncrementalInfoEnabled(false)
+                .setInfoFullRefreshInterval(new Duration(30, TimeUnit.SECONDS))
                 .setPerOperatorCpuTimerEnabled(true)
                 .setTaskCpuTimerEnabled(true)
                 .setMaxWorkerThreads(Runtime.getRuntime().availableProcessors() * 2)
@@ -59,6 +61,8 @@ public class TestTaskManagerConfig
                 .setTaskNotificationThreads(5)
                 .setTaskYieldThreads(3)
                 .setLevelTimeMultiplier(new BigDecimal("2"))
+                .setConcurrentSplitQueueEnabled(false)
+                .setSplitAffinityEnabled(false)
                 .setStatisticsCpuTimerEnabled(true));
     }
 
@@ -70,6 +74,8 @@ public class TestTaskManagerConfig
                 .put("task.split-concurrency-adjustment-interval", "1s")
                 .put("task.status-refresh-max-wait", "2s")
                 .put("task.info-update-interval", "2s")
+                .put("task.incremental-info-enabled", "true")
+                .put("task.info-full-refresh-interval", "1m")
                 .put("task.per-operator-cpu-timer-enabled", "false")
                 .put("task.cpu-timer-enabled", "false")
                 .put("task.max-index-memory", "512MB")
@@ -92,6 +98,8 @@ public class TestTaskManagerConfig
                 .put("task.task-notification-threads", "13")
                 .put("task.task-yield-threads", "8")
                 .put("task.level-time-multiplier", "2.1")
+                .put("task.concurrent-split-queue-enabled", "true")
+                .put("task.split-affinity-enabled", "true")
                 .put("task.statistics-cpu-timer-enabled", "false")
                 .build();
 
@@ -100,6 +108,8 @@ public class TestTaskManagerConfig
                 .setSplitConcurrencyAdjustmentInterval(new Duration(1, TimeUnit.SECONDS))
                 .setStatusRefreshMaxWait(new Duration(2, TimeUnit.SECONDS))
                 .setInfoUpdateInterval(new Duration(2, TimeUnit.SECONDS))
+                .setIncrementalInfoEnabled(true)
+                .setInfoFullRefreshInterval(new Duration(1, TimeUnit.MINUTES))
                 .setPerOperatorCpuTimerEnabled(false)
                 .setTaskCpuTimerEnabled(false)
                 .setMaxIndexMemoryUsage(DataSize.of(512, Unit.MEGABYTE))
@@ -122,6 +132,8 @@ public class TestTaskManagerConfig
                 .setTaskNotificationThreads(13)
                 .setTaskYieldThreads(8)
                 .setLevelTimeMultiplier(new BigDecimal("2.1"))
+                .setConcurrentSplitQueueEnabled(true)
+                .setSplitAffinityEnabled(true)
                 .setStatisticsCpuTimerEnabled(false);
 
         assertFullMapping(properties, expected);
@@ -1076,7 +1076,8 @@ public class TestArbitraryOutputBuffer
                 new StateMachine<>("bufferState", stateNotificationExecutor, OPEN, TERMINAL_BUFFER_STATES),
                 dataSize,
                 () -> new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
-                stateNotificationExecutor);
+                stateNotificationExecutor,
+                PageBufferAllocator.onHeapAllocator());
         buffer.setOutputBuffers(buffers);
         return buffer;
     }
@@ -1153,6 +1153,7 @@ public class TestBroadcastOutputBuffer
                 dataSize,
                 () -> memoryContext.newLocalMemoryContext("test"),
                 notificationExecutor,
+                PageBufferAllocator.onHeapAllocator(),
                 () -> {});
         buffer.setOutputBuffers(outputBuffers);
         return buffer;
@@ -1219,6 +1220,7 @@ public class TestBroadcastOutputBuffer
                 dataSize,
                 () -> new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
                 stateNotificationExecutor,
+                PageBufferAllocator.onHeapAllocator(),
                 notifyStatusChanged);
         buffer.setOutputBuffers(outputBuffers);
         return buffer;
@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.buffer;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+import io.prestosql.execution.buffer.PageCodecMarker.MarkerSet;
+import org.testng.annotations.Test;
+
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class TestPageBufferAllocator
+{
+    @Test
+    public void testOnHeapAllocator()
+    {
+        PageBufferAllocator allocator = PageBufferAllocator.onHeapAllocator();
+        SerializedPage page = createPage(100);
+
+        PooledSerializedPage pooledPage = allocator.allocate(page);
+        assertFalse(pooledPage.isOffHeap());
+        assertSame(pooledPage.getSerializedPage(), page);
+        pooledPage.release();
+        assertEquals(allocator.getAllocatedBytes(), 0);
+        assertEquals(allocator.getOnHeapPages(), 1);
+    }
+
+    @Test
+    public void testOffHeapRoundTrip()
+    {
+        PageBufferAllocator allocator = new PageBufferAllocator(DataSize.of(64, KILOBYTE));
+        SerializedPage page = createPage(5000);
+
+        PooledSerializedPage pooledPage = allocator.allocate(page);
+        assertTrue(pooledPage.isOffHeap());
+        assertPageEquals(pooledPage.getSerializedPage(), page);
+        assertEquals(allocator.getAllocatedBytes(), 8192);
+        assertEquals(allocator.getUsedBytes(), 8192);
+
+        pooledPage.release();
+        assertEquals(allocator.getUsedBytes(), 0);
+
+        // released buffer is reused
+        pooledPage = allocator.allocate(createPage(6000));
+        assertTrue(pooledPage.isOffHeap());
+        assertEquals(allocator.getAllocatedBytes(), 8192);
+        pooledPage.release();
+        assertEquals(allocator.getUsedBytes(), 0);
+        assertThrows(IllegalStateException.class, pooledPage::release);
+    }
+
+    @Test
+    public void testReferenceCount()
+    {
+        PageBufferAllocator allocator = new PageBufferAllocator(DataSize.of(64, KILOBYTE));
+        SerializedPage page = createPage(5000);
+
+        PooledSerializedPage pooledPage = allocator.allocate(page);
+        pooledPage.retain();
+
+        // the buffer is not reused while a reader holds a reference
+        pooledPage.release();
+        assertEquals(allocator.getUsedBytes(), 8192);
+        PooledSerializedPage other = allocator.allocate(createPage(6000));
+        assertEquals(allocator.getAllocatedBytes(), 16384);
+        assertPageEquals(pooledPage.getSerializedPage(), page);
+
+        pooledPage.release();
+        other.release();
+        assertEquals(allocator.getUsedBytes(), 0);
+        assertThrows(IllegalStateException.class, pooledPage::retain);
+    }
+
+    @Test
+    public void testFallbackToHeap()
+    {
+        PageBufferAllocator allocator = new PageBufferAllocator(DataSize.of(8, KILOBYTE));
+
+        PooledSerializedPage first = allocator.allocate(createPage(8000));
+        assertTrue(first.isOffHeap());
+
+        // pool is exhausted
+        PooledSerializedPage second = allocator.allocate(createPage(100));
+        assertFalse(second.isOffHeap());
+
+        // a free buffer of a larger size class is used when the pool is full
+        first.release();
+        PooledSerializedPage third = allocator.allocate(createPage(100));
+        assertTrue(third.isOffHeap());
+        assertEquals(allocator.getAllocatedBytes(), 8192);
+        assertEquals(allocator.getUsedBytes(), 8192);
+        third.release();
+
+        // the buffer is returned to the size class of its capacity
+        PooledSerializedPage fourth = allocator.allocate(createPage(8000));
+        assertTrue(fourth.isOffHeap());
+        assertEquals(allocator.getAllocatedBytes(), 8192);
+        fourth.release();
+
+        assertEquals(allocator.getOffHeapPages(), 3);
+        assertEquals(allocator.getOnHeapPages(), 1);
+    }
+
+    private static SerializedPage createPage(int size)
+    {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) i;
+        }
+        Slice slice = Slices.wrappedBuffer(bytes);
+        return new SerializedPage(slice, MarkerSet.empty(), 3, size);
+    }
+
+    private static void assertPageEquals(SerializedPage actual, SerializedPage expected)
+    {
+        assertEquals(actual.getSlice(), expected.getSlice());
+        assertEquals(actual.getPageCodecMarkers(), expected.getPageCodecMarkers());
+        assertEquals(actual.getPositionCount(), expected.getPositionCount());
+        assertEquals(actual.getUncompressedSizeInBytes(), expected.getUncompressedSizeInBytes());
+    }
+}
@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.execution.buffer.BufferResult.emptyResults;
 import static io.prestosql.execution.buffer.BufferState.OPEN;
 import static io.prestosql.execution.buffer.BufferState.TERMINAL_BUFFER_STATES;
@@ -661,6 +662,59 @@ public class TestPartitionedOutputBuffer
         assertFutureIsDone(secondEnqueuePage);
     }
 
+    @Test
+    public void testOffHeapPagesRetainedByResult()
+    {
+        PageBufferAllocator pageBufferAllocator = new PageBufferAllocator(DataSize.of(1, MEGABYTE));
+        PartitionedOutputBuffer buffer = createPartitionedBuffer(
+                createInitialEmptyOutputBuffers(PARTITIONED)
+                        .withBuffer(FIRST, 0)
+                        .withNoMoreBufferIds(),
+                sizeOfPages(10),
+                pageBufferAllocator);
+
+        addPage(buffer, createPage(0));
+        addPage(buffer, createPage(1));
+        assertEquals(pageBufferAllocator.getOffHeapPages(), 2);
+        long usedBytes = pageBufferAllocator.getUsedBytes();
+        assertTrue(usedBytes > 0);
+
+        BufferResult result = getBufferResult(buffer, FIRST, 0, sizeOfPages(10), NO_WAIT);
+        assertBufferResultEquals(TYPES, result, bufferResult(0, createPage(0), createPage(1)));
+
+        // destroying the buffer while the result is sent does not release the page buffers
+        buffer.destroy();
+        assertFinished(buffer);
+        assertEquals(pageBufferAllocator.getUsedBytes(), usedBytes);
+        assertBufferResultEquals(TYPES, result, bufferResult(0, createPage(0), createPage(1)));
+
+        result.release();
+        assertEquals(pageBufferAllocator.getUsedBytes(), 0);
+    }
+
+    @Test
+    public void testOffHeapPagesReleasedOnAcknowledge()
+    {
+        PageBufferAllocator pageBufferAllocator = new PageBufferAllocator(DataSize.of(1, MEGABYTE));
+        PartitionedOutputBuffer buffer = createPartitionedBuffer(
+                createInitialEmptyOutputBuffers(PARTITIONED)
+                        .withBuffer(FIRST, 0)
+                        .withNoMoreBufferIds(),
+                sizeOfPages(10),
+                pageBufferAllocator);
+
+        addPage(buffer, createPage(0));
+        BufferResult result = getBufferResult(buffer, FIRST, 0, sizeOfPages(10), NO_WAIT);
+        result.release();
+        assertTrue(pageBufferAllocator.getUsedBytes() > 0);
+
+        // the buffer is reused once the page is acknowledged
+        buffer.acknowledge(FIRST, 1);
+        assertEquals(pageBufferAllocator.getUsedBytes(), 0);
+        addPage(buffer, createPage(1));
+        assertBufferResultEquals(TYPES, getBufferResult(buffer, FIRST, 1, sizeOfPages(10), NO_WAIT), bufferResult(1, createPage(1)));
+    }
+
     @Test
     public void testFailDoesNotFreeReader()
     {
@@ -836,6 +890,11 @@ public class TestPartitionedOutputBuffer
     }
 
     private PartitionedOutputBuffer createPartitionedBuffer(OutputBuffers buffers, DataSize dataSize)
+    {
+        return createPartitionedBuffer(buffers, dataSize, PageBufferAllocator.onHeapAllocator());
+    }
+
+    private PartitionedOutputBuffer createPartitionedBuffer(OutputBuffers buffers, DataSize dataSize, PageBufferAllocator pageBufferAllocator)
     {
         return new PartitionedOutputBuffer(
                 TASK_INSTANCE_ID,
@@ -843,7 +902,8 @@ public class TestPartitionedOutputBuffer
                 buffers,
                 dataSize,
                 () -> new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
-                stateNotificationExecutor);
+                stateNotificationExecutor,
+                pageBufferAllocator);
     }
 
     private static BufferResult bufferResult(long token, Page firstPage, Page... otherPages)
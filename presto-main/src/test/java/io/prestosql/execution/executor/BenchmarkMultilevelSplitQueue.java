@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.prestosql.execution.executor.TestConcurrentMultilevelSplitQueue.createSplit;
+import static io.prestosql.execution.executor.TestConcurrentMultilevelSplitQueue.createTaskHandle;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures the throughput of worker threads repeatedly taking a split from the queue and
+ * offering it back, which is the pattern of many short splits. Run with different thread
+ * counts to compare the contention of the queue implementations.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = SECONDS)
+public class BenchmarkMultilevelSplitQueue
+{
+    private static final int[] THREAD_COUNTS = {1, 4, 16, 64};
+
+    @Param({"LOCKED", "CONCURRENT"})
+    private QueueType queueType = QueueType.CONCURRENT;
+
+    @Param({"1000"})
+    private int splitCount = 1000;
+
+    private AbstractMultilevelSplitQueue splitQueue;
+
+    @Setup
+    public void setup()
+    {
+        splitQueue = queueType.create();
+        List<TaskHandle> taskHandles = ImmutableList.of(
+                createTaskHandle("level0", splitQueue, 0),
+                createTaskHandle("level1", splitQueue, 2),
+                createTaskHandle("level2", splitQueue, 20));
+        for (int i = 0; i < splitCount; i++) {
+            splitQueue.offer(createSplit(taskHandles.get(i % taskHandles.size())));
+        }
+    }
+
+    @Benchmark
+    public PrioritizedSplitRunner takeAndOffer()
+            throws InterruptedException
+    {
+        PrioritizedSplitRunner split = splitQueue.take();
+        splitQueue.offer(split);
+        return split;
+    }
+
+    public enum QueueType
+    {
+        LOCKED {
+            @Override
+            AbstractMultilevelSplitQueue create()
+            {
+                return new MultilevelSplitQueue(2);
+            }
+        },
+        CONCURRENT {
+            @Override
+            AbstractMultilevelSplitQueue create()
+            {
+                return new ConcurrentMultilevelSplitQueue(2);
+            }
+        };
+
+        abstract AbstractMultilevelSplitQueue create();
+    }
+
+    public static void main(String[] args)
+            throws RunnerException, InterruptedException
+    {
+        // assure the benchmarks are valid before running
+        BenchmarkMultilevelSplitQueue benchmark = new BenchmarkMultilevelSplitQueue();
+        benchmark.setup();
+        benchmark.takeAndOffer();
+
+        for (int threads : THREAD_COUNTS) {
+            Options options = new OptionsBuilder()
+                    .verbosity(VerboseMode.NORMAL)
+                    .threads(threads)
+                    .include(".*" + BenchmarkMultilevelSplitQueue.class.getSimpleName() + ".*")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
+import io.airlift.units.Duration;
+import io.prestosql.execution.SplitRunner;
+import io.prestosql.execution.TaskId;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestConcurrentMultilevelSplitQueue
+{
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = Executors.newCachedThreadPool(daemonThreadsNamed("test-split-queue-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSameSelectionAsMultilevelSplitQueue()
+            throws Exception
+    {
+        assertEquals(takeAll(new ConcurrentMultilevelSplitQueue(2)), takeAll(new MultilevelSplitQueue(2)));
+    }
+
+    @Test
+    public void testRemove()
+            throws Exception
+    {
+        AbstractMultilevelSplitQueue splitQueue = new ConcurrentMultilevelSplitQueue(2);
+        TaskHandle taskHandle = createTaskHandle("test", splitQueue, 0);
+        PrioritizedSplitRunner first = createSplit(taskHandle);
+        PrioritizedSplitRunner second = createSplit(taskHandle);
+        PrioritizedSplitRunner third = createSplit(taskHandle);
+        splitQueue.offer(first);
+        splitQueue.offer(second);
+        splitQueue.offer(third);
+        assertEquals(splitQueue.size(), 3);
+
+        splitQueue.remove(second);
+        assertEquals(splitQueue.size(), 2);
+        splitQueue.removeAll(ImmutableList.of(first, second));
+        assertEquals(splitQueue.size(), 1);
+
+        assertSame(splitQueue.take(), third);
+        assertEquals(splitQueue.size(), 0);
+    }
+
+    @Test
+    public void testTrySelect()
+    {
+        for (AbstractMultilevelSplitQueue splitQueue : ImmutableList.of(new MultilevelSplitQueue(2), new ConcurrentMultilevelSplitQueue(2))) {
+            TaskHandle ahead = createTaskHandle("ahead", splitQueue, 0);
+            TaskHandle behind = createTaskHandle("behind", splitQueue, 0);
+            behind.addScheduledNanos(MILLISECONDS.toNanos(100));
+
+            assertTrue(splitQueue.trySelect(createSplit(behind)));
+
+            PrioritizedSplitRunner waitingAhead = createSplit(ahead);
+            splitQueue.offer(waitingAhead);
+            assertFalse(splitQueue.trySelect(createSplit(behind)));
+            splitQueue.remove(waitingAhead);
+
+            splitQueue.offer(createSplit(behind));
+            assertTrue(splitQueue.trySelect(createSplit(ahead)));
+            assertEquals(splitQueue.size(), 1);
+        }
+    }
+
+    @Test(timeOut = 10_000)
+    public void testTakeWaitsForOffer()
+            throws Exception
+    {
+        AbstractMultilevelSplitQueue splitQueue = new ConcurrentMultilevelSplitQueue(2);
+        PrioritizedSplitRunner split = createSplit(createTaskHandle("test", splitQueue, 0));
+
+        Future<PrioritizedSplitRunner> taken = executor.submit(splitQueue::take);
+        MILLISECONDS.sleep(100);
+        assertFalse(taken.isDone());
+
+        splitQueue.offer(split);
+        assertSame(taken.get(), split);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testConcurrentOfferAndTake()
+            throws Exception
+    {
+        int threads = 8;
+        int splitsPerThread = 1_000;
+        AbstractMultilevelSplitQueue splitQueue = new ConcurrentMultilevelSplitQueue(2);
+        List<TaskHandle> taskHandles = ImmutableList.of(
+                createTaskHandle("level0", splitQueue, 0),
+                createTaskHandle("level1", splitQueue, 2),
+                createTaskHandle("level2", splitQueue, 20));
+
+        Set<PrioritizedSplitRunner> takenSplits = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < splitsPerThread; i++) {
+                    splitQueue.offer(createSplit(taskHandles.get(i % taskHandles.size())));
+                }
+                return null;
+            }));
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < splitsPerThread; i++) {
+                    assertTrue(takenSplits.add(splitQueue.take()));
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        assertEquals(takenSplits.size(), threads * splitsPerThread);
+        assertEquals(splitQueue.size(), 0);
+    }
+
+    private static List<String> takeAll(AbstractMultilevelSplitQueue splitQueue)
+            throws InterruptedException
+    {
+        List<TaskHandle> taskHandles = ImmutableList.of(
+                createTaskHandle("level0", splitQueue, 0),
+                createTaskHandle("level1", splitQueue, 2),
+                createTaskHandle("level2", splitQueue, 20),
+                createTaskHandle("level3", splitQueue, 100));
+
+        int splitCount = 0;
+        for (int i = 0; i < 10; i++) {
+            for (TaskHandle taskHandle : taskHandles) {
+                splitQueue.offer(createSplit(taskHandle));
+                splitCount++;
+            }
+        }
+
+        ImmutableList.Builder<String> selected = ImmutableList.builder();
+        for (int i = 0; i < splitCount; i++) {
+            PrioritizedSplitRunner split = splitQueue.take();
+            selected.add(split.getTaskHandle().getTaskId() + "-" + split.getSplitId());
+            // charge the level as if the split ran for one quanta
+            split.getTaskHandle().addScheduledNanos(MILLISECONDS.toNanos(100));
+        }
+        assertEquals(splitQueue.size(), 0);
+        return selected.build();
+    }
+
+    static TaskHandle createTaskHandle(String queryId, AbstractMultilevelSplitQueue splitQueue, long scheduledSeconds)
+    {
+        TaskHandle taskHandle = new TaskHandle(new TaskId(queryId, 0, 0), splitQueue, () -> 0, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        taskHandle.addScheduledNanos(SECONDS.toNanos(scheduledSeconds));
+        return taskHandle;
+    }
+
+    static PrioritizedSplitRunner createSplit(TaskHandle taskHandle)
+    {
+        return new PrioritizedSplitRunner(
+                taskHandle,
+                new NoopSplitRunner(),
+                Ticker.systemTicker(),
+                new CounterStat(),
+                new CounterStat(),
+                new TimeStat(),
+                new TimeStat());
+    }
+
+    private static class NoopSplitRunner
+            implements SplitRunner
+    {
+        @Override
+        public boolean isFinished()
+        {
+            return true;
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "noop";
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
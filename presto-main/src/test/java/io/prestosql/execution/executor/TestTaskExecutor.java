@@ -23,19 +23,26 @@ import io.prestosql.execution.SplitRunner;
 import io.prestosql.execution.TaskId;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.OptionalInt;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.testing.Assertions.assertGreaterThan;
 import static io.airlift.testing.Assertions.assertLessThan;
-import static io.prestosql.execution.executor.MultilevelSplitQueue.LEVEL_CONTRIBUTION_CAP;
-import static io.prestosql.execution.executor.MultilevelSplitQueue.LEVEL_THRESHOLD_SECONDS;
+import static io.prestosql.execution.executor.AbstractMultilevelSplitQueue.LEVEL_CONTRIBUTION_CAP;
+import static io.prestosql.execution.executor.AbstractMultilevelSplitQueue.LEVEL_THRESHOLD_SECONDS;
+import static io.prestosql.version.EmbedVersion.testingVersionEmbedder;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -443,6 +450,53 @@ public class TestTaskExecutor
         }
     }
 
+    @Test(timeOut = 30_000)
+    public void testSplitAffinity()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        TaskExecutor taskExecutor = new TaskExecutor(1, 1, 1, 1, testingVersionEmbedder(), new MultilevelSplitQueue(2), ticker, true);
+        taskExecutor.start();
+        try {
+            TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+            TestingJob split = new TestingJob(ticker, new Phaser(), new Phaser(), new Phaser(), 5, 10);
+            taskExecutor.enqueueSplits(taskHandle, false, ImmutableList.of(split));
+            split.getCompletedFuture().get();
+
+            // all but the first quanta run on the same thread without going through the split queue
+            assertEquals(taskExecutor.getLocalSplitRuns().getTotalCount(), 4);
+            assertEquals(taskExecutor.getSplitMigrations().getTotalCount(), 0);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
+    @Test(timeOut = 30_000)
+    public void testSplitAffinityWithBlockedSplits()
+            throws Exception
+    {
+        ExecutorService unblockExecutor = newCachedThreadPool(daemonThreadsNamed("test-unblock-%s"));
+        TaskExecutor taskExecutor = new TaskExecutor(4, 8, 4, 8, testingVersionEmbedder(), new ConcurrentMultilevelSplitQueue(2), new TestingTicker(), true);
+        taskExecutor.start();
+        try {
+            TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+            List<BlockingJob> splits = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                splits.add(new BlockingJob(unblockExecutor, 20));
+            }
+            allAsList(taskExecutor.enqueueSplits(taskHandle, false, splits)).get();
+
+            for (BlockingJob split : splits) {
+                assertEquals(split.getCalls(), 20);
+            }
+        }
+        finally {
+            taskExecutor.stop();
+            unblockExecutor.shutdownNow();
+        }
+    }
+
     private void assertSplitStates(int endIndex, TestingJob[] splits)
     {
         // assert that splits up to and including endIndex are all started
@@ -469,6 +523,54 @@ public class TestTaskExecutor
         }
     }
 
+    private static class BlockingJob
+            implements SplitRunner
+    {
+        private final Executor unblockExecutor;
+        private final int requiredCalls;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        public BlockingJob(Executor unblockExecutor, int requiredCalls)
+        {
+            this.unblockExecutor = unblockExecutor;
+            this.requiredCalls = requiredCalls;
+        }
+
+        public int getCalls()
+        {
+            return calls.get();
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            // every other quanta blocks, and the split is unblocked by another thread
+            if (calls.incrementAndGet() % 2 == 0) {
+                return Futures.immediateFuture(null);
+            }
+            SettableFuture<?> blocked = SettableFuture.create();
+            unblockExecutor.execute(() -> blocked.set(null));
+            return blocked;
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "blocking-split";
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return calls.get() >= requiredCalls;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
     private static class TestingJob
             implements SplitRunner
     {
@@ -14,12 +14,14 @@
 package io.prestosql.execution.scheduler;
 
 import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
 import org.testng.annotations.Test;
 
 import java.util.concurrent.atomic.AtomicReference;
 
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.execution.buffer.OutputBuffers.BROADCAST_PARTITION_ID;
 import static io.prestosql.execution.buffer.OutputBuffers.BufferType.BROADCAST;
 import static io.prestosql.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
@@ -60,4 +62,39 @@ public class TestBroadcastOutputBufferManager
         hashOutputBufferManager.addOutputBuffers(ImmutableList.of(new OutputBufferId(6)), true);
         assertEquals(outputBufferTarget.get(), expectedOutputBuffers);
     }
+
+    @Test
+    public void testMinBufferSize()
+    {
+        AtomicReference<OutputBuffers> outputBufferTarget = new AtomicReference<>();
+        BroadcastOutputBufferManager hashOutputBufferManager = new BroadcastOutputBufferManager(outputBufferTarget::set);
+
+        hashOutputBufferManager.setMinBufferSize(new DataSize(64, MEGABYTE));
+        OutputBuffers expectedOutputBuffers = createInitialEmptyOutputBuffers(BROADCAST).withMinBufferSize(new DataSize(64, MEGABYTE));
+        assertEquals(outputBufferTarget.get(), expectedOutputBuffers);
+
+        hashOutputBufferManager.addOutputBuffers(ImmutableList.of(new OutputBufferId(0)), true);
+        expectedOutputBuffers = expectedOutputBuffers.withBuffer(new OutputBufferId(0), BROADCAST_PARTITION_ID).withNoMoreBufferIds();
+        assertEquals(outputBufferTarget.get(), expectedOutputBuffers);
+
+        // the min buffer size can change after no more buffers is set
+        hashOutputBufferManager.setMinBufferSize(new DataSize(32, MEGABYTE));
+        OutputBuffers newOutputBuffers = expectedOutputBuffers.withMinBufferSize(new DataSize(32, MEGABYTE));
+        expectedOutputBuffers.checkValidTransition(newOutputBuffers);
+        assertEquals(outputBufferTarget.get(), newOutputBuffers);
+        assertEquals(outputBufferTarget.get().getVersion(), expectedOutputBuffers.getVersion() + 1);
+    }
+
+    @Test
+    public void testInitialOutputBuffers()
+    {
+        // the manager of an adopted stage continues from the current output buffers of the stage
+        OutputBuffers initialOutputBuffers = createInitialEmptyOutputBuffers(BROADCAST).withMinBufferSize(new DataSize(64, MEGABYTE));
+        AtomicReference<OutputBuffers> outputBufferTarget = new AtomicReference<>();
+        BroadcastOutputBufferManager hashOutputBufferManager = new BroadcastOutputBufferManager(outputBufferTarget::set, initialOutputBuffers);
+        assertEquals(outputBufferTarget.get(), initialOutputBuffers);
+
+        hashOutputBufferManager.addOutputBuffers(ImmutableList.of(new OutputBufferId(0)), false);
+        assertEquals(outputBufferTarget.get(), initialOutputBuffers.withBuffer(new OutputBufferId(0), BROADCAST_PARTITION_ID));
+    }
 }
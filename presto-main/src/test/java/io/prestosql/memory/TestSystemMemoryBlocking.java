@@ -25,6 +25,7 @@ import io.prestosql.execution.TaskSource;
 import io.prestosql.metadata.Split;
 import io.prestosql.operator.Driver;
 import io.prestosql.operator.DriverContext;
+import io.prestosql.operator.DynamicRowFilter;
 import io.prestosql.operator.TableScanOperator;
 import io.prestosql.operator.TaskContext;
 import io.prestosql.spi.HostAddress;
@@ -107,7 +108,8 @@ public class TestSystemMemoryBlocking
                         .build()),
                 TEST_TABLE_HANDLE,
                 ImmutableList.of(),
-                DynamicFilter.EMPTY);
+                DynamicFilter.EMPTY,
+                DynamicRowFilter.NONE);
         PageConsumerOperator sink = createSinkOperator(types);
         Driver driver = Driver.createDriver(driverContext, source, sink);
         assertSame(driver.getDriverContext(), driverContext);
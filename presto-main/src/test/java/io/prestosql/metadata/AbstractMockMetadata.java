@@ -492,6 +492,17 @@ public abstract class AbstractMockMetadata
         return Optional.empty();
     }
 
+    @Override
+    public Optional<AggregationApplicationResult<TableHandle>> applyPartialAggregation(
+            Session session,
+            TableHandle table,
+            List<AggregateFunction> aggregations,
+            Map<String, ColumnHandle> assignments,
+            List<List<ColumnHandle>> groupingSets)
+    {
+        return Optional.empty();
+    }
+
     //
     // Roles and Grants
     //
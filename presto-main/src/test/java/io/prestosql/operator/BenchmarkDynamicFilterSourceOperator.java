@@ -45,6 +45,7 @@ import org.testng.annotations.Test;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -76,6 +77,9 @@ public class BenchmarkDynamicFilterSourceOperator
         @Param({"100,0", "500,5000", "5000,50000"})
         private String collectionLimits = "100,0";
 
+        @Param({"0B", "1MB"})
+        private String bloomFilterMaxSize = "0B";
+
         private ExecutorService executor;
         private ScheduledExecutorService scheduledExecutor;
         private OperatorFactory operatorFactory;
@@ -101,6 +105,8 @@ public class BenchmarkDynamicFilterSourceOperator
                     maxDistinctValuesCount,
                     DataSize.ofBytes(Long.MAX_VALUE),
                     minMaxCollectionLimit,
+                    bloomFilters -> {},
+                    Optional.of(DataSize.valueOf(bloomFilterMaxSize)).filter(size -> size.toBytes() > 0),
                     new BlockTypeOperators(new TypeOperators()));
         }
 
@@ -0,0 +1,159 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import io.prestosql.operator.DynamicRowFilter.PageRowFilter;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.LongArrayBlock;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.type.TypeOperators;
+import io.prestosql.sql.planner.plan.DynamicFilterId;
+import io.prestosql.testing.TestingMetadata.TestingColumnHandle;
+import io.prestosql.type.BlockTypeOperators;
+import io.prestosql.type.BlockTypeOperators.BlockPositionXxHash64;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static org.testng.Assert.assertTrue;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(3)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkDynamicRowFilter
+{
+    private static final int TOTAL_POSITIONS = 1_000_000;
+    private static final int POSITIONS_PER_PAGE = 1024;
+    private static final DynamicFilterId FILTER_ID = new DynamicFilterId("0");
+    private static final ColumnHandle PROBE_COLUMN = new TestingColumnHandle("probe");
+
+    @State(Scope.Thread)
+    public static class BenchmarkContext
+    {
+        @Param({"10000", "100000"})
+        private int buildDistinctValues = 10_000;
+
+        // fraction of probe rows which match the build side
+        @Param({"0.01", "0.1", "0.5"})
+        private double matchRate = 0.1;
+
+        private DynamicRowFilter dynamicRowFilter;
+        private List<Page> pages;
+
+        @Setup
+        public void setup()
+        {
+            BlockTypeOperators blockTypeOperators = new BlockTypeOperators(new TypeOperators());
+            BlockPositionXxHash64 xxHash64 = blockTypeOperators.getXxHash64Operator(BIGINT);
+            BlockedBloomFilter bloomFilter = BlockedBloomFilter.create(DataSize.of(1, MEGABYTE));
+            Block buildValues = createLongSequenceBlock(0, buildDistinctValues);
+            for (int position = 0; position < buildValues.getPositionCount(); position++) {
+                bloomFilter.put(xxHash64.xxHash64(buildValues, position));
+            }
+            dynamicRowFilter = new DynamicRowFilter(
+                    ImmutableListMultimap.of(FILTER_ID, PROBE_COLUMN),
+                    ImmutableMap.of(PROBE_COLUMN, BIGINT),
+                    (filterId, type) -> Optional.of(bloomFilter),
+                    blockTypeOperators);
+
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int pageStart = 0; pageStart < TOTAL_POSITIONS; pageStart += POSITIONS_PER_PAGE) {
+                long[] values = new long[POSITIONS_PER_PAGE];
+                for (int i = 0; i < POSITIONS_PER_PAGE; i++) {
+                    if (random.nextDouble() < matchRate) {
+                        values[i] = random.nextLong(buildDistinctValues);
+                    }
+                    else {
+                        values[i] = buildDistinctValues + random.nextLong(Integer.MAX_VALUE);
+                    }
+                }
+                pages.add(new Page(new LongArrayBlock(POSITIONS_PER_PAGE, Optional.empty(), values)));
+            }
+            this.pages = pages.build();
+        }
+
+        public DynamicRowFilter getDynamicRowFilter()
+        {
+            return dynamicRowFilter;
+        }
+
+        public List<Page> getPages()
+        {
+            return pages;
+        }
+    }
+
+    @Benchmark
+    public long filterPages(BenchmarkContext context)
+    {
+        PageRowFilter filter = context.getDynamicRowFilter().createPageRowFilter(ImmutableList.of(PROBE_COLUMN));
+        long positions = 0;
+        for (Page page : context.getPages()) {
+            positions += filter.filter(page).getPositionCount();
+        }
+        return positions;
+    }
+
+    @Test
+    public void testBenchmark()
+    {
+        BenchmarkContext context = new BenchmarkContext();
+        context.setup();
+
+        long positions = filterPages(context);
+        assertTrue(positions > 0 && positions < TOTAL_POSITIONS, "unexpected number of positions: " + positions);
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkDynamicRowFilter.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -22,6 +22,7 @@ import io.prestosql.array.LongBigArray;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.AbstractLongType;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeOperators;
@@ -53,9 +54,14 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.prestosql.operator.UpdateMemory.NOOP;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static it.unimi.dsi.fastutil.HashCommon.arraySize;
 
@@ -138,6 +144,29 @@ public class BenchmarkGroupByHash
         return pageBuilder.build();
     }
 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public Object fixedWidthGroupByHash(FixedWidthBenchmarkData data)
+    {
+        GroupByHash groupByHash = data.isFixedWidthHash()
+                ? new FixedWidthMultiChannelGroupByHash(data.getTypes(), data.getChannels(), data.getHashChannel(), EXPECTED_SIZE, NOOP)
+                : new MultiChannelGroupByHash(data.getTypes(), data.getChannels(), data.getHashChannel(), EXPECTED_SIZE, false, getJoinCompiler(), TYPE_OPERATOR_FACTORY, NOOP);
+        data.getPages().forEach(p -> groupByHash.getGroupIds(p).process());
+
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+            if (pageBuilder.isFull()) {
+                pages.add(pageBuilder.build());
+                pageBuilder.reset();
+            }
+        }
+        pages.add(pageBuilder.build());
+        return pageBuilder.build();
+    }
+
     @Benchmark
     @OperationsPerInvocation(POSITIONS)
     public long baseline(BaselinePagesData data)
@@ -223,6 +252,45 @@ public class BenchmarkGroupByHash
         return pages.build();
     }
 
+    private static List<Page> createFixedWidthPages(int positionCount, int groupCount, List<Type> keyTypes, boolean hashEnabled)
+    {
+        HashGenerator hashGenerator = new InterpretedHashGenerator(keyTypes, IntStream.range(0, keyTypes.size()).toArray(), TYPE_OPERATOR_FACTORY);
+
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        PageBuilder pageBuilder = new PageBuilder(keyTypes);
+        for (int position = 0; position < positionCount; position++) {
+            int rand = ThreadLocalRandom.current().nextInt(groupCount);
+            pageBuilder.declarePosition();
+            for (int channel = 0; channel < keyTypes.size(); channel++) {
+                // spread the group across channels so that no single channel determines the group
+                keyTypes.get(channel).writeLong(pageBuilder.getBlockBuilder(channel), (rand >>> (channel * 4)) & Short.MAX_VALUE);
+            }
+            if (pageBuilder.isFull()) {
+                pages.add(pageBuilder.build());
+                pageBuilder.reset();
+            }
+        }
+        pages.add(pageBuilder.build());
+
+        if (!hashEnabled) {
+            return pages.build();
+        }
+        return pages.build().stream()
+                .map(page -> {
+                    BlockBuilder hashBuilder = BIGINT.createFixedSizeBlockBuilder(page.getPositionCount());
+                    for (int position = 0; position < page.getPositionCount(); position++) {
+                        BIGINT.writeLong(hashBuilder, hashGenerator.hashPosition(position, page));
+                    }
+                    Block[] blocks = new Block[keyTypes.size() + 1];
+                    for (int channel = 0; channel < keyTypes.size(); channel++) {
+                        blocks[channel] = page.getBlock(channel);
+                    }
+                    blocks[keyTypes.size()] = hashBuilder.build();
+                    return new Page(page.getPositionCount(), blocks);
+                })
+                .collect(toImmutableList());
+    }
+
     private static List<Page> createVarcharPages(int positionCount, int groupCount, int channelCount, boolean hashEnabled)
     {
         List<Type> types = Collections.nCopies(channelCount, VARCHAR);
@@ -387,6 +455,74 @@ public class BenchmarkGroupByHash
         }
     }
 
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Thread)
+    public static class FixedWidthBenchmarkData
+    {
+        @Param({"BIGINT_INTEGER", "DATE_INTEGER_BIGINT", "BIGINT_BIGINT_INTEGER_SMALLINT"})
+        private String keyTypes = "DATE_INTEGER_BIGINT";
+
+        @Param(GROUP_COUNT_STRING)
+        private int groupCount = GROUP_COUNT;
+
+        @Param({"true", "false"})
+        private boolean hashEnabled;
+
+        @Param({"true", "false"})
+        private boolean fixedWidthHash = true;
+
+        private List<Page> pages;
+        private Optional<Integer> hashChannel;
+        private List<Type> types;
+        private int[] channels;
+
+        @Setup
+        public void setup()
+        {
+            switch (keyTypes) {
+                case "BIGINT_INTEGER":
+                    types = ImmutableList.of(BIGINT, INTEGER);
+                    break;
+                case "DATE_INTEGER_BIGINT":
+                    types = ImmutableList.of(DATE, INTEGER, BIGINT);
+                    break;
+                case "BIGINT_BIGINT_INTEGER_SMALLINT":
+                    types = ImmutableList.of(BIGINT, BIGINT, INTEGER, SMALLINT);
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Unsupported keyTypes");
+            }
+            pages = createFixedWidthPages(POSITIONS, groupCount, types, hashEnabled);
+            hashChannel = hashEnabled ? Optional.of(types.size()) : Optional.empty();
+            channels = IntStream.range(0, types.size()).toArray();
+        }
+
+        public List<Page> getPages()
+        {
+            return pages;
+        }
+
+        public Optional<Integer> getHashChannel()
+        {
+            return hashChannel;
+        }
+
+        public List<Type> getTypes()
+        {
+            return types;
+        }
+
+        public int[] getChannels()
+        {
+            return channels;
+        }
+
+        public boolean isFixedWidthHash()
+        {
+            return fixedWidthHash;
+        }
+    }
+
     private static JoinCompiler getJoinCompiler()
     {
         return new JoinCompiler(TYPE_OPERATORS);
@@ -405,6 +541,10 @@ public class BenchmarkGroupByHash
         singleChannelBenchmarkData.setup();
         new BenchmarkGroupByHash().bigintGroupByHash(singleChannelBenchmarkData);
 
+        FixedWidthBenchmarkData fixedWidthBenchmarkData = new FixedWidthBenchmarkData();
+        fixedWidthBenchmarkData.setup();
+        new BenchmarkGroupByHash().fixedWidthGroupByHash(fixedWidthBenchmarkData);
+
         Options options = new OptionsBuilder()
                 .verbosity(VerboseMode.NORMAL)
                 .include(".*" + BenchmarkGroupByHash.class.getSimpleName() + ".*")
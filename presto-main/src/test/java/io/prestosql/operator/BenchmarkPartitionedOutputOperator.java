@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import io.airlift.units.DataSize;
 import io.prestosql.execution.StateMachine;
 import io.prestosql.execution.buffer.OutputBuffers;
+import io.prestosql.execution.buffer.PageBufferAllocator;
 import io.prestosql.execution.buffer.PagesSerdeFactory;
 import io.prestosql.execution.buffer.PartitionedOutputBuffer;
 import io.prestosql.memory.context.SimpleLocalMemoryContext;
@@ -210,7 +211,8 @@ public class BenchmarkPartitionedOutputOperator
                     buffers,
                     dataSize,
                     () -> new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
-                    SCHEDULER);
+                    SCHEDULER,
+                    PageBufferAllocator.onHeapAllocator());
         }
     }
 
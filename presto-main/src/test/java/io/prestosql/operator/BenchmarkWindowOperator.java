@@ -45,10 +45,12 @@ import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
 import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
+import static io.prestosql.operator.BenchmarkWindowOperator.Context.PAGES_PER_SPILL;
 import static io.prestosql.operator.BenchmarkWindowOperator.Context.ROWS_PER_PAGE;
 import static io.prestosql.operator.BenchmarkWindowOperator.Context.TOTAL_PAGES;
 import static io.prestosql.operator.TestWindowOperator.ROW_NUMBER;
@@ -76,6 +78,7 @@ public class BenchmarkWindowOperator
         public static final int NUMBER_OF_GROUP_COLUMNS = 2;
         public static final int TOTAL_PAGES = 140;
         public static final int ROWS_PER_PAGE = 10000;
+        public static final int PAGES_PER_SPILL = 10;
         private static final List<Integer> PARTITION_CHANNELS = Ints.asList(0, 1);
 
         @Param({"10", "20", "100"})
@@ -87,6 +90,9 @@ public class BenchmarkWindowOperator
         @Param({"10", "50", "100"})
         public int partitionsPerGroup;
 
+        @Param({"false", "true"})
+        public boolean spillEnabled;
+
         private ExecutorService executor;
         private ScheduledExecutorService scheduledExecutor;
         private OperatorFactory operatorFactory;
@@ -125,7 +131,7 @@ public class BenchmarkWindowOperator
                         ImmutableList.of(SortOrder.ASC_NULLS_LAST),
                         0,
                         new DummySpillerFactory(),
-                        false);
+                        spillEnabled);
             }
             else if (numberOfPreGroupedColumns < NUMBER_OF_GROUP_COLUMNS) {
                 // Partially grouped
@@ -139,7 +145,7 @@ public class BenchmarkWindowOperator
                         ImmutableList.of(SortOrder.ASC_NULLS_LAST),
                         0,
                         new DummySpillerFactory(),
-                        false);
+                        spillEnabled);
             }
             else {
                 // Fully grouped and (potentially) sorted
@@ -153,7 +159,7 @@ public class BenchmarkWindowOperator
                         ImmutableList.of(SortOrder.ASC_NULLS_LAST),
                         (numberOfPreGroupedColumns - NUMBER_OF_GROUP_COLUMNS),
                         new DummySpillerFactory(),
-                        false);
+                        spillEnabled);
             }
         }
 
@@ -237,11 +243,16 @@ public class BenchmarkWindowOperator
         ImmutableList.Builder<Page> outputPages = ImmutableList.builder();
 
         boolean finishing = false;
+        int inputPages = 0;
         for (int loops = 0; !operator.isFinished() && loops < 1_000_000; loops++) {
             if (operator.needsInput()) {
                 if (input.hasNext()) {
                     Page inputPage = input.next();
                     operator.addInput(inputPage);
+                    inputPages++;
+                    if (context.spillEnabled && inputPages % PAGES_PER_SPILL == 0) {
+                        revokeMemory(operator);
+                    }
                 }
                 else if (!finishing) {
                     operator.finish();
@@ -258,6 +269,15 @@ public class BenchmarkWindowOperator
         return outputPages.build();
     }
 
+    private static void revokeMemory(Operator operator)
+    {
+        // spill the sorted run buffered so far, as the memory revoking scheduler would under memory pressure
+        if (operator.getOperatorContext().getReservedRevocableBytes() > 0) {
+            getFutureValue(operator.startMemoryRevoke());
+            operator.finishMemoryRevoke();
+        }
+    }
+
     @Test
     public void verifyUnGroupedWithMultiplePartitions()
     {
@@ -306,15 +326,43 @@ public class BenchmarkWindowOperator
         verify(10, 3, true);
     }
 
+    @Test
+    public void verifyUnGroupedWithSpill()
+    {
+        verify(10, 0, false, true);
+    }
+
+    @Test
+    public void verifyPartiallyGroupedWithSpill()
+    {
+        verify(10, 1, false, true);
+    }
+
+    @Test
+    public void verifyFullyGroupedWithSinglePartitionAndSpill()
+    {
+        verify(10, 2, true, true);
+    }
+
     private void verify(
             int numberOfRowsPerPartition,
             int numberOfPreGroupedColumns,
             boolean useSinglePartition)
+    {
+        verify(numberOfRowsPerPartition, numberOfPreGroupedColumns, useSinglePartition, false);
+    }
+
+    private void verify(
+            int numberOfRowsPerPartition,
+            int numberOfPreGroupedColumns,
+            boolean useSinglePartition,
+            boolean spillEnabled)
     {
         Context context = new Context();
 
         context.rowsPerPartition = numberOfRowsPerPartition;
         context.numberOfPregroupedColumns = numberOfPreGroupedColumns;
+        context.spillEnabled = spillEnabled;
 
         if (useSinglePartition) {
             context.partitionsPerGroup = 1;
@@ -328,7 +376,8 @@ public class BenchmarkWindowOperator
             assertEquals(ROWS_PER_PAGE, context.getPages().get(i).getPositionCount());
         }
 
-        benchmark(context);
+        List<Page> outputPages = benchmark(context);
+        assertEquals(outputPages.stream().mapToInt(Page::getPositionCount).sum(), TOTAL_PAGES * ROWS_PER_PAGE);
 
         context.cleanup();
     }
@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import static io.airlift.slice.XxHash64.hash;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestBlockedBloomFilter
+{
+    @Test
+    public void testNoFalseNegatives()
+    {
+        BlockedBloomFilter filter = BlockedBloomFilter.create(DataSize.of(16, KILOBYTE));
+        int entries = (int) filter.getMaxEntries();
+        for (long value = 0; value < entries; value++) {
+            filter.put(hash(value));
+        }
+        for (long value = 0; value < entries; value++) {
+            assertTrue(filter.mightContain(hash(value)));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRate()
+    {
+        BlockedBloomFilter filter = BlockedBloomFilter.create(DataSize.of(16, KILOBYTE));
+        int entries = (int) filter.getMaxEntries();
+        for (long value = 0; value < entries; value++) {
+            filter.put(hash(value));
+        }
+        int falsePositives = 0;
+        int lookups = 100_000;
+        for (long value = entries; value < entries + lookups; value++) {
+            if (filter.mightContain(hash(value))) {
+                falsePositives++;
+            }
+        }
+        // about 1% is expected at full capacity
+        assertTrue(falsePositives < lookups * 0.03, "false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        BlockedBloomFilter filter = BlockedBloomFilter.create(DataSize.ofBytes(32));
+        for (long value = 0; value < 100; value++) {
+            assertFalse(filter.mightContain(hash(value)));
+        }
+    }
+
+    @Test
+    public void testSize()
+    {
+        // rounded down to a power of two number of 32 byte blocks
+        BlockedBloomFilter filter = BlockedBloomFilter.create(DataSize.ofBytes(100));
+        assertEquals(filter.getMaxEntries(), 2 * 8 * 32 / 10);
+        assertEquals(BlockedBloomFilter.create(DataSize.ofBytes(128)).getMaxEntries(), 4 * 8 * 32 / 10);
+
+        assertThatThrownBy(() -> BlockedBloomFilter.create(DataSize.ofBytes(31)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("maxSize must be at least 32 bytes");
+    }
+
+    @Test
+    public void testUnion()
+    {
+        BlockedBloomFilter first = BlockedBloomFilter.create(DataSize.of(1, KILOBYTE));
+        BlockedBloomFilter second = BlockedBloomFilter.create(DataSize.of(1, KILOBYTE));
+        for (long value = 0; value < 100; value++) {
+            first.put(hash(value));
+            second.put(hash(value + 100));
+        }
+
+        BlockedBloomFilter union = first.union(second);
+        for (long value = 0; value < 200; value++) {
+            assertTrue(union.mightContain(hash(value)));
+        }
+
+        assertThatThrownBy(() -> first.union(BlockedBloomFilter.create(DataSize.of(2, KILOBYTE))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Cannot merge bloom filters of different sizes");
+    }
+
+    @Test
+    public void testHashes()
+    {
+        BlockedBloomFilter first = BlockedBloomFilter.ofHashes(new long[] {hash(1), hash(2), hash(2)});
+        BlockedBloomFilter second = BlockedBloomFilter.ofHashes(new long[] {hash(3)});
+        assertTrue(first.mightContain(hash(1)));
+        assertTrue(first.mightContain(hash(2)));
+        assertFalse(first.mightContain(hash(3)));
+        assertThatThrownBy(() -> first.put(hash(3)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Cannot add entries to a filter which holds exact hashes");
+
+        BlockedBloomFilter hashesUnion = first.union(second);
+        for (long value = 1; value <= 3; value++) {
+            assertTrue(hashesUnion.mightContain(hash(value)));
+        }
+        assertFalse(hashesUnion.mightContain(hash(4)));
+
+        // hashes are added to the blocks of the other filter, regardless of its size
+        BlockedBloomFilter blocks = BlockedBloomFilter.create(DataSize.of(1, KILOBYTE));
+        blocks.put(hash(4));
+        for (BlockedBloomFilter union : new BlockedBloomFilter[] {hashesUnion.union(blocks), blocks.union(hashesUnion)}) {
+            assertEquals(union.getMaxEntries(), blocks.getMaxEntries());
+            for (long value = 1; value <= 4; value++) {
+                assertTrue(union.mightContain(hash(value)));
+            }
+        }
+        assertFalse(blocks.mightContain(hash(1)));
+    }
+}
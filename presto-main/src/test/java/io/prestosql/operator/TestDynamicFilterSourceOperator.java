@@ -28,6 +28,7 @@ import io.prestosql.sql.planner.plan.DynamicFilterId;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 import io.prestosql.testing.MaterializedResult;
 import io.prestosql.type.BlockTypeOperators;
+import io.prestosql.type.BlockTypeOperators.BlockPositionXxHash64;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -35,6 +36,8 @@ import org.testng.annotations.Test;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.IntStream;
@@ -74,6 +77,8 @@ import static io.prestosql.type.ColorType.COLOR;
 import static java.lang.Float.floatToRawIntBits;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestDynamicFilterSourceOperator
@@ -568,4 +573,136 @@ public class TestDynamicFilterSourceOperator
                         new Page(createLongSequenceBlock(0, maxDistinctValues + 1))),
                 ImmutableList.of(TupleDomain.all()));
     }
+
+    @Test
+    public void testCollectBloomFilterForTooLargePredicate()
+    {
+        int maxDistinctValues = 100;
+        ImmutableList.Builder<Map<DynamicFilterId, BlockedBloomFilter>> bloomFilters = ImmutableList.builder();
+        OperatorFactory operatorFactory = new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
+                0,
+                new PlanNodeId("PLAN_NODE_ID"),
+                this::consumePredicate,
+                ImmutableList.of(channel(0, BIGINT)),
+                maxDistinctValues,
+                DataSize.of(10, KILOBYTE),
+                0,
+                bloomFilters::add,
+                Optional.of(DataSize.of(64, KILOBYTE)),
+                blockTypeOperators);
+        verifyPassthrough(createOperator(operatorFactory),
+                ImmutableList.of(BIGINT),
+                new Page(createLongSequenceBlock(0, maxDistinctValues + 1)),
+                new Page(createLongSequenceBlock(maxDistinctValues + 1, 1000)),
+                new Page(createLongsBlock(2000L, null)));
+        operatorFactory.noMoreOperators();
+
+        assertEquals(partitions.build(), ImmutableList.of(TupleDomain.all()));
+        List<Map<DynamicFilterId, BlockedBloomFilter>> collected = bloomFilters.build();
+        assertEquals(collected.size(), 1);
+        BlockedBloomFilter bloomFilter = collected.get(0).get(new DynamicFilterId("0"));
+        BlockPositionXxHash64 xxHash64 = blockTypeOperators.getXxHash64Operator(BIGINT);
+        Block values = createLongSequenceBlock(0, 3000);
+        int falsePositives = 0;
+        for (int position = 0; position < values.getPositionCount(); position++) {
+            boolean mightContain = bloomFilter.mightContain(xxHash64.xxHash64(values, position));
+            if (position < 1000 || position == 2000) {
+                assertTrue(mightContain, "missing value " + position);
+            }
+            else if (mightContain) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 100, "too many false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testBloomFilterMemoryAccounting()
+    {
+        int maxDistinctValues = 100;
+        OperatorFactory operatorFactory = new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
+                0,
+                new PlanNodeId("PLAN_NODE_ID"),
+                this::consumePredicate,
+                ImmutableList.of(channel(0, BIGINT)),
+                maxDistinctValues,
+                DataSize.of(10, KILOBYTE),
+                0,
+                bloomFilters -> {},
+                Optional.of(DataSize.of(64, KILOBYTE)),
+                blockTypeOperators);
+        Operator operator = createOperator(operatorFactory);
+        operatorFactory.noMoreOperators();
+
+        operator.addInput(new Page(createLongSequenceBlock(0, maxDistinctValues + 1)));
+        assertTrue(operator.getOperatorContext().getOperatorMemoryContext().getUserMemory() >= DataSize.of(64, KILOBYTE).toBytes());
+        operator.getOutput();
+
+        operator.finish();
+        assertEquals(operator.getOperatorContext().getOperatorMemoryContext().getUserMemory(), 0);
+    }
+
+    @Test
+    public void testPublishHashesForExactPredicate()
+    {
+        ImmutableList.Builder<Map<DynamicFilterId, BlockedBloomFilter>> bloomFilters = ImmutableList.builder();
+        OperatorFactory operatorFactory = new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
+                0,
+                new PlanNodeId("PLAN_NODE_ID"),
+                this::consumePredicate,
+                ImmutableList.of(channel(0, BIGINT)),
+                10,
+                DataSize.of(10, KILOBYTE),
+                0,
+                bloomFilters::add,
+                Optional.of(DataSize.of(64, KILOBYTE)),
+                blockTypeOperators);
+        verifyPassthrough(createOperator(operatorFactory),
+                ImmutableList.of(BIGINT),
+                new Page(createLongsBlock(1L, 2L, 2L, null)));
+        operatorFactory.noMoreOperators();
+
+        assertEquals(partitions.build(), ImmutableList.of(
+                TupleDomain.withColumnDomains(ImmutableMap.of(
+                        new DynamicFilterId("0"), Domain.multipleValues(BIGINT, ImmutableList.of(1L, 2L))))));
+        List<Map<DynamicFilterId, BlockedBloomFilter>> collected = bloomFilters.build();
+        assertEquals(collected.size(), 1);
+        // the filter is sized by the number of distinct values rather than by the maximum filter size
+        BlockedBloomFilter bloomFilter = collected.get(0).get(new DynamicFilterId("0"));
+        assertTrue(bloomFilter.getRetainedSizeInBytes() < DataSize.of(1, KILOBYTE).toBytes());
+        BlockPositionXxHash64 xxHash64 = blockTypeOperators.getXxHash64Operator(BIGINT);
+        Block values = createLongSequenceBlock(0, 4);
+        assertFalse(bloomFilter.mightContain(xxHash64.xxHash64(values, 0)));
+        assertTrue(bloomFilter.mightContain(xxHash64.xxHash64(values, 1)));
+        assertTrue(bloomFilter.mightContain(xxHash64.xxHash64(values, 2)));
+        assertFalse(bloomFilter.mightContain(xxHash64.xxHash64(values, 3)));
+    }
+
+    @Test
+    public void testDropBloomFilterWithTooManyRows()
+    {
+        ImmutableList.Builder<Map<DynamicFilterId, BlockedBloomFilter>> bloomFilters = ImmutableList.builder();
+        // the smallest filter fits 25 entries
+        OperatorFactory operatorFactory = new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
+                0,
+                new PlanNodeId("PLAN_NODE_ID"),
+                this::consumePredicate,
+                ImmutableList.of(channel(0, BIGINT)),
+                10,
+                DataSize.of(10, KILOBYTE),
+                1_000_000,
+                bloomFilters::add,
+                Optional.of(DataSize.ofBytes(32)),
+                blockTypeOperators);
+        verifyPassthrough(createOperator(operatorFactory),
+                ImmutableList.of(BIGINT),
+                new Page(createLongSequenceBlock(0, 20)),
+                new Page(createLongSequenceBlock(20, 40)));
+        operatorFactory.noMoreOperators();
+
+        assertEquals(partitions.build(), ImmutableList.of(
+                TupleDomain.withColumnDomains(ImmutableMap.of(
+                        new DynamicFilterId("0"), Domain.create(ValueSet.ofRanges(range(BIGINT, 0L, true, 39L, true)), false)))));
+        assertEquals(bloomFilters.build(), ImmutableList.of(ImmutableMap.of()));
+    }
 }
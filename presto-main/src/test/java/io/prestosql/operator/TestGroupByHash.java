@@ -38,13 +38,17 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 import static com.google.common.math.DoubleMath.log2;
+import static io.prestosql.block.BlockAssertions.createIntsBlock;
 import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
 import static io.prestosql.block.BlockAssertions.createLongsBlock;
 import static io.prestosql.block.BlockAssertions.createStringSequenceBlock;
+import static io.prestosql.block.BlockAssertions.createTypedLongsBlock;
 import static io.prestosql.operator.GroupByHash.createGroupByHash;
 import static io.prestosql.spi.block.DictionaryId.randomDictionaryId;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.type.TypeTestUtils.getHashBlock;
 import static org.testng.Assert.assertEquals;
@@ -445,4 +449,106 @@ public class TestGroupByHash
         assertEquals(currentQuota.get(), 10);
         assertEquals(currentQuota.get() / 3, yields);
     }
+
+    @Test
+    public void testFixedWidthMultiChannel()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, INTEGER, DATE);
+        int[] hashChannels = {0, 1, 2};
+        GroupByHash groupByHash = createGroupByHash(TEST_SESSION, types, hashChannels, Optional.of(3), 100, JOIN_COMPILER, TYPE_OPERATOR_FACTORY);
+        assertTrue(groupByHash instanceof FixedWidthMultiChannelGroupByHash);
+        assertEquals(groupByHash.getTypes(), ImmutableList.of(BIGINT, INTEGER, DATE, BIGINT));
+
+        // 1000 rows over 100 distinct tuples, including tuples with null values, spread over several batches
+        List<Long> bigints = new ArrayList<>();
+        List<Integer> integers = new ArrayList<>();
+        List<Long> dates = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int key = i % 100;
+            bigints.add(key % 10 == 3 ? null : (long) key);
+            integers.add(key % 7 == 0 ? null : key / 2);
+            dates.add((long) key % 2);
+        }
+        Block bigintBlock = createLongsBlock(bigints);
+        Block integerBlock = createIntsBlock(integers);
+        Block dateBlock = createTypedLongsBlock(DATE, dates);
+        Block hashBlock = getHashBlock(types, bigintBlock, integerBlock, dateBlock);
+        Page page = new Page(bigintBlock, integerBlock, dateBlock, hashBlock);
+
+        Work<GroupByIdBlock> work = groupByHash.getGroupIds(page);
+        assertTrue(work.process());
+        GroupByIdBlock groupIds = work.getResult();
+        assertEquals(groupByHash.getGroupCount(), 100);
+        for (int position = 0; position < groupIds.getPositionCount(); position++) {
+            assertEquals(groupIds.getGroupId(position), position % 100);
+        }
+
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+            // the raw hash must match the one computed by the planner and MultiChannelGroupByHash
+            assertEquals(groupByHash.getRawHash(groupId), BIGINT.getLong(hashBlock, groupId));
+        }
+        Page outputPage = pageBuilder.build();
+        Page expectedPage = page.getRegion(0, 100);
+        for (int channel = 0; channel < 4; channel++) {
+            BlockAssertions.assertBlockEquals(groupByHash.getTypes().get(channel), outputPage.getBlock(channel), expectedPage.getBlock(channel));
+        }
+
+        for (int position = 0; position < 100; position++) {
+            assertTrue(groupByHash.contains(position, page, hashChannels));
+        }
+        Block testBigintBlock = createLongsBlock(1L);
+        Block testIntegerBlock = createIntsBlock((Integer) null);
+        Block testDateBlock = createTypedLongsBlock(DATE, ImmutableList.of(1L));
+        assertFalse(groupByHash.contains(0, new Page(testBigintBlock, testIntegerBlock, testDateBlock), hashChannels));
+    }
+
+    @Test
+    public void testFixedWidthMultiChannelMemoryReservationYield()
+    {
+        int length = 1_000_000;
+        Block firstBlock = createLongSequenceBlock(0, length);
+        Block secondBlock = createLongSequenceBlock(length, 2 * length);
+        Page page = new Page(firstBlock, secondBlock);
+        AtomicInteger currentQuota = new AtomicInteger(0);
+        AtomicInteger allowedQuota = new AtomicInteger(3);
+        UpdateMemory updateMemory = () -> {
+            if (currentQuota.get() < allowedQuota.get()) {
+                currentQuota.getAndIncrement();
+                return true;
+            }
+            return false;
+        };
+        int yields = 0;
+
+        GroupByHash groupByHash = createGroupByHash(ImmutableList.of(BIGINT, BIGINT), new int[] {0, 1}, Optional.empty(), 1, false, JOIN_COMPILER, TYPE_OPERATOR_FACTORY, updateMemory);
+        assertTrue(groupByHash instanceof FixedWidthMultiChannelGroupByHash);
+
+        boolean finish = false;
+        Work<GroupByIdBlock> getGroupIdsWork = groupByHash.getGroupIds(page);
+        while (!finish) {
+            finish = getGroupIdsWork.process();
+            if (!finish) {
+                assertEquals(currentQuota.get(), allowedQuota.get());
+                // assert if we are blocked, we are going to be blocked again without changing allowedQuota
+                assertFalse(getGroupIdsWork.process());
+                assertEquals(currentQuota.get(), allowedQuota.get());
+                yields++;
+                allowedQuota.getAndAdd(3);
+            }
+        }
+
+        // assert there is not anything missing
+        assertEquals(length, groupByHash.getGroupCount());
+        GroupByIdBlock groupIds = getGroupIdsWork.getResult();
+        assertEquals(length, groupIds.getPositionCount());
+        for (int position = 0; position < length; position++) {
+            assertEquals(groupIds.getGroupId(position), position);
+        }
+        // the rehash count is 20 = log2(1_000_000 / 0.75)
+        assertEquals(currentQuota.get(), 20);
+        assertEquals(currentQuota.get() / 3, yields);
+    }
 }
@@ -592,6 +592,65 @@ public class TestHashAggregationOperator
         assertEquals(driverContext.getMemoryUsage(), 0);
     }
 
+    @Test(dataProvider = "hashEnabled")
+    public void testAdaptivePartialAggregation(boolean hashEnabled)
+            throws Exception
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, hashChannels, BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(500, 0)
+                .addSequencePage(500, 500)
+                .addSequencePage(500, 1000)
+                .addSequencePage(500, 1500)
+                .build();
+
+        PartialAggregationController partialAggregationController = new PartialAggregationController(100, 0.8);
+        HashAggregationOperatorFactory operatorFactory = new HashAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                hashChannels,
+                ImmutableList.of(),
+                Step.PARTIAL,
+                false,
+                ImmutableList.of(LONG_MIN.bind(ImmutableList.of(0), Optional.empty())),
+                rowPagesBuilder.getHashChannel(),
+                Optional.empty(),
+                100_000,
+                Optional.of(DataSize.of(1, KILOBYTE)),
+                false,
+                DataSize.of(0, MEGABYTE),
+                spillerFactory,
+                joinCompiler,
+                blockTypeOperators,
+                true,
+                Optional.of(partialAggregationController));
+
+        DriverContext driverContext = createDriverContext(1024);
+
+        try (Operator operator = operatorFactory.createOperator(driverContext)) {
+            List<Page> outputPages = toPages(operator, input.iterator());
+
+            // every group is unique, so partial aggregation gets disabled after the first page is flushed
+            assertTrue(partialAggregationController.isPartialAggregationDisabled());
+            assertEquals(operator.getOperatorContext().getOperatorStats().getPartialAggregationSkippedPositions(), 1500);
+
+            if (hashEnabled) {
+                // Drop the hashChannel for all pages
+                outputPages = dropChannel(outputPages, ImmutableList.of(1));
+            }
+            MaterializedResult expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT)
+                    .pages(rowPagesBuilder(BIGINT, BIGINT).addSequencePage(2000, 0, 0).build())
+                    .build();
+            MaterializedResult actual = toMaterializedResult(operator.getOperatorContext().getSession(), expected.getTypes(), outputPages);
+            assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+        }
+
+        assertEquals(driverContext.getSystemMemoryUsage(), 0);
+        assertEquals(driverContext.getMemoryUsage(), 0);
+    }
+
     @Test
     public void testMergeWithMemorySpill()
     {
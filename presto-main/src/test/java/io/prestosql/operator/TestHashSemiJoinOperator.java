@@ -14,14 +14,22 @@
 package io.prestosql.operator;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 import io.prestosql.ExceededMemoryLimitException;
 import io.prestosql.RowPagesBuilder;
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.operator.SetBuilderOperator.SetBuilderOperatorFactory;
+import io.prestosql.operator.SetBuilderOperator.SetSupplier;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeOperators;
+import io.prestosql.spiller.GenericPartitioningSpillerFactory;
+import io.prestosql.spiller.PartitioningSpillerFactory;
+import io.prestosql.spiller.SingleStreamSpiller;
+import io.prestosql.spiller.SingleStreamSpillerFactory;
 import io.prestosql.sql.gen.JoinCompiler;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 import io.prestosql.testing.MaterializedResult;
@@ -31,12 +39,16 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static com.google.common.collect.Iterables.concat;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.testing.Assertions.assertGreaterThan;
 import static io.airlift.testing.Assertions.assertGreaterThanOrEqual;
@@ -52,6 +64,8 @@ import static io.prestosql.testing.TestingTaskContext.createTaskContext;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestHashSemiJoinOperator
@@ -156,6 +170,112 @@ public class TestHashSemiJoinOperator
         OperatorAssertion.assertOperatorEquals(joinOperatorFactory, driverContext, probeInput, expected, hashEnabled, ImmutableList.of(probeTypes.size()));
     }
 
+    @Test(dataProvider = "hashEnabledValues")
+    public void testSemiJoinWithSpilledSet(boolean hashEnabled)
+    {
+        PartitioningSpillerFactory partitioningSpillerFactory = new GenericPartitioningSpillerFactory(new InMemorySingleStreamSpillerFactory());
+
+        // build
+        DriverContext buildDriverContext = taskContext.addPipelineContext(0, true, true, false).addDriverContext();
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), BIGINT);
+        List<Page> buildInput = rowPagesBuilder
+                .row(10L)
+                .row(30L)
+                .row(30L)
+                .pageBreak()
+                .row(35L)
+                .row(36L)
+                .row((Object) null)
+                .pageBreak()
+                .row(37L)
+                .row(50L)
+                .row(30L)
+                .build();
+        SetBuilderOperatorFactory setBuilderOperatorFactory = new SetBuilderOperatorFactory(
+                1,
+                new PlanNodeId("test"),
+                rowPagesBuilder.getTypes().get(0),
+                0,
+                rowPagesBuilder.getHashChannel(),
+                10,
+                new JoinCompiler(typeOperators),
+                blockTypeOperators,
+                true,
+                partitioningSpillerFactory);
+        SetSupplier setSupplier = setBuilderOperatorFactory.getSetProvider();
+        Operator setBuilderOperator = setBuilderOperatorFactory.createOperator(buildDriverContext);
+
+        setBuilderOperator.addInput(buildInput.get(0));
+        // spill the set built so far, remaining input is spilled directly
+        getFutureValue(setBuilderOperator.startMemoryRevoke());
+        setBuilderOperator.finishMemoryRevoke();
+        assertEquals(buildDriverContext.getRevocableMemoryUsage(), 0);
+        for (Page page : buildInput.subList(1, buildInput.size())) {
+            assertTrue(setBuilderOperator.needsInput());
+            setBuilderOperator.addInput(page);
+        }
+        setBuilderOperator.finish();
+        assertFalse(setBuilderOperator.isFinished());
+        assertTrue(setSupplier.getSpilledSet().isPresent());
+
+        // probe
+        DriverContext probeDriverContext = taskContext.addPipelineContext(1, false, true, false).addDriverContext();
+        List<Type> probeTypes = ImmutableList.of(BIGINT, BIGINT);
+        RowPagesBuilder rowPagesBuilderProbe = rowPagesBuilder(hashEnabled, Ints.asList(0), BIGINT, BIGINT);
+        List<Page> probeInput = rowPagesBuilderProbe
+                .addSequencePage(10, 30, 0)
+                .row(null, 10L)
+                .build();
+        Optional<Integer> probeHashChannel = hashEnabled ? Optional.of(probeTypes.size()) : Optional.empty();
+        OperatorFactory joinOperatorFactory = HashSemiJoinOperator.createOperatorFactory(
+                2,
+                new PlanNodeId("test"),
+                setSupplier,
+                rowPagesBuilderProbe.getTypes(),
+                0,
+                probeHashChannel,
+                partitioningSpillerFactory);
+        Operator joinOperator = joinOperatorFactory.createOperator(probeDriverContext);
+        joinOperatorFactory.noMoreOperators();
+
+        List<Page> output = new ArrayList<>();
+        Iterator<Page> probePages = probeInput.iterator();
+        for (int iteration = 0; iteration < 1000 && !joinOperator.isFinished(); iteration++) {
+            if (joinOperator.needsInput()) {
+                if (probePages.hasNext()) {
+                    joinOperator.addInput(probePages.next());
+                }
+                else {
+                    joinOperator.finish();
+                }
+            }
+            setBuilderOperator.finish();
+            Page page = joinOperator.getOutput();
+            if (page != null) {
+                output.add(page);
+            }
+        }
+        assertTrue(joinOperator.isFinished());
+        setBuilderOperator.finish();
+        assertTrue(setBuilderOperator.isFinished());
+
+        // expected
+        MaterializedResult expected = resultBuilder(probeDriverContext.getSession(), concat(probeTypes, ImmutableList.of(BOOLEAN)))
+                .row(30L, 0L, true)
+                .row(31L, 1L, null)
+                .row(32L, 2L, null)
+                .row(33L, 3L, null)
+                .row(34L, 4L, null)
+                .row(35L, 5L, true)
+                .row(36L, 6L, true)
+                .row(37L, 7L, true)
+                .row(38L, 8L, null)
+                .row(39L, 9L, null)
+                .row(null, 10L, null)
+                .build();
+        OperatorAssertion.assertPagesEqualIgnoreOrder(probeDriverContext, output, expected, hashEnabled, probeHashChannel);
+    }
+
     @Test(dataProvider = "hashEnabledValues")
     public void testSemiJoinOnVarcharType(boolean hashEnabled)
     {
@@ -458,4 +578,50 @@ public class TestHashSemiJoinOperator
             driver.process();
         }
     }
+
+    private static class InMemorySingleStreamSpillerFactory
+            implements SingleStreamSpillerFactory
+    {
+        @Override
+        public SingleStreamSpiller create(List<Type> types, SpillContext spillContext, LocalMemoryContext memoryContext)
+        {
+            return new SingleStreamSpiller()
+            {
+                private final List<Page> spills = new ArrayList<>();
+
+                @Override
+                public ListenableFuture<?> spill(Iterator<Page> pageIterator)
+                {
+                    Iterators.addAll(spills, pageIterator);
+                    return immediateFuture(null);
+                }
+
+                @Override
+                public Iterator<Page> getSpilledPages()
+                {
+                    return ImmutableList.copyOf(spills).iterator();
+                }
+
+                @Override
+                public long getSpilledPagesInMemorySize()
+                {
+                    return spills.stream()
+                            .mapToLong(Page::getSizeInBytes)
+                            .sum();
+                }
+
+                @Override
+                public ListenableFuture<List<Page>> getAllSpilledPages()
+                {
+                    return immediateFuture(ImmutableList.copyOf(spills));
+                }
+
+                @Override
+                public void close()
+                {
+                    spills.clear();
+                }
+            };
+        }
+    }
 }
@@ -58,6 +58,9 @@ public class TestOperatorStats
             DataSize.ofBytes(12),
             13,
             533,
+            534,
+
+            535,
 
             DataSize.ofBytes(14),
 
@@ -105,6 +108,9 @@ public class TestOperatorStats
             DataSize.ofBytes(12),
             13,
             533,
+            534,
+
+            535,
 
             DataSize.ofBytes(14),
 
@@ -162,6 +168,9 @@ public class TestOperatorStats
         assertEquals(actual.getOutputPositions(), 13);
 
         assertEquals(actual.getDynamicFilterSplitsProcessed(), 533);
+        assertEquals(actual.getDynamicFilterRowsFiltered(), 534);
+
+        assertEquals(actual.getPartialAggregationSkippedPositions(), 535);
 
         assertEquals(actual.getPhysicalWrittenDataSize(), DataSize.ofBytes(14));
 
@@ -212,6 +221,9 @@ public class TestOperatorStats
         assertEquals(actual.getOutputPositions(), 3 * 13);
 
         assertEquals(actual.getDynamicFilterSplitsProcessed(), 3 * 533);
+        assertEquals(actual.getDynamicFilterRowsFiltered(), 3 * 534);
+
+        assertEquals(actual.getPartialAggregationSkippedPositions(), 3 * 535);
 
         assertEquals(actual.getPhysicalWrittenDataSize(), DataSize.ofBytes(3 * 14));
 
@@ -260,6 +272,9 @@ public class TestOperatorStats
         assertEquals(actual.getOutputPositions(), 3 * 13);
 
         assertEquals(actual.getDynamicFilterSplitsProcessed(), 3 * 533);
+        assertEquals(actual.getDynamicFilterRowsFiltered(), 3 * 534);
+
+        assertEquals(actual.getPartialAggregationSkippedPositions(), 3 * 535);
 
         assertEquals(actual.getPhysicalWrittenDataSize(), DataSize.ofBytes(3 * 14));
 
@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import io.airlift.units.DataSize;
 import io.prestosql.execution.StateMachine;
 import io.prestosql.execution.buffer.OutputBuffers;
+import io.prestosql.execution.buffer.PageBufferAllocator;
 import io.prestosql.execution.buffer.PagesSerdeFactory;
 import io.prestosql.execution.buffer.PartitionedOutputBuffer;
 import io.prestosql.memory.context.SimpleLocalMemoryContext;
@@ -201,7 +202,8 @@ public class TestPartitionedOutputOperator
                 buffers.withNoMoreBufferIds(),
                 DataSize.ofBytes(Long.MAX_VALUE),
                 () -> new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
-                scheduledExecutor);
+                scheduledExecutor,
+                PageBufferAllocator.onHeapAllocator());
 
         PartitionedOutputOperator.PartitionedOutputFactory operatorFactory;
         if (shouldReplicate) {
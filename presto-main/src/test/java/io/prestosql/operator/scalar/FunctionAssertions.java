@@ -29,6 +29,7 @@ import io.prestosql.metadata.Split;
 import io.prestosql.metadata.TableHandle;
 import io.prestosql.operator.DriverContext;
 import io.prestosql.operator.DriverYieldSignal;
+import io.prestosql.operator.DynamicRowFilter;
 import io.prestosql.operator.FilterAndProjectOperator;
 import io.prestosql.operator.Operator;
 import io.prestosql.operator.OperatorFactory;
@@ -797,6 +798,7 @@ public final class FunctionAssertions
                     TEST_TABLE_HANDLE,
                     ImmutableList.of(),
                     DynamicFilter.EMPTY,
+                    DynamicRowFilter.NONE,
                     ImmutableList.of(projection.getType()),
                     DataSize.ofBytes(0),
                     0);
@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import io.airlift.json.JsonCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.prestosql.server.TestSmileCodec.createInjector;
+import static io.prestosql.server.TestSmileCodec.createTaskUpdateRequest;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Compares JSON and Smile encoding of the task update request sent by the coordinator to workers.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = SECONDS)
+public class BenchmarkInternalCommunicationCodecs
+{
+    @Benchmark
+    public byte[] encodeJson(BenchmarkData data)
+    {
+        return data.jsonCodec.toJsonBytes(data.request);
+    }
+
+    @Benchmark
+    public byte[] encodeSmile(BenchmarkData data)
+    {
+        return data.smileCodec.toBytes(data.request);
+    }
+
+    @Benchmark
+    public TaskUpdateRequest decodeJson(BenchmarkData data)
+    {
+        return data.jsonCodec.fromJson(data.json);
+    }
+
+    @Benchmark
+    public TaskUpdateRequest decodeSmile(BenchmarkData data)
+    {
+        return data.smileCodec.fromBytes(data.smile);
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"10", "1000"})
+        private int splitCount = 1000;
+
+        private JsonCodec<TaskUpdateRequest> jsonCodec;
+        private SmileCodec<TaskUpdateRequest> smileCodec;
+        private TaskUpdateRequest request;
+        private byte[] json;
+        private byte[] smile;
+
+        @Setup
+        public void setup()
+        {
+            Injector injector = createInjector();
+            jsonCodec = injector.getInstance(new Key<JsonCodec<TaskUpdateRequest>>() {});
+            smileCodec = new SmileCodecFactory(injector.getInstance(ObjectMapper.class)).smileCodec(TaskUpdateRequest.class);
+            request = createTaskUpdateRequest(splitCount);
+            json = jsonCodec.toJsonBytes(request);
+            smile = smileCodec.toBytes(request);
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        // assure the benchmarks are valid before running
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        BenchmarkInternalCommunicationCodecs benchmark = new BenchmarkInternalCommunicationCodecs();
+        benchmark.decodeJson(data);
+        benchmark.decodeSmile(data);
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkInternalCommunicationCodecs.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -33,6 +33,7 @@ public class TestInternalCommunicationConfig
         assertRecordedDefaults(recordDefaults(InternalCommunicationConfig.class)
                 .setSharedSecret(null)
                 .setHttp2Enabled(false)
+                .setBinaryEncodingEnabled(false)
                 .setHttpsRequired(false)
                 .setKeyStorePath(null)
                 .setKeyStorePassword(null)
@@ -50,6 +51,7 @@ public class TestInternalCommunicationConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("internal-communication.shared-secret", "secret")
                 .put("internal-communication.http2.enabled", "true")
+                .put("internal-communication.binary-encoding.enabled", "true")
                 .put("internal-communication.https.required", "true")
                 .put("internal-communication.https.keystore.path", keystoreFile.toString())
                 .put("internal-communication.https.keystore.key", "key-key")
@@ -60,6 +62,7 @@ public class TestInternalCommunicationConfig
         InternalCommunicationConfig expected = new InternalCommunicationConfig()
                 .setSharedSecret("secret")
                 .setHttp2Enabled(true)
+                .setBinaryEncodingEnabled(true)
                 .setHttpsRequired(true)
                 .setKeyStorePath(keystoreFile.toString())
                 .setKeyStorePassword("key-key")
@@ -0,0 +1,171 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Binder;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.Provides;
+import io.airlift.bootstrap.Bootstrap;
+import io.airlift.json.JsonCodec;
+import io.airlift.json.JsonModule;
+import io.prestosql.block.BlockJsonSerde;
+import io.prestosql.connector.CatalogName;
+import io.prestosql.execution.DynamicFiltersCollector.VersionedDynamicFilterDomains;
+import io.prestosql.execution.Lifespan;
+import io.prestosql.execution.ScheduledSplit;
+import io.prestosql.execution.TaskSource;
+import io.prestosql.execution.buffer.OutputBuffers;
+import io.prestosql.metadata.HandleJsonModule;
+import io.prestosql.metadata.HandleResolver;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.metadata.Split;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.ValueSet;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.planner.plan.DynamicFilterId;
+import io.prestosql.testing.TestingHandleResolver;
+import io.prestosql.testing.TestingSplit;
+import io.prestosql.type.TypeDeserializer;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.inject.Singleton;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static io.airlift.json.JsonBinder.jsonBinder;
+import static io.airlift.json.JsonCodecBinder.jsonCodecBinder;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.execution.TaskTestUtils.PLAN_FRAGMENT;
+import static io.prestosql.execution.TaskTestUtils.TABLE_SCAN_NODE_ID;
+import static io.prestosql.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestSmileCodec
+{
+    private JsonCodec<TaskUpdateRequest> taskUpdateRequestJsonCodec;
+    private SmileCodecFactory smileCodecFactory;
+
+    @BeforeClass
+    public void setUp()
+    {
+        Injector injector = createInjector();
+        taskUpdateRequestJsonCodec = injector.getInstance(new Key<JsonCodec<TaskUpdateRequest>>() {});
+        smileCodecFactory = new SmileCodecFactory(injector.getInstance(ObjectMapper.class));
+    }
+
+    @Test
+    public void testTaskUpdateRequestRoundTrip()
+    {
+        TaskUpdateRequest request = createTaskUpdateRequest(100);
+        SmileCodec<TaskUpdateRequest> smileCodec = smileCodecFactory.smileCodec(TaskUpdateRequest.class);
+
+        byte[] smile = smileCodec.toBytes(request);
+        TaskUpdateRequest copy = smileCodec.fromBytes(smile);
+
+        // the JSON form covers every property of the request, including the splits and the plan
+        assertEquals(taskUpdateRequestJsonCodec.toJson(copy), taskUpdateRequestJsonCodec.toJson(request));
+        assertTrue(smile.length < taskUpdateRequestJsonCodec.toJsonBytes(request).length);
+    }
+
+    @Test
+    public void testDynamicFilterDomainsRoundTrip()
+    {
+        VersionedDynamicFilterDomains domains = new VersionedDynamicFilterDomains(
+                7,
+                ImmutableMap.of(
+                        new DynamicFilterId("bigint"), Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 1L, true, 100L, false)), true),
+                        new DynamicFilterId("varchar"), Domain.multipleValues(VARCHAR, ImmutableList.of(utf8Slice("a"), utf8Slice("b")))));
+        SmileCodec<VersionedDynamicFilterDomains> smileCodec = smileCodecFactory.smileCodec(VersionedDynamicFilterDomains.class);
+
+        VersionedDynamicFilterDomains copy = smileCodec.fromBytes(smileCodec.toBytes(domains));
+
+        assertEquals(copy.getVersion(), domains.getVersion());
+        assertEquals(copy.getDynamicFilterDomains(), domains.getDynamicFilterDomains());
+    }
+
+    @Test
+    public void testInvalidInput()
+    {
+        SmileCodec<TaskUpdateRequest> smileCodec = smileCodecFactory.smileCodec(TaskUpdateRequest.class);
+
+        assertThatThrownBy(() -> smileCodec.fromBytes(new byte[] {1, 2, 3}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Invalid Smile bytes for");
+    }
+
+    static TaskUpdateRequest createTaskUpdateRequest(int splitCount)
+    {
+        ImmutableSet<ScheduledSplit> splits = IntStream.range(0, splitCount)
+                .mapToObj(sequenceId -> new ScheduledSplit(sequenceId, TABLE_SCAN_NODE_ID, new Split(new CatalogName("test"), TestingSplit.createLocalSplit(), Lifespan.taskWide())))
+                .collect(toImmutableSet());
+        return new TaskUpdateRequest(
+                TEST_SESSION.toSessionRepresentation(),
+                ImmutableMap.of(),
+                Optional.of(PLAN_FRAGMENT),
+                ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, splits, false)),
+                createInitialEmptyOutputBuffers(OutputBuffers.BufferType.PARTITIONED),
+                OptionalInt.empty());
+    }
+
+    static Injector createInjector()
+    {
+        Injector injector = new Bootstrap(
+                new JsonModule(),
+                new HandleJsonModule(),
+                new Module()
+                {
+                    @Override
+                    public void configure(Binder binder)
+                    {
+                        binder.bind(Metadata.class).toInstance(createTestMetadataManager());
+                        jsonBinder(binder).addDeserializerBinding(Type.class).to(TypeDeserializer.class);
+                        jsonBinder(binder).addSerializerBinding(Block.class).to(BlockJsonSerde.Serializer.class);
+                        jsonBinder(binder).addDeserializerBinding(Block.class).to(BlockJsonSerde.Deserializer.class);
+                        jsonCodecBinder(binder).bindJsonCodec(TaskUpdateRequest.class);
+                    }
+
+                    @Provides
+                    @Singleton
+                    public BlockEncodingSerde createBlockEncodingSerde(Metadata metadata)
+                    {
+                        return metadata.getBlockEncodingSerde();
+                    }
+                })
+                .strictConfig()
+                .doNotInitializeLogging()
+                .quiet()
+                .initialize();
+        injector.getInstance(HandleResolver.class).addCatalogHandleResolver("test", new TestingHandleResolver());
+        return injector;
+    }
+}
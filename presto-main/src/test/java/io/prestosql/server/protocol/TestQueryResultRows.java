@@ -15,45 +15,71 @@ package io.prestosql.server.protocol;
 
 import com.google.common.base.VerifyException;
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Bytes;
+import io.airlift.json.JsonCodec;
+import io.prestosql.RowPagesBuilder;
 import io.prestosql.Session;
+import io.prestosql.client.BinaryQueryData;
 import io.prestosql.client.ClientTypeSignature;
+import io.prestosql.client.ClientTypeSignatureParameter;
 import io.prestosql.client.Column;
+import io.prestosql.client.QueryResults;
+import io.prestosql.client.StatementStats;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.type.ArrayType;
 import io.prestosql.spi.type.BigintType;
 import io.prestosql.spi.type.BooleanType;
+import io.prestosql.spi.type.CharType;
+import io.prestosql.spi.type.DecimalType;
+import io.prestosql.spi.type.DoubleType;
 import io.prestosql.spi.type.IntegerType;
+import io.prestosql.spi.type.RealType;
 import io.prestosql.spi.type.RowType;
 import io.prestosql.spi.type.SmallintType;
 import io.prestosql.spi.type.TimestampType;
 import io.prestosql.spi.type.TimestampWithTimeZoneType;
+import io.prestosql.spi.type.TinyintType;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.VarbinaryType;
+import io.prestosql.spi.type.VarcharType;
 import io.prestosql.testing.TestingSession;
 import io.prestosql.tests.BogusType;
 import org.testng.annotations.Test;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.json.JsonCodec.jsonCodec;
 import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
 import static io.prestosql.client.ClientStandardTypes.ARRAY;
 import static io.prestosql.client.ClientStandardTypes.BIGINT;
 import static io.prestosql.client.ClientStandardTypes.BOOLEAN;
+import static io.prestosql.client.ClientStandardTypes.CHAR;
+import static io.prestosql.client.ClientStandardTypes.DECIMAL;
+import static io.prestosql.client.ClientStandardTypes.DOUBLE;
 import static io.prestosql.client.ClientStandardTypes.INTEGER;
 import static io.prestosql.client.ClientStandardTypes.MAP;
+import static io.prestosql.client.ClientStandardTypes.REAL;
 import static io.prestosql.client.ClientStandardTypes.ROW;
+import static io.prestosql.client.ClientStandardTypes.SMALLINT;
 import static io.prestosql.client.ClientStandardTypes.TIMESTAMP;
 import static io.prestosql.client.ClientStandardTypes.TIMESTAMP_WITH_TIME_ZONE;
+import static io.prestosql.client.ClientStandardTypes.TINYINT;
+import static io.prestosql.client.ClientStandardTypes.VARBINARY;
+import static io.prestosql.client.ClientStandardTypes.VARCHAR;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.server.protocol.QueryResultRows.queryResultRowsBuilder;
 import static io.prestosql.spi.type.TypeSignature.mapType;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -66,6 +92,7 @@ public class TestQueryResultRows
     private static final Function<String, Column> INT_COLUMN = name -> new Column(name, INTEGER, new ClientTypeSignature(INTEGER));
 
     private static final Metadata METADATA = createTestMetadataManager();
+    private static final JsonCodec<QueryResults> QUERY_RESULTS_CODEC = jsonCodec(QueryResults.class);
 
     @Test
     public void shouldNotReturnValues()
@@ -379,6 +406,144 @@ public class TestQueryResultRows
         assertThat(exceptionConsumer.getExceptions()).isEmpty();
     }
 
+    @Test
+    public void shouldEncodeBinaryData()
+    {
+        List<Type> types = ImmutableList.of(
+                BooleanType.BOOLEAN,
+                TinyintType.TINYINT,
+                SmallintType.SMALLINT,
+                IntegerType.INTEGER,
+                BigintType.BIGINT,
+                RealType.REAL,
+                DoubleType.DOUBLE,
+                VarcharType.VARCHAR,
+                CharType.createCharType(3),
+                VarbinaryType.VARBINARY,
+                TimestampType.TIMESTAMP_MILLIS,
+                DecimalType.createDecimalType(10, 2),
+                new ArrayType(BigintType.BIGINT));
+        List<Column> columns = ImmutableList.of(
+                new Column("_col0", BOOLEAN, new ClientTypeSignature(BOOLEAN)),
+                new Column("_col1", TINYINT, new ClientTypeSignature(TINYINT)),
+                new Column("_col2", SMALLINT, new ClientTypeSignature(SMALLINT)),
+                new Column("_col3", INTEGER, new ClientTypeSignature(INTEGER)),
+                new Column("_col4", BIGINT, new ClientTypeSignature(BIGINT)),
+                new Column("_col5", REAL, new ClientTypeSignature(REAL)),
+                new Column("_col6", DOUBLE, new ClientTypeSignature(DOUBLE)),
+                new Column("_col7", VARCHAR, new ClientTypeSignature(VARCHAR)),
+                new Column("_col8", "char(3)", new ClientTypeSignature(CHAR, ImmutableList.of(ClientTypeSignatureParameter.ofLong(3)))),
+                new Column("_col9", VARBINARY, new ClientTypeSignature(VARBINARY)),
+                new Column("_col10", "timestamp(3)", new ClientTypeSignature(TIMESTAMP, ImmutableList.of(ClientTypeSignatureParameter.ofLong(3)))),
+                new Column("_col11", "decimal(10,2)", new ClientTypeSignature(DECIMAL, ImmutableList.of(ClientTypeSignatureParameter.ofLong(10), ClientTypeSignatureParameter.ofLong(2)))),
+                new Column("_col12", "array(bigint)", new ClientTypeSignature(ARRAY, ImmutableList.of(ClientTypeSignatureParameter.ofType(new ClientTypeSignature(BIGINT))))));
+
+        List<Page> pages = rowPagesBuilder(types)
+                .row(true, 1, 2, 3, 4L, 5.5f, 6.5, "seven", "8", new byte[] {9}, 10_000L, 1100L, ImmutableList.of(12L))
+                .row(null, null, null, null, null, null, null, null, null, null, null, null, null)
+                .pageBreak()
+                .row(false, -1, -2, -3, Long.MIN_VALUE, Float.NaN, Double.POSITIVE_INFINITY, "\u0105", "", new byte[0], 0L, -1L, singletonList(null))
+                .build();
+
+        List<List<Object>> jsonData = getClientData(new QueryResults(
+                "query",
+                URI.create("http://localhost"),
+                null,
+                null,
+                columns,
+                createRows(columns, types, pages),
+                StatementStats.builder().setState("FINISHED").build(),
+                null,
+                ImmutableList.of(),
+                null,
+                null));
+
+        TestExceptionConsumer exceptionConsumer = new TestExceptionConsumer();
+        byte[] binaryData = queryResultRowsBuilder(getSession())
+                .withColumnsAndTypes(columns, types)
+                .withExceptionConsumer(exceptionConsumer)
+                .addPages(pages)
+                .build()
+                .toBinaryData();
+        List<List<Object>> binaryDecodedData = getClientData(new QueryResults(
+                "query",
+                URI.create("http://localhost"),
+                null,
+                null,
+                columns,
+                null,
+                binaryData,
+                StatementStats.builder().setState("FINISHED").build(),
+                null,
+                ImmutableList.of(),
+                null,
+                null));
+
+        assertThat(exceptionConsumer.getExceptions()).isEmpty();
+        assertThat(binaryDecodedData).hasSize(3);
+        assertThat(binaryDecodedData).isEqualTo(jsonData);
+    }
+
+    @Test
+    public void shouldCompressBinaryData()
+    {
+        List<Column> columns = ImmutableList.of(BIGINT_COLUMN.apply("_col0"));
+        List<Type> types = ImmutableList.of(BigintType.BIGINT);
+
+        RowPagesBuilder pagesBuilder = rowPagesBuilder(types);
+        for (int i = 0; i < 10_000; i++) {
+            pagesBuilder.row(i % 10);
+        }
+
+        byte[] binaryData = queryResultRowsBuilder(getSession())
+                .withColumnsAndTypes(columns, types)
+                .addPages(pagesBuilder.build())
+                .build()
+                .toBinaryData();
+
+        assertThat(binaryData[0]).isEqualTo(BinaryQueryData.COMPRESSED);
+        assertThat(binaryData.length).isLessThan(10_000 * Long.BYTES / 2);
+        List<List<Object>> rows = ImmutableList.copyOf(BinaryQueryData.decode(columns, binaryData));
+        assertThat(rows).hasSize(10_000);
+        for (int i = 0; i < rows.size(); i++) {
+            assertThat(rows.get(i)).containsExactly((long) (i % 10));
+        }
+    }
+
+    @Test
+    public void shouldOmitBadRowsInBinaryData()
+    {
+        List<Column> columns = ImmutableList.of(BIGINT_COLUMN.apply("_col0"), BIGINT_COLUMN.apply("_col1"));
+        List<Type> types = ImmutableList.of(BogusType.BOGUS, BogusType.BOGUS);
+
+        List<Page> pages = rowPagesBuilder(types)
+                .row(0, 1)
+                .row(0, 0)
+                .row(0, 1)
+                .row(1, 0)
+                .row(0, 1)
+                .build();
+
+        TestExceptionConsumer exceptionConsumer = new TestExceptionConsumer();
+        byte[] binaryData = queryResultRowsBuilder(getSession())
+                .withColumnsAndTypes(columns, types)
+                .withExceptionConsumer(exceptionConsumer)
+                .addPages(pages)
+                .build()
+                .toBinaryData();
+
+        assertThat(BinaryQueryData.decode(columns, binaryData))
+                .containsExactly(ImmutableList.of(0L, 0L));
+
+        assertThat(exceptionConsumer.getExceptions())
+                .extracting(Throwable::getMessage)
+                .containsExactly(
+                        "Could not serialize column '_col1' of type 'Bogus' at position 1:2",
+                        "Could not serialize column '_col1' of type 'Bogus' at position 3:2",
+                        "Could not serialize column '_col0' of type 'Bogus' at position 4:1",
+                        "Could not serialize column '_col1' of type 'Bogus' at position 5:2");
+    }
+
     @Test
     public void shouldNotThrowWhenDataAndColumnsAreMissing()
     {
@@ -452,6 +617,24 @@ public class TestQueryResultRows
                 .build();
     }
 
+    private static QueryResultRows createRows(List<Column> columns, List<Type> types, List<Page> pages)
+    {
+        return queryResultRowsBuilder(getSession())
+                .withColumnsAndTypes(columns, types)
+                .addPages(pages)
+                .build();
+    }
+
+    private static List<List<Object>> getClientData(QueryResults results)
+    {
+        // round trip through JSON like the client does, and make varbinary values comparable
+        return ImmutableList.copyOf(QUERY_RESULTS_CODEC.fromJson(QUERY_RESULTS_CODEC.toJson(results)).getData()).stream()
+                .map(row -> row.stream()
+                        .map(value -> (value instanceof byte[]) ? Bytes.asList((byte[]) value) : value)
+                        .collect(toList()))
+                .collect(toImmutableList());
+    }
+
     private static List<List<Object>> getAllValues(QueryResultRows rows)
     {
         ImmutableList.Builder<List<Object>> builder = ImmutableList.builder();
@@ -0,0 +1,69 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.protocol;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Map;
+
+import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+public class TestResultSpoolConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(ResultSpoolConfig.class)
+                .setPath(new File(System.getProperty("java.io.tmpdir"), "presto-result-spool"))
+                .setSegmentSize(DataSize.of(8, MEGABYTE))
+                .setMaxInlineSize(DataSize.of(128, KILOBYTE))
+                .setSegmentTtl(new Duration(10, MINUTES))
+                .setThreads(4)
+                .setExternalUri(null));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("result-spool.path", "/tmp/result-spool")
+                .put("result-spool.segment-size", "32MB")
+                .put("result-spool.max-inline-size", "1MB")
+                .put("result-spool.segment-ttl", "1h")
+                .put("result-spool.threads", "8")
+                .put("result-spool.external-uri", "https://worker.example.com:8443")
+                .build();
+
+        ResultSpoolConfig expected = new ResultSpoolConfig()
+                .setPath(new File("/tmp/result-spool"))
+                .setSegmentSize(DataSize.of(32, MEGABYTE))
+                .setMaxInlineSize(DataSize.of(1, MEGABYTE))
+                .setSegmentTtl(new Duration(1, HOURS))
+                .setThreads(8)
+                .setExternalUri(URI.create("https://worker.example.com:8443"));
+
+        assertFullMapping(properties, expected);
+    }
+}
@@ -13,6 +13,7 @@
  */
 package io.prestosql.server.remotetask;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
@@ -54,6 +55,9 @@ import io.prestosql.metadata.Metadata;
 import io.prestosql.metadata.Split;
 import io.prestosql.server.DynamicFilterService;
 import io.prestosql.server.HttpRemoteTaskFactory;
+import io.prestosql.server.InternalCommunicationConfig;
+import io.prestosql.server.SmileCodecFactory;
+import io.prestosql.server.SmileMapper;
 import io.prestosql.server.TaskUpdateRequest;
 import io.prestosql.spi.ErrorCode;
 import io.prestosql.spi.QueryId;
@@ -103,10 +107,13 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BooleanSupplier;
 
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static com.google.common.net.MediaType.JSON_UTF_8;
 import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static io.airlift.json.JsonBinder.jsonBinder;
 import static io.airlift.json.JsonCodecBinder.jsonCodecBinder;
 import static io.airlift.testing.Assertions.assertGreaterThanOrEqual;
+import static io.prestosql.PrestoMediaTypes.APPLICATION_JACKSON_SMILE;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
 import static io.prestosql.client.PrestoHeaders.PRESTO_CURRENT_VERSION;
 import static io.prestosql.client.PrestoHeaders.PRESTO_MAX_WAIT;
@@ -164,11 +171,24 @@ public class TestHttpRemoteTask
     @Test(timeOut = 30000)
     public void testRegular()
             throws Exception
+    {
+        testRegular(false);
+    }
+
+    @Test(timeOut = 30000)
+    public void testRegularWithBinaryEncoding()
+            throws Exception
+    {
+        testRegular(true);
+    }
+
+    private void testRegular(boolean binaryEncoding)
+            throws Exception
     {
         AtomicLong lastActivityNanos = new AtomicLong(System.nanoTime());
         TestingTaskResource testingTaskResource = new TestingTaskResource(lastActivityNanos, FailureScenario.NO_FAILURE);
 
-        HttpRemoteTaskFactory httpRemoteTaskFactory = createHttpRemoteTaskFactory(testingTaskResource);
+        HttpRemoteTaskFactory httpRemoteTaskFactory = createHttpRemoteTaskFactory(testingTaskResource, binaryEncoding);
 
         RemoteTask remoteTask = createRemoteTask(httpRemoteTaskFactory);
 
@@ -186,6 +206,8 @@ public class TestHttpRemoteTask
         remoteTask.noMoreSplits(TABLE_SCAN_NODE_ID);
         poll(() -> testingTaskResource.getTaskSource(TABLE_SCAN_NODE_ID).isNoMoreSplits());
 
+        assertEquals(testingTaskResource.getLastUpdateContentType(), binaryEncoding ? APPLICATION_JACKSON_SMILE : JSON_UTF_8.toString());
+
         remoteTask.cancel();
         poll(() -> remoteTask.getTaskStatus().getState().isDone());
         poll(() -> remoteTask.getTaskInfo().getTaskStatus().getState().isDone());
@@ -315,10 +337,20 @@ public class TestHttpRemoteTask
 
     private static HttpRemoteTaskFactory createHttpRemoteTaskFactory(TestingTaskResource testingTaskResource)
     {
-        return createHttpRemoteTaskFactory(testingTaskResource, new DynamicFilterService(createTestMetadataManager(), new TypeOperators(), new DynamicFilterConfig()));
+        return createHttpRemoteTaskFactory(testingTaskResource, false);
+    }
+
+    private static HttpRemoteTaskFactory createHttpRemoteTaskFactory(TestingTaskResource testingTaskResource, boolean binaryEncoding)
+    {
+        return createHttpRemoteTaskFactory(testingTaskResource, new DynamicFilterService(createTestMetadataManager(), new TypeOperators(), new DynamicFilterConfig()), binaryEncoding);
     }
 
     private static HttpRemoteTaskFactory createHttpRemoteTaskFactory(TestingTaskResource testingTaskResource, DynamicFilterService dynamicFilterService)
+    {
+        return createHttpRemoteTaskFactory(testingTaskResource, dynamicFilterService, false);
+    }
+
+    private static HttpRemoteTaskFactory createHttpRemoteTaskFactory(TestingTaskResource testingTaskResource, DynamicFilterService dynamicFilterService, boolean binaryEncoding)
     {
         Bootstrap app = new Bootstrap(
                 new JsonModule(),
@@ -349,23 +381,27 @@ public class TestHttpRemoteTask
                     @Provides
                     private HttpRemoteTaskFactory createHttpRemoteTaskFactory(
                             JsonMapper jsonMapper,
+                            ObjectMapper objectMapper,
                             JsonCodec<TaskStatus> taskStatusCodec,
                             JsonCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec,
                             JsonCodec<TaskInfo> taskInfoCodec,
                             JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec)
                     {
-                        JaxrsTestingHttpProcessor jaxrsTestingHttpProcessor = new JaxrsTestingHttpProcessor(URI.create("http://fake.invalid/"), testingTaskResource, jsonMapper);
+                        SmileCodecFactory smileCodecFactory = new SmileCodecFactory(objectMapper);
+                        JaxrsTestingHttpProcessor jaxrsTestingHttpProcessor = new JaxrsTestingHttpProcessor(URI.create("http://fake.invalid/"), testingTaskResource, jsonMapper, new SmileMapper(smileCodecFactory));
                         TestingHttpClient testingHttpClient = new TestingHttpClient(jaxrsTestingHttpProcessor.setTrace(TRACE_HTTP));
                         testingTaskResource.setHttpClient(testingHttpClient);
                         return new HttpRemoteTaskFactory(
                                 new QueryManagerConfig(),
                                 TASK_MANAGER_CONFIG,
+                                new InternalCommunicationConfig().setBinaryEncodingEnabled(binaryEncoding),
                                 testingHttpClient,
                                 new TestSqlTaskManager.MockLocationFactory(),
                                 taskStatusCodec,
                                 dynamicFilterDomainsCodec,
                                 taskInfoCodec,
                                 taskUpdateRequestCodec,
+                                smileCodecFactory,
                                 new RemoteTaskStats(),
                                 dynamicFilterService);
                     }
@@ -442,6 +478,7 @@ public class TestHttpRemoteTask
 
         private long statusFetchCounter;
         private long dynamicFiltersFetchCounter;
+        private String lastUpdateContentType;
 
         public TestingTaskResource(AtomicLong lastActivityNanos, FailureScenario failureScenario)
         {
@@ -456,7 +493,7 @@ public class TestHttpRemoteTask
 
         @GET
         @Path("{taskId}")
-        @Produces(MediaType.APPLICATION_JSON)
+        @Produces({MediaType.APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
         public synchronized TaskInfo getTaskInfo(
                 @PathParam("taskId") TaskId taskId,
                 @HeaderParam(PRESTO_CURRENT_VERSION) Long currentVersion,
@@ -471,13 +508,15 @@ public class TestHttpRemoteTask
 
         @POST
         @Path("{taskId}")
-        @Consumes(MediaType.APPLICATION_JSON)
-        @Produces(MediaType.APPLICATION_JSON)
+        @Consumes({MediaType.APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
+        @Produces({MediaType.APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
         public synchronized TaskInfo createOrUpdateTask(
                 @PathParam("taskId") TaskId taskId,
                 TaskUpdateRequest taskUpdateRequest,
+                @HeaderParam(CONTENT_TYPE) String contentType,
                 @Context UriInfo uriInfo)
         {
+            lastUpdateContentType = contentType;
             for (TaskSource source : taskUpdateRequest.getSources()) {
                 taskSourceMap.compute(source.getPlanNodeId(), (planNodeId, taskSource) -> taskSource == null ? source : taskSource.update(source));
             }
@@ -485,6 +524,11 @@ public class TestHttpRemoteTask
             return buildTaskInfo();
         }
 
+        public synchronized String getLastUpdateContentType()
+        {
+            return lastUpdateContentType;
+        }
+
         public synchronized TaskSource getTaskSource(PlanNodeId planNodeId)
         {
             TaskSource source = taskSourceMap.get(planNodeId);
@@ -496,7 +540,7 @@ public class TestHttpRemoteTask
 
         @GET
         @Path("{taskId}/status")
-        @Produces(MediaType.APPLICATION_JSON)
+        @Produces({MediaType.APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
         public synchronized TaskStatus getTaskStatus(
                 @PathParam("taskId") TaskId taskId,
                 @HeaderParam(PRESTO_CURRENT_VERSION) Long currentVersion,
@@ -512,7 +556,7 @@ public class TestHttpRemoteTask
 
         @GET
         @Path("{taskId}/dynamicfilters")
-        @Produces(MediaType.APPLICATION_JSON)
+        @Produces({MediaType.APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
         public synchronized VersionedDynamicFilterDomains acknowledgeAndGetNewDynamicFilterDomains(
                 @PathParam("taskId") TaskId taskId,
                 @HeaderParam(PRESTO_CURRENT_VERSION) Long currentDynamicFiltersVersion,
@@ -524,7 +568,7 @@ public class TestHttpRemoteTask
 
         @DELETE
         @Path("{taskId}")
-        @Produces(MediaType.APPLICATION_JSON)
+        @Produces({MediaType.APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
         public synchronized TaskInfo deleteTask(
                 @PathParam("taskId") TaskId taskId,
                 @QueryParam("abort") @DefaultValue("true") boolean abort,
@@ -625,7 +669,8 @@ public class TestHttpRemoteTask
                     initialTaskStatus.getRevocableMemoryReservation(),
                     initialTaskStatus.getFullGcCount(),
                     initialTaskStatus.getFullGcTime(),
-                    dynamicFilterDomains.map(VersionedDynamicFilterDomains::getVersion).orElse(INITIAL_DYNAMIC_FILTERS_VERSION));
+                    dynamicFilterDomains.map(VersionedDynamicFilterDomains::getVersion).orElse(INITIAL_DYNAMIC_FILTERS_VERSION),
+                    initialTaskStatus.getMaxAcknowledgedSplit());
         }
     }
 }
@@ -23,6 +23,7 @@ import io.prestosql.execution.buffer.PagesSerdeUtil;
 import io.prestosql.execution.buffer.SerializedPage;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.operator.PageAssertions;
+import io.prestosql.operator.WorkProcessor;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.Type;
@@ -46,7 +47,9 @@ import static io.prestosql.spi.type.VarbinaryType.VARBINARY;
 import static java.lang.Double.doubleToLongBits;
 import static java.nio.file.Files.newInputStream;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
@@ -93,13 +96,86 @@ public class TestFileSingleStreamSpiller
         assertSpill(true, true);
     }
 
+    @Test
+    public void testUnspillEmptyFile()
+            throws Exception
+    {
+        SpillerStats spillerStats = new SpillerStats();
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                createTestMetadataManager().getBlockEncodingSerde(),
+                spillerStats,
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                false,
+                false);
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        SingleStreamSpiller spiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext);
+
+        // nothing was spilled, so the spill file is empty
+        assertEquals(listFiles(spillPath.toPath()).size(), 1);
+        assertEquals(listFiles(spillPath.toPath()).get(0).toFile().length(), 0);
+
+        assertFalse(spiller.getSpilledPages().hasNext());
+        assertEquals(spillerStats.getTotalUnspilledBytes(), 0);
+
+        spiller.close();
+        assertEquals(listFiles(spillPath.toPath()).size(), 0);
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
+    @Test
+    public void testReadAhead()
+            throws Exception
+    {
+        SpillerStats spillerStats = new SpillerStats();
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                createTestMetadataManager().getBlockEncodingSerde(),
+                spillerStats,
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                true,
+                false);
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        SingleStreamSpiller spiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext);
+
+        Page page = buildPage();
+        int pageCount = 3 * FileSingleStreamSpiller.READ_AHEAD_PAGES;
+        spiller.spill(Iterators.limit(Iterators.cycle(page), pageCount)).get();
+
+        WorkProcessor<Page> spilledPages = spiller.readAheadSpilledPages();
+        int readPages = 0;
+        while (true) {
+            if (!spilledPages.process()) {
+                // the driver thread is not blocked while the next page is read
+                assertTrue(spilledPages.isBlocked());
+                spilledPages.getBlockedFuture().get(10, SECONDS);
+                continue;
+            }
+            if (spilledPages.isFinished()) {
+                break;
+            }
+            PageAssertions.assertPageEquals(TYPES, page, spilledPages.getResult());
+            readPages++;
+        }
+        assertEquals(readPages, pageCount);
+        assertEquals(spillerStats.getTotalUnspilledBytes(), spillerStats.getTotalSpilledBytes());
+        assertTrue(spillerStats.getTotalUnspillReadTimeNanos() > 0);
+
+        spiller.close();
+        assertEquals(listFiles(spillPath.toPath()).size(), 0);
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
     private void assertSpill(boolean compression, boolean encryption)
             throws Exception
     {
+        SpillerStats spillerStats = new SpillerStats();
         FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
                 executor, // executor won't be closed, because we don't call destroy() on the spiller factory
                 createTestMetadataManager().getBlockEncodingSerde(),
-                new SpillerStats(),
+                spillerStats,
                 ImmutableList.of(spillPath.toPath()),
                 1.0,
                 compression,
@@ -141,6 +217,9 @@ public class TestFileSingleStreamSpiller
         for (int i = 0; i < 4; ++i) {
             PageAssertions.assertPageEquals(TYPES, page, spilledPages.get(i));
         }
+        assertEquals(spillerStats.getTotalUnspilledBytes(), spillerStats.getTotalSpilledBytes());
+        assertTrue(spillerStats.getTotalSpillWriteTimeNanos() > 0);
+        assertTrue(spillerStats.getTotalUnspillReadTimeNanos() > 0);
 
         spiller.close();
         assertEquals(listFiles(spillPath.toPath()).size(), 0);
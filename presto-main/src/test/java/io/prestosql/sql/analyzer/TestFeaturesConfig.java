@@ -51,6 +51,10 @@ public class TestFeaturesConfig
                 .setDistributedIndexJoinsEnabled(false)
                 .setJoinMaxBroadcastTableSize(DataSize.of(100, MEGABYTE))
                 .setJoinDistributionType(JoinDistributionType.AUTOMATIC)
+                .setAdaptiveJoinDistributionEnabled(false)
+                .setAdaptiveJoinMaxBroadcastBuildSize(DataSize.of(100, MEGABYTE))
+                .setAdaptiveJoinMinPartitionedBuildSize(DataSize.of(10, MEGABYTE))
+                .setAdaptiveJoinMaxBuildWait(new Duration(1, MINUTES))
                 .setGroupedExecutionEnabled(false)
                 .setDynamicScheduleForGroupedExecutionEnabled(false)
                 .setConcurrentLifespansPerTask(0)
@@ -72,6 +76,7 @@ public class TestFeaturesConfig
                 .setSpillEnabled(false)
                 .setSpillOrderBy(true)
                 .setSpillWindowOperator(true)
+                .setSpillSemiJoin(true)
                 .setAggregationOperatorUnspillMemoryLimit(DataSize.valueOf("4MB"))
                 .setSpillerSpillPaths("")
                 .setSpillerThreads(4)
@@ -87,6 +92,7 @@ public class TestFeaturesConfig
                 .setDefaultFilterFactorEnabled(false)
                 .setEnableForcedExchangeBelowGroupId(true)
                 .setExchangeCompressionEnabled(false)
+                .setSpooledResultsEnabled(false)
                 .setExchangeDataIntegrityVerification(DataIntegrityVerification.ABORT)
                 .setEnableIntermediateAggregations(false)
                 .setPushAggregationThroughOuterJoin(true)
@@ -98,6 +104,9 @@ public class TestFeaturesConfig
                 .setFilterAndProjectMinOutputPageRowCount(256)
                 .setUseMarkDistinct(true)
                 .setPreferPartialAggregation(true)
+                .setAdaptivePartialAggregationEnabled(true)
+                .setAdaptivePartialAggregationMinRows(100_000)
+                .setAdaptivePartialAggregationUniqueRowsRatioThreshold(0.8)
                 .setOptimizeTopNRowNumber(true)
                 .setHistogramGroupImplementation(HistogramGroupImplementation.NEW)
                 .setArrayAggGroupImplementation(ArrayAggGroupImplementation.NEW)
@@ -129,6 +138,10 @@ public class TestFeaturesConfig
                 .put("distributed-index-joins-enabled", "true")
                 .put("join-distribution-type", "BROADCAST")
                 .put("join-max-broadcast-table-size", "42GB")
+                .put("adaptive-join-distribution.enabled", "true")
+                .put("adaptive-join-distribution.max-broadcast-build-size", "1GB")
+                .put("adaptive-join-distribution.min-partitioned-build-size", "1MB")
+                .put("adaptive-join-distribution.max-build-wait", "10s")
                 .put("grouped-execution-enabled", "true")
                 .put("dynamic-schedule-for-grouped-execution", "true")
                 .put("concurrent-lifespans-per-task", "1")
@@ -154,6 +167,7 @@ public class TestFeaturesConfig
                 .put("spill-enabled", "true")
                 .put("spill-order-by", "false")
                 .put("spill-window-operator", "false")
+                .put("spill-semi-join", "false")
                 .put("aggregation-operator-unspill-memory-limit", "100MB")
                 .put("spiller-spill-path", "/tmp/custom/spill/path1,/tmp/custom/spill/path2")
                 .put("spiller-threads", "42")
@@ -161,6 +175,7 @@ public class TestFeaturesConfig
                 .put("memory-revoking-threshold", "0.2")
                 .put("memory-revoking-target", "0.8")
                 .put("exchange.compression-enabled", "true")
+                .put("spooled-results-enabled", "true")
                 .put("exchange.data-integrity-verification", "RETRY")
                 .put("optimizer.enable-intermediate-aggregations", "true")
                 .put("parse-decimal-literals-as-double", "true")
@@ -173,6 +188,9 @@ public class TestFeaturesConfig
                 .put("multimapagg.implementation", "LEGACY")
                 .put("optimizer.use-mark-distinct", "false")
                 .put("optimizer.prefer-partial-aggregation", "false")
+                .put("adaptive-partial-aggregation.enabled", "false")
+                .put("adaptive-partial-aggregation.min-rows", "1000")
+                .put("adaptive-partial-aggregation.unique-rows-ratio-threshold", "0.5")
                 .put("optimizer.optimize-top-n-row-number", "false")
                 .put("distributed-sort", "false")
                 .put("max-recursion-depth", "8")
@@ -197,6 +215,10 @@ public class TestFeaturesConfig
                 .setDistributedIndexJoinsEnabled(true)
                 .setJoinDistributionType(BROADCAST)
                 .setJoinMaxBroadcastTableSize(DataSize.of(42, GIGABYTE))
+                .setAdaptiveJoinDistributionEnabled(true)
+                .setAdaptiveJoinMaxBroadcastBuildSize(DataSize.of(1, GIGABYTE))
+                .setAdaptiveJoinMinPartitionedBuildSize(DataSize.of(1, MEGABYTE))
+                .setAdaptiveJoinMaxBuildWait(new Duration(10, SECONDS))
                 .setGroupedExecutionEnabled(true)
                 .setDynamicScheduleForGroupedExecutionEnabled(true)
                 .setConcurrentLifespansPerTask(1)
@@ -222,6 +244,7 @@ public class TestFeaturesConfig
                 .setSpillEnabled(true)
                 .setSpillOrderBy(false)
                 .setSpillWindowOperator(false)
+                .setSpillSemiJoin(false)
                 .setAggregationOperatorUnspillMemoryLimit(DataSize.valueOf("100MB"))
                 .setSpillerSpillPaths("/tmp/custom/spill/path1,/tmp/custom/spill/path2")
                 .setSpillerThreads(42)
@@ -229,6 +252,7 @@ public class TestFeaturesConfig
                 .setMemoryRevokingThreshold(0.2)
                 .setMemoryRevokingTarget(0.8)
                 .setExchangeCompressionEnabled(true)
+                .setSpooledResultsEnabled(true)
                 .setExchangeDataIntegrityVerification(DataIntegrityVerification.RETRY)
                 .setEnableIntermediateAggregations(true)
                 .setParseDecimalLiteralsAsDouble(true)
@@ -238,6 +262,9 @@ public class TestFeaturesConfig
                 .setFilterAndProjectMinOutputPageRowCount(2048)
                 .setUseMarkDistinct(false)
                 .setPreferPartialAggregation(false)
+                .setAdaptivePartialAggregationEnabled(false)
+                .setAdaptivePartialAggregationMinRows(1000)
+                .setAdaptivePartialAggregationUniqueRowsRatioThreshold(0.5)
                 .setOptimizeTopNRowNumber(false)
                 .setHistogramGroupImplementation(HistogramGroupImplementation.LEGACY)
                 .setArrayAggGroupImplementation(ArrayAggGroupImplementation.LEGACY)
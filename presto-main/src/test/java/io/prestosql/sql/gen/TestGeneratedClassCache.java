@@ -0,0 +1,342 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.gen;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.bytecode.ClassDefinition;
+import io.prestosql.metadata.BoundSignature;
+import io.prestosql.metadata.FunctionBinding;
+import io.prestosql.metadata.FunctionDependencies;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.operator.DriverYieldSignal;
+import io.prestosql.operator.PageWithPositionComparator;
+import io.prestosql.operator.Work;
+import io.prestosql.operator.aggregation.InternalAggregationFunction;
+import io.prestosql.operator.project.PageProjection;
+import io.prestosql.operator.project.SelectedPositions;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.connector.SortOrder;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeOperators;
+import io.prestosql.sql.relational.RowExpression;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.bytecode.Access.FINAL;
+import static io.airlift.bytecode.Access.PUBLIC;
+import static io.airlift.bytecode.Access.a;
+import static io.airlift.bytecode.ParameterizedType.type;
+import static io.airlift.bytecode.expression.BytecodeExpressions.invokeDynamic;
+import static io.prestosql.block.BlockAssertions.createLongsBlock;
+import static io.prestosql.block.BlockAssertions.createStringsBlock;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.aggregation.AggregationTestUtils.assertAggregation;
+import static io.prestosql.operator.aggregation.CountColumn.COUNT_COLUMN;
+import static io.prestosql.spi.connector.SortOrder.ASC_NULLS_FIRST;
+import static io.prestosql.spi.connector.SortOrder.DESC_NULLS_LAST;
+import static io.prestosql.spi.function.OperatorType.ADD;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.sql.gen.Bootstrap.BOOTSTRAP_METHOD;
+import static io.prestosql.sql.relational.Expressions.call;
+import static io.prestosql.sql.relational.Expressions.constant;
+import static io.prestosql.sql.relational.Expressions.field;
+import static io.prestosql.testing.TestingConnectorSession.SESSION;
+import static io.prestosql.util.CompilerUtils.makeClassName;
+import static java.nio.file.Files.createTempDirectory;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestGeneratedClassCache
+{
+    private static final Metadata METADATA = createTestMetadataManager();
+    private static final TypeOperators TYPE_OPERATORS = new TypeOperators();
+
+    private Path cacheDirectory;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        cacheDirectory = createTempDirectory(getClass().getSimpleName());
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(cacheDirectory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testProjectionCache()
+    {
+        GeneratedClassCache firstCache = createCache("1");
+        assertEquals(project(firstCache, add(10)), 15);
+        assertStats(firstCache, 0, 1);
+        assertEquals(listEntries().size(), 1);
+
+        // a different process sharing the directory
+        GeneratedClassCache secondCache = createCache("1");
+        assertEquals(project(secondCache, add(10)), 15);
+        assertStats(secondCache, 1, 0);
+
+        // constants are part of the fingerprint
+        assertEquals(project(secondCache, add(20)), 25);
+        assertStats(secondCache, 1, 1);
+        assertEquals(listEntries().size(), 2);
+    }
+
+    @Test
+    public void testVersionMismatch()
+    {
+        GeneratedClassCache firstCache = createCache("1");
+        project(firstCache, add(10));
+        assertStats(firstCache, 0, 1);
+
+        GeneratedClassCache secondCache = createCache("2");
+        assertEquals(project(secondCache, add(10)), 15);
+        assertStats(secondCache, 0, 1);
+        assertEquals(listEntries().size(), 2);
+    }
+
+    @Test
+    public void testInvalidEntry()
+            throws IOException
+    {
+        GeneratedClassCache firstCache = createCache("1");
+        project(firstCache, add(10));
+        for (Path entry : listEntries()) {
+            Files.write(entry, new byte[] {1, 2, 3});
+        }
+
+        GeneratedClassCache secondCache = createCache("1");
+        assertEquals(project(secondCache, add(10)), 15);
+        assertStats(secondCache, 0, 1);
+        assertEquals(secondCache.getReadFailures().getTotalCount(), 1);
+
+        // the entry is replaced
+        GeneratedClassCache thirdCache = createCache("1");
+        assertEquals(project(thirdCache, add(10)), 15);
+        assertStats(thirdCache, 1, 0);
+    }
+
+    @Test
+    public void testLookupBeforeGeneration()
+    {
+        AtomicInteger generated = new AtomicInteger();
+        Function<CallSiteBinder, ClassDefinition> generator = callSiteBinder -> {
+            generated.incrementAndGet();
+            return longSupplierClass(callSiteBinder.bind(42L, long.class));
+        };
+
+        GeneratedClassCache firstCache = createCache("1");
+        assertEquals(getAsLong(defineLongSupplier(firstCache, generator)), 42);
+        assertEquals(generated.get(), 1);
+
+        GeneratedClassCache secondCache = createCache("1");
+        assertEquals(getAsLong(defineLongSupplier(secondCache, generator)), 42);
+        assertStats(secondCache, 1, 0);
+        assertEquals(generated.get(), 1);
+    }
+
+    @Test
+    public void testBindingWithoutSource()
+    {
+        Function<CallSiteBinder, ClassDefinition> generator = callSiteBinder -> longSupplierClass(callSiteBinder.bind(MethodHandles.constant(long.class, 42L)));
+
+        GeneratedClassCache firstCache = createCache("1");
+        assertEquals(getAsLong(defineLongSupplier(firstCache, generator)), 42);
+        assertStats(firstCache, 0, 1);
+        assertEquals(listEntries().size(), 0);
+
+        GeneratedClassCache secondCache = createCache("1");
+        assertEquals(getAsLong(defineLongSupplier(secondCache, generator)), 42);
+        assertStats(secondCache, 0, 1);
+    }
+
+    @Test
+    public void testHashStrategyCache()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR);
+        GeneratedClassCache firstCache = createCache("1");
+        Class<?> firstClass = new JoinCompiler(TYPE_OPERATORS, firstCache)
+                .compilePagesHashStrategyFactory(types, ImmutableList.of(0))
+                .createPagesHashStrategy(ImmutableList.of(ImmutableList.of(), ImmutableList.of()), OptionalInt.empty())
+                .getClass();
+        assertStats(firstCache, 0, 1);
+
+        GeneratedClassCache secondCache = createCache("1");
+        Class<?> secondClass = new JoinCompiler(TYPE_OPERATORS, secondCache)
+                .compilePagesHashStrategyFactory(types, ImmutableList.of(0))
+                .createPagesHashStrategy(ImmutableList.of(ImmutableList.of(), ImmutableList.of()), OptionalInt.empty())
+                .getClass();
+        assertStats(secondCache, 1, 0);
+        assertEquals(secondClass.getName(), firstClass.getName());
+        assertNotEquals(secondClass.getClassLoader(), firstClass.getClassLoader());
+
+        // join channels are part of the fingerprint
+        new JoinCompiler(TYPE_OPERATORS, secondCache).compilePagesHashStrategyFactory(types, ImmutableList.of(1));
+        assertStats(secondCache, 1, 1);
+    }
+
+    @Test
+    public void testOrderingCache()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR);
+        List<Integer> sortChannels = ImmutableList.of(1, 0);
+        List<SortOrder> sortOrders = ImmutableList.of(ASC_NULLS_FIRST, DESC_NULLS_LAST);
+        Page page = new Page(createLongsBlock(1, 2), createStringsBlock("a", "a"));
+
+        GeneratedClassCache firstCache = createCache("1");
+        PageWithPositionComparator firstComparator = new OrderingCompiler(TYPE_OPERATORS, firstCache).compilePageWithPositionComparator(types, sortChannels, sortOrders);
+        assertStats(firstCache, 0, 1);
+
+        GeneratedClassCache secondCache = createCache("1");
+        PageWithPositionComparator secondComparator = new OrderingCompiler(TYPE_OPERATORS, secondCache).compilePageWithPositionComparator(types, sortChannels, sortOrders);
+        assertStats(secondCache, 1, 0);
+        assertEquals(secondComparator.getClass().getName(), firstComparator.getClass().getName());
+        assertTrue(secondComparator.compareTo(page, 0, page, 1) > 0);
+
+        // sort orders are part of the fingerprint
+        PageWithPositionComparator ascendingComparator = new OrderingCompiler(TYPE_OPERATORS, secondCache).compilePageWithPositionComparator(types, sortChannels, ImmutableList.of(ASC_NULLS_FIRST, ASC_NULLS_FIRST));
+        assertStats(secondCache, 1, 1);
+        assertTrue(ascendingComparator.compareTo(page, 0, page, 1) < 0);
+    }
+
+    @Test
+    public void testAccumulatorCache()
+    {
+        GeneratedClassCache firstCache = createCache("1");
+        InternalAggregationFunction firstFunction = countColumn(firstCache);
+        // single and grouped accumulators
+        assertStats(firstCache, 0, 2);
+
+        // state classes are generated again, and must have the names referenced by the cached accumulators
+        GeneratedClassCache secondCache = createCache("1");
+        InternalAggregationFunction secondFunction = countColumn(secondCache);
+        assertStats(secondCache, 2, 0);
+        assertEquals(accumulatorClass(secondFunction).getName(), accumulatorClass(firstFunction).getName());
+        assertNotEquals(accumulatorClass(secondFunction).getClassLoader(), accumulatorClass(firstFunction).getClassLoader());
+        assertAggregation(secondFunction, 2L, createLongsBlock(1L, null, 3L));
+    }
+
+    private GeneratedClassCache createCache(String version)
+    {
+        return new GeneratedClassCache(Optional.of(cacheDirectory), version);
+    }
+
+    private List<Path> listEntries()
+    {
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            return files.collect(toImmutableList());
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static RowExpression add(long value)
+    {
+        return call(METADATA.resolveOperator(ADD, ImmutableList.of(BIGINT, BIGINT)), field(0, BIGINT), constant(value, BIGINT));
+    }
+
+    private static long project(GeneratedClassCache cache, RowExpression expression)
+    {
+        PageProjection projection = new PageFunctionCompiler(METADATA, 0, cache).compileProjection(expression, Optional.empty()).get();
+        BlockBuilder builder = BIGINT.createFixedSizeBlockBuilder(1);
+        BIGINT.writeLong(builder, 5);
+        Work<Block> work = projection.project(SESSION, new DriverYieldSignal(), new Page(builder.build()), SelectedPositions.positionsRange(0, 1));
+        assertTrue(work.process());
+        return BIGINT.getLong(work.getResult(), 0);
+    }
+
+    private static InternalAggregationFunction countColumn(GeneratedClassCache cache)
+    {
+        FunctionBinding functionBinding = new FunctionBinding(
+                COUNT_COLUMN.getFunctionMetadata().getFunctionId(),
+                new BoundSignature("count", BIGINT, ImmutableList.of(BIGINT)),
+                ImmutableMap.of("T", BIGINT),
+                ImmutableMap.of());
+        return COUNT_COLUMN.specialize(functionBinding, new FunctionDependencies(METADATA, ImmutableMap.of(), ImmutableSet.of(), cache));
+    }
+
+    private static Class<?> accumulatorClass(InternalAggregationFunction function)
+    {
+        return function.bind(ImmutableList.of(0), Optional.empty()).createAccumulator().getClass();
+    }
+
+    private static Class<? extends LongSupplier> defineLongSupplier(GeneratedClassCache cache, Function<CallSiteBinder, ClassDefinition> generator)
+    {
+        return cache.defineCachedClass(
+                Optional.of("longSupplier"),
+                LongSupplier.class,
+                TestGeneratedClassCache.class.getClassLoader(),
+                BindingSource.resolver(METADATA, BindingSource.noCompilerBindings()),
+                generator);
+    }
+
+    private static ClassDefinition longSupplierClass(Binding binding)
+    {
+        ClassDefinition classDefinition = new ClassDefinition(
+                a(PUBLIC, FINAL),
+                makeClassName("LongSupplier"),
+                type(Object.class),
+                type(LongSupplier.class));
+        classDefinition.declareDefaultConstructor(a(PUBLIC));
+        classDefinition.declareMethod(a(PUBLIC), "getAsLong", type(long.class))
+                .getBody()
+                .append(invokeDynamic(BOOTSTRAP_METHOD, ImmutableList.of(binding.getBindingId()), "constant", binding.getType()))
+                .retLong();
+        return classDefinition;
+    }
+
+    private static long getAsLong(Class<? extends LongSupplier> clazz)
+    {
+        try {
+            return clazz.getConstructor().newInstance().getAsLong();
+        }
+        catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void assertStats(GeneratedClassCache cache, long hits, long misses)
+    {
+        assertEquals(cache.getHits().getTotalCount(), hits);
+        assertEquals(cache.getMisses().getTotalCount(), misses);
+    }
+}
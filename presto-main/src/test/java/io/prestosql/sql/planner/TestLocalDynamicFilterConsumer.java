@@ -17,7 +17,10 @@ package io.prestosql.sql.planner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.DataSize;
 import io.prestosql.Session;
+import io.prestosql.memory.context.AggregatedMemoryContext;
+import io.prestosql.operator.BlockedBloomFilter;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.sql.analyzer.FeaturesConfig.JoinDistributionType;
@@ -34,15 +37,18 @@ import java.util.function.Consumer;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.prestosql.SystemSessionProperties.ENABLE_DYNAMIC_FILTERING;
 import static io.prestosql.SystemSessionProperties.FORCE_SINGLE_NODE_OUTPUT;
 import static io.prestosql.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
 import static io.prestosql.SystemSessionProperties.JOIN_REORDERING_STRATEGY;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
 import static io.prestosql.sql.planner.LogicalPlanner.Stage.OPTIMIZED_AND_VALIDATED;
 import static io.prestosql.testing.assertions.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestLocalDynamicFilterConsumer
         extends BasePlanTest
@@ -122,6 +128,133 @@ public class TestLocalDynamicFilterConsumer
                 new DynamicFilterId("123"), Domain.multipleValues(INTEGER, ImmutableList.of(10L, 20L))));
     }
 
+    @Test
+    public void testBloomFilters()
+            throws Exception
+    {
+        DynamicFilterId filterId = new DynamicFilterId("123");
+        LocalDynamicFilterConsumer filter = new LocalDynamicFilterConsumer(
+                ImmutableMap.of(filterId, 0),
+                ImmutableMap.of(filterId, BIGINT),
+                2);
+        ListenableFuture<Map<DynamicFilterId, BlockedBloomFilter>> result = filter.getBloomFilters();
+
+        BlockedBloomFilter first = BlockedBloomFilter.create(DataSize.ofBytes(64));
+        first.put(1);
+        BlockedBloomFilter second = BlockedBloomFilter.create(DataSize.ofBytes(64));
+        second.put(2);
+
+        filter.getBloomFilterConsumer().accept(ImmutableMap.of(filterId, first));
+        filter.getTupleDomainConsumer().accept(TupleDomain.all());
+        assertFalse(result.isDone());
+
+        // the predicate is already known, so the bloom filters are complete once all partitions have added them
+        filter.getBloomFilterConsumer().accept(ImmutableMap.of(filterId, second));
+
+        BlockedBloomFilter union = result.get().get(filterId);
+        assertTrue(union.mightContain(1));
+        assertTrue(union.mightContain(2));
+    }
+
+    @Test
+    public void testNoBloomFilterForDiscreteValues()
+            throws Exception
+    {
+        DynamicFilterId filterId = new DynamicFilterId("123");
+        LocalDynamicFilterConsumer filter = new LocalDynamicFilterConsumer(
+                ImmutableMap.of(filterId, 0),
+                ImmutableMap.of(filterId, BIGINT),
+                1);
+        ListenableFuture<Map<DynamicFilterId, BlockedBloomFilter>> result = filter.getBloomFilters();
+
+        filter.getBloomFilterConsumer().accept(ImmutableMap.of(filterId, BlockedBloomFilter.create(DataSize.ofBytes(64))));
+        filter.getTupleDomainConsumer().accept(TupleDomain.withColumnDomains(ImmutableMap.of(filterId, Domain.singleValue(BIGINT, 2L))));
+        assertEquals(result.get(), ImmutableMap.of());
+    }
+
+    @Test
+    public void testNoBloomFilterForMissingPartition()
+            throws Exception
+    {
+        DynamicFilterId filterId = new DynamicFilterId("123");
+        LocalDynamicFilterConsumer filter = new LocalDynamicFilterConsumer(
+                ImmutableMap.of(filterId, 0),
+                ImmutableMap.of(filterId, BIGINT),
+                2);
+        ListenableFuture<Map<DynamicFilterId, BlockedBloomFilter>> result = filter.getBloomFilters();
+
+        filter.getBloomFilterConsumer().accept(ImmutableMap.of(filterId, BlockedBloomFilter.create(DataSize.ofBytes(64))));
+        filter.getTupleDomainConsumer().accept(TupleDomain.all());
+        // the bloom filter is dropped by the second partition
+        filter.getBloomFilterConsumer().accept(ImmutableMap.of());
+        assertEquals(result.get(), ImmutableMap.of());
+    }
+
+    @Test
+    public void testBloomFilterWithExactPartition()
+            throws Exception
+    {
+        DynamicFilterId filterId = new DynamicFilterId("123");
+        LocalDynamicFilterConsumer filter = new LocalDynamicFilterConsumer(
+                ImmutableMap.of(filterId, 0),
+                ImmutableMap.of(filterId, BIGINT),
+                2);
+        ListenableFuture<Map<DynamicFilterId, BlockedBloomFilter>> result = filter.getBloomFilters();
+
+        BlockedBloomFilter large = BlockedBloomFilter.create(DataSize.ofBytes(64));
+        large.put(1);
+        // the hashes of an exact partition are added to the bloom filter of the other partition
+        filter.getBloomFilterConsumer().accept(ImmutableMap.of(filterId, BlockedBloomFilter.ofHashes(new long[] {2})));
+        filter.getBloomFilterConsumer().accept(ImmutableMap.of(filterId, large));
+        filter.getTupleDomainConsumer().accept(TupleDomain.all());
+
+        BlockedBloomFilter union = result.get().get(filterId);
+        assertEquals(union.getMaxEntries(), large.getMaxEntries());
+        assertTrue(union.mightContain(1));
+        assertTrue(union.mightContain(2));
+    }
+
+    @Test
+    public void testBloomFilterMemoryAccounting()
+    {
+        DynamicFilterId filterId = new DynamicFilterId("123");
+        AggregatedMemoryContext memoryContext = newSimpleAggregatedMemoryContext();
+        LocalDynamicFilterConsumer filter = new LocalDynamicFilterConsumer(
+                ImmutableMap.of(filterId, 0),
+                ImmutableMap.of(filterId, BIGINT),
+                2,
+                memoryContext.newLocalMemoryContext("test"));
+
+        BlockedBloomFilter bloomFilter = BlockedBloomFilter.create(DataSize.of(1, KILOBYTE));
+        filter.getBloomFilterConsumer().accept(ImmutableMap.of(filterId, bloomFilter));
+        assertEquals(memoryContext.getBytes(), bloomFilter.getRetainedSizeInBytes());
+
+        // the published filters stay accounted for until the consumer is closed
+        filter.getBloomFilterConsumer().accept(ImmutableMap.of(filterId, BlockedBloomFilter.create(DataSize.of(1, KILOBYTE))));
+        filter.getTupleDomainConsumer().accept(TupleDomain.all());
+        assertEquals(memoryContext.getBytes(), bloomFilter.getRetainedSizeInBytes());
+
+        filter.close();
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
+    @Test
+    public void testReleaseBloomFiltersForDiscreteValues()
+    {
+        DynamicFilterId filterId = new DynamicFilterId("123");
+        AggregatedMemoryContext memoryContext = newSimpleAggregatedMemoryContext();
+        LocalDynamicFilterConsumer filter = new LocalDynamicFilterConsumer(
+                ImmutableMap.of(filterId, 0),
+                ImmutableMap.of(filterId, BIGINT),
+                1,
+                memoryContext.newLocalMemoryContext("test"));
+
+        filter.getBloomFilterConsumer().accept(ImmutableMap.of(filterId, BlockedBloomFilter.ofHashes(new long[] {2})));
+        assertTrue(memoryContext.getBytes() > 0);
+        filter.getTupleDomainConsumer().accept(TupleDomain.withColumnDomains(ImmutableMap.of(filterId, Domain.singleValue(BIGINT, 2L))));
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
     @Test
     public void testAllDomain()
             throws Exception
@@ -228,7 +361,8 @@ public class TestLocalDynamicFilterConsumer
                 joinNode,
                 ImmutableList.copyOf(subplan.getFragment().getSymbols().values()),
                 1,
-                joinNode.getDynamicFilters().keySet());
+                joinNode.getDynamicFilters().keySet(),
+                newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
         DynamicFilterId filterId = getOnlyElement(filter.getBuildChannels().keySet());
 
         filter.getTupleDomainConsumer().accept(TupleDomain.withColumnDomains(ImmutableMap.of(
@@ -255,7 +389,8 @@ public class TestLocalDynamicFilterConsumer
                 joinNode,
                 ImmutableList.copyOf(subplan.getFragment().getSymbols().values()),
                 1,
-                joinNode.getDynamicFilters().keySet());
+                joinNode.getDynamicFilters().keySet(),
+                newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
         DynamicFilterId filterId = getOnlyElement(filter.getBuildChannels().keySet());
         assertFalse(joinNode.getDynamicFilters().isEmpty());
 
@@ -281,7 +416,8 @@ public class TestLocalDynamicFilterConsumer
                 joinNode,
                 ImmutableList.copyOf(subplan.getFragment().getSymbols().values()),
                 1,
-                joinNode.getDynamicFilters().keySet());
+                joinNode.getDynamicFilters().keySet(),
+                newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
         List<DynamicFilterId> filterIds = filter
                 .getBuildChannels()
                 .entrySet()
@@ -316,7 +452,8 @@ public class TestLocalDynamicFilterConsumer
                     joinNode,
                     ImmutableList.copyOf(subplan.getFragment().getSymbols().values()),
                     1,
-                    joinNode.getDynamicFilters().keySet());
+                    joinNode.getDynamicFilters().keySet(),
+                    newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
             DynamicFilterId filterId = getOnlyElement(filter.getBuildChannels().keySet());
 
             filter.getTupleDomainConsumer().accept(TupleDomain.withColumnDomains(ImmutableMap.of(
@@ -343,7 +480,8 @@ public class TestLocalDynamicFilterConsumer
                 joinNode,
                 ImmutableList.copyOf(subplan.getFragment().getSymbols().values()),
                 1,
-                joinNode.getDynamicFilters().keySet());
+                joinNode.getDynamicFilters().keySet(),
+                newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
         DynamicFilterId filterId = getOnlyElement(filter.getBuildChannels().keySet());
 
         filter.getTupleDomainConsumer().accept(TupleDomain.withColumnDomains(ImmutableMap.of(
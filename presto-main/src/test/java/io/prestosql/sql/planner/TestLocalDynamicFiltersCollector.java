@@ -17,8 +17,13 @@ package io.prestosql.sql.planner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
 import io.prestosql.Session;
 import io.prestosql.metadata.Metadata;
+import io.prestosql.operator.BlockedBloomFilter;
+import io.prestosql.operator.DynamicRowFilter;
+import io.prestosql.operator.DynamicRowFilter.PageRowFilter;
+import io.prestosql.spi.Page;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.DynamicFilter;
 import io.prestosql.spi.connector.TestingColumnHandle;
@@ -28,11 +33,15 @@ import io.prestosql.spi.type.TypeOperators;
 import io.prestosql.sql.DynamicFilters;
 import io.prestosql.sql.planner.plan.DynamicFilterId;
 import io.prestosql.sql.tree.Cast;
+import io.prestosql.type.BlockTypeOperators;
 import org.testng.annotations.Test;
 
 import java.util.concurrent.CompletableFuture;
 
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.block.BlockAssertions.createIntsBlock;
+import static io.prestosql.block.BlockAssertions.createLongsBlock;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
@@ -313,4 +322,38 @@ public class TestLocalDynamicFiltersCollector
         assertTrue(isBlocked.isDone());
         assertEquals(filter.getCurrentPredicate(), TupleDomain.withColumnDomains(ImmutableMap.of(registeredColumn, Domain.singleValue(BIGINT, 2L))));
     }
+
+    @Test
+    public void testBloomFilter()
+    {
+        LocalDynamicFiltersCollector collector = new LocalDynamicFiltersCollector(metadata, typeOperators, session);
+        DynamicFilterId filterId = new DynamicFilterId("filter");
+        collector.register(ImmutableSet.of(filterId));
+
+        SymbolAllocator symbolAllocator = new SymbolAllocator();
+        Symbol bigintSymbol = symbolAllocator.newSymbol("bigint", BIGINT);
+        Symbol integerSymbol = symbolAllocator.newSymbol("integer", INTEGER);
+        ColumnHandle bigintColumn = new TestingColumnHandle("bigint");
+        ColumnHandle integerColumn = new TestingColumnHandle("integer");
+        DynamicRowFilter rowFilter = collector.createDynamicRowFilter(
+                ImmutableList.of(
+                        new DynamicFilters.Descriptor(filterId, bigintSymbol.toSymbolReference()),
+                        new DynamicFilters.Descriptor(filterId, integerSymbol.toSymbolReference())),
+                ImmutableMap.of(bigintSymbol, bigintColumn, integerSymbol, integerColumn),
+                symbolAllocator.getTypes());
+        PageRowFilter pageFilter = rowFilter.createPageRowFilter(ImmutableList.of(bigintColumn, integerColumn));
+
+        Page page = new Page(createLongsBlock(1L, 2L, null), createIntsBlock(1, 2, 3));
+        // Bloom filter is not collected yet.
+        assertEquals(pageFilter.filter(page).getPositionCount(), 3);
+
+        BlockedBloomFilter bloomFilter = BlockedBloomFilter.create(DataSize.of(1, KILOBYTE));
+        bloomFilter.put(new BlockTypeOperators(typeOperators).getXxHash64Operator(BIGINT).xxHash64(createLongsBlock(2L), 0));
+        collector.collectBloomFilters(ImmutableMap.of(filterId, bloomFilter), ImmutableMap.of(filterId, BIGINT));
+
+        // Only the column of the build side type is filtered.
+        Page filtered = pageFilter.filter(page);
+        assertEquals(filtered.getPositionCount(), 1);
+        assertEquals(BIGINT.getLong(filtered.getBlock(0), 0), 2L);
+    }
 }
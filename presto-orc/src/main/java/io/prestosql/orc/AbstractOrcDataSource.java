@@ -23,6 +23,7 @@ import io.prestosql.orc.stream.OrcDataReader;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -54,6 +55,22 @@ public abstract class AbstractOrcDataSource
     protected abstract void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
             throws IOException;
 
+    /**
+     * Reads the disk ranges, which do not overlap. The ranges are read one at a time, so data sources
+     * which can read several ranges concurrently should override this method.
+     */
+    protected Map<DiskRange, Slice> readInternal(List<DiskRange> diskRanges)
+            throws IOException
+    {
+        Map<DiskRange, Slice> buffers = new LinkedHashMap<>();
+        for (DiskRange diskRange : diskRanges) {
+            byte[] buffer = new byte[diskRange.getLength()];
+            readInternal(diskRange.getOffset(), buffer, 0, buffer.length);
+            buffers.put(diskRange, Slices.wrappedBuffer(buffer));
+        }
+        return buffers;
+    }
+
     @Override
     public OrcDataSourceId getId()
     {
@@ -111,6 +128,20 @@ public abstract class AbstractOrcDataSource
         readBytes += bufferLength;
     }
 
+    private Map<DiskRange, Slice> readFully(List<DiskRange> diskRanges)
+            throws IOException
+    {
+        long start = System.nanoTime();
+
+        Map<DiskRange, Slice> buffers = readInternal(diskRanges);
+
+        readTimeNanos += System.nanoTime() - start;
+        for (DiskRange diskRange : diskRanges) {
+            readBytes += diskRange.getLength();
+        }
+        return buffers;
+    }
+
     @Override
     public final <K> Map<K, OrcDataReader> readFully(Map<K, DiskRange> diskRanges)
             throws IOException
@@ -155,7 +186,7 @@ public abstract class AbstractOrcDataSource
             return ImmutableMap.of();
         }
 
-        Iterable<DiskRange> mergedRanges = mergeAdjacentDiskRanges(diskRanges.values(), options.getMaxMergeDistance(), options.getMaxBufferSize());
+        List<DiskRange> mergedRanges = mergeAdjacentDiskRanges(diskRanges.values(), options.getMaxMergeDistance(), options.getMaxBufferSize());
 
         ImmutableMap.Builder<K, OrcDataReader> slices = ImmutableMap.builder();
         if (options.isLazyReadSmallRanges()) {
@@ -170,12 +201,8 @@ public abstract class AbstractOrcDataSource
             }
         }
         else {
-            Map<DiskRange, Slice> buffers = new LinkedHashMap<>();
-            for (DiskRange mergedRange : mergedRanges) {
-                // read full range in one request
-                Slice buffer = readFully(mergedRange.getOffset(), mergedRange.getLength());
-                buffers.put(mergedRange, buffer);
-            }
+            // read each full range in one request
+            Map<DiskRange, Slice> buffers = readFully(mergedRanges);
 
             for (Entry<K, DiskRange> entry : diskRanges.entrySet()) {
                 slices.put(entry.getKey(), new MemoryOrcDataReader(id, getDiskRangeSlice(entry.getValue(), buffers), entry.getValue().getLength()));
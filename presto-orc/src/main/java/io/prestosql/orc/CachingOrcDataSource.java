@@ -14,15 +14,19 @@
 package io.prestosql.orc;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import io.prestosql.orc.stream.MemoryOrcDataReader;
 import io.prestosql.orc.stream.OrcDataReader;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
+import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -126,6 +130,26 @@ public class CachingOrcDataSource
         return builder.build();
     }
 
+    @Override
+    public boolean isReadAheadEnabled()
+    {
+        return dataSource.isReadAheadEnabled();
+    }
+
+    @Override
+    public ListenableFuture<?> readAhead(List<DiskRange> diskRanges)
+    {
+        // the ranges are read as part of a region, so the whole region is read ahead
+        long offset = diskRanges.stream()
+                .mapToLong(DiskRange::getOffset)
+                .min()
+                .orElse(-1);
+        if (offset < cachePosition + cacheLength) {
+            return immediateFuture(null);
+        }
+        return dataSource.readAhead(ImmutableList.of(regionFinder.getRangeFor(offset)));
+    }
+
     @Override
     public void close()
             throws IOException
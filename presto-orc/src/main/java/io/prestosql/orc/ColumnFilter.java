@@ -0,0 +1,237 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.Slice;
+import io.prestosql.orc.reader.PositionSelection;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Marker;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.ValueSet;
+import io.prestosql.spi.type.Type;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import javax.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkState;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static io.prestosql.spi.type.TypeUtils.readNativeValue;
+import static io.prestosql.spi.type.VarbinaryType.VARBINARY;
+import static io.prestosql.spi.type.Varchars.isVarcharType;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A filter on the values of a single column, evaluated by the column readers before the
+ * other columns of the row are decoded. Only filters with exact semantics for every value
+ * (integer, date, boolean, varchar and varbinary domains) are supported, so rows rejected by
+ * the filter are guaranteed to be rejected by the engine as well.
+ */
+public final class ColumnFilter
+{
+    private final Type type;
+    private final Domain domain;
+    private final boolean nullAllowed;
+
+    // inclusive bounds of the sorted, non overlapping ranges of an integer domain
+    @Nullable
+    private final long[] lows;
+    @Nullable
+    private final long[] highs;
+
+    @Nullable
+    private final Set<Slice> sliceValues;
+
+    private ColumnFilter(Type type, Domain domain)
+    {
+        this.type = requireNonNull(type, "type is null");
+        this.domain = requireNonNull(domain, "domain is null");
+        this.nullAllowed = domain.isNullAllowed();
+
+        if (isIntegerType(type)) {
+            LongArrayList lows = new LongArrayList();
+            LongArrayList highs = new LongArrayList();
+            domain.getValues().getValuesProcessor().consume(
+                    ranges -> addRanges(ranges.getOrderedRanges(), lows, highs),
+                    discreteValues -> {
+                        throw new IllegalArgumentException("Unexpected discrete values for type " + type);
+                    },
+                    allOrNone -> {
+                        if (allOrNone.isAll()) {
+                            lows.add(Long.MIN_VALUE);
+                            highs.add(Long.MAX_VALUE);
+                        }
+                    });
+            this.lows = lows.toLongArray();
+            this.highs = highs.toLongArray();
+        }
+        else {
+            this.lows = null;
+            this.highs = null;
+        }
+
+        if (type.getJavaType() == Slice.class && domain.getValues().isDiscreteSet()) {
+            this.sliceValues = extractSliceValues(domain.getValues());
+        }
+        else {
+            this.sliceValues = null;
+        }
+    }
+
+    public static Optional<ColumnFilter> createColumnFilter(Type type, Domain domain)
+    {
+        if (domain.isAll() || !isSupportedType(type)) {
+            return Optional.empty();
+        }
+        return Optional.of(new ColumnFilter(type, domain));
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    public Domain getDomain()
+    {
+        return domain;
+    }
+
+    public boolean isNullAllowed()
+    {
+        return nullAllowed;
+    }
+
+    /**
+     * Tests a non-null value of an integer or date column.
+     */
+    public boolean testLong(long value)
+    {
+        checkState(lows != null, "Filter type is not an integer type: %s", type);
+        if (lows.length == 1) {
+            return value >= lows[0] && value <= highs[0];
+        }
+        int index = Arrays.binarySearch(lows, value);
+        if (index >= 0) {
+            return true;
+        }
+        // the last range starting before the value
+        int range = -index - 2;
+        return range >= 0 && value <= highs[range];
+    }
+
+    /**
+     * Tests the value at the specified position of a block of the filter type.
+     */
+    public boolean test(Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return nullAllowed;
+        }
+        if (lows != null) {
+            return testLong(type.getLong(block, position));
+        }
+        if (sliceValues != null) {
+            return sliceValues.contains(type.getSlice(block, position));
+        }
+        return domain.includesNullableValue(readNativeValue(type, block, position));
+    }
+
+    /**
+     * Removes the selected positions of the block that do not match this filter.
+     */
+    public void filter(Block block, PositionSelection selection)
+    {
+        int[] positions = selection.getPositions();
+        int positionCount = selection.getPositionCount();
+        int selectedCount = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (test(block, position)) {
+                positions[selectedCount] = position;
+                selectedCount++;
+            }
+        }
+        selection.setPositionCount(selectedCount);
+    }
+
+    @Override
+    public String toString()
+    {
+        return domain.toString();
+    }
+
+    private static boolean isSupportedType(Type type)
+    {
+        return isIntegerType(type) || type.equals(BOOLEAN) || isVarcharType(type) || type.equals(VARBINARY);
+    }
+
+    private static boolean isIntegerType(Type type)
+    {
+        return type.equals(BIGINT) || type.equals(INTEGER) || type.equals(SMALLINT) || type.equals(TINYINT) || type.equals(DATE);
+    }
+
+    private static void addRanges(List<Range> ranges, LongArrayList lows, LongArrayList highs)
+    {
+        for (Range range : ranges) {
+            long low = Long.MIN_VALUE;
+            Marker lowMarker = range.getLow();
+            if (!lowMarker.isLowerUnbounded()) {
+                low = (long) lowMarker.getValue();
+                if (lowMarker.getBound() == Marker.Bound.ABOVE) {
+                    if (low == Long.MAX_VALUE) {
+                        continue;
+                    }
+                    low++;
+                }
+            }
+
+            long high = Long.MAX_VALUE;
+            Marker highMarker = range.getHigh();
+            if (!highMarker.isUpperUnbounded()) {
+                high = (long) highMarker.getValue();
+                if (highMarker.getBound() == Marker.Bound.BELOW) {
+                    if (high == Long.MIN_VALUE) {
+                        continue;
+                    }
+                    high--;
+                }
+            }
+
+            if (low <= high) {
+                lows.add(low);
+                highs.add(high);
+            }
+        }
+    }
+
+    private static Set<Slice> extractSliceValues(ValueSet valueSet)
+    {
+        ImmutableSet.Builder<Slice> values = ImmutableSet.builder();
+        for (Object value : valueSet.getDiscreteSet()) {
+            values.add((Slice) value);
+        }
+        return values.build();
+    }
+}
@@ -13,13 +13,17 @@
  */
 package io.prestosql.orc;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.slice.Slice;
 import io.prestosql.orc.stream.OrcDataReader;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+
 public interface OrcDataSource
         extends Closeable
 {
@@ -46,6 +50,25 @@ public interface OrcDataSource
     <K> Map<K, OrcDataReader> readFully(Map<K, DiskRange> diskRanges)
             throws IOException;
 
+    /**
+     * Returns true if this data source reads ranges in the background, see {@link #readAhead(List)}.
+     */
+    default boolean isReadAheadEnabled()
+    {
+        return false;
+    }
+
+    /**
+     * Starts reading the specified ranges in the background, so later reads of these
+     * ranges do not block. The returned future is done when the ranges have been read,
+     * or the background read failed, in which case the ranges are read again when needed.
+     * Data sources without background reads return a done future.
+     */
+    default ListenableFuture<?> readAhead(List<DiskRange> diskRanges)
+    {
+        return immediateFuture(null);
+    }
+
     @Override
     default void close()
             throws IOException
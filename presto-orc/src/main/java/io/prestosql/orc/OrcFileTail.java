@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.orc.metadata.CompressionKind;
+import io.prestosql.orc.metadata.Footer;
+import io.prestosql.orc.metadata.Metadata;
+import io.prestosql.orc.metadata.PostScript.HiveWriterVersion;
+
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The parsed post script, footer and metadata sections of an ORC file.
+ */
+public class OrcFileTail
+{
+    private final List<Integer> version;
+    private final HiveWriterVersion hiveWriterVersion;
+    private final int bufferSize;
+    private final CompressionKind compressionKind;
+    private final Footer footer;
+    private final Metadata metadata;
+    private final int tailSize;
+
+    public OrcFileTail(
+            List<Integer> version,
+            HiveWriterVersion hiveWriterVersion,
+            int bufferSize,
+            CompressionKind compressionKind,
+            Footer footer,
+            Metadata metadata,
+            int tailSize)
+    {
+        this.version = ImmutableList.copyOf(requireNonNull(version, "version is null"));
+        this.hiveWriterVersion = requireNonNull(hiveWriterVersion, "hiveWriterVersion is null");
+        this.bufferSize = bufferSize;
+        this.compressionKind = requireNonNull(compressionKind, "compressionKind is null");
+        this.footer = requireNonNull(footer, "footer is null");
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.tailSize = tailSize;
+    }
+
+    public List<Integer> getVersion()
+    {
+        return version;
+    }
+
+    public HiveWriterVersion getHiveWriterVersion()
+    {
+        return hiveWriterVersion;
+    }
+
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    public CompressionKind getCompressionKind()
+    {
+        return compressionKind;
+    }
+
+    public Footer getFooter()
+    {
+        return footer;
+    }
+
+    public Metadata getMetadata()
+    {
+        return metadata;
+    }
+
+    /**
+     * Size of the serialized (possibly compressed) tail in the file.
+     */
+    public int getTailSize()
+    {
+        return tailSize;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("version", version)
+                .add("hiveWriterVersion", hiveWriterVersion)
+                .add("bufferSize", bufferSize)
+                .add("compressionKind", compressionKind)
+                .add("tailSize", tailSize)
+                .toString();
+    }
+}
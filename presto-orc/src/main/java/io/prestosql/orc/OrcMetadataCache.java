@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import io.prestosql.orc.metadata.StripeFooter;
+import io.prestosql.orc.metadata.StripeInformation;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Cache for the metadata parsed from a single ORC file. Implementations are
+ * responsible for making sure the cached metadata belongs to the same version
+ * of the file, e.g. by including the file length and modification time in the key.
+ */
+public interface OrcMetadataCache
+{
+    OrcMetadataCache NO_CACHE = new OrcMetadataCache()
+    {
+        @Override
+        public Optional<OrcFileTail> getFileTail(MetadataLoader<Optional<OrcFileTail>> loader)
+                throws IOException
+        {
+            return loader.load();
+        }
+
+        @Override
+        public StripeFooter getStripeFooter(StripeInformation stripe, MetadataLoader<StripeFooter> loader)
+                throws IOException
+        {
+            return loader.load();
+        }
+    };
+
+    /**
+     * Returns the file tail, or empty if the file is empty.
+     */
+    Optional<OrcFileTail> getFileTail(MetadataLoader<Optional<OrcFileTail>> loader)
+            throws IOException;
+
+    StripeFooter getStripeFooter(StripeInformation stripe, MetadataLoader<StripeFooter> loader)
+            throws IOException;
+
+    interface MetadataLoader<T>
+    {
+        T load()
+                throws IOException;
+    }
+}
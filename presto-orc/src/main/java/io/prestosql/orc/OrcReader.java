@@ -78,6 +78,7 @@ public class OrcReader
     private final OrcDataSource orcDataSource;
     private final ExceptionWrappingMetadataReader metadataReader;
     private final OrcReaderOptions options;
+    private final OrcMetadataCache metadataCache;
     private final HiveWriterVersion hiveWriterVersion;
     private final int bufferSize;
     private final CompressionKind compressionKind;
@@ -91,17 +92,36 @@ public class OrcReader
     public static Optional<OrcReader> createOrcReader(OrcDataSource orcDataSource, OrcReaderOptions options)
             throws IOException
     {
-        return createOrcReader(orcDataSource, options, Optional.empty());
+        return createOrcReader(orcDataSource, options, OrcMetadataCache.NO_CACHE);
+    }
+
+    public static Optional<OrcReader> createOrcReader(OrcDataSource orcDataSource, OrcReaderOptions options, OrcMetadataCache metadataCache)
+            throws IOException
+    {
+        return createOrcReader(orcDataSource, options, metadataCache, Optional.empty());
     }
 
     private static Optional<OrcReader> createOrcReader(
             OrcDataSource orcDataSource,
             OrcReaderOptions options,
+            OrcMetadataCache metadataCache,
             Optional<OrcWriteValidation> writeValidation)
             throws IOException
     {
-        orcDataSource = wrapWithCacheIfTiny(orcDataSource, options.getTinyStripeThreshold());
+        requireNonNull(metadataCache, "metadataCache is null");
+        OrcDataSource dataSource = wrapWithCacheIfTiny(orcDataSource, options.getTinyStripeThreshold());
+        ExceptionWrappingMetadataReader metadataReader = new ExceptionWrappingMetadataReader(dataSource.getId(), new OrcMetadataReader());
 
+        Optional<OrcFileTail> fileTail = metadataCache.getFileTail(() -> readFileTail(dataSource, metadataReader));
+        if (fileTail.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new OrcReader(dataSource, options, metadataCache, metadataReader, writeValidation, fileTail.get()));
+    }
+
+    private static Optional<OrcFileTail> readFileTail(OrcDataSource orcDataSource, ExceptionWrappingMetadataReader metadataReader)
+            throws IOException
+    {
         // read the tail of the file, and check if the file is actually empty
         long estimatedFileSize = orcDataSource.getEstimatedSize();
         if (estimatedFileSize > 0 && estimatedFileSize <= MAGIC.length()) {
@@ -114,22 +134,6 @@ public class OrcReader
             return Optional.empty();
         }
 
-        return Optional.of(new OrcReader(orcDataSource, options, writeValidation, fileTail));
-    }
-
-    private OrcReader(
-            OrcDataSource orcDataSource,
-            OrcReaderOptions options,
-            Optional<OrcWriteValidation> writeValidation,
-            Slice fileTail)
-            throws IOException
-    {
-        this.options = requireNonNull(options, "options is null");
-        this.orcDataSource = orcDataSource;
-        this.metadataReader = new ExceptionWrappingMetadataReader(orcDataSource.getId(), new OrcMetadataReader());
-
-        this.writeValidation = requireNonNull(writeValidation, "writeValidation is null");
-
         //
         // Read the file tail:
         //
@@ -166,16 +170,14 @@ public class OrcReader
 
         // verify this is a supported version
         checkOrcVersion(orcDataSource, postScript.getVersion());
-        validateWrite(validation -> validation.getVersion().equals(postScript.getVersion()), "Unexpected version");
 
-        this.bufferSize = toIntExact(postScript.getCompressionBlockSize());
+        int bufferSize = toIntExact(postScript.getCompressionBlockSize());
 
         // check compression codec is supported
-        this.compressionKind = postScript.getCompression();
-        this.decompressor = createOrcDecompressor(orcDataSource.getId(), compressionKind, bufferSize);
-        validateWrite(validation -> validation.getCompression() == compressionKind, "Unexpected compression");
+        CompressionKind compressionKind = postScript.getCompression();
+        Optional<OrcDecompressor> decompressor = createOrcDecompressor(orcDataSource.getId(), compressionKind, bufferSize);
 
-        this.hiveWriterVersion = postScript.getHiveWriterVersion();
+        HiveWriterVersion hiveWriterVersion = postScript.getHiveWriterVersion();
 
         int footerSize = toIntExact(postScript.getFooterLength());
         int metadataSize = toIntExact(postScript.getMetadataLength());
@@ -193,20 +195,52 @@ public class OrcReader
         }
 
         // read metadata
+        Metadata metadata;
         Slice metadataSlice = completeFooterSlice.slice(0, metadataSize);
         try (InputStream metadataInputStream = new OrcInputStream(OrcChunkLoader.create(orcDataSource.getId(), metadataSlice, decompressor, newSimpleAggregatedMemoryContext()))) {
-            this.metadata = metadataReader.readMetadata(hiveWriterVersion, metadataInputStream);
+            metadata = metadataReader.readMetadata(hiveWriterVersion, metadataInputStream);
         }
 
         // read footer
+        Footer footer;
         Slice footerSlice = completeFooterSlice.slice(metadataSize, footerSize);
         try (InputStream footerInputStream = new OrcInputStream(OrcChunkLoader.create(orcDataSource.getId(), footerSlice, decompressor, newSimpleAggregatedMemoryContext()))) {
-            this.footer = metadataReader.readFooter(hiveWriterVersion, footerInputStream);
+            footer = metadataReader.readFooter(hiveWriterVersion, footerInputStream);
         }
         if (footer.getTypes().size() == 0) {
             throw new OrcCorruptionException(orcDataSource.getId(), "File has no columns");
         }
 
+        return Optional.of(new OrcFileTail(postScript.getVersion(), hiveWriterVersion, bufferSize, compressionKind, footer, metadata, completeFooterSize));
+    }
+
+    private OrcReader(
+            OrcDataSource orcDataSource,
+            OrcReaderOptions options,
+            OrcMetadataCache metadataCache,
+            ExceptionWrappingMetadataReader metadataReader,
+            Optional<OrcWriteValidation> writeValidation,
+            OrcFileTail fileTail)
+            throws IOException
+    {
+        this.options = requireNonNull(options, "options is null");
+        this.metadataCache = requireNonNull(metadataCache, "metadataCache is null");
+        this.orcDataSource = orcDataSource;
+        this.metadataReader = requireNonNull(metadataReader, "metadataReader is null");
+
+        this.writeValidation = requireNonNull(writeValidation, "writeValidation is null");
+
+        validateWrite(validation -> validation.getVersion().equals(fileTail.getVersion()), "Unexpected version");
+
+        this.bufferSize = fileTail.getBufferSize();
+        this.compressionKind = fileTail.getCompressionKind();
+        this.decompressor = createOrcDecompressor(orcDataSource.getId(), compressionKind, bufferSize);
+        validateWrite(validation -> validation.getCompression() == compressionKind, "Unexpected compression");
+
+        this.hiveWriterVersion = fileTail.getHiveWriterVersion();
+        this.metadata = fileTail.getMetadata();
+        this.footer = fileTail.getFooter();
+
         this.rootColumn = createOrcColumn("", "", new OrcColumnId(0), footer.getTypes(), orcDataSource.getId());
 
         validateWrite(validation -> validation.getColumnNames().equals(getColumnNames()), "Unexpected column names");
@@ -307,11 +341,45 @@ public class OrcReader
             int initialBatchSize,
             Function<Exception, RuntimeException> exceptionTransform)
             throws OrcCorruptionException
+    {
+        return createRecordReader(
+                readColumns,
+                readTypes,
+                readLayouts,
+                Collections.nCopies(readColumns.size(), Optional.empty()),
+                predicate,
+                offset,
+                length,
+                legacyFileTimeZone,
+                systemMemoryUsage,
+                initialBatchSize,
+                exceptionTransform);
+    }
+
+    /**
+     * Creates a record reader that only returns the rows matching all the column filters.
+     * The positions of the returned pages no longer correspond to the file positions of
+     * the reader, so the filters must not be used when row positions are needed.
+     */
+    public OrcRecordReader createRecordReader(
+            List<OrcColumn> readColumns,
+            List<Type> readTypes,
+            List<ProjectedLayout> readLayouts,
+            List<Optional<ColumnFilter>> readFilters,
+            OrcPredicate predicate,
+            long offset,
+            long length,
+            DateTimeZone legacyFileTimeZone,
+            AggregatedMemoryContext systemMemoryUsage,
+            int initialBatchSize,
+            Function<Exception, RuntimeException> exceptionTransform)
+            throws OrcCorruptionException
     {
         return new OrcRecordReader(
                 requireNonNull(readColumns, "readColumns is null"),
                 requireNonNull(readTypes, "readTypes is null"),
                 requireNonNull(readLayouts, "readLayouts is null"),
+                requireNonNull(readFilters, "readFilters is null"),
                 requireNonNull(predicate, "predicate is null"),
                 footer.getNumberOfRows(),
                 footer.getStripes(),
@@ -326,6 +394,7 @@ public class OrcReader
                 requireNonNull(legacyFileTimeZone, "legacyFileTimeZone is null"),
                 hiveWriterVersion,
                 metadataReader,
+                metadataCache,
                 options,
                 footer.getUserMetadata(),
                 systemMemoryUsage,
@@ -429,7 +498,7 @@ public class OrcReader
             throws OrcCorruptionException
     {
         try {
-            OrcReader orcReader = createOrcReader(input, new OrcReaderOptions(), Optional.of(writeValidation))
+            OrcReader orcReader = createOrcReader(input, new OrcReaderOptions(), OrcMetadataCache.NO_CACHE, Optional.of(writeValidation))
                     .orElseThrow(() -> new OrcCorruptionException(input.getId(), "File is empty"));
             try (OrcRecordReader orcRecordReader = orcReader.createRecordReader(
                     orcReader.getRootColumn().getNestedColumns(),
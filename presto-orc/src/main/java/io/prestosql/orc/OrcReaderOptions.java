@@ -28,6 +28,7 @@ public class OrcReaderOptions
     private static final DataSize DEFAULT_MAX_BLOCK_SIZE = DataSize.of(16, MEGABYTE);
     private static final boolean DEFAULT_LAZY_READ_SMALL_RANGES = true;
     private static final boolean DEFAULT_NESTED_LAZY = true;
+    private static final boolean DEFAULT_FILTER_PUSHDOWN_ENABLED = true;
 
     private final boolean bloomFiltersEnabled;
 
@@ -38,6 +39,7 @@ public class OrcReaderOptions
     private final DataSize maxBlockSize;
     private final boolean lazyReadSmallRanges;
     private final boolean nestedLazy;
+    private final boolean filterPushdownEnabled;
 
     public OrcReaderOptions()
     {
@@ -49,6 +51,7 @@ public class OrcReaderOptions
         maxBlockSize = DEFAULT_MAX_BLOCK_SIZE;
         lazyReadSmallRanges = DEFAULT_LAZY_READ_SMALL_RANGES;
         nestedLazy = DEFAULT_NESTED_LAZY;
+        filterPushdownEnabled = DEFAULT_FILTER_PUSHDOWN_ENABLED;
     }
 
     private OrcReaderOptions(
@@ -59,7 +62,8 @@ public class OrcReaderOptions
             DataSize streamBufferSize,
             DataSize maxBlockSize,
             boolean lazyReadSmallRanges,
-            boolean nestedLazy)
+            boolean nestedLazy,
+            boolean filterPushdownEnabled)
     {
         this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
         this.maxBufferSize = requireNonNull(maxBufferSize, "maxBufferSize is null");
@@ -69,6 +73,7 @@ public class OrcReaderOptions
         this.lazyReadSmallRanges = requireNonNull(lazyReadSmallRanges, "lazyReadSmallRanges is null");
         this.bloomFiltersEnabled = bloomFiltersEnabled;
         this.nestedLazy = nestedLazy;
+        this.filterPushdownEnabled = filterPushdownEnabled;
     }
 
     public boolean isBloomFiltersEnabled()
@@ -111,6 +116,11 @@ public class OrcReaderOptions
         return nestedLazy;
     }
 
+    public boolean isFilterPushdownEnabled()
+    {
+        return filterPushdownEnabled;
+    }
+
     public OrcReaderOptions withBloomFiltersEnabled(boolean bloomFiltersEnabled)
     {
         return new OrcReaderOptions(
@@ -121,7 +131,8 @@ public class OrcReaderOptions
                 streamBufferSize,
                 maxBlockSize,
                 lazyReadSmallRanges,
-                nestedLazy);
+                nestedLazy,
+                filterPushdownEnabled);
     }
 
     public OrcReaderOptions withMaxMergeDistance(DataSize maxMergeDistance)
@@ -134,7 +145,8 @@ public class OrcReaderOptions
                 streamBufferSize,
                 maxBlockSize,
                 lazyReadSmallRanges,
-                nestedLazy);
+                nestedLazy,
+                filterPushdownEnabled);
     }
 
     public OrcReaderOptions withMaxBufferSize(DataSize maxBufferSize)
@@ -147,7 +159,8 @@ public class OrcReaderOptions
                 streamBufferSize,
                 maxBlockSize,
                 lazyReadSmallRanges,
-                nestedLazy);
+                nestedLazy,
+                filterPushdownEnabled);
     }
 
     public OrcReaderOptions withTinyStripeThreshold(DataSize tinyStripeThreshold)
@@ -160,7 +173,8 @@ public class OrcReaderOptions
                 streamBufferSize,
                 maxBlockSize,
                 lazyReadSmallRanges,
-                nestedLazy);
+                nestedLazy,
+                filterPushdownEnabled);
     }
 
     public OrcReaderOptions withStreamBufferSize(DataSize streamBufferSize)
@@ -173,7 +187,8 @@ public class OrcReaderOptions
                 streamBufferSize,
                 maxBlockSize,
                 lazyReadSmallRanges,
-                nestedLazy);
+                nestedLazy,
+                filterPushdownEnabled);
     }
 
     public OrcReaderOptions withMaxReadBlockSize(DataSize maxBlockSize)
@@ -186,7 +201,8 @@ public class OrcReaderOptions
                 streamBufferSize,
                 maxBlockSize,
                 lazyReadSmallRanges,
-                nestedLazy);
+                nestedLazy,
+                filterPushdownEnabled);
     }
 
     // TODO remove config option once efficacy is proven
@@ -201,7 +217,8 @@ public class OrcReaderOptions
                 streamBufferSize,
                 maxBlockSize,
                 lazyReadSmallRanges,
-                nestedLazy);
+                nestedLazy,
+                filterPushdownEnabled);
     }
 
     // TODO remove config option once efficacy is proven
@@ -216,6 +233,21 @@ public class OrcReaderOptions
                 streamBufferSize,
                 maxBlockSize,
                 lazyReadSmallRanges,
-                nestedLazy);
+                nestedLazy,
+                filterPushdownEnabled);
+    }
+
+    public OrcReaderOptions withFilterPushdownEnabled(boolean filterPushdownEnabled)
+    {
+        return new OrcReaderOptions(
+                bloomFiltersEnabled,
+                maxMergeDistance,
+                maxBufferSize,
+                tinyStripeThreshold,
+                streamBufferSize,
+                maxBlockSize,
+                lazyReadSmallRanges,
+                nestedLazy,
+                filterPushdownEnabled);
     }
 }
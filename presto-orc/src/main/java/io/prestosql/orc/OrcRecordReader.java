@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.io.Closer;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
@@ -36,6 +37,7 @@ import io.prestosql.orc.metadata.StripeInformation;
 import io.prestosql.orc.metadata.statistics.ColumnStatistics;
 import io.prestosql.orc.metadata.statistics.StripeStatistics;
 import io.prestosql.orc.reader.ColumnReader;
+import io.prestosql.orc.reader.PositionSelection;
 import io.prestosql.orc.stream.InputStreamSources;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
@@ -56,8 +58,10 @@ import java.util.OptionalInt;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.prestosql.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
 import static io.prestosql.orc.OrcReader.BATCH_SIZE_GROWTH_FACTOR;
 import static io.prestosql.orc.OrcReader.MAX_BATCH_SIZE;
@@ -75,10 +79,16 @@ public class OrcRecordReader
         implements Closeable
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(OrcRecordReader.class).instanceSize();
+    // bounds the rows a single call to nextPage decodes for batches without matching rows,
+    // so the caller can yield and notice cancellation while the filters reject everything
+    private static final int MAX_FILTERED_ROWS_PER_PAGE = 16 * MAX_BATCH_SIZE;
 
     private final OrcDataSource orcDataSource;
 
     private final ColumnReader[] columnReaders;
+    private final ColumnFilter[] columnFilters;
+    private final int[] filterColumns;
+    private final Block[] emptyBlocks;
     private final long[] currentBytesPerCell;
     private final long[] maxBytesPerCell;
     private long maxCombinedBytesPerRow;
@@ -96,6 +106,13 @@ public class OrcRecordReader
     private final StripeReader stripeReader;
     private int currentStripe = -1;
     private AggregatedMemoryContext currentStripeSystemMemoryContext;
+    // stripe whose streams are read ahead by the data source
+    private int readAheadStripe = -1;
+    // done when the footer of the read ahead stripe, which lists its streams, has been read
+    private ListenableFuture<?> readAheadFooterFuture = immediateFuture(null);
+    // done when the streams of the read ahead stripe have been read, once the footer is available
+    private ListenableFuture<?> readAheadFuture = immediateFuture(null);
+    private boolean readAheadStreamsStarted;
 
     private final long fileRowCount;
     private final List<Long> stripeFilePositions;
@@ -123,6 +140,7 @@ public class OrcRecordReader
             List<OrcColumn> readColumns,
             List<Type> readTypes,
             List<OrcReader.ProjectedLayout> readLayouts,
+            List<Optional<ColumnFilter>> readFilters,
             OrcPredicate predicate,
             long numberOfRows,
             List<StripeInformation> fileStripes,
@@ -137,6 +155,7 @@ public class OrcRecordReader
             DateTimeZone legacyFileTimeZone,
             HiveWriterVersion hiveWriterVersion,
             MetadataReader metadataReader,
+            OrcMetadataCache metadataCache,
             OrcReaderOptions options,
             Map<String, Slice> userMetadata,
             AggregatedMemoryContext systemMemoryUsage,
@@ -151,6 +170,8 @@ public class OrcRecordReader
         checkArgument(readColumns.size() == readTypes.size(), "readColumns and readTypes must have the same size");
         requireNonNull(readLayouts, "readLayouts is null");
         checkArgument(readColumns.size() == readLayouts.size(), "readColumns and readLayouts must have the same size");
+        requireNonNull(readFilters, "readFilters is null");
+        checkArgument(readColumns.size() == readFilters.size(), "readColumns and readFilters must have the same size");
         requireNonNull(predicate, "predicate is null");
         requireNonNull(fileStripes, "fileStripes is null");
         requireNonNull(stripeStats, "stripeStats is null");
@@ -236,9 +257,23 @@ public class OrcRecordReader
                 predicate,
                 hiveWriterVersion,
                 metadataReader,
+                metadataCache,
                 writeValidation);
 
         columnReaders = createColumnReaders(readColumns, readTypes, readLayouts, streamReadersSystemMemoryContext, blockFactory);
+        columnFilters = new ColumnFilter[columnReaders.length];
+        // the write validation checksum covers every row, so rows are not filtered while validating
+        if (options.isFilterPushdownEnabled() && writeValidation.isEmpty()) {
+            for (int i = 0; i < columnFilters.length; i++) {
+                columnFilters[i] = readFilters.get(i).orElse(null);
+            }
+        }
+        filterColumns = IntStream.range(0, columnFilters.length)
+                .filter(columnIndex -> columnFilters[columnIndex] != null)
+                .toArray();
+        emptyBlocks = readTypes.stream()
+                .map(type -> type.createBlockBuilder(null, 0).build())
+                .toArray(Block[]::new);
         currentBytesPerCell = new long[columnReaders.length];
         maxBytesPerCell = new long[columnReaders.length];
         nextBatchSize = initialBatchSize;
@@ -358,60 +393,117 @@ public class OrcRecordReader
         }
     }
 
+    /**
+     * Returns the next page, or null when all rows have been read. When the reader has column
+     * filters, the page only contains the rows of the batch that match all filters, and batches
+     * without matching rows are skipped.
+     */
     public Page nextPage()
             throws IOException
     {
-        // update position for current row group (advancing resets them)
-        filePosition += currentBatchSize;
-        currentPosition += currentBatchSize;
-        currentBatchSize = 0;
-
-        // if next row is within the current group return
-        if (nextRowInGroup >= currentGroupRowCount) {
-            // attempt to advance to next row group
-            if (!advanceToNextRowGroup()) {
-                filePosition = fileRowCount;
-                currentPosition = totalRowCount;
-                return null;
+        long filteredRows = 0;
+        while (true) {
+            // update position for current row group (advancing resets them)
+            filePosition += currentBatchSize;
+            currentPosition += currentBatchSize;
+            currentBatchSize = 0;
+
+            // if next row is within the current group return
+            if (nextRowInGroup >= currentGroupRowCount) {
+                // attempt to advance to next row group
+                if (!advanceToNextRowGroup()) {
+                    filePosition = fileRowCount;
+                    currentPosition = totalRowCount;
+                    return null;
+                }
             }
-        }
 
-        // We will grow currentBatchSize by BATCH_SIZE_GROWTH_FACTOR starting from initialBatchSize to maxBatchSize or
-        // the number of rows left in this rowgroup, whichever is smaller. maxBatchSize is adjusted according to the
-        // block size for every batch and never exceed MAX_BATCH_SIZE. But when the number of rows in the last batch in
-        // the current rowgroup is smaller than min(nextBatchSize, maxBatchSize), the nextBatchSize for next batch in
-        // the new rowgroup should be grown based on min(nextBatchSize, maxBatchSize) but not by the number of rows in
-        // the last batch, i.e. currentGroupRowCount - nextRowInGroup. For example, if the number of rows read for
-        // single fixed width column are: 1, 16, 256, 1024, 1024,..., 1024, 256 and the 256 was because there is only
-        // 256 rows left in this row group, then the nextBatchSize should be 1024 instead of 512. So we need to grow the
-        // nextBatchSize before limiting the currentBatchSize by currentGroupRowCount - nextRowInGroup.
-        currentBatchSize = min(nextBatchSize, maxBatchSize);
-        nextBatchSize = min(currentBatchSize * BATCH_SIZE_GROWTH_FACTOR, MAX_BATCH_SIZE);
-        currentBatchSize = toIntExact(min(currentBatchSize, currentGroupRowCount - nextRowInGroup));
+            // We will grow currentBatchSize by BATCH_SIZE_GROWTH_FACTOR starting from initialBatchSize to maxBatchSize or
+            // the number of rows left in this rowgroup, whichever is smaller. maxBatchSize is adjusted according to the
+            // block size for every batch and never exceed MAX_BATCH_SIZE. But when the number of rows in the last batch in
+            // the current rowgroup is smaller than min(nextBatchSize, maxBatchSize), the nextBatchSize for next batch in
+            // the new rowgroup should be grown based on min(nextBatchSize, maxBatchSize) but not by the number of rows in
+            // the last batch, i.e. currentGroupRowCount - nextRowInGroup. For example, if the number of rows read for
+            // single fixed width column are: 1, 16, 256, 1024, 1024,..., 1024, 256 and the 256 was because there is only
+            // 256 rows left in this row group, then the nextBatchSize should be 1024 instead of 512. So we need to grow the
+            // nextBatchSize before limiting the currentBatchSize by currentGroupRowCount - nextRowInGroup.
+            currentBatchSize = min(nextBatchSize, maxBatchSize);
+            nextBatchSize = min(currentBatchSize * BATCH_SIZE_GROWTH_FACTOR, MAX_BATCH_SIZE);
+            currentBatchSize = toIntExact(min(currentBatchSize, currentGroupRowCount - nextRowInGroup));
 
-        for (ColumnReader column : columnReaders) {
-            if (column != null) {
-                column.prepareNextRead(currentBatchSize);
+            for (ColumnReader column : columnReaders) {
+                if (column != null) {
+                    column.prepareNextRead(currentBatchSize);
+                }
+            }
+            nextRowInGroup += currentBatchSize;
+
+            blockFactory.nextPage();
+            Arrays.fill(currentBytesPerCell, 0);
+
+            if (filterColumns.length == 0) {
+                // create a lazy page
+                Block[] blocks = new Block[columnReaders.length];
+                for (int i = 0; i < columnReaders.length; i++) {
+                    int columnIndex = i;
+                    blocks[columnIndex] = blockFactory.createBlock(
+                            currentBatchSize,
+                            columnReaders[columnIndex]::readBlock,
+                            false);
+                    listenForLoads(blocks[columnIndex], block -> blockLoaded(columnIndex, block));
+                }
+
+                Page page = new Page(currentBatchSize, blocks);
+                validateWritePageChecksum(page);
+                return page;
+            }
+
+            Page page = readFilteredPage();
+            if (page.getPositionCount() > 0) {
+                return page;
+            }
+            filteredRows += currentBatchSize;
+            if (filteredRows >= MAX_FILTERED_ROWS_PER_PAGE) {
+                return page;
             }
         }
-        nextRowInGroup += currentBatchSize;
+    }
 
-        // create a lazy page
-        blockFactory.nextPage();
-        Arrays.fill(currentBytesPerCell, 0);
+    /**
+     * Decodes the filter columns first, and creates lazy blocks for the other columns that
+     * only decode the positions matching all filters. Filter columns that are not read because
+     * an earlier filter rejected every position are skipped with the next batch.
+     */
+    private Page readFilteredPage()
+            throws IOException
+    {
+        PositionSelection selection = new PositionSelection(currentBatchSize);
         Block[] blocks = new Block[columnReaders.length];
+        for (int columnIndex : filterColumns) {
+            Block block = columnReaders[columnIndex].readBlock(columnFilters[columnIndex], selection);
+            blockLoaded(columnIndex, block);
+            blocks[columnIndex] = block;
+            if (selection.isEmpty()) {
+                return new Page(0, emptyBlocks.clone());
+            }
+        }
+
+        int positionCount = selection.getPositionCount();
         for (int i = 0; i < columnReaders.length; i++) {
             int columnIndex = i;
+            if (blocks[columnIndex] != null) {
+                if (!selection.isAllSelected()) {
+                    blocks[columnIndex] = blocks[columnIndex].getPositions(selection.getPositions(), 0, positionCount);
+                }
+                continue;
+            }
             blocks[columnIndex] = blockFactory.createBlock(
-                    currentBatchSize,
-                    columnReaders[columnIndex]::readBlock,
+                    positionCount,
+                    () -> columnReaders[columnIndex].readBlock(selection),
                     false);
             listenForLoads(blocks[columnIndex], block -> blockLoaded(columnIndex, block));
         }
-
-        Page page = new Page(currentBatchSize, blocks);
-        validateWritePageChecksum(page);
-        return page;
+        return new Page(positionCount, blocks);
     }
 
     private void blockLoaded(int columnIndex, Block block)
@@ -420,7 +512,7 @@ public class OrcRecordReader
             return;
         }
 
-        currentBytesPerCell[columnIndex] += block.getSizeInBytes() / currentBatchSize;
+        currentBytesPerCell[columnIndex] += block.getSizeInBytes() / block.getPositionCount();
         if (maxBytesPerCell[columnIndex] < currentBytesPerCell[columnIndex]) {
             long delta = currentBytesPerCell[columnIndex] - maxBytesPerCell[columnIndex];
             maxCombinedBytesPerRow += delta;
@@ -429,6 +521,84 @@ public class OrcRecordReader
         }
     }
 
+    /**
+     * Returns a future that is done when the next page can be read without waiting for the data
+     * source. When the data source supports read ahead, the streams of a stripe are read in the
+     * background while the previous stripe is read, so only the first page of a stripe can block.
+     * The footer listing the streams of a stripe is read in the background too, and the streams are
+     * read ahead only once it is available, so this method never waits for the data source.
+     */
+    public ListenableFuture<?> isBlocked()
+            throws IOException
+    {
+        if (readAheadStripe < 0) {
+            readAhead(0, readAheadStripeFooter(0));
+        }
+        readAheadStreams();
+        // the next page is read from the current stripe
+        if (nextRowInGroup < currentGroupRowCount || rowGroups.hasNext()) {
+            return immediateFuture(null);
+        }
+        if (!readAheadStreamsStarted) {
+            return readAheadFooterFuture;
+        }
+        return readAheadFuture;
+    }
+
+    private void readAhead(int stripeIndex, ListenableFuture<?> footerFuture)
+            throws IOException
+    {
+        readAheadStripe = stripeIndex;
+        readAheadFooterFuture = footerFuture;
+        readAheadFuture = immediateFuture(null);
+        readAheadStreamsStarted = false;
+        readAheadStreams();
+    }
+
+    private ListenableFuture<?> readAheadStripeFooter(int stripeIndex)
+    {
+        if (!orcDataSource.isReadAheadEnabled() || stripeIndex >= stripes.size()) {
+            return immediateFuture(null);
+        }
+        return orcDataSource.readAhead(ImmutableList.of(getStripeFooterRange(stripes.get(stripeIndex))));
+    }
+
+    /**
+     * Starts reading the streams of the read ahead stripe once its footer has been read in the
+     * background, so listing the streams does not block on the data source.
+     */
+    private void readAheadStreams()
+            throws IOException
+    {
+        if (readAheadStreamsStarted || !readAheadFooterFuture.isDone()) {
+            return;
+        }
+        readAheadStreamsStarted = true;
+        if (!orcDataSource.isReadAheadEnabled() || readAheadStripe >= stripes.size()) {
+            return;
+        }
+
+        ImmutableList.Builder<DiskRange> diskRanges = ImmutableList.builder();
+        AggregatedMemoryContext stripeFooterMemoryContext = systemMemoryUsage.newAggregatedMemoryContext();
+        try {
+            diskRanges.addAll(stripeReader.getStripeDiskRanges(stripes.get(readAheadStripe), stripeFooterMemoryContext));
+        }
+        finally {
+            stripeFooterMemoryContext.close();
+        }
+
+        // the footer of the following stripe is read ahead with the streams, so the streams of that stripe can be listed without waiting
+        if (readAheadStripe + 1 < stripes.size()) {
+            diskRanges.add(getStripeFooterRange(stripes.get(readAheadStripe + 1)));
+        }
+        readAheadFuture = orcDataSource.readAhead(diskRanges.build());
+    }
+
+    private static DiskRange getStripeFooterRange(StripeInformation stripe)
+    {
+        return new DiskRange(stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength(), toIntExact(stripe.getFooterLength()));
+    }
+
     public Map<String, Slice> getUserMetadata()
     {
         return ImmutableMap.copyOf(Maps.transformValues(userMetadata, Slices::copyOf));
@@ -507,6 +677,13 @@ public class OrcRecordReader
         validateWriteStripe(stripeInformation.getNumberOfRows());
 
         Stripe stripe = stripeReader.readStripe(stripeInformation, currentStripeSystemMemoryContext);
+        if (readAheadStripe == currentStripe && readAheadStreamsStarted) {
+            // the footer of the next stripe was read ahead with the streams of this stripe
+            readAhead(currentStripe + 1, readAheadFuture);
+        }
+        else {
+            readAhead(currentStripe + 1, readAheadStripeFooter(currentStripe + 1));
+        }
         if (stripe != null) {
             // Give readers access to dictionary streams
             InputStreamSources dictionaryStreamSources = stripe.getDictionaryStreamSources();
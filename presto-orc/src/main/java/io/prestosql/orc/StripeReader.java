@@ -87,6 +87,7 @@ public class StripeReader
     private final OptionalInt rowsInRowGroup;
     private final OrcPredicate predicate;
     private final MetadataReader metadataReader;
+    private final OrcMetadataCache metadataCache;
     private final Optional<OrcWriteValidation> writeValidation;
 
     public StripeReader(
@@ -99,6 +100,7 @@ public class StripeReader
             OrcPredicate predicate,
             HiveWriterVersion hiveWriterVersion,
             MetadataReader metadataReader,
+            OrcMetadataCache metadataCache,
             Optional<OrcWriteValidation> writeValidation)
     {
         this.orcDataSource = requireNonNull(orcDataSource, "orcDataSource is null");
@@ -110,6 +112,7 @@ public class StripeReader
         this.predicate = requireNonNull(predicate, "predicate is null");
         this.hiveWriterVersion = requireNonNull(hiveWriterVersion, "hiveWriterVersion is null");
         this.metadataReader = requireNonNull(metadataReader, "metadataReader is null");
+        this.metadataCache = requireNonNull(metadataCache, "metadataCache is null");
         this.writeValidation = requireNonNull(writeValidation, "writeValidation is null");
     }
 
@@ -234,6 +237,24 @@ public class StripeReader
         return new Stripe(stripe.getNumberOfRows(), fileTimeZone, columnEncodings, ImmutableList.of(rowGroup), dictionaryStreamSources);
     }
 
+    /**
+     * Returns the file ranges of the streams read for the stripe, without reading the streams.
+     */
+    public List<DiskRange> getStripeDiskRanges(StripeInformation stripe, AggregatedMemoryContext systemMemoryUsage)
+            throws IOException
+    {
+        StripeFooter stripeFooter = readStripeFooter(stripe, systemMemoryUsage);
+        ImmutableList.Builder<DiskRange> diskRanges = ImmutableList.builder();
+        long offset = stripe.getOffset();
+        for (Stream stream : stripeFooter.getStreams()) {
+            if (stream.getLength() > 0 && includedOrcColumnIds.contains(stream.getColumnId()) && isSupportedStreamType(stream, types.get(stream.getColumnId()).getOrcTypeKind())) {
+                diskRanges.add(new DiskRange(offset, stream.getLength()));
+            }
+            offset += stream.getLength();
+        }
+        return diskRanges.build();
+    }
+
     private static boolean isSupportedStreamType(Stream stream, OrcTypeKind orcTypeKind)
     {
         if (stream.getStreamKind() == BLOOM_FILTER) {
@@ -383,6 +404,12 @@ public class StripeReader
 
     private StripeFooter readStripeFooter(StripeInformation stripe, AggregatedMemoryContext systemMemoryUsage)
             throws IOException
+    {
+        return metadataCache.getStripeFooter(stripe, () -> loadStripeFooter(stripe, systemMemoryUsage));
+    }
+
+    private StripeFooter loadStripeFooter(StripeInformation stripe, AggregatedMemoryContext systemMemoryUsage)
+            throws IOException
     {
         long offset = stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength();
         int tailLength = toIntExact(stripe.getFooterLength());
@@ -13,6 +13,7 @@
  */
 package io.prestosql.orc.reader;
 
+import io.prestosql.orc.ColumnFilter;
 import io.prestosql.orc.metadata.ColumnEncoding;
 import io.prestosql.orc.metadata.ColumnMetadata;
 import io.prestosql.orc.stream.InputStreamSources;
@@ -26,6 +27,31 @@ public interface ColumnReader
     Block readBlock()
             throws IOException;
 
+    /**
+     * Reads all positions of the next batch, and removes the positions that do not
+     * match the filter from the selection.
+     */
+    default Block readBlock(ColumnFilter filter, PositionSelection selection)
+            throws IOException
+    {
+        Block block = readBlock();
+        filter.filter(block, selection);
+        return block;
+    }
+
+    /**
+     * Reads only the selected positions of the next batch.
+     */
+    default Block readBlock(PositionSelection selection)
+            throws IOException
+    {
+        Block block = readBlock();
+        if (selection.isAllSelected()) {
+            return block;
+        }
+        return block.getPositions(selection.getPositions(), 0, selection.getPositionCount());
+    }
+
     void prepareNextRead(int batchSize);
 
     void startStripe(ZoneId fileTimeZone, InputStreamSources dictionaryStreamSources, ColumnMetadata<ColumnEncoding> encoding)
@@ -75,7 +75,7 @@ public class LongColumnReader
 
     private boolean rowGroupOpen;
 
-    // only one of the three arrays will be used
+    // only one of the three arrays will be used, except that selective reads always use the long array
     private short[] shortNonNullValueTemp = new short[0];
     private int[] intNonNullValueTemp = new int[0];
     private long[] longNonNullValueTemp = new long[0];
@@ -104,23 +104,7 @@ public class LongColumnReader
     public Block readBlock()
             throws IOException
     {
-        if (!rowGroupOpen) {
-            openRowGroup();
-        }
-
-        if (readOffset > 0) {
-            if (presentStream != null) {
-                // skip ahead the present bit reader, but count the set bits
-                // and use this as the skip size for the data reader
-                readOffset = presentStream.countBitsSet(readOffset);
-            }
-            if (readOffset > 0) {
-                if (dataStream == null) {
-                    throw new OrcCorruptionException(column.getOrcDataSourceId(), "Value is not null but data stream is missing");
-                }
-                dataStream.skip(readOffset);
-            }
-        }
+        skipToReadOffset();
 
         Block block;
         if (dataStream == null) {
@@ -153,6 +137,143 @@ public class LongColumnReader
         return block;
     }
 
+    @Override
+    public Block readBlock(PositionSelection selection)
+            throws IOException
+    {
+        if (selection.isAllSelected()) {
+            return readBlock();
+        }
+
+        skipToReadOffset();
+
+        int positionCount = selection.getPositionCount();
+        Block block;
+        if (dataStream == null) {
+            if (presentStream == null) {
+                throw new OrcCorruptionException(column.getOrcDataSourceId(), "Value is null but present stream is missing");
+            }
+            presentStream.skip(nextBatchSize);
+            block = RunLengthEncodedBlock.create(type, null, positionCount);
+        }
+        else if (presentStream == null) {
+            block = readSelectedBlock(selection, null, nextBatchSize);
+        }
+        else {
+            boolean[] isNull = new boolean[nextBatchSize];
+            int nullCount = presentStream.getUnsetBits(nextBatchSize, isNull);
+            if (nullCount == 0) {
+                block = readSelectedBlock(selection, null, nextBatchSize);
+            }
+            else if (nullCount != nextBatchSize) {
+                block = readSelectedBlock(selection, isNull, nextBatchSize - nullCount);
+            }
+            else {
+                block = RunLengthEncodedBlock.create(type, null, positionCount);
+            }
+        }
+
+        readOffset = 0;
+        nextBatchSize = 0;
+
+        return block;
+    }
+
+    private void skipToReadOffset()
+            throws IOException
+    {
+        if (!rowGroupOpen) {
+            openRowGroup();
+        }
+
+        if (readOffset > 0) {
+            if (presentStream != null) {
+                // skip ahead the present bit reader, but count the set bits
+                // and use this as the skip size for the data reader
+                readOffset = presentStream.countBitsSet(readOffset);
+            }
+            if (readOffset > 0) {
+                if (dataStream == null) {
+                    throw new OrcCorruptionException(column.getOrcDataSourceId(), "Value is not null but data stream is missing");
+                }
+                dataStream.skip(readOffset);
+            }
+        }
+    }
+
+    /**
+     * Decodes all values of the batch into the temporary buffer, and only copies the
+     * selected positions into the result block.
+     */
+    private Block readSelectedBlock(PositionSelection selection, @Nullable boolean[] isNull, int nonNullCount)
+            throws IOException
+    {
+        verifyNotNull(dataStream);
+        int minNonNullValueSize = minNonNullValueSize(nonNullCount);
+        if (longNonNullValueTemp.length < minNonNullValueSize) {
+            longNonNullValueTemp = new long[minNonNullValueSize];
+            updateSystemMemoryUsage();
+        }
+
+        dataStream.next(longNonNullValueTemp, nonNullCount);
+
+        int[] positions = selection.getPositions();
+        int positionCount = selection.getPositionCount();
+        long[] values = new long[positionCount];
+        if (isNull == null) {
+            for (int i = 0; i < positionCount; i++) {
+                values[i] = longNonNullValueTemp[positions[i]];
+            }
+            return createSelectedBlock(positionCount, Optional.empty(), values);
+        }
+
+        boolean[] selectedIsNull = new boolean[positionCount];
+        int position = 0;
+        int nonNullIndex = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int selectedPosition = positions[i];
+            // count the non-null values before the selected position
+            for (; position < selectedPosition; position++) {
+                if (!isNull[position]) {
+                    nonNullIndex++;
+                }
+            }
+            if (isNull[selectedPosition]) {
+                selectedIsNull[i] = true;
+            }
+            else {
+                values[i] = longNonNullValueTemp[nonNullIndex];
+            }
+        }
+        return createSelectedBlock(positionCount, Optional.of(selectedIsNull), values);
+    }
+
+    private Block createSelectedBlock(int positionCount, Optional<boolean[]> isNull, long[] values)
+    {
+        if (type instanceof BigintType) {
+            return new LongArrayBlock(positionCount, isNull, values);
+        }
+        if (type instanceof TimeType) {
+            maybeTransformValues(values, positionCount);
+            return new LongArrayBlock(positionCount, isNull, values);
+        }
+        if (type instanceof IntegerType || type instanceof DateType) {
+            int[] intValues = new int[positionCount];
+            for (int i = 0; i < positionCount; i++) {
+                intValues[i] = (int) values[i];
+            }
+            return new IntArrayBlock(positionCount, isNull, intValues);
+        }
+        if (type instanceof SmallintType) {
+            short[] shortValues = new short[positionCount];
+            for (int i = 0; i < positionCount; i++) {
+                shortValues[i] = (short) values[i];
+            }
+            return new ShortArrayBlock(positionCount, isNull, shortValues);
+        }
+        throw new VerifyError("Unsupported type " + type);
+    }
+
     private Block readNonNullBlock()
             throws IOException
     {
@@ -205,7 +326,7 @@ public class LongColumnReader
         int minNonNullValueSize = minNonNullValueSize(nonNullCount);
         if (longNonNullValueTemp.length < minNonNullValueSize) {
             longNonNullValueTemp = new long[minNonNullValueSize];
-            systemMemoryContext.setBytes(sizeOf(longNonNullValueTemp));
+            updateSystemMemoryUsage();
         }
 
         dataStream.next(longNonNullValueTemp, nonNullCount);
@@ -222,7 +343,7 @@ public class LongColumnReader
         int minNonNullValueSize = minNonNullValueSize(nonNullCount);
         if (intNonNullValueTemp.length < minNonNullValueSize) {
             intNonNullValueTemp = new int[minNonNullValueSize];
-            systemMemoryContext.setBytes(sizeOf(intNonNullValueTemp));
+            updateSystemMemoryUsage();
         }
 
         dataStream.next(intNonNullValueTemp, nonNullCount);
@@ -239,7 +360,7 @@ public class LongColumnReader
         int minNonNullValueSize = minNonNullValueSize(nonNullCount);
         if (shortNonNullValueTemp.length < minNonNullValueSize) {
             shortNonNullValueTemp = new short[minNonNullValueSize];
-            systemMemoryContext.setBytes(sizeOf(shortNonNullValueTemp));
+            updateSystemMemoryUsage();
         }
 
         dataStream.next(shortNonNullValueTemp, nonNullCount);
@@ -249,6 +370,11 @@ public class LongColumnReader
         return new ShortArrayBlock(nextBatchSize, Optional.of(isNull), result);
     }
 
+    private void updateSystemMemoryUsage()
+    {
+        systemMemoryContext.setBytes(sizeOf(shortNonNullValueTemp) + sizeOf(intNonNullValueTemp) + sizeOf(longNonNullValueTemp));
+    }
+
     private void openRowGroup()
             throws IOException
     {
@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc.reader;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The ascending positions of a batch that are still selected after the column filters
+ * evaluated so far. Filters remove positions by compacting the positions array in place.
+ */
+public final class PositionSelection
+{
+    private final int batchSize;
+    private final int[] positions;
+    private int positionCount;
+
+    public PositionSelection(int batchSize)
+    {
+        checkArgument(batchSize >= 0, "batchSize is negative");
+        this.batchSize = batchSize;
+        this.positions = new int[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            positions[i] = i;
+        }
+        this.positionCount = batchSize;
+    }
+
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    public int[] getPositions()
+    {
+        return positions;
+    }
+
+    public int getPositionCount()
+    {
+        return positionCount;
+    }
+
+    public void setPositionCount(int positionCount)
+    {
+        checkArgument(positionCount >= 0 && positionCount <= this.positionCount, "positions can only be removed from the selection");
+        this.positionCount = positionCount;
+    }
+
+    public boolean isEmpty()
+    {
+        return positionCount == 0;
+    }
+
+    public boolean isAllSelected()
+    {
+        return positionCount == batchSize;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("batchSize", batchSize)
+                .add("positionCount", positionCount)
+                .toString();
+    }
+}
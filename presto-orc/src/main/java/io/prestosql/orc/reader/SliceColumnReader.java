@@ -16,6 +16,7 @@ package io.prestosql.orc.reader;
 import com.google.common.io.Closer;
 import io.airlift.slice.Slice;
 import io.prestosql.memory.context.AggregatedMemoryContext;
+import io.prestosql.orc.ColumnFilter;
 import io.prestosql.orc.OrcColumn;
 import io.prestosql.orc.OrcCorruptionException;
 import io.prestosql.orc.metadata.ColumnEncoding;
@@ -74,6 +75,20 @@ public class SliceColumnReader
         return currentReader.readBlock();
     }
 
+    @Override
+    public Block readBlock(ColumnFilter filter, PositionSelection selection)
+            throws IOException
+    {
+        return currentReader.readBlock(filter, selection);
+    }
+
+    @Override
+    public Block readBlock(PositionSelection selection)
+            throws IOException
+    {
+        return currentReader.readBlock(selection);
+    }
+
     @Override
     public void prepareNextRead(int batchSize)
     {
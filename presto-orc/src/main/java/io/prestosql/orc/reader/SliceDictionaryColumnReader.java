@@ -15,6 +15,7 @@ package io.prestosql.orc.reader;
 
 import io.airlift.slice.Slice;
 import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.orc.ColumnFilter;
 import io.prestosql.orc.OrcColumn;
 import io.prestosql.orc.OrcCorruptionException;
 import io.prestosql.orc.metadata.ColumnEncoding;
@@ -62,6 +63,10 @@ public class SliceDictionaryColumnReader
     // add one extra entry for null after strip/rowGroup dictionary
     private static final int[] EMPTY_DICTIONARY_OFFSETS = new int[2];
 
+    private static final byte FILTER_NOT_EVALUATED = 0;
+    private static final byte FILTER_MATCH = 1;
+    private static final byte FILTER_NO_MATCH = 2;
+
     private final OrcColumn column;
     private final int maxCodePointCount;
     private final boolean isCharType;
@@ -94,6 +99,13 @@ public class SliceDictionaryColumnReader
     private int[] nonNullValueTemp = new int[0];
     private int[] nonNullPositionList = new int[0];
 
+    // results of the current filter for each entry of the current dictionary
+    private byte[] filterResults = new byte[0];
+    @Nullable
+    private Block filterResultsDictionary;
+    @Nullable
+    private ColumnFilter currentFilter;
+
     private final LocalMemoryContext systemMemoryContext;
 
     public SliceDictionaryColumnReader(OrcColumn column, LocalMemoryContext systemMemoryContext, int maxCodePointCount, boolean isCharType)
@@ -114,6 +126,77 @@ public class SliceDictionaryColumnReader
     @Override
     public Block readBlock()
             throws IOException
+    {
+        int[] ids = readDictionaryIds();
+        Block block;
+        if (ids == null) {
+            block = readAllNullsBlock(nextBatchSize);
+        }
+        else {
+            block = new DictionaryBlock(nextBatchSize, dictionaryBlock, ids);
+        }
+
+        readOffset = 0;
+        nextBatchSize = 0;
+        return block;
+    }
+
+    @Override
+    public Block readBlock(ColumnFilter filter, PositionSelection selection)
+            throws IOException
+    {
+        int[] ids = readDictionaryIds();
+        Block block;
+        if (ids == null) {
+            if (!filter.isNullAllowed()) {
+                selection.setPositionCount(0);
+            }
+            block = readAllNullsBlock(nextBatchSize);
+        }
+        else {
+            filterDictionaryIds(filter, ids, selection);
+            block = new DictionaryBlock(nextBatchSize, dictionaryBlock, ids);
+        }
+
+        readOffset = 0;
+        nextBatchSize = 0;
+        return block;
+    }
+
+    @Override
+    public Block readBlock(PositionSelection selection)
+            throws IOException
+    {
+        int[] ids = readDictionaryIds();
+        int positionCount = selection.getPositionCount();
+        Block block;
+        if (ids == null) {
+            block = readAllNullsBlock(positionCount);
+        }
+        else if (selection.isAllSelected()) {
+            block = new DictionaryBlock(positionCount, dictionaryBlock, ids);
+        }
+        else {
+            int[] positions = selection.getPositions();
+            int[] selectedIds = new int[positionCount];
+            for (int i = 0; i < positionCount; i++) {
+                selectedIds[i] = ids[positions[i]];
+            }
+            block = new DictionaryBlock(positionCount, dictionaryBlock, selectedIds);
+        }
+
+        readOffset = 0;
+        nextBatchSize = 0;
+        return block;
+    }
+
+    /**
+     * Returns the dictionary ids of the next batch, with null values mapped to the null entry
+     * at the end of the dictionary, or null if all values of the batch are null.
+     */
+    @Nullable
+    private int[] readDictionaryIds()
+            throws IOException
     {
         if (!rowGroupOpen) {
             openRowGroup();
@@ -133,51 +216,43 @@ public class SliceDictionaryColumnReader
             }
         }
 
-        Block block;
         if (dataStream == null) {
             if (presentStream == null) {
                 throw new OrcCorruptionException(column.getOrcDataSourceId(), "Value is null but present stream is missing");
             }
             presentStream.skip(nextBatchSize);
-            block = readAllNullsBlock();
+            return null;
         }
-        else if (presentStream == null) {
-            block = readNonNullBlock();
-        }
-        else {
-            boolean[] isNull = new boolean[nextBatchSize];
-            int nullCount = presentStream.getUnsetBits(nextBatchSize, isNull);
-            if (nullCount == 0) {
-                block = readNonNullBlock();
-            }
-            else if (nullCount != nextBatchSize) {
-                block = readNullBlock(isNull, nextBatchSize - nullCount);
-            }
-            else {
-                block = readAllNullsBlock();
-            }
+        if (presentStream == null) {
+            return readNonNullIds();
         }
 
-        readOffset = 0;
-        nextBatchSize = 0;
-        return block;
+        boolean[] isNull = new boolean[nextBatchSize];
+        int nullCount = presentStream.getUnsetBits(nextBatchSize, isNull);
+        if (nullCount == 0) {
+            return readNonNullIds();
+        }
+        if (nullCount != nextBatchSize) {
+            return readNullIds(isNull, nextBatchSize - nullCount);
+        }
+        return null;
     }
 
-    private RunLengthEncodedBlock readAllNullsBlock()
+    private static RunLengthEncodedBlock readAllNullsBlock(int positionCount)
     {
-        return new RunLengthEncodedBlock(new VariableWidthBlock(1, EMPTY_SLICE, new int[2], Optional.of(new boolean[] {true})), nextBatchSize);
+        return new RunLengthEncodedBlock(new VariableWidthBlock(1, EMPTY_SLICE, new int[2], Optional.of(new boolean[] {true})), positionCount);
     }
 
-    private Block readNonNullBlock()
+    private int[] readNonNullIds()
             throws IOException
     {
         verifyNotNull(dataStream);
         int[] values = new int[nextBatchSize];
         dataStream.next(values, nextBatchSize);
-        return new DictionaryBlock(nextBatchSize, dictionaryBlock, values);
+        return values;
     }
 
-    private Block readNullBlock(boolean[] isNull, int nonNullCount)
+    private int[] readNullIds(boolean[] isNull, int nonNullCount)
             throws IOException
     {
         verifyNotNull(dataStream);
@@ -185,7 +260,7 @@ public class SliceDictionaryColumnReader
         if (nonNullValueTemp.length < minNonNullValueSize) {
             nonNullValueTemp = new int[minNonNullValueSize];
             nonNullPositionList = new int[minNonNullValueSize];
-            systemMemoryContext.setBytes(sizeOf(nonNullValueTemp) + sizeOf(nonNullPositionList));
+            updateSystemMemoryUsage();
         }
 
         dataStream.next(nonNullValueTemp, nonNullCount);
@@ -205,7 +280,50 @@ public class SliceDictionaryColumnReader
             result[nonNullPositionList[i]] = nonNullValueTemp[i];
         }
 
-        return new DictionaryBlock(nextBatchSize, dictionaryBlock, result);
+        return result;
+    }
+
+    /**
+     * Evaluates the filter once per dictionary entry, and then only compares the dictionary ids
+     * of the selected positions against the cached results.
+     */
+    private void filterDictionaryIds(ColumnFilter filter, int[] ids, PositionSelection selection)
+    {
+        if (filterResultsDictionary != dictionaryBlock || currentFilter != filter) {
+            int dictionaryPositionCount = dictionaryBlock.getPositionCount();
+            if (filterResults.length < dictionaryPositionCount) {
+                filterResults = new byte[dictionaryPositionCount];
+                updateSystemMemoryUsage();
+            }
+            else {
+                fill(filterResults, 0, dictionaryPositionCount, FILTER_NOT_EVALUATED);
+            }
+            filterResultsDictionary = dictionaryBlock;
+            currentFilter = filter;
+        }
+
+        int[] positions = selection.getPositions();
+        int positionCount = selection.getPositionCount();
+        int selectedCount = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            int id = ids[position];
+            byte result = filterResults[id];
+            if (result == FILTER_NOT_EVALUATED) {
+                result = filter.test(dictionaryBlock, id) ? FILTER_MATCH : FILTER_NO_MATCH;
+                filterResults[id] = result;
+            }
+            if (result == FILTER_MATCH) {
+                positions[selectedCount] = position;
+                selectedCount++;
+            }
+        }
+        selection.setPositionCount(selectedCount);
+    }
+
+    private void updateSystemMemoryUsage()
+    {
+        systemMemoryContext.setBytes(sizeOf(nonNullValueTemp) + sizeOf(nonNullPositionList) + sizeOf(filterResults));
     }
 
     private void setDictionaryBlockData(byte[] dictionaryData, int[] dictionaryOffsets, int positionCount)
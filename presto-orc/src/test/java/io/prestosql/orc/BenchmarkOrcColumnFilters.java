@@ -0,0 +1,254 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.orc.metadata.OrcType;
+import io.prestosql.orc.reader.PositionSelection;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.ValueSet;
+import io.prestosql.spi.type.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.orc.ColumnFilter.createColumnFilter;
+import static io.prestosql.orc.OrcReader.INITIAL_BATCH_SIZE;
+import static io.prestosql.orc.OrcReader.ProjectedLayout.fullyProjectedLayout;
+import static io.prestosql.orc.OrcTester.READER_OPTIONS;
+import static io.prestosql.orc.OrcWriteValidation.OrcWriteValidationMode.BOTH;
+import static io.prestosql.orc.metadata.CompressionKind.NONE;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.lang.Math.min;
+import static java.util.Collections.nCopies;
+import static java.util.UUID.randomUUID;
+import static org.joda.time.DateTimeZone.UTC;
+
+/**
+ * Compares reading a table with a range filter on a bigint column and an IN filter on a
+ * dictionary encoded varchar column, with the filters evaluated in the reader and without.
+ * Without filter pushdown, every column is decoded and the filters are applied to the
+ * loaded page, as the engine would.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(3)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkOrcColumnFilters
+{
+    private static final int ROW_COUNT = 1_000_000;
+    private static final int KEY_RANGE = 10_000;
+    private static final int DICTIONARY_SIZE = 100;
+    private static final List<String> COLUMN_NAMES = ImmutableList.of("key", "category", "payload_bigint", "payload_varchar");
+    private static final List<Type> COLUMN_TYPES = ImmutableList.of(BIGINT, VARCHAR, BIGINT, VARCHAR);
+
+    @Benchmark
+    public long readWithFilters(BenchmarkData data)
+            throws Exception
+    {
+        long rows = 0;
+        try (OrcRecordReader recordReader = data.createRecordReader()) {
+            for (Page page = recordReader.nextPage(); page != null; page = recordReader.nextPage()) {
+                rows += data.filterPage(page.getLoadedPage());
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    public void testReadWithFilters()
+            throws Exception
+    {
+        for (String selectivity : ImmutableList.of("0.0", "0.5", "1.0")) {
+            BenchmarkData pushdown = new BenchmarkData();
+            pushdown.selectivity = selectivity;
+            pushdown.filterPushdown = true;
+            pushdown.setup();
+
+            BenchmarkData noPushdown = new BenchmarkData();
+            noPushdown.selectivity = selectivity;
+            noPushdown.filterPushdown = false;
+            noPushdown.setup();
+            try {
+                if (readWithFilters(pushdown) != readWithFilters(noPushdown)) {
+                    throw new AssertionError("Filter pushdown returned a different number of rows for selectivity " + selectivity);
+                }
+            }
+            finally {
+                pushdown.tearDown();
+                noPushdown.tearDown();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"0.0", "0.01", "0.1", "0.5", "1.0"})
+        private String selectivity = "0.1";
+
+        @Param({"true", "false"})
+        private boolean filterPushdown = true;
+
+        private File temporary;
+        private File dataPath;
+        private ColumnFilter keyFilter;
+        private ColumnFilter categoryFilter;
+
+        @Setup
+        public void setup()
+                throws Exception
+        {
+            temporary = createTempDir();
+            dataPath = new File(temporary, randomUUID().toString());
+            writeFile(dataPath);
+
+            // the category filter matches 90% of the rows, and the key filter controls the selectivity
+            long maxKey = (long) (Double.parseDouble(selectivity) / 0.9 * KEY_RANGE);
+            keyFilter = createColumnFilter(BIGINT, Domain.create(ValueSet.ofRanges(Range.lessThan(BIGINT, maxKey)), false)).orElseThrow();
+            ImmutableList.Builder<Object> categories = ImmutableList.builder();
+            for (int i = 0; i < DICTIONARY_SIZE * 9 / 10; i++) {
+                categories.add(utf8Slice("category_" + i));
+            }
+            categoryFilter = createColumnFilter(VARCHAR, Domain.multipleValues(VARCHAR, categories.build())).orElseThrow();
+        }
+
+        @TearDown
+        public void tearDown()
+                throws IOException
+        {
+            deleteRecursively(temporary.toPath(), ALLOW_INSECURE);
+        }
+
+        private OrcRecordReader createRecordReader()
+                throws IOException
+        {
+            OrcDataSource dataSource = new FileOrcDataSource(dataPath, READER_OPTIONS);
+            OrcReader orcReader = OrcReader.createOrcReader(dataSource, READER_OPTIONS)
+                    .orElseThrow(() -> new RuntimeException("File is empty"));
+            List<Optional<ColumnFilter>> filters = ImmutableList.of(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+            if (filterPushdown) {
+                filters = ImmutableList.of(Optional.of(keyFilter), Optional.of(categoryFilter), Optional.empty(), Optional.empty());
+            }
+            return orcReader.createRecordReader(
+                    orcReader.getRootColumn().getNestedColumns(),
+                    COLUMN_TYPES,
+                    nCopies(COLUMN_TYPES.size(), fullyProjectedLayout()),
+                    filters,
+                    OrcPredicate.TRUE,
+                    0,
+                    dataSource.getEstimatedSize(),
+                    UTC,
+                    newSimpleAggregatedMemoryContext(),
+                    INITIAL_BATCH_SIZE,
+                    RuntimeException::new);
+        }
+
+        private int filterPage(Page page)
+        {
+            if (filterPushdown) {
+                return page.getPositionCount();
+            }
+            PositionSelection selection = new PositionSelection(page.getPositionCount());
+            keyFilter.filter(page.getBlock(0), selection);
+            categoryFilter.filter(page.getBlock(1), selection);
+            return selection.getPositionCount();
+        }
+    }
+
+    private static void writeFile(File file)
+            throws IOException
+    {
+        OrcWriter writer = new OrcWriter(
+                new OutputStreamOrcDataSink(new FileOutputStream(file)),
+                COLUMN_NAMES,
+                COLUMN_TYPES,
+                OrcType.createRootOrcType(COLUMN_NAMES, COLUMN_TYPES),
+                NONE,
+                new OrcWriterOptions(),
+                false,
+                ImmutableMap.of(),
+                false,
+                BOTH,
+                new OrcWriterStats());
+
+        Random random = new Random(42);
+        int pageSize = 10_000;
+        for (int start = 0; start < ROW_COUNT; start += pageSize) {
+            int positionCount = min(pageSize, ROW_COUNT - start);
+            BlockBuilder keys = BIGINT.createBlockBuilder(null, positionCount);
+            BlockBuilder categories = VARCHAR.createBlockBuilder(null, positionCount);
+            BlockBuilder payloadBigints = BIGINT.createBlockBuilder(null, positionCount);
+            BlockBuilder payloadVarchars = VARCHAR.createBlockBuilder(null, positionCount);
+            for (int i = 0; i < positionCount; i++) {
+                BIGINT.writeLong(keys, random.nextInt(KEY_RANGE));
+                VARCHAR.writeSlice(categories, utf8Slice("category_" + random.nextInt(DICTIONARY_SIZE)));
+                BIGINT.writeLong(payloadBigints, random.nextLong());
+                VARCHAR.writeSlice(payloadVarchars, utf8Slice(randomUUID().toString()));
+            }
+            Block[] blocks = {keys.build(), categories.build(), payloadBigints.build(), payloadVarchars.build()};
+            writer.write(new Page(blocks));
+        }
+        writer.close();
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        // assure the benchmarks are valid before running
+        new BenchmarkOrcColumnFilters().testReadWithFilters();
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkOrcColumnFilters.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
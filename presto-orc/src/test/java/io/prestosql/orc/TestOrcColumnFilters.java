@@ -0,0 +1,233 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.orc.metadata.OrcType;
+import io.prestosql.orc.reader.PositionSelection;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.ValueSet;
+import io.prestosql.spi.type.Type;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.orc.ColumnFilter.createColumnFilter;
+import static io.prestosql.orc.OrcReader.INITIAL_BATCH_SIZE;
+import static io.prestosql.orc.OrcReader.ProjectedLayout.fullyProjectedLayout;
+import static io.prestosql.orc.OrcTester.READER_OPTIONS;
+import static io.prestosql.orc.OrcWriteValidation.OrcWriteValidationMode.BOTH;
+import static io.prestosql.orc.metadata.CompressionKind.NONE;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.lang.Math.min;
+import static java.util.Collections.nCopies;
+import static org.joda.time.DateTimeZone.UTC;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestOrcColumnFilters
+{
+    private static final int ROW_COUNT = 30_000;
+    private static final List<String> COLUMN_NAMES = ImmutableList.of("key", "value", "other");
+    private static final List<Type> COLUMN_TYPES = ImmutableList.of(BIGINT, VARCHAR, BIGINT);
+
+    @Test
+    public void testLongFilter()
+    {
+        ColumnFilter filter = createColumnFilter(BIGINT, Domain.create(ValueSet.ofRanges(
+                Range.lessThan(BIGINT, 10L),
+                Range.range(BIGINT, 20L, false, 30L, true),
+                Range.greaterThanOrEqual(BIGINT, 100L)), false)).orElseThrow();
+        assertFalse(filter.isNullAllowed());
+        assertTrue(filter.testLong(Long.MIN_VALUE));
+        assertTrue(filter.testLong(9));
+        assertFalse(filter.testLong(10));
+        assertFalse(filter.testLong(20));
+        assertTrue(filter.testLong(21));
+        assertTrue(filter.testLong(30));
+        assertFalse(filter.testLong(31));
+        assertFalse(filter.testLong(99));
+        assertTrue(filter.testLong(100));
+        assertTrue(filter.testLong(Long.MAX_VALUE));
+
+        ColumnFilter isNull = createColumnFilter(BIGINT, Domain.onlyNull(BIGINT)).orElseThrow();
+        assertTrue(isNull.isNullAllowed());
+        assertFalse(isNull.testLong(0));
+    }
+
+    @Test
+    public void testSliceFilter()
+    {
+        ColumnFilter filter = createColumnFilter(VARCHAR, Domain.create(ValueSet.of(VARCHAR, utf8Slice("a"), utf8Slice("c")), true)).orElseThrow();
+
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, 5);
+        VARCHAR.writeSlice(blockBuilder, utf8Slice("a"));
+        VARCHAR.writeSlice(blockBuilder, utf8Slice("b"));
+        blockBuilder.appendNull();
+        VARCHAR.writeSlice(blockBuilder, utf8Slice("c"));
+        VARCHAR.writeSlice(blockBuilder, utf8Slice("d"));
+
+        PositionSelection selection = new PositionSelection(5);
+        filter.filter(blockBuilder.build(), selection);
+        assertEquals(selection.getPositionCount(), 3);
+        assertEquals(Arrays.copyOf(selection.getPositions(), 3), new int[] {0, 2, 3});
+    }
+
+    @Test
+    public void testUnsupportedFilters()
+    {
+        assertFalse(createColumnFilter(BIGINT, Domain.all(BIGINT)).isPresent());
+        assertFalse(createColumnFilter(DOUBLE, Domain.singleValue(DOUBLE, 1.0)).isPresent());
+    }
+
+    @Test
+    public void testReadWithFilters()
+            throws Exception
+    {
+        ColumnFilter keyFilter = createColumnFilter(BIGINT, Domain.create(ValueSet.ofRanges(
+                Range.range(BIGINT, 100L, true, 200L, false),
+                Range.greaterThan(BIGINT, 29_000L)), false)).orElseThrow();
+        ColumnFilter valueFilter = createColumnFilter(VARCHAR, Domain.multipleValues(VARCHAR, ImmutableList.of(utf8Slice("value_3"), utf8Slice("value_7")))).orElseThrow();
+        ColumnFilter nullKeyFilter = createColumnFilter(BIGINT, Domain.onlyNull(BIGINT)).orElseThrow();
+        ColumnFilter noneFilter = createColumnFilter(BIGINT, Domain.singleValue(BIGINT, -1L)).orElseThrow();
+
+        try (TempFile tempFile = new TempFile()) {
+            writeFile(tempFile.getFile());
+
+            assertFilteredRead(tempFile.getFile(), Optional.empty(), Optional.empty(), row -> true);
+            assertFilteredRead(tempFile.getFile(), Optional.of(keyFilter), Optional.empty(), row -> isKeyInRange(row));
+            assertFilteredRead(tempFile.getFile(), Optional.empty(), Optional.of(valueFilter), row -> row % 10 == 3 || row % 10 == 7);
+            assertFilteredRead(tempFile.getFile(), Optional.of(keyFilter), Optional.of(valueFilter), row -> isKeyInRange(row) && (row % 10 == 3 || row % 10 == 7));
+            assertFilteredRead(tempFile.getFile(), Optional.of(nullKeyFilter), Optional.empty(), row -> getKey(row) == null);
+            assertFilteredRead(tempFile.getFile(), Optional.of(noneFilter), Optional.empty(), row -> false);
+        }
+    }
+
+    private static boolean isKeyInRange(int row)
+    {
+        Long key = getKey(row);
+        return key != null && ((key >= 100 && key < 200) || key > 29_000);
+    }
+
+    private static Long getKey(int row)
+    {
+        return row % 7 == 0 ? null : (long) row;
+    }
+
+    private static void assertFilteredRead(File file, Optional<ColumnFilter> keyFilter, Optional<ColumnFilter> valueFilter, IntPredicate expectedRows)
+            throws IOException
+    {
+        List<List<Object>> expected = new ArrayList<>();
+        for (int row = 0; row < ROW_COUNT; row++) {
+            if (expectedRows.test(row)) {
+                expected.add(Arrays.asList(getKey(row), "value_" + (row % 10), row * 2L));
+            }
+        }
+
+        List<List<Object>> actual = new ArrayList<>();
+        try (OrcRecordReader recordReader = createRecordReader(file, ImmutableList.of(keyFilter, valueFilter, Optional.empty()))) {
+            for (Page page = recordReader.nextPage(); page != null; page = recordReader.nextPage()) {
+                page = page.getLoadedPage();
+                // pages without rows are returned after many rows are filtered out
+                assertEquals(page.getChannelCount(), COLUMN_TYPES.size());
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    List<Object> row = new ArrayList<>();
+                    for (int channel = 0; channel < COLUMN_TYPES.size(); channel++) {
+                        Block block = page.getBlock(channel);
+                        Type type = COLUMN_TYPES.get(channel);
+                        row.add(block.isNull(position) ? null : type.getObjectValue(null, block, position));
+                    }
+                    actual.add(row);
+                }
+            }
+        }
+        assertEquals(actual, expected);
+    }
+
+    private static OrcRecordReader createRecordReader(File file, List<Optional<ColumnFilter>> filters)
+            throws IOException
+    {
+        OrcDataSource dataSource = new FileOrcDataSource(file, READER_OPTIONS);
+        OrcReader orcReader = OrcReader.createOrcReader(dataSource, READER_OPTIONS)
+                .orElseThrow(() -> new RuntimeException("File is empty"));
+        return orcReader.createRecordReader(
+                orcReader.getRootColumn().getNestedColumns(),
+                COLUMN_TYPES,
+                nCopies(COLUMN_TYPES.size(), fullyProjectedLayout()),
+                filters,
+                OrcPredicate.TRUE,
+                0,
+                dataSource.getEstimatedSize(),
+                UTC,
+                newSimpleAggregatedMemoryContext(),
+                INITIAL_BATCH_SIZE,
+                RuntimeException::new);
+    }
+
+    // key: row number, or null for every 7th row; value: one of 10 dictionary values; other: row number times 2
+    private static void writeFile(File file)
+            throws IOException
+    {
+        OrcWriter writer = new OrcWriter(
+                new OutputStreamOrcDataSink(new FileOutputStream(file)),
+                COLUMN_NAMES,
+                COLUMN_TYPES,
+                OrcType.createRootOrcType(COLUMN_NAMES, COLUMN_TYPES),
+                NONE,
+                new OrcWriterOptions(),
+                false,
+                ImmutableMap.of(),
+                false,
+                BOTH,
+                new OrcWriterStats());
+
+        int pageSize = 1024;
+        for (int start = 0; start < ROW_COUNT; start += pageSize) {
+            int end = min(start + pageSize, ROW_COUNT);
+            BlockBuilder keys = BIGINT.createBlockBuilder(null, end - start);
+            BlockBuilder values = VARCHAR.createBlockBuilder(null, end - start);
+            BlockBuilder others = BIGINT.createBlockBuilder(null, end - start);
+            for (int row = start; row < end; row++) {
+                Long key = getKey(row);
+                if (key == null) {
+                    keys.appendNull();
+                }
+                else {
+                    BIGINT.writeLong(keys, key);
+                }
+                VARCHAR.writeSlice(values, utf8Slice("value_" + (row % 10)));
+                BIGINT.writeLong(others, row * 2L);
+            }
+            writer.write(new Page(keys.build(), values.build(), others.build()));
+        }
+        writer.close();
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import io.airlift.slice.XxHash64;
+
+import java.util.OptionalInt;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.ceil;
+import static java.lang.Math.log;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+
+/**
+ * Split block bloom filter of a Parquet column chunk. The Parquet library used by the reader
+ * and writer predates bloom filters, so the bitset and its Thrift header are implemented here,
+ * following the Parquet format specification: values are hashed with XXH64 over their plain
+ * encoding, and each hash sets one bit in each of the eight 32-bit words of a 256-bit block.
+ */
+public final class BloomFilter
+{
+    public static final int MIN_BITSET_BYTES = 32;
+    public static final int MAX_BITSET_BYTES = 128 * 1024 * 1024;
+
+    private static final int BYTES_PER_BLOCK = 32;
+    private static final int[] SALT = {
+            0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+            0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31};
+
+    // types of the Thrift compact protocol
+    private static final int STOP = 0;
+    private static final int BOOLEAN_TRUE = 1;
+    private static final int BOOLEAN_FALSE = 2;
+    private static final int BYTE = 3;
+    private static final int I16 = 4;
+    private static final int I32 = 5;
+    private static final int I64 = 6;
+    private static final int DOUBLE = 7;
+    private static final int BINARY = 8;
+    private static final int LIST = 9;
+    private static final int SET = 10;
+    private static final int MAP = 11;
+    private static final int STRUCT = 12;
+
+    private final Slice bitset;
+    private final long numBlocks;
+
+    public BloomFilter(Slice bitset)
+    {
+        checkArgument(bitset.length() >= MIN_BITSET_BYTES && bitset.length() % BYTES_PER_BLOCK == 0, "Invalid bloom filter size: %s", bitset.length());
+        this.bitset = bitset;
+        this.numBlocks = bitset.length() / BYTES_PER_BLOCK;
+    }
+
+    /**
+     * Creates an empty bloom filter sized for the number of distinct values and the false positive probability.
+     */
+    public static BloomFilter create(long distinctValues, double fpp, int maxBytes)
+    {
+        return new BloomFilter(Slices.allocate(optimalNumBytes(distinctValues, fpp, maxBytes)));
+    }
+
+    /**
+     * Returns the bitset size for the number of distinct values and the false positive probability,
+     * as a power of two between {@link #MIN_BITSET_BYTES} and {@code maxBytes}.
+     */
+    public static int optimalNumBytes(long distinctValues, double fpp, int maxBytes)
+    {
+        checkArgument(fpp > 0.0 && fpp < 1.0, "fpp must be between 0 and 1");
+        checkArgument(maxBytes >= MIN_BITSET_BYTES && maxBytes <= MAX_BITSET_BYTES, "Invalid maximum bloom filter size: %s", maxBytes);
+        long bytes = (long) ceil(distinctValues * -log(fpp) / (log(2) * log(2)) / 8);
+        bytes = max(MIN_BITSET_BYTES, min(maxBytes, bytes));
+        if (Long.bitCount(bytes) != 1) {
+            bytes = min(Long.highestOneBit(bytes) << 1, Long.highestOneBit(maxBytes));
+        }
+        return toIntExact(bytes);
+    }
+
+    public static long hash(long value)
+    {
+        Slice buffer = Slices.allocate(Long.BYTES);
+        buffer.setLong(0, value);
+        return XxHash64.hash(buffer);
+    }
+
+    public static long hash(int value)
+    {
+        Slice buffer = Slices.allocate(Integer.BYTES);
+        buffer.setInt(0, value);
+        return XxHash64.hash(buffer);
+    }
+
+    public static long hash(double value)
+    {
+        Slice buffer = Slices.allocate(Double.BYTES);
+        buffer.setDouble(0, value);
+        return XxHash64.hash(buffer);
+    }
+
+    public static long hash(float value)
+    {
+        Slice buffer = Slices.allocate(Float.BYTES);
+        buffer.setFloat(0, value);
+        return XxHash64.hash(buffer);
+    }
+
+    public static long hash(Slice value)
+    {
+        return XxHash64.hash(value);
+    }
+
+    public int getBitsetSize()
+    {
+        return bitset.length();
+    }
+
+    public void insertHash(long hash)
+    {
+        int blockOffset = blockOffset(hash);
+        int key = (int) hash;
+        for (int i = 0; i < SALT.length; i++) {
+            int wordOffset = blockOffset + i * Integer.BYTES;
+            bitset.setInt(wordOffset, bitset.getInt(wordOffset) | mask(key, i));
+        }
+    }
+
+    public boolean findHash(long hash)
+    {
+        int blockOffset = blockOffset(hash);
+        int key = (int) hash;
+        for (int i = 0; i < SALT.length; i++) {
+            int mask = mask(key, i);
+            if ((bitset.getInt(blockOffset + i * Integer.BYTES) & mask) != mask) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int blockOffset(long hash)
+    {
+        // the upper half of the hash selects the block, the lower half the bits in the block
+        return toIntExact((((hash >>> 32) * numBlocks) >>> 32) * BYTES_PER_BLOCK);
+    }
+
+    private static int mask(int key, int word)
+    {
+        return 1 << ((key * SALT[word]) >>> 27);
+    }
+
+    /**
+     * Writes the BloomFilterHeader followed by the bitset.
+     */
+    public void writeTo(SliceOutput output)
+    {
+        // numBytes, then the BLOCK, XXHASH and UNCOMPRESSED members of the algorithm, hash and compression unions
+        output.writeByte(fieldHeader(1, I32));
+        writeVarint(output, (bitset.length() << 1) ^ (bitset.length() >> 31));
+        for (int union = 0; union < 3; union++) {
+            output.writeByte(fieldHeader(1, STRUCT));
+            output.writeByte(fieldHeader(1, STRUCT));
+            output.writeByte(STOP);
+            output.writeByte(STOP);
+        }
+        output.writeByte(STOP);
+        output.writeBytes(bitset);
+    }
+
+    /**
+     * Reads the BloomFilterHeader, and returns the size of the bitset that follows it, unless the
+     * bloom filter uses an algorithm, hash or compression other than the ones defined so far.
+     */
+    public static OptionalInt readBitsetSize(SliceInput input)
+            throws ParquetCorruptionException
+    {
+        int numBytes = -1;
+        int supportedUnions = 0;
+        boolean unsupported = false;
+        int fieldId = 0;
+        while (true) {
+            int header = input.readUnsignedByte();
+            int type = header & 0x0f;
+            if (type == STOP) {
+                break;
+            }
+            fieldId = readFieldId(input, header, fieldId);
+            if (fieldId == 1 && type == I32) {
+                numBytes = readI32(input);
+            }
+            else if (fieldId >= 2 && fieldId <= 4 && type == STRUCT) {
+                // BLOCK, XXHASH and UNCOMPRESSED are the first members of the unions
+                if (readUnionMember(input) == 1) {
+                    supportedUnions++;
+                }
+                else {
+                    unsupported = true;
+                }
+            }
+            else {
+                skip(input, type);
+            }
+        }
+        if (unsupported || supportedUnions != 3) {
+            return OptionalInt.empty();
+        }
+        if (numBytes < MIN_BITSET_BYTES || numBytes > MAX_BITSET_BYTES || numBytes % BYTES_PER_BLOCK != 0) {
+            throw new ParquetCorruptionException("Invalid bloom filter size: %s", numBytes);
+        }
+        return OptionalInt.of(numBytes);
+    }
+
+    private static int readUnionMember(SliceInput input)
+            throws ParquetCorruptionException
+    {
+        int member = 0;
+        int fieldId = 0;
+        while (true) {
+            int header = input.readUnsignedByte();
+            int type = header & 0x0f;
+            if (type == STOP) {
+                return member;
+            }
+            fieldId = readFieldId(input, header, fieldId);
+            member = fieldId;
+            skip(input, type);
+        }
+    }
+
+    private static void skip(SliceInput input, int type)
+            throws ParquetCorruptionException
+    {
+        switch (type) {
+            case BOOLEAN_TRUE:
+            case BOOLEAN_FALSE:
+                // the value of a boolean field is its type
+                return;
+            case BYTE:
+                input.readByte();
+                return;
+            case I16:
+            case I32:
+            case I64:
+                readVarint(input);
+                return;
+            case DOUBLE:
+                input.skip(Double.BYTES);
+                return;
+            case BINARY:
+                input.skip(readVarint(input));
+                return;
+            case LIST:
+            case SET: {
+                int header = input.readUnsignedByte();
+                long size = header >>> 4;
+                if (size == 15) {
+                    size = readVarint(input);
+                }
+                for (long i = 0; i < size; i++) {
+                    skipElement(input, header & 0x0f);
+                }
+                return;
+            }
+            case MAP: {
+                long size = readVarint(input);
+                if (size > 0) {
+                    int types = input.readUnsignedByte();
+                    for (long i = 0; i < size; i++) {
+                        skipElement(input, types >>> 4);
+                        skipElement(input, types & 0x0f);
+                    }
+                }
+                return;
+            }
+            case STRUCT: {
+                int fieldId = 0;
+                while (true) {
+                    int header = input.readUnsignedByte();
+                    int fieldType = header & 0x0f;
+                    if (fieldType == STOP) {
+                        return;
+                    }
+                    fieldId = readFieldId(input, header, fieldId);
+                    skip(input, fieldType);
+                }
+            }
+            default:
+                throw new ParquetCorruptionException("Invalid Thrift type in bloom filter header: %s", type);
+        }
+    }
+
+    private static void skipElement(SliceInput input, int type)
+            throws ParquetCorruptionException
+    {
+        if (type == BOOLEAN_TRUE || type == BOOLEAN_FALSE) {
+            // booleans in collections are written as a byte
+            input.readByte();
+            return;
+        }
+        skip(input, type);
+    }
+
+    private static int readFieldId(SliceInput input, int header, int lastFieldId)
+    {
+        int delta = header >>> 4;
+        if (delta != 0) {
+            return lastFieldId + delta;
+        }
+        return readI32(input);
+    }
+
+    private static int readI32(SliceInput input)
+    {
+        int value = (int) readVarint(input);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readVarint(SliceInput input)
+    {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = input.readUnsignedByte();
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    private static void writeVarint(SliceOutput output, int value)
+    {
+        while ((value & ~0x7f) != 0) {
+            output.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    private static int fieldHeader(int delta, int type)
+    {
+        return (delta << 4) | type;
+    }
+}
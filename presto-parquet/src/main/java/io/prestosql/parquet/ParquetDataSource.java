@@ -13,12 +13,17 @@
  */
 package io.prestosql.parquet;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.slice.Slice;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+
 public interface ParquetDataSource
         extends Closeable
 {
@@ -30,12 +35,41 @@ public interface ParquetDataSource
 
     long getEstimatedSize();
 
+    /**
+     * Gets the memory size of this data source, which does not include the memory of the
+     * chunks returned by {@link #planRead(Map)}.
+     */
+    default long getRetainedSize()
+    {
+        return 0;
+    }
+
     Slice readTail(int length);
 
     Slice readFully(long position, int length);
 
     <K> Map<K, ChunkReader> planRead(Map<K, DiskRange> diskRanges);
 
+    /**
+     * Loads the chunks returned by {@link #planRead(Map)} which are about to be read, so data sources
+     * which can read several ranges concurrently do not load the chunks one at a time on first read.
+     * Other data sources ignore this call.
+     */
+    default void loadChunks(Collection<ChunkReader> chunks)
+    {
+    }
+
+    /**
+     * Starts reading the specified ranges in the background, so later reads of these
+     * ranges do not block. The returned future is done when the ranges have been read,
+     * or the background read failed, in which case the ranges are read again when needed.
+     * Data sources without background reads return a done future.
+     */
+    default ListenableFuture<?> readAhead(List<DiskRange> diskRanges)
+    {
+        return immediateFuture(null);
+    }
+
     @Override
     default void close()
             throws IOException
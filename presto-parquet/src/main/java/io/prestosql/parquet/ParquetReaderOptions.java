@@ -28,6 +28,8 @@ public class ParquetReaderOptions
     private final DataSize maxReadBlockSize;
     private final DataSize maxMergeDistance;
     private final DataSize maxBufferSize;
+    private final boolean useColumnIndex;
+    private final boolean useBloomFilter;
 
     public ParquetReaderOptions()
     {
@@ -35,18 +37,24 @@ public class ParquetReaderOptions
         maxReadBlockSize = DEFAULT_MAX_READ_BLOCK_SIZE;
         maxMergeDistance = DEFAULT_MAX_MERGE_DISTANCE;
         maxBufferSize = DEFAULT_MAX_BUFFER_SIZE;
+        useColumnIndex = true;
+        useBloomFilter = true;
     }
 
     private ParquetReaderOptions(
             boolean failOnCorruptedStatistics,
             DataSize maxReadBlockSize,
             DataSize maxMergeDistance,
-            DataSize maxBufferSize)
+            DataSize maxBufferSize,
+            boolean useColumnIndex,
+            boolean useBloomFilter)
     {
         this.failOnCorruptedStatistics = failOnCorruptedStatistics;
         this.maxReadBlockSize = requireNonNull(maxReadBlockSize, "maxMergeDistance is null");
         this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
         this.maxBufferSize = requireNonNull(maxBufferSize, "maxBufferSize is null");
+        this.useColumnIndex = useColumnIndex;
+        this.useBloomFilter = useBloomFilter;
     }
 
     @Deprecated
@@ -70,13 +78,25 @@ public class ParquetReaderOptions
         return maxBufferSize;
     }
 
+    public boolean isUseColumnIndex()
+    {
+        return useColumnIndex;
+    }
+
+    public boolean isUseBloomFilter()
+    {
+        return useBloomFilter;
+    }
+
     public ParquetReaderOptions withFailOnCorruptedStatistics(boolean failOnCorruptedStatistics)
     {
         return new ParquetReaderOptions(
                 failOnCorruptedStatistics,
                 maxReadBlockSize,
                 maxMergeDistance,
-                maxBufferSize);
+                maxBufferSize,
+                useColumnIndex,
+                useBloomFilter);
     }
 
     public ParquetReaderOptions withMaxReadBlockSize(DataSize maxReadBlockSize)
@@ -85,7 +105,9 @@ public class ParquetReaderOptions
                 failOnCorruptedStatistics,
                 maxReadBlockSize,
                 maxMergeDistance,
-                maxBufferSize);
+                maxBufferSize,
+                useColumnIndex,
+                useBloomFilter);
     }
 
     public ParquetReaderOptions withMaxMergeDistance(DataSize maxMergeDistance)
@@ -94,7 +116,9 @@ public class ParquetReaderOptions
                 failOnCorruptedStatistics,
                 maxReadBlockSize,
                 maxMergeDistance,
-                maxBufferSize);
+                maxBufferSize,
+                useColumnIndex,
+                useBloomFilter);
     }
 
     public ParquetReaderOptions withMaxBufferSize(DataSize maxBufferSize)
@@ -103,6 +127,30 @@ public class ParquetReaderOptions
                 failOnCorruptedStatistics,
                 maxReadBlockSize,
                 maxMergeDistance,
-                maxBufferSize);
+                maxBufferSize,
+                useColumnIndex,
+                useBloomFilter);
+    }
+
+    public ParquetReaderOptions withUseColumnIndex(boolean useColumnIndex)
+    {
+        return new ParquetReaderOptions(
+                failOnCorruptedStatistics,
+                maxReadBlockSize,
+                maxMergeDistance,
+                maxBufferSize,
+                useColumnIndex,
+                useBloomFilter);
+    }
+
+    public ParquetReaderOptions withUseBloomFilter(boolean useBloomFilter)
+    {
+        return new ParquetReaderOptions(
+                failOnCorruptedStatistics,
+                maxReadBlockSize,
+                maxMergeDistance,
+                maxBufferSize,
+                useColumnIndex,
+                useBloomFilter);
     }
 }
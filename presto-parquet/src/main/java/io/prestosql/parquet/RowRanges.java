@@ -0,0 +1,169 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Sorted, non-overlapping ranges of row indexes within a row group.
+ * Range starts are inclusive and range ends are exclusive.
+ */
+public final class RowRanges
+{
+    private static final RowRanges EMPTY = new RowRanges(new long[0], new long[0]);
+
+    private final long[] starts;
+    private final long[] ends;
+    private final long rowCount;
+
+    private RowRanges(long[] starts, long[] ends)
+    {
+        this.starts = starts;
+        this.ends = ends;
+        long rowCount = 0;
+        for (int i = 0; i < starts.length; i++) {
+            rowCount += ends[i] - starts[i];
+        }
+        this.rowCount = rowCount;
+    }
+
+    public static RowRanges all(long rowCount)
+    {
+        checkArgument(rowCount >= 0, "rowCount is negative");
+        if (rowCount == 0) {
+            return EMPTY;
+        }
+        return new RowRanges(new long[] {0}, new long[] {rowCount});
+    }
+
+    public static RowRanges empty()
+    {
+        return EMPTY;
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    public int getRangeCount()
+    {
+        return starts.length;
+    }
+
+    public long getRangeStart(int range)
+    {
+        return starts[range];
+    }
+
+    public long getRangeEnd(int range)
+    {
+        return ends[range];
+    }
+
+    public long getRowCount()
+    {
+        return rowCount;
+    }
+
+    public boolean isEmpty()
+    {
+        return starts.length == 0;
+    }
+
+    /**
+     * Returns true if any row in {@code [start, end)} is contained in these ranges.
+     */
+    public boolean overlaps(long start, long end)
+    {
+        int index = Arrays.binarySearch(ends, start);
+        // the first range ending after start
+        int range = index >= 0 ? index + 1 : -index - 1;
+        return range < starts.length && starts[range] < end;
+    }
+
+    public RowRanges intersect(RowRanges other)
+    {
+        Builder builder = builder();
+        int left = 0;
+        int right = 0;
+        while (left < starts.length && right < other.starts.length) {
+            long start = max(starts[left], other.starts[right]);
+            long end = min(ends[left], other.ends[right]);
+            if (start < end) {
+                builder.add(start, end);
+            }
+            if (ends[left] < other.ends[right]) {
+                left++;
+            }
+            else {
+                right++;
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString()
+    {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int i = 0; i < starts.length; i++) {
+            joiner.add(starts[i] + ".." + ends[i]);
+        }
+        return joiner.toString();
+    }
+
+    public static class Builder
+    {
+        private final LongList starts = new LongArrayList();
+        private final LongList ends = new LongArrayList();
+
+        private Builder() {}
+
+        /**
+         * Adds the rows {@code [start, end)}. Ranges must be added in order; adjacent ranges are merged.
+         */
+        public Builder add(long start, long end)
+        {
+            checkArgument(start < end, "start must be less than end");
+            int last = ends.size() - 1;
+            if (last >= 0) {
+                checkArgument(start >= ends.getLong(last), "ranges must be added in order");
+                if (start == ends.getLong(last)) {
+                    ends.set(last, end);
+                    return this;
+                }
+            }
+            starts.add(start);
+            ends.add(end);
+            return this;
+        }
+
+        public RowRanges build()
+        {
+            if (starts.isEmpty()) {
+                return EMPTY;
+            }
+            return new RowRanges(starts.toLongArray(), ends.toLongArray());
+        }
+    }
+}
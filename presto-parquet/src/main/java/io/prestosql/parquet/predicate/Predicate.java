@@ -13,6 +13,7 @@
  */
 package io.prestosql.parquet.predicate;
 
+import io.prestosql.parquet.BloomFilter;
 import io.prestosql.parquet.ParquetCorruptionException;
 import io.prestosql.parquet.ParquetDataSourceId;
 import org.apache.parquet.column.ColumnDescriptor;
@@ -42,4 +43,14 @@ public interface Predicate
      * @param dictionary The single column dictionary
      */
     boolean matches(DictionaryDescriptor dictionary);
+
+    /**
+     * Should the Parquet Reader process a file section with the specified bloom filter based on that
+     * single bloom filter. Only predicates on discrete values, such as equality and IN predicates,
+     * can eliminate a section using a bloom filter.
+     *
+     * @param column the column of the bloom filter
+     * @param bloomFilter the bloom filter of the column chunk
+     */
+    boolean matches(ColumnDescriptor column, BloomFilter bloomFilter);
 }
@@ -20,11 +20,13 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import io.airlift.slice.Slice;
 import io.airlift.slice.SliceInput;
+import io.prestosql.parquet.BloomFilter;
 import io.prestosql.parquet.DictionaryPage;
 import io.prestosql.parquet.ParquetCorruptionException;
 import io.prestosql.parquet.ParquetDataSource;
 import io.prestosql.parquet.ParquetEncoding;
 import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.parquet.RowRanges;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.type.DecimalType;
 import io.prestosql.spi.type.Type;
@@ -39,11 +41,14 @@ import org.apache.parquet.format.Util;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
 import org.apache.parquet.schema.MessageType;
 import org.joda.time.DateTimeZone;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -53,6 +58,10 @@ import java.util.Set;
 import static com.google.common.base.Verify.verify;
 import static io.prestosql.parquet.ParquetCompressionUtils.decompress;
 import static io.prestosql.parquet.ParquetTypeUtils.getParquetEncoding;
+import static io.prestosql.parquet.reader.MetadataReader.getBloomFilterOffset;
+import static io.prestosql.parquet.reader.MetadataReader.readBloomFilter;
+import static io.prestosql.parquet.reader.MetadataReader.readColumnIndex;
+import static io.prestosql.parquet.reader.MetadataReader.readOffsetIndex;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
 import static io.prestosql.spi.type.SmallintType.SMALLINT;
@@ -122,7 +131,7 @@ public final class PredicateUtils
         return new TupleDomainParquetPredicate(parquetTupleDomain, columnReferences.build(), timeZone);
     }
 
-    public static boolean predicateMatches(Predicate parquetPredicate, BlockMetaData block, ParquetDataSource dataSource, Map<List<String>, RichColumnDescriptor> descriptorsByPath, TupleDomain<ColumnDescriptor> parquetTupleDomain, boolean failOnCorruptedParquetStatistics)
+    public static boolean predicateMatches(Predicate parquetPredicate, BlockMetaData block, ParquetDataSource dataSource, Map<List<String>, RichColumnDescriptor> descriptorsByPath, TupleDomain<ColumnDescriptor> parquetTupleDomain, boolean failOnCorruptedParquetStatistics, boolean useBloomFilter)
             throws ParquetCorruptionException
     {
         Map<ColumnDescriptor, Statistics<?>> columnStatistics = getStatistics(block, descriptorsByPath);
@@ -130,9 +139,83 @@ public final class PredicateUtils
             return false;
         }
 
+        // bloom filters are much smaller than the column chunks read for the dictionary check
+        if (useBloomFilter && !bloomFilterPredicatesMatch(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain)) {
+            return false;
+        }
+
         return dictionaryPredicatesMatch(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain);
     }
 
+    /**
+     * Returns the rows of the block which can match the predicate, based on the page index
+     * (column index and offset index) of the predicate columns. All rows are returned for
+     * columns without a page index.
+     */
+    public static RowRanges getMatchingRowRanges(Predicate parquetPredicate, BlockMetaData block, ParquetDataSource dataSource, Map<List<String>, RichColumnDescriptor> descriptorsByPath, TupleDomain<ColumnDescriptor> parquetTupleDomain, boolean failOnCorruptedParquetStatistics)
+            throws ParquetCorruptionException
+    {
+        RowRanges rowRanges = RowRanges.all(block.getRowCount());
+        for (ColumnChunkMetaData columnMetaData : block.getColumns()) {
+            RichColumnDescriptor descriptor = descriptorsByPath.get(Arrays.asList(columnMetaData.getPath().toArray()));
+            // page boundaries of repeated columns do not map to row ranges of the statistics
+            if (descriptor == null || descriptor.getMaxRepetitionLevel() > 0 || !isColumnPredicate(descriptor, parquetTupleDomain)) {
+                continue;
+            }
+
+            Optional<ColumnIndex> columnIndex;
+            Optional<OffsetIndex> offsetIndex;
+            try {
+                columnIndex = readColumnIndex(dataSource, columnMetaData);
+                offsetIndex = columnIndex.isPresent() ? readOffsetIndex(dataSource, columnMetaData) : Optional.empty();
+            }
+            catch (IOException ignored) {
+                continue;
+            }
+            if (columnIndex.isEmpty() || offsetIndex.isEmpty() || columnIndex.get().getNullPages().size() != offsetIndex.get().getPageCount()) {
+                continue;
+            }
+
+            RowRanges.Builder matchingRows = RowRanges.builder();
+            for (int page = 0; page < offsetIndex.get().getPageCount(); page++) {
+                long firstRow = offsetIndex.get().getFirstRowIndex(page);
+                long lastRow = offsetIndex.get().getLastRowIndex(page, block.getRowCount());
+                long pageRowCount = lastRow - firstRow + 1;
+                Statistics<?> pageStatistics = getPageStatistics(descriptor, columnIndex.get(), page, pageRowCount);
+                if (parquetPredicate.matches(pageRowCount, ImmutableMap.of(descriptor, pageStatistics), dataSource.getId(), failOnCorruptedParquetStatistics)) {
+                    matchingRows.add(firstRow, lastRow + 1);
+                }
+            }
+            rowRanges = rowRanges.intersect(matchingRows.build());
+            if (rowRanges.isEmpty()) {
+                break;
+            }
+        }
+        return rowRanges;
+    }
+
+    private static Statistics<?> getPageStatistics(ColumnDescriptor descriptor, ColumnIndex columnIndex, int page, long pageRowCount)
+    {
+        Statistics.Builder builder = Statistics.getBuilderForReading(descriptor.getPrimitiveType());
+        List<Long> nullCounts = columnIndex.getNullCounts();
+        if (columnIndex.getNullPages().get(page)) {
+            return builder.withNumNulls(pageRowCount).build();
+        }
+        builder.withMin(getBytes(columnIndex.getMinValues().get(page)))
+                .withMax(getBytes(columnIndex.getMaxValues().get(page)));
+        if (nullCounts != null) {
+            builder.withNumNulls(nullCounts.get(page));
+        }
+        return builder.build();
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
     private static Map<ColumnDescriptor, Statistics<?>> getStatistics(BlockMetaData blockMetadata, Map<List<String>, RichColumnDescriptor> descriptorsByPath)
     {
         ImmutableMap.Builder<ColumnDescriptor, Statistics<?>> statistics = ImmutableMap.builder();
@@ -148,6 +231,28 @@ public final class PredicateUtils
         return statistics.build();
     }
 
+    private static boolean bloomFilterPredicatesMatch(Predicate parquetPredicate, BlockMetaData blockMetadata, ParquetDataSource dataSource, Map<List<String>, RichColumnDescriptor> descriptorsByPath, TupleDomain<ColumnDescriptor> parquetTupleDomain)
+    {
+        for (ColumnChunkMetaData columnMetaData : blockMetadata.getColumns()) {
+            RichColumnDescriptor descriptor = descriptorsByPath.get(Arrays.asList(columnMetaData.getPath().toArray()));
+            if (descriptor != null && getBloomFilterOffset(columnMetaData).isPresent() && isColumnPredicate(descriptor, parquetTupleDomain)) {
+                Optional<BloomFilter> bloomFilter;
+                try {
+                    bloomFilter = readBloomFilter(dataSource, columnMetaData);
+                }
+                catch (IOException ignored) {
+                    // OK to ignore a bloom filter that cannot be read, the block is not eliminated
+                    continue;
+                }
+                //  Early abort, predicate already filters block so no more bloom filters need be read
+                if (bloomFilter.isPresent() && !parquetPredicate.matches(descriptor, bloomFilter.get())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     private static boolean dictionaryPredicatesMatch(Predicate parquetPredicate, BlockMetaData blockMetadata, ParquetDataSource dataSource, Map<List<String>, RichColumnDescriptor> descriptorsByPath, TupleDomain<ColumnDescriptor> parquetTupleDomain)
     {
         for (ColumnChunkMetaData columnMetaData : blockMetadata.getColumns()) {
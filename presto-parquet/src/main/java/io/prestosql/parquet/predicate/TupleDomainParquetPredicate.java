@@ -18,6 +18,7 @@ import com.google.common.base.VerifyException;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
+import io.prestosql.parquet.BloomFilter;
 import io.prestosql.parquet.DictionaryPage;
 import io.prestosql.parquet.ParquetCorruptionException;
 import io.prestosql.parquet.ParquetDataSourceId;
@@ -30,6 +31,7 @@ import io.prestosql.spi.predicate.ValueSet;
 import io.prestosql.spi.type.DecimalType;
 import io.prestosql.spi.type.TimestampType;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.VarbinaryType;
 import io.prestosql.spi.type.VarcharType;
 import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.column.statistics.BinaryStatistics;
@@ -39,11 +41,14 @@ import org.apache.parquet.column.statistics.FloatStatistics;
 import org.apache.parquet.column.statistics.IntStatistics;
 import org.apache.parquet.column.statistics.LongStatistics;
 import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.schema.PrimitiveType;
 import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
 import org.joda.time.DateTimeZone;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -55,6 +60,7 @@ import static io.prestosql.plugin.base.type.PrestoTimestampEncoderFactory.create
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.BooleanType.BOOLEAN;
 import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.Decimals.decodeUnscaledValue;
 import static io.prestosql.spi.type.Decimals.encodeScaledValue;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
@@ -62,8 +68,10 @@ import static io.prestosql.spi.type.RealType.REAL;
 import static io.prestosql.spi.type.SmallintType.SMALLINT;
 import static io.prestosql.spi.type.TinyintType.TINYINT;
 import static java.lang.Float.floatToRawIntBits;
+import static java.lang.Float.intBitsToFloat;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
+import static org.apache.parquet.schema.OriginalType.DECIMAL;
 
 public class TupleDomainParquetPredicate
         implements Predicate
@@ -127,6 +135,132 @@ public class TupleDomainParquetPredicate
         return effectivePredicateDomain == null || effectivePredicateMatches(effectivePredicateDomain, dictionary);
     }
 
+    @Override
+    public boolean matches(ColumnDescriptor column, BloomFilter bloomFilter)
+    {
+        requireNonNull(column, "column is null");
+        requireNonNull(bloomFilter, "bloomFilter is null");
+        if (effectivePredicate.isNone()) {
+            return false;
+        }
+        Map<ColumnDescriptor, Domain> effectivePredicateDomains = effectivePredicate.getDomains()
+                .orElseThrow(() -> new IllegalStateException("Effective predicate other than none should have domains"));
+
+        Domain effectivePredicateDomain = effectivePredicateDomains.get(column);
+        if (effectivePredicateDomain == null) {
+            return true;
+        }
+
+        // null values are not recorded in the bloom filter
+        if (effectivePredicateDomain.isNullAllowed()) {
+            return true;
+        }
+
+        // values are not discrete, so we can't exclude this section
+        if (!effectivePredicateDomain.getValues().isDiscreteSet()) {
+            return true;
+        }
+
+        // if none of the discrete predicate values are found in the bloom filter, there is no overlap and the section should be skipped
+        Type type = effectivePredicateDomain.getType();
+        PrimitiveType columnType = column.getPrimitiveType();
+        return effectivePredicateDomain.getValues().getDiscreteSet().stream()
+                .anyMatch(value -> checkInBloomFilter(bloomFilter, value, type, columnType));
+    }
+
+    // checks whether a value part of the effective predicate is likely to be part of this bloom filter,
+    // which contains the hashes of the plain encoded physical values of the column
+    @VisibleForTesting
+    public static boolean checkInBloomFilter(BloomFilter bloomFilter, Object predicateValue, Type type, PrimitiveType columnType)
+    {
+        PrimitiveTypeName primitiveType = columnType.getPrimitiveTypeName();
+        if ((type.equals(BIGINT) || type.equals(INTEGER) || type.equals(SMALLINT) || type.equals(TINYINT) || type.equals(DATE)) && primitiveType == PrimitiveTypeName.INT64) {
+            return bloomFilter.findHash(BloomFilter.hash(((Number) predicateValue).longValue()));
+        }
+
+        if ((type.equals(BIGINT) || type.equals(INTEGER) || type.equals(SMALLINT) || type.equals(TINYINT) || type.equals(DATE)) && primitiveType == PrimitiveTypeName.INT32) {
+            long value = ((Number) predicateValue).longValue();
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                // the column may be an unsigned integer, so don't rely on the value being out of range
+                return true;
+            }
+            return bloomFilter.findHash(BloomFilter.hash((int) value));
+        }
+
+        if (type.equals(DOUBLE) && primitiveType == PrimitiveTypeName.DOUBLE) {
+            double value = (Double) predicateValue;
+            // 0.0 and -0.0 are equal but have different hashes
+            if (value == 0 || Double.isNaN(value)) {
+                return true;
+            }
+            return bloomFilter.findHash(BloomFilter.hash(value));
+        }
+
+        if (type.equals(REAL) && primitiveType == PrimitiveTypeName.FLOAT) {
+            float value = intBitsToFloat(((Number) predicateValue).intValue());
+            if (value == 0 || Float.isNaN(value)) {
+                return true;
+            }
+            return bloomFilter.findHash(BloomFilter.hash(value));
+        }
+
+        if ((type instanceof VarcharType || type instanceof VarbinaryType) && primitiveType == PrimitiveTypeName.BINARY) {
+            return bloomFilter.findHash(BloomFilter.hash((Slice) predicateValue));
+        }
+
+        if (type instanceof DecimalType) {
+            return checkDecimalInBloomFilter(bloomFilter, predicateValue, (DecimalType) type, columnType);
+        }
+
+        // CHAR is not checked, because values may be stored with trailing spaces which the predicate values do not have.
+        // TIMESTAMP is not checked, because the physical value depends on the encoding (INT96 or INT64 in various units)
+        // and on the time zone adjustment of the writer.
+        return true;
+    }
+
+    private static boolean checkDecimalInBloomFilter(BloomFilter bloomFilter, Object predicateValue, DecimalType type, PrimitiveType columnType)
+    {
+        // the physical values are unscaled, so they can only be compared when the scales match
+        if (columnType.getOriginalType() != DECIMAL || columnType.getDecimalMetadata().getScale() != type.getScale()) {
+            return true;
+        }
+
+        BigInteger unscaledValue;
+        if (type.isShort()) {
+            unscaledValue = BigInteger.valueOf((long) predicateValue);
+        }
+        else {
+            unscaledValue = decodeUnscaledValue((Slice) predicateValue);
+        }
+
+        switch (columnType.getPrimitiveTypeName()) {
+            case INT32:
+                if (unscaledValue.bitLength() >= Integer.SIZE) {
+                    return true;
+                }
+                return bloomFilter.findHash(BloomFilter.hash(unscaledValue.intValue()));
+            case INT64:
+                if (unscaledValue.bitLength() >= Long.SIZE) {
+                    return true;
+                }
+                return bloomFilter.findHash(BloomFilter.hash(unscaledValue.longValue()));
+            case FIXED_LEN_BYTE_ARRAY:
+                // big-endian two's complement, sign extended to the length of the column
+                byte[] bytes = unscaledValue.toByteArray();
+                int length = columnType.getTypeLength();
+                if (bytes.length > length) {
+                    return true;
+                }
+                byte[] padded = new byte[length];
+                Arrays.fill(padded, 0, length - bytes.length, unscaledValue.signum() < 0 ? (byte) -1 : 0);
+                System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+                return bloomFilter.findHash(BloomFilter.hash(Slices.wrappedBuffer(padded)));
+            default:
+                // decimals stored as variable length binary may use a non-minimal encoding
+                return true;
+        }
+    }
+
     private static boolean effectivePredicateMatches(Domain effectivePredicateDomain, DictionaryDescriptor dictionary)
     {
         return effectivePredicateDomain.overlaps(getDomain(effectivePredicateDomain.getType(), dictionary));
@@ -14,7 +14,9 @@
 package io.prestosql.parquet.reader;
 
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
 import io.airlift.slice.Slices;
+import io.prestosql.parquet.BloomFilter;
 import io.prestosql.parquet.ParquetDataSource;
 import org.apache.parquet.CorruptStatistics;
 import org.apache.parquet.column.statistics.BinaryStatistics;
@@ -27,12 +29,16 @@ import org.apache.parquet.format.RowGroup;
 import org.apache.parquet.format.SchemaElement;
 import org.apache.parquet.format.Statistics;
 import org.apache.parquet.format.Type;
+import org.apache.parquet.format.Util;
 import org.apache.parquet.format.converter.ParquetMetadataConverter;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.hadoop.metadata.ColumnPath;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.internal.hadoop.metadata.IndexReference;
 import org.apache.parquet.schema.LogicalTypeAnnotation;
 import org.apache.parquet.schema.MessageType;
 import org.apache.parquet.schema.PrimitiveType;
@@ -52,6 +58,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
 import java.util.Set;
 
 import static io.prestosql.parquet.ParquetValidationUtils.validateParquet;
@@ -67,6 +75,7 @@ public final class MetadataReader
     private static final Slice MAGIC = Slices.utf8Slice("PAR1");
     private static final int POST_SCRIPT_SIZE = Integer.BYTES + MAGIC.length();
     private static final int EXPECTED_FOOTER_SIZE = 16 * 1024;
+    private static final int BLOOM_FILTER_HEADER_SIZE_ESTIMATE = 64;
     private static final ParquetMetadataConverter PARQUET_METADATA_CONVERTER = new ParquetMetadataConverter();
 
     private MetadataReader() {}
@@ -145,6 +154,11 @@ public final class MetadataReader
                             metaData.num_values,
                             metaData.total_compressed_size,
                             metaData.total_uncompressed_size);
+                    if (metaData.isSetBloom_filter_offset()) {
+                        column = new BloomFilterColumnChunkMetaData(column, metaData.getBloom_filter_offset());
+                    }
+                    column.setColumnIndexReference(toColumnIndexReference(columnChunk));
+                    column.setOffsetIndexReference(toOffsetIndexReference(columnChunk));
                     blockMetaData.addColumn(column);
                 }
                 blockMetaData.setPath(filePath);
@@ -162,6 +176,88 @@ public final class MetadataReader
         return new ParquetMetadata(new org.apache.parquet.hadoop.metadata.FileMetaData(messageType, keyValueMetaData, fileMetaData.getCreated_by()), blocks);
     }
 
+    /**
+     * Reads the column index of the column chunk, if the file has one and min/max values are supported for the column type.
+     */
+    public static Optional<ColumnIndex> readColumnIndex(ParquetDataSource dataSource, ColumnChunkMetaData column)
+            throws IOException
+    {
+        IndexReference reference = column.getColumnIndexReference();
+        if (reference == null) {
+            return Optional.empty();
+        }
+        Slice slice = dataSource.readFully(reference.getOffset(), reference.getLength());
+        return Optional.ofNullable(ParquetMetadataConverter.fromParquetColumnIndex(column.getPrimitiveType(), Util.readColumnIndex(slice.getInput())));
+    }
+
+    /**
+     * Reads the offset index of the column chunk, if the file has one.
+     */
+    public static Optional<OffsetIndex> readOffsetIndex(ParquetDataSource dataSource, ColumnChunkMetaData column)
+            throws IOException
+    {
+        IndexReference reference = column.getOffsetIndexReference();
+        if (reference == null) {
+            return Optional.empty();
+        }
+        return Optional.of(readOffsetIndex(dataSource.readFully(reference.getOffset(), reference.getLength())));
+    }
+
+    public static OffsetIndex readOffsetIndex(Slice slice)
+            throws IOException
+    {
+        return ParquetMetadataConverter.fromParquetOffsetIndex(Util.readOffsetIndex(slice.getInput()));
+    }
+
+    /**
+     * Returns the offset of the bloom filter of the column chunk, if the file has one.
+     */
+    public static OptionalLong getBloomFilterOffset(ColumnChunkMetaData column)
+    {
+        if (column instanceof BloomFilterColumnChunkMetaData) {
+            return OptionalLong.of(((BloomFilterColumnChunkMetaData) column).getBloomFilterOffset());
+        }
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Reads the split block bloom filter of the column chunk, if the file has one and it uses
+     * an algorithm, hash and compression supported by the reader.
+     */
+    public static Optional<BloomFilter> readBloomFilter(ParquetDataSource dataSource, ColumnChunkMetaData column)
+            throws IOException
+    {
+        OptionalLong offset = getBloomFilterOffset(column);
+        if (offset.isEmpty()) {
+            return Optional.empty();
+        }
+
+        SliceInput headerInput = dataSource.readFully(offset.getAsLong(), toIntExact(min(BLOOM_FILTER_HEADER_SIZE_ESTIMATE, dataSource.getEstimatedSize() - offset.getAsLong()))).getInput();
+        OptionalInt numBytes = BloomFilter.readBitsetSize(headerInput);
+        if (numBytes.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Slice bitset = dataSource.readFully(offset.getAsLong() + headerInput.position(), numBytes.getAsInt());
+        return Optional.of(new BloomFilter(bitset));
+    }
+
+    private static IndexReference toColumnIndexReference(ColumnChunk columnChunk)
+    {
+        if (columnChunk.isSetColumn_index_offset() && columnChunk.isSetColumn_index_length()) {
+            return new IndexReference(columnChunk.getColumn_index_offset(), columnChunk.getColumn_index_length());
+        }
+        return null;
+    }
+
+    private static IndexReference toOffsetIndexReference(ColumnChunk columnChunk)
+    {
+        if (columnChunk.isSetOffset_index_offset() && columnChunk.isSetOffset_index_length()) {
+            return new IndexReference(columnChunk.getOffset_index_offset(), columnChunk.getOffset_index_length());
+        }
+        return null;
+    }
+
     private static MessageType readParquetSchema(List<SchemaElement> schema)
     {
         Iterator<SchemaElement> schemaIterator = schema.iterator();
@@ -13,6 +13,7 @@
  */
 package io.prestosql.parquet.reader;
 
+import com.google.common.collect.ImmutableList;
 import io.prestosql.parquet.DataPage;
 import io.prestosql.parquet.DataPageV1;
 import io.prestosql.parquet.DataPageV2;
@@ -22,7 +23,10 @@ import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static io.prestosql.parquet.ParquetCompressionUtils.decompress;
 
 class PageReader
@@ -31,12 +35,32 @@ class PageReader
     private final long valueCount;
     private final List<DataPage> compressedPages;
     private final DictionaryPage compressedDictionaryPage;
+    // row indexes of the remaining pages, only known when the column chunk has an offset index
+    private final boolean hasRowIndexes;
+    private final List<Long> firstRowIndexes;
+    private final List<Long> lastRowIndexes;
 
     public PageReader(CompressionCodecName codec, List<DataPage> compressedPages, DictionaryPage compressedDictionaryPage)
     {
+        this(codec, compressedPages, compressedDictionaryPage, Optional.empty(), Optional.empty());
+    }
+
+    public PageReader(
+            CompressionCodecName codec,
+            List<DataPage> compressedPages,
+            DictionaryPage compressedDictionaryPage,
+            Optional<List<Long>> firstRowIndexes,
+            Optional<List<Long>> lastRowIndexes)
+    {
+        checkArgument(firstRowIndexes.isPresent() == lastRowIndexes.isPresent(), "firstRowIndexes and lastRowIndexes must be both present or both absent");
+        firstRowIndexes.ifPresent(indexes -> checkArgument(indexes.size() == compressedPages.size(), "firstRowIndexes does not match the number of pages"));
+        lastRowIndexes.ifPresent(indexes -> checkArgument(indexes.size() == compressedPages.size(), "lastRowIndexes does not match the number of pages"));
         this.codec = codec;
         this.compressedPages = new LinkedList<>(compressedPages);
         this.compressedDictionaryPage = compressedDictionaryPage;
+        this.hasRowIndexes = firstRowIndexes.isPresent();
+        this.firstRowIndexes = new LinkedList<>(firstRowIndexes.orElse(ImmutableList.of()));
+        this.lastRowIndexes = new LinkedList<>(lastRowIndexes.orElse(ImmutableList.of()));
         int count = 0;
         for (DataPage page : compressedPages) {
             count += page.getValueCount();
@@ -49,12 +73,53 @@ class PageReader
         return valueCount;
     }
 
+    /**
+     * Pages start at row boundaries and their row indexes are known when the column chunk
+     * has an offset index. In that case pages which do not contain any of the rows to be read
+     * may have been removed, and the row index of the next page must be used to position the reader.
+     */
+    public boolean hasRowIndexes()
+    {
+        return hasRowIndexes;
+    }
+
+    public int getRemainingPageCount()
+    {
+        return compressedPages.size();
+    }
+
+    public boolean hasNextPage()
+    {
+        return !compressedPages.isEmpty();
+    }
+
+    public long getNextPageFirstRowIndex()
+    {
+        checkState(hasRowIndexes() && hasNextPage(), "row index of the next page is not available");
+        return firstRowIndexes.get(0);
+    }
+
+    public long getNextPageLastRowIndex()
+    {
+        checkState(hasRowIndexes() && hasNextPage(), "row index of the next page is not available");
+        return lastRowIndexes.get(0);
+    }
+
+    /**
+     * Skips the next page without decompressing it, and returns its value count.
+     */
+    public int skipNextPage()
+    {
+        checkState(hasNextPage(), "no more pages");
+        return removeNextPage().getValueCount();
+    }
+
     public DataPage readPage()
     {
         if (compressedPages.isEmpty()) {
             return null;
         }
-        DataPage compressedPage = compressedPages.remove(0);
+        DataPage compressedPage = removeNextPage();
         try {
             if (compressedPage instanceof DataPageV1) {
                 DataPageV1 dataPageV1 = (DataPageV1) compressedPage;
@@ -92,6 +157,15 @@ class PageReader
         }
     }
 
+    private DataPage removeNextPage()
+    {
+        if (hasRowIndexes) {
+            firstRowIndexes.remove(0);
+            lastRowIndexes.remove(0);
+        }
+        return compressedPages.remove(0);
+    }
+
     public DictionaryPage readDictionaryPage()
     {
         if (compressedDictionaryPage == null) {
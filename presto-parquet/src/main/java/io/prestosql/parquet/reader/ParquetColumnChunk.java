@@ -13,6 +13,7 @@
  */
 package io.prestosql.parquet.reader;
 
+import com.google.common.collect.ImmutableList;
 import io.airlift.slice.BasicSliceInput;
 import io.airlift.slice.Slice;
 import io.prestosql.parquet.DataPage;
@@ -20,12 +21,14 @@ import io.prestosql.parquet.DataPageV1;
 import io.prestosql.parquet.DataPageV2;
 import io.prestosql.parquet.DictionaryPage;
 import io.prestosql.parquet.ParquetCorruptionException;
+import io.prestosql.parquet.RowRanges;
 import org.apache.parquet.column.Encoding;
 import org.apache.parquet.format.DataPageHeader;
 import org.apache.parquet.format.DataPageHeaderV2;
 import org.apache.parquet.format.DictionaryPageHeader;
 import org.apache.parquet.format.PageHeader;
 import org.apache.parquet.format.Util;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -61,6 +64,46 @@ public class ParquetColumnChunk
             throws IOException
     {
         List<DataPage> pages = new ArrayList<>();
+        DictionaryPage dictionaryPage = readPages(pages);
+        return new PageReader(descriptor.getColumnChunkMetaData().getCodec(), pages, dictionaryPage);
+    }
+
+    /**
+     * Reads the pages which contain any of the rows in {@code rowRanges}. The other pages
+     * are dropped without being decompressed.
+     */
+    public PageReader readPages(OffsetIndex offsetIndex, RowRanges rowRanges, long rowGroupRowCount)
+            throws IOException
+    {
+        List<DataPage> pages = new ArrayList<>();
+        DictionaryPage dictionaryPage = readPages(pages);
+        if (pages.size() != offsetIndex.getPageCount()) {
+            throw new ParquetCorruptionException("%s has %s data pages, but the offset index has %s pages", descriptor.getColumnDescriptor(), pages.size(), offsetIndex.getPageCount());
+        }
+
+        ImmutableList.Builder<DataPage> matchingPages = ImmutableList.builder();
+        ImmutableList.Builder<Long> firstRowIndexes = ImmutableList.builder();
+        ImmutableList.Builder<Long> lastRowIndexes = ImmutableList.builder();
+        for (int page = 0; page < pages.size(); page++) {
+            long firstRowIndex = offsetIndex.getFirstRowIndex(page);
+            long lastRowIndex = offsetIndex.getLastRowIndex(page, rowGroupRowCount);
+            if (rowRanges.overlaps(firstRowIndex, lastRowIndex + 1)) {
+                matchingPages.add(pages.get(page));
+                firstRowIndexes.add(firstRowIndex);
+                lastRowIndexes.add(lastRowIndex);
+            }
+        }
+        return new PageReader(
+                descriptor.getColumnChunkMetaData().getCodec(),
+                matchingPages.build(),
+                dictionaryPage,
+                Optional.of(firstRowIndexes.build()),
+                Optional.of(lastRowIndexes.build()));
+    }
+
+    private DictionaryPage readPages(List<DataPage> pages)
+            throws IOException
+    {
         DictionaryPage dictionaryPage = null;
         long valueCount = 0;
         while (valueCount < descriptor.getColumnChunkMetaData().getValueCount()) {
@@ -85,7 +128,7 @@ public class ParquetColumnChunk
                     break;
             }
         }
-        return new PageReader(descriptor.getColumnChunkMetaData().getCodec(), pages, dictionaryPage);
+        return dictionaryPage;
     }
 
     private Slice getSlice(int size)
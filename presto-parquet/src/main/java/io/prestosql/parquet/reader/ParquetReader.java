@@ -13,8 +13,11 @@
  */
 package io.prestosql.parquet.reader;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.slice.Slice;
 import io.prestosql.memory.context.AggregatedMemoryContext;
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.parquet.ChunkKey;
 import io.prestosql.parquet.ChunkReader;
 import io.prestosql.parquet.DiskRange;
@@ -25,6 +28,7 @@ import io.prestosql.parquet.ParquetDataSource;
 import io.prestosql.parquet.ParquetReaderOptions;
 import io.prestosql.parquet.PrimitiveField;
 import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.parquet.RowRanges;
 import io.prestosql.spi.block.ArrayBlock;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.RowBlock;
@@ -42,6 +46,8 @@ import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.internal.hadoop.metadata.IndexReference;
 import org.apache.parquet.io.MessageColumnIO;
 import org.apache.parquet.io.PrimitiveColumnIO;
 import org.joda.time.DateTimeZone;
@@ -55,6 +61,8 @@ import java.util.Map;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.prestosql.parquet.ParquetValidationUtils.validateParquet;
 import static io.prestosql.parquet.reader.ListColumnReader.calculateCollectionOffsets;
 import static java.lang.Math.max;
@@ -71,6 +79,7 @@ public class ParquetReader
 
     private final Optional<String> fileCreatedBy;
     private final List<BlockMetaData> blocks;
+    private final List<RowRanges> blockRowRanges;
     private final List<PrimitiveColumnIO> columns;
     private final ParquetDataSource dataSource;
     private final DateTimeZone timeZone;
@@ -78,6 +87,8 @@ public class ParquetReader
 
     private int currentRowGroup = -1;
     private BlockMetaData currentBlockMetadata;
+    private RowRanges currentRowRanges;
+    private int currentRange;
     private long currentGroupRowCount;
     private long nextRowInGroup;
     private int batchSize;
@@ -90,6 +101,14 @@ public class ParquetReader
 
     private AggregatedMemoryContext currentRowGroupMemoryContext;
     private final Map<ChunkKey, ChunkReader> chunkReaders;
+    private final List<List<DiskRange>> rowGroupDiskRanges;
+    private final LocalMemoryContext dataSourceMemoryUsage;
+    // row group whose column chunks are read ahead by the data source
+    private int readAheadRowGroup = -1;
+    private ListenableFuture<?> readAheadFuture = immediateFuture(null);
+    // offset indexes of the columns of the current row group, only read when some rows of the row group are skipped
+    private Optional<OffsetIndex[]> currentOffsetIndexes = Optional.empty();
+    private long skippedPageCount;
 
     public ParquetReader(
             Optional<String> fileCreatedBy,
@@ -100,10 +119,40 @@ public class ParquetReader
             AggregatedMemoryContext systemMemoryContext,
             ParquetReaderOptions options)
             throws IOException
+    {
+        this(
+                fileCreatedBy,
+                messageColumnIO,
+                blocks,
+                blocks.stream()
+                        .map(block -> RowRanges.all(block.getRowCount()))
+                        .collect(toImmutableList()),
+                dataSource,
+                timeZone,
+                systemMemoryContext,
+                options);
+    }
+
+    /**
+     * @param blockRowRanges the rows to read from each of the blocks, e.g. the rows matching the page index
+     * of the predicate columns; pages which do not contain any of these rows are not decompressed
+     */
+    public ParquetReader(
+            Optional<String> fileCreatedBy,
+            MessageColumnIO messageColumnIO,
+            List<BlockMetaData> blocks,
+            List<RowRanges> blockRowRanges,
+            ParquetDataSource dataSource,
+            DateTimeZone timeZone,
+            AggregatedMemoryContext systemMemoryContext,
+            ParquetReaderOptions options)
+            throws IOException
     {
         this.fileCreatedBy = requireNonNull(fileCreatedBy, "fileCreatedBy is null");
         this.columns = requireNonNull(messageColumnIO, "messageColumnIO is null").getLeaves();
         this.blocks = requireNonNull(blocks, "blocks is null");
+        this.blockRowRanges = ImmutableList.copyOf(requireNonNull(blockRowRanges, "blockRowRanges is null"));
+        checkArgument(blocks.size() == blockRowRanges.size(), "blocks and blockRowRanges do not match");
         this.dataSource = requireNonNull(dataSource, "dataSource is null");
         this.timeZone = requireNonNull(timeZone, "timeZone is null");
         this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
@@ -113,17 +162,23 @@ public class ParquetReader
         this.maxBytesPerCell = new long[columns.size()];
 
         Map<ChunkKey, DiskRange> ranges = new HashMap<>();
+        ImmutableList.Builder<List<DiskRange>> rowGroupDiskRanges = ImmutableList.builder();
         for (int rowGroup = 0; rowGroup < blocks.size(); rowGroup++) {
             BlockMetaData metadata = blocks.get(rowGroup);
+            ImmutableList.Builder<DiskRange> rowGroupRanges = ImmutableList.builder();
             for (PrimitiveColumnIO column : columns) {
                 int columnId = column.getId();
                 ColumnChunkMetaData chunkMetadata = getColumnChunkMetaData(metadata, column.getColumnDescriptor());
                 DiskRange range = new DiskRange(chunkMetadata.getStartingPos(), toIntExact(chunkMetadata.getTotalSize()));
                 ranges.put(new ChunkKey(columnId, rowGroup), range);
+                rowGroupRanges.add(range);
             }
+            rowGroupDiskRanges.add(rowGroupRanges.build());
         }
 
         this.chunkReaders = dataSource.planRead(ranges);
+        this.rowGroupDiskRanges = rowGroupDiskRanges.build();
+        this.dataSourceMemoryUsage = systemMemoryContext.newLocalMemoryContext(ParquetDataSource.class.getSimpleName());
     }
 
     @Override
@@ -132,18 +187,33 @@ public class ParquetReader
     {
         freeCurrentRowGroupBuffers();
         currentRowGroupMemoryContext.close();
+        dataSourceMemoryUsage.close();
         dataSource.close();
     }
 
     public int nextBatch()
     {
-        if (nextRowInGroup >= currentGroupRowCount && !advanceToNextRowGroup()) {
-            return -1;
+        while (nextRowInGroup >= currentGroupRowCount) {
+            if (!advanceToNextRowGroup()) {
+                return -1;
+            }
+        }
+
+        if (nextRowInGroup >= currentRowRanges.getRangeEnd(currentRange)) {
+            currentRange++;
+        }
+        long rangeStart = currentRowRanges.getRangeStart(currentRange);
+        if (nextRowInGroup < rangeStart) {
+            // rows between the ranges are skipped in the same way as rows of batches which were not loaded
+            int skippedRows = toIntExact(rangeStart - nextRowInGroup);
+            Arrays.stream(columnReaders)
+                    .forEach(reader -> reader.prepareNextRead(skippedRows));
+            nextRowInGroup = rangeStart;
         }
 
         batchSize = min(nextBatchSize, maxBatchSize);
         nextBatchSize = min(batchSize * BATCH_SIZE_GROWTH_FACTOR, MAX_VECTOR_LENGTH);
-        batchSize = toIntExact(min(batchSize, currentGroupRowCount - nextRowInGroup));
+        batchSize = toIntExact(min(batchSize, currentRowRanges.getRangeEnd(currentRange) - nextRowInGroup));
 
         nextRowInGroup += batchSize;
         Arrays.stream(columnReaders)
@@ -151,6 +221,39 @@ public class ParquetReader
         return batchSize;
     }
 
+    /**
+     * Returns a future that is done when the next batch can be read without waiting for the data
+     * source. When the data source supports read ahead, the column chunks of a row group are read
+     * in the background while the previous row group is read, so only the first batch of a row
+     * group can block.
+     */
+    public ListenableFuture<?> isBlocked()
+    {
+        if (readAheadRowGroup < 0) {
+            readAhead(0);
+        }
+        // the next batch is read from the current row group
+        if (nextRowInGroup < currentGroupRowCount) {
+            return immediateFuture(null);
+        }
+        return readAheadFuture;
+    }
+
+    private void readAhead(int rowGroup)
+    {
+        // row groups without rows to read are skipped, so their column chunks are not read
+        while (rowGroup < blocks.size() && blockRowRanges.get(rowGroup).isEmpty()) {
+            rowGroup++;
+        }
+        readAheadRowGroup = rowGroup;
+        if (rowGroup < blocks.size()) {
+            readAheadFuture = dataSource.readAhead(rowGroupDiskRanges.get(rowGroup));
+        }
+        else {
+            readAheadFuture = immediateFuture(null);
+        }
+    }
+
     private boolean advanceToNextRowGroup()
     {
         currentRowGroupMemoryContext.close();
@@ -162,13 +265,37 @@ public class ParquetReader
             return false;
         }
         currentBlockMetadata = blocks.get(currentRowGroup);
+        currentRowRanges = blockRowRanges.get(currentRowGroup);
+        currentRange = 0;
+        currentOffsetIndexes = Optional.empty();
 
         nextRowInGroup = 0L;
-        currentGroupRowCount = currentBlockMetadata.getRowCount();
+        // row groups without rows to read are skipped
+        currentGroupRowCount = currentRowRanges.isEmpty() ? 0 : currentRowRanges.getRangeEnd(currentRowRanges.getRangeCount() - 1);
+        if (currentGroupRowCount > 0) {
+            if (readAheadRowGroup < currentRowGroup) {
+                readAhead(currentRowGroup);
+            }
+            readAhead(currentRowGroup + 1);
+            dataSourceMemoryUsage.setBytes(dataSource.getRetainedSize());
+            loadCurrentRowGroupChunks();
+        }
         initializeColumnReaders();
         return true;
     }
 
+    private void loadCurrentRowGroupChunks()
+    {
+        ImmutableList.Builder<ChunkReader> chunks = ImmutableList.builder();
+        for (int column = 0; column < columns.size(); column++) {
+            ChunkReader reader = chunkReaders.get(new ChunkKey(column, currentRowGroup));
+            if (reader != null) {
+                chunks.add(reader);
+            }
+        }
+        dataSource.loadChunks(chunks.build());
+    }
+
     private void freeCurrentRowGroupBuffers()
     {
         if (currentRowGroup < 0) {
@@ -257,7 +384,7 @@ public class ParquetReader
 
             ColumnChunkDescriptor descriptor = new ColumnChunkDescriptor(columnDescriptor, metadata);
             ParquetColumnChunk columnChunk = new ParquetColumnChunk(fileCreatedBy, descriptor, data);
-            columnReader.setPageReader(columnChunk.readAllPages());
+            columnReader.setPageReader(readPages(columnChunk, fieldId));
         }
         ColumnChunk columnChunk = columnReader.readPrimitive(field);
 
@@ -272,6 +399,67 @@ public class ParquetReader
         return columnChunk;
     }
 
+    private PageReader readPages(ParquetColumnChunk columnChunk, int fieldId)
+            throws IOException
+    {
+        if (currentRowRanges.getRowCount() == currentBlockMetadata.getRowCount()) {
+            return columnChunk.readAllPages();
+        }
+
+        if (currentOffsetIndexes.isEmpty()) {
+            currentOffsetIndexes = Optional.of(readOffsetIndexes());
+        }
+        OffsetIndex offsetIndex = currentOffsetIndexes.get()[fieldId];
+        if (offsetIndex == null) {
+            // without an offset index the skipped rows are decoded and discarded
+            return columnChunk.readAllPages();
+        }
+        PageReader pageReader = columnChunk.readPages(offsetIndex, currentRowRanges, currentBlockMetadata.getRowCount());
+        skippedPageCount += offsetIndex.getPageCount() - pageReader.getRemainingPageCount();
+        return pageReader;
+    }
+
+    private OffsetIndex[] readOffsetIndexes()
+            throws IOException
+    {
+        OffsetIndex[] offsetIndexes = new OffsetIndex[columns.size()];
+        IndexReference[] references = new IndexReference[columns.size()];
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (PrimitiveColumnIO column : columns) {
+            IndexReference reference = getColumnChunkMetaData(currentBlockMetadata, column.getColumnDescriptor()).getOffsetIndexReference();
+            if (reference != null) {
+                references[column.getId()] = reference;
+                start = min(start, reference.getOffset());
+                end = max(end, reference.getOffset() + reference.getLength());
+            }
+        }
+        if (start > end) {
+            return offsetIndexes;
+        }
+
+        // the offset indexes of a row group are usually stored together, so read them at once
+        Optional<Slice> buffer = Optional.empty();
+        if (end - start <= options.getMaxBufferSize().toBytes()) {
+            buffer = Optional.of(dataSource.readFully(start, toIntExact(end - start)));
+        }
+        for (int column = 0; column < references.length; column++) {
+            IndexReference reference = references[column];
+            if (reference == null) {
+                continue;
+            }
+            Slice slice;
+            if (buffer.isPresent()) {
+                slice = buffer.get().slice(toIntExact(reference.getOffset() - start), reference.getLength());
+            }
+            else {
+                slice = dataSource.readFully(reference.getOffset(), reference.getLength());
+            }
+            offsetIndexes[column] = MetadataReader.readOffsetIndex(slice);
+        }
+        return offsetIndexes;
+    }
+
     private ColumnChunkMetaData getColumnChunkMetaData(BlockMetaData blockMetaData, ColumnDescriptor columnDescriptor)
             throws IOException
     {
@@ -325,4 +513,12 @@ public class ParquetReader
     {
         return systemMemoryContext;
     }
+
+    /**
+     * Returns the number of pages which were not decompressed, because none of their rows are read.
+     */
+    public long getSkippedPageCount()
+    {
+        return skippedPageCount;
+    }
 }
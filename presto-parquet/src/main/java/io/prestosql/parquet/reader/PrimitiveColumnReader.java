@@ -47,6 +47,7 @@ import static io.prestosql.parquet.ValuesType.DEFINITION_LEVEL;
 import static io.prestosql.parquet.ValuesType.REPETITION_LEVEL;
 import static io.prestosql.parquet.ValuesType.VALUES;
 import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
+import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
 public abstract class PrimitiveColumnReader
@@ -68,6 +69,8 @@ public abstract class PrimitiveColumnReader
     private DataPage page;
     private int remainingValueCountInPage;
     private int readOffset;
+    // row index of the next row in the row group, only maintained when the page reader has row indexes
+    private long nextRowIndex;
 
     protected abstract void readValue(BlockBuilder blockBuilder, Type type);
 
@@ -160,6 +163,7 @@ public abstract class PrimitiveColumnReader
         IntList definitionLevels = new IntArrayList();
         IntList repetitionLevels = new IntArrayList();
         seek();
+        long firstRowIndex = nextRowIndex;
         BlockBuilder blockBuilder = field.getType().createBlockBuilder(null, nextBatchSize);
         int valueCount = 0;
         while (valueCount < nextBatchSize) {
@@ -167,31 +171,35 @@ public abstract class PrimitiveColumnReader
                 readNextPage();
             }
             int valuesToRead = Math.min(remainingValueCountInPage, nextBatchSize - valueCount);
-            readValues(blockBuilder, valuesToRead, field.getType(), definitionLevels, repetitionLevels);
-            valueCount += valuesToRead;
+            valueCount += readValues(blockBuilder, valuesToRead, field.getType(), definitionLevels, repetitionLevels);
         }
         checkArgument(valueCount == nextBatchSize, "valueCount %s not equals to batchSize %s", valueCount, nextBatchSize);
+        verify(!pageReader.hasRowIndexes() || nextRowIndex == firstRowIndex + nextBatchSize, "rows %s to %s are not contiguous in column %s", firstRowIndex, nextRowIndex, columnDescriptor);
 
         readOffset = 0;
         nextBatchSize = 0;
         return new ColumnChunk(blockBuilder.build(), definitionLevels.toIntArray(), repetitionLevels.toIntArray());
     }
 
-    private void readValues(BlockBuilder blockBuilder, int valuesToRead, Type type, IntList definitionLevels, IntList repetitionLevels)
+    private int readValues(BlockBuilder blockBuilder, int valuesToRead, Type type, IntList definitionLevels, IntList repetitionLevels)
     {
-        processValues(valuesToRead, () -> {
+        return processValues(valuesToRead, () -> {
             readValue(blockBuilder, type);
             definitionLevels.add(definitionLevel);
             repetitionLevels.add(repetitionLevel);
         });
     }
 
-    private void skipValues(int valuesToRead)
+    private int skipValues(int valuesToRead)
     {
-        processValues(valuesToRead, this::skipValue);
+        return processValues(valuesToRead, this::skipValue);
     }
 
-    private void processValues(int valuesToRead, Runnable valueReader)
+    /**
+     * Returns the number of processed rows, which is less than {@code valuesToRead} when the end of the page
+     * is reached and the next page is read lazily.
+     */
+    private int processValues(int valuesToRead, Runnable valueReader)
     {
         if (definitionLevel == EMPTY_LEVEL_VALUE && repetitionLevel == EMPTY_LEVEL_VALUE) {
             definitionLevel = definitionReader.readLevel();
@@ -204,8 +212,16 @@ public abstract class PrimitiveColumnReader
                 valueCount++;
                 if (valueCount == remainingValueCountInPage) {
                     updateValueCounts(valueCount);
+                    if (pageReader.hasRowIndexes()) {
+                        // pages start at row boundaries, so the row is complete; the next page may
+                        // not contain the next row, or may be skipped, so it is only read when needed
+                        definitionLevel = EMPTY_LEVEL_VALUE;
+                        repetitionLevel = EMPTY_LEVEL_VALUE;
+                        nextRowIndex += i + 1;
+                        return i + 1;
+                    }
                     if (!readNextPage()) {
-                        return;
+                        return i + 1;
                     }
                     valueCount = 0;
                 }
@@ -215,6 +231,8 @@ public abstract class PrimitiveColumnReader
             while (repetitionLevel != 0);
         }
         updateValueCounts(valueCount);
+        nextRowIndex += valuesToRead;
+        return valuesToRead;
     }
 
     private void seek()
@@ -223,21 +241,46 @@ public abstract class PrimitiveColumnReader
         if (readOffset == 0) {
             return;
         }
+        if (pageReader.hasRowIndexes()) {
+            seekToRow(nextRowIndex + readOffset);
+            return;
+        }
         int valuePosition = 0;
         while (valuePosition < readOffset) {
             if (page == null) {
                 readNextPage();
             }
             int offset = Math.min(remainingValueCountInPage, readOffset - valuePosition);
-            skipValues(offset);
-            valuePosition = valuePosition + offset;
+            valuePosition += skipValues(offset);
         }
         checkArgument(valuePosition == readOffset, "valuePosition %s must be equal to readOffset %s", valuePosition, readOffset);
     }
 
+    private void seekToRow(long rowIndex)
+    {
+        while (nextRowIndex < rowIndex) {
+            if (page == null) {
+                if (pageReader.getNextPageLastRowIndex() < rowIndex) {
+                    // none of the rows of the page are read, so skip it without decompressing
+                    nextRowIndex = pageReader.getNextPageLastRowIndex() + 1;
+                    currentValueCount += pageReader.skipNextPage();
+                    continue;
+                }
+                readNextPage();
+                verify(nextRowIndex <= rowIndex, "page starting at row %s does not contain row %s in column %s", nextRowIndex, rowIndex, columnDescriptor);
+                continue;
+            }
+            skipValues(toIntExact(Math.min(remainingValueCountInPage, rowIndex - nextRowIndex)));
+        }
+        checkArgument(nextRowIndex == rowIndex, "nextRowIndex %s must be equal to rowIndex %s", nextRowIndex, rowIndex);
+    }
+
     private boolean readNextPage()
     {
         verify(page == null, "readNextPage has to be called when page is null");
+        if (pageReader.hasRowIndexes() && pageReader.hasNextPage()) {
+            nextRowIndex = pageReader.getNextPageFirstRowIndex();
+        }
         page = pageReader.readPage();
         if (page == null) {
             // we have read all pages
@@ -0,0 +1,270 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.writer;
+
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.DictionaryPage;
+import org.apache.parquet.column.values.ValuesWriter;
+import org.apache.parquet.io.api.Binary;
+
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
+import static io.airlift.slice.SizeOf.SIZE_OF_DOUBLE;
+import static io.airlift.slice.SizeOf.SIZE_OF_FLOAT;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes the values of a column chunk with a dictionary encoding writer until the dictionary is
+ * converted to plain encoding, and with a plain encoding writer for the rest of the column chunk.
+ * The pages written before the conversion keep the dictionary encoding, so the dictionary page is
+ * still written with the column chunk. Every column chunk starts with dictionary encoding again.
+ * <p>
+ * The writer tracks the plain size of the values written with the dictionary, which together with
+ * the encoded size of the pages and the size of the dictionary gives the dictionary compression ratio.
+ */
+class AdaptiveDictionaryValuesWriter
+        extends ValuesWriter
+{
+    private final ValuesWriter dictionaryWriter;
+    private final ValuesWriter plainWriter;
+    private ValuesWriter currentWriter;
+
+    // allocated size of the dictionary writer without any value, subtracted from the dictionary size estimate
+    private long emptyDictionaryWriterSize;
+
+    // current page
+    private long pageRawBytes;
+    private int pageValueCount;
+
+    // current column chunk
+    private boolean dictionaryEncoded = true;
+    private long dictionaryRawBytes;
+    private long dictionaryEncodedBytes;
+    // dictionary of the pages written before the conversion to plain encoding
+    private long convertedDictionaryBytes;
+
+    // totals over all column chunks, for the writer stats
+    private long totalValueCount;
+    private long totalDictionaryValueCount;
+    private int totalConversions;
+
+    public AdaptiveDictionaryValuesWriter(ValuesWriter dictionaryWriter, ValuesWriter plainWriter)
+    {
+        this.dictionaryWriter = requireNonNull(dictionaryWriter, "dictionaryWriter is null");
+        this.plainWriter = requireNonNull(plainWriter, "plainWriter is null");
+        this.currentWriter = dictionaryWriter;
+        this.emptyDictionaryWriterSize = dictionaryWriter.getAllocatedSize();
+    }
+
+    @Override
+    public void writeBoolean(boolean value)
+    {
+        currentWriter.writeBoolean(value);
+        addValue(SIZE_OF_BYTE);
+    }
+
+    @Override
+    public void writeBytes(Binary value)
+    {
+        currentWriter.writeBytes(value);
+        // plain encoding of a binary value is the length followed by the bytes
+        addValue(SIZE_OF_INT + value.length());
+    }
+
+    @Override
+    public void writeInteger(int value)
+    {
+        currentWriter.writeInteger(value);
+        addValue(SIZE_OF_INT);
+    }
+
+    @Override
+    public void writeLong(long value)
+    {
+        currentWriter.writeLong(value);
+        addValue(SIZE_OF_LONG);
+    }
+
+    @Override
+    public void writeDouble(double value)
+    {
+        currentWriter.writeDouble(value);
+        addValue(SIZE_OF_DOUBLE);
+    }
+
+    @Override
+    public void writeFloat(float value)
+    {
+        currentWriter.writeFloat(value);
+        addValue(SIZE_OF_FLOAT);
+    }
+
+    private void addValue(int rawBytes)
+    {
+        pageRawBytes += rawBytes;
+        pageValueCount++;
+    }
+
+    public boolean isDictionaryEncoded()
+    {
+        return dictionaryEncoded;
+    }
+
+    /**
+     * Estimated size of the dictionary page of the current column chunk. The dictionary writer
+     * retains four bytes for the dictionary id of every value of the current page, which are not
+     * part of the dictionary.
+     */
+    public long getDictionaryBytes()
+    {
+        if (!dictionaryEncoded) {
+            return convertedDictionaryBytes;
+        }
+        long indexBytes = currentWriter == dictionaryWriter ? (long) pageValueCount * SIZE_OF_INT : 0;
+        return max(0, dictionaryWriter.getAllocatedSize() - emptyDictionaryWriterSize - indexBytes);
+    }
+
+    /**
+     * Plain size of the values of the current column chunk written with dictionary encoding
+     */
+    public long getRawBytes()
+    {
+        return dictionaryEncoded ? dictionaryRawBytes + pageRawBytes : dictionaryRawBytes;
+    }
+
+    /**
+     * Plain size of the values of the current column chunk divided by the size of the dictionary
+     * and of the dictionary encoded pages. The values of the current page are not encoded yet,
+     * so only their dictionary entries are accounted for.
+     */
+    public double getCompressionRatio()
+    {
+        checkState(dictionaryEncoded, "column is not dictionary encoded");
+        long encodedBytes = dictionaryEncodedBytes + getDictionaryBytes();
+        if (encodedBytes == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return 1.0 * getRawBytes() / encodedBytes;
+    }
+
+    /**
+     * Writes the rest of the column chunk with plain encoding. Must be called between pages.
+     */
+    public void convertToPlainEncoding()
+    {
+        checkState(dictionaryEncoded, "column is not dictionary encoded");
+        checkState(pageValueCount == 0, "current page is not empty");
+        convertedDictionaryBytes = dictionaryEncodedBytes > 0 ? getDictionaryBytes() : 0;
+        currentWriter = plainWriter;
+        dictionaryEncoded = false;
+        totalConversions++;
+    }
+
+    public long getTotalValueCount()
+    {
+        return totalValueCount;
+    }
+
+    public long getTotalDictionaryValueCount()
+    {
+        return totalDictionaryValueCount;
+    }
+
+    public int getTotalConversions()
+    {
+        return totalConversions;
+    }
+
+    @Override
+    public long getBufferedSize()
+    {
+        return currentWriter.getBufferedSize();
+    }
+
+    @Override
+    public BytesInput getBytes()
+    {
+        long dictionaryBytes = getDictionaryBytes();
+        BytesInput bytes = currentWriter.getBytes();
+        totalValueCount += pageValueCount;
+        // encoding is only known after the page is encoded, since the dictionary writer can fall back to plain encoding on its own
+        if (currentWriter.getEncoding().usesDictionary()) {
+            dictionaryRawBytes += pageRawBytes;
+            dictionaryEncodedBytes += bytes.size();
+            totalDictionaryValueCount += pageValueCount;
+        }
+        else if (dictionaryEncoded) {
+            convertedDictionaryBytes = dictionaryEncodedBytes > 0 ? dictionaryBytes : 0;
+            dictionaryEncoded = false;
+            totalConversions++;
+        }
+        return bytes;
+    }
+
+    @Override
+    public Encoding getEncoding()
+    {
+        return currentWriter.getEncoding();
+    }
+
+    @Override
+    public void reset()
+    {
+        currentWriter.reset();
+        pageRawBytes = 0;
+        pageValueCount = 0;
+    }
+
+    @Override
+    public void close()
+    {
+        dictionaryWriter.close();
+        plainWriter.close();
+    }
+
+    @Override
+    public DictionaryPage toDictPageAndClose()
+    {
+        return dictionaryWriter.toDictPageAndClose();
+    }
+
+    @Override
+    public void resetDictionary()
+    {
+        dictionaryWriter.resetDictionary();
+        plainWriter.resetDictionary();
+        currentWriter = dictionaryWriter;
+        emptyDictionaryWriterSize = dictionaryWriter.getAllocatedSize();
+        dictionaryEncoded = true;
+        dictionaryRawBytes = 0;
+        dictionaryEncodedBytes = 0;
+        convertedDictionaryBytes = 0;
+    }
+
+    @Override
+    public long getAllocatedSize()
+    {
+        return dictionaryWriter.getAllocatedSize() + plainWriter.getAllocatedSize();
+    }
+
+    @Override
+    public String memUsageString(String prefix)
+    {
+        return dictionaryWriter.memUsageString(prefix + " dictionary:") + "\n" + plainWriter.memUsageString(prefix + " plain:");
+    }
+}
@@ -84,6 +84,15 @@ public class ArrayColumnWriter
         return INSTANCE_SIZE + elementWriter.getRetainedBytes();
     }
 
+    @Override
+    public List<ColumnWriter> getNestedColumnWriters()
+    {
+        return ImmutableList.<ColumnWriter>builder()
+                .add(elementWriter)
+                .addAll(elementWriter.getNestedColumnWriters())
+                .build();
+    }
+
     @Override
     public void reset()
     {
@@ -0,0 +1,211 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.writer;
+
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.airlift.slice.XxHash64;
+import io.prestosql.parquet.BloomFilter;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.DictionaryPage;
+import org.apache.parquet.column.values.ValuesWriter;
+import org.apache.parquet.io.api.Binary;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+import static io.prestosql.parquet.writer.ParquetDataOutput.createDataOutput;
+import static java.lang.Math.log;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Records the hashes of the distinct values written to a column chunk, and builds a split block
+ * bloom filter sized for the number of distinct values when the column chunk is flushed. Values are
+ * hashed with XXH64 over their plain encoding, as required by the Parquet format.
+ */
+class BloomFilterValuesWriter
+        extends ValuesWriter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(BloomFilterValuesWriter.class).instanceSize();
+    private static final int MAX_BLOOM_FILTER_BYTES = 1024 * 1024;
+    private static final int BLOOM_FILTER_HEADER_SIZE_ESTIMATE = 32;
+
+    private final ValuesWriter valuesWriter;
+    private final double fpp;
+    private final long maxDistinctValues;
+
+    private final Slice buffer = Slices.allocate(SIZE_OF_LONG);
+    private final LongOpenHashSet hashes = new LongOpenHashSet();
+    // too many distinct values for a bloom filter with the expected false positive probability
+    private boolean overflow;
+
+    public BloomFilterValuesWriter(ValuesWriter valuesWriter, double fpp)
+    {
+        this.valuesWriter = requireNonNull(valuesWriter, "valuesWriter is null");
+        checkArgument(fpp > 0.0 && fpp < 1.0, "fpp must be between 0 and 1");
+        this.fpp = fpp;
+        // inverse of BloomFilter.optimalNumBytes
+        this.maxDistinctValues = (long) (MAX_BLOOM_FILTER_BYTES * 8L * log(2) * log(2) / -log(fpp));
+    }
+
+    @Override
+    public void writeBoolean(boolean value)
+    {
+        valuesWriter.writeBoolean(value);
+    }
+
+    @Override
+    public void writeBytes(Binary value)
+    {
+        valuesWriter.writeBytes(value);
+        addHash(XxHash64.hash(Slices.wrappedBuffer(value.toByteBuffer())));
+    }
+
+    @Override
+    public void writeInteger(int value)
+    {
+        valuesWriter.writeInteger(value);
+        buffer.setInt(0, value);
+        addHash(XxHash64.hash(buffer, 0, Integer.BYTES));
+    }
+
+    @Override
+    public void writeLong(long value)
+    {
+        valuesWriter.writeLong(value);
+        buffer.setLong(0, value);
+        addHash(XxHash64.hash(buffer, 0, Long.BYTES));
+    }
+
+    @Override
+    public void writeDouble(double value)
+    {
+        valuesWriter.writeDouble(value);
+        buffer.setDouble(0, value);
+        addHash(XxHash64.hash(buffer, 0, Double.BYTES));
+    }
+
+    @Override
+    public void writeFloat(float value)
+    {
+        valuesWriter.writeFloat(value);
+        buffer.setFloat(0, value);
+        addHash(XxHash64.hash(buffer, 0, Float.BYTES));
+    }
+
+    private void addHash(long hash)
+    {
+        if (overflow) {
+            return;
+        }
+        hashes.add(hash);
+        if (hashes.size() > maxDistinctValues) {
+            overflow = true;
+            hashes.clear();
+            hashes.trim();
+        }
+    }
+
+    /**
+     * Returns the serialized bloom filter header and bitset for the values written since the last
+     * call to {@link #resetBloomFilter()}, if the column chunk should have a bloom filter.
+     */
+    public Optional<ParquetDataOutput> getBloomFilter()
+            throws IOException
+    {
+        if (overflow || hashes.isEmpty()) {
+            return Optional.empty();
+        }
+
+        BloomFilter bloomFilter = BloomFilter.create(hashes.size(), fpp, MAX_BLOOM_FILTER_BYTES);
+        LongIterator iterator = hashes.iterator();
+        while (iterator.hasNext()) {
+            bloomFilter.insertHash(iterator.nextLong());
+        }
+
+        DynamicSliceOutput output = new DynamicSliceOutput(BLOOM_FILTER_HEADER_SIZE_ESTIMATE + bloomFilter.getBitsetSize());
+        bloomFilter.writeTo(output);
+        return Optional.of(createDataOutput(output.slice()));
+    }
+
+    public void resetBloomFilter()
+    {
+        overflow = false;
+        hashes.clear();
+        hashes.trim();
+    }
+
+    @Override
+    public long getBufferedSize()
+    {
+        return valuesWriter.getBufferedSize();
+    }
+
+    @Override
+    public BytesInput getBytes()
+    {
+        return valuesWriter.getBytes();
+    }
+
+    @Override
+    public Encoding getEncoding()
+    {
+        return valuesWriter.getEncoding();
+    }
+
+    @Override
+    public void reset()
+    {
+        // the bloom filter covers the whole column chunk, so it is not reset with the page
+        valuesWriter.reset();
+    }
+
+    @Override
+    public void close()
+    {
+        valuesWriter.close();
+    }
+
+    @Override
+    public DictionaryPage toDictPageAndClose()
+    {
+        return valuesWriter.toDictPageAndClose();
+    }
+
+    @Override
+    public void resetDictionary()
+    {
+        valuesWriter.resetDictionary();
+    }
+
+    @Override
+    public long getAllocatedSize()
+    {
+        // open addressing hash set with the default load factor
+        return INSTANCE_SIZE + valuesWriter.getAllocatedSize() + hashes.size() * 2L * SIZE_OF_LONG;
+    }
+
+    @Override
+    public String memUsageString(String prefix)
+    {
+        return valuesWriter.memUsageString(prefix);
+    }
+}
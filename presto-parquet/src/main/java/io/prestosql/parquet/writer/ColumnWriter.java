@@ -13,10 +13,12 @@
  */
 package io.prestosql.parquet.writer;
 
+import com.google.common.collect.ImmutableList;
 import org.apache.parquet.format.ColumnMetaData;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
 import static java.util.Objects.requireNonNull;
 
@@ -36,15 +38,30 @@ public interface ColumnWriter
 
     void reset();
 
+    /**
+     * Returns the writers of all columns nested in this column, recursively.
+     */
+    default List<ColumnWriter> getNestedColumnWriters()
+    {
+        return ImmutableList.of();
+    }
+
     class BufferData
     {
         private final ColumnMetaData metaData;
         private final List<ParquetDataOutput> data;
+        private final Optional<ParquetDataOutput> bloomFilter;
 
         public BufferData(List<ParquetDataOutput> data, ColumnMetaData metaData)
+        {
+            this(data, metaData, Optional.empty());
+        }
+
+        public BufferData(List<ParquetDataOutput> data, ColumnMetaData metaData, Optional<ParquetDataOutput> bloomFilter)
         {
             this.data = requireNonNull(data, "data is null");
             this.metaData = requireNonNull(metaData, "metaData is null");
+            this.bloomFilter = requireNonNull(bloomFilter, "bloomFilter is null");
         }
 
         public ColumnMetaData getMetaData()
@@ -56,5 +73,10 @@ public interface ColumnWriter
         {
             return data;
         }
+
+        public Optional<ParquetDataOutput> getBloomFilter()
+        {
+            return bloomFilter;
+        }
     }
 }
@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.writer;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decides which columns of a row group keep dictionary encoding, similar to the ORC
+ * DictionaryCompressionOptimizer. Dictionaries that do not compress the values well enough are
+ * converted to plain encoding as soon as possible, instead of growing until the dictionary page
+ * size limit. When the dictionaries of all columns exceed the memory limit, a row group that is
+ * already large enough is flushed, so the dictionaries can start over; otherwise the least
+ * effective dictionaries are converted to plain encoding until the rest fit.
+ */
+class DictionaryFallbackOptimizer
+{
+    private static final double DICTIONARY_MIN_COMPRESSION_RATIO = 1.25;
+    // the compression ratio of a column is not reliable until enough values have been written
+    private static final DataSize DICTIONARY_MIN_RAW_SIZE = DataSize.of(1, MEGABYTE);
+
+    private final List<PrimitiveColumnWriter> writers;
+    private final long rowGroupMinBytes;
+    private final long dictionaryMemoryMaxBytes;
+
+    public DictionaryFallbackOptimizer(List<ColumnWriter> columnWriters, long rowGroupMaxBytes, long dictionaryMemoryMaxBytes)
+    {
+        requireNonNull(columnWriters, "columnWriters is null");
+        ImmutableList.Builder<ColumnWriter> allColumnWriters = ImmutableList.builder();
+        for (ColumnWriter columnWriter : columnWriters) {
+            allColumnWriters.add(columnWriter).addAll(columnWriter.getNestedColumnWriters());
+        }
+        this.writers = allColumnWriters.build().stream()
+                .filter(PrimitiveColumnWriter.class::isInstance)
+                .map(PrimitiveColumnWriter.class::cast)
+                .filter(writer -> writer.getDictionaryWriter().isPresent())
+                .collect(toImmutableList());
+
+        checkArgument(rowGroupMaxBytes >= 0, "rowGroupMaxBytes is negative");
+        this.rowGroupMinBytes = rowGroupMaxBytes / 2;
+        checkArgument(dictionaryMemoryMaxBytes >= 0, "dictionaryMemoryMaxBytes is negative");
+        this.dictionaryMemoryMaxBytes = dictionaryMemoryMaxBytes;
+    }
+
+    public long getDictionaryMemoryBytes()
+    {
+        return writers.stream()
+                .map(PrimitiveColumnWriter::getDictionaryWriter)
+                .map(Optional::get)
+                .filter(AdaptiveDictionaryValuesWriter::isDictionaryEncoded)
+                .mapToLong(AdaptiveDictionaryValuesWriter::getDictionaryBytes)
+                .sum();
+    }
+
+    /**
+     * Returns true if the row group should be flushed, so the columns can keep dictionary encoding.
+     */
+    public boolean isFull(long bufferedBytes)
+    {
+        return bufferedBytes >= rowGroupMinBytes && getDictionaryMemoryBytes() > dictionaryMemoryMaxBytes;
+    }
+
+    public void optimize(long bufferedBytes)
+            throws IOException
+    {
+        // convert all low compression columns to plain encoding
+        for (PrimitiveColumnWriter writer : writers) {
+            AdaptiveDictionaryValuesWriter dictionaryWriter = writer.getDictionaryWriter().get();
+            if (dictionaryWriter.isDictionaryEncoded() &&
+                    dictionaryWriter.getRawBytes() >= DICTIONARY_MIN_RAW_SIZE.toBytes() &&
+                    dictionaryWriter.getCompressionRatio() < DICTIONARY_MIN_COMPRESSION_RATIO) {
+                writer.convertToPlainEncoding();
+            }
+        }
+
+        // a large row group is flushed instead, see isFull
+        if (bufferedBytes >= rowGroupMinBytes) {
+            return;
+        }
+
+        // convert the columns with the lowest compression ratio until the other dictionaries fit in memory
+        long dictionaryMemoryBytes = getDictionaryMemoryBytes();
+        while (dictionaryMemoryBytes > dictionaryMemoryMaxBytes) {
+            Optional<PrimitiveColumnWriter> columnToConvert = writers.stream()
+                    .filter(writer -> writer.getDictionaryWriter().get().isDictionaryEncoded())
+                    .min(Comparator.comparingDouble(writer -> writer.getDictionaryWriter().get().getCompressionRatio()));
+            if (columnToConvert.isEmpty()) {
+                return;
+            }
+            dictionaryMemoryBytes -= columnToConvert.get().getDictionaryWriter().get().getDictionaryBytes();
+            columnToConvert.get().convertToPlainEncoding();
+        }
+    }
+
+    public long getValueCount()
+    {
+        return writers.stream()
+                .mapToLong(writer -> writer.getDictionaryWriter().get().getTotalValueCount())
+                .sum();
+    }
+
+    public long getDictionaryEncodedValueCount()
+    {
+        return writers.stream()
+                .mapToLong(writer -> writer.getDictionaryWriter().get().getTotalDictionaryValueCount())
+                .sum();
+    }
+
+    public long getDictionaryConversions()
+    {
+        return writers.stream()
+                .mapToLong(writer -> writer.getDictionaryWriter().get().getTotalConversions())
+                .sum();
+    }
+}
@@ -88,6 +88,17 @@ public class MapColumnWriter
         return INSTANCE_SIZE + keyWriter.getRetainedBytes() + valueWriter.getRetainedBytes();
     }
 
+    @Override
+    public List<ColumnWriter> getNestedColumnWriters()
+    {
+        return ImmutableList.<ColumnWriter>builder()
+                .add(keyWriter)
+                .addAll(keyWriter.getNestedColumnWriters())
+                .add(valueWriter)
+                .addAll(valueWriter.getNestedColumnWriters())
+                .build();
+    }
+
     @Override
     public void reset()
     {
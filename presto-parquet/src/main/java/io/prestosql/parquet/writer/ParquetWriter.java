@@ -20,6 +20,7 @@ import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
 import io.prestosql.parquet.writer.ColumnWriter.BufferData;
+import io.prestosql.parquet.writer.ParquetWriterStats.FlushReason;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.type.Type;
 import org.apache.parquet.column.ParquetProperties;
@@ -36,6 +37,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
@@ -44,6 +46,10 @@ import static io.airlift.slice.SizeOf.SIZE_OF_INT;
 import static io.airlift.slice.Slices.wrappedBuffer;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.parquet.writer.ParquetDataOutput.createDataOutput;
+import static io.prestosql.parquet.writer.ParquetWriterStats.FlushReason.CLOSED;
+import static io.prestosql.parquet.writer.ParquetWriterStats.FlushReason.DICTIONARY_FULL;
+import static io.prestosql.parquet.writer.ParquetWriterStats.FlushReason.MAX_BYTES;
+import static java.lang.Math.ceil;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
@@ -63,6 +69,8 @@ public class ParquetWriter
     private final OutputStreamSliceOutput outputStream;
     private final ParquetWriterOptions writerOption;
     private final MessageType messageType;
+    private final DictionaryFallbackOptimizer dictionaryOptimizer;
+    private final ParquetWriterStats stats;
 
     private final int chunkMaxLogicalBytes;
 
@@ -81,19 +89,34 @@ public class ParquetWriter
             Map<List<String>, Type> primitiveTypes,
             ParquetWriterOptions writerOption,
             CompressionCodecName compressionCodecName)
+    {
+        this(outputStream, messageType, primitiveTypes, writerOption, compressionCodecName, new ParquetWriterStats());
+    }
+
+    public ParquetWriter(
+            OutputStream outputStream,
+            MessageType messageType,
+            Map<List<String>, Type> primitiveTypes,
+            ParquetWriterOptions writerOption,
+            CompressionCodecName compressionCodecName,
+            ParquetWriterStats stats)
     {
         this.outputStream = new OutputStreamSliceOutput(requireNonNull(outputStream, "outputstream is null"));
         this.messageType = requireNonNull(messageType, "messageType is null");
         requireNonNull(primitiveTypes, "primitiveTypes is null");
         this.writerOption = requireNonNull(writerOption, "writerOption is null");
         requireNonNull(compressionCodecName, "compressionCodecName is null");
+        this.stats = requireNonNull(stats, "stats is null");
 
+        // the dictionaries of all columns share the dictionary memory, see DictionaryFallbackOptimizer
         ParquetProperties parquetProperties = ParquetProperties.builder()
                 .withWriterVersion(PARQUET_2_0)
                 .withPageSize(writerOption.getMaxPageSize())
+                .withDictionaryPageSize(writerOption.getMaxDictionaryMemory())
                 .build();
 
-        this.columnWriters = ParquetWriters.getColumnWriters(messageType, primitiveTypes, parquetProperties, compressionCodecName);
+        this.columnWriters = ParquetWriters.getColumnWriters(messageType, primitiveTypes, parquetProperties, compressionCodecName, writerOption);
+        this.dictionaryOptimizer = new DictionaryFallbackOptimizer(columnWriters, writerOption.getMaxRowGroupSize(), writerOption.getMaxDictionaryMemory());
 
         this.chunkMaxLogicalBytes = max(1, CHUNK_MAX_BYTES / 2);
     }
@@ -128,6 +151,13 @@ public class ParquetWriter
 
         while (page != null) {
             int chunkRows = min(page.getPositionCount(), DEFAULT_ROW_GROUP_MAX_ROW_COUNT);
+
+            // end the chunk near the row group size limit, based on the average size of the buffered rows
+            if (rows > 0 && bufferedBytes > 0) {
+                double bytesPerRow = 1.0 * bufferedBytes / rows;
+                long remainingRows = (long) ceil((writerOption.getMaxRowGroupSize() - bufferedBytes) / bytesPerRow);
+                chunkRows = toIntExact(max(1, min(chunkRows, remainingRows)));
+            }
             Page chunk = page.getRegion(0, chunkRows);
 
             // avoid chunk with huge logical size
@@ -151,23 +181,38 @@ public class ParquetWriter
     private void writeChunk(Page page)
             throws IOException
     {
-        bufferedBytes = 0;
         for (int channel = 0; channel < page.getChannelCount(); channel++) {
             ColumnWriter writer = columnWriters.get(channel);
             writer.writeBlock(new ColumnChunk(page.getBlock(channel)));
-            bufferedBytes += writer.getBufferedBytes();
         }
         rows += page.getPositionCount();
 
+        dictionaryOptimizer.optimize(getColumnBufferedBytes());
+        bufferedBytes = getColumnBufferedBytes();
+
         if (bufferedBytes >= writerOption.getMaxRowGroupSize()) {
-            columnWriters.forEach(ColumnWriter::close);
-            flush();
-            columnWriters.forEach(ColumnWriter::reset);
-            rows = 0;
-            bufferedBytes = columnWriters.stream().mapToLong(ColumnWriter::getBufferedBytes).sum();
+            flushRowGroup(MAX_BYTES);
+        }
+        else if (dictionaryOptimizer.isFull(bufferedBytes)) {
+            flushRowGroup(DICTIONARY_FULL);
         }
     }
 
+    private long getColumnBufferedBytes()
+    {
+        return columnWriters.stream().mapToLong(ColumnWriter::getBufferedBytes).sum();
+    }
+
+    private void flushRowGroup(FlushReason flushReason)
+            throws IOException
+    {
+        columnWriters.forEach(ColumnWriter::close);
+        flush(flushReason);
+        columnWriters.forEach(ColumnWriter::reset);
+        rows = 0;
+        bufferedBytes = getColumnBufferedBytes();
+    }
+
     @Override
     public void close()
             throws IOException
@@ -178,9 +223,11 @@ public class ParquetWriter
         closed = true;
         columnWriters.forEach(ColumnWriter::close);
 
-        flush();
+        flush(CLOSED);
         writeFooter();
         outputStream.close();
+
+        stats.recordDictionaryEncoding(dictionaryOptimizer.getValueCount(), dictionaryOptimizer.getDictionaryEncodedValueCount(), dictionaryOptimizer.getDictionaryConversions());
     }
 
     // Parquet File Layout:
@@ -190,9 +237,11 @@ public class ParquetWriter
     // variable: Metadata
     // 4 bytes: MetadataLength
     // MAGIC
-    private void flush()
+    private void flush(FlushReason flushReason)
             throws IOException
     {
+        long dictionaryBytes = dictionaryOptimizer.getDictionaryMemoryBytes();
+
         // write header
         if (!writeHeader) {
             createDataOutput(MAGIC).writeData(outputStream);
@@ -211,13 +260,27 @@ public class ParquetWriter
         List<ColumnMetaData> metadatas = bufferDataList.stream()
                 .map(BufferData::getMetaData)
                 .collect(toImmutableList());
-        updateRowGroups(updateColumnMetadataOffset(metadatas, stripeStartOffset));
+        List<ColumnMetaData> columnMetaData = updateColumnMetadataOffset(metadatas, stripeStartOffset);
 
         // flush pages
         bufferDataList.stream()
                 .map(BufferData::getData)
                 .flatMap(List::stream)
                 .forEach(data -> data.writeData(outputStream));
+
+        // bloom filters are written after the column chunks of the row group
+        for (int i = 0; i < bufferDataList.size(); i++) {
+            Optional<ParquetDataOutput> bloomFilter = bufferDataList.get(i).getBloomFilter();
+            if (bloomFilter.isPresent()) {
+                columnMetaData.get(i).setBloom_filter_offset(outputStream.size());
+                bloomFilter.get().writeData(outputStream);
+            }
+        }
+        updateRowGroups(columnMetaData);
+
+        long rowGroupBytes = columnMetaData.stream().mapToLong(ColumnMetaData::getTotal_compressed_size).sum();
+        long rowGroupUncompressedBytes = columnMetaData.stream().mapToLong(ColumnMetaData::getTotal_uncompressed_size).sum();
+        stats.recordRowGroupWritten(flushReason, rowGroupBytes, rows, dictionaryBytes, rowGroupUncompressedBytes);
     }
 
     private void writeFooter()
@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.writer;
+
+import io.airlift.stats.DistributionStat;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+public class ParquetWriterFlushStats
+{
+    private final String name;
+    private final DistributionStat rowGroupBytes = new DistributionStat();
+    private final DistributionStat rowGroupRows = new DistributionStat();
+    private final DistributionStat dictionaryBytes = new DistributionStat();
+
+    public ParquetWriterFlushStats(String name)
+    {
+        this.name = name;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getRowGroupBytes()
+    {
+        return rowGroupBytes;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getRowGroupRows()
+    {
+        return rowGroupRows;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getDictionaryBytes()
+    {
+        return dictionaryBytes;
+    }
+
+    public void recordRowGroupWritten(long rowGroupBytes, int rowGroupRows, long dictionaryBytes)
+    {
+        this.rowGroupBytes.add(rowGroupBytes);
+        this.rowGroupRows.add(rowGroupRows);
+        this.dictionaryBytes.add(dictionaryBytes);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("name", name)
+                .add("rowGroupBytes", rowGroupBytes)
+                .add("rowGroupRows", rowGroupRows)
+                .add("dictionaryBytes", dictionaryBytes)
+                .toString();
+    }
+}
@@ -13,9 +13,14 @@
  */
 package io.prestosql.parquet.writer;
 
+import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 import org.apache.parquet.hadoop.ParquetWriter;
 
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
@@ -23,6 +28,8 @@ public class ParquetWriterOptions
 {
     private static final DataSize DEFAULT_MAX_ROW_GROUP_SIZE = DataSize.ofBytes(ParquetWriter.DEFAULT_BLOCK_SIZE);
     private static final DataSize DEFAULT_MAX_PAGE_SIZE = DataSize.ofBytes(ParquetWriter.DEFAULT_PAGE_SIZE);
+    private static final DataSize DEFAULT_MAX_DICTIONARY_MEMORY = DataSize.of(16, MEGABYTE);
+    private static final double DEFAULT_BLOOM_FILTER_FPP = 0.05;
 
     public static ParquetWriterOptions.Builder builder()
     {
@@ -31,11 +38,18 @@ public class ParquetWriterOptions
 
     private final int maxRowGroupSize;
     private final int maxPageSize;
+    private final int maxDictionaryMemory;
+    private final Set<String> bloomFilterColumns;
+    private final double bloomFilterFpp;
 
-    private ParquetWriterOptions(DataSize maxBlockSize, DataSize maxPageSize)
+    private ParquetWriterOptions(DataSize maxBlockSize, DataSize maxPageSize, DataSize maxDictionaryMemory, Set<String> bloomFilterColumns, double bloomFilterFpp)
     {
         this.maxRowGroupSize = toIntExact(requireNonNull(maxBlockSize, "maxRowGroupSize is null").toBytes());
         this.maxPageSize = toIntExact(requireNonNull(maxPageSize, "maxPageSize is null").toBytes());
+        this.maxDictionaryMemory = toIntExact(requireNonNull(maxDictionaryMemory, "maxDictionaryMemory is null").toBytes());
+        this.bloomFilterColumns = ImmutableSet.copyOf(requireNonNull(bloomFilterColumns, "bloomFilterColumns is null"));
+        checkArgument(bloomFilterFpp > 0.0 && bloomFilterFpp < 1.0, "bloomFilterFpp must be between 0 and 1");
+        this.bloomFilterFpp = bloomFilterFpp;
     }
 
     public long getMaxRowGroupSize()
@@ -48,10 +62,34 @@ public class ParquetWriterOptions
         return maxPageSize;
     }
 
+    /**
+     * Maximum memory used by the dictionaries of all columns of a row group
+     */
+    public int getMaxDictionaryMemory()
+    {
+        return maxDictionaryMemory;
+    }
+
+    /**
+     * Names of the top level columns for which bloom filters are written
+     */
+    public Set<String> getBloomFilterColumns()
+    {
+        return bloomFilterColumns;
+    }
+
+    public double getBloomFilterFpp()
+    {
+        return bloomFilterFpp;
+    }
+
     public static class Builder
     {
         private DataSize maxBlockSize = DEFAULT_MAX_ROW_GROUP_SIZE;
         private DataSize maxPageSize = DEFAULT_MAX_PAGE_SIZE;
+        private DataSize maxDictionaryMemory = DEFAULT_MAX_DICTIONARY_MEMORY;
+        private Set<String> bloomFilterColumns = ImmutableSet.of();
+        private double bloomFilterFpp = DEFAULT_BLOOM_FILTER_FPP;
 
         public Builder setMaxBlockSize(DataSize maxBlockSize)
         {
@@ -65,9 +103,27 @@ public class ParquetWriterOptions
             return this;
         }
 
+        public Builder setMaxDictionaryMemory(DataSize maxDictionaryMemory)
+        {
+            this.maxDictionaryMemory = maxDictionaryMemory;
+            return this;
+        }
+
+        public Builder setBloomFilterColumns(Set<String> bloomFilterColumns)
+        {
+            this.bloomFilterColumns = bloomFilterColumns;
+            return this;
+        }
+
+        public Builder setBloomFilterFpp(double bloomFilterFpp)
+        {
+            this.bloomFilterFpp = bloomFilterFpp;
+            return this;
+        }
+
         public ParquetWriterOptions build()
         {
-            return new ParquetWriterOptions(maxBlockSize, maxPageSize);
+            return new ParquetWriterOptions(maxBlockSize, maxPageSize, maxDictionaryMemory, bloomFilterColumns, bloomFilterFpp);
         }
     }
 }
@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.writer;
+
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static io.prestosql.parquet.writer.ParquetWriterStats.FlushReason.CLOSED;
+import static io.prestosql.parquet.writer.ParquetWriterStats.FlushReason.DICTIONARY_FULL;
+import static io.prestosql.parquet.writer.ParquetWriterStats.FlushReason.MAX_BYTES;
+
+public class ParquetWriterStats
+{
+    public enum FlushReason
+    {
+        MAX_BYTES, DICTIONARY_FULL, CLOSED
+    }
+
+    private final ParquetWriterFlushStats allFlush = new ParquetWriterFlushStats("ALL");
+    private final ParquetWriterFlushStats maxBytesFlush = new ParquetWriterFlushStats(MAX_BYTES.name());
+    private final ParquetWriterFlushStats dictionaryFullFlush = new ParquetWriterFlushStats(DICTIONARY_FULL.name());
+    private final ParquetWriterFlushStats closedFlush = new ParquetWriterFlushStats(CLOSED.name());
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+    private final AtomicLong compressedBytes = new AtomicLong();
+    private final AtomicLong values = new AtomicLong();
+    private final AtomicLong dictionaryEncodedValues = new AtomicLong();
+    private final AtomicLong dictionaryConversions = new AtomicLong();
+
+    public void recordRowGroupWritten(FlushReason flushReason, long rowGroupBytes, int rowGroupRows, long dictionaryBytes, long uncompressedBytes)
+    {
+        getFlushStats(flushReason).recordRowGroupWritten(rowGroupBytes, rowGroupRows, dictionaryBytes);
+        allFlush.recordRowGroupWritten(rowGroupBytes, rowGroupRows, dictionaryBytes);
+        this.uncompressedBytes.addAndGet(uncompressedBytes);
+        this.compressedBytes.addAndGet(rowGroupBytes);
+    }
+
+    /**
+     * Records the values written to columns supporting dictionary encoding, and the number of
+     * column chunks converted from dictionary to plain encoding.
+     */
+    public void recordDictionaryEncoding(long values, long dictionaryEncodedValues, long dictionaryConversions)
+    {
+        this.values.addAndGet(values);
+        this.dictionaryEncodedValues.addAndGet(dictionaryEncodedValues);
+        this.dictionaryConversions.addAndGet(dictionaryConversions);
+    }
+
+    @Managed
+    @Nested
+    public ParquetWriterFlushStats getAllFlush()
+    {
+        return allFlush;
+    }
+
+    @Managed
+    @Nested
+    public ParquetWriterFlushStats getMaxBytesFlush()
+    {
+        return maxBytesFlush;
+    }
+
+    @Managed
+    @Nested
+    public ParquetWriterFlushStats getDictionaryFullFlush()
+    {
+        return dictionaryFullFlush;
+    }
+
+    @Managed
+    @Nested
+    public ParquetWriterFlushStats getClosedFlush()
+    {
+        return closedFlush;
+    }
+
+    @Managed
+    public double getCompressionRatio()
+    {
+        long compressed = compressedBytes.get();
+        if (compressed == 0) {
+            return 0.0;
+        }
+        return 1.0 * uncompressedBytes.get() / compressed;
+    }
+
+    @Managed
+    public double getDictionaryHitRate()
+    {
+        long total = values.get();
+        if (total == 0) {
+            return 0.0;
+        }
+        return 1.0 * dictionaryEncodedValues.get() / total;
+    }
+
+    @Managed
+    public long getDictionaryConversions()
+    {
+        return dictionaryConversions.get();
+    }
+
+    private ParquetWriterFlushStats getFlushStats(FlushReason flushReason)
+    {
+        switch (flushReason) {
+            case MAX_BYTES:
+                return maxBytesFlush;
+            case DICTIONARY_FULL:
+                return dictionaryFullFlush;
+            case CLOSED:
+                return closedFlush;
+            default:
+                throw new IllegalArgumentException("unknown flush reason " + flushReason);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("allFlush", allFlush)
+                .add("maxBytesFlush", maxBytesFlush)
+                .add("dictionaryFullFlush", dictionaryFullFlush)
+                .add("closedFlush", closedFlush)
+                .add("compressionRatio", getCompressionRatio())
+                .add("dictionaryHitRate", getDictionaryHitRate())
+                .add("dictionaryConversions", dictionaryConversions.get())
+                .toString();
+    }
+}
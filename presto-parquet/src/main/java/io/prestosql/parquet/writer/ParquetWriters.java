@@ -45,6 +45,7 @@ import org.apache.parquet.schema.PrimitiveType;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
@@ -68,9 +69,9 @@ final class ParquetWriters
 {
     private ParquetWriters() {}
 
-    static List<ColumnWriter> getColumnWriters(MessageType messageType, Map<List<String>, Type> prestoTypes, ParquetProperties parquetProperties, CompressionCodecName compressionCodecName)
+    static List<ColumnWriter> getColumnWriters(MessageType messageType, Map<List<String>, Type> prestoTypes, ParquetProperties parquetProperties, CompressionCodecName compressionCodecName, ParquetWriterOptions writerOptions)
     {
-        WriteBuilder writeBuilder = new WriteBuilder(messageType, prestoTypes, parquetProperties, compressionCodecName);
+        WriteBuilder writeBuilder = new WriteBuilder(messageType, prestoTypes, parquetProperties, compressionCodecName, writerOptions);
         ParquetTypeVisitor.visit(messageType, writeBuilder);
         return writeBuilder.build();
     }
@@ -81,15 +82,23 @@ final class ParquetWriters
         private final MessageType type;
         private final Map<List<String>, Type> prestoTypes;
         private final ParquetProperties parquetProperties;
+        private final ParquetProperties plainParquetProperties;
         private final CompressionCodecName compressionCodecName;
+        private final ParquetWriterOptions writerOptions;
         private final ImmutableList.Builder<ColumnWriter> builder = ImmutableList.builder();
 
-        WriteBuilder(MessageType messageType, Map<List<String>, Type> prestoTypes, ParquetProperties parquetProperties, CompressionCodecName compressionCodecName)
+        WriteBuilder(MessageType messageType, Map<List<String>, Type> prestoTypes, ParquetProperties parquetProperties, CompressionCodecName compressionCodecName, ParquetWriterOptions writerOptions)
         {
             this.type = requireNonNull(messageType, "messageType is null");
             this.prestoTypes = requireNonNull(prestoTypes, "prestoTypes is null");
             this.parquetProperties = requireNonNull(parquetProperties, "parquetProperties is null");
+            this.plainParquetProperties = ParquetProperties.builder()
+                    .withWriterVersion(parquetProperties.getWriterVersion())
+                    .withPageSize(parquetProperties.getPageSizeThreshold())
+                    .withDictionaryEncoding(false)
+                    .build();
             this.compressionCodecName = requireNonNull(compressionCodecName, "compressionCodecName is null");
+            this.writerOptions = requireNonNull(writerOptions, "writerOptions is null");
         }
 
         List<ColumnWriter> build()
@@ -139,13 +148,28 @@ final class ParquetWriters
             int fieldRepetitionLevel = type.getMaxRepetitionLevel(path);
             ColumnDescriptor columnDescriptor = new ColumnDescriptor(path, primitive, fieldRepetitionLevel, fieldDefinitionLevel);
             Type prestoType = requireNonNull(prestoTypes.get(ImmutableList.copyOf(path)), " presto type is null");
+            ValuesWriter valuesWriter = parquetProperties.newValuesWriter(columnDescriptor);
+            // boolean values are never dictionary encoded
+            Optional<AdaptiveDictionaryValuesWriter> dictionaryWriter = Optional.empty();
+            if (!BOOLEAN.equals(prestoType)) {
+                dictionaryWriter = Optional.of(new AdaptiveDictionaryValuesWriter(valuesWriter, plainParquetProperties.newValuesWriter(columnDescriptor)));
+                valuesWriter = dictionaryWriter.get();
+            }
+            // bloom filters are only written for top level columns
+            Optional<BloomFilterValuesWriter> bloomFilterWriter = Optional.empty();
+            if (path.length == 1 && !BOOLEAN.equals(prestoType) && writerOptions.getBloomFilterColumns().contains(path[0])) {
+                bloomFilterWriter = Optional.of(new BloomFilterValuesWriter(valuesWriter, writerOptions.getBloomFilterFpp()));
+                valuesWriter = bloomFilterWriter.get();
+            }
             return new PrimitiveColumnWriter(prestoType,
                     columnDescriptor,
-                    getValueWriter(parquetProperties.newValuesWriter(columnDescriptor), prestoType, columnDescriptor.getPrimitiveType()),
+                    getValueWriter(valuesWriter, prestoType, columnDescriptor.getPrimitiveType()),
                     parquetProperties.newDefinitionLevelEncoder(columnDescriptor),
                     parquetProperties.newRepetitionLevelEncoder(columnDescriptor),
                     compressionCodecName,
-                    parquetProperties.getPageSizeThreshold());
+                    parquetProperties.getPageSizeThreshold(),
+                    bloomFilterWriter,
+                    dictionaryWriter);
         }
 
         private String[] currentPath()
@@ -40,6 +40,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkState;
@@ -55,6 +56,8 @@ public class PrimitiveColumnWriter
         implements ColumnWriter
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(PrimitiveColumnWriter.class).instanceSize();
+    // same as the default page row count limit of parquet-mr
+    private static final int PAGE_MAX_VALUE_COUNT = 20_000;
 
     private final Type type;
     private final ColumnDescriptor columnDescriptor;
@@ -84,13 +87,37 @@ public class PrimitiveColumnWriter
     private final int maxDefinitionLevel;
 
     private final List<ParquetDataOutput> pageBuffer = new ArrayList<>();
+    private long pageBufferBytes;
+
+    // buffered size of the values of the flushed pages with the current encoding, as reported by the
+    // value writer, and their encoded size; dictionary encoded values are buffered with their plain size
+    private Encoding valueEncoding;
+    private long flushedValueBufferedBytes;
+    private long flushedValueEncodedBytes;
 
     @Nullable
     private final ParquetCompressor compressor;
 
     private final int pageSizeThreshold;
 
+    private final Optional<BloomFilterValuesWriter> bloomFilterWriter;
+    private final Optional<AdaptiveDictionaryValuesWriter> dictionaryWriter;
+
     public PrimitiveColumnWriter(Type type, ColumnDescriptor columnDescriptor, PrimitiveValueWriter primitiveValueWriter, RunLengthBitPackingHybridEncoder definitionLevelEncoder, RunLengthBitPackingHybridEncoder repetitionLevelEncoder, CompressionCodecName compressionCodecName, int pageSizeThreshold)
+    {
+        this(type, columnDescriptor, primitiveValueWriter, definitionLevelEncoder, repetitionLevelEncoder, compressionCodecName, pageSizeThreshold, Optional.empty(), Optional.empty());
+    }
+
+    PrimitiveColumnWriter(
+            Type type,
+            ColumnDescriptor columnDescriptor,
+            PrimitiveValueWriter primitiveValueWriter,
+            RunLengthBitPackingHybridEncoder definitionLevelEncoder,
+            RunLengthBitPackingHybridEncoder repetitionLevelEncoder,
+            CompressionCodecName compressionCodecName,
+            int pageSizeThreshold,
+            Optional<BloomFilterValuesWriter> bloomFilterWriter,
+            Optional<AdaptiveDictionaryValuesWriter> dictionaryWriter)
     {
         this.type = requireNonNull(type, "type is null");
         this.columnDescriptor = requireNonNull(columnDescriptor, "columnDescriptor is null");
@@ -103,6 +130,8 @@ public class PrimitiveColumnWriter
         this.compressionCodec = requireNonNull(compressionCodecName, "compressionCodecName is null");
         this.compressor = getCompressor(compressionCodecName);
         this.pageSizeThreshold = pageSizeThreshold;
+        this.bloomFilterWriter = requireNonNull(bloomFilterWriter, "bloomFilterWriter is null");
+        this.dictionaryWriter = requireNonNull(dictionaryWriter, "dictionaryWriter is null");
 
         this.columnStatistics = Statistics.createStats(columnDescriptor.getPrimitiveType());
     }
@@ -147,11 +176,48 @@ public class PrimitiveColumnWriter
             }
         }
 
-        if (getBufferedBytes() >= pageSizeThreshold) {
+        if (getEstimatedPageBytes() >= pageSizeThreshold || currentPageRows >= PAGE_MAX_VALUE_COUNT) {
             flushCurrentPageToBuffer();
         }
     }
 
+    /**
+     * Estimates the encoded size of the current page. Dictionary encoded values are buffered with their
+     * plain size, so without an estimate the pages of dictionary encoded columns are much smaller than
+     * the page size threshold.
+     */
+    private long getEstimatedPageBytes()
+    {
+        double valueEncodingRatio = 1.0;
+        if (flushedValueBufferedBytes > 0) {
+            valueEncodingRatio = 1.0 * flushedValueEncodedBytes / flushedValueBufferedBytes;
+        }
+        return definitionLevelEncoder.getBufferedSize() +
+                repetitionLevelEncoder.getBufferedSize() +
+                (long) (primitiveValueWriter.getBufferedSize() * valueEncodingRatio);
+    }
+
+    Optional<AdaptiveDictionaryValuesWriter> getDictionaryWriter()
+    {
+        return dictionaryWriter;
+    }
+
+    /**
+     * Flushes the current page, and writes the rest of the column chunk with plain encoding.
+     */
+    void convertToPlainEncoding()
+            throws IOException
+    {
+        checkState(dictionaryWriter.isPresent(), "column does not support dictionary encoding");
+        if (currentPageRows > 0) {
+            flushCurrentPageToBuffer();
+        }
+        dictionaryWriter.get().convertToPlainEncoding();
+        valueEncoding = null;
+        flushedValueBufferedBytes = 0;
+        flushedValueEncodedBytes = 0;
+    }
+
     @Override
     public void close()
     {
@@ -163,7 +229,12 @@ public class PrimitiveColumnWriter
             throws IOException
     {
         checkState(closed);
-        return ImmutableList.of(new BufferData(getDataStreams(), getColumnMetaData()));
+        List<ParquetDataOutput> dataStreams = getDataStreams();
+        Optional<ParquetDataOutput> bloomFilter = Optional.empty();
+        if (bloomFilterWriter.isPresent()) {
+            bloomFilter = bloomFilterWriter.get().getBloomFilter();
+        }
+        return ImmutableList.of(new BufferData(dataStreams, getColumnMetaData(), bloomFilter));
     }
 
     // Returns ColumnMetaData that offset is invalid
@@ -193,6 +264,7 @@ public class PrimitiveColumnWriter
     {
         ImmutableList.Builder<ParquetDataOutput> outputDataStreams = ImmutableList.builder();
 
+        long valueBufferedBytes = primitiveValueWriter.getBufferedSize();
         BytesInput bytes = primitiveValueWriter.getBytes();
         ParquetDataOutput repetitions = createDataOutput(copy(repetitionLevelEncoder.toBytes()));
         ParquetDataOutput definitions = createDataOutput(copy(definitionLevelEncoder.toBytes()));
@@ -200,6 +272,14 @@ public class PrimitiveColumnWriter
         // Add encoding should be called after primitiveValueWriter.getBytes() and before primitiveValueWriter.reset()
         encodings.add(primitiveValueWriter.getEncoding());
 
+        if (primitiveValueWriter.getEncoding() != valueEncoding) {
+            valueEncoding = primitiveValueWriter.getEncoding();
+            flushedValueBufferedBytes = 0;
+            flushedValueEncodedBytes = 0;
+        }
+        flushedValueBufferedBytes += valueBufferedBytes;
+        flushedValueEncodedBytes += bytes.size();
+
         long uncompressedSize = bytes.size() + repetitions.size() + definitions.size();
 
         ParquetDataOutput data;
@@ -245,6 +325,7 @@ public class PrimitiveColumnWriter
         totalRows += currentPageRows;
 
         pageBuffer.addAll(dataOutputs);
+        pageBufferBytes += dataOutputs.stream().mapToLong(ParquetDataOutput::size).sum();
 
         // reset page stats
         currentPageRows = 0;
@@ -286,9 +367,10 @@ public class PrimitiveColumnWriter
             dictPage.add(pageData);
             totalCompressedSize += pageHeader.size() + compressedSize;
             totalUnCompressedSize += pageHeader.size() + uncompressedSize;
-
-            primitiveValueWriter.resetDictionary();
         }
+        // reset even without a dictionary page, so a column that fell back to plain encoding
+        // tries dictionary encoding again with the next column chunk
+        primitiveValueWriter.resetDictionary();
         getDataStreamsCalled = true;
 
         return ImmutableList.<ParquetDataOutput>builder()
@@ -300,10 +382,9 @@ public class PrimitiveColumnWriter
     @Override
     public long getBufferedBytes()
     {
-        return pageBuffer.stream().mapToLong(ParquetDataOutput::size).sum() +
-                definitionLevelEncoder.getBufferedSize() +
-                repetitionLevelEncoder.getBufferedSize() +
-                primitiveValueWriter.getBufferedSize();
+        // the dictionary is written with the column chunk
+        long dictionaryBytes = dictionaryWriter.map(AdaptiveDictionaryValuesWriter::getDictionaryBytes).orElse(0L);
+        return pageBufferBytes + getEstimatedPageBytes() + dictionaryBytes;
     }
 
     @Override
@@ -319,6 +400,7 @@ public class PrimitiveColumnWriter
     public void reset()
     {
         pageBuffer.clear();
+        pageBufferBytes = 0;
         closed = false;
 
         totalCompressedSize = 0;
@@ -326,6 +408,7 @@ public class PrimitiveColumnWriter
         totalRows = 0;
         encodings.clear();
         this.columnStatistics = Statistics.createStats(columnDescriptor.getPrimitiveType());
+        bloomFilterWriter.ifPresent(BloomFilterValuesWriter::resetBloomFilter);
 
         getDataStreamsCalled = false;
     }
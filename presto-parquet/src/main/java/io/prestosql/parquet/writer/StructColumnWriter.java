@@ -98,6 +98,16 @@ public class StructColumnWriter
                 columnWriters.stream().mapToLong(ColumnWriter::getRetainedBytes).sum();
     }
 
+    @Override
+    public List<ColumnWriter> getNestedColumnWriters()
+    {
+        ImmutableList.Builder<ColumnWriter> nestedColumnWriters = ImmutableList.builder();
+        for (ColumnWriter columnWriter : columnWriters) {
+            nestedColumnWriters.add(columnWriter).addAll(columnWriter.getNestedColumnWriters());
+        }
+        return nestedColumnWriters.build();
+    }
+
     @Override
     public void reset()
     {
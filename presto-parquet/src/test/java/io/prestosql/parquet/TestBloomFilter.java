@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet;
+
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.OptionalInt;
+
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestBloomFilter
+{
+    @Test
+    public void testInsertAndFind()
+    {
+        BloomFilter bloomFilter = BloomFilter.create(1000, 0.01, 1024 * 1024);
+        for (long value = 0; value < 1000; value++) {
+            bloomFilter.insertHash(BloomFilter.hash(value));
+        }
+        int falsePositives = 0;
+        for (long value = 0; value < 1000; value++) {
+            assertTrue(bloomFilter.findHash(BloomFilter.hash(value)));
+            if (bloomFilter.findHash(BloomFilter.hash(value + 1000))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 50, "too many false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testOptimalNumBytes()
+    {
+        assertEquals(BloomFilter.optimalNumBytes(0, 0.01, 1024 * 1024), BloomFilter.MIN_BITSET_BYTES);
+        assertEquals(BloomFilter.optimalNumBytes(1000, 0.01, 1024 * 1024), 2048);
+        assertEquals(BloomFilter.optimalNumBytes(100_000_000, 0.01, 1024 * 1024), 1024 * 1024);
+        assertEquals(BloomFilter.optimalNumBytes(100_000_000, 0.01, 1000 * 1000), 512 * 1024);
+    }
+
+    @Test
+    public void testWriteHeader()
+            throws IOException
+    {
+        BloomFilter bloomFilter = new BloomFilter(wrappedBuffer(new byte[1024]));
+        bloomFilter.insertHash(BloomFilter.hash(42L));
+        DynamicSliceOutput output = new DynamicSliceOutput(2048);
+        bloomFilter.writeTo(output);
+
+        // numBytes = 1024, then BLOCK, XXHASH and UNCOMPRESSED
+        Slice header = output.slice().slice(0, 16);
+        assertEquals(header, wrappedBuffer(new byte[] {0x15, (byte) 0x80, 0x10, 0x1c, 0x1c, 0, 0, 0x1c, 0x1c, 0, 0, 0x1c, 0x1c, 0, 0, 0}));
+
+        SliceInput input = output.slice().getInput();
+        assertEquals(BloomFilter.readBitsetSize(input), OptionalInt.of(1024));
+        BloomFilter read = new BloomFilter(input.readSlice(1024));
+        assertTrue(read.findHash(BloomFilter.hash(42L)));
+        assertFalse(input.isReadable());
+    }
+
+    @Test
+    public void testReadHeaderWithUnknownFields()
+            throws IOException
+    {
+        // numBytes = 32, BLOCK, XXHASH, UNCOMPRESSED, then a binary field 5 and a list<i32> field 6
+        byte[] header = {0x15, 0x40, 0x1c, 0x1c, 0, 0, 0x1c, 0x1c, 0, 0, 0x1c, 0x1c, 0, 0, 0x18, 0x02, 'a', 'b', 0x19, 0x25, 0x02, 0x04, 0};
+        assertEquals(BloomFilter.readBitsetSize(wrappedBuffer(header).getInput()), OptionalInt.of(32));
+    }
+
+    @Test
+    public void testReadHeaderWithUnsupportedAlgorithm()
+            throws IOException
+    {
+        // the algorithm union has its second member set
+        byte[] header = {0x15, 0x40, 0x1c, 0x2c, 0, 0, 0x1c, 0x1c, 0, 0, 0x1c, 0x1c, 0, 0, 0};
+        assertEquals(BloomFilter.readBitsetSize(wrappedBuffer(header).getInput()), OptionalInt.empty());
+    }
+
+    @Test
+    public void testReadHeaderWithInvalidSize()
+    {
+        byte[] header = {0x15, 0x3e, 0x1c, 0x1c, 0, 0, 0x1c, 0x1c, 0, 0, 0x1c, 0x1c, 0, 0, 0};
+        assertThatThrownBy(() -> BloomFilter.readBitsetSize(wrappedBuffer(header).getInput()))
+                .isInstanceOf(ParquetCorruptionException.class)
+                .hasMessage("Invalid bloom filter size: 31");
+    }
+}
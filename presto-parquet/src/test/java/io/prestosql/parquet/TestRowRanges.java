@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestRowRanges
+{
+    @Test
+    public void testBuilderMergesAdjacentRanges()
+    {
+        RowRanges rowRanges = RowRanges.builder()
+                .add(0, 10)
+                .add(10, 20)
+                .add(30, 40)
+                .build();
+        assertEquals(rowRanges.getRangeCount(), 2);
+        assertEquals(rowRanges.getRangeStart(0), 0);
+        assertEquals(rowRanges.getRangeEnd(0), 20);
+        assertEquals(rowRanges.getRangeStart(1), 30);
+        assertEquals(rowRanges.getRangeEnd(1), 40);
+        assertEquals(rowRanges.getRowCount(), 30);
+        assertEquals(rowRanges.toString(), "[0..20, 30..40]");
+    }
+
+    @Test
+    public void testAll()
+    {
+        assertEquals(RowRanges.all(100).getRowCount(), 100);
+        assertEquals(RowRanges.all(100).getRangeCount(), 1);
+        assertTrue(RowRanges.all(0).isEmpty());
+        assertTrue(RowRanges.builder().build().isEmpty());
+    }
+
+    @Test
+    public void testOverlaps()
+    {
+        RowRanges rowRanges = RowRanges.builder()
+                .add(10, 20)
+                .add(30, 40)
+                .build();
+        assertFalse(rowRanges.overlaps(0, 10));
+        assertTrue(rowRanges.overlaps(0, 11));
+        assertTrue(rowRanges.overlaps(19, 30));
+        assertFalse(rowRanges.overlaps(20, 30));
+        assertTrue(rowRanges.overlaps(25, 35));
+        assertTrue(rowRanges.overlaps(39, 50));
+        assertFalse(rowRanges.overlaps(40, 50));
+        assertFalse(RowRanges.empty().overlaps(0, 10));
+    }
+
+    @Test
+    public void testIntersect()
+    {
+        RowRanges left = RowRanges.builder()
+                .add(0, 10)
+                .add(20, 30)
+                .add(40, 50)
+                .build();
+        RowRanges right = RowRanges.builder()
+                .add(5, 25)
+                .add(45, 60)
+                .build();
+        assertEquals(left.intersect(right).toString(), "[5..10, 20..25, 45..50]");
+        assertEquals(right.intersect(left).toString(), "[5..10, 20..25, 45..50]");
+        assertEquals(left.intersect(RowRanges.all(100)).toString(), left.toString());
+        assertTrue(left.intersect(RowRanges.empty()).isEmpty());
+        assertTrue(left.intersect(RowRanges.builder().add(10, 20).build()).isEmpty());
+    }
+}
@@ -37,6 +37,7 @@ import org.apache.parquet.column.statistics.LongStatistics;
 import org.apache.parquet.column.statistics.Statistics;
 import org.apache.parquet.io.api.Binary;
 import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Types;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -87,7 +88,9 @@ import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.apache.parquet.column.statistics.Statistics.getStatsBasedOnType;
+import static org.apache.parquet.schema.OriginalType.DECIMAL;
 import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.BINARY;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY;
 import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT32;
 import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
 import static org.apache.parquet.schema.Type.Repetition.OPTIONAL;
@@ -478,6 +481,99 @@ public class TestTupleDomainParquetPredicate
         assertTrue(parquetPredicate.matches(new DictionaryDescriptor(column, Optional.of(page))));
     }
 
+    @Test
+    public void testBigintMatchesWithBloomFilter()
+    {
+        RichColumnDescriptor column = new RichColumnDescriptor(
+                new ColumnDescriptor(new String[] {"path"}, INT64, 0, 0),
+                new PrimitiveType(OPTIONAL, INT64, "Test column"));
+        BloomFilter bloomFilter = new BloomFilter(Slices.allocate(1024));
+        bloomFilter.insertHash(BloomFilter.hash(42L));
+        bloomFilter.insertHash(BloomFilter.hash(404L));
+
+        assertTrue(bloomFilterPredicate(column, Domain.create(ValueSet.of(BIGINT, 42L), false)).matches(column, bloomFilter));
+        assertTrue(bloomFilterPredicate(column, Domain.create(ValueSet.of(BIGINT, 41L, 404L), false)).matches(column, bloomFilter));
+        assertFalse(bloomFilterPredicate(column, Domain.create(ValueSet.of(BIGINT, 41L, 43L), false)).matches(column, bloomFilter));
+
+        // null values and ranges cannot be checked against the bloom filter
+        assertTrue(bloomFilterPredicate(column, Domain.create(ValueSet.of(BIGINT, 41L), true)).matches(column, bloomFilter));
+        assertTrue(bloomFilterPredicate(column, Domain.create(ValueSet.ofRanges(range(BIGINT, 40L, true, 41L, true)), false)).matches(column, bloomFilter));
+    }
+
+    @Test
+    public void testIntegerMatchesWithBloomFilter()
+    {
+        RichColumnDescriptor column = new RichColumnDescriptor(
+                new ColumnDescriptor(new String[] {"path"}, INT32, 0, 0),
+                new PrimitiveType(OPTIONAL, INT32, "Test column"));
+        BloomFilter bloomFilter = new BloomFilter(Slices.allocate(1024));
+        bloomFilter.insertHash(BloomFilter.hash(42));
+
+        assertTrue(bloomFilterPredicate(column, Domain.create(ValueSet.of(INTEGER, 42L), false)).matches(column, bloomFilter));
+        assertFalse(bloomFilterPredicate(column, Domain.create(ValueSet.of(INTEGER, 43L), false)).matches(column, bloomFilter));
+        assertFalse(bloomFilterPredicate(column, Domain.create(ValueSet.of(BIGINT, 43L), false)).matches(column, bloomFilter));
+    }
+
+    @Test
+    public void testVarcharMatchesWithBloomFilter()
+    {
+        RichColumnDescriptor column = new RichColumnDescriptor(
+                new ColumnDescriptor(new String[] {"path"}, BINARY, 0, 0),
+                new PrimitiveType(OPTIONAL, BINARY, "Test column"));
+        BloomFilter bloomFilter = new BloomFilter(Slices.allocate(1024));
+        bloomFilter.insertHash(BloomFilter.hash(utf8Slice("apple")));
+
+        assertTrue(bloomFilterPredicate(column, Domain.create(ValueSet.of(createUnboundedVarcharType(), utf8Slice("apple"), utf8Slice("banana")), false)).matches(column, bloomFilter));
+        assertFalse(bloomFilterPredicate(column, Domain.create(ValueSet.of(createUnboundedVarcharType(), utf8Slice("banana")), false)).matches(column, bloomFilter));
+    }
+
+    @Test
+    public void testDoubleMatchesWithBloomFilter()
+    {
+        RichColumnDescriptor column = new RichColumnDescriptor(
+                new ColumnDescriptor(new String[] {"path"}, PrimitiveType.PrimitiveTypeName.DOUBLE, 0, 0),
+                new PrimitiveType(OPTIONAL, PrimitiveType.PrimitiveTypeName.DOUBLE, "Test column"));
+        BloomFilter bloomFilter = new BloomFilter(Slices.allocate(1024));
+        bloomFilter.insertHash(BloomFilter.hash(-0.0));
+
+        assertFalse(bloomFilterPredicate(column, Domain.create(ValueSet.of(DOUBLE, 1.5), false)).matches(column, bloomFilter));
+        // 0.0 and -0.0 are equal, but have different hashes
+        assertTrue(bloomFilterPredicate(column, Domain.create(ValueSet.of(DOUBLE, 0.0), false)).matches(column, bloomFilter));
+    }
+
+    @Test
+    public void testShortDecimalMatchesWithBloomFilter()
+    {
+        PrimitiveType primitiveType = Types.optional(INT64).as(DECIMAL).precision(10).scale(2).named("Test column");
+        RichColumnDescriptor column = new RichColumnDescriptor(new ColumnDescriptor(new String[] {"path"}, primitiveType, 0, 0), primitiveType);
+        BloomFilter bloomFilter = new BloomFilter(Slices.allocate(1024));
+        bloomFilter.insertHash(BloomFilter.hash(12345L));
+
+        assertTrue(bloomFilterPredicate(column, Domain.create(ValueSet.of(createDecimalType(10, 2), 12345L), false)).matches(column, bloomFilter));
+        assertFalse(bloomFilterPredicate(column, Domain.create(ValueSet.of(createDecimalType(10, 2), 12346L), false)).matches(column, bloomFilter));
+        // unscaled values of a different scale cannot be compared
+        assertTrue(bloomFilterPredicate(column, Domain.create(ValueSet.of(createDecimalType(10, 3), 12346L), false)).matches(column, bloomFilter));
+    }
+
+    @Test
+    public void testLongDecimalMatchesWithBloomFilter()
+    {
+        PrimitiveType primitiveType = Types.optional(FIXED_LEN_BYTE_ARRAY).length(9).as(DECIMAL).precision(20).scale(0).named("Test column");
+        RichColumnDescriptor column = new RichColumnDescriptor(new ColumnDescriptor(new String[] {"path"}, primitiveType, 0, 0), primitiveType);
+        DecimalType type = createDecimalType(20, 0);
+        BloomFilter bloomFilter = new BloomFilter(Slices.allocate(1024));
+        // -2 as a sign extended big-endian two's complement value
+        bloomFilter.insertHash(BloomFilter.hash(Slices.wrappedBuffer(new byte[] {-1, -1, -1, -1, -1, -1, -1, -1, -2})));
+
+        assertTrue(bloomFilterPredicate(column, Domain.create(ValueSet.of(type, encodeScaledValue(new BigDecimal("-2"), 0)), false)).matches(column, bloomFilter));
+        assertFalse(bloomFilterPredicate(column, Domain.create(ValueSet.of(type, encodeScaledValue(new BigDecimal("2"), 0)), false)).matches(column, bloomFilter));
+    }
+
+    private static TupleDomainParquetPredicate bloomFilterPredicate(RichColumnDescriptor column, Domain domain)
+    {
+        return new TupleDomainParquetPredicate(withColumnDomains(ImmutableMap.of(column, domain)), singletonList(column), UTC);
+    }
+
     private TupleDomain<ColumnDescriptor> getEffectivePredicate(RichColumnDescriptor column, VarcharType type, Slice value)
     {
         ColumnDescriptor predicateColumn = new ColumnDescriptor(column.getPath(), column.getPrimitiveType().getPrimitiveTypeName(), 0, 0);
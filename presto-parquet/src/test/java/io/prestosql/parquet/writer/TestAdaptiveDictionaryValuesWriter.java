@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.writer;
+
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.schema.PrimitiveType;
+import org.testng.annotations.Test;
+
+import static org.apache.parquet.column.ParquetProperties.WriterVersion.PARQUET_2_0;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
+import static org.apache.parquet.schema.Type.Repetition.REQUIRED;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestAdaptiveDictionaryValuesWriter
+{
+    private static final ColumnDescriptor COLUMN = new ColumnDescriptor(new String[] {"test"}, new PrimitiveType(REQUIRED, INT64, "test"), 0, 0);
+
+    @Test
+    public void testConvertToPlainEncoding()
+    {
+        AdaptiveDictionaryValuesWriter writer = createWriter();
+        for (int i = 0; i < 1000; i++) {
+            writer.writeLong(i % 10);
+        }
+        assertTrue(writer.isDictionaryEncoded());
+        assertEquals(writer.getRawBytes(), 8000);
+
+        // values are only converted between pages
+        assertThatThrownBy(writer::convertToPlainEncoding)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("current page is not empty");
+
+        writer.getBytes();
+        assertTrue(writer.getEncoding().usesDictionary());
+        writer.reset();
+        assertTrue(writer.getCompressionRatio() > 1.25);
+
+        writer.convertToPlainEncoding();
+        assertFalse(writer.isDictionaryEncoded());
+        for (int i = 0; i < 500; i++) {
+            writer.writeLong(i);
+        }
+        writer.getBytes();
+        assertFalse(writer.getEncoding().usesDictionary());
+        writer.reset();
+
+        assertEquals(writer.getTotalValueCount(), 1500);
+        assertEquals(writer.getTotalDictionaryValueCount(), 1000);
+        assertEquals(writer.getTotalConversions(), 1);
+
+        // the pages written before the conversion still need the dictionary
+        assertNotNull(writer.toDictPageAndClose());
+
+        // the next column chunk starts with dictionary encoding again
+        writer.resetDictionary();
+        assertTrue(writer.isDictionaryEncoded());
+        assertEquals(writer.getRawBytes(), 0);
+        writer.writeLong(42);
+        writer.getBytes();
+        assertTrue(writer.getEncoding().usesDictionary());
+    }
+
+    private static AdaptiveDictionaryValuesWriter createWriter()
+    {
+        ParquetProperties dictionaryProperties = ParquetProperties.builder()
+                .withWriterVersion(PARQUET_2_0)
+                .build();
+        ParquetProperties plainProperties = ParquetProperties.builder()
+                .withWriterVersion(PARQUET_2_0)
+                .withDictionaryEncoding(false)
+                .build();
+        return new AdaptiveDictionaryValuesWriter(dictionaryProperties.newValuesWriter(COLUMN), plainProperties.newValuesWriter(COLUMN));
+    }
+}
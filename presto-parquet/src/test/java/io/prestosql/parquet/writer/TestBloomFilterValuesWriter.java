@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.writer;
+
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.SliceInput;
+import io.prestosql.parquet.BloomFilter;
+import org.apache.parquet.bytes.HeapByteBufferAllocator;
+import org.apache.parquet.column.values.plain.PlainValuesWriter;
+import org.apache.parquet.io.api.Binary;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestBloomFilterValuesWriter
+{
+    @Test
+    public void testRoundTrip()
+            throws IOException
+    {
+        BloomFilterValuesWriter writer = createWriter();
+        for (long value = 0; value < 1000; value += 2) {
+            writer.writeLong(value);
+        }
+        writer.writeInteger(7);
+        writer.writeDouble(1.5);
+        writer.writeFloat(2.5f);
+        writer.writeBytes(Binary.fromString("apple"));
+
+        // the bloom filter covers all pages of the column chunk
+        writer.reset();
+        writer.writeLong(1001);
+
+        BloomFilter bloomFilter = readBloomFilter(writer.getBloomFilter());
+        for (long value = 0; value < 1000; value += 2) {
+            assertTrue(bloomFilter.findHash(BloomFilter.hash(value)));
+        }
+        assertTrue(bloomFilter.findHash(BloomFilter.hash(1001L)));
+        assertTrue(bloomFilter.findHash(BloomFilter.hash(7)));
+        assertTrue(bloomFilter.findHash(BloomFilter.hash(1.5)));
+        assertTrue(bloomFilter.findHash(BloomFilter.hash(2.5f)));
+        assertTrue(bloomFilter.findHash(BloomFilter.hash(utf8Slice("apple"))));
+        assertFalse(bloomFilter.findHash(BloomFilter.hash(utf8Slice("banana"))));
+    }
+
+    @Test
+    public void testReset()
+            throws IOException
+    {
+        BloomFilterValuesWriter writer = createWriter();
+        assertEquals(writer.getBloomFilter(), Optional.empty());
+
+        writer.writeLong(42);
+        assertTrue(writer.getBloomFilter().isPresent());
+
+        writer.resetBloomFilter();
+        assertEquals(writer.getBloomFilter(), Optional.empty());
+    }
+
+    private static BloomFilterValuesWriter createWriter()
+    {
+        return new BloomFilterValuesWriter(new PlainValuesWriter(1024, 1024 * 1024, HeapByteBufferAllocator.getInstance()), 0.01);
+    }
+
+    private static BloomFilter readBloomFilter(Optional<ParquetDataOutput> data)
+            throws IOException
+    {
+        assertTrue(data.isPresent());
+        DynamicSliceOutput output = new DynamicSliceOutput(1024);
+        data.get().writeData(output);
+
+        SliceInput input = output.slice().getInput();
+        OptionalInt numBytes = BloomFilter.readBitsetSize(input);
+        assertTrue(numBytes.isPresent());
+        assertEquals(input.available(), numBytes.getAsInt());
+        return new BloomFilter(input.readSlice(numBytes.getAsInt()));
+    }
+}
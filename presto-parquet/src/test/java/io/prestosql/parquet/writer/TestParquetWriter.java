@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.writer;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.type.Type;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.util.UUID.randomUUID;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestParquetWriter
+{
+    private static final int ROW_COUNT = 200_000;
+
+    @Test
+    public void testLowCardinalityColumn()
+            throws IOException
+    {
+        ParquetWriterStats stats = writeColumn(row -> "value_" + (row % 100), DataSize.of(128, MEGABYTE));
+
+        assertEquals(stats.getDictionaryHitRate(), 1.0);
+        assertEquals(stats.getDictionaryConversions(), 0);
+        assertTrue(stats.getCompressionRatio() > 1.0);
+        assertEquals((long) stats.getClosedFlush().getRowGroupRows().getAllTime().getCount(), 1);
+        assertEquals((long) stats.getAllFlush().getRowGroupRows().getAllTime().getTotal(), ROW_COUNT);
+    }
+
+    @Test
+    public void testHighCardinalityColumn()
+            throws IOException
+    {
+        ParquetWriterStats stats = writeColumn(row -> randomUUID().toString(), DataSize.of(128, MEGABYTE));
+
+        // the dictionary does not compress unique values, so the column is converted to plain encoding
+        assertTrue(stats.getDictionaryConversions() > 0);
+        assertTrue(stats.getDictionaryHitRate() < 0.5);
+    }
+
+    @Test
+    public void testRowGroupSize()
+            throws IOException
+    {
+        ParquetWriterStats stats = writeColumn(row -> randomUUID().toString(), DataSize.of(1, MEGABYTE));
+
+        assertTrue(stats.getMaxBytesFlush().getRowGroupBytes().getAllTime().getCount() > 1);
+        assertEquals((long) stats.getAllFlush().getRowGroupRows().getAllTime().getTotal(), ROW_COUNT);
+    }
+
+    private static ParquetWriterStats writeColumn(LongFunction<String> values, DataSize maxRowGroupSize)
+            throws IOException
+    {
+        List<Type> types = ImmutableList.of(VARCHAR);
+        ParquetSchemaConverter schemaConverter = new ParquetSchemaConverter(types, ImmutableList.of("value"));
+        ParquetWriterStats stats = new ParquetWriterStats();
+        ParquetWriter writer = new ParquetWriter(
+                new ByteArrayOutputStream(),
+                schemaConverter.getMessageType(),
+                schemaConverter.getPrimitiveTypes(),
+                ParquetWriterOptions.builder()
+                        .setMaxBlockSize(maxRowGroupSize)
+                        .build(),
+                CompressionCodecName.SNAPPY,
+                stats);
+
+        int pageSize = 10_000;
+        for (int start = 0; start < ROW_COUNT; start += pageSize) {
+            BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, pageSize);
+            for (int row = start; row < start + pageSize; row++) {
+                VARCHAR.writeSlice(blockBuilder, utf8Slice(values.apply(row)));
+            }
+            writer.write(new Page(blockBuilder.build()));
+        }
+        writer.close();
+        return stats;
+    }
+}
@@ -954,6 +954,29 @@ public interface ConnectorMetadata
         return Optional.empty();
     }
 
+    /**
+     * Attempt to push down the partial step of the aggregates into the table.
+     * <p>
+     * Unlike {@link #applyAggregation}, the table returned by this method may produce any number of rows, for example
+     * one row per file, and the engine combines these rows into the final result. Each projection must evaluate to
+     * a partial result of the corresponding aggregate, which has the output type of the aggregate and is combined
+     * by the engine as follows: {@code count} partial results are summed, and {@code min} and {@code max} partial
+     * results are combined with {@code min} and {@code max}. The engine only calls this method for these aggregates.
+     * </p>
+     * <b>Note</b>: it's critical for connectors to return {@link Optional#empty()} if calling this method has no effect for that
+     * invocation, even if the connector generally supports pushdown. Doing otherwise can cause the optimizer
+     * to loop indefinitely.
+     */
+    default Optional<AggregationApplicationResult<ConnectorTableHandle>> applyPartialAggregation(
+            ConnectorSession session,
+            ConnectorTableHandle handle,
+            List<AggregateFunction> aggregates,
+            Map<String, ColumnHandle> assignments,
+            List<List<ColumnHandle>> groupingSets)
+    {
+        return Optional.empty();
+    }
+
     /**
      * Attempt to push down the TopN into the table scan.
      * <p>
@@ -0,0 +1,247 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.tests;
+
+import io.prestosql.Session;
+import io.prestosql.execution.QueryInfo;
+import io.prestosql.execution.QueryManager;
+import io.prestosql.execution.QueryStats;
+import io.prestosql.execution.StageInfo;
+import io.prestosql.execution.TaskManagerConfig;
+import io.prestosql.execution.scheduler.AdaptiveJoinDecision;
+import io.prestosql.sql.analyzer.FeaturesConfig;
+import io.prestosql.sql.analyzer.FeaturesConfig.JoinDistributionType;
+import io.prestosql.sql.planner.plan.JoinNode.DistributionType;
+import io.prestosql.testing.AbstractTestQueryFramework;
+import io.prestosql.testing.DistributedQueryRunner;
+import io.prestosql.testing.MaterializedResult;
+import io.prestosql.testing.QueryRunner;
+import io.prestosql.testing.ResultWithQueryId;
+import io.prestosql.tests.tpch.TpchQueryRunnerBuilder;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.collect.MoreCollectors.onlyElement;
+import static io.prestosql.SystemSessionProperties.ADAPTIVE_JOIN_DISTRIBUTION_ENABLED;
+import static io.prestosql.SystemSessionProperties.ADAPTIVE_JOIN_MAX_BROADCAST_BUILD_SIZE;
+import static io.prestosql.SystemSessionProperties.ADAPTIVE_JOIN_MAX_BUILD_WAIT;
+import static io.prestosql.SystemSessionProperties.ADAPTIVE_JOIN_MIN_PARTITIONED_BUILD_SIZE;
+import static io.prestosql.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
+import static io.prestosql.SystemSessionProperties.JOIN_REORDERING_STRATEGY;
+import static io.prestosql.execution.StageInfo.getAllStages;
+import static io.prestosql.sql.analyzer.FeaturesConfig.JoinDistributionType.BROADCAST;
+import static io.prestosql.sql.analyzer.FeaturesConfig.JoinReorderingStrategy.NONE;
+import static io.prestosql.sql.planner.AdaptiveJoinDistribution.isReplicatedBuildReader;
+import static io.prestosql.sql.planner.plan.JoinNode.DistributionType.PARTITIONED;
+import static io.prestosql.sql.planner.plan.JoinNode.DistributionType.REPLICATED;
+import static io.prestosql.testing.QueryAssertions.assertEqualsIgnoreOrder;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestAdaptiveJoinDistribution
+        extends AbstractTestQueryFramework
+{
+    private static final String JOIN_QUERY = "SELECT l.orderkey, l.linenumber, o.orderstatus FROM lineitem l JOIN orders o ON l.orderkey = o.orderkey";
+
+    @Override
+    protected QueryRunner createQueryRunner()
+            throws Exception
+    {
+        return TpchQueryRunnerBuilder.builder()
+                .amendSession(builder -> builder.setSystemProperty(ADAPTIVE_JOIN_DISTRIBUTION_ENABLED, "true"))
+                .build();
+    }
+
+    @Test
+    public void testSwitchToPartitioned()
+    {
+        Session session = Session.builder(getSession())
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, BROADCAST.toString())
+                .setSystemProperty(ADAPTIVE_JOIN_MAX_BROADCAST_BUILD_SIZE, "1B")
+                .build();
+        assertJoinDistribution(session, JOIN_QUERY, REPLICATED, PARTITIONED);
+        assertJoinDistribution(session, JOIN_QUERY.replace("JOIN", "LEFT JOIN"), REPLICATED, PARTITIONED);
+    }
+
+    @Test
+    public void testSwitchToReplicated()
+    {
+        Session session = Session.builder(getSession())
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, JoinDistributionType.PARTITIONED.toString())
+                .setSystemProperty(ADAPTIVE_JOIN_MIN_PARTITIONED_BUILD_SIZE, "1GB")
+                .build();
+        assertJoinDistribution(session, JOIN_QUERY, PARTITIONED, REPLICATED);
+        assertJoinDistribution(session, JOIN_QUERY.replace("JOIN", "LEFT JOIN"), PARTITIONED, REPLICATED);
+    }
+
+    @Test
+    public void testBuildSideLargerThanOutputBuffers()
+            throws Exception
+    {
+        // with a single node, the build side is larger than the output buffer of its only task,
+        // but the task buffers it until the max broadcast build size is reached
+        try (DistributedQueryRunner queryRunner = TpchQueryRunnerBuilder.builder()
+                .amendSession(builder -> builder
+                        .setSystemProperty(ADAPTIVE_JOIN_DISTRIBUTION_ENABLED, "true")
+                        .setSystemProperty(JOIN_DISTRIBUTION_TYPE, BROADCAST.toString())
+                        .setSystemProperty(JOIN_REORDERING_STRATEGY, NONE.toString()))
+                .setNodeCount(1)
+                .build()) {
+            @Language("SQL") String sql = "SELECT count(b.custkey), sum(b.totalprice), max(b.orderdate) FROM tpch.tiny.orders o JOIN tpch.sf1.orders b ON o.orderkey = b.orderkey";
+            ResultWithQueryId<MaterializedResult> result = queryRunner.executeWithQueryId(queryRunner.getDefaultSession(), sql);
+
+            Session unswitched = Session.builder(queryRunner.getDefaultSession())
+                    .setSystemProperty(ADAPTIVE_JOIN_DISTRIBUTION_ENABLED, "false")
+                    .build();
+            assertEquals(result.getResult().getMaterializedRows(), queryRunner.execute(unswitched, sql).getMaterializedRows());
+
+            QueryStats queryStats = queryRunner.getCoordinator().getQueryManager().getFullQueryInfo(result.getQueryId()).getQueryStats();
+            AdaptiveJoinDecision decision = getOnlyElement(queryStats.getAdaptiveJoinDecisions());
+            assertEquals(decision.getPlannedDistribution(), REPLICATED);
+            assertEquals(decision.getSelectedDistribution(), REPLICATED);
+            assertTrue(decision.getBuildDataSize().toBytes() > new TaskManagerConfig().getSinkMaxBufferSize().toBytes(), decision.getBuildDataSize().toString());
+            assertTrue(decision.getBuildDataSize().toBytes() < new FeaturesConfig().getAdaptiveJoinMaxBroadcastBuildSize().toBytes(), decision.getBuildDataSize().toString());
+        }
+    }
+
+    @Test
+    public void testDecideJoinsSeparately()
+    {
+        // the join with the small build side can be decided to stay before the other join is switched,
+        // so its stages may already run when the query is scheduled again
+        @Language("SQL") String sql = "" +
+                "SELECT l.orderkey, o.orderstatus, o.totalprice FROM lineitem l JOIN orders o ON l.orderkey = o.orderkey " +
+                "UNION ALL " +
+                "SELECT ps.partkey, p.mfgr, CAST(p.size AS double) FROM partsupp ps JOIN part p ON ps.partkey = p.partkey";
+        Session session = Session.builder(getSession())
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, BROADCAST.toString())
+                .setSystemProperty(ADAPTIVE_JOIN_MAX_BROADCAST_BUILD_SIZE, "100kB")
+                .build();
+        DistributedQueryRunner queryRunner = (DistributedQueryRunner) getQueryRunner();
+        ResultWithQueryId<MaterializedResult> result = queryRunner.executeWithQueryId(session, sql);
+        assertEqualsIgnoreOrder(result.getResult(), computeExpected(sql, result.getResult().getTypes()));
+
+        List<AdaptiveJoinDecision> decisions = queryRunner.getCoordinator().getQueryManager().getFullQueryInfo(result.getQueryId()).getQueryStats().getAdaptiveJoinDecisions();
+        assertEquals(decisions.stream()
+                .filter(decision -> decision.getSelectedDistribution() == PARTITIONED)
+                .count(), 1);
+    }
+
+    @Test
+    public void testKeepPlannedDistribution()
+    {
+        Session session = Session.builder(getSession())
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, BROADCAST.toString())
+                .build();
+        assertJoinDistribution(session, JOIN_QUERY, REPLICATED, REPLICATED);
+
+        session = Session.builder(getSession())
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, JoinDistributionType.PARTITIONED.toString())
+                .setSystemProperty(ADAPTIVE_JOIN_MIN_PARTITIONED_BUILD_SIZE, "1B")
+                .build();
+        assertJoinDistribution(session, JOIN_QUERY, PARTITIONED, PARTITIONED);
+    }
+
+    @Test
+    public void testBuildSideReadOnce()
+    {
+        DistributedQueryRunner queryRunner = (DistributedQueryRunner) getQueryRunner();
+        QueryManager queryManager = queryRunner.getCoordinator().getQueryManager();
+
+        Session partitioned = Session.builder(getSession())
+                .setSystemProperty(ADAPTIVE_JOIN_DISTRIBUTION_ENABLED, "false")
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, JoinDistributionType.PARTITIONED.toString())
+                .build();
+        QueryStats plannedStats = queryManager.getFullQueryInfo(queryRunner.executeWithQueryId(partitioned, JOIN_QUERY).getQueryId()).getQueryStats();
+
+        Session switched = Session.builder(getSession())
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, BROADCAST.toString())
+                .setSystemProperty(ADAPTIVE_JOIN_MAX_BROADCAST_BUILD_SIZE, "1B")
+                .build();
+        QueryStats switchedStats = queryManager.getFullQueryInfo(queryRunner.executeWithQueryId(switched, JOIN_QUERY).getQueryId()).getQueryStats();
+        assertEquals(getOnlyElement(switchedStats.getAdaptiveJoinDecisions()).getSelectedDistribution(), PARTITIONED);
+
+        // the build stage keeps running when the join is switched
+        assertEquals(switchedStats.getRawInputPositions(), plannedStats.getRawInputPositions());
+    }
+
+    @Test
+    public void testRepartitionBuildSideInParallel()
+    {
+        DistributedQueryRunner queryRunner = (DistributedQueryRunner) getQueryRunner();
+        assertTrue(queryRunner.getNodeCount() > 1, "the build side must be repartitioned by more than one worker");
+
+        Session session = Session.builder(getSession())
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, BROADCAST.toString())
+                .setSystemProperty(ADAPTIVE_JOIN_MAX_BROADCAST_BUILD_SIZE, "1B")
+                .build();
+        ResultWithQueryId<MaterializedResult> result = queryRunner.executeWithQueryId(session, JOIN_QUERY);
+        assertEqualsIgnoreOrder(result.getResult(), computeExpected(JOIN_QUERY, result.getResult().getTypes()));
+
+        // the replicated build output is read once, by all tasks of the stage which repartitions it
+        QueryInfo queryInfo = queryRunner.getCoordinator().getQueryManager().getFullQueryInfo(result.getQueryId());
+        assertEquals(getOnlyElement(queryInfo.getQueryStats().getAdaptiveJoinDecisions()).getSelectedDistribution(), PARTITIONED);
+        StageInfo readerStage = getAllStages(queryInfo.getOutputStage()).stream()
+                .filter(stage -> stage.getPlan() != null && isReplicatedBuildReader(stage.getPlan()))
+                .collect(onlyElement());
+        assertTrue(readerStage.getTasks().size() > 1, "Expected more than one task, but got " + readerStage.getTasks().size());
+    }
+
+    @Test
+    public void testMaxBuildWait()
+    {
+        Session session = Session.builder(getSession())
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, JoinDistributionType.PARTITIONED.toString())
+                .setSystemProperty(ADAPTIVE_JOIN_MIN_PARTITIONED_BUILD_SIZE, "1GB")
+                .setSystemProperty(ADAPTIVE_JOIN_MAX_BUILD_WAIT, "0s")
+                .build();
+        DistributedQueryRunner queryRunner = (DistributedQueryRunner) getQueryRunner();
+        ResultWithQueryId<MaterializedResult> result = queryRunner.executeWithQueryId(session, JOIN_QUERY);
+        assertEqualsIgnoreOrder(result.getResult(), computeExpected(JOIN_QUERY, result.getResult().getTypes()));
+
+        // the join is undecided when the wait ends, so it keeps the planned distribution
+        QueryStats queryStats = queryRunner.getCoordinator().getQueryManager().getFullQueryInfo(result.getQueryId()).getQueryStats();
+        assertTrue(queryStats.getAdaptiveJoinDecisions().isEmpty());
+    }
+
+    @Test
+    public void testExplainAnalyze()
+    {
+        Session session = Session.builder(getSession())
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, BROADCAST.toString())
+                .setSystemProperty(ADAPTIVE_JOIN_MAX_BROADCAST_BUILD_SIZE, "1B")
+                .build();
+        String plan = (String) computeActual(session, "EXPLAIN ANALYZE " + JOIN_QUERY).getOnlyValue();
+        assertTrue(plan.contains("Adaptive join distribution:"), plan);
+        assertTrue(plan.contains("REPLICATED -> PARTITIONED"), plan);
+    }
+
+    private void assertJoinDistribution(Session session, @Language("SQL") String sql, DistributionType plannedDistribution, DistributionType selectedDistribution)
+    {
+        DistributedQueryRunner queryRunner = (DistributedQueryRunner) getQueryRunner();
+        QueryManager queryManager = queryRunner.getCoordinator().getQueryManager();
+
+        ResultWithQueryId<MaterializedResult> result = queryRunner.executeWithQueryId(session, sql);
+        MaterializedResult expected = computeExpected(sql, result.getResult().getTypes());
+        assertEqualsIgnoreOrder(result.getResult(), expected, "For query: \n " + sql);
+
+        List<AdaptiveJoinDecision> decisions = queryManager.getFullQueryInfo(result.getQueryId()).getQueryStats().getAdaptiveJoinDecisions();
+        AdaptiveJoinDecision decision = getOnlyElement(decisions);
+        assertEquals(decision.getPlannedDistribution(), plannedDistribution);
+        assertEquals(decision.getSelectedDistribution(), selectedDistribution);
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.tests;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Key;
+import io.airlift.stats.CounterStat;
+import io.airlift.units.Duration;
+import io.prestosql.Session;
+import io.prestosql.metadata.InMemoryNodeManager;
+import io.prestosql.plugin.memory.MemoryPlugin;
+import io.prestosql.plugin.tpch.TpchPlugin;
+import io.prestosql.server.protocol.ResultSpool;
+import io.prestosql.server.protocol.ResultSpoolConfig;
+import io.prestosql.spi.QueryId;
+import io.prestosql.testing.AbstractTestQueryFramework;
+import io.prestosql.testing.DistributedQueryRunner;
+import io.prestosql.testing.MaterializedResult;
+import io.prestosql.testing.QueryRunner;
+import io.prestosql.tests.TestQuerySerializationFailures.BogusPlugin;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.prestosql.SystemSessionProperties.SPOOLED_RESULTS_ENABLED;
+import static io.prestosql.plugin.tpch.TpchMetadata.TINY_SCHEMA_NAME;
+import static io.prestosql.testing.QueryAssertions.assertEqualsIgnoreOrder;
+import static io.prestosql.testing.TestingSession.testSessionBuilder;
+import static io.prestosql.testing.assertions.Assert.assertEventually;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestSpooledResults
+        extends AbstractTestQueryFramework
+{
+    @Override
+    protected QueryRunner createQueryRunner()
+            throws Exception
+    {
+        Session session = testSessionBuilder()
+                .setCatalog("tpch")
+                .setSchema(TINY_SCHEMA_NAME)
+                .setSystemProperty(SPOOLED_RESULTS_ENABLED, "true")
+                .build();
+
+        DistributedQueryRunner queryRunner = DistributedQueryRunner.builder(session)
+                .setNodeCount(3)
+                .setExtraProperties(ImmutableMap.of(
+                        "result-spool.segment-size", "16kB",
+                        "result-spool.max-inline-size", "1kB"))
+                .build();
+
+        try {
+            queryRunner.installPlugin(new TpchPlugin());
+            queryRunner.createCatalog("tpch", "tpch");
+            queryRunner.installPlugin(new MemoryPlugin());
+            queryRunner.createCatalog("memory", "memory");
+            queryRunner.installPlugin(new BogusPlugin());
+            return queryRunner;
+        }
+        catch (Exception e) {
+            queryRunner.close();
+            throw e;
+        }
+    }
+
+    @Test
+    public void testSpooledSegments()
+    {
+        long spooledSegments = getTotalCount(ResultSpool::getSpooledSegments);
+        assertQuery("SELECT * FROM orders");
+        assertQuery("SELECT * FROM lineitem WHERE orderkey < 1000");
+        assertTrue(getTotalCount(ResultSpool::getSpooledSegments) > spooledSegments + 2, "results were not spooled");
+    }
+
+    @Test
+    public void testSegmentsRemovedAfterDownload()
+    {
+        long spooledSegments = getTotalCount(ResultSpool::getSpooledSegments);
+        long downloadedSegments = getTotalCount(ResultSpool::getDownloadedSegments);
+        assertQuery("SELECT * FROM orders");
+        long spooled = getTotalCount(ResultSpool::getSpooledSegments) - spooledSegments;
+        assertTrue(spooled > 0, "results were not spooled");
+        // segments are removed when the client acknowledges them, which is after it decoded them
+        assertEventually(new Duration(10, SECONDS), () -> assertEquals(getTotalCount(ResultSpool::getDownloadedSegments) - downloadedSegments, spooled));
+    }
+
+    @Test
+    public void testSegmentToken()
+            throws Exception
+    {
+        ResultSpool resultSpool = getResultSpools().get(0);
+        byte[] data = "segment data".getBytes(UTF_8);
+        URI uri = segmentUri(resultSpool.spool(new QueryId("test_segment_token"), data).get());
+
+        String path = uri.getPath();
+        URI invalidTokenUri = uri.resolve(path.substring(0, path.lastIndexOf('/') + 1) + "invalid");
+        assertEquals(getResponseCode(invalidTokenUri, "GET"), HTTP_NOT_FOUND);
+        assertEquals(getResponseCode(invalidTokenUri, "DELETE"), HTTP_NOT_FOUND);
+
+        // the segment can be downloaded again until it is acknowledged
+        assertEquals(readSegment(uri), data);
+        assertEquals(readSegment(uri), data);
+
+        assertEquals(getResponseCode(uri, "DELETE"), HTTP_NO_CONTENT);
+        assertEquals(getResponseCode(uri, "GET"), HTTP_NOT_FOUND);
+        assertEquals(getResponseCode(uri, "DELETE"), HTTP_NOT_FOUND);
+    }
+
+    @Test
+    public void testQuerySegmentsRemoved()
+            throws Exception
+    {
+        ResultSpool resultSpool = getResultSpools().get(0);
+        QueryId queryId = new QueryId("test_query_segments");
+        URI first = segmentUri(resultSpool.spool(queryId, "first".getBytes(UTF_8)).get());
+        URI second = segmentUri(resultSpool.spool(queryId, "second".getBytes(UTF_8)).get());
+        URI other = segmentUri(resultSpool.spool(new QueryId("test_other_query_segments"), "other".getBytes(UTF_8)).get());
+
+        long discardedSegments = resultSpool.getDiscardedSegments().getTotalCount();
+        resultSpool.removeQuerySegments(queryId);
+        assertEquals(resultSpool.getDiscardedSegments().getTotalCount() - discardedSegments, 2);
+        assertEquals(getResponseCode(first, "GET"), HTTP_NOT_FOUND);
+        assertEquals(getResponseCode(second, "GET"), HTTP_NOT_FOUND);
+        assertEquals(readSegment(other), "other".getBytes(UTF_8));
+        assertEquals(getResponseCode(other, "DELETE"), HTTP_NO_CONTENT);
+    }
+
+    @Test
+    public void testSegmentsDownloadedThroughCoordinator()
+            throws Exception
+    {
+        // the nodes have no external URI, so the segment URI is resolved by the coordinator
+        URI uri = getResultSpools().get(1).spool(new QueryId("test_proxied_segment"), "proxied".getBytes(UTF_8)).get();
+        assertFalse(uri.isAbsolute());
+        assertTrue(uri.getPath().startsWith("/v1/spool/proxy/"), uri.toString());
+
+        URI proxyUri = segmentUri(uri);
+        assertEquals(readSegment(proxyUri), "proxied".getBytes(UTF_8));
+        assertEquals(getResponseCode(proxyUri, "DELETE"), HTTP_NO_CONTENT);
+        assertEquals(getResponseCode(proxyUri, "GET"), HTTP_NOT_FOUND);
+    }
+
+    @Test
+    public void testExternalSegmentUri()
+            throws Exception
+    {
+        ResultSpoolConfig config = new ResultSpoolConfig()
+                .setPath(createTempDirectory("result-spool").toFile())
+                .setExternalUri(URI.create("https://worker.example.com:8443"));
+        ResultSpool resultSpool = new ResultSpool(config, new InMemoryNodeManager());
+        try {
+            URI uri = resultSpool.spool(new QueryId("test_external_uri"), "external".getBytes(UTF_8)).get();
+            assertEquals(uri.getScheme(), "https");
+            assertEquals(uri.getAuthority(), "worker.example.com:8443");
+            assertTrue(uri.getPath().startsWith("/v1/spool/"), uri.toString());
+            assertFalse(uri.getPath().startsWith("/v1/spool/proxy/"), uri.toString());
+        }
+        finally {
+            resultSpool.stop();
+            deleteRecursively(config.getPath().toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testOrderedResults()
+    {
+        assertQueryOrdered("SELECT orderkey, custkey, comment FROM orders ORDER BY orderkey DESC");
+    }
+
+    @Test
+    public void testResultsMatchUnspooled()
+    {
+        Session unspooled = Session.builder(getSession())
+                .setSystemProperty(SPOOLED_RESULTS_ENABLED, "false")
+                .build();
+
+        String sql = "SELECT * FROM customer";
+        MaterializedResult expected = computeActual(unspooled, sql);
+        MaterializedResult actual = computeActual(sql);
+        assertEquals(actual.getTypes(), expected.getTypes());
+        assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+    }
+
+    @Test
+    public void testSmallResultsAreInlined()
+    {
+        long spooledSegments = getTotalCount(ResultSpool::getSpooledSegments);
+        assertQuery("SELECT count(*) FROM orders");
+        assertQuery("SELECT * FROM nation WHERE nationkey = 1");
+        assertEquals(getTotalCount(ResultSpool::getSpooledSegments), spooledSegments);
+    }
+
+    @Test
+    public void testEmptyResult()
+    {
+        assertQueryReturnsEmptyResult("SELECT * FROM orders WHERE orderkey < 0");
+    }
+
+    @Test
+    public void testUpdateCount()
+    {
+        assertUpdate("CREATE TABLE memory.default.spooled_orders AS SELECT * FROM orders", 15000);
+        assertUpdate("INSERT INTO memory.default.spooled_orders SELECT * FROM orders WHERE orderkey < 8", 7);
+        assertQuery("SELECT count(*) FROM memory.default.spooled_orders", "VALUES 15007");
+        assertUpdate("DROP TABLE memory.default.spooled_orders");
+    }
+
+    @Test
+    public void testSerializationFailure()
+    {
+        assertQueryFails("SELECT * FROM (VALUES BOGUS(true), BOGUS(false), BOGUS(true))", "Could not serialize column '_col0' of type 'Bogus' at position 1:1");
+    }
+
+    private long getTotalCount(Function<ResultSpool, CounterStat> counter)
+    {
+        long count = 0;
+        for (ResultSpool resultSpool : getResultSpools()) {
+            count += counter.apply(resultSpool).getTotalCount();
+        }
+        return count;
+    }
+
+    private List<ResultSpool> getResultSpools()
+    {
+        return ((DistributedQueryRunner) getQueryRunner()).getServers().stream()
+                .map(server -> server.getInstance(Key.get(ResultSpool.class)))
+                .collect(toImmutableList());
+    }
+
+    private URI segmentUri(URI uri)
+    {
+        return ((DistributedQueryRunner) getQueryRunner()).getCoordinator().getBaseUrl().resolve(uri);
+    }
+
+    private static byte[] readSegment(URI uri)
+            throws IOException
+    {
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        try (InputStream input = connection.getInputStream()) {
+            return input.readAllBytes();
+        }
+    }
+
+    private static int getResponseCode(URI uri, String method)
+    {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+            connection.setRequestMethod(method);
+            try {
+                return connection.getResponseCode();
+            }
+            finally {
+                connection.disconnect();
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}